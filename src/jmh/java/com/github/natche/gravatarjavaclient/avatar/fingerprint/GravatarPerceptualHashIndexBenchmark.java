@@ -0,0 +1,96 @@
+package com.github.natche.gravatarjavaclient.avatar.fingerprint;
+
+import com.github.natche.gravatarjavaclient.enums.GravatarPerceptualHashAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares near-duplicate lookups in a {@link GravatarPerceptualHashIndex} against scanning every hash.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GravatarPerceptualHashIndexBenchmark {
+    /**
+     * The number of entries in the index.
+     */
+    @Param({"100000", "1000000"})
+    public int entries;
+
+    /**
+     * The maximum Hamming distance queried for.
+     */
+    @Param({"4", "10"})
+    public int maxDistance;
+
+    /**
+     * The index.
+     */
+    private GravatarPerceptualHashIndex<Integer> index;
+
+    /**
+     * The hashes in the index.
+     */
+    private long[] hashes;
+
+    /**
+     * The query, a few bits away from one of the entries.
+     */
+    private GravatarPerceptualHash query;
+
+    /**
+     * Fills the index with random hashes.
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        index = GravatarPerceptualHashIndex.create(GravatarPerceptualHashAlgorithm.Dct);
+        hashes = new long[entries];
+        for (int i = 0; i < entries; i++) {
+            hashes[i] = random.nextLong();
+            index.add(new GravatarPerceptualHash(GravatarPerceptualHashAlgorithm.Dct, hashes[i]), i);
+        }
+        query = new GravatarPerceptualHash(GravatarPerceptualHashAlgorithm.Dct, hashes[entries / 2] ^ 0b1011);
+    }
+
+    /**
+     * Finds the entries near the query using the index.
+     *
+     * @return the matches
+     */
+    @Benchmark
+    public List<GravatarPerceptualHashMatch<Integer>> findWithin() {
+        return index.findWithin(query, maxDistance);
+    }
+
+    /**
+     * Counts the entries near the query by scanning every hash.
+     *
+     * @return the number of matches
+     */
+    @Benchmark
+    public int scan() {
+        long bits = query.getBits();
+        int matches = 0;
+        for (long hash : hashes) {
+            if (Long.bitCount(hash ^ bits) <= maxDistance) matches++;
+        }
+        return matches;
+    }
+}
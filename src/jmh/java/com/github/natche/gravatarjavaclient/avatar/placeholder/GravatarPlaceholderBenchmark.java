@@ -0,0 +1,103 @@
+package com.github.natche.gravatarjavaclient.avatar.placeholder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares placeholder extraction against averaging an avatar with a {@link BufferedImage#getRGB(int, int)}
+ * call per pixel, the approach extraction avoids.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GravatarPlaceholderBenchmark {
+    /**
+     * The width and height of the avatar.
+     */
+    @Param({"80", "512", "2048"})
+    public int size;
+
+    /**
+     * The type of the avatar, matching what {@link javax.imageio.ImageIO} produces for JPEGs and RGBA PNGs.
+     */
+    @Param({"5", "6"})
+    public int imageType;
+
+    /**
+     * The avatar.
+     */
+    private BufferedImage image;
+
+    /**
+     * Creates an avatar of random pixels.
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        image = new BufferedImage(size, size, imageType);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                image.setRGB(x, y, random.nextInt() | 0xFF000000);
+            }
+        }
+    }
+
+    /**
+     * Computes the BlurHash and dominant color of the avatar.
+     *
+     * @return the placeholder
+     */
+    @Benchmark
+    public GravatarAvatarPlaceholder extract() {
+        return GravatarPlaceholderExtractor.INSTANCE.extract(image);
+    }
+
+    /**
+     * Computes the BlurHash of the avatar.
+     *
+     * @return the BlurHash
+     */
+    @Benchmark
+    public String encodeBlurHash() {
+        return GravatarPlaceholderExtractor.INSTANCE.encodeBlurHash(image, 4, 3);
+    }
+
+    /**
+     * Averages every pixel of the avatar using {@link BufferedImage#getRGB(int, int)}.
+     *
+     * @return the average color
+     */
+    @Benchmark
+    public int getRgbPerPixelAverage() {
+        long red = 0;
+        long green = 0;
+        long blue = 0;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int rgb = image.getRGB(x, y);
+                red += (rgb >> 16) & 0xFF;
+                green += (rgb >> 8) & 0xFF;
+                blue += rgb & 0xFF;
+            }
+        }
+
+        long count = (long) size * size;
+        return (int) (red / count) << 16 | (int) (green / count) << 8 | (int) (blue / count);
+    }
+}
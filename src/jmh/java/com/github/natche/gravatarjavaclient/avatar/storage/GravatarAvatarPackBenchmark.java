@@ -0,0 +1,174 @@
+package com.github.natche.gravatarjavaclient.avatar.storage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares random lookups from a {@link GravatarAvatarPackReader} against reading one file per avatar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GravatarAvatarPackBenchmark {
+    /**
+     * The number of avatars stored.
+     */
+    @Param({"1000", "10000"})
+    public int avatarCount;
+
+    /**
+     * The length in bytes of each encoded avatar.
+     */
+    @Param({"2048", "16384"})
+    public int avatarLength;
+
+    /**
+     * The directory holding the pack and the per-avatar files.
+     */
+    private Path root;
+
+    /**
+     * The directory holding one file per avatar.
+     */
+    private Path filesDirectory;
+
+    /**
+     * The reader of the pack.
+     */
+    private GravatarAvatarPackReader reader;
+
+    /**
+     * The keys of the stored avatars.
+     */
+    private String[] keys;
+
+    /**
+     * Writes the pack and the per-avatar files.
+     *
+     * @throws IOException if writing fails
+     */
+    @Setup
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("avatar_pack_benchmark");
+        filesDirectory = Files.createDirectory(root.resolve("files"));
+        Path pack = root.resolve("avatars.pack");
+
+        Random random = new Random(0);
+        keys = new String[avatarCount];
+        byte[] image = new byte[avatarLength];
+        try (GravatarAvatarPackWriter writer = GravatarAvatarPackWriter.open(pack)) {
+            for (int i = 0; i < avatarCount; i++) {
+                keys[i] = Long.toHexString(random.nextLong()) + ".png";
+                random.nextBytes(image);
+                writer.put(keys[i], ByteBuffer.wrap(image));
+                Files.write(filesDirectory.resolve(keys[i]), image);
+            }
+        }
+
+        reader = GravatarAvatarPackReader.open(pack);
+    }
+
+    /**
+     * Closes the reader and deletes the written files.
+     */
+    @TearDown
+    public void tearDown() {
+        reader.close();
+        deleteRecursively(root.toFile());
+    }
+
+    /**
+     * Looks up a random avatar from the pack and touches every byte of the returned view.
+     *
+     * @return the sum of the avatar's bytes
+     */
+    @Benchmark
+    public long packLookup() {
+        ByteBuffer image = reader.get(randomKey()).orElseThrow();
+        long sum = 0;
+        for (int i = image.position(); i < image.limit(); i++) {
+            sum += image.get(i);
+        }
+        return sum;
+    }
+
+    /**
+     * Reads a random avatar from its own file and touches every byte.
+     *
+     * @return the sum of the avatar's bytes
+     * @throws IOException if reading fails
+     */
+    @Benchmark
+    public long fileLookup() throws IOException {
+        byte[] image = Files.readAllBytes(filesDirectory.resolve(randomKey()));
+        long sum = 0;
+        for (byte value : image) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    /**
+     * Checks for the presence of a random avatar in the pack without touching its bytes.
+     *
+     * @param blackhole the blackhole
+     */
+    @Benchmark
+    public void packContains(Blackhole blackhole) {
+        blackhole.consume(reader.contains(randomKey()));
+    }
+
+    /**
+     * Checks for the presence of a random avatar's file.
+     *
+     * @param blackhole the blackhole
+     */
+    @Benchmark
+    public void fileContains(Blackhole blackhole) {
+        blackhole.consume(Files.exists(filesDirectory.resolve(randomKey())));
+    }
+
+    /**
+     * Returns a random stored key.
+     */
+    private String randomKey() {
+        return keys[ThreadLocalRandom.current().nextInt(keys.length)];
+    }
+
+    /**
+     * Deletes the provided file or directory and its contents.
+     */
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+    }
+}
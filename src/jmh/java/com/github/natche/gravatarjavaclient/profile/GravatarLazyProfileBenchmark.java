@@ -0,0 +1,130 @@
+package com.github.natche.gravatarjavaclient.profile;
+
+import com.github.natche.gravatarjavaclient.profile.gson.GsonProvider;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading a few members of a {@link GravatarLazyProfile} against eagerly reading the whole profile,
+ * both from the raw UTF-8 bytes of a response body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GravatarLazyProfileBenchmark {
+    /**
+     * The number of entries in each list of the profile; zero is a typical unauthenticated profile.
+     */
+    @Param({"0", "50", "500"})
+    public int entries;
+
+    /**
+     * The Gson instance using the streaming type adapters.
+     */
+    private Gson gson;
+
+    /**
+     * The UTF-8 profile JSON.
+     */
+    private byte[] json;
+
+    /**
+     * Prepares the JSON.
+     */
+    @Setup
+    public void setup() {
+        gson = GsonProvider.INSTANCE.get();
+        String profile = entries == 0
+                ? GravatarProfileFixtures.smallProfile()
+                : GravatarProfileFixtures.galleryProfile(entries);
+        json = profile.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the whole profile eagerly and then the display name and avatar URL.
+     *
+     * @param blackhole the blackhole consuming the members
+     */
+    @Benchmark
+    public void eagerTwoMembers(Blackhole blackhole) {
+        GravatarProfile profile = eager();
+        blackhole.consume(profile.getDisplayName());
+        blackhole.consume(profile.getAvatarUrl());
+    }
+
+    /**
+     * Indexes the profile and decodes only the display name and avatar URL.
+     *
+     * @param blackhole the blackhole consuming the members
+     */
+    @Benchmark
+    public void lazyTwoMembers(Blackhole blackhole) {
+        GravatarLazyProfile profile = GravatarLazyProfile.fromJson(json);
+        blackhole.consume(profile.getDisplayName());
+        blackhole.consume(profile.getAvatarUrl());
+    }
+
+    /**
+     * Reads the whole profile eagerly and then reads its registration date twice.
+     *
+     * @return the registration date
+     */
+    @Benchmark
+    public Instant eagerRepeatedDate() {
+        GravatarProfile profile = eager();
+        profile.getRegistrationDate();
+        return profile.getRegistrationDate().orElse(null);
+    }
+
+    /**
+     * Indexes the profile and reads its registration date twice.
+     *
+     * @return the registration date
+     */
+    @Benchmark
+    public Instant lazyRepeatedDate() {
+        GravatarLazyProfile profile = GravatarLazyProfile.fromJson(json);
+        profile.getRegistrationDate();
+        return profile.getRegistrationDate().orElse(null);
+    }
+
+    /**
+     * Indexes the profile and then decodes every member.
+     *
+     * @return the profile
+     */
+    @Benchmark
+    public GravatarProfile lazyEveryMember() {
+        return GravatarLazyProfile.fromJson(json).toProfile();
+    }
+
+    /**
+     * Reads the whole profile eagerly from the raw bytes.
+     */
+    private GravatarProfile eager() {
+        JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8));
+        return gson.fromJson(reader, GravatarProfile.class);
+    }
+}
@@ -0,0 +1,105 @@
+package com.github.natche.gravatarjavaclient.profile;
+
+/**
+ * Profile response bodies shared by the profile benchmarks.
+ */
+public final class GravatarProfileFixtures {
+    /**
+     * The fields every fixture starts with.
+     */
+    private static final String HEADER = """
+            {
+                "hash": "c83512d02db256cc5afb78376147ea0f2ea02e6a4e3399b980dea3bef9fc6168",
+                "display_name": "Nathan Cheshire",
+                "profile_url": "https://gravatar.com/nathanvcheshire",
+                "avatar_url": "https://0.gravatar.com/avatar/2bf1b7a19bcad06a8e894d7373a4cfc7",
+                "avatar_alt_text": "West of Loathing character",
+                "location": "New Orleans",
+                "description": "I make the computer go beep boop and then people ask me to fix their printer.",
+                "job_title": "Lead software engineer",
+                "company": "Natche Group",
+                "pronunciation": "Guess",
+                "pronouns": "Guess",
+                "timezone": "America/Chicago",
+                "first_name": "Nathan",
+                "last_name": "Cheshire",
+                "is_organization": false,
+                "number_verified_accounts": 1,
+                "last_profile_edit": "2024-11-02T17:41:15Z",
+                "registration_date": "2017-06-13T00:03:44Z",
+            """;
+
+    private GravatarProfileFixtures() {}
+
+    /**
+     * Returns the body of a typical unauthenticated profile response.
+     *
+     * @return the body
+     */
+    public static String smallProfile() {
+        return HEADER + """
+                    "verified_accounts": [
+                        {
+                            "service_type": "github",
+                            "service_label": "GitHub",
+                            "service_icon": "https://gravatar.com/icons/github.svg",
+                            "url": "https://github.com/NathanCheshire"
+                        }
+                    ]
+                }
+                """;
+    }
+
+    /**
+     * Returns the body of an authenticated profile response with the provided number of gallery images,
+     * links, interests, and languages.
+     *
+     * @param entries the number of entries in each list
+     * @return the body
+     */
+    public static String galleryProfile(int entries) {
+        StringBuilder builder = new StringBuilder(HEADER);
+
+        builder.append("\"verified_accounts\": [");
+        for (int i = 0; i < entries; i++) {
+            if (i > 0) builder.append(',');
+            builder.append("{\"service_type\": \"github\", \"service_label\": \"GitHub\", ")
+                    .append("\"service_icon\": \"https://gravatar.com/icons/github.svg\", ")
+                    .append("\"url\": \"https://github.com/user").append(i).append("\"}");
+        }
+
+        builder.append("], \"links\": [");
+        for (int i = 0; i < entries; i++) {
+            if (i > 0) builder.append(',');
+            builder.append("{\"label\": \"Link ").append(i)
+                    .append("\", \"value\": \"https://example.com/").append(i).append("\"}");
+        }
+
+        builder.append("], \"interests\": [");
+        for (int i = 0; i < entries; i++) {
+            if (i > 0) builder.append(',');
+            builder.append("{\"id\": ").append(i).append(", \"name\": \"interest ").append(i).append("\"}");
+        }
+
+        builder.append("], \"languages\": [");
+        for (int i = 0; i < entries; i++) {
+            if (i > 0) builder.append(',');
+            builder.append("{\"code\": \"en\", \"name\": \"English\", \"is_primary\": ")
+                    .append(i == 0).append(", \"order\": ").append(i).append('}');
+        }
+
+        builder.append("], \"gallery\": [");
+        for (int i = 0; i < entries; i++) {
+            if (i > 0) builder.append(',');
+            builder.append("{\"url\": \"https://0.gravatar.com/userimage/1/").append(i)
+                    .append(".jpeg\", \"alt_text\": \"A photo, number ").append(i).append(", of an error\"}");
+        }
+
+        builder.append("], \"payments\": {\"links\": [{\"label\": \"Tips\", \"value\": \"https://example.com/tip\"}], ")
+                .append("\"crypto_wallets\": [{\"label\": \"BTC\", \"address\": \"bc1qxy2kgdygjrsqtzq2n0yrf\"}]}, ")
+                .append("\"contact_info\": {\"email\": \"someone@example.com\", ")
+                .append("\"calendar\": \"https://example.com/calendar\"}");
+
+        return builder.append('}').toString();
+    }
+}
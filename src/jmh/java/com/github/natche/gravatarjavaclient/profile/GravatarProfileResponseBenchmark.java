@@ -0,0 +1,77 @@
+package com.github.natche.gravatarjavaclient.profile;
+
+import com.github.natche.gravatarjavaclient.profile.gson.GsonProvider;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading a profile response as it streams in against reading the body into a string first.
+ * Allocation is best compared by running with {@code -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GravatarProfileResponseBenchmark {
+    /**
+     * The number of entries in each list of the profile; zero is a typical unauthenticated profile.
+     */
+    @Param({"0", "50", "500"})
+    public int entries;
+
+    /**
+     * The UTF-8 bytes of the response body.
+     */
+    private byte[] body;
+
+    /**
+     * Encodes the response body.
+     */
+    @Setup
+    public void setup() {
+        String json = entries == 0
+                ? GravatarProfileFixtures.smallProfile()
+                : GravatarProfileFixtures.galleryProfile(entries);
+        body = json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses the profile as the response streams in.
+     *
+     * @return the profile
+     */
+    @Benchmark
+    public GravatarProfile streaming() {
+        return GravatarProfileRequestHandler.INSTANCE.readProfile(200, new ByteArrayInputStream(body));
+    }
+
+    /**
+     * Reads the response into a string, checks it for an error, and parses it.
+     *
+     * @return the profile
+     * @throws IOException never
+     */
+    @Benchmark
+    public GravatarProfile stringBody() throws IOException {
+        String json = new String(new ByteArrayInputStream(body).readAllBytes(), StandardCharsets.UTF_8);
+        if (json.contains("\"error\"")) throw new IllegalStateException();
+        return GsonProvider.INSTANCE.get().fromJson(json, GravatarProfile.class);
+    }
+}
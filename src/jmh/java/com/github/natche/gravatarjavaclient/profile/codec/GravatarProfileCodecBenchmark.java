@@ -0,0 +1,116 @@
+package com.github.natche.gravatarjavaclient.profile.codec;
+
+import com.github.natche.gravatarjavaclient.profile.GravatarProfileFixtures;
+import com.github.natche.gravatarjavaclient.profile.gson.GsonProvider;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the binary profile codec against UTF-8 JSON written and read by the streaming type adapters.
+ * The encoded sizes of both are printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GravatarProfileCodecBenchmark {
+    /**
+     * The number of entries in each list of the profile; zero is a typical unauthenticated profile.
+     */
+    @Param({"0", "50", "500"})
+    public int entries;
+
+    /**
+     * The Gson instance using the streaming type adapters.
+     */
+    private Gson gson;
+
+    /**
+     * The profile.
+     */
+    private GravatarProfile profile;
+
+    /**
+     * The UTF-8 JSON of the profile.
+     */
+    private byte[] json;
+
+    /**
+     * The binary encoding of the profile.
+     */
+    private ByteBuffer encoded;
+
+    /**
+     * Prepares the profile and its encodings.
+     */
+    @Setup
+    public void setup() {
+        gson = GsonProvider.INSTANCE.get();
+        String text = entries == 0 ? GravatarProfileFixtures.smallProfile() : GravatarProfileFixtures.galleryProfile(entries);
+        profile = gson.fromJson(text, GravatarProfile.class);
+        json = gson.toJson(profile).getBytes(StandardCharsets.UTF_8);
+        encoded = GravatarProfileCodec.INSTANCE.encode(profile);
+        System.out.printf("%nentries=%d json=%d bytes binary=%d bytes%n", entries, json.length, encoded.remaining());
+    }
+
+    /**
+     * Encodes the profile with the binary codec.
+     *
+     * @return the encoding
+     */
+    @Benchmark
+    public ByteBuffer encodeBinary() {
+        return GravatarProfileCodec.INSTANCE.encode(profile);
+    }
+
+    /**
+     * Writes the profile as UTF-8 JSON.
+     *
+     * @return the JSON
+     */
+    @Benchmark
+    public byte[] encodeJson() {
+        return gson.toJson(profile).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes the profile with the binary codec.
+     *
+     * @return the profile
+     */
+    @Benchmark
+    public GravatarProfile decodeBinary() {
+        return GravatarProfileCodec.INSTANCE.decode(encoded.duplicate());
+    }
+
+    /**
+     * Reads the profile from UTF-8 JSON.
+     *
+     * @return the profile
+     */
+    @Benchmark
+    public GravatarProfile decodeJson() {
+        JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8));
+        return gson.fromJson(reader, GravatarProfile.class);
+    }
+}
@@ -0,0 +1,125 @@
+package com.github.natche.gravatarjavaclient.profile.gson;
+
+import com.github.natche.gravatarjavaclient.profile.GravatarProfileFixtures;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile;
+import com.google.common.collect.ImmutableList;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the streaming profile type adapters against Gson's reflective binding, both directly
+ * and through a {@link JsonElement} tree as the previous deserializer did.
+ * Allocation is best compared by running with {@code -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GravatarProfileTypeAdapterBenchmark {
+    /**
+     * The number of entries in each list of the profile; zero is a typical unauthenticated profile.
+     */
+    @Param({"0", "50", "500"})
+    public int entries;
+
+    /**
+     * The Gson instance using the streaming type adapters.
+     */
+    private Gson streaming;
+
+    /**
+     * A Gson instance binding profiles by reflection.
+     */
+    private Gson reflective;
+
+    /**
+     * The profile JSON.
+     */
+    private String json;
+
+    /**
+     * The profile.
+     */
+    private GravatarProfile profile;
+
+    /**
+     * Prepares the JSON and Gson instances.
+     */
+    @Setup
+    public void setup() {
+        streaming = GsonProvider.INSTANCE.get();
+        reflective = new GsonBuilder()
+                .registerTypeAdapter(ImmutableList.class, new ImmutableListDeserializer())
+                .create();
+        json = entries == 0 ? GravatarProfileFixtures.smallProfile() : GravatarProfileFixtures.galleryProfile(entries);
+        profile = streaming.fromJson(json, GravatarProfile.class);
+    }
+
+    /**
+     * Reads the profile with the streaming type adapters.
+     *
+     * @return the profile
+     */
+    @Benchmark
+    public GravatarProfile readStreaming() {
+        return streaming.fromJson(json, GravatarProfile.class);
+    }
+
+    /**
+     * Reads the profile by reflection.
+     *
+     * @return the profile
+     */
+    @Benchmark
+    public GravatarProfile readReflective() {
+        return reflective.fromJson(json, GravatarProfile.class);
+    }
+
+    /**
+     * Reads the profile into a tree and then binds the tree by reflection.
+     *
+     * @return the profile
+     */
+    @Benchmark
+    public GravatarProfile readTree() {
+        JsonElement tree = JsonParser.parseString(json);
+        return reflective.fromJson(tree, GravatarProfile.class);
+    }
+
+    /**
+     * Writes the profile with the streaming type adapters.
+     *
+     * @return the JSON
+     */
+    @Benchmark
+    public String writeStreaming() {
+        return streaming.toJson(profile);
+    }
+
+    /**
+     * Writes the profile by reflection.
+     *
+     * @return the JSON
+     */
+    @Benchmark
+    public String writeReflective() {
+        return reflective.toJson(profile);
+    }
+}
@@ -0,0 +1,104 @@
+package com.github.natche.gravatarjavaclient.profile.memory;
+
+import com.github.natche.gravatarjavaclient.profile.GravatarProfileFixtures;
+import com.github.natche.gravatarjavaclient.profile.gson.GsonProvider;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading profiles with and without interning repeated values. The estimated bytes retained by
+ * each profile of a resident set read both ways are printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GravatarProfileInterningBenchmark {
+    /**
+     * The number of profiles in the resident set used for the printed estimates.
+     */
+    private static final int RESIDENT_PROFILES = 1000;
+
+    /**
+     * The number of entries in each list of the profile; zero is a typical unauthenticated profile.
+     */
+    @Param({"0", "50"})
+    public int entries;
+
+    /**
+     * The JSON of the profile.
+     */
+    private String json;
+
+    /**
+     * The Gson instance which does not intern.
+     */
+    private Gson gson;
+
+    /**
+     * The Gson instance which interns repeated values.
+     */
+    private Gson interningGson;
+
+    /**
+     * Prepares the profile and prints the estimates.
+     */
+    @Setup
+    public void setup() {
+        json = entries == 0 ? GravatarProfileFixtures.smallProfile() : GravatarProfileFixtures.galleryProfile(entries);
+        gson = GsonProvider.INSTANCE.get();
+        interningGson = GsonProvider.INSTANCE.getInterning();
+
+        GravatarProfileMemoryReport plain = GravatarProfileMemoryEstimator.INSTANCE.estimate(read(gson));
+        GravatarProfileMemoryReport interned = GravatarProfileMemoryEstimator.INSTANCE.estimate(read(interningGson));
+        System.out.printf("%nentries=%d plain=%.1f bytes/profile interned=%.1f bytes/profile shared=%d bytes%n",
+                entries, plain.getTotalBytes() / (double) RESIDENT_PROFILES,
+                interned.getTotalBytes() / (double) RESIDENT_PROFILES, interned.getSharedBytes());
+    }
+
+    /**
+     * Reads the resident set of profiles with the provided Gson instance.
+     */
+    private List<GravatarProfile> read(Gson gson) {
+        List<GravatarProfile> profiles = new ArrayList<>(RESIDENT_PROFILES);
+        for (int i = 0; i < RESIDENT_PROFILES; i++) profiles.add(gson.fromJson(json, GravatarProfile.class));
+        return profiles;
+    }
+
+    /**
+     * Reads the profile without interning.
+     *
+     * @return the profile
+     */
+    @Benchmark
+    public GravatarProfile read() {
+        return gson.fromJson(json, GravatarProfile.class);
+    }
+
+    /**
+     * Reads the profile, interning repeated values.
+     *
+     * @return the profile
+     */
+    @Benchmark
+    public GravatarProfile readInterning() {
+        return interningGson.fromJson(json, GravatarProfile.class);
+    }
+}
@@ -0,0 +1,101 @@
+package com.github.natche.gravatarjavaclient.profile.ndjson;
+
+import com.github.natche.gravatarjavaclient.profile.gson.GsonProvider;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading a file of newline-delimited JSON profiles on one thread against reading it in parallel chunks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GravatarProfileNdjsonBenchmark {
+    /**
+     * The number of profiles in the file.
+     */
+    @Param({"10000", "100000"})
+    public int profileCount;
+
+    /**
+     * The file.
+     */
+    private Path file;
+
+    /**
+     * The reader.
+     */
+    private GravatarProfileNdjsonReader reader;
+
+    /**
+     * Writes the file.
+     *
+     * @throws IOException if the file cannot be created
+     */
+    @Setup
+    public void setup() throws IOException {
+        file = Files.createTempFile("ndjson_benchmark", ".ndjson");
+        Random random = new Random(42);
+        try (GravatarProfileNdjsonWriter writer = GravatarProfileNdjsonWriter.open(file)) {
+            for (int i = 0; i < profileCount; i++) {
+                writer.write(new GravatarProfile(Integer.toHexString(i), "Name " + i, "https://gravatar.com/" + i,
+                        null, null, "location-" + random.nextInt(500), "Description " + random.nextLong(), null,
+                        "company-" + random.nextInt(100), null, null, null, null, null, null, null,
+                        random.nextInt(10) == 0, null, null, null, null, null, random.nextInt(8),
+                        "2024-11-02T17:41:15Z", null));
+            }
+        }
+        reader = new GravatarProfileNdjsonReader(GsonProvider.INSTANCE.get(), 1 << 20);
+    }
+
+    /**
+     * Deletes the file.
+     *
+     * @throws IOException if the file cannot be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Reads the file on one thread.
+     *
+     * @return the profiles
+     */
+    @Benchmark
+    public List<GravatarProfile> readSequential() {
+        return reader.readAll(file, 1);
+    }
+
+    /**
+     * Reads the file in parallel chunks.
+     *
+     * @return the profiles
+     */
+    @Benchmark
+    public List<GravatarProfile> readParallel() {
+        return reader.readAll(file);
+    }
+}
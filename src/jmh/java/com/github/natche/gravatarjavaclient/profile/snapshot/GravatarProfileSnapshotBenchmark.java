@@ -0,0 +1,92 @@
+package com.github.natche.gravatarjavaclient.profile.snapshot;
+
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares filtering and aggregating a list of profiles object by object against the same scans over the columns
+ * of a snapshot: the total verified accounts of organizations at one company.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GravatarProfileSnapshotBenchmark {
+    /**
+     * The number of profiles.
+     */
+    @Param({"100000", "1000000"})
+    public int profileCount;
+
+    /**
+     * The profiles.
+     */
+    private List<GravatarProfile> profiles;
+
+    /**
+     * The snapshot of the profiles.
+     */
+    private GravatarProfileSnapshot snapshot;
+
+    /**
+     * Prepares the profiles and their snapshot.
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        profiles = new ArrayList<>(profileCount);
+        for (int i = 0; i < profileCount; i++) {
+            profiles.add(new GravatarProfile(Integer.toHexString(i), null, "https://gravatar.com/" + i, null, null,
+                    "location-" + random.nextInt(500), null, null, "company-" + random.nextInt(100), null, null,
+                    null, null, null, null, null, random.nextInt(10) == 0, null, null, null, null, null,
+                    random.nextInt(8), "2024-11-02T17:41:15Z", null));
+        }
+        snapshot = GravatarProfileSnapshot.of(profiles);
+    }
+
+    /**
+     * Scans the profile objects.
+     *
+     * @return the total verified accounts
+     */
+    @Benchmark
+    public long scanObjects() {
+        long sum = 0;
+        for (GravatarProfile profile : profiles) {
+            if (profile.isOrganization() && "company-7".equals(profile.getCompany())) {
+                sum += profile.getNumberVerifiedAccounts();
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Scans the columns of the snapshot.
+     *
+     * @return the total verified accounts
+     */
+    @Benchmark
+    public long scanColumns() {
+        BitSet rows = snapshot.whereOrganization();
+        rows.and(snapshot.whereCompany("company-7"));
+        return snapshot.sumVerifiedAccounts(rows);
+    }
+}
@@ -12,13 +12,18 @@ import com.google.errorprone.annotations.CheckReturnValue;
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.IOException;
-import java.net.URI;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Objects;
 
 /**
  * A class for building a Gravatar Avatar request, requesting the resource, and saving
- * the resource to a {@link java.io.File} or a {@link java.awt.image.BufferedImage}.
+ * the resource to a {@link java.io.File}, {@link java.nio.file.Path}, {@link java.io.OutputStream},
+ * {@link java.nio.channels.WritableByteChannel}, {@link java.nio.ByteBuffer},
+ * or a {@link java.awt.image.BufferedImage}.
  * Read the official Avatar image request API docs <a href="https://docs.gravatar.com/api/avatars/images/">here</a>.
  */
 public final class GravatarAvatarRequest {
@@ -346,15 +351,11 @@ public final class GravatarAvatarRequest {
      * {@link #getRequestUrl()}. The content is encoded into a new {@link BufferedImage} and returned.
      *
      * @return a new {@link BufferedImage}
-     * @throws GravatarJavaClientException if an exception occurs reading from the URL
+     * @throws GravatarJavaClientException if an exception occurs reading from the URL, or the circuit breaker
+     *                                     of the avatar endpoint is open
      */
     public BufferedImage getBufferedImage() {
-        try {
-            String requestUrl = getRequestUrl();
-            return ImageIO.read(URI.create(requestUrl).toURL());
-        } catch (IOException e) {
-            throw new GravatarJavaClientException(e);
-        }
+        return GravatarAvatarRequestHandler.INSTANCE.readImage(GravatarEndpoint.Avatar, getRequestUrl());
     }
 
     /**
@@ -411,6 +412,149 @@ public final class GravatarAvatarRequest {
         return GravatarRequestImageSaver.INSTANCE.saveTo(getBufferedImage(), saveTo, format);
     }
 
+    /**
+     * Saves the image obtained from the URL constructed from this to the provided path as a png.
+     *
+     * @param saveTo the path to save the image to
+     * @param mode   how the path should be written
+     * @return whether the save operation was successful
+     * @throws NullPointerException     if any parameter is null
+     * @throws IllegalArgumentException if the provided path is a directory
+     */
+    @CheckReturnValue
+    public boolean saveAsPng(Path saveTo, GravatarPathSaveMode mode) {
+        return saveTo(saveTo, "png", mode);
+    }
+
+    /**
+     * Saves the image obtained from the URL constructed from this to the provided path as a jpg.
+     *
+     * @param saveTo the path to save the image to
+     * @param mode   how the path should be written
+     * @return whether the save operation was successful
+     * @throws NullPointerException     if any parameter is null
+     * @throws IllegalArgumentException if the provided path is a directory
+     */
+    @CheckReturnValue
+    public boolean saveAsJpg(Path saveTo, GravatarPathSaveMode mode) {
+        return saveTo(saveTo, "jpg", mode);
+    }
+
+    /**
+     * Saves the image obtained from the URL constructed from this to the provided path.
+     * Use {@link GravatarPathSaveMode#AtomicReplace} when other readers may observe the path
+     * while it is being written.
+     *
+     * @param saveTo the path to save the image to
+     * @param format the format to use; see {@link ImageIO#getWriterFormatNames()}
+     * @param mode   how the path should be written
+     * @return whether the save operation was successful
+     * @throws NullPointerException     if any parameter is null
+     * @throws IllegalArgumentException if the provided format is empty, the provided path is a directory,
+     *                                  or the mode is {@link GravatarPathSaveMode#CreateNew} and the path exists
+     */
+    @CheckReturnValue
+    public boolean saveTo(Path saveTo, String format, GravatarPathSaveMode mode) {
+        Preconditions.checkNotNull(saveTo);
+        Preconditions.checkNotNull(format);
+        Preconditions.checkNotNull(mode);
+        Preconditions.checkArgument(!format.trim().isEmpty());
+        Preconditions.checkArgument(!Files.isDirectory(saveTo));
+
+        return GravatarRequestImageSaver.INSTANCE.saveTo(getBufferedImage(), saveTo, format, mode);
+    }
+
+    /**
+     * Writes the image obtained from the URL constructed from this to the provided stream.
+     * The stream is flushed but not closed.
+     *
+     * @param out    the stream to write the image to
+     * @param format the format to use; see {@link ImageIO#getWriterFormatNames()}
+     * @return whether the write operation was successful
+     * @throws NullPointerException     if any parameter is null
+     * @throws IllegalArgumentException if the provided format is empty
+     */
+    @CanIgnoreReturnValue
+    public boolean writeTo(OutputStream out, String format) {
+        Preconditions.checkNotNull(out);
+        Preconditions.checkNotNull(format);
+        Preconditions.checkArgument(!format.trim().isEmpty());
+
+        return GravatarRequestImageSaver.INSTANCE.writeTo(getBufferedImage(), out, format);
+    }
+
+    /**
+     * Writes the image obtained from the URL constructed from this to the provided channel.
+     * The channel is not closed.
+     *
+     * @param channel the channel to write the image to
+     * @param format  the format to use; see {@link ImageIO#getWriterFormatNames()}
+     * @return whether the write operation was successful
+     * @throws NullPointerException     if any parameter is null
+     * @throws IllegalArgumentException if the provided format is empty or the channel is closed
+     */
+    @CanIgnoreReturnValue
+    public boolean writeTo(WritableByteChannel channel, String format) {
+        Preconditions.checkNotNull(channel);
+        Preconditions.checkNotNull(format);
+        Preconditions.checkArgument(!format.trim().isEmpty());
+
+        return GravatarRequestImageSaver.INSTANCE.writeTo(getBufferedImage(), channel, format);
+    }
+
+    /**
+     * Writes the image obtained from the URL constructed from this into the remaining space of the provided buffer.
+     * On success, the buffer's position is advanced past the encoded image.
+     *
+     * @param buffer the buffer to write the image into
+     * @param format the format to use; see {@link ImageIO#getWriterFormatNames()}
+     * @return whether the write operation was successful
+     * @throws NullPointerException        if any parameter is null
+     * @throws IllegalArgumentException    if the provided format is empty or the buffer is read only
+     * @throws GravatarJavaClientException if the encoded image does not fit in the buffer
+     */
+    @CanIgnoreReturnValue
+    public boolean writeTo(ByteBuffer buffer, String format) {
+        Preconditions.checkNotNull(buffer);
+        Preconditions.checkNotNull(format);
+        Preconditions.checkArgument(!format.trim().isEmpty());
+
+        return GravatarRequestImageSaver.INSTANCE.writeTo(getBufferedImage(), buffer, format);
+    }
+
+    /**
+     * Returns the image obtained from the URL constructed from this encoded using the provided format.
+     *
+     * @param format the format to use; see {@link ImageIO#getWriterFormatNames()}
+     * @return a read-only buffer containing the encoded image
+     * @throws NullPointerException     if the provided format is null
+     * @throws IllegalArgumentException if the provided format is empty
+     */
+    public ByteBuffer toByteBuffer(String format) {
+        Preconditions.checkNotNull(format);
+        Preconditions.checkArgument(!format.trim().isEmpty());
+
+        return GravatarRequestImageSaver.INSTANCE.toByteBuffer(getBufferedImage(), format);
+    }
+
+    /**
+     * Returns a new request with the same state as this request.
+     *
+     * @return a copy of this request
+     */
+    GravatarAvatarRequest copy() {
+        GravatarAvatarRequest copy = new GravatarAvatarRequest(hash);
+        copy.shouldAppendJpgSuffix = shouldAppendJpgSuffix;
+        copy.size = size;
+        copy.rating = rating;
+        copy.forceDefaultImage = forceDefaultImage;
+        copy.defaultImageType = defaultImageType;
+        copy.protocol = protocol;
+        copy.useFullUrlParameters = useFullUrlParameters;
+        copy.defaultImageUrl = defaultImageUrl;
+        return copy;
+    }
+
     /**
      * Returns a string representation of this request.
      *
@@ -1,16 +1,27 @@
 package com.github.natche.gravatarjavaclient.avatar;
 
 import com.github.natche.gravatarjavaclient.enums.GravatarDefaultImageType;
+import com.github.natche.gravatarjavaclient.enums.GravatarEndpoint;
 import com.github.natche.gravatarjavaclient.enums.GravatarForceDefaultImage;
 import com.github.natche.gravatarjavaclient.enums.GravatarUrlParameter;
 import com.github.natche.gravatarjavaclient.enums.GravatarUseFullUrlParameters;
 import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
+import com.github.natche.gravatarjavaclient.resilience.GravatarEndpointMonitor;
 import com.google.common.base.Preconditions;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * A singleton for constructing request URLs from {@link GravatarAvatarRequest}s.
+ * A singleton for constructing request URLs from {@link GravatarAvatarRequest}s, and for reading the images
+ * of avatar and QR code requests through the {@link GravatarEndpointMonitor}.
  */
 enum GravatarAvatarRequestHandler {
     /**
@@ -94,4 +105,64 @@ enum GravatarAvatarRequestHandler {
         builtUrlCount.incrementAndGet();
         return urlBuilder.toString();
     }
+
+    /**
+     * Reads the image at the provided URL of the provided endpoint, as permitted, retried, and hedged by the
+     * {@link GravatarEndpointMonitor}. A client error such as a missing avatar shows the endpoint to be healthy,
+     * so it is recorded as a successful request, but it is still thrown.
+     *
+     * @param endpoint the endpoint
+     * @param url      the URL of the image
+     * @return the image, or null if no image reader supports its format
+     * @throws NullPointerException        if the provided endpoint or URL is null
+     * @throws GravatarJavaClientException if the image cannot be read, or the circuit breaker
+     *                                     of the endpoint is open
+     */
+    BufferedImage readImage(GravatarEndpoint endpoint, String url) {
+        Preconditions.checkNotNull(endpoint);
+        Preconditions.checkNotNull(url);
+
+        GravatarEndpointMonitor monitor = GravatarEndpointMonitor.INSTANCE;
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).GET().build();
+        HttpResponse<byte[]> response = monitor.call(endpoint, () -> {
+            HttpResponse<byte[]> ret = monitor.callHedged(endpoint,
+                    () -> monitor.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()), ignored -> {});
+            if (!isHealthyClientError(endpoint, ret.statusCode())) checkStatus(endpoint, url, ret.statusCode());
+            return ret;
+        });
+
+        try {
+            checkStatus(endpoint, url, response.statusCode());
+            return ImageIO.read(new ByteArrayInputStream(response.body()));
+        } catch (IOException e) {
+            throw new GravatarJavaClientException(e);
+        }
+    }
+
+    /**
+     * Returns whether the provided status code of a response from the provided endpoint is a client error which
+     * shows the endpoint to be healthy: one other than rate limiting which its retry policy does not retry.
+     */
+    private static boolean isHealthyClientError(GravatarEndpoint endpoint, int statusCode) {
+        if (statusCode < 400 || statusCode >= 500 || statusCode == 429) return false;
+        return GravatarEndpointMonitor.INSTANCE.getRetryPolicy(endpoint)
+                .map(policy -> !policy.isRetryable(statusCode))
+                .orElse(true);
+    }
+
+    /**
+     * Throws if the provided status code of a request to the provided URL is an error: an exception the retry
+     * policy of the endpoint retries if the status is retryable, and one it does not otherwise.
+     */
+    private static void checkStatus(GravatarEndpoint endpoint, String url, int statusCode) throws IOException {
+        if (statusCode < 400) return;
+        if (statusCode == 404 || statusCode == 410) throw new FileNotFoundException(url);
+
+        String message = "Server returned HTTP response code: " + statusCode + " for URL: " + url;
+        boolean retryable = GravatarEndpointMonitor.INSTANCE.getRetryPolicy(endpoint)
+                .map(policy -> policy.isRetryable(statusCode))
+                .orElse(false);
+        if (retryable) throw new IOException(message);
+        throw new GravatarJavaClientException(message);
+    }
 }
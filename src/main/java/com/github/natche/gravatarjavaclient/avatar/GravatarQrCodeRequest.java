@@ -1,5 +1,7 @@
 package com.github.natche.gravatarjavaclient.avatar;
 
+import com.github.natche.gravatarjavaclient.enums.GravatarEndpoint;
+import com.github.natche.gravatarjavaclient.enums.GravatarPathSaveMode;
 import com.github.natche.gravatarjavaclient.enums.GravatarQrImageType;
 import com.github.natche.gravatarjavaclient.enums.GravatarQrImageVersion;
 import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
@@ -9,11 +11,13 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.Range;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 
-import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.IOException;
-import java.net.URI;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
  * A request for a user's profile QR code from Gravatar.
@@ -178,15 +182,11 @@ public final class GravatarQrCodeRequest {
      * Reads and returns a {@link BufferedImage} using the URL constructed from the current state of this request.
      *
      * @return a {@link BufferedImage} representing a QR code
-     * @throws GravatarJavaClientException if an exception occurs reading from the URL
+     * @throws GravatarJavaClientException if an exception occurs reading from the URL, or the circuit breaker
+     *                                     of the QR code endpoint is open
      */
     public BufferedImage getBufferedImage() {
-        try {
-            String url = getRequestUrl();
-            return ImageIO.read(URI.create(url).toURL());
-        } catch (IOException e) {
-            throw new GravatarJavaClientException(e);
-        }
+        return GravatarAvatarRequestHandler.INSTANCE.readImage(GravatarEndpoint.QrCode, getRequestUrl());
     }
 
     /**
@@ -207,6 +207,83 @@ public final class GravatarQrCodeRequest {
         return GravatarRequestImageSaver.INSTANCE.saveTo(getBufferedImage(), saveTo, "png");
     }
 
+    /**
+     * Saves the QR code obtained from this to the provided path as a PNG.
+     * Unlike {@link #saveTo(File)}, an existing path may be replaced depending on the provided mode.
+     *
+     * @param saveTo the path to save the QR code to as a PNG
+     * @param mode   how the path should be written
+     * @return whether the save operation was successful
+     * @throws NullPointerException     if any parameter is null
+     * @throws IllegalArgumentException if the provided path references a directory, or the mode is
+     *                                  {@link GravatarPathSaveMode#CreateNew} and the path exists
+     */
+    @CanIgnoreReturnValue
+    public boolean saveTo(Path saveTo, GravatarPathSaveMode mode) {
+        Preconditions.checkNotNull(saveTo);
+        Preconditions.checkNotNull(mode);
+        Preconditions.checkArgument(!Files.isDirectory(saveTo));
+
+        return GravatarRequestImageSaver.INSTANCE.saveTo(getBufferedImage(), saveTo, "png", mode);
+    }
+
+    /**
+     * Writes the QR code obtained from this to the provided stream as a PNG.
+     * The stream is flushed but not closed.
+     *
+     * @param out the stream to write the QR code to
+     * @return whether the write operation was successful
+     * @throws NullPointerException if the provided stream is null
+     */
+    @CanIgnoreReturnValue
+    public boolean writeTo(OutputStream out) {
+        Preconditions.checkNotNull(out);
+
+        return GravatarRequestImageSaver.INSTANCE.writeTo(getBufferedImage(), out, "png");
+    }
+
+    /**
+     * Writes the QR code obtained from this to the provided channel as a PNG.
+     * The channel is not closed.
+     *
+     * @param channel the channel to write the QR code to
+     * @return whether the write operation was successful
+     * @throws NullPointerException     if the provided channel is null
+     * @throws IllegalArgumentException if the provided channel is closed
+     */
+    @CanIgnoreReturnValue
+    public boolean writeTo(WritableByteChannel channel) {
+        Preconditions.checkNotNull(channel);
+
+        return GravatarRequestImageSaver.INSTANCE.writeTo(getBufferedImage(), channel, "png");
+    }
+
+    /**
+     * Writes the QR code obtained from this into the remaining space of the provided buffer as a PNG.
+     * On success, the buffer's position is advanced past the encoded image.
+     *
+     * @param buffer the buffer to write the QR code into
+     * @return whether the write operation was successful
+     * @throws NullPointerException        if the provided buffer is null
+     * @throws IllegalArgumentException    if the provided buffer is read only
+     * @throws GravatarJavaClientException if the encoded image does not fit in the buffer
+     */
+    @CanIgnoreReturnValue
+    public boolean writeTo(ByteBuffer buffer) {
+        Preconditions.checkNotNull(buffer);
+
+        return GravatarRequestImageSaver.INSTANCE.writeTo(getBufferedImage(), buffer, "png");
+    }
+
+    /**
+     * Returns the QR code obtained from this encoded as a PNG.
+     *
+     * @return a read-only buffer containing the encoded QR code
+     */
+    public ByteBuffer toByteBuffer() {
+        return GravatarRequestImageSaver.INSTANCE.toByteBuffer(getBufferedImage(), "png");
+    }
+
     /**
      * Returns a hashcode of this request.
      *
@@ -1,19 +1,31 @@
 package com.github.natche.gravatarjavaclient.avatar;
 
+import com.github.natche.gravatarjavaclient.enums.GravatarPathSaveMode;
 import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
 import com.github.natche.gravatarjavaclient.utils.InputValidator;
+import com.github.natche.gravatarjavaclient.utils.StagingFiles;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 
 import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
 import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
 import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * A singleton responsible for saving images to the local file system.
+ * A singleton responsible for saving images to the local file system, streams, channels, and buffers.
  */
 enum GravatarRequestImageSaver {
     /**
@@ -22,7 +34,17 @@ enum GravatarRequestImageSaver {
     INSTANCE;
 
     /**
-     * The number of files this saver has saved.
+     * The suffix of the staging file used when performing an {@link GravatarPathSaveMode#AtomicReplace}.
+     */
+    private static final String STAGING_FILE_SUFFIX = ".tmp";
+
+    /**
+     * The initial capacity of the buffer used when encoding an image to memory.
+     */
+    private static final int INITIAL_ENCODING_BUFFER_SIZE = 8192;
+
+    /**
+     * The number of images this saver has saved.
      */
     private final AtomicInteger savedCount = new AtomicInteger(0);
 
@@ -38,9 +60,9 @@ enum GravatarRequestImageSaver {
     );
 
     /**
-     * Returns the number of files which have been saved during this runtime.
+     * Returns the number of images which have been saved during this runtime.
      *
-     * @return the number of files which have been saved during this runtime
+     * @return the number of images which have been saved during this runtime
      */
     public int getSavedCount() {
         return savedCount.get();
@@ -73,4 +95,260 @@ enum GravatarRequestImageSaver {
             throw new GravatarJavaClientException("Failed to write the image to the file system");
         }
     }
+
+    /**
+     * Saves the image to the provided path encoded using the specified format.
+     * When the mode is {@link GravatarPathSaveMode#AtomicReplace}, the image is first written to a staging
+     * file in the same directory as the target, since an atomic move cannot cross file stores. The staging file
+     * is created with the default permissions, or given those of the target if it exists, so the saved file is as
+     * readable as one written by the other modes.
+     *
+     * @param image  the image to save
+     * @param path   the path to save the image to
+     * @param format the format in which to save the image (must be a valid format)
+     * @param mode   how the path should be written
+     * @return whether the save operation was successful
+     * @throws NullPointerException        if any parameter is null
+     * @throws IllegalArgumentException    if the provided path is a directory, if the provided format
+     *                                     is not supported, if the file name is invalid, or if the mode is
+     *                                     {@link GravatarPathSaveMode#CreateNew} and the path exists
+     * @throws GravatarJavaClientException if the write fails
+     */
+    public boolean saveTo(BufferedImage image, Path path, String format, GravatarPathSaveMode mode) {
+        Preconditions.checkNotNull(image);
+        Preconditions.checkNotNull(path);
+        Preconditions.checkNotNull(format);
+        Preconditions.checkNotNull(mode);
+        Preconditions.checkArgument(!Files.isDirectory(path));
+        Preconditions.checkArgument(isSupportedFormat(format));
+        Path fileName = path.getFileName();
+        Preconditions.checkArgument(fileName != null && InputValidator.isValidFilename(fileName.toString()));
+        Preconditions.checkArgument(mode != GravatarPathSaveMode.CreateNew || !Files.exists(path));
+
+        try {
+            switch (mode) {
+                case AtomicReplace -> {
+                    Path directory = path.toAbsolutePath().getParent();
+                    Path staging = StagingFiles.create(directory, "." + fileName, STAGING_FILE_SUFFIX);
+                    try {
+                        if (Files.exists(path)) copyPermissions(path, staging);
+                        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(staging))) {
+                            encode(image, format, out);
+                        }
+                        Files.move(staging, path,
+                                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    } finally {
+                        Files.deleteIfExists(staging);
+                    }
+                }
+                case Replace -> {
+                    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path,
+                            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                            StandardOpenOption.WRITE))) {
+                        encode(image, format, out);
+                    }
+                }
+                case CreateNew -> {
+                    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path,
+                            StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE))) {
+                        encode(image, format, out);
+                    }
+                }
+            }
+
+            savedCount.incrementAndGet();
+            return true;
+        } catch (IOException e) {
+            throw new GravatarJavaClientException("Failed to write the image to the file system");
+        }
+    }
+
+    /**
+     * Gives the provided staging file the POSIX permissions of the provided existing target,
+     * which writing the target in place would keep.
+     */
+    private static void copyPermissions(Path target, Path staging) throws IOException {
+        PosixFileAttributeView view = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+        if (view == null) return;
+
+        Files.setPosixFilePermissions(staging, view.readAttributes().permissions());
+    }
+
+    /**
+     * Writes the image to the provided output stream encoded using the specified format.
+     * The stream is flushed but not closed.
+     *
+     * @param image  the image to write
+     * @param out    the stream to write the image to
+     * @param format the format in which to write the image (must be a valid format)
+     * @return whether the write operation was successful
+     * @throws NullPointerException        if any parameter is null
+     * @throws IllegalArgumentException    if the provided format is not supported
+     * @throws GravatarJavaClientException if the write fails
+     */
+    public boolean writeTo(BufferedImage image, OutputStream out, String format) {
+        Preconditions.checkNotNull(image);
+        Preconditions.checkNotNull(out);
+        Preconditions.checkNotNull(format);
+        Preconditions.checkArgument(isSupportedFormat(format));
+
+        try {
+            encode(image, format, out);
+            out.flush();
+            savedCount.incrementAndGet();
+            return true;
+        } catch (IOException e) {
+            throw new GravatarJavaClientException("Failed to write the image to the output stream");
+        }
+    }
+
+    /**
+     * Writes the image to the provided channel encoded using the specified format.
+     * The channel is not closed.
+     *
+     * @param image   the image to write
+     * @param channel the channel to write the image to
+     * @param format  the format in which to write the image (must be a valid format)
+     * @return whether the write operation was successful
+     * @throws NullPointerException        if any parameter is null
+     * @throws IllegalArgumentException    if the provided channel is not open or the format is not supported
+     * @throws GravatarJavaClientException if the write fails
+     */
+    public boolean writeTo(BufferedImage image, WritableByteChannel channel, String format) {
+        Preconditions.checkNotNull(image);
+        Preconditions.checkNotNull(channel);
+        Preconditions.checkNotNull(format);
+        Preconditions.checkArgument(channel.isOpen());
+        Preconditions.checkArgument(isSupportedFormat(format));
+
+        try {
+            /* Closing the adapter would close the channel, so it is intentionally left open */
+            encode(image, format, Channels.newOutputStream(channel));
+            savedCount.incrementAndGet();
+            return true;
+        } catch (IOException e) {
+            throw new GravatarJavaClientException("Failed to write the image to the channel");
+        }
+    }
+
+    /**
+     * Writes the image into the remaining space of the provided buffer encoded using the specified format.
+     * On success, the buffer's position is advanced past the encoded image.
+     * On failure, the buffer's position is left unchanged.
+     *
+     * @param image  the image to write
+     * @param buffer the buffer to write the image into
+     * @param format the format in which to write the image (must be a valid format)
+     * @return whether the write operation was successful
+     * @throws NullPointerException        if any parameter is null
+     * @throws IllegalArgumentException    if the provided buffer is read only or the format is not supported
+     * @throws GravatarJavaClientException if the encoded image does not fit in the buffer or the write fails
+     */
+    public boolean writeTo(BufferedImage image, ByteBuffer buffer, String format) {
+        Preconditions.checkNotNull(image);
+        Preconditions.checkNotNull(buffer);
+        Preconditions.checkNotNull(format);
+        Preconditions.checkArgument(!buffer.isReadOnly());
+        Preconditions.checkArgument(isSupportedFormat(format));
+
+        int startPosition = buffer.position();
+        try {
+            encode(image, format, new ByteBufferOutputStream(buffer));
+            savedCount.incrementAndGet();
+            return true;
+        } catch (BufferOverflowException e) {
+            buffer.position(startPosition);
+            throw new GravatarJavaClientException("The encoded image does not fit in the provided buffer");
+        } catch (IOException e) {
+            buffer.position(startPosition);
+            throw new GravatarJavaClientException("Failed to write the image to the buffer");
+        }
+    }
+
+    /**
+     * Encodes the image using the specified format and returns the encoded bytes as a read-only buffer.
+     * The returned buffer wraps the encoding buffer directly; no additional copy is made.
+     *
+     * @param image  the image to encode
+     * @param format the format in which to encode the image (must be a valid format)
+     * @return a read-only buffer containing the encoded image
+     * @throws NullPointerException        if any parameter is null
+     * @throws IllegalArgumentException    if the provided format is not supported
+     * @throws GravatarJavaClientException if encoding fails
+     */
+    public ByteBuffer toByteBuffer(BufferedImage image, String format) {
+        Preconditions.checkNotNull(image);
+        Preconditions.checkNotNull(format);
+        Preconditions.checkArgument(isSupportedFormat(format));
+
+        try {
+            ExposedByteArrayOutputStream out = new ExposedByteArrayOutputStream();
+            encode(image, format, out);
+            return out.asReadOnlyByteBuffer();
+        } catch (IOException e) {
+            throw new GravatarJavaClientException("Failed to encode the image");
+        }
+    }
+
+    /**
+     * Returns whether the provided format is supported for writing by the current system.
+     */
+    private boolean isSupportedFormat(String format) {
+        return SUPPORTED_IMAGE_FORMATS.contains(format.toLowerCase());
+    }
+
+    /**
+     * Encodes the image to the provided stream. {@link ImageIO#write(java.awt.image.RenderedImage, String,
+     * OutputStream)} would otherwise use a file backed cache when {@link ImageIO#getUseCache()} is enabled,
+     * so an in-memory image output stream is always used instead.
+     */
+    private static void encode(BufferedImage image, String format, OutputStream out) throws IOException {
+        ImageOutputStream imageOut = new MemoryCacheImageOutputStream(out);
+        try {
+            if (!ImageIO.write(image, format.toLowerCase(), imageOut)) throw new IOException("Failed");
+        } finally {
+            /* Flushes to the underlying stream without closing it */
+            imageOut.close();
+        }
+    }
+
+    /**
+     * An output stream which writes into the remaining space of a {@link ByteBuffer}.
+     */
+    private static final class ByteBufferOutputStream extends OutputStream {
+        /**
+         * The buffer to write into.
+         */
+        private final ByteBuffer buffer;
+
+        ByteBufferOutputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(int b) {
+            buffer.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            buffer.put(bytes, offset, length);
+        }
+    }
+
+    /**
+     * A byte array output stream which exposes its internal buffer to avoid a copy.
+     */
+    private static final class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+        ExposedByteArrayOutputStream() {
+            super(INITIAL_ENCODING_BUFFER_SIZE);
+        }
+
+        /**
+         * Returns a read-only view of the bytes written to this stream.
+         */
+        ByteBuffer asReadOnlyByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count).asReadOnlyBuffer();
+        }
+    }
 }
@@ -0,0 +1,153 @@
+package com.github.natche.gravatarjavaclient.avatar;
+
+import com.google.common.base.Preconditions;
+import com.google.errorprone.annotations.Immutable;
+
+/**
+ * The location of a single avatar within a {@link GravatarSpriteSheet}.
+ */
+@Immutable
+public final class GravatarSpriteFrame {
+    /**
+     * The index of the request this frame was rendered from.
+     */
+    private final int index;
+
+    /**
+     * The hash of the request this frame was rendered from.
+     */
+    private final String hash;
+
+    /**
+     * The x coordinate of the frame's top left corner.
+     */
+    private final int x;
+
+    /**
+     * The y coordinate of the frame's top left corner.
+     */
+    private final int y;
+
+    /**
+     * The width and height of the frame.
+     */
+    private final int size;
+
+    /**
+     * Constructs a new GravatarSpriteFrame.
+     *
+     * @param index the index of the request this frame was rendered from
+     * @param hash  the hash of the request this frame was rendered from
+     * @param x     the x coordinate of the frame's top left corner
+     * @param y     the y coordinate of the frame's top left corner
+     * @param size  the width and height of the frame
+     * @throws NullPointerException     if the provided hash is null
+     * @throws IllegalArgumentException if the index or a coordinate is negative or the size is not positive
+     */
+    public GravatarSpriteFrame(int index, String hash, int x, int y, int size) {
+        Preconditions.checkNotNull(hash);
+        Preconditions.checkArgument(index >= 0);
+        Preconditions.checkArgument(x >= 0);
+        Preconditions.checkArgument(y >= 0);
+        Preconditions.checkArgument(size > 0);
+
+        this.index = index;
+        this.hash = hash;
+        this.x = x;
+        this.y = y;
+        this.size = size;
+    }
+
+    /**
+     * Returns the index of the request this frame was rendered from.
+     *
+     * @return the index of the request this frame was rendered from
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the hash of the request this frame was rendered from.
+     *
+     * @return the hash of the request this frame was rendered from
+     */
+    public String getHash() {
+        return hash;
+    }
+
+    /**
+     * Returns the x coordinate of the frame's top left corner.
+     *
+     * @return the x coordinate of the frame's top left corner
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Returns the y coordinate of the frame's top left corner.
+     *
+     * @return the y coordinate of the frame's top left corner
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Returns the width and height of the frame.
+     *
+     * @return the width and height of the frame
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns whether the provided object is equal to this.
+     *
+     * @param o the other object
+     * @return whether the provided object is equal to this
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GravatarSpriteFrame other)) return false;
+        return index == other.index
+                && hash.equals(other.hash)
+                && x == other.x
+                && y == other.y
+                && size == other.size;
+    }
+
+    /**
+     * Returns a hashcode for this object.
+     *
+     * @return a hashcode for this object
+     */
+    @Override
+    public int hashCode() {
+        int ret = Integer.hashCode(index);
+        ret = 31 * ret + hash.hashCode();
+        ret = 31 * ret + Integer.hashCode(x);
+        ret = 31 * ret + Integer.hashCode(y);
+        ret = 31 * ret + Integer.hashCode(size);
+        return ret;
+    }
+
+    /**
+     * Returns a string representation of this object.
+     *
+     * @return a string representation of this object
+     */
+    @Override
+    public String toString() {
+        return "GravatarSpriteFrame{"
+                + "index=" + index
+                + ", hash=\"" + hash + "\""
+                + ", x=" + x
+                + ", y=" + y
+                + ", size=" + size
+                + "}";
+    }
+}
@@ -0,0 +1,211 @@
+package com.github.natche.gravatarjavaclient.avatar;
+
+import com.github.natche.gravatarjavaclient.enums.GravatarPathSaveMode;
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import com.google.errorprone.annotations.CheckReturnValue;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.awt.image.BufferedImage;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A single image containing many avatars laid out in a grid, along with the location of each avatar.
+ * Sprite sheets are produced by {@link GravatarSpriteSheetRequest#getSpriteSheet()}.
+ * <p>
+ * A sprite sheet may be encoded and served as a single resource, with each avatar displayed by
+ * offsetting into it using its {@link GravatarSpriteFrame}. The {@link #getCacheKey() cache key}
+ * identifies the sheet for as long as the requests it was built from do not change.
+ */
+public final class GravatarSpriteSheet {
+    /**
+     * The composited image.
+     */
+    private final BufferedImage image;
+
+    /**
+     * The frames of the sheet, in the order of the requests they were rendered from.
+     */
+    private final ImmutableList<GravatarSpriteFrame> frames;
+
+    /**
+     * The cache key of the request this sheet was built from.
+     */
+    private final String cacheKey;
+
+    /**
+     * Constructs a new GravatarSpriteSheet.
+     *
+     * @param image    the composited image
+     * @param frames   the frames of the sheet
+     * @param cacheKey the cache key of the request this sheet was built from
+     */
+    GravatarSpriteSheet(BufferedImage image, ImmutableList<GravatarSpriteFrame> frames, String cacheKey) {
+        this.image = image;
+        this.frames = frames;
+        this.cacheKey = cacheKey;
+    }
+
+    /**
+     * Returns the composited image.
+     *
+     * @return the composited image
+     */
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    /**
+     * Returns the width of the composited image.
+     *
+     * @return the width of the composited image
+     */
+    public int getWidth() {
+        return image.getWidth();
+    }
+
+    /**
+     * Returns the height of the composited image.
+     *
+     * @return the height of the composited image
+     */
+    public int getHeight() {
+        return image.getHeight();
+    }
+
+    /**
+     * Returns the frames of the sheet, in the order of the requests they were rendered from.
+     *
+     * @return the frames of the sheet
+     */
+    public ImmutableList<GravatarSpriteFrame> getFrames() {
+        return frames;
+    }
+
+    /**
+     * Returns the frame rendered from the request at the provided index.
+     *
+     * @param index the index of the request
+     * @return the frame rendered from the request
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    public GravatarSpriteFrame getFrame(int index) {
+        return frames.get(index);
+    }
+
+    /**
+     * Returns the cache key of the request this sheet was built from.
+     *
+     * @return the cache key of the request this sheet was built from
+     * @see GravatarSpriteSheetRequest#getCacheKey()
+     */
+    public String getCacheKey() {
+        return cacheKey;
+    }
+
+    /**
+     * Returns the coordinate map of this sheet as JSON, for example:
+     * <pre>{@code
+     * {"cacheKey":"...","width":160,"height":80,
+     *  "frames":[{"index":0,"hash":"...","x":0,"y":0,"size":80}, ...]}
+     * }</pre>
+     *
+     * @return the coordinate map of this sheet as JSON
+     */
+    public String getCoordinateMapJson() {
+        JsonArray frameArray = new JsonArray();
+        for (GravatarSpriteFrame frame : frames) {
+            JsonObject frameObject = new JsonObject();
+            frameObject.addProperty("index", frame.getIndex());
+            frameObject.addProperty("hash", frame.getHash());
+            frameObject.addProperty("x", frame.getX());
+            frameObject.addProperty("y", frame.getY());
+            frameObject.addProperty("size", frame.getSize());
+            frameArray.add(frameObject);
+        }
+
+        JsonObject map = new JsonObject();
+        map.addProperty("cacheKey", cacheKey);
+        map.addProperty("width", getWidth());
+        map.addProperty("height", getHeight());
+        map.add("frames", frameArray);
+        return map.toString();
+    }
+
+    /**
+     * Encodes this sheet using the provided format and saves it to the provided path.
+     *
+     * @param saveTo the path to save the sheet to
+     * @param format the format to encode the sheet in
+     * @param mode   how the path should be written
+     * @return whether the save operation was successful
+     * @throws NullPointerException     if any parameter is null
+     * @throws IllegalArgumentException if the provided path is a directory or the format is empty
+     */
+    @CheckReturnValue
+    public boolean saveTo(Path saveTo, String format, GravatarPathSaveMode mode) {
+        Preconditions.checkNotNull(saveTo);
+        Preconditions.checkNotNull(format);
+        Preconditions.checkNotNull(mode);
+        Preconditions.checkArgument(!Files.isDirectory(saveTo));
+        Preconditions.checkArgument(!format.trim().isEmpty());
+
+        return GravatarRequestImageSaver.INSTANCE.saveTo(image, saveTo, format, mode);
+    }
+
+    /**
+     * Encodes this sheet using the provided format and writes it to the provided stream.
+     * The stream is flushed but not closed.
+     *
+     * @param out    the stream to write the sheet to
+     * @param format the format to encode the sheet in
+     * @return whether the write operation was successful
+     * @throws NullPointerException     if any parameter is null
+     * @throws IllegalArgumentException if the provided format is empty
+     */
+    @CanIgnoreReturnValue
+    public boolean writeTo(OutputStream out, String format) {
+        Preconditions.checkNotNull(out);
+        Preconditions.checkNotNull(format);
+        Preconditions.checkArgument(!format.trim().isEmpty());
+
+        return GravatarRequestImageSaver.INSTANCE.writeTo(image, out, format);
+    }
+
+    /**
+     * Encodes this sheet using the provided format and returns the encoded bytes.
+     *
+     * @param format the format to encode the sheet in
+     * @return a read-only buffer containing the encoded sheet
+     * @throws NullPointerException        if the provided format is null
+     * @throws IllegalArgumentException    if the provided format is empty
+     * @throws GravatarJavaClientException if the format is not supported or encoding fails
+     */
+    public ByteBuffer toByteBuffer(String format) {
+        Preconditions.checkNotNull(format);
+        Preconditions.checkArgument(!format.trim().isEmpty());
+
+        return GravatarRequestImageSaver.INSTANCE.toByteBuffer(image, format);
+    }
+
+    /**
+     * Returns a string representation of this sheet.
+     *
+     * @return a string representation of this sheet
+     */
+    @Override
+    public String toString() {
+        return "GravatarSpriteSheet{"
+                + "width=" + getWidth()
+                + ", height=" + getHeight()
+                + ", frameCount=" + frames.size()
+                + ", cacheKey=\"" + cacheKey + "\""
+                + "}";
+    }
+}
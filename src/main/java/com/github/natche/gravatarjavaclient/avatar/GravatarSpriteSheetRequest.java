@@ -0,0 +1,424 @@
+package com.github.natche.gravatarjavaclient.avatar;
+
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Range;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A request for many avatars composited into a single {@link GravatarSpriteSheet}.
+ * <p>
+ * The avatars are fetched concurrently and drawn into a grid of square cells, left to right and top to bottom,
+ * in the order of the provided requests. Avatars whose size differs from the cell size are scaled to fit.
+ */
+public final class GravatarSpriteSheetRequest {
+    /**
+     * The maximum number of avatar requests of a sheet.
+     */
+    public static final int MAX_REQUESTS = 4096;
+
+    /**
+     * The maximum number of pixels of a sheet, that of an 8192 by 8192 sheet, whose image takes 256 MiB.
+     */
+    public static final long MAX_SHEET_PIXELS = 8192L * 8192L;
+
+    /**
+     * The range of acceptable cell sizes.
+     */
+    private static final Range<Integer> CELL_SIZE_RANGE = Range.closed(1, 2048);
+
+    /**
+     * The range of acceptable paddings between cells.
+     */
+    private static final Range<Integer> PADDING_RANGE = Range.closed(0, 256);
+
+    /**
+     * The default maximum number of avatars fetched at once.
+     */
+    private static final int DEFAULT_CONCURRENCY = 8;
+
+    /**
+     * The version of the layout algorithm, included in cache keys so that sheets cached
+     * by an earlier layout are not reused.
+     */
+    private static final int LAYOUT_VERSION = 1;
+
+    /**
+     * The executor avatars are fetched on unless another is provided, whose idle threads exit after a minute.
+     */
+    private static final ExecutorService DEFAULT_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "gravatar-sprite-sheet-fetcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The requests for the avatars of the sheet.
+     */
+    private final ImmutableList<GravatarAvatarRequest> requests;
+
+    /**
+     * The number of columns of the grid, or zero to use a roughly square grid.
+     */
+    private int columns = 0;
+
+    /**
+     * The width and height of each cell, or zero to use the largest requested avatar size.
+     */
+    private int cellSize = 0;
+
+    /**
+     * The number of pixels between adjacent cells.
+     */
+    private int padding = 0;
+
+    /**
+     * The maximum number of avatars fetched at once.
+     */
+    private int concurrency = DEFAULT_CONCURRENCY;
+
+    private GravatarSpriteSheetRequest(ImmutableList<GravatarAvatarRequest> requests) {
+        this.requests = requests;
+    }
+
+    /**
+     * Constructs and returns a new GravatarSpriteSheetRequest for the provided avatar requests.
+     * The provided requests are copied, so later changes to them are not reflected by this request.
+     *
+     * @param requests the avatar requests
+     * @return a new GravatarSpriteSheetRequest
+     * @throws NullPointerException     if the provided list or any of its elements is null
+     * @throws IllegalArgumentException if the provided list is empty or has more than {@link #MAX_REQUESTS} requests
+     */
+    public static GravatarSpriteSheetRequest fromRequests(List<GravatarAvatarRequest> requests) {
+        Preconditions.checkNotNull(requests);
+        Preconditions.checkArgument(!requests.isEmpty());
+        Preconditions.checkArgument(requests.size() <= MAX_REQUESTS,
+                "A sprite sheet may have at most %s requests, not %s", MAX_REQUESTS, requests.size());
+
+        ImmutableList.Builder<GravatarAvatarRequest> copies = ImmutableList.builder();
+        for (GravatarAvatarRequest request : requests) {
+            Preconditions.checkNotNull(request);
+            copies.add(request.copy());
+        }
+        return new GravatarSpriteSheetRequest(copies.build());
+    }
+
+    /**
+     * Returns the requests for the avatars of the sheet.
+     *
+     * @return the requests for the avatars of the sheet
+     */
+    public ImmutableList<GravatarAvatarRequest> getRequests() {
+        return requests;
+    }
+
+    /**
+     * Sets the number of columns of the grid. Zero, the default, uses a roughly square grid.
+     *
+     * @param columns the number of columns
+     * @return this request
+     * @throws IllegalArgumentException if the provided number of columns is negative
+     */
+    @CanIgnoreReturnValue
+    public GravatarSpriteSheetRequest setColumns(int columns) {
+        Preconditions.checkArgument(columns >= 0);
+        this.columns = columns;
+        return this;
+    }
+
+    /**
+     * Returns the number of columns of the grid.
+     *
+     * @return the number of columns of the grid
+     */
+    public int getColumns() {
+        return columns == 0 ? (int) Math.ceil(Math.sqrt(requests.size())) : Math.min(columns, requests.size());
+    }
+
+    /**
+     * Sets the width and height of each cell. Zero, the default, uses the largest requested avatar size.
+     *
+     * @param cellSize the width and height of each cell
+     * @return this request
+     * @throws IllegalArgumentException if the provided size is not zero and not in the range [1, 2048]
+     */
+    @CanIgnoreReturnValue
+    public GravatarSpriteSheetRequest setCellSize(int cellSize) {
+        Preconditions.checkArgument(cellSize == 0 || CELL_SIZE_RANGE.contains(cellSize));
+        this.cellSize = cellSize;
+        return this;
+    }
+
+    /**
+     * Returns the width and height of each cell.
+     *
+     * @return the width and height of each cell
+     */
+    public int getCellSize() {
+        if (cellSize != 0) return cellSize;
+        return requests.stream().mapToInt(GravatarAvatarRequest::getSize).max().orElseThrow();
+    }
+
+    /**
+     * Sets the number of pixels between adjacent cells.
+     *
+     * @param padding the number of pixels between adjacent cells
+     * @return this request
+     * @throws IllegalArgumentException if the provided padding is not in the range [0, 256]
+     */
+    @CanIgnoreReturnValue
+    public GravatarSpriteSheetRequest setPadding(int padding) {
+        Preconditions.checkArgument(PADDING_RANGE.contains(padding));
+        this.padding = padding;
+        return this;
+    }
+
+    /**
+     * Returns the number of pixels between adjacent cells.
+     *
+     * @return the number of pixels between adjacent cells
+     */
+    public int getPadding() {
+        return padding;
+    }
+
+    /**
+     * Sets the maximum number of avatars fetched at once.
+     *
+     * @param concurrency the maximum number of avatars fetched at once
+     * @return this request
+     * @throws IllegalArgumentException if the provided concurrency is not positive
+     */
+    @CanIgnoreReturnValue
+    public GravatarSpriteSheetRequest setConcurrency(int concurrency) {
+        Preconditions.checkArgument(concurrency > 0);
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of avatars fetched at once.
+     *
+     * @return the maximum number of avatars fetched at once
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Returns a key identifying the sheet this request produces, computed without fetching any avatars.
+     * Two requests have the same key if and only if they request the same avatar URLs in the same order
+     * with the same layout, so the key may be used to cache an encoded sheet or as an HTTP entity tag.
+     *
+     * @return the hex encoded SHA-256 cache key
+     * @throws GravatarJavaClientException if a SHA-256 digest cannot be obtained
+     */
+    public String getCacheKey() {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new GravatarJavaClientException(e);
+        }
+
+        String layout = LAYOUT_VERSION + ":" + getColumns() + ":" + getCellSize() + ":" + padding + "\n";
+        digest.update(layout.getBytes(StandardCharsets.UTF_8));
+        for (GravatarAvatarRequest request : requests) {
+            digest.update((request.getRequestUrl() + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Fetches every avatar, at most {@link #getConcurrency()} at a time, and composites them into a sprite sheet.
+     * The avatars are fetched on a shared pool of daemon threads.
+     *
+     * @return the sprite sheet
+     * @throws IllegalArgumentException    if the sheet would have more than {@link #MAX_SHEET_PIXELS} pixels
+     * @throws GravatarJavaClientException if any avatar cannot be fetched or the current thread is interrupted
+     */
+    public GravatarSpriteSheet getSpriteSheet() {
+        return getSpriteSheet(DEFAULT_EXECUTOR);
+    }
+
+    /**
+     * Fetches every avatar on the provided executor, at most {@link #getConcurrency()} at a time,
+     * and composites them into a sprite sheet. The size of the sheet is checked before any avatar is fetched.
+     *
+     * @param executor the executor to fetch avatars on
+     * @return the sprite sheet
+     * @throws NullPointerException        if the provided executor is null
+     * @throws IllegalArgumentException    if the sheet would have more than {@link #MAX_SHEET_PIXELS} pixels
+     * @throws GravatarJavaClientException if any avatar cannot be fetched or the current thread is interrupted
+     */
+    public GravatarSpriteSheet getSpriteSheet(Executor executor) {
+        Preconditions.checkNotNull(executor);
+        checkSheetSize();
+
+        BufferedImage[] images = new BufferedImage[requests.size()];
+        AtomicInteger next = new AtomicInteger();
+        AtomicBoolean stopped = new AtomicBoolean();
+        Runnable fetcher = () -> {
+            int index;
+            while (!stopped.get() && (index = next.getAndIncrement()) < images.length) {
+                try {
+                    BufferedImage image = requests.get(index).getBufferedImage();
+                    if (image == null) {
+                        throw new GravatarJavaClientException("Could not decode avatar for request " + index);
+                    }
+                    images[index] = image;
+                } catch (RuntimeException e) {
+                    stopped.set(true);
+                    throw e;
+                }
+            }
+        };
+
+        int fetcherCount = Math.min(concurrency, requests.size());
+        CompletableFuture<?>[] fetchers = new CompletableFuture<?>[fetcherCount];
+        for (int i = 0; i < fetcherCount; i++) {
+            fetchers[i] = CompletableFuture.runAsync(fetcher, executor);
+        }
+
+        try {
+            CompletableFuture.allOf(fetchers).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof GravatarJavaClientException clientException) throw clientException;
+            throw new GravatarJavaClientException(e);
+        } catch (InterruptedException e) {
+            stopped.set(true);
+            Thread.currentThread().interrupt();
+            throw new GravatarJavaClientException(e);
+        }
+
+        return composite(List.of(images));
+    }
+
+    /**
+     * Composites the provided images, one per request and in the same order, into a sprite sheet.
+     *
+     * @param images the images to composite
+     * @return the sprite sheet
+     * @throws IllegalArgumentException if the sheet would have more than {@link #MAX_SHEET_PIXELS} pixels
+     */
+    GravatarSpriteSheet composite(List<BufferedImage> images) {
+        Preconditions.checkArgument(images.size() == requests.size());
+        checkSheetSize();
+
+        int columnCount = getColumns();
+        int size = getCellSize();
+        int width = (int) getSheetExtent(columnCount);
+        int height = (int) getSheetExtent(getRows());
+
+        BufferedImage sheet = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        ImmutableList.Builder<GravatarSpriteFrame> frames = ImmutableList.builder();
+        Graphics2D graphics = sheet.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            for (int i = 0; i < images.size(); i++) {
+                int x = (i % columnCount) * (size + padding);
+                int y = (i / columnCount) * (size + padding);
+                graphics.drawImage(images.get(i), x, y, size, size, null);
+                frames.add(new GravatarSpriteFrame(i, requests.get(i).getHash(), x, y, size));
+            }
+        } finally {
+            graphics.dispose();
+        }
+
+        return new GravatarSpriteSheet(sheet, frames.build(), getCacheKey());
+    }
+
+    /**
+     * Returns the number of rows of the grid.
+     */
+    private int getRows() {
+        int columnCount = getColumns();
+        return (requests.size() + columnCount - 1) / columnCount;
+    }
+
+    /**
+     * Returns the width or height of a sheet with the provided number of cells along that axis.
+     */
+    private long getSheetExtent(int cellCount) {
+        return (long) cellCount * getCellSize() + (long) (cellCount - 1) * padding;
+    }
+
+    /**
+     * Checks that the sheet laid out by this request has at most {@link #MAX_SHEET_PIXELS} pixels.
+     */
+    private void checkSheetSize() {
+        long width = getSheetExtent(getColumns());
+        long height = getSheetExtent(getRows());
+        Preconditions.checkArgument(width * height <= MAX_SHEET_PIXELS,
+                "The sprite sheet would be %s by %s pixels, more than the maximum of %s pixels",
+                width, height, MAX_SHEET_PIXELS);
+    }
+
+    /**
+     * Returns a string representation of this request.
+     *
+     * @return a string representation of this request
+     */
+    @Override
+    public String toString() {
+        return "GravatarSpriteSheetRequest{"
+                + "requestCount=" + requests.size()
+                + ", columns=" + columns
+                + ", cellSize=" + cellSize
+                + ", padding=" + padding
+                + ", concurrency=" + concurrency
+                + "}";
+    }
+
+    /**
+     * Returns a hashcode for this request.
+     *
+     * @return a hashcode for this request
+     */
+    @Override
+    public int hashCode() {
+        int ret = requests.hashCode();
+        ret = 31 * ret + Integer.hashCode(columns);
+        ret = 31 * ret + Integer.hashCode(cellSize);
+        ret = 31 * ret + Integer.hashCode(padding);
+        ret = 31 * ret + Integer.hashCode(concurrency);
+        return ret;
+    }
+
+    /**
+     * Returns whether the provided object is equal to this request.
+     *
+     * @param o the other object
+     * @return whether the provided object is equal to this request
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GravatarSpriteSheetRequest other)) return false;
+
+        return requests.equals(other.requests)
+                && columns == other.columns
+                && cellSize == other.cellSize
+                && padding == other.padding
+                && concurrency == other.concurrency;
+    }
+}
@@ -0,0 +1,245 @@
+package com.github.natche.gravatarjavaclient.avatar.cache;
+
+import com.google.common.base.Preconditions;
+import com.google.errorprone.annotations.Immutable;
+
+/**
+ * A snapshot of the off-heap memory used by a {@link GravatarOffHeapImageCache}.
+ */
+@Immutable
+public final class GravatarOffHeapCacheStatistics {
+    /**
+     * The maximum number of off-heap bytes the cache may reserve.
+     */
+    private final long capacityBytes;
+
+    /**
+     * The number of off-heap bytes reserved as slabs.
+     */
+    private final long reservedBytes;
+
+    /**
+     * The number of reserved bytes occupied by the chunks of live entries.
+     */
+    private final long chunkBytes;
+
+    /**
+     * The number of image bytes held by live entries.
+     */
+    private final long storedBytes;
+
+    /**
+     * The number of live entries.
+     */
+    private final long entryCount;
+
+    /**
+     * The number of lookups which found an entry.
+     */
+    private final long hitCount;
+
+    /**
+     * The number of lookups which found no entry.
+     */
+    private final long missCount;
+
+    /**
+     * The number of entries evicted to make room for others.
+     */
+    private final long evictionCount;
+
+    /**
+     * Constructs a new GravatarOffHeapCacheStatistics.
+     *
+     * @param capacityBytes the maximum number of off-heap bytes the cache may reserve
+     * @param reservedBytes the number of off-heap bytes reserved as slabs
+     * @param chunkBytes    the number of reserved bytes occupied by the chunks of live entries
+     * @param storedBytes   the number of image bytes held by live entries
+     * @param entryCount    the number of live entries
+     * @param hitCount      the number of lookups which found an entry
+     * @param missCount     the number of lookups which found no entry
+     * @param evictionCount the number of entries evicted to make room for others
+     * @throws IllegalArgumentException if any value is negative, or the byte counts are not ordered as
+     *                                  {@code storedBytes <= chunkBytes <= reservedBytes <= capacityBytes}
+     */
+    public GravatarOffHeapCacheStatistics(long capacityBytes, long reservedBytes, long chunkBytes,
+                                          long storedBytes, long entryCount, long hitCount,
+                                          long missCount, long evictionCount) {
+        Preconditions.checkArgument(storedBytes >= 0);
+        Preconditions.checkArgument(chunkBytes >= storedBytes);
+        Preconditions.checkArgument(reservedBytes >= chunkBytes);
+        Preconditions.checkArgument(capacityBytes >= reservedBytes);
+        Preconditions.checkArgument(entryCount >= 0);
+        Preconditions.checkArgument(hitCount >= 0);
+        Preconditions.checkArgument(missCount >= 0);
+        Preconditions.checkArgument(evictionCount >= 0);
+
+        this.capacityBytes = capacityBytes;
+        this.reservedBytes = reservedBytes;
+        this.chunkBytes = chunkBytes;
+        this.storedBytes = storedBytes;
+        this.entryCount = entryCount;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+    }
+
+    /**
+     * Returns the maximum number of off-heap bytes the cache may reserve.
+     *
+     * @return the maximum number of off-heap bytes the cache may reserve
+     */
+    public long getCapacityBytes() {
+        return capacityBytes;
+    }
+
+    /**
+     * Returns the number of off-heap bytes reserved as slabs.
+     *
+     * @return the number of off-heap bytes reserved as slabs
+     */
+    public long getReservedBytes() {
+        return reservedBytes;
+    }
+
+    /**
+     * Returns the number of reserved bytes occupied by the chunks of live entries.
+     *
+     * @return the number of reserved bytes occupied by the chunks of live entries
+     */
+    public long getChunkBytes() {
+        return chunkBytes;
+    }
+
+    /**
+     * Returns the number of image bytes held by live entries.
+     *
+     * @return the number of image bytes held by live entries
+     */
+    public long getStoredBytes() {
+        return storedBytes;
+    }
+
+    /**
+     * Returns the number of live entries.
+     *
+     * @return the number of live entries
+     */
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Returns the number of lookups which found an entry.
+     *
+     * @return the number of lookups which found an entry
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of lookups which found no entry.
+     *
+     * @return the number of lookups which found no entry
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of entries evicted to make room for others.
+     *
+     * @return the number of entries evicted to make room for others
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the fraction of lookups which found an entry, or {@code 0.0} if there have been no lookups.
+     *
+     * @return the hit rate
+     */
+    public double getHitRate() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 0.0 : (double) hitCount / lookups;
+    }
+
+    /**
+     * Returns the fraction of the chunks of live entries not filled with image bytes,
+     * or {@code 0.0} if there are no entries. This is the cost of rounding entries up to a chunk size.
+     *
+     * @return the internal fragmentation
+     */
+    public double getInternalFragmentation() {
+        return chunkBytes == 0 ? 0.0 : (double) (chunkBytes - storedBytes) / chunkBytes;
+    }
+
+    /**
+     * Returns the fraction of reserved bytes held in free chunks, or {@code 0.0} if nothing is reserved.
+     * Free chunks may only be reused by entries of the same size class.
+     *
+     * @return the external fragmentation
+     */
+    public double getExternalFragmentation() {
+        return reservedBytes == 0 ? 0.0 : (double) (reservedBytes - chunkBytes) / reservedBytes;
+    }
+
+    /**
+     * Returns whether the provided object is equal to this.
+     *
+     * @param o the other object
+     * @return whether the provided object is equal to this
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GravatarOffHeapCacheStatistics other)) return false;
+        return capacityBytes == other.capacityBytes
+                && reservedBytes == other.reservedBytes
+                && chunkBytes == other.chunkBytes
+                && storedBytes == other.storedBytes
+                && entryCount == other.entryCount
+                && hitCount == other.hitCount
+                && missCount == other.missCount
+                && evictionCount == other.evictionCount;
+    }
+
+    /**
+     * Returns a hashcode for this object.
+     *
+     * @return a hashcode for this object
+     */
+    @Override
+    public int hashCode() {
+        int ret = Long.hashCode(capacityBytes);
+        ret = 31 * ret + Long.hashCode(reservedBytes);
+        ret = 31 * ret + Long.hashCode(chunkBytes);
+        ret = 31 * ret + Long.hashCode(storedBytes);
+        ret = 31 * ret + Long.hashCode(entryCount);
+        ret = 31 * ret + Long.hashCode(hitCount);
+        ret = 31 * ret + Long.hashCode(missCount);
+        ret = 31 * ret + Long.hashCode(evictionCount);
+        return ret;
+    }
+
+    /**
+     * Returns a string representation of this object.
+     *
+     * @return a string representation of this object
+     */
+    @Override
+    public String toString() {
+        return "GravatarOffHeapCacheStatistics{"
+                + "capacityBytes=" + capacityBytes
+                + ", reservedBytes=" + reservedBytes
+                + ", chunkBytes=" + chunkBytes
+                + ", storedBytes=" + storedBytes
+                + ", entryCount=" + entryCount
+                + ", hitCount=" + hitCount
+                + ", missCount=" + missCount
+                + ", evictionCount=" + evictionCount
+                + "}";
+    }
+}
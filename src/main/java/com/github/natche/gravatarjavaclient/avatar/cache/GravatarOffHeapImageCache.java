@@ -0,0 +1,758 @@
+package com.github.natche.gravatarjavaclient.avatar.cache;
+
+import com.github.natche.gravatarjavaclient.avatar.GravatarAvatarRequest;
+import com.github.natche.gravatarjavaclient.avatar.GravatarQrCodeRequest;
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
+import com.google.common.base.Preconditions;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cache of encoded avatar and QR code images held outside the Java heap.
+ * <p>
+ * Image bytes are stored in fixed-size slabs of direct memory. Each slab is dedicated to a single size class
+ * and divided into equally sized chunks, with chunk sizes growing geometrically from {@link #MIN_CHUNK_SIZE}
+ * up to the slab size. An image occupies one chunk of the smallest class that fits it, so the heap holds only
+ * the keys and a small descriptor per entry.
+ * <p>
+ * Slabs are reserved lazily until the byte capacity of the cache is reached. Once it is, an image which needs
+ * a chunk of a class with no free chunks evicts the least recently used entry of that class. A class with no
+ * entries to evict instead reclaims the least recently used slab of another class, evicting every entry in it,
+ * so a class first needed after the capacity is reached can still hold images. Images larger than the slab size
+ * are never cached.
+ * <p>
+ * A cache is safe for use by multiple threads. Lookups copy the image out of the slab, so the bytes
+ * returned remain valid after the entry is evicted.
+ */
+public final class GravatarOffHeapImageCache {
+    /**
+     * The default size of a slab in bytes.
+     */
+    public static final int DEFAULT_SLAB_SIZE = 1 << 20;
+
+    /**
+     * The size in bytes of the chunks of the smallest size class.
+     */
+    public static final int MIN_CHUNK_SIZE = 256;
+
+    /**
+     * The factor by which the chunk size of each size class exceeds that of the previous class.
+     */
+    private static final double CHUNK_GROWTH_FACTOR = 1.25;
+
+    /**
+     * The alignment in bytes of chunk sizes.
+     */
+    private static final int CHUNK_ALIGNMENT = 8;
+
+    /**
+     * The maximum number of off-heap bytes this cache may reserve.
+     */
+    private final long capacityBytes;
+
+    /**
+     * The size of a slab in bytes.
+     */
+    private final int slabSize;
+
+    /**
+     * The chunk size of each size class, in ascending order.
+     */
+    private final int[] chunkSizes;
+
+    /**
+     * The size classes, in the same order as {@link #chunkSizes}.
+     */
+    private final SizeClass[] sizeClasses;
+
+    /**
+     * The entry for every key. An entry may linger here briefly after being evicted from its size class,
+     * so entries are checked for liveness on lookup.
+     */
+    private final ConcurrentHashMap<String, Entry> index = new ConcurrentHashMap<>();
+
+    /**
+     * The number of off-heap bytes reserved as slabs.
+     */
+    private final AtomicLong reservedBytes = new AtomicLong();
+
+    /**
+     * The number of lookups which found an entry.
+     */
+    private final LongAdder hitCount = new LongAdder();
+
+    /**
+     * The number of lookups which found no entry.
+     */
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * The number of entries evicted to make room for others.
+     */
+    private final LongAdder evictionCount = new LongAdder();
+
+    private GravatarOffHeapImageCache(long capacityBytes, int slabSize) {
+        this.capacityBytes = capacityBytes;
+        this.slabSize = slabSize;
+
+        List<Integer> sizes = new ArrayList<>();
+        int chunkSize = MIN_CHUNK_SIZE;
+        while (chunkSize < slabSize) {
+            sizes.add(chunkSize);
+            int next = (int) Math.ceil(chunkSize * CHUNK_GROWTH_FACTOR);
+            chunkSize = (next + CHUNK_ALIGNMENT - 1) / CHUNK_ALIGNMENT * CHUNK_ALIGNMENT;
+        }
+        sizes.add(slabSize);
+
+        this.chunkSizes = sizes.stream().mapToInt(Integer::intValue).toArray();
+        this.sizeClasses = new SizeClass[chunkSizes.length];
+        for (int i = 0; i < chunkSizes.length; i++) {
+            sizeClasses[i] = new SizeClass(chunkSizes[i], slabSize / chunkSizes[i]);
+        }
+    }
+
+    /**
+     * Constructs a new cache which may reserve up to the provided number of off-heap bytes
+     * in slabs of {@link #DEFAULT_SLAB_SIZE} bytes.
+     *
+     * @param capacityBytes the maximum number of off-heap bytes the cache may reserve
+     * @return a new cache
+     * @throws IllegalArgumentException if the capacity is less than the slab size
+     */
+    public static GravatarOffHeapImageCache create(long capacityBytes) {
+        return create(capacityBytes, DEFAULT_SLAB_SIZE);
+    }
+
+    /**
+     * Constructs a new cache which may reserve up to the provided number of off-heap bytes
+     * in slabs of the provided size. The slab size is also the largest image the cache will hold.
+     *
+     * @param capacityBytes the maximum number of off-heap bytes the cache may reserve
+     * @param slabSize      the size of a slab in bytes
+     * @return a new cache
+     * @throws IllegalArgumentException if the slab size is less than {@link #MIN_CHUNK_SIZE}
+     *                                  or the capacity is less than the slab size
+     */
+    public static GravatarOffHeapImageCache create(long capacityBytes, int slabSize) {
+        Preconditions.checkArgument(slabSize >= MIN_CHUNK_SIZE);
+        Preconditions.checkArgument(capacityBytes >= slabSize);
+
+        return new GravatarOffHeapImageCache(capacityBytes, slabSize);
+    }
+
+    /**
+     * Returns the key under which {@link #getOrFetch(GravatarAvatarRequest, String)} caches the provided
+     * request encoded in the provided format.
+     *
+     * @param request the request
+     * @param format  the format the image is encoded in
+     * @return the key
+     * @throws NullPointerException if any parameter is null
+     */
+    public static String keyOf(GravatarAvatarRequest request, String format) {
+        Preconditions.checkNotNull(request);
+        Preconditions.checkNotNull(format);
+
+        return request.getRequestUrl() + "#" + format.toLowerCase();
+    }
+
+    /**
+     * Returns the key under which {@link #getOrFetch(GravatarQrCodeRequest)} caches the provided request.
+     *
+     * @param request the request
+     * @return the key
+     * @throws NullPointerException if the provided request is null
+     */
+    public static String keyOf(GravatarQrCodeRequest request) {
+        Preconditions.checkNotNull(request);
+
+        return request.getRequestUrl();
+    }
+
+    /**
+     * Returns the maximum number of off-heap bytes this cache may reserve.
+     *
+     * @return the maximum number of off-heap bytes this cache may reserve
+     */
+    public long getCapacityBytes() {
+        return capacityBytes;
+    }
+
+    /**
+     * Returns the size of a slab in bytes.
+     *
+     * @return the size of a slab in bytes
+     */
+    public int getSlabSize() {
+        return slabSize;
+    }
+
+    /**
+     * Returns the cached image for the provided request encoded in the provided format,
+     * fetching, encoding, and caching it if it is not present.
+     *
+     * @param request the request
+     * @param format  the format to encode the image in
+     * @return the encoded image
+     * @throws NullPointerException        if any parameter is null
+     * @throws GravatarJavaClientException if fetching or encoding the image fails
+     */
+    public ByteBuffer getOrFetch(GravatarAvatarRequest request, String format) {
+        String key = keyOf(request, format);
+        Optional<ByteBuffer> cached = get(key);
+        if (cached.isPresent()) return cached.get();
+
+        ByteBuffer image = request.toByteBuffer(format);
+        put(key, image);
+        return image;
+    }
+
+    /**
+     * Returns the cached PNG for the provided request, fetching and caching it if it is not present.
+     *
+     * @param request the request
+     * @return the encoded QR code
+     * @throws NullPointerException        if the provided request is null
+     * @throws GravatarJavaClientException if fetching or encoding the image fails
+     */
+    public ByteBuffer getOrFetch(GravatarQrCodeRequest request) {
+        String key = keyOf(request);
+        Optional<ByteBuffer> cached = get(key);
+        if (cached.isPresent()) return cached.get();
+
+        ByteBuffer image = request.toByteBuffer();
+        put(key, image);
+        return image;
+    }
+
+    /**
+     * Copies the provided encoded image into this cache under the provided key, replacing any previous image.
+     * The buffer's position is not modified.
+     *
+     * @param key   the key
+     * @param image the encoded image
+     * @return whether the image was cached; false if it is larger than the slab size
+     * @throws NullPointerException     if any parameter is null
+     * @throws IllegalArgumentException if the provided key is empty
+     */
+    @CanIgnoreReturnValue
+    public boolean put(String key, ByteBuffer image) {
+        Preconditions.checkNotNull(key);
+        Preconditions.checkNotNull(image);
+        Preconditions.checkArgument(!key.isEmpty());
+
+        int length = image.remaining();
+        if (length > slabSize) {
+            remove(key);
+            return false;
+        }
+
+        SizeClass sizeClass = sizeClasses[sizeClassIndex(length)];
+        List<Map.Entry<String, Entry>> evicted = new ArrayList<>();
+        Entry stored = index.compute(key, (k, previous) -> {
+            if (previous != null) release(k, previous);
+            return store(k, image, length, sizeClass, evicted);
+        });
+
+        evicted.forEach(entry -> index.remove(entry.getKey(), entry.getValue()));
+        return stored != null;
+    }
+
+    /**
+     * Returns a copy of the image cached under the provided key.
+     *
+     * @param key the key
+     * @return a copy of the image, if present
+     * @throws NullPointerException if the provided key is null
+     */
+    public Optional<ByteBuffer> get(String key) {
+        Preconditions.checkNotNull(key);
+
+        Entry entry = index.get(key);
+        if (entry != null) {
+            SizeClass sizeClass = entry.sizeClass;
+            synchronized (sizeClass) {
+                if (entry.live) {
+                    sizeClass.entries.get(key);
+                    sizeClass.touch(entry);
+                    ByteBuffer copy = ByteBuffer.allocate(entry.length);
+                    copy.put(0, sizeClass.slabOf(entry), sizeClass.offsetOf(entry), entry.length);
+                    hitCount.increment();
+                    return Optional.of(copy);
+                }
+            }
+            index.remove(key, entry);
+        }
+
+        missCount.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Copies the image cached under the provided key into the provided buffer, advancing its position.
+     * Reading into a direct buffer avoids allocating on the heap.
+     *
+     * @param key    the key
+     * @param target the buffer to copy the image into
+     * @return whether an image was present
+     * @throws NullPointerException        if any parameter is null
+     * @throws IllegalArgumentException    if the provided buffer is read-only
+     * @throws GravatarJavaClientException if the image does not fit in the buffer's remaining space
+     */
+    public boolean get(String key, ByteBuffer target) {
+        Preconditions.checkNotNull(key);
+        Preconditions.checkNotNull(target);
+        Preconditions.checkArgument(!target.isReadOnly());
+
+        Entry entry = index.get(key);
+        if (entry != null) {
+            SizeClass sizeClass = entry.sizeClass;
+            synchronized (sizeClass) {
+                if (entry.live) {
+                    if (entry.length > target.remaining()) {
+                        throw new GravatarJavaClientException("The image does not fit in the provided buffer");
+                    }
+
+                    target.put(target.position(), sizeClass.slabOf(entry), sizeClass.offsetOf(entry), entry.length);
+                    target.position(target.position() + entry.length);
+                    sizeClass.entries.get(key);
+                    sizeClass.touch(entry);
+                    hitCount.increment();
+                    return true;
+                }
+            }
+            index.remove(key, entry);
+        }
+
+        missCount.increment();
+        return false;
+    }
+
+    /**
+     * Returns whether an image is cached under the provided key. This does not affect eviction order.
+     *
+     * @param key the key
+     * @return whether an image is cached under the provided key
+     * @throws NullPointerException if the provided key is null
+     */
+    public boolean contains(String key) {
+        Preconditions.checkNotNull(key);
+
+        Entry entry = index.get(key);
+        if (entry == null) return false;
+        synchronized (entry.sizeClass) {
+            return entry.live;
+        }
+    }
+
+    /**
+     * Removes the image cached under the provided key, returning its chunk to its size class.
+     *
+     * @param key the key
+     * @return whether an image was removed
+     * @throws NullPointerException if the provided key is null
+     */
+    @CanIgnoreReturnValue
+    public boolean remove(String key) {
+        Preconditions.checkNotNull(key);
+
+        boolean[] removed = {false};
+        index.computeIfPresent(key, (k, entry) -> {
+            removed[0] = release(k, entry);
+            return null;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Removes every image and releases every slab. The slabs' direct memory is returned to the
+     * JVM once they are garbage collected.
+     */
+    public void clear() {
+        index.clear();
+        for (SizeClass sizeClass : sizeClasses) {
+            synchronized (sizeClass) {
+                reservedBytes.addAndGet(-(long) sizeClass.slabCount * slabSize);
+                sizeClass.entries.values().forEach(entry -> entry.live = false);
+                sizeClass.entries.clear();
+                sizeClass.slabs.clear();
+                sizeClass.slabCount = 0;
+                sizeClass.freeCount = 0;
+                sizeClass.storedBytes = 0;
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the memory used by this cache.
+     *
+     * @return a snapshot of the memory used by this cache
+     */
+    public GravatarOffHeapCacheStatistics getStatistics() {
+        long reserved = 0;
+        long chunkBytes = 0;
+        long storedBytes = 0;
+        long entryCount = 0;
+        for (SizeClass sizeClass : sizeClasses) {
+            synchronized (sizeClass) {
+                reserved += (long) sizeClass.slabCount * slabSize;
+                chunkBytes += (long) sizeClass.entries.size() * sizeClass.chunkSize;
+                storedBytes += sizeClass.storedBytes;
+                entryCount += sizeClass.entries.size();
+            }
+        }
+
+        return new GravatarOffHeapCacheStatistics(capacityBytes, reserved, chunkBytes, storedBytes,
+                entryCount, hitCount.sum(), missCount.sum(), evictionCount.sum());
+    }
+
+    /**
+     * Returns a string representation of this cache.
+     *
+     * @return a string representation of this cache
+     */
+    @Override
+    public String toString() {
+        return "GravatarOffHeapImageCache{"
+                + "capacityBytes=" + capacityBytes
+                + ", slabSize=" + slabSize
+                + ", sizeClassCount=" + sizeClasses.length
+                + "}";
+    }
+
+    /**
+     * Returns the index of the smallest size class whose chunks fit the provided length.
+     */
+    private int sizeClassIndex(int length) {
+        int index = Arrays.binarySearch(chunkSizes, length);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Copies the provided image into a chunk of the provided size class, evicting the least recently
+     * used entry of the class if no chunk is available, or reclaiming a slab from another class if the class
+     * has no entries. Evicted entries are added to the provided list so that they can be removed from the index
+     * once the caller no longer holds the index lock.
+     *
+     * @return the stored entry, or null if no chunk could be obtained
+     */
+    private Entry store(String key, ByteBuffer image, int length, SizeClass sizeClass,
+                        List<Map.Entry<String, Entry>> evicted) {
+        synchronized (sizeClass) {
+            int chunk = allocateChunk(sizeClass, evicted);
+            if (chunk >= 0) return write(key, image, length, sizeClass, chunk);
+        }
+
+        // The other class is locked only while this class is not, so two classes reclaiming never deadlock
+        ByteBuffer slab = reclaimSlab(sizeClass, evicted);
+        if (slab == null) return null;
+        synchronized (sizeClass) {
+            return write(key, image, length, sizeClass, sizeClass.addSlab(slab));
+        }
+    }
+
+    /**
+     * Copies the provided image into the provided chunk of the provided size class and records its entry.
+     * The caller must hold the class's lock.
+     *
+     * @return the stored entry
+     */
+    private static Entry write(String key, ByteBuffer image, int length, SizeClass sizeClass, int chunk) {
+        Entry entry = new Entry(sizeClass, chunk, length);
+        sizeClass.slabOf(entry).put(sizeClass.offsetOf(entry), image, image.position(), length);
+        sizeClass.entries.put(key, entry);
+        sizeClass.storedBytes += length;
+        sizeClass.touch(entry);
+        return entry;
+    }
+
+    /**
+     * Returns the provided entry's chunk to its size class if the entry is still live.
+     *
+     * @return whether the entry was live
+     */
+    private static boolean release(String key, Entry entry) {
+        SizeClass sizeClass = entry.sizeClass;
+        synchronized (sizeClass) {
+            if (!entry.live) return false;
+
+            entry.live = false;
+            sizeClass.entries.remove(key);
+            sizeClass.storedBytes -= entry.length;
+            sizeClass.pushFreeChunk(entry.chunk);
+            return true;
+        }
+    }
+
+    /**
+     * Obtains a chunk of the provided size class from its free list, a newly reserved slab,
+     * or by evicting its least recently used entry, in that order. The caller must hold the class's lock.
+     *
+     * @return the chunk, or -1 if the class has no chunks and no slab can be reserved
+     */
+    private int allocateChunk(SizeClass sizeClass, List<Map.Entry<String, Entry>> evicted) {
+        if (sizeClass.freeCount > 0) return sizeClass.freeChunks[--sizeClass.freeCount];
+
+        ByteBuffer slab = reserveSlab();
+        if (slab != null) return sizeClass.addSlab(slab);
+
+        Iterator<Map.Entry<String, Entry>> eldest = sizeClass.entries.entrySet().iterator();
+        if (!eldest.hasNext()) return -1;
+
+        Map.Entry<String, Entry> victim = eldest.next();
+        eldest.remove();
+        victim.getValue().live = false;
+        sizeClass.storedBytes -= victim.getValue().length;
+        evictionCount.increment();
+        evicted.add(Map.entry(victim.getKey(), victim.getValue()));
+        return victim.getValue().chunk;
+    }
+
+    /**
+     * Removes the least recently used slab of any size class other than the provided one from its class,
+     * evicting every entry in it, so that it can be given to the provided class. Evicted entries are added to
+     * the provided list. The caller must not hold the lock of any size class.
+     *
+     * @return the slab, or null if no other class has a slab
+     */
+    private ByteBuffer reclaimSlab(SizeClass requester, List<Map.Entry<String, Entry>> evicted) {
+        SizeClass victimClass = null;
+        int victimIndex = -1;
+        long oldestAccess = 0;
+        for (SizeClass sizeClass : sizeClasses) {
+            if (sizeClass == requester) continue;
+            synchronized (sizeClass) {
+                for (int i = 0; i < sizeClass.slabs.size(); i++) {
+                    Slab slab = sizeClass.slabs.get(i);
+                    if (slab != null && (victimClass == null || slab.lastAccess - oldestAccess < 0)) {
+                        victimClass = sizeClass;
+                        victimIndex = i;
+                        oldestAccess = slab.lastAccess;
+                    }
+                }
+            }
+        }
+        if (victimClass == null) return null;
+
+        synchronized (victimClass) {
+            // The slab may have been reclaimed or the class cleared since it was chosen
+            if (victimIndex >= victimClass.slabs.size() || victimClass.slabs.get(victimIndex) == null) return null;
+
+            Iterator<Map.Entry<String, Entry>> entries = victimClass.entries.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<String, Entry> victim = entries.next();
+                if (victim.getValue().chunk / victimClass.chunksPerSlab != victimIndex) continue;
+
+                entries.remove();
+                victim.getValue().live = false;
+                victimClass.storedBytes -= victim.getValue().length;
+                evictionCount.increment();
+                evicted.add(Map.entry(victim.getKey(), victim.getValue()));
+            }
+            return victimClass.removeSlab(victimIndex);
+        }
+    }
+
+    /**
+     * Reserves and allocates a new slab if doing so would not exceed the capacity of this cache.
+     *
+     * @return the new slab, or null if the capacity has been reached
+     */
+    private ByteBuffer reserveSlab() {
+        long reserved;
+        do {
+            reserved = reservedBytes.get();
+            if (reserved + slabSize > capacityBytes) return null;
+        } while (!reservedBytes.compareAndSet(reserved, reserved + slabSize));
+
+        try {
+            return ByteBuffer.allocateDirect(slabSize);
+        } catch (OutOfMemoryError e) {
+            // The JVM's direct memory limit is lower than the capacity of this cache; evict instead
+            reservedBytes.addAndGet(-slabSize);
+            return null;
+        }
+    }
+
+    /**
+     * A group of slabs divided into chunks of the same size. All fields are guarded by the instance's lock.
+     */
+    private static final class SizeClass {
+        /**
+         * The size of each chunk in bytes.
+         */
+        private final int chunkSize;
+
+        /**
+         * The number of chunks in each slab.
+         */
+        private final int chunksPerSlab;
+
+        /**
+         * The slabs of this class. Chunk {@code n} lives in slab {@code n / chunksPerSlab}.
+         * A slab reclaimed by another class leaves a null in its place until a new slab fills it.
+         */
+        private final List<Slab> slabs = new ArrayList<>();
+
+        /**
+         * The number of non-null slabs of this class.
+         */
+        private int slabCount;
+
+        /**
+         * The live entries of this class in access order, least recently used first.
+         */
+        private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        /**
+         * A stack of the free chunks of this class.
+         */
+        private int[] freeChunks = new int[16];
+
+        /**
+         * The number of chunks on the free stack.
+         */
+        private int freeCount;
+
+        /**
+         * The number of image bytes held by the live entries of this class.
+         */
+        private long storedBytes;
+
+        SizeClass(int chunkSize, int chunksPerSlab) {
+            this.chunkSize = chunkSize;
+            this.chunksPerSlab = chunksPerSlab;
+        }
+
+        /**
+         * Pushes the provided chunk onto the free stack.
+         */
+        void pushFreeChunk(int chunk) {
+            if (freeCount == freeChunks.length) freeChunks = Arrays.copyOf(freeChunks, freeCount * 2);
+            freeChunks[freeCount++] = chunk;
+        }
+
+        /**
+         * Adds the provided slab to this class, pushing all but its first chunk onto the free stack.
+         *
+         * @return the first chunk of the slab
+         */
+        int addSlab(ByteBuffer buffer) {
+            int slabIndex = slabs.indexOf(null);
+            if (slabIndex < 0) {
+                slabIndex = slabs.size();
+                slabs.add(null);
+            }
+            slabs.set(slabIndex, new Slab(buffer));
+            slabCount++;
+
+            int firstChunk = slabIndex * chunksPerSlab;
+            for (int chunk = firstChunk + chunksPerSlab - 1; chunk > firstChunk; chunk--) {
+                pushFreeChunk(chunk);
+            }
+            return firstChunk;
+        }
+
+        /**
+         * Removes the slab at the provided index, and its chunks from the free stack.
+         * The slab must hold no live entries.
+         *
+         * @return the removed slab's buffer
+         */
+        ByteBuffer removeSlab(int slabIndex) {
+            int firstChunk = slabIndex * chunksPerSlab;
+            int kept = 0;
+            for (int i = 0; i < freeCount; i++) {
+                int chunk = freeChunks[i];
+                if (chunk < firstChunk || chunk >= firstChunk + chunksPerSlab) freeChunks[kept++] = chunk;
+            }
+            freeCount = kept;
+
+            Slab slab = slabs.set(slabIndex, null);
+            slabCount--;
+            return slab.buffer;
+        }
+
+        /**
+         * Records that the slab holding the provided entry's chunk was just used.
+         */
+        void touch(Entry entry) {
+            slabs.get(entry.chunk / chunksPerSlab).lastAccess = System.nanoTime();
+        }
+
+        /**
+         * Returns the slab holding the provided entry's chunk.
+         */
+        ByteBuffer slabOf(Entry entry) {
+            return slabs.get(entry.chunk / chunksPerSlab).buffer;
+        }
+
+        /**
+         * Returns the offset of the provided entry's chunk within its slab.
+         */
+        int offsetOf(Entry entry) {
+            return (entry.chunk % chunksPerSlab) * chunkSize;
+        }
+    }
+
+    /**
+     * A slab of direct memory and when it was last used. The last use is guarded by its size class's lock.
+     */
+    private static final class Slab {
+        /**
+         * The memory of this slab.
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * The {@link System#nanoTime()} at which an entry in this slab was last stored or read.
+         */
+        private long lastAccess = System.nanoTime();
+
+        Slab(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * The location of a cached image.
+     */
+    private static final class Entry {
+        /**
+         * The size class holding the image.
+         */
+        private final SizeClass sizeClass;
+
+        /**
+         * The chunk holding the image.
+         */
+        private final int chunk;
+
+        /**
+         * The length of the image in bytes.
+         */
+        private final int length;
+
+        /**
+         * Whether this entry still owns its chunk. Guarded by the size class's lock.
+         */
+        private boolean live = true;
+
+        Entry(SizeClass sizeClass, int chunk, int length) {
+            this.sizeClass = sizeClass;
+            this.chunk = chunk;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * In-memory caches for encoded images obtained from
+ * {@link com.github.natche.gravatarjavaclient.avatar.GravatarAvatarRequest}s and
+ * {@link com.github.natche.gravatarjavaclient.avatar.GravatarQrCodeRequest}s.
+ */
+package com.github.natche.gravatarjavaclient.avatar.cache;
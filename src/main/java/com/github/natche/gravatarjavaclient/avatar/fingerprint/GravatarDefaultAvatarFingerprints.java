@@ -0,0 +1,177 @@
+package com.github.natche.gravatarjavaclient.avatar.fingerprint;
+
+import com.github.natche.gravatarjavaclient.avatar.GravatarAvatarRequest;
+import com.github.natche.gravatarjavaclient.enums.GravatarDefaultImageType;
+import com.github.natche.gravatarjavaclient.enums.GravatarPerceptualHashAlgorithm;
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A singleton holding the perceptual hashes of the images Gravatar renders for each
+ * {@link GravatarDefaultImageType}, for recognizing users whose avatar is a generic default image.
+ * <p>
+ * Each fingerprint is fetched from Gravatar for {@link #REFERENCE_HASH}, which has no avatar, the first time it is
+ * needed and kept for the life of the JVM, so a renderer change on Gravatar's side is picked up on the next run.
+ * {@link GravatarDefaultImageType#MysteryPerson} and {@link GravatarDefaultImageType#Blank} render the same
+ * image for every hash, so their fingerprints identify the default for any user. The other types render a
+ * per-hash image, so their fingerprints only identify the rendering for {@link #REFERENCE_HASH}.
+ * <p>
+ * The perceptual hashes only capture variations in luminance, so an image of any single uniform color hashes
+ * to zero, as the {@link GravatarDefaultImageType#Blank} rendering does, and matches its fingerprint.
+ */
+public enum GravatarDefaultAvatarFingerprints {
+    /**
+     * The singleton instance.
+     */
+    INSTANCE;
+
+    /**
+     * The hash the fingerprint of each default image type is rendered for; no avatar exists for it.
+     */
+    public static final String REFERENCE_HASH = "00000000000000000000000000000000";
+
+    /**
+     * A Hamming distance which tolerates rescaling and re-encoding of an image without matching unrelated images.
+     */
+    public static final int DEFAULT_MAX_DISTANCE = 10;
+
+    /**
+     * The size the fingerprint of each default image type is rendered at.
+     */
+    private static final int REFERENCE_SIZE = 80;
+
+    /**
+     * The default image types which render the same image for every hash.
+     */
+    private static final ImmutableSet<GravatarDefaultImageType> HASH_INVARIANT_TYPES = ImmutableSet.of(
+            GravatarDefaultImageType.MysteryPerson, GravatarDefaultImageType.Blank);
+
+    /**
+     * The fingerprints fetched so far, keyed by algorithm and then by default image type.
+     */
+    private final Map<GravatarPerceptualHashAlgorithm, Map<GravatarDefaultImageType, GravatarPerceptualHash>>
+            fingerprints = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the fingerprint of the image rendered for the provided default image type and
+     * {@link #REFERENCE_HASH}, fetching it if this is the first time it is needed. The rendering is fetched
+     * without holding any lock, so threads needing the same fingerprint at once may each fetch it; the first
+     * fingerprint stored is kept.
+     *
+     * @param type      the default image type
+     * @param algorithm the algorithm
+     * @return the fingerprint
+     * @throws NullPointerException        if either argument is null
+     * @throws IllegalArgumentException    if the provided type is {@link GravatarDefaultImageType#_404},
+     *                                     which renders no image
+     * @throws GravatarJavaClientException if the rendering cannot be fetched
+     */
+    public GravatarPerceptualHash getFingerprint(GravatarDefaultImageType type,
+                                                 GravatarPerceptualHashAlgorithm algorithm) {
+        Preconditions.checkNotNull(type);
+        Preconditions.checkNotNull(algorithm);
+        Preconditions.checkArgument(type != GravatarDefaultImageType._404);
+
+        Map<GravatarDefaultImageType, GravatarPerceptualHash> byType =
+                fingerprints.computeIfAbsent(algorithm, key -> new ConcurrentHashMap<>());
+        GravatarPerceptualHash cached = byType.get(type);
+        if (cached != null) return cached;
+
+        GravatarPerceptualHash fetched = GravatarPerceptualHasher.INSTANCE.hash(
+                GravatarAvatarRequest.fromHash(REFERENCE_HASH)
+                        .setSize(REFERENCE_SIZE)
+                        .setDefaultImageType(type),
+                algorithm);
+        GravatarPerceptualHash stored = byType.putIfAbsent(type, fetched);
+        return stored != null ? stored : fetched;
+    }
+
+    /**
+     * Returns the fingerprint of every default image type which renders an image,
+     * fetching those not yet fetched.
+     *
+     * @param algorithm the algorithm
+     * @return the fingerprints keyed by default image type
+     * @throws NullPointerException        if the provided algorithm is null
+     * @throws GravatarJavaClientException if any rendering cannot be fetched
+     */
+    public ImmutableMap<GravatarDefaultImageType, GravatarPerceptualHash> getFingerprints(
+            GravatarPerceptualHashAlgorithm algorithm) {
+        Preconditions.checkNotNull(algorithm);
+
+        ImmutableMap.Builder<GravatarDefaultImageType, GravatarPerceptualHash> builder = ImmutableMap.builder();
+        Arrays.stream(GravatarDefaultImageType.values())
+                .filter(type -> type != GravatarDefaultImageType._404)
+                .forEach(type -> builder.put(type, getFingerprint(type, algorithm)));
+        return builder.build();
+    }
+
+    /**
+     * Returns the default image type which renders the same image for every hash and whose fingerprint is within
+     * the provided Hamming distance of the provided hash, if any. This identifies such defaults without knowing
+     * which user an avatar belongs to.
+     *
+     * @param hash        the hash of an avatar
+     * @param maxDistance the maximum Hamming distance, inclusive
+     * @return the matching default image type, or an empty optional if none matches
+     * @throws NullPointerException        if the provided hash is null
+     * @throws IllegalArgumentException    if the provided distance is not in the range [0, 64]
+     * @throws GravatarJavaClientException if a fingerprint cannot be fetched
+     */
+    public Optional<GravatarDefaultImageType> matchHashInvariantDefault(GravatarPerceptualHash hash,
+                                                                        int maxDistance) {
+        Preconditions.checkNotNull(hash);
+        Preconditions.checkArgument(maxDistance >= 0 && maxDistance <= Long.SIZE);
+
+        return HASH_INVARIANT_TYPES.stream()
+                .filter(type -> getFingerprint(type, hash.getAlgorithm()).distanceTo(hash) <= maxDistance)
+                .findFirst();
+    }
+
+    /**
+     * Returns whether the provided request would return a default image rather than an avatar the user uploaded,
+     * either because the user has not uploaded one or because theirs exceeds the request's rating.
+     * <p>
+     * Requests for {@link GravatarDefaultImageType#MysteryPerson} or {@link GravatarDefaultImageType#Blank}
+     * are fetched and compared with their fingerprint. Other default images vary by hash and this client only
+     * forces a default image URL, so for those the request is fetched with a {@link GravatarDefaultImageType#Blank}
+     * default instead and compared with its fingerprint. A user who uploaded an image of a single uniform color,
+     * of any color and not only white, is therefore reported as using a default image.
+     *
+     * @param request     the request
+     * @param algorithm   the algorithm
+     * @param maxDistance the maximum Hamming distance, inclusive
+     * @return whether the request would return a default image
+     * @throws NullPointerException        if the provided request or algorithm is null
+     * @throws IllegalArgumentException    if the provided distance is not in the range [0, 64]
+     * @throws GravatarJavaClientException if an image cannot be fetched
+     */
+    public boolean isDefaultAvatar(GravatarAvatarRequest request,
+                                   GravatarPerceptualHashAlgorithm algorithm,
+                                   int maxDistance) {
+        Preconditions.checkNotNull(request);
+        Preconditions.checkNotNull(algorithm);
+        Preconditions.checkArgument(maxDistance >= 0 && maxDistance <= Long.SIZE);
+
+        GravatarDefaultImageType type = request.getDefaultImageType();
+        if (HASH_INVARIANT_TYPES.contains(type)) {
+            return GravatarPerceptualHasher.INSTANCE.hash(request, algorithm)
+                    .distanceTo(getFingerprint(type, algorithm)) <= maxDistance;
+        }
+
+        GravatarAvatarRequest blankDefault = GravatarAvatarRequest.fromHash(request.getHash())
+                .setSize(request.getSize())
+                .setRating(request.getRating())
+                .setProtocol(request.getProtocol())
+                .setDefaultImageType(GravatarDefaultImageType.Blank);
+        return GravatarPerceptualHasher.INSTANCE.hash(blankDefault, algorithm)
+                .distanceTo(getFingerprint(GravatarDefaultImageType.Blank, algorithm)) <= maxDistance;
+    }
+}
@@ -0,0 +1,141 @@
+package com.github.natche.gravatarjavaclient.avatar.fingerprint;
+
+import com.github.natche.gravatarjavaclient.enums.GravatarPerceptualHashAlgorithm;
+import com.google.common.base.Preconditions;
+import com.google.errorprone.annotations.Immutable;
+
+/**
+ * A 64-bit perceptual hash of an avatar image.
+ * Visually similar images have hashes which differ in few bits, as measured by {@link #distanceTo}.
+ */
+@Immutable
+public final class GravatarPerceptualHash {
+    /**
+     * The number of hexadecimal digits in the string form of a hash.
+     */
+    private static final int HEX_LENGTH = 16;
+
+    /**
+     * The algorithm the hash was computed with.
+     */
+    private final GravatarPerceptualHashAlgorithm algorithm;
+
+    /**
+     * The bits of the hash.
+     */
+    private final long bits;
+
+    /**
+     * Constructs a new GravatarPerceptualHash.
+     *
+     * @param algorithm the algorithm the hash was computed with
+     * @param bits      the bits of the hash
+     * @throws NullPointerException if the provided algorithm is null
+     */
+    public GravatarPerceptualHash(GravatarPerceptualHashAlgorithm algorithm, long bits) {
+        this.algorithm = Preconditions.checkNotNull(algorithm);
+        this.bits = bits;
+    }
+
+    /**
+     * Parses a hash from the sixteen hexadecimal digits returned by {@link #toHexString()}.
+     *
+     * @param algorithm the algorithm the hash was computed with
+     * @param hex       the hexadecimal digits
+     * @return the hash
+     * @throws NullPointerException     if either argument is null
+     * @throws IllegalArgumentException if the provided string is not sixteen hexadecimal digits
+     */
+    public static GravatarPerceptualHash fromHexString(GravatarPerceptualHashAlgorithm algorithm, String hex) {
+        Preconditions.checkNotNull(algorithm);
+        Preconditions.checkNotNull(hex);
+        Preconditions.checkArgument(hex.length() == HEX_LENGTH);
+
+        try {
+            return new GravatarPerceptualHash(algorithm, Long.parseUnsignedLong(hex, 16));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid hash: " + hex, e);
+        }
+    }
+
+    /**
+     * Returns the algorithm the hash was computed with.
+     *
+     * @return the algorithm the hash was computed with
+     */
+    public GravatarPerceptualHashAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Returns the bits of the hash.
+     *
+     * @return the bits of the hash
+     */
+    public long getBits() {
+        return bits;
+    }
+
+    /**
+     * Returns the Hamming distance between this hash and the provided hash, the number of bits which differ.
+     *
+     * @param other the other hash
+     * @return the Hamming distance, in the range [0, 64]
+     * @throws NullPointerException     if the provided hash is null
+     * @throws IllegalArgumentException if the provided hash was computed with a different algorithm
+     */
+    public int distanceTo(GravatarPerceptualHash other) {
+        Preconditions.checkNotNull(other);
+        Preconditions.checkArgument(algorithm == other.algorithm);
+
+        return Long.bitCount(bits ^ other.bits);
+    }
+
+    /**
+     * Returns the bits of the hash as sixteen lowercase hexadecimal digits.
+     *
+     * @return the bits of the hash as sixteen lowercase hexadecimal digits
+     */
+    public String toHexString() {
+        String hex = Long.toHexString(bits);
+        return "0".repeat(HEX_LENGTH - hex.length()) + hex;
+    }
+
+    /**
+     * Returns whether the provided object is equal to this.
+     *
+     * @param o the other object
+     * @return whether the provided object is equal to this
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GravatarPerceptualHash other)) return false;
+        return algorithm == other.algorithm && bits == other.bits;
+    }
+
+    /**
+     * Returns a hashcode for this object.
+     *
+     * @return a hashcode for this object
+     */
+    @Override
+    public int hashCode() {
+        int ret = algorithm.hashCode();
+        ret = 31 * ret + Long.hashCode(bits);
+        return ret;
+    }
+
+    /**
+     * Returns a string representation of this object.
+     *
+     * @return a string representation of this object
+     */
+    @Override
+    public String toString() {
+        return "GravatarPerceptualHash{"
+                + "algorithm=" + algorithm
+                + ", bits=\"" + toHexString() + "\""
+                + "}";
+    }
+}
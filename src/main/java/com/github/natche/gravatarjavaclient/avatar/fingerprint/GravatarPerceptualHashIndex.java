@@ -0,0 +1,339 @@
+package com.github.natche.gravatarjavaclient.avatar.fingerprint;
+
+import com.github.natche.gravatarjavaclient.enums.GravatarPerceptualHashAlgorithm;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An index of {@link GravatarPerceptualHash}es supporting fast lookup of every entry within a Hamming distance
+ * of a queried hash, for finding near-duplicate avatars among millions of entries.
+ * <p>
+ * Hashes are split into four 16-bit blocks, each indexed by a table of buckets. If two hashes differ in at most
+ * {@code d} bits, at least one of their blocks differs in at most {@code d / 4} bits, so a query only visits
+ * the buckets within that distance of its own blocks rather than every entry. Queries for large distances,
+ * where visiting those buckets would cost more than a scan, and queries of small indexes scan every entry.
+ * Entries are stored in parallel primitive arrays, so each costs about 30 bytes plus its value.
+ * <p>
+ * Indexes are safe for use by multiple threads; queries may run concurrently with each other.
+ *
+ * @param <T> the type of the values stored in the index, such as user IDs
+ */
+public final class GravatarPerceptualHashIndex<T> {
+    /**
+     * The number of blocks each hash is split into.
+     */
+    private static final int BLOCK_COUNT = 4;
+
+    /**
+     * The number of bits in each block.
+     */
+    private static final int BLOCK_BITS = Long.SIZE / BLOCK_COUNT;
+
+    /**
+     * The mask of the bits in a block.
+     */
+    private static final long BLOCK_MASK = (1L << BLOCK_BITS) - 1;
+
+    /**
+     * The largest per-block distance for which buckets are probed rather than every entry scanned.
+     * Probing a distance of two visits 137 buckets per block; a distance of three visits 697, which is
+     * slower than scanning a million entries.
+     */
+    private static final int MAX_PROBED_BLOCK_DISTANCE = 2;
+
+    /**
+     * The number of entries below which every entry is scanned rather than buckets probed.
+     */
+    private static final int SCAN_THRESHOLD = 4096;
+
+    /**
+     * The initial number of entries the index has room for.
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * The marker for the end of a bucket's chain.
+     */
+    private static final int NO_ENTRY = -1;
+
+    /**
+     * The algorithm of the hashes in this index.
+     */
+    private final GravatarPerceptualHashAlgorithm algorithm;
+
+    /**
+     * The lock guarding the entries.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * The most recently added entry of each bucket of each block.
+     */
+    private final int[][] bucketHeads = new int[BLOCK_COUNT][1 << BLOCK_BITS];
+
+    /**
+     * The entry added before each entry to the same bucket of each block.
+     */
+    private final int[][] nextInBucket = new int[BLOCK_COUNT][INITIAL_CAPACITY];
+
+    /**
+     * The bits of the hash of each entry.
+     */
+    private long[] hashes = new long[INITIAL_CAPACITY];
+
+    /**
+     * The value of each entry.
+     */
+    private Object[] values = new Object[INITIAL_CAPACITY];
+
+    /**
+     * The number of entries.
+     */
+    private int size;
+
+    /**
+     * Constructs a new GravatarPerceptualHashIndex.
+     *
+     * @param algorithm the algorithm of the hashes in this index
+     */
+    private GravatarPerceptualHashIndex(GravatarPerceptualHashAlgorithm algorithm) {
+        this.algorithm = algorithm;
+        for (int[] heads : bucketHeads) {
+            Arrays.fill(heads, NO_ENTRY);
+        }
+    }
+
+    /**
+     * Returns a new empty index for hashes computed with the provided algorithm.
+     *
+     * @param algorithm the algorithm of the hashes the index will hold
+     * @param <T>       the type of the values stored in the index
+     * @return the index
+     * @throws NullPointerException if the provided algorithm is null
+     */
+    public static <T> GravatarPerceptualHashIndex<T> create(GravatarPerceptualHashAlgorithm algorithm) {
+        Preconditions.checkNotNull(algorithm);
+        return new GravatarPerceptualHashIndex<>(algorithm);
+    }
+
+    /**
+     * Returns the algorithm of the hashes in this index.
+     *
+     * @return the algorithm of the hashes in this index
+     */
+    public GravatarPerceptualHashAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Returns the number of entries in this index.
+     *
+     * @return the number of entries in this index
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds an entry to this index. Many entries may share a hash or a value.
+     *
+     * @param hash  the hash
+     * @param value the value returned when the entry is found
+     * @throws NullPointerException     if either argument is null
+     * @throws IllegalArgumentException if the provided hash was computed with a different algorithm than this index
+     */
+    public void add(GravatarPerceptualHash hash, T value) {
+        Preconditions.checkNotNull(hash);
+        Preconditions.checkNotNull(value);
+        Preconditions.checkArgument(hash.getAlgorithm() == algorithm);
+
+        lock.writeLock().lock();
+        try {
+            if (size == hashes.length) grow();
+
+            long bits = hash.getBits();
+            int entry = size++;
+            hashes[entry] = bits;
+            values[entry] = value;
+            for (int block = 0; block < BLOCK_COUNT; block++) {
+                int key = blockOf(bits, block);
+                nextInBucket[block][entry] = bucketHeads[block][key];
+                bucketHeads[block][key] = entry;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns every entry whose hash is within the provided Hamming distance of the provided hash,
+     * ordered by distance and then by the order in which the entries were added.
+     *
+     * @param hash        the hash
+     * @param maxDistance the maximum Hamming distance, inclusive
+     * @return the matching entries
+     * @throws NullPointerException     if the provided hash is null
+     * @throws IllegalArgumentException if the provided hash was computed with a different algorithm than this index
+     *                                  or the provided distance is not in the range [0, 64]
+     */
+    public ImmutableList<GravatarPerceptualHashMatch<T>> findWithin(GravatarPerceptualHash hash, int maxDistance) {
+        Preconditions.checkNotNull(hash);
+        Preconditions.checkArgument(hash.getAlgorithm() == algorithm);
+        Preconditions.checkArgument(maxDistance >= 0 && maxDistance <= Long.SIZE);
+
+        long query = hash.getBits();
+        lock.readLock().lock();
+        try {
+            Candidates candidates = new Candidates();
+            int blockDistance = maxDistance / BLOCK_COUNT;
+            if (size < SCAN_THRESHOLD || blockDistance > MAX_PROBED_BLOCK_DISTANCE) {
+                for (int entry = 0; entry < size; entry++) {
+                    int distance = Long.bitCount(hashes[entry] ^ query);
+                    if (distance <= maxDistance) candidates.add(distance, entry);
+                }
+            } else {
+                for (int block = 0; block < BLOCK_COUNT; block++) {
+                    probe(query, maxDistance, block, blockDistance, blockOf(query, block), 0, blockDistance,
+                            candidates);
+                }
+            }
+
+            return toMatches(candidates);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the entry whose hash is nearest to the provided hash, if any is within the provided Hamming distance.
+     * Ties are broken in favor of the entry added first.
+     *
+     * @param hash        the hash
+     * @param maxDistance the maximum Hamming distance, inclusive
+     * @return the nearest entry, or an empty optional if no entry is within the provided distance
+     * @throws NullPointerException     if the provided hash is null
+     * @throws IllegalArgumentException if the provided hash was computed with a different algorithm than this index
+     *                                  or the provided distance is not in the range [0, 64]
+     */
+    public Optional<GravatarPerceptualHashMatch<T>> findNearest(GravatarPerceptualHash hash, int maxDistance) {
+        ImmutableList<GravatarPerceptualHashMatch<T>> matches = findWithin(hash, maxDistance);
+        return matches.isEmpty() ? Optional.empty() : Optional.of(matches.get(0));
+    }
+
+    /**
+     * Visits every bucket of the provided block whose key is within the remaining distance of the provided key,
+     * flipping only bits at or above the provided bit so each key is visited once.
+     */
+    private void probe(long query, int maxDistance, int block, int blockDistance,
+                       int key, int fromBit, int remaining, Candidates candidates) {
+        collectBucket(query, maxDistance, block, blockDistance, key, candidates);
+        if (remaining == 0) return;
+
+        for (int bit = fromBit; bit < BLOCK_BITS; bit++) {
+            probe(query, maxDistance, block, blockDistance, key ^ (1 << bit), bit + 1, remaining - 1, candidates);
+        }
+    }
+
+    /**
+     * Adds the entries of the provided bucket within the provided distance of the query. An entry whose earlier
+     * block is also within the per-block distance is skipped, as it was found when that block was probed.
+     */
+    private void collectBucket(long query, int maxDistance, int block, int blockDistance,
+                               int key, Candidates candidates) {
+        for (int entry = bucketHeads[block][key]; entry != NO_ENTRY; entry = nextInBucket[block][entry]) {
+            long bits = hashes[entry];
+            int distance = Long.bitCount(bits ^ query);
+            if (distance > maxDistance) continue;
+
+            boolean foundEarlier = false;
+            for (int earlier = 0; earlier < block && !foundEarlier; earlier++) {
+                foundEarlier = Integer.bitCount(blockOf(bits, earlier) ^ blockOf(query, earlier)) <= blockDistance;
+            }
+            if (!foundEarlier) candidates.add(distance, entry);
+        }
+    }
+
+    /**
+     * Sorts the provided candidates and wraps them as matches.
+     */
+    @SuppressWarnings("unchecked")
+    private ImmutableList<GravatarPerceptualHashMatch<T>> toMatches(Candidates candidates) {
+        long[] sorted = Arrays.copyOf(candidates.packed, candidates.size);
+        Arrays.sort(sorted);
+
+        ImmutableList.Builder<GravatarPerceptualHashMatch<T>> matches = ImmutableList.builder();
+        for (long packed : sorted) {
+            int distance = (int) (packed >>> Integer.SIZE);
+            int entry = (int) packed;
+            matches.add(new GravatarPerceptualHashMatch<>((T) values[entry],
+                    new GravatarPerceptualHash(algorithm, hashes[entry]), distance));
+        }
+        return matches.build();
+    }
+
+    /**
+     * Doubles the room for entries.
+     */
+    private void grow() {
+        int capacity = Math.multiplyExact(hashes.length, 2);
+        hashes = Arrays.copyOf(hashes, capacity);
+        values = Arrays.copyOf(values, capacity);
+        for (int block = 0; block < BLOCK_COUNT; block++) {
+            nextInBucket[block] = Arrays.copyOf(nextInBucket[block], capacity);
+        }
+    }
+
+    /**
+     * Returns the provided block of the provided hash.
+     */
+    private static int blockOf(long bits, int block) {
+        return (int) ((bits >>> (block * BLOCK_BITS)) & BLOCK_MASK);
+    }
+
+    /**
+     * Returns a string representation of this object.
+     *
+     * @return a string representation of this object
+     */
+    @Override
+    public String toString() {
+        return "GravatarPerceptualHashIndex{"
+                + "algorithm=" + algorithm
+                + ", size=" + size()
+                + "}";
+    }
+
+    /**
+     * The entries found by a query, each packed as its distance in the high half of a long and its position
+     * in the low half so that sorting orders them by distance and then by position.
+     */
+    private static final class Candidates {
+        /**
+         * The packed entries.
+         */
+        private long[] packed = new long[16];
+
+        /**
+         * The number of entries.
+         */
+        private int size;
+
+        /**
+         * Adds an entry.
+         */
+        void add(int distance, int entry) {
+            if (size == packed.length) packed = Arrays.copyOf(packed, size * 2);
+            packed[size++] = (long) distance << Integer.SIZE | entry;
+        }
+    }
+}
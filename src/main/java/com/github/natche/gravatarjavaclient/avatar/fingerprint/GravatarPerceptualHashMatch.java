@@ -0,0 +1,111 @@
+package com.github.natche.gravatarjavaclient.avatar.fingerprint;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * An entry of a {@link GravatarPerceptualHashIndex} found near a queried hash.
+ *
+ * @param <T> the type of the values stored in the index
+ */
+public final class GravatarPerceptualHashMatch<T> {
+    /**
+     * The value the entry was added with.
+     */
+    private final T value;
+
+    /**
+     * The hash the entry was added with.
+     */
+    private final GravatarPerceptualHash hash;
+
+    /**
+     * The Hamming distance between the entry's hash and the queried hash.
+     */
+    private final int distance;
+
+    /**
+     * Constructs a new GravatarPerceptualHashMatch.
+     *
+     * @param value    the value the entry was added with
+     * @param hash     the hash the entry was added with
+     * @param distance the Hamming distance between the entry's hash and the queried hash
+     * @throws NullPointerException     if the provided value or hash is null
+     * @throws IllegalArgumentException if the provided distance is not in the range [0, 64]
+     */
+    public GravatarPerceptualHashMatch(T value, GravatarPerceptualHash hash, int distance) {
+        Preconditions.checkNotNull(value);
+        Preconditions.checkNotNull(hash);
+        Preconditions.checkArgument(distance >= 0 && distance <= Long.SIZE);
+
+        this.value = value;
+        this.hash = hash;
+        this.distance = distance;
+    }
+
+    /**
+     * Returns the value the entry was added with.
+     *
+     * @return the value the entry was added with
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the hash the entry was added with.
+     *
+     * @return the hash the entry was added with
+     */
+    public GravatarPerceptualHash getHash() {
+        return hash;
+    }
+
+    /**
+     * Returns the Hamming distance between the entry's hash and the queried hash.
+     *
+     * @return the Hamming distance between the entry's hash and the queried hash
+     */
+    public int getDistance() {
+        return distance;
+    }
+
+    /**
+     * Returns whether the provided object is equal to this.
+     *
+     * @param o the other object
+     * @return whether the provided object is equal to this
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GravatarPerceptualHashMatch<?> other)) return false;
+        return value.equals(other.value) && hash.equals(other.hash) && distance == other.distance;
+    }
+
+    /**
+     * Returns a hashcode for this object.
+     *
+     * @return a hashcode for this object
+     */
+    @Override
+    public int hashCode() {
+        int ret = value.hashCode();
+        ret = 31 * ret + hash.hashCode();
+        ret = 31 * ret + Integer.hashCode(distance);
+        return ret;
+    }
+
+    /**
+     * Returns a string representation of this object.
+     *
+     * @return a string representation of this object
+     */
+    @Override
+    public String toString() {
+        return "GravatarPerceptualHashMatch{"
+                + "value=" + value
+                + ", hash=\"" + hash.toHexString() + "\""
+                + ", distance=" + distance
+                + "}";
+    }
+}
@@ -0,0 +1,217 @@
+package com.github.natche.gravatarjavaclient.avatar.fingerprint;
+
+import com.github.natche.gravatarjavaclient.avatar.GravatarAvatarRequest;
+import com.github.natche.gravatarjavaclient.enums.GravatarPerceptualHashAlgorithm;
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
+import com.google.common.base.Preconditions;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * A singleton for computing {@link GravatarPerceptualHash}es of avatar images.
+ * <p>
+ * Images are reduced to a small grid of luminance values by averaging at most {@link #MAX_SAMPLES_PER_AXIS}
+ * evenly spaced pixels along each axis, so the cost is bounded regardless of the avatar's size.
+ * Transparent pixels are composited over white. Every bit compares luminance values, so an image of a single
+ * uniform color hashes to zero with every algorithm, whatever the color.
+ */
+public enum GravatarPerceptualHasher {
+    /**
+     * The singleton instance.
+     */
+    INSTANCE;
+
+    /**
+     * The maximum number of pixels sampled along each axis of an image.
+     */
+    public static final int MAX_SAMPLES_PER_AXIS = 128;
+
+    /**
+     * The width of the luminance grid a difference hash is computed from.
+     */
+    private static final int DIFFERENCE_GRID_WIDTH = 9;
+
+    /**
+     * The height of the luminance grid a difference hash is computed from.
+     */
+    private static final int DIFFERENCE_GRID_HEIGHT = 8;
+
+    /**
+     * The width and height of the luminance grid a DCT hash is computed from.
+     */
+    private static final int DCT_GRID_SIZE = 32;
+
+    /**
+     * The number of lowest frequencies kept along each axis of the DCT.
+     */
+    private static final int DCT_KEPT_FREQUENCIES = 8;
+
+    /**
+     * The amount by which two luminance values or frequencies must differ to be considered different,
+     * so that rounding error in a solid image does not produce arbitrary bits.
+     */
+    private static final double EPSILON = 1e-6;
+
+    /**
+     * The DCT-II basis for the kept frequencies, indexed by frequency and then grid position.
+     */
+    private static final double[][] DCT_BASIS = new double[DCT_KEPT_FREQUENCIES][DCT_GRID_SIZE];
+
+    static {
+        for (int u = 0; u < DCT_KEPT_FREQUENCIES; u++) {
+            for (int x = 0; x < DCT_GRID_SIZE; x++) {
+                DCT_BASIS[u][x] = Math.cos((2 * x + 1) * u * Math.PI / (2 * DCT_GRID_SIZE));
+            }
+        }
+    }
+
+    /**
+     * Fetches the avatar for the provided request and computes its perceptual hash.
+     *
+     * @param request   the request
+     * @param algorithm the algorithm
+     * @return the perceptual hash
+     * @throws NullPointerException        if either argument is null
+     * @throws GravatarJavaClientException if the avatar cannot be fetched
+     */
+    public GravatarPerceptualHash hash(GravatarAvatarRequest request, GravatarPerceptualHashAlgorithm algorithm) {
+        Preconditions.checkNotNull(request);
+        Preconditions.checkNotNull(algorithm);
+
+        BufferedImage image = request.getBufferedImage();
+        if (image == null) throw new GravatarJavaClientException("Could not decode avatar");
+        return hash(image, algorithm);
+    }
+
+    /**
+     * Computes the perceptual hash of the provided image.
+     *
+     * @param image     the image
+     * @param algorithm the algorithm
+     * @return the perceptual hash
+     * @throws NullPointerException if either argument is null
+     */
+    public GravatarPerceptualHash hash(BufferedImage image, GravatarPerceptualHashAlgorithm algorithm) {
+        Preconditions.checkNotNull(image);
+        Preconditions.checkNotNull(algorithm);
+
+        long bits = switch (algorithm) {
+            case Difference -> differenceHash(image);
+            case Dct -> dctHash(image);
+        };
+        return new GravatarPerceptualHash(algorithm, bits);
+    }
+
+    /**
+     * Computes the difference hash of the provided image.
+     * Bit {@code y * 8 + x} is set if cell {@code (x, y)} is brighter than cell {@code (x + 1, y)}.
+     */
+    private static long differenceHash(BufferedImage image) {
+        double[] luminance = luminanceGrid(image, DIFFERENCE_GRID_WIDTH, DIFFERENCE_GRID_HEIGHT);
+
+        long bits = 0;
+        int bit = 0;
+        for (int y = 0; y < DIFFERENCE_GRID_HEIGHT; y++) {
+            int row = y * DIFFERENCE_GRID_WIDTH;
+            for (int x = 0; x < DIFFERENCE_GRID_WIDTH - 1; x++) {
+                if (luminance[row + x] > luminance[row + x + 1] + EPSILON) bits |= 1L << bit;
+                bit++;
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Computes the DCT hash of the provided image.
+     * Bit {@code k - 1} is set if the frequency {@code (k % 8, k / 8)} is above the median of the
+     * 63 lowest non-DC frequencies; the most significant bit is always clear.
+     */
+    private static long dctHash(BufferedImage image) {
+        double[] luminance = luminanceGrid(image, DCT_GRID_SIZE, DCT_GRID_SIZE);
+
+        double[] columns = new double[DCT_KEPT_FREQUENCIES * DCT_GRID_SIZE];
+        for (int v = 0; v < DCT_KEPT_FREQUENCIES; v++) {
+            double[] basis = DCT_BASIS[v];
+            for (int x = 0; x < DCT_GRID_SIZE; x++) {
+                double sum = 0;
+                for (int y = 0; y < DCT_GRID_SIZE; y++) {
+                    sum += basis[y] * luminance[y * DCT_GRID_SIZE + x];
+                }
+                columns[v * DCT_GRID_SIZE + x] = sum;
+            }
+        }
+
+        int frequencyCount = DCT_KEPT_FREQUENCIES * DCT_KEPT_FREQUENCIES;
+        double[] frequencies = new double[frequencyCount];
+        for (int v = 0; v < DCT_KEPT_FREQUENCIES; v++) {
+            for (int u = 0; u < DCT_KEPT_FREQUENCIES; u++) {
+                double[] basis = DCT_BASIS[u];
+                double sum = 0;
+                for (int x = 0; x < DCT_GRID_SIZE; x++) {
+                    sum += basis[x] * columns[v * DCT_GRID_SIZE + x];
+                }
+                frequencies[v * DCT_KEPT_FREQUENCIES + u] = sum;
+            }
+        }
+
+        double[] sorted = Arrays.copyOfRange(frequencies, 1, frequencyCount);
+        Arrays.sort(sorted);
+        double median = (sorted[sorted.length / 2 - 1] + sorted[sorted.length / 2]) / 2;
+
+        long bits = 0;
+        for (int k = 1; k < frequencyCount; k++) {
+            if (frequencies[k] > median + EPSILON) bits |= 1L << (k - 1);
+        }
+        return bits;
+    }
+
+    /**
+     * Reduces the provided image to a grid of the provided size, in row-major order, where each cell is the
+     * average luminance of the pixels sampled within it.
+     */
+    private static double[] luminanceGrid(BufferedImage image, int gridWidth, int gridHeight) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int samplesX = Math.max(gridWidth, Math.min(width, MAX_SAMPLES_PER_AXIS));
+        int samplesY = Math.max(gridHeight, Math.min(height, MAX_SAMPLES_PER_AXIS));
+
+        int[] xs = new int[samplesX];
+        int[] cellXs = new int[samplesX];
+        for (int i = 0; i < samplesX; i++) {
+            xs[i] = (int) ((i + 0.5) * width / samplesX);
+            cellXs[i] = i * gridWidth / samplesX;
+        }
+
+        double[] sums = new double[gridWidth * gridHeight];
+        int[] counts = new int[gridWidth * gridHeight];
+        int[] row = new int[width];
+        for (int i = 0; i < samplesY; i++) {
+            int y = (int) ((i + 0.5) * height / samplesY);
+            int cellRow = i * gridHeight / samplesY * gridWidth;
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int j = 0; j < samplesX; j++) {
+                int cell = cellRow + cellXs[j];
+                sums[cell] += luminance(row[xs[j]]);
+                counts[cell]++;
+            }
+        }
+
+        for (int i = 0; i < sums.length; i++) {
+            sums[i] /= counts[i];
+        }
+        return sums;
+    }
+
+    /**
+     * Returns the luminance of the provided ARGB pixel composited over white, in the range [0, 255].
+     */
+    private static double luminance(int argb) {
+        int alpha = argb >>> 24;
+        int transparency = 255 - alpha;
+        double red = (((argb >> 16) & 0xFF) * alpha + 255 * transparency) / 255.0;
+        double green = (((argb >> 8) & 0xFF) * alpha + 255 * transparency) / 255.0;
+        double blue = ((argb & 0xFF) * alpha + 255 * transparency) / 255.0;
+        return 0.299 * red + 0.587 * green + 0.114 * blue;
+    }
+}
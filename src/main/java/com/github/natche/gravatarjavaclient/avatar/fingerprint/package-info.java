@@ -0,0 +1,5 @@
+/**
+ * Perceptual hashes of avatar images, an index for finding near-duplicate avatars,
+ * and fingerprints of the renderings of Gravatar's default images.
+ */
+package com.github.natche.gravatarjavaclient.avatar.fingerprint;
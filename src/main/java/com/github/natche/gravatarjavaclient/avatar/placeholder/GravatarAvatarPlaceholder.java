@@ -0,0 +1,119 @@
+package com.github.natche.gravatarjavaclient.avatar.placeholder;
+
+import com.google.common.base.Preconditions;
+import com.google.errorprone.annotations.Immutable;
+
+import java.awt.Color;
+
+/**
+ * A compact placeholder for an avatar which may be stored alongside a user and displayed while the avatar loads.
+ */
+@Immutable
+public final class GravatarAvatarPlaceholder {
+    /**
+     * The mask of the red, green, and blue channels of a packed color.
+     */
+    private static final int RGB_MASK = 0xFFFFFF;
+
+    /**
+     * The BlurHash of the avatar.
+     */
+    private final String blurHash;
+
+    /**
+     * The dominant color of the avatar as a packed {@code 0xRRGGBB} value.
+     */
+    private final int dominantColor;
+
+    /**
+     * Constructs a new GravatarAvatarPlaceholder.
+     *
+     * @param blurHash      the BlurHash of the avatar
+     * @param dominantColor the dominant color of the avatar as a packed {@code 0xRRGGBB} value
+     * @throws NullPointerException     if the provided BlurHash is null
+     * @throws IllegalArgumentException if the provided BlurHash is shorter than six characters
+     *                                  or the color has bits set outside of {@code 0xFFFFFF}
+     */
+    public GravatarAvatarPlaceholder(String blurHash, int dominantColor) {
+        Preconditions.checkNotNull(blurHash);
+        Preconditions.checkArgument(blurHash.length() >= 6);
+        Preconditions.checkArgument((dominantColor & ~RGB_MASK) == 0);
+
+        this.blurHash = blurHash;
+        this.dominantColor = dominantColor;
+    }
+
+    /**
+     * Returns the BlurHash of the avatar.
+     *
+     * @return the BlurHash of the avatar
+     */
+    public String getBlurHash() {
+        return blurHash;
+    }
+
+    /**
+     * Returns the dominant color of the avatar as a packed {@code 0xRRGGBB} value.
+     *
+     * @return the dominant color of the avatar
+     */
+    public int getDominantColor() {
+        return dominantColor;
+    }
+
+    /**
+     * Returns the dominant color of the avatar as a CSS hex color such as {@code #1a2b3c}.
+     *
+     * @return the dominant color of the avatar as a CSS hex color
+     */
+    public String getDominantColorHex() {
+        return String.format("#%06x", dominantColor);
+    }
+
+    /**
+     * Returns the dominant color of the avatar as a {@link Color}.
+     *
+     * @return the dominant color of the avatar
+     */
+    public Color getDominantColorAsColor() {
+        return new Color(dominantColor);
+    }
+
+    /**
+     * Returns whether the provided object is equal to this.
+     *
+     * @param o the other object
+     * @return whether the provided object is equal to this
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GravatarAvatarPlaceholder other)) return false;
+        return blurHash.equals(other.blurHash) && dominantColor == other.dominantColor;
+    }
+
+    /**
+     * Returns a hashcode for this object.
+     *
+     * @return a hashcode for this object
+     */
+    @Override
+    public int hashCode() {
+        int ret = blurHash.hashCode();
+        ret = 31 * ret + Integer.hashCode(dominantColor);
+        return ret;
+    }
+
+    /**
+     * Returns a string representation of this object.
+     *
+     * @return a string representation of this object
+     */
+    @Override
+    public String toString() {
+        return "GravatarAvatarPlaceholder{"
+                + "blurHash=\"" + blurHash + "\""
+                + ", dominantColor=" + getDominantColorHex()
+                + "}";
+    }
+}
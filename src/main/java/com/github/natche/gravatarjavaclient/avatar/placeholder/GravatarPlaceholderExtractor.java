@@ -0,0 +1,508 @@
+package com.github.natche.gravatarjavaclient.avatar.placeholder;
+
+import com.github.natche.gravatarjavaclient.avatar.GravatarAvatarRequest;
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Range;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.IndexColorModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A singleton for computing {@link GravatarAvatarPlaceholder}s from avatar images.
+ * <p>
+ * Images are subsampled to at most {@link #SAMPLE_GRID_SIZE} pixels along each axis. Samples are read straight
+ * from the backing arrays of the common image types produced by {@link javax.imageio.ImageIO}, so no per-pixel
+ * {@link BufferedImage#getRGB(int, int)} calls or allocations are made. Other image types are first scaled
+ * down to the sample grid. Transparent pixels are composited over white.
+ */
+public enum GravatarPlaceholderExtractor {
+    /**
+     * The singleton instance.
+     */
+    INSTANCE;
+
+    /**
+     * The maximum number of pixels sampled along each axis of an image.
+     */
+    public static final int SAMPLE_GRID_SIZE = 32;
+
+    /**
+     * The default number of horizontal BlurHash components.
+     */
+    public static final int DEFAULT_X_COMPONENTS = 4;
+
+    /**
+     * The default number of vertical BlurHash components.
+     */
+    public static final int DEFAULT_Y_COMPONENTS = 3;
+
+    /**
+     * The range of acceptable BlurHash component counts along each axis.
+     */
+    private static final Range<Integer> COMPONENT_RANGE = Range.closed(1, 9);
+
+    /**
+     * The alphabet of the base 83 encoding used by BlurHash.
+     */
+    private static final String BASE_83_ALPHABET =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+    /**
+     * The linear light value of each 8-bit sRGB channel value.
+     */
+    private static final double[] SRGB_TO_LINEAR = new double[256];
+
+    /**
+     * The number of bits each channel is quantized to when finding the dominant color.
+     */
+    private static final int DOMINANT_COLOR_BITS = 4;
+
+    /**
+     * The minimum alpha for a pixel to count towards the dominant color.
+     */
+    private static final int DOMINANT_COLOR_MIN_ALPHA = 128;
+
+    /**
+     * The dominant color reported for a fully transparent image.
+     */
+    private static final int TRANSPARENT_DOMINANT_COLOR = 0xFFFFFF;
+
+    static {
+        for (int i = 0; i < SRGB_TO_LINEAR.length; i++) {
+            double value = i / 255.0;
+            SRGB_TO_LINEAR[i] = value <= 0.04045 ? value / 12.92 : Math.pow((value + 0.055) / 1.055, 2.4);
+        }
+    }
+
+    /**
+     * Fetches the avatar for the provided request and computes its placeholder using the default
+     * number of BlurHash components.
+     *
+     * @param request the request
+     * @return the placeholder
+     * @throws NullPointerException        if the provided request is null
+     * @throws GravatarJavaClientException if the avatar cannot be fetched
+     */
+    public GravatarAvatarPlaceholder extract(GravatarAvatarRequest request) {
+        Preconditions.checkNotNull(request);
+
+        BufferedImage image = request.getBufferedImage();
+        if (image == null) throw new GravatarJavaClientException("Could not decode avatar");
+        return extract(image);
+    }
+
+    /**
+     * Computes the placeholder of the provided image using the default number of BlurHash components.
+     *
+     * @param image the image
+     * @return the placeholder
+     * @throws NullPointerException if the provided image is null
+     */
+    public GravatarAvatarPlaceholder extract(BufferedImage image) {
+        Preconditions.checkNotNull(image);
+
+        Samples samples = sample(image);
+        return new GravatarAvatarPlaceholder(
+                encodeBlurHash(samples, DEFAULT_X_COMPONENTS, DEFAULT_Y_COMPONENTS),
+                dominantColor(samples));
+    }
+
+    /**
+     * Fetches the avatars for the provided requests using up to the provided number of threads
+     * and computes their placeholders.
+     *
+     * @param requests    the requests
+     * @param parallelism the maximum number of avatars fetched and processed at once
+     * @return the placeholders, in the order of the provided requests
+     * @throws NullPointerException        if the provided list or any of its elements is null
+     * @throws IllegalArgumentException    if the provided parallelism is not positive
+     * @throws GravatarJavaClientException if any avatar cannot be fetched or the current thread is interrupted
+     */
+    public ImmutableList<GravatarAvatarPlaceholder> extractAll(List<GravatarAvatarRequest> requests,
+                                                               int parallelism) {
+        Preconditions.checkNotNull(requests);
+        Preconditions.checkArgument(parallelism > 0);
+        requests.forEach(Preconditions::checkNotNull);
+        if (requests.isEmpty()) return ImmutableList.of();
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, requests.size()));
+        try {
+            List<Future<GravatarAvatarPlaceholder>> futures = new ArrayList<>(requests.size());
+            for (GravatarAvatarRequest request : requests) {
+                futures.add(executor.submit(() -> extract(request)));
+            }
+
+            ImmutableList.Builder<GravatarAvatarPlaceholder> placeholders = ImmutableList.builder();
+            for (Future<GravatarAvatarPlaceholder> future : futures) {
+                placeholders.add(future.get());
+            }
+            return placeholders.build();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof GravatarJavaClientException clientException) throw clientException;
+            throw new GravatarJavaClientException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GravatarJavaClientException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Computes the BlurHash of the provided image using the provided number of components.
+     *
+     * @param image       the image
+     * @param xComponents the number of horizontal components
+     * @param yComponents the number of vertical components
+     * @return the BlurHash
+     * @throws NullPointerException     if the provided image is null
+     * @throws IllegalArgumentException if either component count is not in the range [1, 9]
+     */
+    public String encodeBlurHash(BufferedImage image, int xComponents, int yComponents) {
+        Preconditions.checkNotNull(image);
+        Preconditions.checkArgument(COMPONENT_RANGE.contains(xComponents));
+        Preconditions.checkArgument(COMPONENT_RANGE.contains(yComponents));
+
+        return encodeBlurHash(sample(image), xComponents, yComponents);
+    }
+
+    /**
+     * Computes the dominant color of the provided image as a packed {@code 0xRRGGBB} value.
+     * Colors are grouped into buckets of similar colors and the average of the most populous bucket is returned.
+     * Pixels which are mostly transparent are ignored; a fully transparent image is reported as white.
+     *
+     * @param image the image
+     * @return the dominant color
+     * @throws NullPointerException if the provided image is null
+     */
+    public int dominantColor(BufferedImage image) {
+        Preconditions.checkNotNull(image);
+
+        return dominantColor(sample(image));
+    }
+
+    /**
+     * Encodes the BlurHash of the provided samples.
+     */
+    private static String encodeBlurHash(Samples samples, int xComponents, int yComponents) {
+        int width = samples.width;
+        int height = samples.height;
+        int count = width * height;
+
+        double[] red = new double[count];
+        double[] green = new double[count];
+        double[] blue = new double[count];
+        int[] argb = samples.argb;
+        for (int i = 0; i < count; i++) {
+            int pixel = argb[i];
+            int alpha = pixel >>> 24;
+            if (alpha == 0xFF) {
+                red[i] = SRGB_TO_LINEAR[(pixel >> 16) & 0xFF];
+                green[i] = SRGB_TO_LINEAR[(pixel >> 8) & 0xFF];
+                blue[i] = SRGB_TO_LINEAR[pixel & 0xFF];
+            } else {
+                double coverage = alpha / 255.0;
+                red[i] = SRGB_TO_LINEAR[(pixel >> 16) & 0xFF] * coverage + (1 - coverage);
+                green[i] = SRGB_TO_LINEAR[(pixel >> 8) & 0xFF] * coverage + (1 - coverage);
+                blue[i] = SRGB_TO_LINEAR[pixel & 0xFF] * coverage + (1 - coverage);
+            }
+        }
+
+        double[] cosX = new double[xComponents * width];
+        for (int i = 0; i < xComponents; i++) {
+            for (int x = 0; x < width; x++) {
+                cosX[i * width + x] = Math.cos(Math.PI * i * x / width);
+            }
+        }
+        double[] cosY = new double[yComponents * height];
+        for (int j = 0; j < yComponents; j++) {
+            for (int y = 0; y < height; y++) {
+                cosY[j * height + y] = Math.cos(Math.PI * j * y / height);
+            }
+        }
+
+        double[] factors = new double[xComponents * yComponents * 3];
+        for (int j = 0; j < yComponents; j++) {
+            for (int i = 0; i < xComponents; i++) {
+                double r = 0;
+                double g = 0;
+                double b = 0;
+                for (int y = 0; y < height; y++) {
+                    double basisY = cosY[j * height + y];
+                    int row = y * width;
+                    for (int x = 0; x < width; x++) {
+                        double basis = cosX[i * width + x] * basisY;
+                        r += basis * red[row + x];
+                        g += basis * green[row + x];
+                        b += basis * blue[row + x];
+                    }
+                }
+
+                double scale = (i == 0 && j == 0 ? 1.0 : 2.0) / count;
+                int factor = (j * xComponents + i) * 3;
+                factors[factor] = r * scale;
+                factors[factor + 1] = g * scale;
+                factors[factor + 2] = b * scale;
+            }
+        }
+
+        int componentCount = xComponents * yComponents;
+        StringBuilder hash = new StringBuilder(4 + 2 * componentCount);
+        appendBase83(hash, (xComponents - 1) + (yComponents - 1) * 9, 1);
+
+        double maximumValue;
+        if (componentCount > 1) {
+            double actualMaximum = 0;
+            for (int i = 3; i < factors.length; i++) {
+                actualMaximum = Math.max(actualMaximum, Math.abs(factors[i]));
+            }
+            int quantizedMaximum = clamp((int) Math.floor(actualMaximum * 166 - 0.5), 0, 82);
+            maximumValue = (quantizedMaximum + 1) / 166.0;
+            appendBase83(hash, quantizedMaximum, 1);
+        } else {
+            maximumValue = 1;
+            appendBase83(hash, 0, 1);
+        }
+
+        int dc = (linearToSrgb(factors[0]) << 16) | (linearToSrgb(factors[1]) << 8) | linearToSrgb(factors[2]);
+        appendBase83(hash, dc, 4);
+
+        for (int component = 1; component < componentCount; component++) {
+            int factor = component * 3;
+            int ac = quantizeAc(factors[factor], maximumValue) * 19 * 19
+                    + quantizeAc(factors[factor + 1], maximumValue) * 19
+                    + quantizeAc(factors[factor + 2], maximumValue);
+            appendBase83(hash, ac, 2);
+        }
+
+        return hash.toString();
+    }
+
+    /**
+     * Computes the dominant color of the provided samples.
+     */
+    private static int dominantColor(Samples samples) {
+        int shift = 8 - DOMINANT_COLOR_BITS;
+        int bucketCount = 1 << (3 * DOMINANT_COLOR_BITS);
+        int[] counts = new int[bucketCount];
+        long[] sums = new long[bucketCount * 3];
+
+        int bestBucket = -1;
+        for (int pixel : samples.argb) {
+            if (pixel >>> 24 < DOMINANT_COLOR_MIN_ALPHA) continue;
+
+            int r = (pixel >> 16) & 0xFF;
+            int g = (pixel >> 8) & 0xFF;
+            int b = pixel & 0xFF;
+            int bucket = ((r >> shift) << (2 * DOMINANT_COLOR_BITS)) | ((g >> shift) << DOMINANT_COLOR_BITS) | (b >> shift);
+            counts[bucket]++;
+            sums[bucket * 3] += r;
+            sums[bucket * 3 + 1] += g;
+            sums[bucket * 3 + 2] += b;
+            if (bestBucket < 0 || counts[bucket] > counts[bestBucket]) bestBucket = bucket;
+        }
+
+        if (bestBucket < 0) return TRANSPARENT_DOMINANT_COLOR;
+
+        int count = counts[bestBucket];
+        int r = (int) ((sums[bestBucket * 3] + count / 2) / count);
+        int g = (int) ((sums[bestBucket * 3 + 1] + count / 2) / count);
+        int b = (int) ((sums[bestBucket * 3 + 2] + count / 2) / count);
+        return (r << 16) | (g << 8) | b;
+    }
+
+    /**
+     * Reads a grid of at most {@link #SAMPLE_GRID_SIZE} by {@link #SAMPLE_GRID_SIZE} evenly spaced pixels
+     * of the provided image as packed ARGB values.
+     */
+    private static Samples sample(BufferedImage image) {
+        int width = Math.min(image.getWidth(), SAMPLE_GRID_SIZE);
+        int height = Math.min(image.getHeight(), SAMPLE_GRID_SIZE);
+
+        int[] xs = new int[width];
+        for (int x = 0; x < width; x++) {
+            xs[x] = (int) ((x + 0.5) * image.getWidth() / width);
+        }
+        int[] ys = new int[height];
+        for (int y = 0; y < height; y++) {
+            ys[y] = (int) ((y + 0.5) * image.getHeight() / height);
+        }
+
+        int[] argb = new int[width * height];
+        if (!sampleRaster(image, xs, ys, argb)) {
+            BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D graphics = scaled.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                        RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+                graphics.drawImage(image, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            scaled.getRGB(0, 0, width, height, argb, 0, width);
+        }
+
+        return new Samples(width, height, argb);
+    }
+
+    /**
+     * Reads the pixels at the provided coordinates directly from the backing array of the provided image.
+     *
+     * @return false if the image's layout is not one read directly, in which case nothing was read
+     */
+    private static boolean sampleRaster(BufferedImage image, int[] xs, int[] ys, int[] argb) {
+        WritableRaster raster = image.getRaster();
+        DataBuffer dataBuffer = raster.getDataBuffer();
+        int translateX = -raster.getSampleModelTranslateX();
+        int translateY = -raster.getSampleModelTranslateY();
+        int i = 0;
+
+        switch (image.getType()) {
+            case BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB -> {
+                int[] data = ((DataBufferInt) dataBuffer).getData();
+                int stride = ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+                int offset = dataBuffer.getOffset();
+                int opaque = image.getType() == BufferedImage.TYPE_INT_RGB ? 0xFF000000 : 0;
+                for (int y : ys) {
+                    int row = offset + (y + translateY) * stride + translateX;
+                    for (int x : xs) {
+                        argb[i++] = data[row + x] | opaque;
+                    }
+                }
+                return true;
+            }
+            case BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_4BYTE_ABGR -> {
+                byte[] data = ((DataBufferByte) dataBuffer).getData();
+                ComponentSampleModel model = (ComponentSampleModel) raster.getSampleModel();
+                int stride = model.getScanlineStride();
+                int pixelStride = model.getPixelStride();
+                int[] bandOffsets = model.getBandOffsets();
+                int redOffset = bandOffsets[0];
+                int greenOffset = bandOffsets[1];
+                int blueOffset = bandOffsets[2];
+                boolean hasAlpha = bandOffsets.length > 3;
+                int alphaOffset = hasAlpha ? bandOffsets[3] : 0;
+                int offset = dataBuffer.getOffset();
+                for (int y : ys) {
+                    int row = offset + (y + translateY) * stride + translateX * pixelStride;
+                    for (int x : xs) {
+                        int base = row + x * pixelStride;
+                        int alpha = hasAlpha ? data[base + alphaOffset] & 0xFF : 0xFF;
+                        argb[i++] = alpha << 24
+                                | (data[base + redOffset] & 0xFF) << 16
+                                | (data[base + greenOffset] & 0xFF) << 8
+                                | (data[base + blueOffset] & 0xFF);
+                    }
+                }
+                return true;
+            }
+            case BufferedImage.TYPE_BYTE_INDEXED -> {
+                IndexColorModel colorModel = (IndexColorModel) image.getColorModel();
+                int[] palette = new int[colorModel.getMapSize()];
+                colorModel.getRGBs(palette);
+                byte[] data = ((DataBufferByte) dataBuffer).getData();
+                ComponentSampleModel model = (ComponentSampleModel) raster.getSampleModel();
+                int stride = model.getScanlineStride();
+                int offset = dataBuffer.getOffset();
+                for (int y : ys) {
+                    int row = offset + (y + translateY) * stride + translateX;
+                    for (int x : xs) {
+                        argb[i++] = palette[data[row + x] & 0xFF];
+                    }
+                }
+                return true;
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Converts a linear light value to an 8-bit sRGB channel value.
+     */
+    private static int linearToSrgb(double value) {
+        double clamped = Math.max(0, Math.min(1, value));
+        if (clamped <= 0.0031308) return (int) (clamped * 12.92 * 255 + 0.5);
+        return (int) ((1.055 * Math.pow(clamped, 1 / 2.4) - 0.055) * 255 + 0.5);
+    }
+
+    /**
+     * Quantizes an AC component to the range [0, 18].
+     */
+    private static int quantizeAc(double value, double maximumValue) {
+        double normalized = value / maximumValue;
+        double curved = Math.copySign(Math.sqrt(Math.abs(normalized)), normalized);
+        return clamp((int) Math.floor(curved * 9 + 9.5), 0, 18);
+    }
+
+    /**
+     * Clamps the provided value to the provided range.
+     */
+    private static int clamp(int value, int minimum, int maximum) {
+        return Math.max(minimum, Math.min(maximum, value));
+    }
+
+    /**
+     * Appends the provided value as the provided number of base 83 digits.
+     */
+    private static void appendBase83(StringBuilder builder, int value, int length) {
+        for (int i = 1; i <= length; i++) {
+            int digit = (value / pow83(length - i)) % 83;
+            builder.append(BASE_83_ALPHABET.charAt(digit));
+        }
+    }
+
+    /**
+     * Returns 83 raised to the provided power.
+     */
+    private static int pow83(int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 83;
+        }
+        return result;
+    }
+
+    /**
+     * A grid of pixels sampled from an image.
+     */
+    private static final class Samples {
+        /**
+         * The number of samples along the horizontal axis.
+         */
+        private final int width;
+
+        /**
+         * The number of samples along the vertical axis.
+         */
+        private final int height;
+
+        /**
+         * The samples as packed ARGB values, in row-major order.
+         */
+        private final int[] argb;
+
+        Samples(int width, int height, int[] argb) {
+            this.width = width;
+            this.height = height;
+            this.argb = argb;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * Compact placeholders, such as BlurHashes and dominant colors, computed from avatar images
+ * so that they can be displayed while the avatars themselves load.
+ */
+package com.github.natche.gravatarjavaclient.avatar.placeholder;
@@ -0,0 +1,63 @@
+package com.github.natche.gravatarjavaclient.avatar.storage;
+
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * A utility for compacting avatar packs.
+ * <p>
+ * Compaction rewrites a pack so that it contains only the records referenced by its current index,
+ * discarding records superseded by later puts of the same key and indexes written by earlier sessions.
+ * The compacted pack is written beside the original and atomically moved over it, so readers which
+ * are opened concurrently observe either the original pack or the compacted pack.
+ */
+public final class GravatarAvatarPackCompactor {
+    /**
+     * The suffix of the staging pack written during compaction.
+     */
+    private static final String STAGING_FILE_SUFFIX = ".compacting";
+
+    private GravatarAvatarPackCompactor() {}
+
+    /**
+     * Compacts the pack at the provided path in place.
+     *
+     * @param path the path of the pack
+     * @return the number of bytes reclaimed
+     * @throws NullPointerException        if the provided path is null
+     * @throws IllegalArgumentException    if the provided path is not a regular file
+     * @throws GravatarJavaClientException if the pack is invalid or cannot be rewritten
+     */
+    public static long compact(Path path) {
+        Preconditions.checkNotNull(path);
+        Preconditions.checkArgument(Files.isRegularFile(path));
+
+        Path staging = path.resolveSibling(path.getFileName() + STAGING_FILE_SUFFIX);
+        try {
+            long originalSize = Files.size(path);
+            Files.deleteIfExists(staging);
+
+            try (GravatarAvatarPackReader reader = GravatarAvatarPackReader.open(path);
+                 GravatarAvatarPackWriter writer = GravatarAvatarPackWriter.open(staging)) {
+                reader.forEach(writer::put);
+            }
+
+            long compactedSize = Files.size(staging);
+            Files.move(staging, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return originalSize - compactedSize;
+        } catch (IOException e) {
+            throw new GravatarJavaClientException(e);
+        } finally {
+            try {
+                Files.deleteIfExists(staging);
+            } catch (IOException ignored) {
+                // The staging pack will be replaced by the next compaction
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.natche.gravatarjavaclient.avatar.storage;
+
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Constants describing the layout of an avatar pack file shared by
+ * {@link GravatarAvatarPackWriter} and {@link GravatarAvatarPackReader}.
+ * <p>
+ * A pack is laid out as follows, with all integers big-endian:
+ * <pre>{@code
+ * header:  int magic, int version
+ * record:  int keyLength, byte[keyLength] key (UTF-8), byte[] image
+ * ...      (records and superseded indexes from earlier sessions)
+ * index:   entryCount * (long keyHash, long recordOffset, int imageLength), sorted by keyHash
+ * footer:  long indexOffset, int entryCount, int magic
+ * }</pre>
+ * Records never span a {@link #SEGMENT_SIZE} boundary so that readers may map the pack in segments.
+ */
+final class GravatarAvatarPackFormat {
+    /**
+     * The magic number at the start of a pack.
+     */
+    static final int HEADER_MAGIC = 0x47415650;
+
+    /**
+     * The magic number at the end of a pack.
+     */
+    static final int FOOTER_MAGIC = 0x4741504B;
+
+    /**
+     * The version of the pack format.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The length in bytes of the header.
+     */
+    static final int HEADER_LENGTH = 8;
+
+    /**
+     * The length in bytes of the footer.
+     */
+    static final int FOOTER_LENGTH = 16;
+
+    /**
+     * The length in bytes of a single index entry.
+     */
+    static final int INDEX_ENTRY_LENGTH = 20;
+
+    /**
+     * The length in bytes of the key length prefix of a record.
+     */
+    static final int RECORD_HEADER_LENGTH = 4;
+
+    /**
+     * The maximum length in bytes of an encoded key.
+     */
+    static final int MAX_KEY_LENGTH = 1024;
+
+    /**
+     * The size of the segments records are aligned within.
+     */
+    static final long SEGMENT_SIZE = 1L << 30;
+
+    private GravatarAvatarPackFormat() {}
+
+    /**
+     * Returns the 64-bit hash of the provided key used to order the index.
+     *
+     * @param key the key
+     * @return the hash of the key
+     */
+    static long keyHash(String key) {
+        return Hashing.murmur3_128().hashString(key, StandardCharsets.UTF_8).asLong();
+    }
+}
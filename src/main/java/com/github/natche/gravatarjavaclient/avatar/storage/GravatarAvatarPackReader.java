@@ -0,0 +1,383 @@
+package com.github.natche.gravatarjavaclient.avatar.storage;
+
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
+import com.google.common.base.Preconditions;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+import static com.github.natche.gravatarjavaclient.avatar.storage.GravatarAvatarPackFormat.*;
+
+/**
+ * A reader for avatar packs written by a {@link GravatarAvatarPackWriter}.
+ * <p>
+ * The pack is memory mapped when opened. Lookups binary search the sorted hash index in O(log n)
+ * and return read-only views of the mapped pack, so image bytes are never copied onto the heap.
+ * A reader is safe for use by multiple threads.
+ * <p>
+ * A reader sees the pack as of the last footer written. Records and any partial index after it, left by a writer
+ * which has not yet closed or which never closed because its process crashed, are ignored.
+ */
+public final class GravatarAvatarPackReader implements Closeable {
+    /**
+     * The size of the blocks read while scanning back for the last valid footer.
+     */
+    private static final int SCAN_BLOCK_SIZE = 1 << 16;
+
+    /**
+     * The path of the pack.
+     */
+    private final Path path;
+
+    /**
+     * The number of entries in the index.
+     */
+    private final int entryCount;
+
+    /**
+     * The length of the pack up to the end of the last valid footer, or of the header if there is none.
+     */
+    private final long committedLength;
+
+    /**
+     * The mapped pack, or null once this reader has been closed.
+     */
+    private volatile Mapping mapping;
+
+    private GravatarAvatarPackReader(Path path, int entryCount, long committedLength, Mapping mapping) {
+        this.path = path;
+        this.entryCount = entryCount;
+        this.committedLength = committedLength;
+        this.mapping = mapping;
+    }
+
+    /**
+     * Opens and maps the pack at the provided path.
+     *
+     * @param path the path of the pack
+     * @return a reader for the pack
+     * @throws NullPointerException        if the provided path is null
+     * @throws IllegalArgumentException    if the provided path is not a regular file
+     * @throws GravatarJavaClientException if the pack cannot be read or is not a valid pack
+     */
+    public static GravatarAvatarPackReader open(Path path) {
+        Preconditions.checkNotNull(path);
+        Preconditions.checkArgument(Files.isRegularFile(path));
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_LENGTH) throw new GravatarJavaClientException("Not an avatar pack");
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            readFully(channel, header, 0);
+            if (header.getInt(0) != HEADER_MAGIC) throw new GravatarJavaClientException("Not an avatar pack");
+            if (header.getInt(4) != VERSION) throw new GravatarJavaClientException("Unsupported pack version");
+
+            ByteBuffer footer = readFooter(channel, size, false);
+            if (footer == null) footer = findFooter(channel, size);
+
+            long indexOffset = footer == null ? HEADER_LENGTH : footer.getLong(0);
+            int entryCount = footer == null ? 0 : footer.getInt(8);
+            long committedLength = indexOffset + (long) entryCount * INDEX_ENTRY_LENGTH
+                    + (footer == null ? 0 : FOOTER_LENGTH);
+
+            MappedByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY,
+                    indexOffset, (long) entryCount * INDEX_ENTRY_LENGTH);
+
+            int segmentCount = (int) ((indexOffset + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+            MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long start = i * SEGMENT_SIZE;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        start, Math.min(SEGMENT_SIZE, indexOffset - start));
+            }
+
+            return new GravatarAvatarPackReader(path, entryCount, committedLength, new Mapping(index, segments));
+        } catch (IOException e) {
+            throw new GravatarJavaClientException(e);
+        }
+    }
+
+    /**
+     * Returns the path of the pack.
+     *
+     * @return the path of the pack
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the number of images in the pack.
+     *
+     * @return the number of images in the pack
+     */
+    public int size() {
+        return entryCount;
+    }
+
+    /**
+     * Returns whether the pack contains an image for the provided key.
+     *
+     * @param key the key
+     * @return whether the pack contains an image for the provided key
+     * @throws NullPointerException        if the provided key is null
+     * @throws GravatarJavaClientException if this reader has been closed
+     */
+    public boolean contains(String key) {
+        return get(key).isPresent();
+    }
+
+    /**
+     * Returns a read-only view of the image stored under the provided key.
+     * The view is backed by the mapped pack and must not be used after this reader is closed.
+     *
+     * @param key the key
+     * @return a read-only view of the image, if present
+     * @throws NullPointerException        if the provided key is null
+     * @throws GravatarJavaClientException if this reader has been closed
+     */
+    public Optional<ByteBuffer> get(String key) {
+        Preconditions.checkNotNull(key);
+        Mapping mapping = ensureOpen();
+        MappedByteBuffer index = mapping.index;
+
+        long hash = keyHash(key);
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+
+        int low = 0;
+        int high = entryCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (index.getLong(middle * INDEX_ENTRY_LENGTH) < hash) low = middle + 1;
+            else high = middle;
+        }
+
+        for (int i = low; i < entryCount && index.getLong(i * INDEX_ENTRY_LENGTH) == hash; i++) {
+            long recordOffset = index.getLong(i * INDEX_ENTRY_LENGTH + 8);
+            int imageLength = index.getInt(i * INDEX_ENTRY_LENGTH + 16);
+
+            MappedByteBuffer segment = mapping.segments[(int) (recordOffset / SEGMENT_SIZE)];
+            int position = (int) (recordOffset % SEGMENT_SIZE);
+            if (keyMatches(segment, position, keyBytes)) {
+                int imageOffset = position + RECORD_HEADER_LENGTH + keyBytes.length;
+                return Optional.of(segment.slice(imageOffset, imageLength));
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Invokes the provided consumer with every key and a read-only view of its image, in index order.
+     *
+     * @param consumer the consumer
+     * @throws NullPointerException        if the provided consumer is null
+     * @throws GravatarJavaClientException if this reader has been closed
+     */
+    public void forEach(BiConsumer<String, ByteBuffer> consumer) {
+        Preconditions.checkNotNull(consumer);
+        Mapping mapping = ensureOpen();
+
+        forEachRecord((key, recordOffset, imageLength) -> {
+            MappedByteBuffer segment = mapping.segments[(int) (recordOffset / SEGMENT_SIZE)];
+            int position = (int) (recordOffset % SEGMENT_SIZE);
+            int imageOffset = position + RECORD_HEADER_LENGTH + segment.getInt(position);
+            consumer.accept(key, segment.slice(imageOffset, imageLength));
+        });
+    }
+
+    /**
+     * Returns the length of the pack up to the end of the last valid footer, or of the header if there is none.
+     * Anything after it was left by a writer which did not close.
+     *
+     * @return the length of the pack's completed sessions
+     */
+    long getCommittedLength() {
+        return committedLength;
+    }
+
+    /**
+     * Invokes the provided visitor with the key, record offset, and image length of every entry, in index order.
+     *
+     * @param visitor the visitor
+     * @throws GravatarJavaClientException if this reader has been closed
+     */
+    void forEachRecord(RecordVisitor visitor) {
+        Mapping mapping = ensureOpen();
+        MappedByteBuffer index = mapping.index;
+
+        for (int i = 0; i < entryCount; i++) {
+            long recordOffset = index.getLong(i * INDEX_ENTRY_LENGTH + 8);
+            int imageLength = index.getInt(i * INDEX_ENTRY_LENGTH + 16);
+
+            MappedByteBuffer segment = mapping.segments[(int) (recordOffset / SEGMENT_SIZE)];
+            int position = (int) (recordOffset % SEGMENT_SIZE);
+            byte[] keyBytes = new byte[segment.getInt(position)];
+            segment.get(position + RECORD_HEADER_LENGTH, keyBytes);
+            visitor.visit(new String(keyBytes, StandardCharsets.UTF_8), recordOffset, imageLength);
+        }
+    }
+
+    /**
+     * Releases this reader's references to the mapped pack. The mapping itself is released
+     * once all views returned by {@link #get(String)} are no longer reachable.
+     */
+    @Override
+    public void close() {
+        mapping = null;
+    }
+
+    /**
+     * Returns a string representation of this reader.
+     *
+     * @return a string representation of this reader
+     */
+    @Override
+    public String toString() {
+        return "GravatarAvatarPackReader{"
+                + "path=\"" + path + "\""
+                + ", size=" + entryCount
+                + "}";
+    }
+
+    /**
+     * Returns the mapped pack, throwing if this reader has been closed.
+     */
+    private Mapping ensureOpen() {
+        Mapping mapping = this.mapping;
+        if (mapping == null) throw new GravatarJavaClientException("The reader has been closed");
+        return mapping;
+    }
+
+    /**
+     * Returns whether the key of the record at the provided position equals the provided key.
+     */
+    private static boolean keyMatches(MappedByteBuffer segment, int position, byte[] keyBytes) {
+        if (segment.getInt(position) != keyBytes.length) return false;
+
+        int start = position + RECORD_HEADER_LENGTH;
+        for (int i = 0; i < keyBytes.length; i++) {
+            if (segment.get(start + i) != keyBytes[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the footer ending at the provided offset if it is valid and consistent with its index, or null.
+     * A footer found by scanning may be image bytes which happen to end with the footer's magic number,
+     * so its index is also checked to be sorted and to reference records before it.
+     */
+    private static ByteBuffer readFooter(FileChannel channel, long end, boolean checkIndex) throws IOException {
+        long footerOffset = end - FOOTER_LENGTH;
+        if (footerOffset < HEADER_LENGTH) return null;
+
+        ByteBuffer footer = ByteBuffer.allocate(FOOTER_LENGTH);
+        readFully(channel, footer, footerOffset);
+        long indexOffset = footer.getLong(0);
+        int entryCount = footer.getInt(8);
+        if (footer.getInt(12) != FOOTER_MAGIC
+                || entryCount < 0
+                || indexOffset < HEADER_LENGTH
+                || indexOffset + (long) entryCount * INDEX_ENTRY_LENGTH != footerOffset) {
+            return null;
+        }
+        if (!checkIndex) return footer;
+
+        MappedByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY,
+                indexOffset, (long) entryCount * INDEX_ENTRY_LENGTH);
+        long previousHash = Long.MIN_VALUE;
+        for (int i = 0; i < entryCount; i++) {
+            long keyHash = index.getLong(i * INDEX_ENTRY_LENGTH);
+            long recordOffset = index.getLong(i * INDEX_ENTRY_LENGTH + 8);
+            int imageLength = index.getInt(i * INDEX_ENTRY_LENGTH + 16);
+            if (keyHash < previousHash
+                    || recordOffset < HEADER_LENGTH
+                    || imageLength < 0
+                    || recordOffset + RECORD_HEADER_LENGTH + imageLength > indexOffset) {
+                return null;
+            }
+            previousHash = keyHash;
+        }
+        return footer;
+    }
+
+    /**
+     * Scans back from the provided size for the last valid footer, returning null if there is none.
+     */
+    private static ByteBuffer findFooter(FileChannel channel, long size) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(SCAN_BLOCK_SIZE);
+        long blockEnd = size;
+        while (blockEnd - HEADER_LENGTH >= Integer.BYTES) {
+            long blockStart = Math.max(HEADER_LENGTH, blockEnd - SCAN_BLOCK_SIZE);
+            block.clear().limit((int) (blockEnd - blockStart));
+            readFully(channel, block, blockStart);
+
+            for (int i = block.limit() - Integer.BYTES; i >= 0; i--) {
+                if (block.getInt(i) != FOOTER_MAGIC) continue;
+
+                ByteBuffer footer = readFooter(channel, blockStart + i + Integer.BYTES, true);
+                if (footer != null) return footer;
+            }
+
+            if (blockStart == HEADER_LENGTH) break;
+            // Overlap the blocks so that a magic number spanning their boundary is seen
+            blockEnd = blockStart + Integer.BYTES - 1;
+        }
+        return null;
+    }
+
+    /**
+     * Reads from the channel at the provided position until the buffer is full.
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) throw new GravatarJavaClientException("Unexpected end of pack");
+        }
+    }
+
+    /**
+     * A visitor of the records referenced by the index of a pack.
+     */
+    @FunctionalInterface
+    interface RecordVisitor {
+        /**
+         * Visits a single record.
+         *
+         * @param key          the key of the record
+         * @param recordOffset the offset of the record within the pack
+         * @param imageLength  the length of the image within the record
+         */
+        void visit(String key, long recordOffset, int imageLength);
+    }
+
+    /**
+     * The mapped regions of a pack.
+     */
+    private static final class Mapping {
+        /**
+         * The mapped index.
+         */
+        private final MappedByteBuffer index;
+
+        /**
+         * The mapped record segments, each at most {@link GravatarAvatarPackFormat#SEGMENT_SIZE} bytes.
+         */
+        private final MappedByteBuffer[] segments;
+
+        Mapping(MappedByteBuffer index, MappedByteBuffer[] segments) {
+            this.index = index;
+            this.segments = segments;
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.github.natche.gravatarjavaclient.avatar.storage;
+
+import com.github.natche.gravatarjavaclient.avatar.GravatarAvatarRequest;
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
+import com.google.common.base.Preconditions;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.github.natche.gravatarjavaclient.avatar.storage.GravatarAvatarPackFormat.*;
+
+/**
+ * A writer which appends encoded avatar images to a single pack file.
+ * <p>
+ * Images are appended as records and never rewritten. When the writer is closed, a sorted hash index covering
+ * every live key is appended followed by a footer pointing at it. Opening a writer on an existing pack continues
+ * appending after that footer; the previous index and any records superseded by a later put of the same key
+ * remain in the file until it is rewritten by {@link GravatarAvatarPackCompactor}.
+ * <p>
+ * While a writer has records pending, a {@link GravatarAvatarPackReader} sees the pack as of the last footer.
+ * If a writer is never closed, for example because its process crashed, the records it appended are lost,
+ * but earlier sessions are not: the next writer opened on the pack truncates it back to the last valid footer.
+ * Writers are not safe for concurrent use by multiple processes.
+ */
+public final class GravatarAvatarPackWriter implements Closeable {
+    /**
+     * The size of the buffer records are written through.
+     */
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The zero bytes padding is written from.
+     */
+    private static final byte[] ZEROS = new byte[WRITE_BUFFER_SIZE];
+
+    /**
+     * The path of the pack.
+     */
+    private final Path path;
+
+    /**
+     * The channel of the pack.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The buffered stream records are written through.
+     */
+    private final DataOutputStream out;
+
+    /**
+     * The live index entry for every key.
+     */
+    private final Map<String, IndexEntry> entries;
+
+    /**
+     * The offset the next byte will be written at.
+     */
+    private long position;
+
+    /**
+     * The number of bytes belonging to superseded records.
+     */
+    private long supersededBytes;
+
+    /**
+     * Whether this writer has been closed.
+     */
+    private boolean closed;
+
+    private GravatarAvatarPackWriter(Path path, FileChannel channel, Map<String, IndexEntry> entries, long position) {
+        this.path = path;
+        this.channel = channel;
+        this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), WRITE_BUFFER_SIZE));
+        this.entries = entries;
+        this.position = position;
+    }
+
+    /**
+     * Opens a writer for the pack at the provided path. A new pack is created if the path does not exist,
+     * otherwise the existing pack's entries are loaded and new records are appended to it. Anything after the
+     * existing pack's last valid footer, left by a writer which did not close, is truncated.
+     *
+     * @param path the path of the pack
+     * @return a writer for the pack
+     * @throws NullPointerException        if the provided path is null
+     * @throws IllegalArgumentException    if the provided path is a directory
+     * @throws GravatarJavaClientException if the existing pack is invalid or the pack cannot be opened
+     */
+    public static GravatarAvatarPackWriter open(Path path) {
+        Preconditions.checkNotNull(path);
+        Preconditions.checkArgument(!Files.isDirectory(path));
+
+        Map<String, IndexEntry> entries = new HashMap<>();
+        boolean exists = Files.exists(path);
+        long committedLength = 0;
+        if (exists) {
+            try (GravatarAvatarPackReader reader = GravatarAvatarPackReader.open(path)) {
+                reader.forEachRecord((key, recordOffset, imageLength) ->
+                        entries.put(key, new IndexEntry(keyHash(key), recordOffset, imageLength)));
+                committedLength = reader.getCommittedLength();
+            }
+        }
+
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            long position = committedLength;
+            if (channel.size() > position) channel.truncate(position);
+            channel.position(position);
+
+            GravatarAvatarPackWriter writer = new GravatarAvatarPackWriter(path, channel, entries, position);
+            if (!exists) writer.writeHeader();
+            return writer;
+        } catch (IOException e) {
+            closeQuietly(channel);
+            throw new GravatarJavaClientException(e);
+        }
+    }
+
+    /**
+     * Returns the path of the pack.
+     *
+     * @return the path of the pack
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the number of live keys in the pack.
+     *
+     * @return the number of live keys in the pack
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of bytes occupied by records which have been superseded during this session.
+     *
+     * @return the number of bytes occupied by superseded records
+     */
+    public synchronized long getSupersededBytes() {
+        return supersededBytes;
+    }
+
+    /**
+     * Fetches the image for the provided request, encodes it using the provided format, and appends it
+     * under {@link GravatarContentAddressedStore#keyOf(GravatarAvatarRequest, String)}.
+     *
+     * @param request the request
+     * @param format  the format to encode the image in
+     * @return this writer
+     * @throws NullPointerException        if any parameter is null
+     * @throws GravatarJavaClientException if fetching or writing the image fails
+     */
+    @CanIgnoreReturnValue
+    public GravatarAvatarPackWriter put(GravatarAvatarRequest request, String format) {
+        return put(GravatarContentAddressedStore.keyOf(request, format), request.toByteBuffer(format));
+    }
+
+    /**
+     * Appends the provided encoded image under the provided key, superseding any previous image for the key.
+     * The buffer's position is not modified.
+     *
+     * @param key   the key
+     * @param image the encoded image
+     * @return this writer
+     * @throws NullPointerException        if any parameter is null
+     * @throws IllegalArgumentException    if the provided key is empty or too long, or the image is too large
+     * @throws GravatarJavaClientException if this writer has been closed or the write fails
+     */
+    @CanIgnoreReturnValue
+    public synchronized GravatarAvatarPackWriter put(String key, ByteBuffer image) {
+        Preconditions.checkNotNull(key);
+        Preconditions.checkNotNull(image);
+        Preconditions.checkArgument(!key.isEmpty());
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        Preconditions.checkArgument(keyBytes.length <= MAX_KEY_LENGTH);
+        int imageLength = image.remaining();
+        long recordLength = RECORD_HEADER_LENGTH + keyBytes.length + (long) imageLength;
+        Preconditions.checkArgument(recordLength <= SEGMENT_SIZE);
+        ensureOpen();
+
+        try {
+            long segmentRemaining = SEGMENT_SIZE - position % SEGMENT_SIZE;
+            if (recordLength > segmentRemaining) pad(segmentRemaining);
+
+            long recordOffset = position;
+            out.writeInt(keyBytes.length);
+            out.write(keyBytes);
+            write(image.duplicate());
+            position += recordLength;
+
+            IndexEntry previous = entries.put(key, new IndexEntry(keyHash(key), recordOffset, imageLength));
+            if (previous != null) {
+                supersededBytes += RECORD_HEADER_LENGTH + keyBytes.length + (long) previous.imageLength;
+            }
+        } catch (IOException e) {
+            throw new GravatarJavaClientException(e);
+        }
+        return this;
+    }
+
+    /**
+     * Appends the sorted index and footer, forces the pack to storage, and closes it.
+     *
+     * @throws GravatarJavaClientException if writing the index fails
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+
+        try {
+            List<IndexEntry> sorted = new ArrayList<>(entries.values());
+            sorted.sort(Comparator.comparingLong((IndexEntry entry) -> entry.keyHash)
+                    .thenComparingLong(entry -> entry.recordOffset));
+
+            long indexOffset = position;
+            for (IndexEntry entry : sorted) {
+                out.writeLong(entry.keyHash);
+                out.writeLong(entry.recordOffset);
+                out.writeInt(entry.imageLength);
+            }
+            out.writeLong(indexOffset);
+            out.writeInt(sorted.size());
+            out.writeInt(FOOTER_MAGIC);
+            out.flush();
+            channel.force(true);
+        } catch (IOException e) {
+            throw new GravatarJavaClientException(e);
+        } finally {
+            closeQuietly(channel);
+        }
+    }
+
+    /**
+     * Returns a string representation of this writer.
+     *
+     * @return a string representation of this writer
+     */
+    @Override
+    public synchronized String toString() {
+        return "GravatarAvatarPackWriter{"
+                + "path=\"" + path + "\""
+                + ", size=" + entries.size()
+                + ", closed=" + closed
+                + "}";
+    }
+
+    /**
+     * Writes the header of a new pack.
+     */
+    private void writeHeader() throws IOException {
+        out.writeInt(HEADER_MAGIC);
+        out.writeInt(VERSION);
+        position += HEADER_LENGTH;
+    }
+
+    /**
+     * Writes the provided number of zero bytes so the next record starts on a segment boundary.
+     */
+    private void pad(long length) throws IOException {
+        for (long remaining = length; remaining > 0; remaining -= ZEROS.length) {
+            out.write(ZEROS, 0, (int) Math.min(remaining, ZEROS.length));
+        }
+        position += length;
+    }
+
+    /**
+     * Writes the remaining bytes of the provided buffer.
+     */
+    private void write(ByteBuffer buffer) throws IOException {
+        if (buffer.hasArray()) {
+            out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            return;
+        }
+
+        byte[] chunk = new byte[Math.min(buffer.remaining(), WRITE_BUFFER_SIZE)];
+        while (buffer.hasRemaining()) {
+            int length = Math.min(chunk.length, buffer.remaining());
+            buffer.get(chunk, 0, length);
+            out.write(chunk, 0, length);
+        }
+    }
+
+    /**
+     * Throws if this writer has been closed.
+     */
+    private void ensureOpen() {
+        if (closed) throw new GravatarJavaClientException("The writer has been closed");
+    }
+
+    /**
+     * Closes the provided channel, ignoring any exception.
+     */
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) return;
+
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Nothing else can be done
+        }
+    }
+
+    /**
+     * An entry of the index.
+     */
+    private static final class IndexEntry {
+        /**
+         * The hash of the key.
+         */
+        private final long keyHash;
+
+        /**
+         * The offset of the record within the pack.
+         */
+        private final long recordOffset;
+
+        /**
+         * The length of the image within the record.
+         */
+        private final int imageLength;
+
+        IndexEntry(long keyHash, long recordOffset, int imageLength) {
+            this.keyHash = keyHash;
+            this.recordOffset = recordOffset;
+            this.imageLength = imageLength;
+        }
+    }
+}
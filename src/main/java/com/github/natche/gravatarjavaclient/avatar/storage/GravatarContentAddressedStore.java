@@ -0,0 +1,583 @@
+package com.github.natche.gravatarjavaclient.avatar.storage;
+
+import com.github.natche.gravatarjavaclient.avatar.GravatarAvatarRequest;
+import com.github.natche.gravatarjavaclient.enums.GravatarStoreEntryMode;
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
+import com.github.natche.gravatarjavaclient.utils.InputValidator;
+import com.github.natche.gravatarjavaclient.utils.StagingFiles;
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Preconditions;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * A content-addressed store for encoded avatar images.
+ * <p>
+ * Each distinct image is stored exactly once as a blob named by the SHA-256 digest of its bytes.
+ * Keys, typically one per user, map to a blob through an append-only index and, depending on the
+ * {@link GravatarStoreEntryMode}, through a hard link in the entries directory. Removing a key does not
+ * remove its blob; blobs no longer referenced by any key are reclaimed by {@link #collectGarbage()}.
+ * <p>
+ * The store is safe for use by multiple threads of a single process. The layout of the root directory is:
+ * <pre>{@code
+ * root/
+ *     index.log
+ *     blobs/ab/abcdef...
+ *     entries/<key>
+ * }</pre>
+ */
+public final class GravatarContentAddressedStore implements Closeable {
+    /**
+     * The name of the directory holding blobs.
+     */
+    private static final String BLOBS_DIRECTORY = "blobs";
+
+    /**
+     * The name of the directory holding hard linked entries.
+     */
+    private static final String ENTRIES_DIRECTORY = "entries";
+
+    /**
+     * The name of the index file.
+     */
+    private static final String INDEX_FILE = "index.log";
+
+    /**
+     * The suffix of staging files which are renamed into place once fully written.
+     */
+    private static final String STAGING_SUFFIX = ".tmp";
+
+    /**
+     * The number of leading digest characters used to shard the blobs directory.
+     */
+    private static final int SHARD_LENGTH = 2;
+
+    /**
+     * The index record type for a key being put.
+     */
+    private static final String PUT_RECORD = "P";
+
+    /**
+     * The index record type for a key being removed.
+     */
+    private static final String REMOVE_RECORD = "R";
+
+    /**
+     * The separator between fields of an index record.
+     */
+    private static final String FIELD_SEPARATOR = "\t";
+
+    /**
+     * The algorithm used to address blobs.
+     */
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    /**
+     * The root directory of this store.
+     */
+    private final Path root;
+
+    /**
+     * The directory holding blobs.
+     */
+    private final Path blobsDirectory;
+
+    /**
+     * The directory holding hard linked entries.
+     */
+    private final Path entriesDirectory;
+
+    /**
+     * The index file.
+     */
+    private final Path indexFile;
+
+    /**
+     * How entries are materialized.
+     */
+    private final GravatarStoreEntryMode mode;
+
+    /**
+     * The digest of the blob each key currently references.
+     */
+    private final ConcurrentHashMap<String, String> keyToDigest = new ConcurrentHashMap<>();
+
+    /**
+     * The size in bytes of every blob present on disk.
+     */
+    private final ConcurrentHashMap<String, Long> blobSizes = new ConcurrentHashMap<>();
+
+    /**
+     * The lock guarding mutations of the index and the file system.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * The writer appending records to the index.
+     */
+    private BufferedWriter indexWriter;
+
+    private GravatarContentAddressedStore(Path root, GravatarStoreEntryMode mode) {
+        this.root = root;
+        this.blobsDirectory = root.resolve(BLOBS_DIRECTORY);
+        this.entriesDirectory = root.resolve(ENTRIES_DIRECTORY);
+        this.indexFile = root.resolve(INDEX_FILE);
+        this.mode = mode;
+    }
+
+    /**
+     * Opens the store rooted at the provided directory, creating it if it does not exist.
+     * Any staging files left behind by an interrupted write are removed.
+     *
+     * @param root the root directory of the store
+     * @param mode how entries are materialized
+     * @return the opened store
+     * @throws NullPointerException        if any parameter is null
+     * @throws IllegalArgumentException    if the provided root exists and is not a directory
+     * @throws GravatarJavaClientException if the store cannot be read or created
+     */
+    public static GravatarContentAddressedStore open(Path root, GravatarStoreEntryMode mode) {
+        Preconditions.checkNotNull(root);
+        Preconditions.checkNotNull(mode);
+        Preconditions.checkArgument(!Files.exists(root) || Files.isDirectory(root));
+
+        GravatarContentAddressedStore store = new GravatarContentAddressedStore(root, mode);
+        try {
+            store.load();
+        } catch (IOException e) {
+            throw new GravatarJavaClientException(e);
+        }
+        return store;
+    }
+
+    /**
+     * Returns the key {@link #put(GravatarAvatarRequest, String)} uses for the provided request and format.
+     *
+     * @param request the request
+     * @param format  the format the image is encoded in
+     * @return the key for the provided request and format
+     * @throws NullPointerException if any parameter is null
+     */
+    public static String keyOf(GravatarAvatarRequest request, String format) {
+        Preconditions.checkNotNull(request);
+        Preconditions.checkNotNull(format);
+
+        return request.getHash() + "-" + request.getSize() + "." + format.toLowerCase();
+    }
+
+    /**
+     * Returns the root directory of this store.
+     *
+     * @return the root directory of this store
+     */
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Returns how entries are materialized by this store.
+     *
+     * @return how entries are materialized by this store
+     */
+    public GravatarStoreEntryMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Fetches the image for the provided request, encodes it using the provided format,
+     * and stores it under {@link #keyOf(GravatarAvatarRequest, String)}.
+     *
+     * @param request the request
+     * @param format  the format to encode the image in
+     * @return the digest of the stored image
+     * @throws NullPointerException        if any parameter is null
+     * @throws GravatarJavaClientException if fetching or storing the image fails
+     */
+    @CanIgnoreReturnValue
+    public String put(GravatarAvatarRequest request, String format) {
+        return put(keyOf(request, format), request.toByteBuffer(format));
+    }
+
+    /**
+     * Stores the provided encoded image under the provided key, replacing any previous mapping for the key.
+     * If an identical image is already present, only the mapping is recorded.
+     * The buffer's position is not modified.
+     *
+     * @param key   the key, which must be a valid file name not starting with a period
+     * @param image the encoded image
+     * @return the digest of the stored image
+     * @throws NullPointerException        if any parameter is null
+     * @throws IllegalArgumentException    if the provided key is invalid
+     * @throws GravatarJavaClientException if storing the image fails
+     */
+    @CanIgnoreReturnValue
+    public String put(String key, ByteBuffer image) {
+        checkKey(key);
+        Preconditions.checkNotNull(image);
+
+        String digest = digestOf(image);
+        synchronized (lock) {
+            ensureOpen();
+            try {
+                if (!blobSizes.containsKey(digest)) writeBlob(digest, image);
+                if (mode == GravatarStoreEntryMode.HardLink) link(key, digest);
+                appendRecord(PUT_RECORD + FIELD_SEPARATOR + key + FIELD_SEPARATOR + digest);
+            } catch (IOException e) {
+                throw new GravatarJavaClientException(e);
+            }
+            keyToDigest.put(key, digest);
+        }
+        return digest;
+    }
+
+    /**
+     * Returns whether the provided key is present in this store.
+     *
+     * @param key the key
+     * @return whether the provided key is present in this store
+     * @throws NullPointerException if the provided key is null
+     */
+    public boolean contains(String key) {
+        Preconditions.checkNotNull(key);
+        return keyToDigest.containsKey(key);
+    }
+
+    /**
+     * Returns the digest of the image stored under the provided key.
+     *
+     * @param key the key
+     * @return the digest of the image stored under the provided key, if present
+     * @throws NullPointerException if the provided key is null
+     */
+    public Optional<String> getDigest(String key) {
+        Preconditions.checkNotNull(key);
+        return Optional.ofNullable(keyToDigest.get(key));
+    }
+
+    /**
+     * Returns the path of the blob holding the image stored under the provided key.
+     * The blob may be shared with other keys and must not be modified.
+     *
+     * @param key the key
+     * @return the path of the blob, if present
+     * @throws NullPointerException if the provided key is null
+     */
+    public Optional<Path> getBlobPath(String key) {
+        return getDigest(key).map(this::blobPath);
+    }
+
+    /**
+     * Reads the image stored under the provided key.
+     *
+     * @param key the key
+     * @return a read-only buffer containing the image, if present
+     * @throws NullPointerException        if the provided key is null
+     * @throws GravatarJavaClientException if reading the image fails
+     */
+    public Optional<ByteBuffer> read(String key) {
+        Optional<Path> blob = getBlobPath(key);
+        if (blob.isEmpty()) return Optional.empty();
+
+        try {
+            return Optional.of(ByteBuffer.wrap(Files.readAllBytes(blob.get())).asReadOnlyBuffer());
+        } catch (IOException e) {
+            throw new GravatarJavaClientException(e);
+        }
+    }
+
+    /**
+     * Removes the provided key from this store. The blob it referenced is retained
+     * until the next invocation of {@link #collectGarbage()}.
+     *
+     * @param key the key
+     * @return whether the key was present
+     * @throws NullPointerException        if the provided key is null
+     * @throws GravatarJavaClientException if recording the removal fails
+     */
+    @CanIgnoreReturnValue
+    public boolean remove(String key) {
+        Preconditions.checkNotNull(key);
+
+        synchronized (lock) {
+            ensureOpen();
+            if (!keyToDigest.containsKey(key)) return false;
+
+            try {
+                if (mode == GravatarStoreEntryMode.HardLink) Files.deleteIfExists(entriesDirectory.resolve(key));
+                appendRecord(REMOVE_RECORD + FIELD_SEPARATOR + key);
+            } catch (IOException e) {
+                throw new GravatarJavaClientException(e);
+            }
+            keyToDigest.remove(key);
+            return true;
+        }
+    }
+
+    /**
+     * Deletes every blob not referenced by a key and rewrites the index to contain only live records.
+     *
+     * @return the number of blobs deleted
+     * @throws GravatarJavaClientException if deleting a blob or rewriting the index fails
+     */
+    @CanIgnoreReturnValue
+    public int collectGarbage() {
+        synchronized (lock) {
+            ensureOpen();
+
+            Set<String> referenced = new HashSet<>(keyToDigest.values());
+            int deleted = 0;
+            try {
+                for (String digest : List.copyOf(blobSizes.keySet())) {
+                    if (referenced.contains(digest)) continue;
+
+                    Files.deleteIfExists(blobPath(digest));
+                    blobSizes.remove(digest);
+                    deleted++;
+                }
+
+                rewriteIndex();
+            } catch (IOException e) {
+                throw new GravatarJavaClientException(e);
+            }
+            return deleted;
+        }
+    }
+
+    /**
+     * Returns a snapshot of the space used by this store. Blobs awaiting garbage collection
+     * are included in the blob count and physical bytes.
+     *
+     * @return a snapshot of the space used by this store
+     */
+    public GravatarStoreStatistics getStatistics() {
+        synchronized (lock) {
+            long logicalBytes = 0;
+            for (String digest : keyToDigest.values()) {
+                logicalBytes += blobSizes.getOrDefault(digest, 0L);
+            }
+
+            long physicalBytes = 0;
+            for (long size : blobSizes.values()) {
+                physicalBytes += size;
+            }
+
+            return new GravatarStoreStatistics(keyToDigest.size(), blobSizes.size(), logicalBytes, physicalBytes);
+        }
+    }
+
+    /**
+     * Closes the index of this store. Further mutations will throw.
+     *
+     * @throws GravatarJavaClientException if closing the index fails
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (indexWriter == null) return;
+
+            try {
+                indexWriter.close();
+            } catch (IOException e) {
+                throw new GravatarJavaClientException(e);
+            } finally {
+                indexWriter = null;
+            }
+        }
+    }
+
+    /**
+     * Returns a string representation of this store.
+     *
+     * @return a string representation of this store
+     */
+    @Override
+    public String toString() {
+        return "GravatarContentAddressedStore{"
+                + "root=\"" + root + "\""
+                + ", mode=" + mode
+                + "}";
+    }
+
+    /**
+     * Creates the directories of this store, scans the blobs on disk, replays the index,
+     * and reconciles hard linked entries with the index.
+     */
+    private void load() throws IOException {
+        Files.createDirectories(blobsDirectory);
+        Files.createDirectories(entriesDirectory);
+
+        try (Stream<Path> files = Files.walk(blobsDirectory)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(STAGING_SUFFIX)) Files.delete(file);
+                else blobSizes.put(name, Files.size(file));
+            }
+        }
+
+        if (Files.exists(indexFile)) {
+            try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    replay(line);
+                }
+            }
+        }
+
+        if (mode == GravatarStoreEntryMode.HardLink) reconcileEntries();
+
+        indexWriter = Files.newBufferedWriter(indexFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Applies a single index record. Malformed records, such as a final record
+     * torn by a crash, and records referencing missing blobs are ignored.
+     */
+    private void replay(String line) {
+        String[] fields = line.split(FIELD_SEPARATOR, -1);
+        if (fields.length == 3 && fields[0].equals(PUT_RECORD) && blobSizes.containsKey(fields[2])) {
+            keyToDigest.put(fields[1], fields[2]);
+        } else if (fields.length == 2 && fields[0].equals(REMOVE_RECORD)) {
+            keyToDigest.remove(fields[1]);
+        }
+    }
+
+    /**
+     * Removes entries not present in the index and links entries missing from the entries directory.
+     */
+    private void reconcileEntries() throws IOException {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(entriesDirectory)) {
+            for (Path entry : entries) {
+                if (!keyToDigest.containsKey(entry.getFileName().toString())) Files.delete(entry);
+            }
+        }
+
+        for (Map.Entry<String, String> entry : keyToDigest.entrySet()) {
+            if (!Files.exists(entriesDirectory.resolve(entry.getKey()))) link(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Writes a blob to a staging file and atomically moves it into place.
+     */
+    private void writeBlob(String digest, ByteBuffer image) throws IOException {
+        Path blob = blobPath(digest);
+        Files.createDirectories(blob.getParent());
+
+        Path staging = StagingFiles.create(blob.getParent(), digest, STAGING_SUFFIX);
+        try {
+            try (FileChannel channel = FileChannel.open(staging, StandardOpenOption.WRITE)) {
+                ByteBuffer source = image.duplicate();
+                while (source.hasRemaining()) {
+                    channel.write(source);
+                }
+                channel.force(false);
+            }
+            Files.move(staging, blob, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(staging);
+        }
+
+        blobSizes.put(digest, (long) image.remaining());
+    }
+
+    /**
+     * Atomically points the entry for the provided key at the provided blob.
+     */
+    private void link(String key, String digest) throws IOException {
+        Path entry = entriesDirectory.resolve(key);
+        Path staging = entriesDirectory.resolve("." + key + STAGING_SUFFIX);
+
+        try {
+            Files.deleteIfExists(staging);
+            Files.createLink(staging, blobPath(digest));
+            Files.move(staging, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (UnsupportedOperationException e) {
+            throw new GravatarJavaClientException("The file system does not support hard links");
+        } finally {
+            Files.deleteIfExists(staging);
+        }
+    }
+
+    /**
+     * Appends a record to the index and flushes it.
+     */
+    private void appendRecord(String record) throws IOException {
+        indexWriter.write(record);
+        indexWriter.newLine();
+        indexWriter.flush();
+    }
+
+    /**
+     * Replaces the index with one containing a single put record per live key.
+     */
+    private void rewriteIndex() throws IOException {
+        Path staging = StagingFiles.create(root, INDEX_FILE, STAGING_SUFFIX);
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(staging, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, String> entry : keyToDigest.entrySet()) {
+                    writer.write(PUT_RECORD + FIELD_SEPARATOR + entry.getKey() + FIELD_SEPARATOR + entry.getValue());
+                    writer.newLine();
+                }
+            }
+
+            indexWriter.close();
+            Files.move(staging, indexFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(staging);
+            indexWriter = Files.newBufferedWriter(indexFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+        }
+    }
+
+    /**
+     * Returns the path of the blob with the provided digest.
+     */
+    private Path blobPath(String digest) {
+        return blobsDirectory.resolve(digest.substring(0, SHARD_LENGTH)).resolve(digest);
+    }
+
+    /**
+     * Throws if this store has been closed.
+     */
+    private void ensureOpen() {
+        if (indexWriter == null) throw new GravatarJavaClientException("The store has been closed");
+    }
+
+    /**
+     * Validates a key provided by a caller.
+     */
+    private static void checkKey(String key) {
+        Preconditions.checkNotNull(key);
+        Preconditions.checkArgument(!key.trim().isEmpty());
+        Preconditions.checkArgument(!key.startsWith("."));
+        Preconditions.checkArgument(InputValidator.isValidFilename(key));
+        Preconditions.checkArgument(CharMatcher.javaIsoControl().matchesNoneOf(key));
+    }
+
+    /**
+     * Returns the hex encoded SHA-256 digest of the remaining bytes of the provided buffer.
+     */
+    private static String digestOf(ByteBuffer image) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            messageDigest.update(image.duplicate());
+            return HexFormat.of().formatHex(messageDigest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new GravatarJavaClientException(e);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.github.natche.gravatarjavaclient.avatar.storage;
+
+import com.google.common.base.Preconditions;
+import com.google.errorprone.annotations.Immutable;
+
+/**
+ * A snapshot of the space used by an avatar store.
+ */
+@Immutable
+public final class GravatarStoreStatistics {
+    /**
+     * The number of keys present in the store.
+     */
+    private final long entryCount;
+
+    /**
+     * The number of distinct images held by the store.
+     */
+    private final long blobCount;
+
+    /**
+     * The sum of the image sizes of every entry, as if each entry were stored separately.
+     */
+    private final long logicalBytes;
+
+    /**
+     * The number of image bytes actually held by the store.
+     */
+    private final long physicalBytes;
+
+    /**
+     * Constructs a new GravatarStoreStatistics.
+     *
+     * @param entryCount    the number of keys present in the store
+     * @param blobCount     the number of distinct images held by the store
+     * @param logicalBytes  the sum of the image sizes of every entry
+     * @param physicalBytes the number of image bytes actually held by the store
+     * @throws IllegalArgumentException if any value is negative
+     */
+    public GravatarStoreStatistics(long entryCount, long blobCount, long logicalBytes, long physicalBytes) {
+        Preconditions.checkArgument(entryCount >= 0);
+        Preconditions.checkArgument(blobCount >= 0);
+        Preconditions.checkArgument(logicalBytes >= 0);
+        Preconditions.checkArgument(physicalBytes >= 0);
+
+        this.entryCount = entryCount;
+        this.blobCount = blobCount;
+        this.logicalBytes = logicalBytes;
+        this.physicalBytes = physicalBytes;
+    }
+
+    /**
+     * Returns the number of keys present in the store.
+     *
+     * @return the number of keys present in the store
+     */
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Returns the number of distinct images held by the store.
+     *
+     * @return the number of distinct images held by the store
+     */
+    public long getBlobCount() {
+        return blobCount;
+    }
+
+    /**
+     * Returns the sum of the image sizes of every entry, as if each entry were stored separately.
+     *
+     * @return the sum of the image sizes of every entry
+     */
+    public long getLogicalBytes() {
+        return logicalBytes;
+    }
+
+    /**
+     * Returns the number of image bytes actually held by the store.
+     *
+     * @return the number of image bytes actually held by the store
+     */
+    public long getPhysicalBytes() {
+        return physicalBytes;
+    }
+
+    /**
+     * Returns the ratio of logical bytes to physical bytes, or {@code 1.0} if the store is empty.
+     * A ratio of {@code 4.0} means each stored byte serves four bytes worth of entries.
+     *
+     * @return the deduplication ratio
+     */
+    public double getDeduplicationRatio() {
+        return physicalBytes == 0 ? 1.0 : (double) logicalBytes / physicalBytes;
+    }
+
+    /**
+     * Returns whether the provided object is equal to this.
+     *
+     * @param o the other object
+     * @return whether the provided object is equal to this
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GravatarStoreStatistics other)) return false;
+        return entryCount == other.entryCount
+                && blobCount == other.blobCount
+                && logicalBytes == other.logicalBytes
+                && physicalBytes == other.physicalBytes;
+    }
+
+    /**
+     * Returns a hashcode for this object.
+     *
+     * @return a hashcode for this object
+     */
+    @Override
+    public int hashCode() {
+        int ret = Long.hashCode(entryCount);
+        ret = 31 * ret + Long.hashCode(blobCount);
+        ret = 31 * ret + Long.hashCode(logicalBytes);
+        ret = 31 * ret + Long.hashCode(physicalBytes);
+        return ret;
+    }
+
+    /**
+     * Returns a string representation of this object.
+     *
+     * @return a string representation of this object
+     */
+    @Override
+    public String toString() {
+        return "GravatarStoreStatistics{"
+                + "entryCount=" + entryCount
+                + ", blobCount=" + blobCount
+                + ", logicalBytes=" + logicalBytes
+                + ", physicalBytes=" + physicalBytes
+                + "}";
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * Storage formats for persisting encoded avatar images obtained from
+ * {@link com.github.natche.gravatarjavaclient.avatar.GravatarAvatarRequest}s.
+ */
+package com.github.natche.gravatarjavaclient.avatar.storage;
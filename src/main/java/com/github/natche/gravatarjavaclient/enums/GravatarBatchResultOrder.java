@@ -0,0 +1,17 @@
+package com.github.natche.gravatarjavaclient.enums;
+
+/**
+ * The order in which the results of a batch of requests are delivered.
+ */
+public enum GravatarBatchResultOrder {
+    /**
+     * Results are delivered in the order of the requests. A result which completes before an earlier one
+     * is held until every earlier result has been delivered.
+     */
+    InputOrder,
+
+    /**
+     * Results are delivered as soon as they complete, regardless of the order of the requests.
+     */
+    CompletionOrder
+}
@@ -0,0 +1,22 @@
+package com.github.natche.gravatarjavaclient.enums;
+
+/**
+ * The state of a {@link com.github.natche.gravatarjavaclient.resilience.GravatarCircuitBreaker}.
+ */
+public enum GravatarCircuitState {
+    /**
+     * Requests are sent and their outcomes recorded.
+     */
+    Closed,
+
+    /**
+     * Requests are rejected without being sent until the open duration has elapsed.
+     */
+    Open,
+
+    /**
+     * A limited number of probe requests are sent; the circuit closes if they all succeed
+     * and opens again if any fails.
+     */
+    HalfOpen
+}
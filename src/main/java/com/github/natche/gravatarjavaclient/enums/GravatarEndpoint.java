@@ -0,0 +1,21 @@
+package com.github.natche.gravatarjavaclient.enums;
+
+/**
+ * The Gravatar APIs whose requests are monitored separately, since one may be degraded while the others are not.
+ */
+public enum GravatarEndpoint {
+    /**
+     * Requests for avatar images.
+     */
+    Avatar,
+
+    /**
+     * Requests for QR code images.
+     */
+    QrCode,
+
+    /**
+     * Requests to the Gravatar Profile API.
+     */
+    Profile
+}
@@ -0,0 +1,22 @@
+package com.github.natche.gravatarjavaclient.enums;
+
+/**
+ * How an image should be written when saving to a {@link java.nio.file.Path}.
+ */
+public enum GravatarPathSaveMode {
+    /**
+     * The image is written to a staging file in the same directory as the target which
+     * then atomically replaces the target. Readers never observe a partially written image.
+     */
+    AtomicReplace,
+
+    /**
+     * The target is created if needed, truncated, and written to in place.
+     */
+    Replace,
+
+    /**
+     * The target must not already exist; it is created and written to.
+     */
+    CreateNew
+}
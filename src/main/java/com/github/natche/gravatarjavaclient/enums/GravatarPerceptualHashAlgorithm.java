@@ -0,0 +1,23 @@
+package com.github.natche.gravatarjavaclient.enums;
+
+/**
+ * The algorithms a
+ * {@link com.github.natche.gravatarjavaclient.avatar.fingerprint.GravatarPerceptualHash} may be computed with.
+ * Hashes computed with different algorithms cannot be compared.
+ */
+public enum GravatarPerceptualHashAlgorithm {
+    /**
+     * The difference hash, or dHash.
+     * Each bit records whether a cell of a 9 by 8 luminance grid is brighter than its right neighbour.
+     * This is the cheaper algorithm and tolerates rescaling and re-encoding well.
+     */
+    Difference,
+
+    /**
+     * The DCT hash, or pHash.
+     * Each bit records whether one of the 63 lowest non-DC frequencies of a 32 by 32 luminance grid's
+     * discrete cosine transform is above the median of those frequencies.
+     * This is more robust to small edits and color changes than {@link #Difference}.
+     */
+    Dct
+}
@@ -0,0 +1,36 @@
+package com.github.natche.gravatarjavaclient.enums;
+
+/**
+ * The outcome of a single profile request within a batch.
+ */
+public enum GravatarProfileBatchStatus {
+    /**
+     * The profile was fetched and read.
+     */
+    Success,
+
+    /**
+     * The API has no profile for the requested hash or ID.
+     */
+    NotFound,
+
+    /**
+     * The API rejected the provided token.
+     */
+    Unauthorized,
+
+    /**
+     * The API rejected the request because too many requests have been sent.
+     */
+    RateLimited,
+
+    /**
+     * The request was not sent because the circuit breaker of the profile endpoint is open.
+     */
+    CircuitOpen,
+
+    /**
+     * The request could not be sent, the API responded with another error, or the response was not a profile.
+     */
+    Failed
+}
@@ -0,0 +1,21 @@
+package com.github.natche.gravatarjavaclient.enums;
+
+/**
+ * How a mirrored profile changed between two refreshes.
+ */
+public enum GravatarProfileChangeType {
+    /**
+     * The profile exists and was not previously known to exist.
+     */
+    Added,
+
+    /**
+     * One or more fields of the profile changed.
+     */
+    Updated,
+
+    /**
+     * The profile was previously known to exist and no longer does.
+     */
+    Removed
+}
@@ -0,0 +1,149 @@
+package com.github.natche.gravatarjavaclient.enums;
+
+/**
+ * A field of a Gravatar profile, named as it is in responses of the Gravatar Profile API.
+ */
+public enum GravatarProfileField {
+    /**
+     * The SHA256 hash of the user's primary email address.
+     */
+    Hash("hash"),
+
+    /**
+     * The user's display name.
+     */
+    DisplayName("display_name"),
+
+    /**
+     * The URL of the user's profile.
+     */
+    ProfileUrl("profile_url"),
+
+    /**
+     * The URL of the user's avatar.
+     */
+    AvatarUrl("avatar_url"),
+
+    /**
+     * The alternative text describing the user's avatar.
+     */
+    AvatarAltText("avatar_alt_text"),
+
+    /**
+     * The user's location.
+     */
+    Location("location"),
+
+    /**
+     * The user's description.
+     */
+    Description("description"),
+
+    /**
+     * The user's job title.
+     */
+    JobTitle("job_title"),
+
+    /**
+     * The user's company.
+     */
+    Company("company"),
+
+    /**
+     * The user's verified accounts.
+     */
+    VerifiedAccounts("verified_accounts"),
+
+    /**
+     * The pronunciation of the user's name.
+     */
+    Pronunciation("pronunciation"),
+
+    /**
+     * The user's pronouns.
+     */
+    Pronouns("pronouns"),
+
+    /**
+     * The user's timezone.
+     */
+    Timezone("timezone"),
+
+    /**
+     * The languages the user knows.
+     */
+    Languages("languages"),
+
+    /**
+     * The user's first name.
+     */
+    FirstName("first_name"),
+
+    /**
+     * The user's last name.
+     */
+    LastName("last_name"),
+
+    /**
+     * Whether the profile is of an organization.
+     */
+    Organization("is_organization"),
+
+    /**
+     * The user's links.
+     */
+    Links("links"),
+
+    /**
+     * The user's interests.
+     */
+    Interests("interests"),
+
+    /**
+     * The user's payment links and crypto wallets.
+     */
+    Payments("payments"),
+
+    /**
+     * The user's contact information.
+     */
+    ContactInfo("contact_info"),
+
+    /**
+     * The images of the user's gallery.
+     */
+    Gallery("gallery"),
+
+    /**
+     * The number of the user's verified accounts.
+     */
+    NumberVerifiedAccounts("number_verified_accounts"),
+
+    /**
+     * When the user last edited their profile.
+     */
+    LastProfileEdit("last_profile_edit"),
+
+    /**
+     * When the user registered their account.
+     */
+    RegistrationDate("registration_date");
+
+    /**
+     * The name of this field in responses of the Gravatar Profile API.
+     */
+    private final String serializedName;
+
+    GravatarProfileField(String serializedName) {
+        this.serializedName = serializedName;
+    }
+
+    /**
+     * Returns the name of this field in responses of the Gravatar Profile API.
+     *
+     * @return the name of this field in responses of the Gravatar Profile API
+     */
+    public String getSerializedName() {
+        return serializedName;
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.natche.gravatarjavaclient.enums;
+
+/**
+ * A field of a Gravatar profile which may be queried through a
+ * {@link com.github.natche.gravatarjavaclient.profile.index.GravatarProfileIndex}.
+ */
+public enum GravatarProfileIndexField {
+    /**
+     * The service type of each of the user's verified accounts, such as "github".
+     */
+    VerifiedAccountService,
+
+    /**
+     * The user's company.
+     */
+    Company,
+
+    /**
+     * The user's location.
+     */
+    Location,
+
+    /**
+     * The ISO 639-1 code of each of the user's languages.
+     */
+    LanguageCode,
+
+    /**
+     * The name of each of the user's interests.
+     */
+    Interest
+}
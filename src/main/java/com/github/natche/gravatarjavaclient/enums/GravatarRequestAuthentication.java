@@ -0,0 +1,27 @@
+package com.github.natche.gravatarjavaclient.enums;
+
+/**
+ * Whether a request to the Gravatar Profile API carries an API token. The API keeps a separate
+ * request budget for each.
+ */
+public enum GravatarRequestAuthentication {
+    /**
+     * The request carries no token and only certain fields are returned.
+     */
+    Unauthenticated,
+
+    /**
+     * The request carries a token in its authorization header.
+     */
+    Authenticated;
+
+    /**
+     * Returns the authentication of a request sent with the provided token, which may be null.
+     *
+     * @param token the token, or null
+     * @return the authentication of a request sent with the provided token
+     */
+    public static GravatarRequestAuthentication of(String token) {
+        return token == null ? Unauthenticated : Authenticated;
+    }
+}
@@ -0,0 +1,18 @@
+package com.github.natche.gravatarjavaclient.enums;
+
+/**
+ * How per-key entries are materialized by a
+ * {@link com.github.natche.gravatarjavaclient.avatar.storage.GravatarContentAddressedStore}.
+ */
+public enum GravatarStoreEntryMode {
+    /**
+     * Each entry is a hard link to its content blob, allowing entries to be served directly from the file system.
+     * The file system must support hard links.
+     */
+    HardLink,
+
+    /**
+     * Each entry exists only as a record in the store's index.
+     */
+    IndexRecord
+}
@@ -0,0 +1,781 @@
+package com.github.natche.gravatarjavaclient.profile;
+
+import com.github.natche.gravatarjavaclient.profile.gson.GsonProvider;
+import com.github.natche.gravatarjavaclient.profile.gson.JsonStreams;
+import com.github.natche.gravatarjavaclient.profile.serialization.*;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A {@link GravatarProfile} which is decoded member by member as its accessors are invoked.
+ * <p>
+ * The raw UTF-8 JSON of the profile is retained, and construction makes a single pass over it which records
+ * where the value of each top-level member begins and ends without decoding any of them. A member is decoded
+ * the first time it is accessed, by the same adapters which read eager profiles, and the result is cached.
+ * Accessors are safe to invoke from multiple threads; threads racing on the first access of a member may each
+ * decode it, but all of them return the instance which was cached first. Date members are parsed to
+ * {@link Instant}s once rather than on every access.
+ * <p>
+ * This suits callers which read a few members of many profiles, such as an avatar URL and a display name.
+ * Callers which read every member should prefer {@link GravatarProfileRequest#getProfile()}. Malformed
+ * member values are only detected when the member is accessed, in which case a {@link JsonParseException}
+ * is thrown by its accessor.
+ */
+public final class GravatarLazyProfile {
+    /**
+     * The sentinel cached for members which are absent or a JSON null.
+     */
+    private static final Object ABSENT = new Object();
+
+    /**
+     * The offset recorded for members which are not present in the JSON.
+     */
+    private static final int NOT_PRESENT = -1;
+
+    /**
+     * The members of a profile this class decodes.
+     */
+    private enum Member {
+        Hash("hash"),
+        DisplayName("display_name"),
+        ProfileUrl("profile_url"),
+        AvatarUrl("avatar_url"),
+        AvatarAltText("avatar_alt_text"),
+        Location("location"),
+        Description("description"),
+        JobTitle("job_title"),
+        Company("company"),
+        VerifiedAccounts("verified_accounts"),
+        Pronunciation("pronunciation"),
+        Pronouns("pronouns"),
+        Timezone("timezone"),
+        Languages("languages"),
+        FirstName("first_name"),
+        LastName("last_name"),
+        IsOrganization("is_organization"),
+        Links("links"),
+        Interests("interests"),
+        Payments("payments"),
+        ContactInfo("contact_info"),
+        Gallery("gallery"),
+        NumberVerifiedAccounts("number_verified_accounts"),
+        LastProfileEdit("last_profile_edit"),
+        RegistrationDate("registration_date");
+
+        /**
+         * The cached result of {@link #values()}.
+         */
+        private static final Member[] VALUES = values();
+
+        /**
+         * The JSON name of this member.
+         */
+        private final String jsonName;
+
+        /**
+         * The UTF-8 bytes of the JSON name of this member.
+         */
+        private final byte[] jsonNameBytes;
+
+        Member(String jsonName) {
+            this.jsonName = jsonName;
+            this.jsonNameBytes = jsonName.getBytes(StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Returns the member whose name is the provided unescaped range of bytes, or null if none is.
+         */
+        private static Member forName(byte[] json, int start, int end) {
+            for (Member member : VALUES) {
+                if (Arrays.equals(member.jsonNameBytes, 0, member.jsonNameBytes.length, json, start, end)) {
+                    return member;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The raw UTF-8 JSON of this profile.
+     */
+    private final byte[] json;
+
+    /**
+     * The offsets at which the value of each member begins, indexed by member ordinal.
+     */
+    private final int[] valueStarts;
+
+    /**
+     * The offsets at which the value of each member ends, exclusive, indexed by member ordinal.
+     */
+    private final int[] valueEnds;
+
+    /**
+     * The decoded value of each member, indexed by member ordinal; null until a member is decoded.
+     */
+    private final AtomicReferenceArray<Object> decoded;
+
+    private GravatarLazyProfile(byte[] json) {
+        this.json = json;
+        this.valueStarts = new int[Member.VALUES.length];
+        this.valueEnds = new int[Member.VALUES.length];
+        this.decoded = new AtomicReferenceArray<>(Member.VALUES.length);
+        Arrays.fill(valueStarts, NOT_PRESENT);
+        index();
+
+        if (!isString(Member.Hash)) throw new JsonParseException("Profile is missing its hash");
+        if (!isString(Member.ProfileUrl)) throw new JsonParseException("Profile is missing its profile URL");
+    }
+
+    /**
+     * Constructs a new lazy profile from the provided UTF-8 JSON object. The array is retained rather
+     * than copied, so it must not be modified afterward.
+     *
+     * @param json the UTF-8 JSON of the profile
+     * @return a new lazy profile
+     * @throws NullPointerException if the provided JSON is null
+     * @throws JsonParseException   if the JSON is not an object or is missing the hash or profile URL
+     */
+    public static GravatarLazyProfile fromJson(byte[] json) {
+        Preconditions.checkNotNull(json);
+        return new GravatarLazyProfile(json);
+    }
+
+    /**
+     * Constructs a new lazy profile from the provided JSON object.
+     *
+     * @param json the JSON of the profile
+     * @return a new lazy profile
+     * @throws NullPointerException if the provided JSON is null
+     * @throws JsonParseException   if the JSON is not an object or is missing the hash or profile URL
+     */
+    public static GravatarLazyProfile fromJson(String json) {
+        Preconditions.checkNotNull(json);
+        return new GravatarLazyProfile(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns a read-only view of the raw UTF-8 JSON of this profile.
+     *
+     * @return the raw UTF-8 JSON of this profile
+     */
+    public ByteBuffer getJson() {
+        return ByteBuffer.wrap(json).asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the number of bytes of the raw JSON of this profile.
+     *
+     * @return the number of bytes of the raw JSON of this profile
+     */
+    public int getJsonLength() {
+        return json.length;
+    }
+
+    /**
+     * Returns the number of members which have been decoded so far.
+     *
+     * @return the number of members which have been decoded so far
+     */
+    public int getDecodedMemberCount() {
+        int count = 0;
+        for (int i = 0; i < decoded.length(); i++) {
+            if (decoded.get(i) != null) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the hash of this profile.
+     *
+     * @return the hash of this profile
+     */
+    public String getHash() {
+        return string(Member.Hash);
+    }
+
+    /**
+     * Returns the display name of this profile.
+     *
+     * @return the display name of this profile
+     */
+    public String getDisplayName() {
+        return string(Member.DisplayName);
+    }
+
+    /**
+     * Returns the profile URL of this profile.
+     *
+     * @return the profile URL of this profile
+     */
+    public String getProfileUrl() {
+        return string(Member.ProfileUrl);
+    }
+
+    /**
+     * Returns the avatar URL of this profile.
+     *
+     * @return the avatar URL of this profile
+     */
+    public String getAvatarUrl() {
+        return string(Member.AvatarUrl);
+    }
+
+    /**
+     * Returns the avatar alt text of this profile.
+     *
+     * @return the avatar alt text of this profile
+     */
+    public String getAvatarAltText() {
+        return string(Member.AvatarAltText);
+    }
+
+    /**
+     * Returns the location of this profile.
+     *
+     * @return the location of this profile
+     */
+    public String getLocation() {
+        return string(Member.Location);
+    }
+
+    /**
+     * Returns the description of this profile.
+     *
+     * @return the description of this profile
+     */
+    public String getDescription() {
+        return string(Member.Description);
+    }
+
+    /**
+     * Returns the job title of this profile.
+     *
+     * @return the job title of this profile
+     */
+    public String getJobTitle() {
+        return string(Member.JobTitle);
+    }
+
+    /**
+     * Returns the company of this profile.
+     *
+     * @return the company of this profile
+     */
+    public String getCompany() {
+        return string(Member.Company);
+    }
+
+    /**
+     * Returns the verified accounts of this profile.
+     *
+     * @return the verified accounts of this profile
+     */
+    public ImmutableList<GravatarProfileVerifiedAccount> getVerifiedAccounts() {
+        return list(Member.VerifiedAccounts, GravatarProfileVerifiedAccount.class);
+    }
+
+    /**
+     * Returns the pronunciation of this profile.
+     *
+     * @return the pronunciation of this profile
+     */
+    public String getPronunciation() {
+        return string(Member.Pronunciation);
+    }
+
+    /**
+     * Returns the pronouns of this profile.
+     *
+     * @return the pronouns of this profile
+     */
+    public String getPronouns() {
+        return string(Member.Pronouns);
+    }
+
+    /**
+     * Returns the timezone of this profile. This is only returned for authenticated requests.
+     *
+     * @return the timezone of this profile
+     */
+    public Optional<String> getTimezone() {
+        return Optional.ofNullable(string(Member.Timezone));
+    }
+
+    /**
+     * Returns the languages of this profile.
+     *
+     * @return the languages of this profile
+     */
+    public ImmutableList<GravatarProfileLanguage> getLanguages() {
+        return list(Member.Languages, GravatarProfileLanguage.class);
+    }
+
+    /**
+     * Returns the first name of this profile. This is only returned for authenticated requests.
+     *
+     * @return the first name of this profile
+     */
+    public Optional<String> getFirstName() {
+        return Optional.ofNullable(string(Member.FirstName));
+    }
+
+    /**
+     * Returns the last name of this profile. This is only returned for authenticated requests.
+     *
+     * @return the last name of this profile
+     */
+    public Optional<String> getLastName() {
+        return Optional.ofNullable(string(Member.LastName));
+    }
+
+    /**
+     * Returns whether this profile is for an organization.
+     *
+     * @return whether this profile is for an organization
+     */
+    public boolean isOrganization() {
+        Object value = decoded.get(Member.IsOrganization.ordinal());
+        if (value == null) {
+            value = publish(Member.IsOrganization, read(Member.IsOrganization, in -> JsonStreams.nextBoolean(in, false)));
+        }
+        return value != ABSENT && (Boolean) value;
+    }
+
+    /**
+     * Returns the links of this profile.
+     *
+     * @return the links of this profile
+     */
+    public ImmutableList<GravatarProfileUrl> getLinks() {
+        return list(Member.Links, GravatarProfileUrl.class);
+    }
+
+    /**
+     * Returns the interests of this profile.
+     *
+     * @return the interests of this profile
+     */
+    public ImmutableList<GravatarProfileInterest> getInterests() {
+        return list(Member.Interests, GravatarProfileInterest.class);
+    }
+
+    /**
+     * Returns the payments of this profile. This is only returned for authenticated requests.
+     *
+     * @return the payments of this profile
+     */
+    public Optional<GravatarProfilePayments> getPayments() {
+        return Optional.ofNullable(object(Member.Payments, GravatarProfilePayments.class));
+    }
+
+    /**
+     * Returns the contact info of this profile. This is only returned for authenticated requests.
+     *
+     * @return the contact info of this profile
+     */
+    public Optional<GravatarProfileContactInfo> getContactInfo() {
+        return Optional.ofNullable(object(Member.ContactInfo, GravatarProfileContactInfo.class));
+    }
+
+    /**
+     * Returns the gallery of this profile. This is only returned for authenticated requests.
+     *
+     * @return the gallery of this profile
+     */
+    public ImmutableList<GravatarProfileGalleryImage> getGallery() {
+        return list(Member.Gallery, GravatarProfileGalleryImage.class);
+    }
+
+    /**
+     * Returns the number of verified accounts of this profile.
+     *
+     * @return the number of verified accounts of this profile
+     */
+    public int getNumberVerifiedAccounts() {
+        Object value = decoded.get(Member.NumberVerifiedAccounts.ordinal());
+        if (value == null) {
+            value = publish(Member.NumberVerifiedAccounts,
+                    read(Member.NumberVerifiedAccounts, in -> JsonStreams.nextInt(in, 0)));
+        }
+        return value == ABSENT ? 0 : (Integer) value;
+    }
+
+    /**
+     * Returns the last profile edit of this profile. This is only returned for authenticated requests.
+     *
+     * @return the last profile edit of this profile
+     */
+    public Optional<Instant> getLastProfileEdit() {
+        return instant(Member.LastProfileEdit);
+    }
+
+    /**
+     * Returns the registration date of this profile. This is only returned for authenticated requests.
+     *
+     * @return the registration date of this profile
+     */
+    public Optional<Instant> getRegistrationDate() {
+        return instant(Member.RegistrationDate);
+    }
+
+    /**
+     * Decodes every member of this profile and returns them as an eager profile.
+     *
+     * @return the eager profile
+     * @throws JsonParseException if a member is malformed
+     */
+    public GravatarProfile toProfile() {
+        return new GravatarProfile(
+                getHash(),
+                getDisplayName(),
+                getProfileUrl(), getAvatarUrl(), getAvatarAltText(),
+                getLocation(),
+                getDescription(),
+                getJobTitle(), getCompany(),
+                getVerifiedAccounts(),
+                getPronunciation(), getPronouns(),
+                getTimezone().orElse(null),
+                getLanguages(),
+                getFirstName().orElse(null), getLastName().orElse(null),
+                isOrganization(),
+                getLinks(), getInterests(), getPayments().orElse(null),
+                getContactInfo().orElse(null),
+                getGallery(),
+                getNumberVerifiedAccounts(),
+                decodeString(Member.LastProfileEdit),
+                decodeString(Member.RegistrationDate)
+        );
+    }
+
+    /**
+     * Returns whether the provided object is equal to this. Lazy profiles are equal if their raw JSON is.
+     *
+     * @param o the other object
+     * @return whether the provided object is equal to this
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GravatarLazyProfile other)) return false;
+        return Arrays.equals(json, other.json);
+    }
+
+    /**
+     * Returns a hashcode for this object.
+     *
+     * @return a hashcode for this object
+     */
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(json);
+    }
+
+    /**
+     * Returns a string representation of this object.
+     *
+     * @return a string representation of this object
+     */
+    @Override
+    public String toString() {
+        return "GravatarLazyProfile{"
+                + "hash=\"" + getHash() + "\""
+                + ", profileUrl=\"" + getProfileUrl() + "\""
+                + ", jsonLength=" + json.length
+                + ", decodedMembers=" + getDecodedMemberCount()
+                + "}";
+    }
+
+    /**
+     * A function reading a member from a reader positioned at its value.
+     */
+    @FunctionalInterface
+    private interface MemberReader<T> {
+        T read(JsonReader in) throws IOException;
+    }
+
+    /**
+     * Caches the provided decoded value of a member unless another thread cached one first,
+     * and returns the cached value.
+     */
+    private Object publish(Member member, Object value) {
+        Object toCache = value == null ? ABSENT : value;
+        Object witness = decoded.compareAndExchange(member.ordinal(), null, toCache);
+        return witness == null ? toCache : witness;
+    }
+
+    /**
+     * Returns the decoded string value of a member, or null if the member is absent or null.
+     */
+    private String string(Member member) {
+        Object value = decoded.get(member.ordinal());
+        if (value == null) value = publish(member, decodeString(member));
+        return value == ABSENT ? null : (String) value;
+    }
+
+    /**
+     * Returns the decoded list value of a member, or an empty list if the member is absent or null.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> ImmutableList<T> list(Member member, Class<T> type) {
+        Object value = decoded.get(member.ordinal());
+        if (value == null) {
+            TypeAdapter<T> adapter = GsonProvider.INSTANCE.get().getAdapter(type);
+            ImmutableList<T> list = read(member, in -> JsonStreams.readList(in, adapter));
+            value = publish(member, list == null ? ImmutableList.of() : list);
+        }
+        return (ImmutableList<T>) value;
+    }
+
+    /**
+     * Returns the decoded object value of a member, or null if the member is absent or null.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T object(Member member, Class<T> type) {
+        Object value = decoded.get(member.ordinal());
+        if (value == null) {
+            TypeAdapter<T> adapter = GsonProvider.INSTANCE.get().getAdapter(type);
+            value = publish(member, read(member, adapter::read));
+        }
+        return value == ABSENT ? null : (T) value;
+    }
+
+    /**
+     * Returns the decoded date value of a member, or an empty optional if the member is absent or null.
+     */
+    @SuppressWarnings("unchecked")
+    private Optional<Instant> instant(Member member) {
+        Object value = decoded.get(member.ordinal());
+        if (value == null) {
+            String text = decodeString(member);
+            try {
+                value = publish(member, text == null ? Optional.empty() : Optional.of(Instant.parse(text)));
+            } catch (DateTimeParseException e) {
+                throw new JsonParseException("Malformed " + member.jsonName + ": " + text, e);
+            }
+        }
+        return (Optional<Instant>) value;
+    }
+
+    /**
+     * Decodes the string value of a member. Strings without escapes are decoded directly from the raw bytes;
+     * anything else is read as the eager adapter would read it.
+     */
+    private String decodeString(Member member) {
+        int start = valueStarts[member.ordinal()];
+        if (start == NOT_PRESENT) return null;
+        int end = valueEnds[member.ordinal()];
+
+        if (json[start] == '"') {
+            int contentEnd = end - 1;
+            boolean escaped = false;
+            for (int i = start + 1; i < contentEnd; i++) {
+                if (json[i] == '\\') {
+                    escaped = true;
+                    break;
+                }
+            }
+            if (!escaped) return new String(json, start + 1, contentEnd - start - 1, StandardCharsets.UTF_8);
+        }
+
+        return read(member, JsonStreams::nextNullableString);
+    }
+
+    /**
+     * Reads the value of a member with the provided reader, or returns null if the member is not present.
+     */
+    private <T> T read(Member member, MemberReader<T> memberReader) {
+        int start = valueStarts[member.ordinal()];
+        if (start == NOT_PRESENT) return null;
+        int end = valueEnds[member.ordinal()];
+
+        ByteArrayInputStream slice = new ByteArrayInputStream(json, start, end - start);
+        JsonReader reader = new JsonReader(new InputStreamReader(slice, StandardCharsets.UTF_8));
+        try {
+            return memberReader.read(reader);
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            throw new JsonParseException("Malformed " + member.jsonName, e);
+        }
+    }
+
+    /**
+     * Returns whether the value of a member is present and a JSON string.
+     */
+    private boolean isString(Member member) {
+        int start = valueStarts[member.ordinal()];
+        return start != NOT_PRESENT && json[start] == '"';
+    }
+
+    /**
+     * Records the value offsets of every known top-level member in a single pass over the raw JSON.
+     * Values are skipped over without being decoded. If a member appears more than once, the last
+     * occurrence is used, as it is by the eager adapter.
+     */
+    private void index() {
+        int length = json.length;
+        int i = skipWhitespace(0);
+        expect(i, '{');
+        i = skipWhitespace(i + 1);
+        if (i < length && json[i] == '}') {
+            checkTrailing(i + 1);
+            return;
+        }
+
+        while (true) {
+            expect(i, '"');
+            int nameEnd = skipString(i);
+            Member member = hasEscape(i + 1, nameEnd - 1)
+                    ? memberForEscapedName(i, nameEnd)
+                    : Member.forName(json, i + 1, nameEnd - 1);
+
+            i = skipWhitespace(nameEnd);
+            expect(i, ':');
+            int valueStart = skipWhitespace(i + 1);
+            int valueEnd = skipValue(valueStart);
+            if (member != null) {
+                valueStarts[member.ordinal()] = valueStart;
+                valueEnds[member.ordinal()] = valueEnd;
+            }
+
+            i = skipWhitespace(valueEnd);
+            if (i < length && json[i] == ',') {
+                i = skipWhitespace(i + 1);
+            } else {
+                expect(i, '}');
+                checkTrailing(i + 1);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the member whose name is the escaped JSON string beginning at the provided quote, or null.
+     */
+    private Member memberForEscapedName(int quote, int nameEnd) {
+        byte[] name = decodeName(quote, nameEnd).getBytes(StandardCharsets.UTF_8);
+        return Member.forName(name, 0, name.length);
+    }
+
+    /**
+     * Decodes the member name in the provided range of the raw JSON.
+     */
+    private String decodeName(int start, int end) {
+        ByteArrayInputStream slice = new ByteArrayInputStream(json, start, end - start);
+        try {
+            return new JsonReader(new InputStreamReader(slice, StandardCharsets.UTF_8)).nextString();
+        } catch (IOException | IllegalStateException e) {
+            throw new JsonParseException("Malformed member name", e);
+        }
+    }
+
+    /**
+     * Returns whether the provided range contains a backslash.
+     */
+    private boolean hasEscape(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (json[i] == '\\') return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the offset of the first byte at or after the provided offset which is not JSON whitespace.
+     */
+    private int skipWhitespace(int i) {
+        while (i < json.length) {
+            byte b = json[i];
+            if (b != ' ' && b != '\t' && b != '\n' && b != '\r') break;
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the offset just after the string beginning at the quote at the provided offset.
+     */
+    private int skipString(int quote) {
+        int i = quote + 1;
+        while (i < json.length) {
+            byte b = json[i];
+            if (b == '\\') {
+                i += 2;
+            } else if (b == '"') {
+                return i + 1;
+            } else {
+                i++;
+            }
+        }
+        throw new JsonParseException("Unterminated string at offset " + quote);
+    }
+
+    /**
+     * Returns the offset just after the value beginning at the provided offset.
+     */
+    private int skipValue(int start) {
+        if (start >= json.length) throw new JsonParseException("Expected a value at offset " + start);
+
+        byte first = json[start];
+        if (first == '"') return skipString(start);
+
+        if (first == '{' || first == '[') {
+            int depth = 0;
+            int i = start;
+            while (i < json.length) {
+                byte b = json[i];
+                if (b == '"') {
+                    i = skipString(i);
+                    continue;
+                }
+                if (b == '{' || b == '[') {
+                    depth++;
+                } else if (b == '}' || b == ']') {
+                    depth--;
+                    if (depth == 0) return i + 1;
+                }
+                i++;
+            }
+            throw new JsonParseException("Unterminated value at offset " + start);
+        }
+
+        int i = start;
+        while (i < json.length) {
+            byte b = json[i];
+            if (b == ',' || b == '}' || b == ']' || b == ' ' || b == '\t' || b == '\n' || b == '\r') break;
+            i++;
+        }
+        if (i == start) throw new JsonParseException("Expected a value at offset " + start);
+        return i;
+    }
+
+    /**
+     * Throws if the byte at the provided offset is not the provided character.
+     */
+    private void expect(int i, char expected) {
+        if (i >= json.length || json[i] != expected) {
+            throw new JsonParseException("Expected '" + expected + "' at offset " + i);
+        }
+    }
+
+    /**
+     * Throws if anything other than whitespace follows the provided offset.
+     */
+    private void checkTrailing(int i) {
+        if (skipWhitespace(i) != json.length) {
+            throw new JsonParseException("Unexpected content after the profile at offset " + i);
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package com.github.natche.gravatarjavaclient.profile;
+
+import com.github.natche.gravatarjavaclient.enums.GravatarBatchResultOrder;
+import com.github.natche.gravatarjavaclient.enums.GravatarProfileBatchStatus;
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
+import com.github.natche.gravatarjavaclient.profile.ratelimit.GravatarRateLimitGovernor;
+import com.github.natche.gravatarjavaclient.profile.ratelimit.GravatarTokenPool;
+import com.github.natche.gravatarjavaclient.utils.Hasher;
+import com.github.natche.gravatarjavaclient.utils.InputValidator;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * A request for the profiles of many hashes or IDs from the Gravatar Profile API.
+ * <p>
+ * The profiles are requested asynchronously over the HTTP client shared with {@link GravatarProfileRequest},
+ * which multiplexes them over HTTP/2 where the API supports it, with at most {@link #getConcurrency()} requests
+ * in flight at once. No threads are created: results are delivered to the calling thread as they complete,
+ * in the order set by {@link #setResultOrder(GravatarBatchResultOrder)}. Every hash or ID receives exactly one
+ * {@link GravatarProfileBatchResult}, so a profile which cannot be obtained does not abort the batch.
+ * Requests are paced by the {@link GravatarRateLimitGovernor}, or by the {@link GravatarTokenPool} if one is set,
+ * so a batch larger than the remaining budget slows down rather than failing with 429 responses.
+ */
+public final class GravatarProfileBatchRequest {
+    /**
+     * The number of characters to reveal of the token when the {@link #toString()} method is invoked.
+     */
+    private static final int TOKEN_SUBSTRING_LENGTH = 5;
+
+    /**
+     * The default maximum number of requests in flight at once.
+     */
+    private static final int DEFAULT_CONCURRENCY = 8;
+
+    /**
+     * The SHA256 hashes or profile IDs.
+     */
+    private final ImmutableList<String> hashesOrIds;
+
+    /**
+     * The token used for obtaining authenticated fields in the responses.
+     */
+    private String token;
+
+    /**
+     * The pool tokens are acquired from in place of a single token, or null.
+     */
+    private GravatarTokenPool tokenPool;
+
+    /**
+     * The maximum number of requests in flight at once.
+     */
+    private int concurrency = DEFAULT_CONCURRENCY;
+
+    /**
+     * The order in which results are delivered.
+     */
+    private GravatarBatchResultOrder resultOrder = GravatarBatchResultOrder.InputOrder;
+
+    private GravatarProfileBatchRequest(ImmutableList<String> hashesOrIds) {
+        this.hashesOrIds = hashesOrIds;
+    }
+
+    /**
+     * Constructs a new GravatarProfileBatchRequest from the provided hashes or IDs.
+     *
+     * @param hashesOrIds the SHA256 hashes or profile IDs
+     * @return a new GravatarProfileBatchRequest
+     * @throws NullPointerException     if the provided list or any of its elements is null
+     * @throws IllegalArgumentException if the provided list is empty or any of its elements is empty
+     */
+    public static GravatarProfileBatchRequest from(List<String> hashesOrIds) {
+        Preconditions.checkNotNull(hashesOrIds);
+        Preconditions.checkArgument(!hashesOrIds.isEmpty());
+
+        for (String hashOrId : hashesOrIds) {
+            Preconditions.checkNotNull(hashOrId);
+            Preconditions.checkArgument(!hashOrId.trim().isEmpty());
+        }
+        return new GravatarProfileBatchRequest(ImmutableList.copyOf(hashesOrIds));
+    }
+
+    /**
+     * Constructs a new GravatarProfileBatchRequest from the provided emails.
+     *
+     * @param emails the email addresses
+     * @return a new GravatarProfileBatchRequest
+     * @throws NullPointerException     if the provided list or any of its elements is null
+     * @throws IllegalArgumentException if the provided list is empty or any of its elements is not a valid email
+     */
+    public static GravatarProfileBatchRequest fromEmails(List<String> emails) {
+        Preconditions.checkNotNull(emails);
+        Preconditions.checkArgument(!emails.isEmpty());
+
+        ImmutableList.Builder<String> hashes = ImmutableList.builderWithExpectedSize(emails.size());
+        for (String email : emails) {
+            Preconditions.checkNotNull(email);
+            Preconditions.checkArgument(InputValidator.isValidEmailAddress(email));
+            hashes.add(Hasher.SHA256.hash(email));
+        }
+        return new GravatarProfileBatchRequest(hashes.build());
+    }
+
+    /**
+     * Returns the SHA256 hashes or IDs this request will use.
+     *
+     * @return the SHA256 hashes or IDs this request will use
+     */
+    public ImmutableList<String> getHashesOrIds() {
+        return hashesOrIds;
+    }
+
+    /**
+     * Sets the token every request of this batch will use when requesting information from the Gravatar API.
+     * This replaces any token pool previously set.
+     *
+     * @param token the token
+     * @return this request
+     * @throws NullPointerException     if the provided token is null
+     * @throws IllegalArgumentException if the provided token is empty
+     */
+    @CanIgnoreReturnValue
+    public GravatarProfileBatchRequest setToken(String token) {
+        Preconditions.checkNotNull(token);
+        Preconditions.checkArgument(!token.trim().isEmpty());
+
+        this.token = token;
+        this.tokenPool = null;
+        return this;
+    }
+
+    /**
+     * Sets the pool each request of this batch acquires its token from, spreading the batch across the budgets
+     * of several tokens. This replaces any token previously set.
+     *
+     * @param tokenPool the pool of tokens
+     * @return this request
+     * @throws NullPointerException if the provided pool is null
+     */
+    @CanIgnoreReturnValue
+    public GravatarProfileBatchRequest setTokenPool(GravatarTokenPool tokenPool) {
+        this.tokenPool = Preconditions.checkNotNull(tokenPool);
+        this.token = null;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of requests in flight at once. The default is eight.
+     *
+     * @param concurrency the maximum number of requests in flight at once
+     * @return this request
+     * @throws IllegalArgumentException if the provided concurrency is not positive
+     */
+    @CanIgnoreReturnValue
+    public GravatarProfileBatchRequest setConcurrency(int concurrency) {
+        Preconditions.checkArgument(concurrency > 0);
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of requests in flight at once.
+     *
+     * @return the maximum number of requests in flight at once
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Sets the order in which results are delivered. The default is {@link GravatarBatchResultOrder#InputOrder}.
+     *
+     * @param resultOrder the order in which results are delivered
+     * @return this request
+     * @throws NullPointerException if the provided order is null
+     */
+    @CanIgnoreReturnValue
+    public GravatarProfileBatchRequest setResultOrder(GravatarBatchResultOrder resultOrder) {
+        this.resultOrder = Preconditions.checkNotNull(resultOrder);
+        return this;
+    }
+
+    /**
+     * Returns the order in which results are delivered.
+     *
+     * @return the order in which results are delivered
+     */
+    public GravatarBatchResultOrder getResultOrder() {
+        return resultOrder;
+    }
+
+    /**
+     * Requests every profile and passes each result to the provided consumer on the calling thread as it
+     * becomes available. If the consumer throws, requests still in flight are cancelled and the exception
+     * is rethrown.
+     *
+     * @param consumer the consumer of the results
+     * @throws NullPointerException        if the provided consumer is null
+     * @throws GravatarJavaClientException if the current thread is interrupted
+     */
+    public void forEachResult(Consumer<? super GravatarProfileBatchResult> consumer) {
+        GravatarTokenPool pool = tokenPool;
+        String batchToken = token;
+        forEachResult(index -> pool != null
+                ? GravatarProfileRequestHandler.INSTANCE.fetchBatchItem(pool, index, hashesOrIds.get(index))
+                : GravatarProfileRequestHandler.INSTANCE.fetchBatchItem(batchToken, index, hashesOrIds.get(index)),
+                consumer);
+    }
+
+    /**
+     * Requests every profile and returns the results in the order they were delivered.
+     *
+     * @return the results
+     * @throws GravatarJavaClientException if the current thread is interrupted
+     */
+    public ImmutableList<GravatarProfileBatchResult> getResults() {
+        ImmutableList.Builder<GravatarProfileBatchResult> results =
+                ImmutableList.builderWithExpectedSize(hashesOrIds.size());
+        forEachResult(results::add);
+        return results.build();
+    }
+
+    /**
+     * Starts a request for each index with the provided function, keeping at most {@link #getConcurrency()}
+     * incomplete at once, and passes each result to the provided consumer in the order of this request.
+     * A function which throws or a future which completes exceptionally produces a failed result.
+     *
+     * @param fetcher  the function starting the request for an index
+     * @param consumer the consumer of the results
+     * @throws NullPointerException        if the provided function or consumer is null
+     * @throws GravatarJavaClientException if the current thread is interrupted
+     */
+    void forEachResult(IntFunction<CompletableFuture<GravatarProfileBatchResult>> fetcher,
+                       Consumer<? super GravatarProfileBatchResult> consumer) {
+        Preconditions.checkNotNull(fetcher);
+        Preconditions.checkNotNull(consumer);
+
+        int count = hashesOrIds.size();
+        BlockingQueue<GravatarProfileBatchResult> completed = new LinkedBlockingQueue<>();
+        List<CompletableFuture<GravatarProfileBatchResult>> futures = new ArrayList<>(count);
+        GravatarProfileBatchResult[] held = resultOrder == GravatarBatchResultOrder.InputOrder
+                ? new GravatarProfileBatchResult[count]
+                : null;
+
+        int started = 0;
+        int received = 0;
+        int delivered = 0;
+        try {
+            while (delivered < count) {
+                while (started < count && started - received < concurrency) {
+                    int index = started++;
+                    CompletableFuture<GravatarProfileBatchResult> future = start(fetcher, index);
+                    futures.add(future);
+                    future.whenComplete((result, error) -> completed.add(result != null
+                            ? result
+                            : failure(index, error)));
+                }
+
+                GravatarProfileBatchResult result = completed.take();
+                received++;
+                if (held == null) {
+                    consumer.accept(result);
+                    delivered++;
+                    continue;
+                }
+
+                held[result.getIndex()] = result;
+                while (delivered < count && held[delivered] != null) {
+                    GravatarProfileBatchResult next = held[delivered];
+                    held[delivered++] = null;
+                    consumer.accept(next);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GravatarJavaClientException(e);
+        } finally {
+            if (delivered < count) {
+                futures.forEach(future -> future.cancel(true));
+            }
+        }
+    }
+
+    /**
+     * Starts the request for the provided index, returning a failed result if the function throws.
+     */
+    private CompletableFuture<GravatarProfileBatchResult> start(
+            IntFunction<CompletableFuture<GravatarProfileBatchResult>> fetcher, int index) {
+        try {
+            return Preconditions.checkNotNull(fetcher.apply(index));
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(failure(index, e));
+        }
+    }
+
+    /**
+     * Returns a failed result for the provided index describing the provided error.
+     */
+    private GravatarProfileBatchResult failure(int index, Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) error = error.getCause();
+        String message = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        return GravatarProfileBatchResult.failure(index, hashesOrIds.get(index),
+                GravatarProfileBatchStatus.Failed, 0, message);
+    }
+
+    /**
+     * Returns a hashcode of this object.
+     *
+     * @return a hashcode of this object
+     */
+    @Override
+    public int hashCode() {
+        int ret = hashesOrIds.hashCode();
+        if (token != null) ret = 31 * ret + token.hashCode();
+        if (tokenPool != null) ret = 31 * ret + tokenPool.hashCode();
+        ret = 31 * ret + Integer.hashCode(concurrency);
+        ret = 31 * ret + resultOrder.hashCode();
+        return ret;
+    }
+
+    /**
+     * Returns whether the provided object equals this.
+     *
+     * @param o the other object
+     * @return whether the provided object equals this
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GravatarProfileBatchRequest other)) return false;
+
+        return hashesOrIds.equals(other.hashesOrIds)
+                && Objects.equals(token, other.token)
+                && Objects.equals(tokenPool, other.tokenPool)
+                && concurrency == other.concurrency
+                && resultOrder == other.resultOrder;
+    }
+
+    /**
+     * Returns a string representation of this object.
+     *
+     * @return a string representation of this object
+     */
+    @Override
+    public String toString() {
+        String sub = token != null && token.length() > TOKEN_SUBSTRING_LENGTH
+                ? token.substring(0, TOKEN_SUBSTRING_LENGTH) + "..."
+                : token;
+
+        return "GravatarProfileBatchRequest{"
+                + "requestCount=" + hashesOrIds.size()
+                + ", token=" + sub
+                + ", concurrency=" + concurrency
+                + ", resultOrder=" + resultOrder
+                + "}";
+    }
+}
@@ -0,0 +1,212 @@
+package com.github.natche.gravatarjavaclient.profile;
+
+import com.github.natche.gravatarjavaclient.enums.GravatarProfileBatchStatus;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile;
+import com.google.common.base.Preconditions;
+import com.google.errorprone.annotations.Immutable;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The result of a single profile request within a {@link GravatarProfileBatchRequest}.
+ * Successful results hold the profile; all others hold a message describing why the profile was not obtained.
+ */
+@Immutable
+public final class GravatarProfileBatchResult {
+    /**
+     * The index of the hash or ID within the batch.
+     */
+    private final int index;
+
+    /**
+     * The requested hash or ID.
+     */
+    private final String hashOrId;
+
+    /**
+     * The status of the request.
+     */
+    private final GravatarProfileBatchStatus status;
+
+    /**
+     * The HTTP status code of the response, or zero if no response was received.
+     */
+    private final int statusCode;
+
+    /**
+     * The profile, if the request succeeded.
+     */
+    private final GravatarProfile profile;
+
+    /**
+     * The error message, if the request did not succeed.
+     */
+    private final String errorMessage;
+
+    private GravatarProfileBatchResult(int index, String hashOrId, GravatarProfileBatchStatus status,
+                                       int statusCode, GravatarProfile profile, String errorMessage) {
+        Preconditions.checkNotNull(hashOrId);
+        Preconditions.checkNotNull(status);
+        Preconditions.checkArgument(index >= 0);
+        Preconditions.checkArgument(statusCode >= 0);
+
+        this.index = index;
+        this.hashOrId = hashOrId;
+        this.status = status;
+        this.statusCode = statusCode;
+        this.profile = profile;
+        this.errorMessage = errorMessage;
+    }
+
+    /**
+     * Returns a successful result holding the provided profile.
+     *
+     * @param index      the index of the hash or ID within the batch
+     * @param hashOrId   the requested hash or ID
+     * @param statusCode the HTTP status code of the response
+     * @param profile    the profile
+     * @return the result
+     * @throws NullPointerException     if the provided hash or ID or profile is null
+     * @throws IllegalArgumentException if the provided index or status code is negative
+     */
+    static GravatarProfileBatchResult success(int index, String hashOrId, int statusCode, GravatarProfile profile) {
+        Preconditions.checkNotNull(profile);
+        return new GravatarProfileBatchResult(index, hashOrId, GravatarProfileBatchStatus.Success,
+                statusCode, profile, null);
+    }
+
+    /**
+     * Returns an unsuccessful result with the provided status and error message.
+     *
+     * @param index        the index of the hash or ID within the batch
+     * @param hashOrId     the requested hash or ID
+     * @param status       the status of the request
+     * @param statusCode   the HTTP status code of the response, or zero if no response was received
+     * @param errorMessage the error message
+     * @return the result
+     * @throws NullPointerException     if any argument is null
+     * @throws IllegalArgumentException if the provided status is {@link GravatarProfileBatchStatus#Success}
+     *                                  or the provided index or status code is negative
+     */
+    static GravatarProfileBatchResult failure(int index, String hashOrId, GravatarProfileBatchStatus status,
+                                              int statusCode, String errorMessage) {
+        Preconditions.checkNotNull(status);
+        Preconditions.checkNotNull(errorMessage);
+        Preconditions.checkArgument(status != GravatarProfileBatchStatus.Success);
+        return new GravatarProfileBatchResult(index, hashOrId, status, statusCode, null, errorMessage);
+    }
+
+    /**
+     * Returns the index of the hash or ID within the batch.
+     *
+     * @return the index of the hash or ID within the batch
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the requested hash or ID.
+     *
+     * @return the requested hash or ID
+     */
+    public String getHashOrId() {
+        return hashOrId;
+    }
+
+    /**
+     * Returns the status of the request.
+     *
+     * @return the status of the request
+     */
+    public GravatarProfileBatchStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns whether the profile was fetched and read.
+     *
+     * @return whether the profile was fetched and read
+     */
+    public boolean isSuccess() {
+        return status == GravatarProfileBatchStatus.Success;
+    }
+
+    /**
+     * Returns the HTTP status code of the response, or zero if no response was received.
+     *
+     * @return the HTTP status code of the response, or zero if no response was received
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Returns the profile, if the request succeeded.
+     *
+     * @return the profile, if the request succeeded
+     */
+    public Optional<GravatarProfile> getProfile() {
+        return Optional.ofNullable(profile);
+    }
+
+    /**
+     * Returns the error message, if the request did not succeed.
+     *
+     * @return the error message, if the request did not succeed
+     */
+    public Optional<String> getErrorMessage() {
+        return Optional.ofNullable(errorMessage);
+    }
+
+    /**
+     * Returns whether the provided object is equal to this.
+     *
+     * @param o the other object
+     * @return whether the provided object is equal to this
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GravatarProfileBatchResult other)) return false;
+        return index == other.index
+                && hashOrId.equals(other.hashOrId)
+                && status == other.status
+                && statusCode == other.statusCode
+                && Objects.equals(profile, other.profile)
+                && Objects.equals(errorMessage, other.errorMessage);
+    }
+
+    /**
+     * Returns a hashcode for this object.
+     *
+     * @return a hashcode for this object
+     */
+    @Override
+    public int hashCode() {
+        int ret = Integer.hashCode(index);
+        ret = 31 * ret + hashOrId.hashCode();
+        ret = 31 * ret + status.hashCode();
+        ret = 31 * ret + Integer.hashCode(statusCode);
+        ret = 31 * ret + Objects.hashCode(profile);
+        ret = 31 * ret + Objects.hashCode(errorMessage);
+        return ret;
+    }
+
+    /**
+     * Returns a string representation of this object.
+     *
+     * @return a string representation of this object
+     */
+    @Override
+    public String toString() {
+        return "GravatarProfileBatchResult{"
+                + "index=" + index
+                + ", hashOrId=\"" + hashOrId + "\""
+                + ", status=" + status
+                + ", statusCode=" + statusCode
+                + (errorMessage != null ? ", errorMessage=\"" + errorMessage + "\"" : "")
+                + "}";
+    }
+}
@@ -0,0 +1,500 @@
+package com.github.natche.gravatarjavaclient.profile;
+
+import com.github.natche.gravatarjavaclient.enums.GravatarProfileBatchStatus;
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile;
+import com.google.common.base.Preconditions;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * An in-memory cache of profiles fetched from the Gravatar Profile API, keyed by hash or ID and by the token
+ * of the request, since authenticated responses include fields unauthenticated ones do not.
+ * <p>
+ * A profile is fresh for the time to live after it is fetched. Once it expires it is still served for the
+ * stale-while-revalidate window while a single background request revalidates it, so callers only wait for the
+ * API when an entry is missing or older than both. Profiles which do not exist are cached as negative entries for
+ * a shorter time, and looking one up throws the API's error as {@link GravatarProfileRequest#getProfile()} would.
+ * Other failures are not cached. Concurrent lookups of a missing entry share one request. While the circuit breaker
+ * of the profile endpoint is open, an expired profile is served however long ago it expired.
+ * <p>
+ * So that popular entries fetched at the same time do not all expire together, a fresh entry may be revalidated
+ * early with a probability which rises as it nears expiry, weighted by how long it took to fetch. A cache holds at
+ * most a maximum number of entries, evicting the least recently used. It is safe for use by multiple threads.
+ * <p>
+ * {@link GravatarProfileCacheListener}s may be added to follow the profiles held, such as to index them.
+ */
+public final class GravatarProfileCache {
+    /**
+     * The default time a profile is fresh.
+     */
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(5);
+
+    /**
+     * The default time an expired profile is served while it is revalidated.
+     */
+    public static final Duration DEFAULT_STALE_WHILE_REVALIDATE = Duration.ofMinutes(5);
+
+    /**
+     * The default time a profile which does not exist is remembered.
+     */
+    public static final Duration DEFAULT_NEGATIVE_TIME_TO_LIVE = Duration.ofMinutes(1);
+
+    /**
+     * The default maximum number of entries.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    /**
+     * The weight of an entry's fetch time in the probability it is revalidated early;
+     * larger values revalidate earlier.
+     */
+    static final double DEFAULT_EARLY_REFRESH_BETA = 1.0;
+
+    /**
+     * The nanoseconds a profile is fresh.
+     */
+    private final long timeToLiveNanos;
+
+    /**
+     * The nanoseconds an expired profile is served while it is revalidated.
+     */
+    private final long staleWhileRevalidateNanos;
+
+    /**
+     * The nanoseconds a profile which does not exist is remembered.
+     */
+    private final long negativeTimeToLiveNanos;
+
+    /**
+     * The maximum number of entries.
+     */
+    private final int maxEntries;
+
+    /**
+     * The weight of an entry's fetch time in the probability it is revalidated early.
+     */
+    private final double earlyRefreshBeta;
+
+    /**
+     * The source of the current time in nanoseconds.
+     */
+    private final LongSupplier ticker;
+
+    /**
+     * The function starting a request for a token and a hash or ID.
+     */
+    private final BiFunction<String, String, CompletableFuture<GravatarProfileBatchResult>> loader;
+
+    /**
+     * The entries by key, in access order, guarded by itself.
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The requests in flight by key.
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<GravatarProfileBatchResult>> loading =
+            new ConcurrentHashMap<>();
+
+    /**
+     * The listeners notified as profiles are stored and removed.
+     */
+    private final CopyOnWriteArrayList<GravatarProfileCacheListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * The number of lookups answered by a fresh entry.
+     */
+    private final LongAdder hitCount = new LongAdder();
+
+    /**
+     * The number of lookups answered by an expired entry.
+     */
+    private final LongAdder staleHitCount = new LongAdder();
+
+    /**
+     * The number of lookups which fetched the profile.
+     */
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * The number of background revalidations started.
+     */
+    private final LongAdder refreshCount = new LongAdder();
+
+    /**
+     * The number of background revalidations started before their entry expired.
+     */
+    private final LongAdder earlyRefreshCount = new LongAdder();
+
+    /**
+     * The number of entries evicted.
+     */
+    private final LongAdder evictionCount = new LongAdder();
+
+    GravatarProfileCache(Duration timeToLive, Duration staleWhileRevalidate, Duration negativeTimeToLive,
+                         int maxEntries, double earlyRefreshBeta, LongSupplier ticker,
+                         BiFunction<String, String, CompletableFuture<GravatarProfileBatchResult>> loader) {
+        Preconditions.checkNotNull(timeToLive);
+        Preconditions.checkNotNull(staleWhileRevalidate);
+        Preconditions.checkNotNull(negativeTimeToLive);
+        Preconditions.checkNotNull(ticker);
+        Preconditions.checkNotNull(loader);
+        Preconditions.checkArgument(timeToLive.isPositive());
+        Preconditions.checkArgument(!staleWhileRevalidate.isNegative());
+        Preconditions.checkArgument(!negativeTimeToLive.isNegative());
+        Preconditions.checkArgument(maxEntries > 0);
+        Preconditions.checkArgument(earlyRefreshBeta >= 0);
+
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.staleWhileRevalidateNanos = staleWhileRevalidate.toNanos();
+        this.negativeTimeToLiveNanos = negativeTimeToLive.toNanos();
+        this.maxEntries = maxEntries;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.ticker = ticker;
+        this.loader = loader;
+    }
+
+    /**
+     * Constructs a new cache with the default times and maximum number of entries.
+     *
+     * @return a new cache
+     */
+    public static GravatarProfileCache create() {
+        return create(DEFAULT_TIME_TO_LIVE, DEFAULT_STALE_WHILE_REVALIDATE,
+                DEFAULT_NEGATIVE_TIME_TO_LIVE, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Constructs a new cache with the provided times and maximum number of entries.
+     *
+     * @param timeToLive           the time a profile is fresh
+     * @param staleWhileRevalidate the time an expired profile is served while it is revalidated; zero disables this
+     * @param negativeTimeToLive   the time a profile which does not exist is remembered; zero disables this
+     * @param maxEntries           the maximum number of entries
+     * @return a new cache
+     * @throws NullPointerException     if any duration is null
+     * @throws IllegalArgumentException if the time to live or maximum number of entries is not positive,
+     *                                  or another duration is negative
+     */
+    public static GravatarProfileCache create(Duration timeToLive, Duration staleWhileRevalidate,
+                                              Duration negativeTimeToLive, int maxEntries) {
+        return new GravatarProfileCache(timeToLive, staleWhileRevalidate, negativeTimeToLive, maxEntries,
+                DEFAULT_EARLY_REFRESH_BETA, System::nanoTime,
+                (token, hashOrId) -> GravatarProfileRequestHandler.INSTANCE.fetchBatchItem(token, 0, hashOrId));
+    }
+
+    /**
+     * Returns the profile of the provided request from this cache, fetching it if it is missing or too old.
+     *
+     * @param request the request
+     * @return the profile
+     * @throws NullPointerException        if the provided request is null
+     * @throws GravatarJavaClientException if the profile does not exist, cannot be fetched,
+     *                                     or the current thread is interrupted while waiting for it
+     */
+    public GravatarProfile getProfile(GravatarProfileRequest request) {
+        Preconditions.checkNotNull(request);
+        return getProfile(request.getToken(), request.getHashOrId());
+    }
+
+    /**
+     * Removes the entry of the provided request, if present.
+     *
+     * @param request the request
+     * @return whether an entry was removed
+     * @throws NullPointerException if the provided request is null
+     */
+    @CanIgnoreReturnValue
+    public boolean invalidate(GravatarProfileRequest request) {
+        Preconditions.checkNotNull(request);
+        String key = GravatarProfileRequest.keyOf(request.getToken(), request.getHashOrId());
+        synchronized (entries) {
+            if (entries.remove(key) == null) return false;
+            notifyRemove(key);
+            return true;
+        }
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.keySet().forEach(this::notifyRemove);
+            entries.clear();
+        }
+    }
+
+    /**
+     * Adds the provided listener, first notifying it of every profile currently held.
+     *
+     * @param listener the listener
+     * @return this cache
+     * @throws NullPointerException if the provided listener is null
+     */
+    @CanIgnoreReturnValue
+    public GravatarProfileCache addListener(GravatarProfileCacheListener listener) {
+        Preconditions.checkNotNull(listener);
+        synchronized (entries) {
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                if (entry.getValue().profile != null) listener.onStore(entry.getKey(), entry.getValue().profile);
+            }
+            listeners.add(listener);
+        }
+        return this;
+    }
+
+    /**
+     * Removes the provided listener, if present.
+     *
+     * @param listener the listener
+     * @return whether the listener was removed
+     * @throws NullPointerException if the provided listener is null
+     */
+    @CanIgnoreReturnValue
+    public boolean removeListener(GravatarProfileCacheListener listener) {
+        Preconditions.checkNotNull(listener);
+        synchronized (entries) {
+            return listeners.remove(listener);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the entries and lookups of this cache.
+     *
+     * @return a snapshot of the entries and lookups of this cache
+     */
+    public GravatarProfileCacheStatistics getStatistics() {
+        long entryCount;
+        synchronized (entries) {
+            entryCount = entries.size();
+        }
+        return new GravatarProfileCacheStatistics(entryCount, hitCount.sum(), staleHitCount.sum(), missCount.sum(),
+                refreshCount.sum(), earlyRefreshCount.sum(), evictionCount.sum());
+    }
+
+    /**
+     * Returns the profile of the provided token and hash or ID from this cache, fetching it if it is missing
+     * or too old.
+     *
+     * @param token    the token, or null
+     * @param hashOrId the hash or ID
+     * @return the profile
+     * @throws GravatarJavaClientException if the profile does not exist, cannot be fetched,
+     *                                     or the current thread is interrupted while waiting for it
+     */
+    GravatarProfile getProfile(String token, String hashOrId) {
+        String key = GravatarProfileRequest.keyOf(token, hashOrId);
+        long now = ticker.getAsLong();
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+
+        if (entry != null) {
+            if (now - entry.expiresAt < 0) {
+                hitCount.increment();
+                if (shouldRefreshEarly(entry, now) && refresh(key, token, hashOrId, entry)) {
+                    earlyRefreshCount.increment();
+                }
+                return entry.getProfile();
+            }
+            if (now - entry.staleUntil < 0) {
+                staleHitCount.increment();
+                refresh(key, token, hashOrId, entry);
+                return entry.getProfile();
+            }
+        }
+
+        missCount.increment();
+        try {
+            GravatarProfileBatchResult result = load(key, token, hashOrId).get();
+            if (result.isSuccess()) return result.getProfile().get();
+            if (result.getStatus() == GravatarProfileBatchStatus.CircuitOpen && entry != null
+                    && entry.profile != null) {
+                staleHitCount.increment();
+                return entry.profile;
+            }
+            throw new GravatarJavaClientException(result.getErrorMessage().orElse(result.getStatus().name()));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof GravatarJavaClientException clientException) throw clientException;
+            throw new GravatarJavaClientException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GravatarJavaClientException(e);
+        }
+    }
+
+    /**
+     * Returns whether the provided fresh entry should be revalidated early. The probability rises exponentially
+     * as the entry nears expiry, scaled by the time it took to fetch and the early refresh beta.
+     */
+    private boolean shouldRefreshEarly(Entry entry, long now) {
+        if (earlyRefreshBeta == 0 || entry.fetchNanos <= 0) return false;
+        double gap = entry.fetchNanos * earlyRefreshBeta * -Math.log(ThreadLocalRandom.current().nextDouble());
+        return gap >= entry.expiresAt - now;
+    }
+
+    /**
+     * Starts revalidating the provided entry unless it is already being revalidated, and returns whether it was.
+     */
+    private boolean refresh(String key, String token, String hashOrId, Entry entry) {
+        if (!entry.refreshing.compareAndSet(false, true)) return false;
+
+        refreshCount.increment();
+        load(key, token, hashOrId).whenComplete((result, error) -> entry.refreshing.set(false));
+        return true;
+    }
+
+    /**
+     * Starts a request for the provided key unless one is in flight, storing its result once it completes.
+     */
+    private CompletableFuture<GravatarProfileBatchResult> load(String key, String token, String hashOrId) {
+        CompletableFuture<GravatarProfileBatchResult> created = new CompletableFuture<>();
+        CompletableFuture<GravatarProfileBatchResult> existing = loading.putIfAbsent(key, created);
+        if (existing != null) return existing;
+
+        long started = ticker.getAsLong();
+        CompletableFuture<GravatarProfileBatchResult> fetched;
+        try {
+            fetched = Preconditions.checkNotNull(loader.apply(token, hashOrId));
+        } catch (RuntimeException e) {
+            fetched = CompletableFuture.failedFuture(e);
+        }
+
+        fetched.whenComplete((result, error) -> {
+            if (result != null) store(key, result, started);
+            loading.remove(key, created);
+            if (error != null) created.completeExceptionally(error);
+            else created.complete(result);
+        });
+        return created;
+    }
+
+    /**
+     * Stores the provided result under the provided key if it is a profile or a profile which does not exist,
+     * evicting the least recently used entries beyond the maximum.
+     */
+    private void store(String key, GravatarProfileBatchResult result, long started) {
+        long now = ticker.getAsLong();
+        long fetchNanos = Math.max(0, now - started);
+
+        Entry entry;
+        if (result.isSuccess()) {
+            long expiresAt = now + timeToLiveNanos;
+            entry = new Entry(result.getProfile().get(), null, expiresAt, expiresAt + staleWhileRevalidateNanos,
+                    fetchNanos);
+        } else if (result.getStatus() == GravatarProfileBatchStatus.NotFound && negativeTimeToLiveNanos > 0) {
+            long expiresAt = now + negativeTimeToLiveNanos;
+            entry = new Entry(null, result.getErrorMessage().orElse(result.getStatus().name()), expiresAt,
+                    expiresAt, fetchNanos);
+        } else {
+            return;
+        }
+
+        synchronized (entries) {
+            Entry replaced = entries.put(key, entry);
+            if (entry.profile != null) {
+                listeners.forEach(listener -> listener.onStore(key, entry.profile));
+            } else if (replaced != null && replaced.profile != null) {
+                notifyRemove(key);
+            }
+
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxEntries) {
+                Map.Entry<String, Entry> evicted = eldest.next();
+                eldest.remove();
+                evictionCount.increment();
+                if (evicted.getValue().profile != null) notifyRemove(evicted.getKey());
+            }
+        }
+    }
+
+    /**
+     * Notifies every listener that the profile under the provided key was removed. Callers must hold the lock.
+     */
+    private void notifyRemove(String key) {
+        listeners.forEach(listener -> listener.onRemove(key));
+    }
+
+    /**
+     * Returns a string representation of this cache.
+     *
+     * @return a string representation of this cache
+     */
+    @Override
+    public String toString() {
+        return "GravatarProfileCache{"
+                + "timeToLive=" + Duration.ofNanos(timeToLiveNanos)
+                + ", staleWhileRevalidate=" + Duration.ofNanos(staleWhileRevalidateNanos)
+                + ", negativeTimeToLive=" + Duration.ofNanos(negativeTimeToLiveNanos)
+                + ", maxEntries=" + maxEntries
+                + "}";
+    }
+
+    /**
+     * A cached profile, or the error of a profile which does not exist.
+     */
+    private static final class Entry {
+        /**
+         * The profile, or null if it does not exist.
+         */
+        private final GravatarProfile profile;
+
+        /**
+         * The error message of a profile which does not exist, or null.
+         */
+        private final String errorMessage;
+
+        /**
+         * The tick at which this entry expires.
+         */
+        private final long expiresAt;
+
+        /**
+         * The tick until which this entry may be served while it is revalidated.
+         */
+        private final long staleUntil;
+
+        /**
+         * The nanoseconds the request for this entry took.
+         */
+        private final long fetchNanos;
+
+        /**
+         * Whether this entry is being revalidated.
+         */
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Entry(GravatarProfile profile, String errorMessage, long expiresAt, long staleUntil,
+                      long fetchNanos) {
+            this.profile = profile;
+            this.errorMessage = errorMessage;
+            this.expiresAt = expiresAt;
+            this.staleUntil = staleUntil;
+            this.fetchNanos = fetchNanos;
+        }
+
+        /**
+         * Returns the profile, throwing the API's error if it does not exist.
+         */
+        private GravatarProfile getProfile() {
+            if (profile == null) throw new GravatarJavaClientException(errorMessage);
+            return profile;
+        }
+    }
+}
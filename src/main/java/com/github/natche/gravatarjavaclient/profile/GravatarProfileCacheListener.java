@@ -0,0 +1,27 @@
+package com.github.natche.gravatarjavaclient.profile;
+
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile;
+
+/**
+ * A listener notified as profiles enter and leave a {@link GravatarProfileCache}.
+ * <p>
+ * Keys are opaque and distinct for each token and hash or ID. A listener is called while the cache is locked,
+ * in the order the changes are made, so it must be quick, must not throw, and must not call back into the cache.
+ */
+public interface GravatarProfileCacheListener {
+    /**
+     * Called when a profile is stored under the provided key, replacing any profile already stored under it.
+     *
+     * @param key     the key
+     * @param profile the profile
+     */
+    void onStore(String key, GravatarProfile profile);
+
+    /**
+     * Called when the profile under the provided key is removed, evicted, or replaced by an entry for a profile
+     * which does not exist. It may also be called for keys without a profile.
+     *
+     * @param key the key
+     */
+    void onRemove(String key);
+}
@@ -0,0 +1,204 @@
+package com.github.natche.gravatarjavaclient.profile;
+
+import com.google.common.base.Preconditions;
+import com.google.errorprone.annotations.Immutable;
+
+/**
+ * A snapshot of the entries and lookups of a {@link GravatarProfileCache}.
+ */
+@Immutable
+public final class GravatarProfileCacheStatistics {
+    /**
+     * The number of entries, including negative entries.
+     */
+    private final long entryCount;
+
+    /**
+     * The number of lookups answered by a fresh entry.
+     */
+    private final long hitCount;
+
+    /**
+     * The number of lookups answered by an expired entry while it was revalidated.
+     */
+    private final long staleHitCount;
+
+    /**
+     * The number of lookups which fetched the profile before answering.
+     */
+    private final long missCount;
+
+    /**
+     * The number of background revalidations started.
+     */
+    private final long refreshCount;
+
+    /**
+     * The number of background revalidations started before their entry expired.
+     */
+    private final long earlyRefreshCount;
+
+    /**
+     * The number of entries evicted to make room for others.
+     */
+    private final long evictionCount;
+
+    /**
+     * Constructs a new GravatarProfileCacheStatistics.
+     *
+     * @param entryCount        the number of entries, including negative entries
+     * @param hitCount          the number of lookups answered by a fresh entry
+     * @param staleHitCount     the number of lookups answered by an expired entry while it was revalidated
+     * @param missCount         the number of lookups which fetched the profile before answering
+     * @param refreshCount      the number of background revalidations started
+     * @param earlyRefreshCount the number of background revalidations started before their entry expired
+     * @param evictionCount     the number of entries evicted to make room for others
+     * @throws IllegalArgumentException if any value is negative or more early refreshes than refreshes are provided
+     */
+    public GravatarProfileCacheStatistics(long entryCount, long hitCount, long staleHitCount, long missCount,
+                                          long refreshCount, long earlyRefreshCount, long evictionCount) {
+        Preconditions.checkArgument(entryCount >= 0);
+        Preconditions.checkArgument(hitCount >= 0);
+        Preconditions.checkArgument(staleHitCount >= 0);
+        Preconditions.checkArgument(missCount >= 0);
+        Preconditions.checkArgument(earlyRefreshCount >= 0);
+        Preconditions.checkArgument(refreshCount >= earlyRefreshCount);
+        Preconditions.checkArgument(evictionCount >= 0);
+
+        this.entryCount = entryCount;
+        this.hitCount = hitCount;
+        this.staleHitCount = staleHitCount;
+        this.missCount = missCount;
+        this.refreshCount = refreshCount;
+        this.earlyRefreshCount = earlyRefreshCount;
+        this.evictionCount = evictionCount;
+    }
+
+    /**
+     * Returns the number of entries, including negative entries.
+     *
+     * @return the number of entries, including negative entries
+     */
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Returns the number of lookups answered by a fresh entry.
+     *
+     * @return the number of lookups answered by a fresh entry
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of lookups answered by an expired entry while it was revalidated.
+     *
+     * @return the number of lookups answered by an expired entry while it was revalidated
+     */
+    public long getStaleHitCount() {
+        return staleHitCount;
+    }
+
+    /**
+     * Returns the number of lookups which fetched the profile before answering.
+     *
+     * @return the number of lookups which fetched the profile before answering
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of background revalidations started.
+     *
+     * @return the number of background revalidations started
+     */
+    public long getRefreshCount() {
+        return refreshCount;
+    }
+
+    /**
+     * Returns the number of background revalidations started before their entry expired.
+     *
+     * @return the number of background revalidations started before their entry expired
+     */
+    public long getEarlyRefreshCount() {
+        return earlyRefreshCount;
+    }
+
+    /**
+     * Returns the number of entries evicted to make room for others.
+     *
+     * @return the number of entries evicted to make room for others
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the fraction of lookups answered without waiting for a fetch, fresh or stale,
+     * or {@code 0.0} if there have been no lookups.
+     *
+     * @return the hit rate
+     */
+    public double getHitRate() {
+        long lookups = hitCount + staleHitCount + missCount;
+        return lookups == 0 ? 0.0 : (double) (hitCount + staleHitCount) / lookups;
+    }
+
+    /**
+     * Returns whether the provided object is equal to this.
+     *
+     * @param o the other object
+     * @return whether the provided object is equal to this
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GravatarProfileCacheStatistics other)) return false;
+        return entryCount == other.entryCount
+                && hitCount == other.hitCount
+                && staleHitCount == other.staleHitCount
+                && missCount == other.missCount
+                && refreshCount == other.refreshCount
+                && earlyRefreshCount == other.earlyRefreshCount
+                && evictionCount == other.evictionCount;
+    }
+
+    /**
+     * Returns a hashcode for this object.
+     *
+     * @return a hashcode for this object
+     */
+    @Override
+    public int hashCode() {
+        int ret = Long.hashCode(entryCount);
+        ret = 31 * ret + Long.hashCode(hitCount);
+        ret = 31 * ret + Long.hashCode(staleHitCount);
+        ret = 31 * ret + Long.hashCode(missCount);
+        ret = 31 * ret + Long.hashCode(refreshCount);
+        ret = 31 * ret + Long.hashCode(earlyRefreshCount);
+        ret = 31 * ret + Long.hashCode(evictionCount);
+        return ret;
+    }
+
+    /**
+     * Returns a string representation of this object.
+     *
+     * @return a string representation of this object
+     */
+    @Override
+    public String toString() {
+        return "GravatarProfileCacheStatistics{"
+                + "entryCount=" + entryCount
+                + ", hitCount=" + hitCount
+                + ", staleHitCount=" + staleHitCount
+                + ", missCount=" + missCount
+                + ", refreshCount=" + refreshCount
+                + ", earlyRefreshCount=" + earlyRefreshCount
+                + ", evictionCount=" + evictionCount
+                + "}";
+    }
+}
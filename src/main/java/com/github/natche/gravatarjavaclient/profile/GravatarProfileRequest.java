@@ -2,7 +2,9 @@ package com.github.natche.gravatarjavaclient.profile;
 
 import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
 import com.github.natche.gravatarjavaclient.profile.gson.GsonProvider;
+import com.github.natche.gravatarjavaclient.profile.ratelimit.GravatarTokenPool;
 import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile;
+import com.github.natche.gravatarjavaclient.profile.store.GravatarProfileStore;
 import com.github.natche.gravatarjavaclient.utils.Hasher;
 import com.github.natche.gravatarjavaclient.utils.InputValidator;
 import com.google.common.base.Preconditions;
@@ -11,6 +13,11 @@ import com.google.gson.Gson;
 
 import java.io.File;
 import java.io.FileWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Objects;
 
 /**
  * A class for requesting a Profile from the Gravatar Profile API.
@@ -22,6 +29,11 @@ public final class GravatarProfileRequest {
      */
     private static final int TOKEN_SUBSTRING_LENGTH = 5;
 
+    /**
+     * The scope of keys of requests without a token.
+     */
+    private static final String UNAUTHENTICATED_SCOPE = "-";
+
     /**
      * The SHA256 hash or profile ID.
      */
@@ -32,6 +44,16 @@ public final class GravatarProfileRequest {
      */
     private String token;
 
+    /**
+     * The pool tokens are acquired from in place of a single token, or null.
+     */
+    private GravatarTokenPool tokenPool;
+
+    /**
+     * The store consulted before the Gravatar Profile API, or null.
+     */
+    private GravatarProfileStore store;
+
     private GravatarProfileRequest(String hashOrId) {
         this.hashOrId = hashOrId;
     }
@@ -70,6 +92,7 @@ public final class GravatarProfileRequest {
     /**
      * Sets the token this request will use when requesting information from the Gravatar API.
      * When a valid token is provided, fields requiring authentication will be provided in the response.
+     * This replaces any token pool previously set.
      *
      * @param token the token
      * @return this request
@@ -79,6 +102,39 @@ public final class GravatarProfileRequest {
         Preconditions.checkArgument(!token.trim().isEmpty());
 
         this.token = token;
+        this.tokenPool = null;
+        return this;
+    }
+
+    /**
+     * Sets the pool this request acquires its token from when requesting information from the Gravatar API,
+     * spreading authenticated requests across the budgets of several tokens. This replaces any token previously
+     * set. Profiles are cached and stored under the pool's {@link GravatarTokenPool#getPrimaryToken() primary
+     * token}, and a {@link GravatarProfileCache} fetches this request with that token.
+     *
+     * @param tokenPool the pool of tokens
+     * @return this request
+     * @throws NullPointerException if the provided pool is null
+     */
+    @CanIgnoreReturnValue
+    public GravatarProfileRequest setTokenPool(GravatarTokenPool tokenPool) {
+        this.tokenPool = Preconditions.checkNotNull(tokenPool);
+        this.token = null;
+        return this;
+    }
+
+    /**
+     * Sets the store {@link #getProfile()} consults before requesting the profile from the Gravatar Profile API.
+     * Profiles obtained from the API are written to the store. Profiles are stored separately for each token,
+     * which is hashed rather than written to the store.
+     *
+     * @param store the store
+     * @return this request
+     * @throws NullPointerException if the provided store is null
+     */
+    @CanIgnoreReturnValue
+    public GravatarProfileRequest setStore(GravatarProfileStore store) {
+        this.store = Preconditions.checkNotNull(store);
         return this;
     }
 
@@ -91,14 +147,47 @@ public final class GravatarProfileRequest {
         return hashOrId;
     }
 
+    /**
+     * Returns the token this request will use, the primary token of its pool if it has one,
+     * or null if it is unauthenticated.
+     *
+     * @return the token this request will use, or null
+     */
+    String getToken() {
+        return tokenPool != null ? tokenPool.getPrimaryToken() : token;
+    }
+
     /**
      * Retrieves the profile using the provided email or hash from the
-     * Gravatar Profile API using HTTPS as the protocol.
+     * Gravatar Profile API using HTTPS as the protocol. If a store has been set,
+     * an unexpired stored profile is returned instead of requesting it.
      *
-     * @return the GravatarProfile obtained from the API
+     * @return the GravatarProfile obtained from the API or the store
      * @throws GravatarJavaClientException if an exception occurs when fetching the profile
+     *                                     or reading it from or writing it to the store
      */
     public GravatarProfile getProfile() {
+        if (store == null) return fetchProfile();
+        return store.computeIfAbsent(keyOf(getToken(), hashOrId), this::fetchProfile);
+    }
+
+    /**
+     * Retrieves the profile using the provided email or hash from the Gravatar Profile API
+     * and returns it without decoding its members until they are accessed.
+     *
+     * @return the lazy profile obtained from the API
+     * @throws GravatarJavaClientException if an exception occurs when fetching the profile
+     */
+    public GravatarLazyProfile getLazyProfile() {
+        if (tokenPool != null) return GravatarProfileRequestHandler.INSTANCE.getLazyProfile(tokenPool, hashOrId);
+        return GravatarProfileRequestHandler.INSTANCE.getLazyProfile(token, hashOrId);
+    }
+
+    /**
+     * Requests the profile from the Gravatar Profile API with the token or token pool of this request.
+     */
+    private GravatarProfile fetchProfile() {
+        if (tokenPool != null) return GravatarProfileRequestHandler.INSTANCE.getProfile(tokenPool, hashOrId);
         return GravatarProfileRequestHandler.INSTANCE.getProfile(token, hashOrId);
     }
 
@@ -141,6 +230,25 @@ public final class GravatarProfileRequest {
         }
     }
 
+    /**
+     * Returns the key of the provided token and hash or ID, under which the profile is cached or stored.
+     * Tokens are hashed so that they are not retained.
+     *
+     * @param token    the token, or null
+     * @param hashOrId the hash or ID
+     * @return the key
+     */
+    static String keyOf(String token, String hashOrId) {
+        if (token == null) return UNAUTHENTICATED_SCOPE + "/" + hashOrId;
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest) + "/" + hashOrId;
+        } catch (NoSuchAlgorithmException e) {
+            throw new GravatarJavaClientException(e);
+        }
+    }
+
     /**
      * Returns a hashcode of this object.
      *
@@ -150,6 +258,7 @@ public final class GravatarProfileRequest {
     public int hashCode() {
         int ret = hashOrId.hashCode();
         if (token != null) ret = 31 * ret + token.hashCode();
+        if (tokenPool != null) ret = 31 * ret + tokenPool.hashCode();
         return ret;
     }
 
@@ -166,7 +275,8 @@ public final class GravatarProfileRequest {
 
         GravatarProfileRequest other = (GravatarProfileRequest) o;
         return hashOrId.equals(other.hashOrId)
-                && token.equals(other.token);
+                && Objects.equals(token, other.token)
+                && Objects.equals(tokenPool, other.tokenPool);
     }
 
     /**
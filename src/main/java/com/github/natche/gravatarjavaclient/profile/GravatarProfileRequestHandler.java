@@ -1,17 +1,40 @@
 package com.github.natche.gravatarjavaclient.profile;
 
+import com.github.natche.gravatarjavaclient.enums.GravatarEndpoint;
+import com.github.natche.gravatarjavaclient.enums.GravatarProfileBatchStatus;
+import com.github.natche.gravatarjavaclient.enums.GravatarRequestAuthentication;
 import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
 import com.github.natche.gravatarjavaclient.profile.gson.GsonProvider;
+import com.github.natche.gravatarjavaclient.profile.ratelimit.GravatarRateLimitGovernor;
+import com.github.natche.gravatarjavaclient.profile.ratelimit.GravatarTokenPool;
 import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfileRequestResult;
+import com.github.natche.gravatarjavaclient.resilience.GravatarEndpointMonitor;
+import com.github.natche.gravatarjavaclient.resilience.GravatarRetryPolicy;
 import com.google.common.base.Preconditions;
-import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * A singleton for interfacing with the Gravatar Profile REST API.
@@ -23,11 +46,19 @@ enum GravatarProfileRequestHandler {
     INSTANCE;
 
     /**
-     * The HTTP client this handler uses internally for communicating with the Gravatar API.
+     * The prefix of the message of exceptions thrown for error responses from the Gravatar API.
      */
-    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(10))
-            .build();
+    private static final String API_ERROR_PREFIX = "Gravatar API error: ";
+
+    /**
+     * The status code of a response to a request which was rate limited.
+     */
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    /**
+     * The most times a request is resent after being rate limited, once its pause has been recorded.
+     */
+    private static final int MAX_RATE_LIMITED_RESENDS = 3;
 
     /**
      * The count of authenticated requests this handler has sent.
@@ -67,34 +98,478 @@ enum GravatarProfileRequestHandler {
      * @throws IllegalArgumentException if the provided name or hash is empty
      */
     GravatarProfile getProfile(String token, String nameOrHash) {
+        return fetch(token, null, nameOrHash, this::readProfile);
+    }
+
+    /**
+     * Reads and returns a serialized object from the Gravatar Profile API using a token acquired from the
+     * provided pool, which paces the request in place of the {@link GravatarRateLimitGovernor}.
+     *
+     * @param pool       the pool of tokens
+     * @param nameOrHash the name or SHA256 hash to use
+     * @return a profile object
+     * @throws NullPointerException     if the provided pool or name or hash is null
+     * @throws IllegalArgumentException if the provided name or hash is empty
+     */
+    GravatarProfile getProfile(GravatarTokenPool pool, String nameOrHash) {
+        Preconditions.checkNotNull(pool);
+        return fetch(null, pool, nameOrHash, this::readProfile);
+    }
+
+    /**
+     * Reads and returns a lazily decoded profile from the Gravatar Profile API.
+     *
+     * @param token      the authentication token to use; if not provided, only certain fields will be returned
+     * @param nameOrHash the name or SHA256 hash to use
+     * @return a lazy profile object
+     * @throws NullPointerException     if the provided name or hash is null
+     * @throws IllegalArgumentException if the provided name or hash is empty
+     */
+    GravatarLazyProfile getLazyProfile(String token, String nameOrHash) {
+        return fetch(token, null, nameOrHash, this::readLazyProfile);
+    }
+
+    /**
+     * Reads and returns a lazily decoded profile from the Gravatar Profile API using a token acquired from the
+     * provided pool, which paces the request in place of the {@link GravatarRateLimitGovernor}.
+     *
+     * @param pool       the pool of tokens
+     * @param nameOrHash the name or SHA256 hash to use
+     * @return a lazy profile object
+     * @throws NullPointerException     if the provided pool or name or hash is null
+     * @throws IllegalArgumentException if the provided name or hash is empty
+     */
+    GravatarLazyProfile getLazyProfile(GravatarTokenPool pool, String nameOrHash) {
+        Preconditions.checkNotNull(pool);
+        return fetch(null, pool, nameOrHash, this::readLazyProfile);
+    }
+
+    /**
+     * A function reading a result from the status code and body of a response.
+     */
+    @FunctionalInterface
+    interface ResponseReader<T> {
+        T read(int statusCode, InputStream body) throws IOException;
+    }
+
+    /**
+     * Sends a request for the provided name or hash and reads the response with the provided reader. The request
+     * is sent with a token acquired from the provided pool if there is one, otherwise with the provided token.
+     */
+    private <T> T fetch(String token, GravatarTokenPool pool, String nameOrHash, ResponseReader<T> responseReader) {
         Preconditions.checkNotNull(nameOrHash);
         Preconditions.checkArgument(!nameOrHash.trim().isEmpty());
 
+        return fetch(() -> send(token, pool, nameOrHash), responseReader);
+    }
+
+    /**
+     * Sends a request through the provided sender and reads the response with the provided reader. Transient
+     * failures are retried as the retry policy of the profile endpoint permits, if it has one. A rate limited
+     * request the policy does not retry is resent up to {@link #MAX_RATE_LIMITED_RESENDS} times; the sender has
+     * recorded the pause the response asked for by then, so each resend waits for it when reserved again.
+     *
+     * @param sender         the sender of one attempt, which paces and records it
+     * @param responseReader the reader of the final response
+     * @param <T>            the type of the result
+     * @return the result
+     * @throws GravatarJavaClientException if the request fails or the final response is an error
+     */
+    <T> T fetch(Callable<HttpResponse<InputStream>> sender, ResponseReader<T> responseReader) {
+        GravatarRetryPolicy policy = GravatarEndpointMonitor.INSTANCE.getRetryPolicy(GravatarEndpoint.Profile)
+                .orElse(null);
+        if (policy != null) policy.recordRequest();
         try {
-            String url = "https://api.gravatar.com/v3/profiles/" + nameOrHash;
-            HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .GET();
+            int rateLimitedResends = 0;
+            for (int attempt = 1; ; attempt++) {
+                HttpResponse<InputStream> response;
+                try {
+                    response = sender.call();
+                } catch (IOException e) {
+                    Optional<Duration> delay = policy != null ? policy.getRetryDelay(attempt, e) : Optional.empty();
+                    if (delay.isEmpty()) throw e;
+                    Thread.sleep(delay.get());
+                    continue;
+                }
 
-            if (token != null) {
-                requestBuilder.header("Authorization", "Bearer " + token);
+                Optional<Duration> delay = policy != null
+                        ? policy.getRetryDelay(attempt, response.statusCode())
+                        : Optional.empty();
+                boolean resend = delay.isEmpty() && response.statusCode() == TOO_MANY_REQUESTS
+                        && rateLimitedResends++ < MAX_RATE_LIMITED_RESENDS;
+                try (InputStream body = response.body()) {
+                    if (delay.isEmpty() && !resend) return responseReader.read(response.statusCode(), body);
+                }
+                if (delay.isPresent()) Thread.sleep(delay.get());
             }
+        } catch (GravatarJavaClientException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GravatarJavaClientException(e);
+        } catch (Exception e) {
+            throw new GravatarJavaClientException(e);
+        }
+    }
 
-            HttpRequest request = requestBuilder.build();
-            HttpResponse<String> response = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+    /**
+     * Sends one attempt of a request for the provided name or hash once the circuit breaker of the profile
+     * endpoint permits it and it has been paced, recording its outcome. The attempt is hedged with the same
+     * token as the hedging policy of the profile endpoint permits, if it has one.
+     */
+    private HttpResponse<InputStream> send(String token, GravatarTokenPool pool, String nameOrHash)
+            throws Exception {
+        GravatarEndpointMonitor.INSTANCE.acquirePermission(GravatarEndpoint.Profile);
+        GravatarRequestAuthentication authentication = pool != null
+                ? GravatarRequestAuthentication.Authenticated
+                : GravatarRequestAuthentication.of(token);
+        String sentToken = token;
+        boolean recorded = false;
+        try {
+            if (pool != null) sentToken = pool.acquire();
+            else GravatarRateLimitGovernor.INSTANCE.acquire(authentication);
 
-            String body = response.body();
-            if (body.contains("error")) {
-                JsonObject responseObject = GsonProvider.INSTANCE.get().fromJson(body, JsonObject.class);
-                throw new RuntimeException("Gravatar API error: " + responseObject.get("error").getAsString());
+            HttpRequest request = buildRequest(sentToken, nameOrHash);
+            Instant requestInstant = Instant.now();
+            long start = System.nanoTime();
+            HttpResponse<InputStream> response;
+            try {
+                response = GravatarEndpointMonitor.INSTANCE.callHedged(GravatarEndpoint.Profile,
+                        () -> GravatarEndpointMonitor.INSTANCE.sendAsync(request,
+                                HttpResponse.BodyHandlers.ofInputStream()),
+                        GravatarProfileRequestHandler::closeQuietly);
+            } catch (IOException e) {
+                if (pool != null) pool.recordFailure(sentToken);
+                recordOutcome(requestInstant, start, false);
+                recorded = true;
+                throw e;
             }
+            recordOutcome(requestInstant, start, isHealthy(response.statusCode()));
+            recorded = true;
 
-            return GsonProvider.INSTANCE.get().fromJson(body, GravatarProfile.class);
-        } catch (Exception e) {
-            throw new GravatarJavaClientException(e);
+            if (pool != null) pool.update(sentToken, response.statusCode(), response.headers());
+            else GravatarRateLimitGovernor.INSTANCE.update(authentication, response.statusCode(), response.headers());
+            return response;
         } finally {
-            if (token == null) unauthenticatedRequestCount.incrementAndGet();
-            else authenticatedRequestCount.incrementAndGet();
+            if (!recorded) GravatarEndpointMonitor.INSTANCE.releasePermission(GravatarEndpoint.Profile);
+            countRequest(authentication);
+        }
+    }
+
+    /**
+     * Closes the body of the provided response which is not read, such as that of a hedge which lost.
+     */
+    private static void closeQuietly(HttpResponse<InputStream> response) {
+        try {
+            response.body().close();
+        } catch (IOException ignored) {
+            // The response is discarded regardless
+        }
+    }
+
+    /**
+     * Sends a request for the provided name or hash of a batch without blocking. The returned future always
+     * completes with a result; failures to send the request or read the response are reported by its status.
+     *
+     * @param token      the authentication token to use; if not provided, only certain fields will be returned
+     * @param index      the index of the name or hash within the batch
+     * @param nameOrHash the name or SHA256 hash to use
+     * @return a future completed with the result
+     * @throws NullPointerException     if the provided name or hash is null
+     * @throws IllegalArgumentException if the provided name or hash is empty or not a valid path segment
+     */
+    CompletableFuture<GravatarProfileBatchResult> fetchBatchItem(String token, int index, String nameOrHash) {
+        Preconditions.checkNotNull(nameOrHash);
+        Preconditions.checkArgument(!nameOrHash.trim().isEmpty());
+
+        HttpRequest request = buildRequest(token, nameOrHash);
+        GravatarRequestAuthentication authentication = GravatarRequestAuthentication.of(token);
+        return sendBatchItem(index, nameOrHash, () -> {
+            Duration delay = GravatarRateLimitGovernor.INSTANCE.reserve(authentication);
+            countRequest(authentication);
+
+            // Timed from when the request is due to be sent, so that the pacing delay is not counted as latency
+            Instant requestInstant = Instant.now().plus(delay);
+            long start = System.nanoTime() + delay.toNanos();
+            return sendAfter(delay, request).whenComplete((response, error) -> {
+                recordOutcome(requestInstant, start, response != null && isHealthy(response.statusCode()));
+                if (response != null) {
+                    GravatarRateLimitGovernor.INSTANCE.update(authentication, response.statusCode(),
+                            response.headers());
+                }
+            });
+        });
+    }
+
+    /**
+     * Sends a request for the provided name or hash of a batch without blocking, using a token acquired from the
+     * provided pool, which paces the request in place of the {@link GravatarRateLimitGovernor}. The returned
+     * future always completes with a result; failures to send the request or read the response are reported
+     * by its status.
+     *
+     * @param pool       the pool of tokens
+     * @param index      the index of the name or hash within the batch
+     * @param nameOrHash the name or SHA256 hash to use
+     * @return a future completed with the result
+     * @throws NullPointerException     if the provided pool or name or hash is null
+     * @throws IllegalArgumentException if the provided name or hash is empty or not a valid path segment
+     */
+    CompletableFuture<GravatarProfileBatchResult> fetchBatchItem(GravatarTokenPool pool, int index,
+                                                                 String nameOrHash) {
+        Preconditions.checkNotNull(pool);
+        Preconditions.checkNotNull(nameOrHash);
+        Preconditions.checkArgument(!nameOrHash.trim().isEmpty());
+
+        // Built once up front so that an invalid name or hash is rejected before a token is acquired
+        buildRequest(null, nameOrHash);
+        return sendBatchItem(index, nameOrHash, () -> {
+            countRequest(GravatarRequestAuthentication.Authenticated);
+            return pool.acquireAsync().thenCompose(token -> {
+                Instant requestInstant = Instant.now();
+                long start = System.nanoTime();
+                HttpRequest request = buildRequest(token, nameOrHash);
+                return GravatarEndpointMonitor.INSTANCE.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                        .whenComplete((response, error) -> {
+                            recordOutcome(requestInstant, start, response != null && isHealthy(response.statusCode()));
+                            if (response != null) pool.update(token, response.statusCode(), response.headers());
+                            else pool.recordFailure(token);
+                        });
+            });
+        });
+    }
+
+    /**
+     * Sends the first attempt of a batch item through the provided sender, retrying it as the retry policy of
+     * the profile endpoint permits, if it has one.
+     */
+    private CompletableFuture<GravatarProfileBatchResult> sendBatchItem(
+            int index, String nameOrHash, Supplier<CompletableFuture<HttpResponse<byte[]>>> sender) {
+        GravatarRetryPolicy policy = GravatarEndpointMonitor.INSTANCE.getRetryPolicy(GravatarEndpoint.Profile)
+                .orElse(null);
+        if (policy != null) policy.recordRequest();
+        return sendBatchAttempt(index, nameOrHash, sender, policy, 1);
+    }
+
+    /**
+     * Sends one attempt of a batch item through the provided sender once the circuit breaker of the profile
+     * endpoint permits it, scheduling the next attempt if this one fails and the provided policy permits.
+     */
+    private CompletableFuture<GravatarProfileBatchResult> sendBatchAttempt(
+            int index, String nameOrHash, Supplier<CompletableFuture<HttpResponse<byte[]>>> sender,
+            GravatarRetryPolicy policy, int attempt) {
+        if (!GravatarEndpointMonitor.INSTANCE.tryAcquirePermission(GravatarEndpoint.Profile)) {
+            return CompletableFuture.completedFuture(circuitOpen(index, nameOrHash));
+        }
+
+        CompletableFuture<HttpResponse<byte[]>> sent;
+        try {
+            sent = sender.get();
+        } catch (RuntimeException e) {
+            // Nothing was sent, so there is no outcome to report for the permit
+            GravatarEndpointMonitor.INSTANCE.releasePermission(GravatarEndpoint.Profile);
+            return CompletableFuture.completedFuture(sendFailure(index, nameOrHash, e));
+        }
+
+        return sent.handle((response, error) -> {
+            Optional<Duration> delay = retryDelay(policy, attempt, response, error);
+            if (delay.isPresent()) {
+                Executor delayed = CompletableFuture.delayedExecutor(delay.get().toNanos(), TimeUnit.NANOSECONDS);
+                return CompletableFuture.runAsync(() -> {}, delayed)
+                        .thenCompose(ignored -> sendBatchAttempt(index, nameOrHash, sender, policy, attempt + 1));
+            }
+
+            return CompletableFuture.completedFuture(response != null
+                    ? readBatchResult(index, nameOrHash, response.statusCode(), response.body())
+                    : sendFailure(index, nameOrHash, error));
+        }).thenCompose(Function.identity());
+    }
+
+    /**
+     * Returns the delay before retrying a batch attempt which received the provided response or failed with the
+     * provided error, or empty if there is no policy or it does not permit a retry.
+     */
+    private static Optional<Duration> retryDelay(GravatarRetryPolicy policy, int attempt,
+                                                 HttpResponse<byte[]> response, Throwable error) {
+        if (policy == null) return Optional.empty();
+        return response != null
+                ? policy.getRetryDelay(attempt, response.statusCode())
+                : policy.getRetryDelay(attempt, error);
+    }
+
+    /**
+     * Returns a failed result for a request rejected by the circuit breaker of the profile endpoint.
+     */
+    private static GravatarProfileBatchResult circuitOpen(int index, String nameOrHash) {
+        return GravatarProfileBatchResult.failure(index, nameOrHash, GravatarProfileBatchStatus.CircuitOpen, 0,
+                "The circuit breaker of the Profile endpoint is open");
+    }
+
+    /**
+     * Returns whether a response with the provided status code shows the API to be healthy. Client errors such as
+     * a missing profile are healthy; server errors and rate limiting are not.
+     */
+    private static boolean isHealthy(int statusCode) {
+        return statusCode < 500 && statusCode != 429;
+    }
+
+    /**
+     * Records the outcome of a profile request sent at the provided instant and {@link System#nanoTime()}.
+     */
+    private static void recordOutcome(Instant requestInstant, long start, boolean succeeded) {
+        Duration latency = Duration.ofNanos(Math.max(0, System.nanoTime() - start));
+        GravatarEndpointMonitor.INSTANCE.record(GravatarEndpoint.Profile,
+                new GravatarProfileRequestResult(requestInstant, succeeded, latency));
+    }
+
+    /**
+     * Returns a failed result describing the provided error sending a request or receiving its response.
+     */
+    private static GravatarProfileBatchResult sendFailure(int index, String nameOrHash, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause()
+                : error;
+        String message = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+        return GravatarProfileBatchResult.failure(index, nameOrHash, GravatarProfileBatchStatus.Failed, 0, message);
+    }
+
+    /**
+     * Sends the provided request without blocking once the provided delay has elapsed.
+     */
+    private static CompletableFuture<HttpResponse<byte[]>> sendAfter(Duration delay, HttpRequest request) {
+        GravatarEndpointMonitor monitor = GravatarEndpointMonitor.INSTANCE;
+        if (delay.isZero()) return monitor.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+
+        Executor delayed = CompletableFuture.delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS);
+        return CompletableFuture.runAsync(() -> {}, delayed)
+                .thenCompose(ignored -> monitor.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()));
+    }
+
+    /**
+     * Reads the result of a batch item from the status code and body of its response. Error responses are
+     * classified by their status code and reported with the same message {@link #readProfile(int, InputStream)}
+     * would throw; successful responses which are not profiles are reported as failed.
+     *
+     * @param index      the index of the name or hash within the batch
+     * @param nameOrHash the requested name or hash
+     * @param statusCode the HTTP status code of the response
+     * @param body       the body of the response
+     * @return the result
+     */
+    GravatarProfileBatchResult readBatchResult(int index, String nameOrHash, int statusCode, byte[] body) {
+        try {
+            GravatarProfile profile = readProfile(statusCode, new ByteArrayInputStream(body));
+            return GravatarProfileBatchResult.success(index, nameOrHash, statusCode, profile);
+        } catch (GravatarJavaClientException | JsonParseException e) {
+            return GravatarProfileBatchResult.failure(index, nameOrHash, batchStatus(statusCode), statusCode,
+                    e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Returns the batch status of an unsuccessful response with the provided status code.
+     */
+    private static GravatarProfileBatchStatus batchStatus(int statusCode) {
+        return switch (statusCode) {
+            case 404 -> GravatarProfileBatchStatus.NotFound;
+            case 401, 403 -> GravatarProfileBatchStatus.Unauthorized;
+            case 429 -> GravatarProfileBatchStatus.RateLimited;
+            default -> GravatarProfileBatchStatus.Failed;
+        };
+    }
+
+    /**
+     * Returns a request for the profile of the provided name or hash.
+     */
+    private static HttpRequest buildRequest(String token, String nameOrHash) {
+        String url = "https://api.gravatar.com/v3/profiles/" + nameOrHash;
+        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .GET();
+
+        if (token != null) {
+            requestBuilder.header("Authorization", "Bearer " + token);
+        }
+        return requestBuilder.build();
+    }
+
+    /**
+     * Counts a request sent with the provided authentication.
+     */
+    private void countRequest(GravatarRequestAuthentication authentication) {
+        if (authentication == GravatarRequestAuthentication.Unauthenticated) {
+            unauthenticatedRequestCount.incrementAndGet();
+        } else {
+            authenticatedRequestCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Reads a profile from the body of a response with the provided status code. Successful responses are parsed
+     * as they stream in; the body is never read into a string. Other responses are reported using the message
+     * of the API's error object, or the status code if the body is not one.
+     *
+     * @param statusCode the HTTP status code of the response
+     * @param body       the body of the response
+     * @return the profile
+     * @throws GravatarJavaClientException if the status code is not successful
+     * @throws JsonParseException          if the body cannot be read or is not a profile
+     */
+    GravatarProfile readProfile(int statusCode, InputStream body) {
+        checkSuccessful(statusCode, body);
+
+        JsonReader reader = new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        GravatarProfile profile = GsonProvider.INSTANCE.get().fromJson(reader, GravatarProfile.class);
+        if (profile == null) throw new GravatarJavaClientException("Empty profile response");
+        return profile;
+    }
+
+    /**
+     * Reads a lazy profile from the body of a response with the provided status code. The body of a successful
+     * response is read into a byte array which the profile retains; its members are decoded as they are accessed.
+     * Other responses are reported as they are by {@link #readProfile(int, InputStream)}.
+     *
+     * @param statusCode the HTTP status code of the response
+     * @param body       the body of the response
+     * @return the lazy profile
+     * @throws GravatarJavaClientException if the status code is not successful
+     * @throws IOException                 if the body cannot be read
+     * @throws JsonParseException          if the body is not a profile
+     */
+    GravatarLazyProfile readLazyProfile(int statusCode, InputStream body) throws IOException {
+        checkSuccessful(statusCode, body);
+
+        byte[] json = body.readAllBytes();
+        if (json.length == 0) throw new GravatarJavaClientException("Empty profile response");
+        return GravatarLazyProfile.fromJson(json);
+    }
+
+    /**
+     * Throws an exception with the API's error message if the provided status code is not successful.
+     */
+    private static void checkSuccessful(int statusCode, InputStream body) {
+        if (statusCode < 200 || statusCode >= 300) {
+            String error = readErrorMessage(body);
+            throw new GravatarJavaClientException(API_ERROR_PREFIX + (error != null ? error : "HTTP " + statusCode));
+        }
+    }
+
+    /**
+     * Returns the message of the top-level {@code error} member of a JSON error body,
+     * or null if the body is not a JSON object with a string {@code error} member.
+     */
+    private static String readErrorMessage(InputStream body) {
+        try {
+            JsonReader reader = new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.nextName().equals("error") && reader.peek() == JsonToken.STRING) {
+                    return reader.nextString();
+                }
+                reader.skipValue();
+            }
+            return null;
+        } catch (IOException | IllegalStateException e) {
+            return null;
         }
     }
 }
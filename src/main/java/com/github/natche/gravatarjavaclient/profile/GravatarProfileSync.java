@@ -0,0 +1,547 @@
+package com.github.natche.gravatarjavaclient.profile;
+
+import com.github.natche.gravatarjavaclient.enums.GravatarBatchResultOrder;
+import com.github.natche.gravatarjavaclient.enums.GravatarProfileBatchStatus;
+import com.github.natche.gravatarjavaclient.enums.GravatarProfileChangeType;
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile;
+import com.github.natche.gravatarjavaclient.profile.sync.GravatarProfileChange;
+import com.github.natche.gravatarjavaclient.profile.sync.GravatarProfileDiffer;
+import com.github.natche.gravatarjavaclient.profile.sync.GravatarProfileFieldChange;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * A mirror of many profiles which refreshes each profile on its own schedule and reports only what changed.
+ * <p>
+ * Rather than re-fetching every profile on a fixed period, each profile is refreshed after an interval proportional
+ * to how long ago it last changed, taken as the later of its {@code last_profile_edit} and the last refresh which
+ * observed a change. A profile edited an hour ago is refreshed within the hour, while one untouched for a year is
+ * refreshed only at the maximum interval; as a profile stays unchanged its interval grows geometrically. Profiles
+ * which are read often through {@link #getProfile(String)} or {@link #recordAccess(String)} are refreshed sooner,
+ * in proportion to their recent reads. Failed refreshes are retried with exponential backoff.
+ * <p>
+ * Each call to {@link #syncDue(Consumer)} refreshes the profiles which are due, as a batch with bounded concurrency,
+ * and passes a {@link GravatarProfileChange} with the changed fields to the feed for each profile which was added,
+ * updated, or removed. Profiles which did not change produce nothing. A sync is safe for use by multiple threads,
+ * though only one call to {@link #syncDue(Consumer)} runs at a time.
+ */
+public final class GravatarProfileSync {
+    /**
+     * The default shortest time between refreshes of a profile.
+     */
+    public static final Duration DEFAULT_MIN_REFRESH_INTERVAL = Duration.ofMinutes(15);
+
+    /**
+     * The default longest time between refreshes of a profile.
+     */
+    public static final Duration DEFAULT_MAX_REFRESH_INTERVAL = Duration.ofDays(7);
+
+    /**
+     * The default maximum number of profiles refreshed by one call to {@link #syncDue(Consumer)}.
+     */
+    public static final int DEFAULT_MAX_REFRESHES_PER_SYNC = 1_000;
+
+    /**
+     * The default maximum number of requests in flight at once.
+     */
+    public static final int DEFAULT_CONCURRENCY = 8;
+
+    /**
+     * The fraction of the time since a profile last changed to wait before refreshing it.
+     */
+    static final double CHANGE_AGE_FACTOR = 0.5;
+
+    /**
+     * The time over which the weight of a read halves.
+     */
+    static final Duration ACCESS_HALF_LIFE = Duration.ofDays(1);
+
+    /**
+     * The clock used to schedule refreshes.
+     */
+    private final Clock clock;
+
+    /**
+     * The function starting a request for the profile of a token and hash or ID.
+     */
+    private final BiFunction<String, String, CompletableFuture<GravatarProfileBatchResult>> loader;
+
+    /**
+     * The state of every tracked profile by hash or ID, guarded by itself.
+     */
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * The lock serializing calls to {@link #syncDue(Consumer)}.
+     */
+    private final Object syncLock = new Object();
+
+    /**
+     * The token used by refreshes, or null.
+     */
+    private volatile String token;
+
+    /**
+     * The maximum number of requests in flight at once.
+     */
+    private volatile int concurrency = DEFAULT_CONCURRENCY;
+
+    /**
+     * The shortest time between refreshes of a profile.
+     */
+    private volatile Duration minRefreshInterval = DEFAULT_MIN_REFRESH_INTERVAL;
+
+    /**
+     * The longest time between refreshes of a profile.
+     */
+    private volatile Duration maxRefreshInterval = DEFAULT_MAX_REFRESH_INTERVAL;
+
+    /**
+     * The maximum number of profiles refreshed by one call to {@link #syncDue(Consumer)}.
+     */
+    private volatile int maxRefreshesPerSync = DEFAULT_MAX_REFRESHES_PER_SYNC;
+
+    /**
+     * Constructs a new GravatarProfileSync.
+     *
+     * @param clock  the clock used to schedule refreshes
+     * @param loader the function starting a request for the profile of a token and hash or ID
+     */
+    GravatarProfileSync(Clock clock, BiFunction<String, String, CompletableFuture<GravatarProfileBatchResult>> loader) {
+        this.clock = Preconditions.checkNotNull(clock);
+        this.loader = Preconditions.checkNotNull(loader);
+    }
+
+    /**
+     * Creates a new sync which refreshes profiles from the Gravatar Profile API.
+     *
+     * @return a new sync
+     */
+    public static GravatarProfileSync create() {
+        return new GravatarProfileSync(Clock.systemUTC(),
+                (token, hashOrId) -> GravatarProfileRequestHandler.INSTANCE.fetchBatchItem(token, 0, hashOrId));
+    }
+
+    /**
+     * Sets the token refreshes will use when requesting profiles from the Gravatar API.
+     *
+     * @param token the token
+     * @return this sync
+     * @throws NullPointerException     if the provided token is null
+     * @throws IllegalArgumentException if the provided token is empty
+     */
+    @CanIgnoreReturnValue
+    public GravatarProfileSync setToken(String token) {
+        Preconditions.checkNotNull(token);
+        Preconditions.checkArgument(!token.trim().isEmpty());
+
+        this.token = token;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of requests in flight at once.
+     *
+     * @param concurrency the maximum number of requests in flight at once
+     * @return this sync
+     * @throws IllegalArgumentException if the provided concurrency is not positive
+     */
+    @CanIgnoreReturnValue
+    public GravatarProfileSync setConcurrency(int concurrency) {
+        Preconditions.checkArgument(concurrency > 0);
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    /**
+     * Sets the shortest and longest times between refreshes of a profile.
+     *
+     * @param min the shortest time between refreshes of a profile
+     * @param max the longest time between refreshes of a profile
+     * @return this sync
+     * @throws NullPointerException     if either interval is null
+     * @throws IllegalArgumentException if the minimum is not positive or exceeds the maximum
+     */
+    @CanIgnoreReturnValue
+    public GravatarProfileSync setRefreshIntervals(Duration min, Duration max) {
+        Preconditions.checkNotNull(min);
+        Preconditions.checkNotNull(max);
+        Preconditions.checkArgument(min.isPositive());
+        Preconditions.checkArgument(min.compareTo(max) <= 0);
+
+        this.minRefreshInterval = min;
+        this.maxRefreshInterval = max;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of profiles refreshed by one call to {@link #syncDue(Consumer)}.
+     * The most overdue profiles are refreshed first.
+     *
+     * @param maxRefreshesPerSync the maximum number of profiles refreshed per sync
+     * @return this sync
+     * @throws IllegalArgumentException if the provided maximum is not positive
+     */
+    @CanIgnoreReturnValue
+    public GravatarProfileSync setMaxRefreshesPerSync(int maxRefreshesPerSync) {
+        Preconditions.checkArgument(maxRefreshesPerSync > 0);
+        this.maxRefreshesPerSync = maxRefreshesPerSync;
+        return this;
+    }
+
+    /**
+     * Starts mirroring the profile of the provided hash or ID, which is due to be refreshed immediately.
+     * Its first successful refresh is reported as {@link GravatarProfileChangeType#Added}.
+     *
+     * @param hashOrId the SHA256 hash or ID
+     * @return whether the profile was not already tracked
+     * @throws NullPointerException     if the provided hash or ID is null
+     * @throws IllegalArgumentException if the provided hash or ID is empty
+     */
+    @CanIgnoreReturnValue
+    public boolean track(String hashOrId) {
+        Preconditions.checkNotNull(hashOrId);
+        Preconditions.checkArgument(!hashOrId.trim().isEmpty());
+
+        Instant now = clock.instant();
+        synchronized (entries) {
+            if (entries.containsKey(hashOrId)) return false;
+
+            Entry entry = new Entry(now);
+            entry.nextRefreshAt = now;
+            entries.put(hashOrId, entry);
+            return true;
+        }
+    }
+
+    /**
+     * Starts mirroring the provided profile, already known to be current, under the provided hash or ID,
+     * for example a profile loaded from a persistent store. Its refresh is scheduled from its last edit.
+     *
+     * @param hashOrId the SHA256 hash or ID
+     * @param profile  the current profile
+     * @return whether the profile was not already tracked
+     * @throws NullPointerException     if any parameter is null
+     * @throws IllegalArgumentException if the provided hash or ID is empty
+     */
+    @CanIgnoreReturnValue
+    public boolean track(String hashOrId, GravatarProfile profile) {
+        Preconditions.checkNotNull(hashOrId);
+        Preconditions.checkArgument(!hashOrId.trim().isEmpty());
+        Preconditions.checkNotNull(profile);
+
+        Instant now = clock.instant();
+        synchronized (entries) {
+            if (entries.containsKey(hashOrId)) return false;
+
+            Entry entry = new Entry(profile.getLastProfileEdit().orElse(now));
+            entry.profile = profile;
+            entry.exists = true;
+            entry.fetched = true;
+            entry.nextRefreshAt = now.plus(refreshInterval(entry, now));
+            entries.put(hashOrId, entry);
+            return true;
+        }
+    }
+
+    /**
+     * Stops mirroring the profile of the provided hash or ID.
+     *
+     * @param hashOrId the SHA256 hash or ID
+     * @return whether the profile was tracked
+     * @throws NullPointerException if the provided hash or ID is null
+     */
+    @CanIgnoreReturnValue
+    public boolean untrack(String hashOrId) {
+        Preconditions.checkNotNull(hashOrId);
+
+        synchronized (entries) {
+            return entries.remove(hashOrId) != null;
+        }
+    }
+
+    /**
+     * Returns the number of tracked profiles.
+     *
+     * @return the number of tracked profiles
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Returns the mirrored profile of the provided hash or ID, if it has been fetched and exists,
+     * and records the read so that the profile is refreshed sooner.
+     *
+     * @param hashOrId the SHA256 hash or ID
+     * @return the mirrored profile
+     * @throws NullPointerException if the provided hash or ID is null
+     */
+    public Optional<GravatarProfile> getProfile(String hashOrId) {
+        Preconditions.checkNotNull(hashOrId);
+
+        Instant now = clock.instant();
+        synchronized (entries) {
+            Entry entry = entries.get(hashOrId);
+            if (entry == null) return Optional.empty();
+
+            entry.recordAccess(now);
+            return Optional.ofNullable(entry.profile);
+        }
+    }
+
+    /**
+     * Records a read of the provided profile made elsewhere, so that it is refreshed sooner.
+     *
+     * @param hashOrId the SHA256 hash or ID
+     * @return whether the profile is tracked
+     * @throws NullPointerException if the provided hash or ID is null
+     */
+    @CanIgnoreReturnValue
+    public boolean recordAccess(String hashOrId) {
+        Preconditions.checkNotNull(hashOrId);
+
+        Instant now = clock.instant();
+        synchronized (entries) {
+            Entry entry = entries.get(hashOrId);
+            if (entry == null) return false;
+
+            entry.recordAccess(now);
+            return true;
+        }
+    }
+
+    /**
+     * Returns the instant the profile of the provided hash or ID is next due to be refreshed, if it is tracked.
+     * Reads recorded since its last refresh are taken into account at its next refresh.
+     *
+     * @param hashOrId the SHA256 hash or ID
+     * @return the instant the profile is next due to be refreshed
+     * @throws NullPointerException if the provided hash or ID is null
+     */
+    public Optional<Instant> getNextRefresh(String hashOrId) {
+        Preconditions.checkNotNull(hashOrId);
+
+        synchronized (entries) {
+            Entry entry = entries.get(hashOrId);
+            return entry == null ? Optional.empty() : Optional.of(entry.nextRefreshAt);
+        }
+    }
+
+    /**
+     * Returns the number of tracked profiles which are due to be refreshed.
+     *
+     * @return the number of tracked profiles which are due to be refreshed
+     */
+    public int getDueCount() {
+        Instant now = clock.instant();
+        synchronized (entries) {
+            return (int) entries.values().stream().filter(entry -> !entry.nextRefreshAt.isAfter(now)).count();
+        }
+    }
+
+    /**
+     * Refreshes the profiles which are due, blocking until every refresh completes, and passes each change
+     * to the provided feed on the calling thread as it is detected.
+     *
+     * @param feed the consumer of changes
+     * @return the number of profiles refreshed
+     * @throws NullPointerException        if the provided feed is null
+     * @throws GravatarJavaClientException if the current thread is interrupted
+     */
+    @CanIgnoreReturnValue
+    public int syncDue(Consumer<? super GravatarProfileChange> feed) {
+        Preconditions.checkNotNull(feed);
+
+        synchronized (syncLock) {
+            List<String> due = dueHashesOrIds(clock.instant());
+            if (due.isEmpty()) return 0;
+
+            String token = this.token;
+            GravatarProfileBatchRequest batch = GravatarProfileBatchRequest.from(due)
+                    .setConcurrency(concurrency)
+                    .setResultOrder(GravatarBatchResultOrder.CompletionOrder);
+            batch.forEachResult(index -> loader.apply(token, due.get(index)), result -> {
+                GravatarProfileChange change = apply(result, clock.instant());
+                if (change != null) feed.accept(change);
+            });
+            return due.size();
+        }
+    }
+
+    /**
+     * Returns a string representation of this sync.
+     *
+     * @return a string representation of this sync
+     */
+    @Override
+    public String toString() {
+        return "GravatarProfileSync{"
+                + "size=" + size()
+                + ", concurrency=" + concurrency
+                + ", minRefreshInterval=" + minRefreshInterval
+                + ", maxRefreshInterval=" + maxRefreshInterval
+                + ", maxRefreshesPerSync=" + maxRefreshesPerSync
+                + "}";
+    }
+
+    /**
+     * Returns the hashes or IDs which are due at the provided instant, most overdue first.
+     */
+    private List<String> dueHashesOrIds(Instant now) {
+        synchronized (entries) {
+            List<Map.Entry<String, Entry>> due = new ArrayList<>();
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                if (!entry.getValue().nextRefreshAt.isAfter(now)) due.add(entry);
+            }
+            due.sort(Comparator.comparing(entry -> entry.getValue().nextRefreshAt));
+            return due.stream().limit(maxRefreshesPerSync).map(Map.Entry::getKey).toList();
+        }
+    }
+
+    /**
+     * Applies the provided refresh result to its entry and reschedules it, returning the change it revealed, if any.
+     */
+    private GravatarProfileChange apply(GravatarProfileBatchResult result, Instant now) {
+        synchronized (entries) {
+            Entry entry = entries.get(result.getHashOrId());
+            if (entry == null) return null;
+
+            boolean found = result.isSuccess();
+            if (!found && result.getStatus() != GravatarProfileBatchStatus.NotFound) {
+                entry.failures++;
+                long backoff = Math.min(entry.failures - 1, 30);
+                Duration delay = minRefreshInterval.multipliedBy(1L << backoff);
+                entry.nextRefreshAt = now.plus(delay.compareTo(maxRefreshInterval) < 0 ? delay : maxRefreshInterval);
+                return null;
+            }
+
+            GravatarProfile previous = entry.profile;
+            GravatarProfile current = result.getProfile().orElse(null);
+            GravatarProfileChangeType type = null;
+            if (current != null && !entry.exists) type = GravatarProfileChangeType.Added;
+            else if (current == null && entry.exists) type = GravatarProfileChangeType.Removed;
+
+            ImmutableList<GravatarProfileFieldChange> fieldChanges = GravatarProfileDiffer.INSTANCE.diff(previous, current);
+            if (type == null && !fieldChanges.isEmpty()) type = GravatarProfileChangeType.Updated;
+            if (!entry.fetched) {
+                // A profile first fetched is scheduled from its last edit, not from when it happened to be fetched
+                entry.lastChangeAt = current == null ? now : current.getLastProfileEdit().orElse(now);
+            } else if (type != null) {
+                entry.lastChangeAt = now;
+            }
+
+            entry.profile = current;
+            entry.exists = found;
+            entry.fetched = true;
+            entry.failures = 0;
+            entry.nextRefreshAt = now.plus(refreshInterval(entry, now));
+
+            if (type == null) return null;
+            return new GravatarProfileChange(result.getHashOrId(), type, previous, current, fieldChanges, now);
+        }
+    }
+
+    /**
+     * Returns the time to wait before refreshing the provided entry at the provided instant: a fraction of the time
+     * since the profile last changed, shortened by recent reads, and bounded by the refresh intervals.
+     */
+    private Duration refreshInterval(Entry entry, Instant now) {
+        Instant changedAt = entry.lastChangeAt;
+        if (entry.profile != null) {
+            Instant edited = entry.profile.getLastProfileEdit().orElse(null);
+            if (edited != null && edited.isAfter(changedAt)) changedAt = edited;
+        }
+
+        double sinceChangeSeconds = Math.max(0, Duration.between(changedAt, now).toSeconds());
+        double seconds = sinceChangeSeconds * CHANGE_AGE_FACTOR / (1 + entry.accessWeight(now));
+        Duration interval = Duration.ofSeconds((long) Math.min(seconds, Long.MAX_VALUE / 2.0));
+        if (interval.compareTo(minRefreshInterval) < 0) return minRefreshInterval;
+        if (interval.compareTo(maxRefreshInterval) > 0) return maxRefreshInterval;
+        return interval;
+    }
+
+    /**
+     * The mirrored state and schedule of one profile.
+     */
+    private static final class Entry {
+        /**
+         * The mirrored profile, or null if it has not been fetched or does not exist.
+         */
+        private GravatarProfile profile;
+
+        /**
+         * Whether the profile is known to exist.
+         */
+        private boolean exists;
+
+        /**
+         * Whether the profile has been refreshed at least once.
+         */
+        private boolean fetched;
+
+        /**
+         * The last instant the profile was observed to change.
+         */
+        private Instant lastChangeAt;
+
+        /**
+         * The instant the profile is next due to be refreshed.
+         */
+        private Instant nextRefreshAt;
+
+        /**
+         * The number of reads, each weighted by how recent it was as of {@link #accessWeightAt}.
+         */
+        private double accessWeight;
+
+        /**
+         * The instant {@link #accessWeight} was last decayed to, or null if there have been no reads.
+         */
+        private Instant accessWeightAt;
+
+        /**
+         * The number of consecutive refreshes which failed.
+         */
+        private int failures;
+
+        Entry(Instant lastChangeAt) {
+            this.lastChangeAt = lastChangeAt;
+        }
+
+        /**
+         * Records a read at the provided instant.
+         */
+        private void recordAccess(Instant now) {
+            accessWeight = accessWeight(now) + 1;
+            accessWeightAt = now;
+        }
+
+        /**
+         * Returns the weight of the reads recorded as of the provided instant.
+         */
+        private double accessWeight(Instant now) {
+            if (accessWeightAt == null) return 0;
+
+            double halfLives = (double) Duration.between(accessWeightAt, now).toMillis() / ACCESS_HALF_LIFE.toMillis();
+            return accessWeight * Math.pow(0.5, Math.max(0, halfLives));
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.github.natche.gravatarjavaclient.profile.codec;
+
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the primitives of the binary profile encoding written by a {@link BinaryWriter} from a {@link ByteBuffer}.
+ * Every read checks the remaining bytes first, so truncated or corrupt input is reported as a
+ * {@link GravatarJavaClientException} rather than as an underflow or an oversized allocation.
+ */
+final class BinaryReader {
+    /**
+     * The buffer being read.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The string table, once read.
+     */
+    private String[] strings = new String[0];
+
+    /**
+     * Constructs a new reader of the provided buffer, starting at its position.
+     *
+     * @param buffer the buffer
+     */
+    BinaryReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Reads an unsigned byte.
+     *
+     * @return the byte
+     */
+    int readByte() {
+        if (!buffer.hasRemaining()) throw malformed("unexpected end of input");
+        return buffer.get() & 0xFF;
+    }
+
+    /**
+     * Reads an unsigned LEB128 varint of at most ten bytes.
+     *
+     * @return the value
+     */
+    long readVarint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw malformed("varint is too long");
+    }
+
+    /**
+     * Reads a zigzag varint.
+     *
+     * @return the value
+     */
+    long readSignedVarint() {
+        long value = readVarint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Reads a zigzag varint which must fit in an int.
+     *
+     * @return the value
+     */
+    int readSignedInt() {
+        long value = readSignedVarint();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) throw malformed("integer out of range");
+        return (int) value;
+    }
+
+    /**
+     * Reads a count of items each occupying at least one byte, so the count cannot exceed the remaining bytes.
+     *
+     * @return the count
+     */
+    int readCount() {
+        long count = readVarint();
+        if (count > buffer.remaining()) throw malformed("count " + count + " exceeds the remaining input");
+        return (int) count;
+    }
+
+    /**
+     * Reads the string table which precedes the body.
+     */
+    void readStringTable() {
+        int count = readCount();
+        strings = new String[count];
+        for (int i = 0; i < count; i++) {
+            long length = readVarint();
+            if (length > buffer.remaining()) throw malformed("string length " + length + " exceeds the remaining input");
+            byte[] bytes = new byte[(int) length];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Reads a reference into the string table.
+     *
+     * @return the referenced string, or null for the reference zero
+     */
+    String readString() {
+        long reference = readVarint();
+        if (reference == 0) return null;
+        if (reference > strings.length) throw malformed("string reference " + reference + " is out of range");
+        return strings[(int) (reference - 1)];
+    }
+
+    /**
+     * Reads a reference into the string table which must not be null.
+     *
+     * @return the referenced string
+     */
+    String readNonNullString() {
+        String value = readString();
+        if (value == null) throw malformed("unexpected null string");
+        return value;
+    }
+
+    /**
+     * Returns an exception describing malformed input.
+     *
+     * @param reason the reason the input is malformed
+     * @return the exception
+     */
+    static GravatarJavaClientException malformed(String reason) {
+        return new GravatarJavaClientException("Malformed profile encoding: " + reason);
+    }
+}
@@ -0,0 +1,128 @@
+package com.github.natche.gravatarjavaclient.profile.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the primitives of the binary profile encoding: bytes, varints, and references into a string table.
+ * <p>
+ * The body is written as values arrive. Each distinct string is added to the table the first time it is
+ * written and referenced by its position afterward; {@link #toByteArray(byte[])} places the table ahead of
+ * the body so readers can resolve references as they go.
+ */
+final class BinaryWriter {
+    /**
+     * The initial capacity of the body buffer.
+     */
+    private static final int INITIAL_CAPACITY = 512;
+
+    /**
+     * The position of each string in the table.
+     */
+    private final Map<String, Integer> stringIndices = new HashMap<>();
+
+    /**
+     * The UTF-8 bytes of each string in the table, in table order.
+     */
+    private final List<byte[]> strings = new ArrayList<>();
+
+    /**
+     * The body written so far.
+     */
+    private byte[] body = new byte[INITIAL_CAPACITY];
+
+    /**
+     * The number of bytes of the body written so far.
+     */
+    private int size;
+
+    /**
+     * Writes the low eight bits of the provided value.
+     *
+     * @param value the value
+     */
+    void writeByte(int value) {
+        ensureCapacity(1);
+        body[size++] = (byte) value;
+    }
+
+    /**
+     * Writes the provided value as an unsigned LEB128 varint.
+     *
+     * @param value the value, treated as unsigned
+     */
+    void writeVarint(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            body[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        body[size++] = (byte) value;
+    }
+
+    /**
+     * Writes the provided value as a zigzag varint, so values of small magnitude are short whatever their sign.
+     *
+     * @param value the value
+     */
+    void writeSignedVarint(long value) {
+        writeVarint((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Writes a reference to the provided string, adding it to the table if it is not yet present.
+     * Null is written as the reference zero.
+     *
+     * @param value the string, which may be null
+     */
+    void writeString(String value) {
+        if (value == null) {
+            writeVarint(0);
+            return;
+        }
+
+        Integer index = stringIndices.get(value);
+        if (index == null) {
+            index = strings.size();
+            stringIndices.put(value, index);
+            strings.add(value.getBytes(StandardCharsets.UTF_8));
+        }
+        writeVarint(index + 1L);
+    }
+
+    /**
+     * Returns the provided header, followed by the string table, followed by the body.
+     *
+     * @param header the bytes preceding the string table
+     * @return the encoding
+     */
+    byte[] toByteArray(byte[] header) {
+        BinaryWriter table = new BinaryWriter();
+        table.writeVarint(strings.size());
+        for (byte[] string : strings) {
+            table.writeVarint(string.length);
+            table.ensureCapacity(string.length);
+            System.arraycopy(string, 0, table.body, table.size, string.length);
+            table.size += string.length;
+        }
+
+        byte[] encoded = new byte[header.length + table.size + size];
+        System.arraycopy(header, 0, encoded, 0, header.length);
+        System.arraycopy(table.body, 0, encoded, header.length, table.size);
+        System.arraycopy(body, 0, encoded, header.length + table.size, size);
+        return encoded;
+    }
+
+    /**
+     * Grows the body so at least the provided number of bytes may be written.
+     */
+    private void ensureCapacity(int bytes) {
+        if (size + bytes > body.length) {
+            body = Arrays.copyOf(body, Math.max(body.length * 2, size + bytes));
+        }
+    }
+}
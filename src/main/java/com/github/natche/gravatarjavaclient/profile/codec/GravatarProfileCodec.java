@@ -0,0 +1,427 @@
+package com.github.natche.gravatarjavaclient.profile.codec;
+
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
+import com.github.natche.gravatarjavaclient.profile.serialization.*;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * A compact binary encoding of {@link GravatarProfile}s for caching profiles and passing them between processes.
+ * <p>
+ * An encoding begins with a four byte header of the magic {@code GPC} and a version, followed by a table of every
+ * distinct string of the encoded profiles and then the profiles themselves. Strings are written as varint
+ * references into the table, so values repeated within or across profiles, such as service icons and labels,
+ * are stored once. Integers and counts are varints, flags are packed into a byte, and timestamps are stored as
+ * epoch seconds rather than ISO-8601 text. Timestamps are normalized to the form {@link Instant#toString()}
+ * produces, as they are when profiles are written as JSON, so a decoded profile equals the encoded one
+ * whenever the encoded one would survive a round trip through JSON.
+ * <p>
+ * Encodings of one version are only decoded by a codec of that version; decoding any other version throws.
+ */
+public enum GravatarProfileCodec {
+    /**
+     * The profile codec.
+     */
+    INSTANCE;
+
+    /**
+     * The version of the encoding this codec writes and reads.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The magic bytes every encoding begins with.
+     */
+    private static final byte[] MAGIC = {'G', 'P', 'C'};
+
+    /**
+     * The header every encoding of this version begins with.
+     */
+    private static final byte[] HEADER = {MAGIC[0], MAGIC[1], MAGIC[2], VERSION};
+
+    /**
+     * The profile flag set when the profile is for an organization.
+     */
+    private static final int FLAG_ORGANIZATION = 1;
+
+    /**
+     * The profile flag set when the profile has payments.
+     */
+    private static final int FLAG_PAYMENTS = 1 << 1;
+
+    /**
+     * The profile flag set when the profile has contact info.
+     */
+    private static final int FLAG_CONTACT_INFO = 1 << 2;
+
+    /**
+     * The timestamp tag of an absent timestamp.
+     */
+    private static final int TIMESTAMP_ABSENT = 0;
+
+    /**
+     * The timestamp tag of a timestamp stored as whole epoch seconds.
+     */
+    private static final int TIMESTAMP_SECONDS = 1;
+
+    /**
+     * The timestamp tag of a timestamp stored as epoch seconds and nanoseconds.
+     */
+    private static final int TIMESTAMP_SECONDS_AND_NANOS = 2;
+
+    /**
+     * Encodes the provided profile.
+     *
+     * @param profile the profile
+     * @return a buffer of the encoding, positioned at its start
+     * @throws NullPointerException   if the provided profile is null
+     * @throws DateTimeParseException if a timestamp of the profile is not an ISO-8601 instant
+     */
+    public ByteBuffer encode(GravatarProfile profile) {
+        Preconditions.checkNotNull(profile);
+        return ByteBuffer.wrap(encodeToArray(ImmutableList.of(profile)));
+    }
+
+    /**
+     * Encodes the provided profiles together, sharing one string table between them.
+     *
+     * @param profiles the profiles
+     * @return a buffer of the encoding, positioned at its start
+     * @throws NullPointerException   if the provided list or any profile is null
+     * @throws DateTimeParseException if a timestamp of a profile is not an ISO-8601 instant
+     */
+    public ByteBuffer encodeAll(List<GravatarProfile> profiles) {
+        Preconditions.checkNotNull(profiles);
+        return ByteBuffer.wrap(encodeToArray(ImmutableList.copyOf(profiles)));
+    }
+
+    /**
+     * Encodes the provided profile into the provided buffer, starting at its position and advancing it
+     * past the encoding. The buffer is not modified if the encoding does not fit.
+     *
+     * @param profile the profile
+     * @param target  the buffer
+     * @return the number of bytes written
+     * @throws NullPointerException    if the provided profile or buffer is null
+     * @throws BufferOverflowException if the buffer does not have enough bytes remaining
+     * @throws DateTimeParseException  if a timestamp of the profile is not an ISO-8601 instant
+     */
+    public int encode(GravatarProfile profile, ByteBuffer target) {
+        Preconditions.checkNotNull(profile);
+        Preconditions.checkNotNull(target);
+
+        byte[] encoded = encodeToArray(ImmutableList.of(profile));
+        target.put(encoded);
+        return encoded.length;
+    }
+
+    /**
+     * Decodes one profile from the provided buffer, starting at its position and advancing it past the encoding.
+     *
+     * @param source the buffer
+     * @return the profile
+     * @throws NullPointerException        if the provided buffer is null
+     * @throws GravatarJavaClientException if the encoding is malformed, of another version,
+     *                                     or does not hold exactly one profile
+     */
+    public GravatarProfile decode(ByteBuffer source) {
+        ImmutableList<GravatarProfile> profiles = decodeAll(source);
+        if (profiles.size() != 1) {
+            throw BinaryReader.malformed("expected one profile but found " + profiles.size());
+        }
+        return profiles.get(0);
+    }
+
+    /**
+     * Decodes every profile from the provided buffer, starting at its position and advancing it past the encoding.
+     *
+     * @param source the buffer
+     * @return the profiles
+     * @throws NullPointerException        if the provided buffer is null
+     * @throws GravatarJavaClientException if the encoding is malformed or of another version
+     */
+    public ImmutableList<GravatarProfile> decodeAll(ByteBuffer source) {
+        Preconditions.checkNotNull(source);
+
+        BinaryReader reader = new BinaryReader(source);
+        for (byte magic : MAGIC) {
+            if (reader.readByte() != magic) throw BinaryReader.malformed("missing magic");
+        }
+        int version = reader.readByte();
+        if (version != VERSION) {
+            throw new GravatarJavaClientException("Unsupported profile encoding version: " + version);
+        }
+
+        reader.readStringTable();
+        int count = reader.readCount();
+        ImmutableList.Builder<GravatarProfile> profiles = ImmutableList.builderWithExpectedSize(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                profiles.add(readProfile(reader));
+            }
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw BinaryReader.malformed("invalid value: " + e.getMessage());
+        }
+        return profiles.build();
+    }
+
+    /**
+     * Encodes the provided profiles into a new array.
+     */
+    private static byte[] encodeToArray(ImmutableList<GravatarProfile> profiles) {
+        BinaryWriter writer = new BinaryWriter();
+        writer.writeVarint(profiles.size());
+        for (GravatarProfile profile : profiles) {
+            writeProfile(writer, Preconditions.checkNotNull(profile));
+        }
+        return writer.toByteArray(HEADER);
+    }
+
+    /**
+     * Writes the provided profile.
+     */
+    private static void writeProfile(BinaryWriter writer, GravatarProfile profile) {
+        GravatarProfilePayments payments = profile.getPayments().orElse(null);
+        GravatarProfileContactInfo contactInfo = profile.getContactInfo().orElse(null);
+
+        int flags = 0;
+        if (profile.isOrganization()) flags |= FLAG_ORGANIZATION;
+        if (payments != null) flags |= FLAG_PAYMENTS;
+        if (contactInfo != null) flags |= FLAG_CONTACT_INFO;
+        writer.writeByte(flags);
+
+        writer.writeString(profile.getHash());
+        writer.writeString(profile.getDisplayName());
+        writer.writeString(profile.getProfileUrl());
+        writer.writeString(profile.getAvatarUrl());
+        writer.writeString(profile.getAvatarAltText());
+        writer.writeString(profile.getLocation());
+        writer.writeString(profile.getDescription());
+        writer.writeString(profile.getJobTitle());
+        writer.writeString(profile.getCompany());
+        writer.writeString(profile.getPronunciation());
+        writer.writeString(profile.getPronouns());
+        writer.writeString(profile.getTimezone().orElse(null));
+        writer.writeString(profile.getFirstName().orElse(null));
+        writer.writeString(profile.getLastName().orElse(null));
+
+        writer.writeVarint(profile.getVerifiedAccounts().size());
+        for (GravatarProfileVerifiedAccount account : profile.getVerifiedAccounts()) {
+            writer.writeString(account.getServiceType());
+            writer.writeString(account.getServiceLabel());
+            writer.writeString(account.getServiceIcon());
+            writer.writeString(account.getUrl());
+        }
+
+        writer.writeVarint(profile.getLanguages().size());
+        for (GravatarProfileLanguage language : profile.getLanguages()) {
+            writer.writeString(language.getCode());
+            writer.writeString(language.getName());
+            writer.writeByte(language.isPrimary() ? 1 : 0);
+            writer.writeSignedVarint(language.getOrder());
+        }
+
+        writeUrls(writer, profile.getLinks());
+
+        writer.writeVarint(profile.getInterests().size());
+        for (GravatarProfileInterest interest : profile.getInterests()) {
+            writer.writeSignedVarint(interest.getId());
+            writer.writeString(interest.getName());
+        }
+
+        if (payments != null) {
+            writeUrls(writer, payments.getLinks());
+            writer.writeVarint(payments.getCryptoWallets().size());
+            for (GravatarCryptoWalletAddress wallet : payments.getCryptoWallets()) {
+                writer.writeString(wallet.getLabel());
+                writer.writeString(wallet.getAddress());
+            }
+        }
+
+        if (contactInfo != null) {
+            writer.writeString(contactInfo.getHomePhone());
+            writer.writeString(contactInfo.getWorkPhone());
+            writer.writeString(contactInfo.getCellPhone());
+            writer.writeString(contactInfo.getEmail());
+            writer.writeString(contactInfo.getContactForm());
+            writer.writeString(contactInfo.getCalendar());
+        }
+
+        writer.writeVarint(profile.getGallery().size());
+        for (GravatarProfileGalleryImage image : profile.getGallery()) {
+            writer.writeString(image.getUrl());
+            writer.writeString(image.getAltText());
+        }
+
+        writer.writeSignedVarint(profile.getNumberVerifiedAccounts());
+        writeTimestamp(writer, profile.getLastProfileEdit().orElse(null));
+        writeTimestamp(writer, profile.getRegistrationDate().orElse(null));
+    }
+
+    /**
+     * Writes the provided list of URLs.
+     */
+    private static void writeUrls(BinaryWriter writer, List<GravatarProfileUrl> urls) {
+        writer.writeVarint(urls.size());
+        for (GravatarProfileUrl url : urls) {
+            writer.writeString(url.getLabel());
+            writer.writeString(url.getUrl());
+        }
+    }
+
+    /**
+     * Writes the provided timestamp as epoch seconds, followed by nanoseconds only if it has any.
+     */
+    private static void writeTimestamp(BinaryWriter writer, Instant instant) {
+        if (instant == null) {
+            writer.writeByte(TIMESTAMP_ABSENT);
+        } else if (instant.getNano() == 0) {
+            writer.writeByte(TIMESTAMP_SECONDS);
+            writer.writeSignedVarint(instant.getEpochSecond());
+        } else {
+            writer.writeByte(TIMESTAMP_SECONDS_AND_NANOS);
+            writer.writeSignedVarint(instant.getEpochSecond());
+            writer.writeVarint(instant.getNano());
+        }
+    }
+
+    /**
+     * Reads a profile.
+     */
+    private static GravatarProfile readProfile(BinaryReader reader) {
+        int flags = reader.readByte();
+
+        String hash = reader.readNonNullString();
+        String displayName = reader.readString();
+        String profileUrl = reader.readNonNullString();
+        String avatarUrl = reader.readString();
+        String avatarAltText = reader.readString();
+        String location = reader.readString();
+        String description = reader.readString();
+        String jobTitle = reader.readString();
+        String company = reader.readString();
+        String pronunciation = reader.readString();
+        String pronouns = reader.readString();
+        String timezone = reader.readString();
+        String firstName = reader.readString();
+        String lastName = reader.readString();
+
+        int accountCount = reader.readCount();
+        ImmutableList.Builder<GravatarProfileVerifiedAccount> verifiedAccounts =
+                ImmutableList.builderWithExpectedSize(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            verifiedAccounts.add(new GravatarProfileVerifiedAccount(
+                    reader.readString(), reader.readString(), reader.readString(), reader.readString()));
+        }
+
+        int languageCount = reader.readCount();
+        ImmutableList.Builder<GravatarProfileLanguage> languages = ImmutableList.builderWithExpectedSize(languageCount);
+        for (int i = 0; i < languageCount; i++) {
+            languages.add(new GravatarProfileLanguage(
+                    reader.readString(), reader.readString(), reader.readByte() != 0, reader.readSignedInt()));
+        }
+
+        ImmutableList<GravatarProfileUrl> links = readUrls(reader);
+
+        int interestCount = reader.readCount();
+        ImmutableList.Builder<GravatarProfileInterest> interests = ImmutableList.builderWithExpectedSize(interestCount);
+        for (int i = 0; i < interestCount; i++) {
+            interests.add(new GravatarProfileInterest(reader.readSignedInt(), reader.readString()));
+        }
+
+        GravatarProfilePayments payments = null;
+        if ((flags & FLAG_PAYMENTS) != 0) {
+            ImmutableList<GravatarProfileUrl> paymentLinks = readUrls(reader);
+            int walletCount = reader.readCount();
+            ImmutableList.Builder<GravatarCryptoWalletAddress> wallets = ImmutableList.builderWithExpectedSize(walletCount);
+            for (int i = 0; i < walletCount; i++) {
+                wallets.add(new GravatarCryptoWalletAddress(reader.readString(), reader.readString()));
+            }
+            payments = new GravatarProfilePayments(paymentLinks, wallets.build());
+        }
+
+        GravatarProfileContactInfo contactInfo = null;
+        if ((flags & FLAG_CONTACT_INFO) != 0) {
+            contactInfo = new GravatarProfileContactInfo(reader.readString(), reader.readString(),
+                    reader.readString(), reader.readString(), reader.readString(), reader.readString());
+        }
+
+        int imageCount = reader.readCount();
+        ImmutableList.Builder<GravatarProfileGalleryImage> gallery = ImmutableList.builderWithExpectedSize(imageCount);
+        for (int i = 0; i < imageCount; i++) {
+            gallery.add(new GravatarProfileGalleryImage(reader.readString(), reader.readString()));
+        }
+
+        int numberVerifiedAccounts = reader.readSignedInt();
+        String lastProfileEdit = readTimestamp(reader);
+        String registrationDate = readTimestamp(reader);
+
+        return new GravatarProfile(
+                hash,
+                displayName,
+                profileUrl, avatarUrl, avatarAltText,
+                location,
+                description,
+                jobTitle, company,
+                verifiedAccounts.build(),
+                pronunciation, pronouns,
+                timezone,
+                languages.build(),
+                firstName, lastName,
+                (flags & FLAG_ORGANIZATION) != 0,
+                links, interests.build(), payments,
+                contactInfo,
+                gallery.build(),
+                numberVerifiedAccounts,
+                lastProfileEdit,
+                registrationDate
+        );
+    }
+
+    /**
+     * Reads a list of URLs.
+     */
+    private static ImmutableList<GravatarProfileUrl> readUrls(BinaryReader reader) {
+        int count = reader.readCount();
+        ImmutableList.Builder<GravatarProfileUrl> urls = ImmutableList.builderWithExpectedSize(count);
+        for (int i = 0; i < count; i++) {
+            urls.add(new GravatarProfileUrl(reader.readString(), reader.readString()));
+        }
+        return urls.build();
+    }
+
+    /**
+     * Reads a timestamp and returns it as the text {@link Instant#toString()} produces.
+     */
+    private static String readTimestamp(BinaryReader reader) {
+        int tag = reader.readByte();
+        return switch (tag) {
+            case TIMESTAMP_ABSENT -> null;
+            case TIMESTAMP_SECONDS -> timestampText(reader.readSignedVarint(), 0);
+            case TIMESTAMP_SECONDS_AND_NANOS -> {
+                long seconds = reader.readSignedVarint();
+                long nanos = reader.readVarint();
+                if (nanos >= 1_000_000_000L) throw BinaryReader.malformed("nanoseconds out of range");
+                yield timestampText(seconds, nanos);
+            }
+            default -> throw BinaryReader.malformed("unknown timestamp tag " + tag);
+        };
+    }
+
+    /**
+     * Returns the text of the instant at the provided epoch seconds and nanoseconds,
+     * throwing if the seconds are outside the range of an {@link Instant}.
+     */
+    private static String timestampText(long seconds, long nanos) {
+        if (seconds < Instant.MIN.getEpochSecond() || seconds > Instant.MAX.getEpochSecond()) {
+            throw BinaryReader.malformed("timestamp out of range");
+        }
+        return Instant.ofEpochSecond(seconds, nanos).toString();
+    }
+}
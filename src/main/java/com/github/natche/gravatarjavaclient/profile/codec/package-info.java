@@ -0,0 +1,6 @@
+/**
+ * A compact, versioned binary encoding of
+ * {@link com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile}s
+ * for caching and passing profiles between processes.
+ */
+package com.github.natche.gravatarjavaclient.profile.codec;
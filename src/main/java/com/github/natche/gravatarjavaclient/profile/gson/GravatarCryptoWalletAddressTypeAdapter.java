@@ -0,0 +1,92 @@
+package com.github.natche.gravatarjavaclient.profile.gson;
+
+import com.github.natche.gravatarjavaclient.profile.memory.GravatarStringInterner;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarCryptoWalletAddress;
+import com.google.common.base.Preconditions;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * A streaming type adapter for {@link GravatarCryptoWalletAddress}es.
+ */
+public final class GravatarCryptoWalletAddressTypeAdapter extends TypeAdapter<GravatarCryptoWalletAddress> {
+    /**
+     * The interner of the labels of read crypto wallet addresses.
+     */
+    private final GravatarStringInterner interner;
+
+    /**
+     * Constructs a new GravatarCryptoWalletAddressTypeAdapter which does not intern what it reads.
+     */
+    public GravatarCryptoWalletAddressTypeAdapter() {
+        this(GravatarStringInterner.none());
+    }
+
+    /**
+     * Constructs a new GravatarCryptoWalletAddressTypeAdapter which interns the labels of the crypto wallet addresses it reads.
+     *
+     * @param interner the interner
+     * @throws NullPointerException if the provided interner is null
+     */
+    public GravatarCryptoWalletAddressTypeAdapter(GravatarStringInterner interner) {
+        this.interner = Preconditions.checkNotNull(interner);
+    }
+
+    /**
+     * Writes the provided wallet address.
+     *
+     * @param out    the writer
+     * @param wallet the wallet address
+     * @throws IOException if the wallet address cannot be written
+     */
+    @Override
+    public void write(JsonWriter out, GravatarCryptoWalletAddress wallet) throws IOException {
+        if (wallet == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name("label").value(wallet.getLabel());
+        out.name("address").value(wallet.getAddress());
+        out.endObject();
+    }
+
+    /**
+     * Reads a wallet address, skipping unknown members.
+     *
+     * @param in the reader
+     * @return the wallet address, or null if the next value is a JSON null
+     * @throws IOException                        if the next value is not an object
+     * @throws com.google.gson.JsonParseException if the label or address is missing or empty
+     */
+    @Override
+    public GravatarCryptoWalletAddress read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        String label = null;
+        String address = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "label" -> label = interner.intern(JsonStreams.nextNullableString(in));
+                case "address" -> address = JsonStreams.nextNullableString(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        try {
+            return new GravatarCryptoWalletAddress(label, address);
+        } catch (NullPointerException | IllegalArgumentException e) {
+            throw JsonStreams.invalidEntry("crypto wallet address", e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.natche.gravatarjavaclient.profile.gson;
+
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfileContactInfo;
+import com.google.common.base.Strings;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * A streaming type adapter for {@link GravatarProfileContactInfo}s.
+ */
+public final class GravatarProfileContactInfoTypeAdapter extends TypeAdapter<GravatarProfileContactInfo> {
+    /**
+     * Writes the provided contact info.
+     *
+     * @param out         the writer
+     * @param contactInfo the contact info
+     * @throws IOException if the contact info cannot be written
+     */
+    @Override
+    public void write(JsonWriter out, GravatarProfileContactInfo contactInfo) throws IOException {
+        if (contactInfo == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name("home_phone").value(contactInfo.getHomePhone());
+        out.name("work_phone").value(contactInfo.getWorkPhone());
+        out.name("cell_phone").value(contactInfo.getCellPhone());
+        out.name("email").value(contactInfo.getEmail());
+        out.name("contact_form").value(contactInfo.getContactForm());
+        out.name("calendar").value(contactInfo.getCalendar());
+        out.endObject();
+    }
+
+    /**
+     * Reads contact info, skipping unknown members. The API omits members the user has not filled in;
+     * these are read as empty.
+     *
+     * @param in the reader
+     * @return the contact info, or null if the next value is a JSON null
+     * @throws IOException if the next value is not an object
+     */
+    @Override
+    public GravatarProfileContactInfo read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        String homePhone = null;
+        String workPhone = null;
+        String cellPhone = null;
+        String email = null;
+        String contactForm = null;
+        String calendar = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "home_phone" -> homePhone = JsonStreams.nextNullableString(in);
+                case "work_phone" -> workPhone = JsonStreams.nextNullableString(in);
+                case "cell_phone" -> cellPhone = JsonStreams.nextNullableString(in);
+                case "email" -> email = JsonStreams.nextNullableString(in);
+                case "contact_form" -> contactForm = JsonStreams.nextNullableString(in);
+                case "calendar" -> calendar = JsonStreams.nextNullableString(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        return new GravatarProfileContactInfo(Strings.nullToEmpty(homePhone), Strings.nullToEmpty(workPhone),
+                Strings.nullToEmpty(cellPhone), Strings.nullToEmpty(email),
+                Strings.nullToEmpty(contactForm), Strings.nullToEmpty(calendar));
+    }
+}
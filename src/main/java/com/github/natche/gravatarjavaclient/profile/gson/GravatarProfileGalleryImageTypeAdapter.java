@@ -0,0 +1,69 @@
+package com.github.natche.gravatarjavaclient.profile.gson;
+
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfileGalleryImage;
+import com.google.common.base.Strings;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * A streaming type adapter for {@link GravatarProfileGalleryImage}s.
+ */
+public final class GravatarProfileGalleryImageTypeAdapter extends TypeAdapter<GravatarProfileGalleryImage> {
+    /**
+     * Writes the provided gallery image.
+     *
+     * @param out   the writer
+     * @param image the gallery image
+     * @throws IOException if the gallery image cannot be written
+     */
+    @Override
+    public void write(JsonWriter out, GravatarProfileGalleryImage image) throws IOException {
+        if (image == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name("url").value(image.getUrl());
+        out.name("alt_text").value(image.getAltText());
+        out.endObject();
+    }
+
+    /**
+     * Reads a gallery image, skipping unknown members. Missing alt text is read as empty.
+     *
+     * @param in the reader
+     * @return the gallery image, or null if the next value is a JSON null
+     * @throws IOException                        if the next value is not an object
+     * @throws com.google.gson.JsonParseException if the URL is missing or empty
+     */
+    @Override
+    public GravatarProfileGalleryImage read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        String url = null;
+        String altText = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "url" -> url = JsonStreams.nextNullableString(in);
+                case "alt_text" -> altText = JsonStreams.nextNullableString(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        try {
+            return new GravatarProfileGalleryImage(url, Strings.nullToEmpty(altText));
+        } catch (NullPointerException | IllegalArgumentException e) {
+            throw JsonStreams.invalidEntry("profile gallery image", e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.natche.gravatarjavaclient.profile.gson;
+
+import com.github.natche.gravatarjavaclient.profile.memory.GravatarStringInterner;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfileInterest;
+import com.google.common.base.Preconditions;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * A streaming type adapter for {@link GravatarProfileInterest}s.
+ */
+public final class GravatarProfileInterestTypeAdapter extends TypeAdapter<GravatarProfileInterest> {
+    /**
+     * The interner of the names of read interests.
+     */
+    private final GravatarStringInterner interner;
+
+    /**
+     * Constructs a new GravatarProfileInterestTypeAdapter which does not intern what it reads.
+     */
+    public GravatarProfileInterestTypeAdapter() {
+        this(GravatarStringInterner.none());
+    }
+
+    /**
+     * Constructs a new GravatarProfileInterestTypeAdapter which interns the names of the interests it reads.
+     *
+     * @param interner the interner
+     * @throws NullPointerException if the provided interner is null
+     */
+    public GravatarProfileInterestTypeAdapter(GravatarStringInterner interner) {
+        this.interner = Preconditions.checkNotNull(interner);
+    }
+
+    /**
+     * Writes the provided interest.
+     *
+     * @param out      the writer
+     * @param interest the interest
+     * @throws IOException if the interest cannot be written
+     */
+    @Override
+    public void write(JsonWriter out, GravatarProfileInterest interest) throws IOException {
+        if (interest == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name("id").value(interest.getId());
+        out.name("name").value(interest.getName());
+        out.endObject();
+    }
+
+    /**
+     * Reads an interest, skipping unknown members. A missing ID is read as zero.
+     *
+     * @param in the reader
+     * @return the interest, or null if the next value is a JSON null
+     * @throws IOException                        if the next value is not an object
+     * @throws com.google.gson.JsonParseException if the name is missing or empty
+     */
+    @Override
+    public GravatarProfileInterest read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        int id = 0;
+        String name = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id" -> id = JsonStreams.nextInt(in, 0);
+                case "name" -> name = interner.intern(JsonStreams.nextNullableString(in));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        try {
+            return new GravatarProfileInterest(id, name);
+        } catch (NullPointerException | IllegalArgumentException e) {
+            throw JsonStreams.invalidEntry("profile interest", e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.natche.gravatarjavaclient.profile.gson;
+
+import com.github.natche.gravatarjavaclient.profile.memory.GravatarStringInterner;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfileLanguage;
+import com.google.common.base.Preconditions;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * A streaming type adapter for {@link GravatarProfileLanguage}s.
+ */
+public final class GravatarProfileLanguageTypeAdapter extends TypeAdapter<GravatarProfileLanguage> {
+    /**
+     * The interner of the codes and names of read languages.
+     */
+    private final GravatarStringInterner interner;
+
+    /**
+     * Constructs a new GravatarProfileLanguageTypeAdapter which does not intern what it reads.
+     */
+    public GravatarProfileLanguageTypeAdapter() {
+        this(GravatarStringInterner.none());
+    }
+
+    /**
+     * Constructs a new GravatarProfileLanguageTypeAdapter which interns the codes and names of the languages it reads.
+     *
+     * @param interner the interner
+     * @throws NullPointerException if the provided interner is null
+     */
+    public GravatarProfileLanguageTypeAdapter(GravatarStringInterner interner) {
+        this.interner = Preconditions.checkNotNull(interner);
+    }
+
+    /**
+     * Writes the provided language.
+     *
+     * @param out      the writer
+     * @param language the language
+     * @throws IOException if the language cannot be written
+     */
+    @Override
+    public void write(JsonWriter out, GravatarProfileLanguage language) throws IOException {
+        if (language == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name("code").value(language.getCode());
+        out.name("name").value(language.getName());
+        out.name("is_primary").value(language.isPrimary());
+        out.name("order").value(language.getOrder());
+        out.endObject();
+    }
+
+    /**
+     * Reads a language, skipping unknown members. A missing primary flag is read as false
+     * and a missing order as zero.
+     *
+     * @param in the reader
+     * @return the language, or null if the next value is a JSON null
+     * @throws IOException                        if the next value is not an object
+     * @throws com.google.gson.JsonParseException if the code or name is missing or empty
+     */
+    @Override
+    public GravatarProfileLanguage read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        String code = null;
+        String name = null;
+        boolean isPrimary = false;
+        int order = 0;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "code" -> code = interner.intern(JsonStreams.nextNullableString(in));
+                case "name" -> name = interner.intern(JsonStreams.nextNullableString(in));
+                case "is_primary" -> isPrimary = JsonStreams.nextBoolean(in, false);
+                case "order" -> order = JsonStreams.nextInt(in, 0);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        try {
+            return new GravatarProfileLanguage(code, name, isPrimary, order);
+        } catch (NullPointerException | IllegalArgumentException e) {
+            throw JsonStreams.invalidEntry("profile language", e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.natche.gravatarjavaclient.profile.gson;
+
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarCryptoWalletAddress;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfilePayments;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfileUrl;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * A streaming type adapter for {@link GravatarProfilePayments}.
+ */
+public final class GravatarProfilePaymentsTypeAdapter extends TypeAdapter<GravatarProfilePayments> {
+    /**
+     * The adapter for payment links.
+     */
+    private final TypeAdapter<GravatarProfileUrl> linkAdapter;
+
+    /**
+     * The adapter for crypto wallet addresses.
+     */
+    private final TypeAdapter<GravatarCryptoWalletAddress> walletAdapter;
+
+    /**
+     * Constructs a new GravatarProfilePaymentsTypeAdapter.
+     *
+     * @param linkAdapter   the adapter for payment links
+     * @param walletAdapter the adapter for crypto wallet addresses
+     * @throws NullPointerException if either adapter is null
+     */
+    public GravatarProfilePaymentsTypeAdapter(TypeAdapter<GravatarProfileUrl> linkAdapter,
+                                              TypeAdapter<GravatarCryptoWalletAddress> walletAdapter) {
+        this.linkAdapter = Preconditions.checkNotNull(linkAdapter);
+        this.walletAdapter = Preconditions.checkNotNull(walletAdapter);
+    }
+
+    /**
+     * Writes the provided payments.
+     *
+     * @param out      the writer
+     * @param payments the payments
+     * @throws IOException if the payments cannot be written
+     */
+    @Override
+    public void write(JsonWriter out, GravatarProfilePayments payments) throws IOException {
+        if (payments == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name("links");
+        JsonStreams.writeList(out, payments.getLinks(), linkAdapter);
+        out.name("crypto_wallets");
+        JsonStreams.writeList(out, payments.getCryptoWallets(), walletAdapter);
+        out.endObject();
+    }
+
+    /**
+     * Reads payments, skipping unknown members. Missing lists are read as empty.
+     *
+     * @param in the reader
+     * @return the payments, or null if the next value is a JSON null
+     * @throws IOException if the next value is not an object
+     */
+    @Override
+    public GravatarProfilePayments read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        ImmutableList<GravatarProfileUrl> links = ImmutableList.of();
+        ImmutableList<GravatarCryptoWalletAddress> cryptoWallets = ImmutableList.of();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "links" -> links = JsonStreams.readList(in, linkAdapter);
+                case "crypto_wallets" -> cryptoWallets = JsonStreams.readList(in, walletAdapter);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        return new GravatarProfilePayments(links, cryptoWallets);
+    }
+}
@@ -0,0 +1,293 @@
+package com.github.natche.gravatarjavaclient.profile.gson;
+
+import com.github.natche.gravatarjavaclient.profile.memory.GravatarStringInterner;
+import com.github.natche.gravatarjavaclient.profile.serialization.*;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.Instant;
+
+/**
+ * A streaming type adapter for {@link GravatarProfile}s.
+ * <p>
+ * Profiles are read member by member from a {@link JsonReader} without building a
+ * {@link com.google.gson.JsonElement} tree, and nested objects are read by their own adapters
+ * rather than by reflection. Unknown members are skipped and JSON nulls are read as absent.
+ * Profiles are written with the same member names and order as the API returns them.
+ */
+public final class GravatarProfileTypeAdapter extends TypeAdapter<GravatarProfile> {
+    /**
+     * The adapter for verified accounts.
+     */
+    private final TypeAdapter<GravatarProfileVerifiedAccount> verifiedAccountAdapter;
+
+    /**
+     * The adapter for languages.
+     */
+    private final TypeAdapter<GravatarProfileLanguage> languageAdapter;
+
+    /**
+     * The adapter for links.
+     */
+    private final TypeAdapter<GravatarProfileUrl> linkAdapter;
+
+    /**
+     * The adapter for interests.
+     */
+    private final TypeAdapter<GravatarProfileInterest> interestAdapter;
+
+    /**
+     * The adapter for payments.
+     */
+    private final TypeAdapter<GravatarProfilePayments> paymentsAdapter;
+
+    /**
+     * The adapter for contact info.
+     */
+    private final TypeAdapter<GravatarProfileContactInfo> contactInfoAdapter;
+
+    /**
+     * The adapter for gallery images.
+     */
+    private final TypeAdapter<GravatarProfileGalleryImage> galleryImageAdapter;
+
+    /**
+     * The interner of the pronouns and timezones of read profiles.
+     */
+    private final GravatarStringInterner interner;
+
+    /**
+     * Whether read profiles hold whole-second timestamps as epoch seconds.
+     */
+    private final boolean epochTimestamps;
+
+    /**
+     * Constructs a new GravatarProfileTypeAdapter.
+     *
+     * @param verifiedAccountAdapter the adapter for verified accounts
+     * @param languageAdapter        the adapter for languages
+     * @param linkAdapter            the adapter for links
+     * @param interestAdapter        the adapter for interests
+     * @param paymentsAdapter        the adapter for payments
+     * @param contactInfoAdapter     the adapter for contact info
+     * @param galleryImageAdapter    the adapter for gallery images
+     * @throws NullPointerException if any adapter is null
+     */
+    public GravatarProfileTypeAdapter(TypeAdapter<GravatarProfileVerifiedAccount> verifiedAccountAdapter,
+                                      TypeAdapter<GravatarProfileLanguage> languageAdapter,
+                                      TypeAdapter<GravatarProfileUrl> linkAdapter,
+                                      TypeAdapter<GravatarProfileInterest> interestAdapter,
+                                      TypeAdapter<GravatarProfilePayments> paymentsAdapter,
+                                      TypeAdapter<GravatarProfileContactInfo> contactInfoAdapter,
+                                      TypeAdapter<GravatarProfileGalleryImage> galleryImageAdapter) {
+        this(verifiedAccountAdapter, languageAdapter, linkAdapter, interestAdapter,
+                paymentsAdapter, contactInfoAdapter, galleryImageAdapter, GravatarStringInterner.none(), false);
+    }
+
+    /**
+     * Constructs a new GravatarProfileTypeAdapter which interns the pronouns and timezones of the profiles it reads.
+     * Strings within nested objects are interned by the adapters of those objects. Read profiles also hold
+     * whole-second timestamps as epoch seconds; see {@link GravatarProfile#withEpochTimestamps()}.
+     *
+     * @param verifiedAccountAdapter the adapter for verified accounts
+     * @param languageAdapter        the adapter for languages
+     * @param linkAdapter            the adapter for links
+     * @param interestAdapter        the adapter for interests
+     * @param paymentsAdapter        the adapter for payments
+     * @param contactInfoAdapter     the adapter for contact info
+     * @param galleryImageAdapter    the adapter for gallery images
+     * @param interner               the interner
+     * @throws NullPointerException if any adapter or the interner is null
+     */
+    public GravatarProfileTypeAdapter(TypeAdapter<GravatarProfileVerifiedAccount> verifiedAccountAdapter,
+                                      TypeAdapter<GravatarProfileLanguage> languageAdapter,
+                                      TypeAdapter<GravatarProfileUrl> linkAdapter,
+                                      TypeAdapter<GravatarProfileInterest> interestAdapter,
+                                      TypeAdapter<GravatarProfilePayments> paymentsAdapter,
+                                      TypeAdapter<GravatarProfileContactInfo> contactInfoAdapter,
+                                      TypeAdapter<GravatarProfileGalleryImage> galleryImageAdapter,
+                                      GravatarStringInterner interner) {
+        this(verifiedAccountAdapter, languageAdapter, linkAdapter, interestAdapter,
+                paymentsAdapter, contactInfoAdapter, galleryImageAdapter, interner, true);
+    }
+
+    /**
+     * Constructs a new GravatarProfileTypeAdapter.
+     */
+    private GravatarProfileTypeAdapter(TypeAdapter<GravatarProfileVerifiedAccount> verifiedAccountAdapter,
+                                       TypeAdapter<GravatarProfileLanguage> languageAdapter,
+                                       TypeAdapter<GravatarProfileUrl> linkAdapter,
+                                       TypeAdapter<GravatarProfileInterest> interestAdapter,
+                                       TypeAdapter<GravatarProfilePayments> paymentsAdapter,
+                                       TypeAdapter<GravatarProfileContactInfo> contactInfoAdapter,
+                                       TypeAdapter<GravatarProfileGalleryImage> galleryImageAdapter,
+                                       GravatarStringInterner interner,
+                                       boolean epochTimestamps) {
+        this.verifiedAccountAdapter = Preconditions.checkNotNull(verifiedAccountAdapter);
+        this.languageAdapter = Preconditions.checkNotNull(languageAdapter);
+        this.linkAdapter = Preconditions.checkNotNull(linkAdapter);
+        this.interestAdapter = Preconditions.checkNotNull(interestAdapter);
+        this.paymentsAdapter = Preconditions.checkNotNull(paymentsAdapter);
+        this.contactInfoAdapter = Preconditions.checkNotNull(contactInfoAdapter);
+        this.galleryImageAdapter = Preconditions.checkNotNull(galleryImageAdapter);
+        this.interner = Preconditions.checkNotNull(interner);
+        this.epochTimestamps = epochTimestamps;
+    }
+
+    /**
+     * Writes the provided profile. Absent members are written as nulls, which the writer omits
+     * unless it serializes nulls.
+     *
+     * @param out     the writer
+     * @param profile the profile
+     * @throws IOException if the profile cannot be written
+     */
+    @Override
+    public void write(JsonWriter out, GravatarProfile profile) throws IOException {
+        if (profile == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name("hash").value(profile.getHash());
+        out.name("display_name").value(profile.getDisplayName());
+        out.name("profile_url").value(profile.getProfileUrl());
+        out.name("avatar_url").value(profile.getAvatarUrl());
+        out.name("avatar_alt_text").value(profile.getAvatarAltText());
+        out.name("location").value(profile.getLocation());
+        out.name("description").value(profile.getDescription());
+        out.name("job_title").value(profile.getJobTitle());
+        out.name("company").value(profile.getCompany());
+        out.name("verified_accounts");
+        JsonStreams.writeList(out, profile.getVerifiedAccounts(), verifiedAccountAdapter);
+        out.name("pronunciation").value(profile.getPronunciation());
+        out.name("pronouns").value(profile.getPronouns());
+        out.name("timezone").value(profile.getTimezone().orElse(null));
+        out.name("languages");
+        JsonStreams.writeList(out, profile.getLanguages(), languageAdapter);
+        out.name("first_name").value(profile.getFirstName().orElse(null));
+        out.name("last_name").value(profile.getLastName().orElse(null));
+        out.name("is_organization").value(profile.isOrganization());
+        out.name("links");
+        JsonStreams.writeList(out, profile.getLinks(), linkAdapter);
+        out.name("interests");
+        JsonStreams.writeList(out, profile.getInterests(), interestAdapter);
+        out.name("payments");
+        paymentsAdapter.write(out, profile.getPayments().orElse(null));
+        out.name("contact_info");
+        contactInfoAdapter.write(out, profile.getContactInfo().orElse(null));
+        out.name("gallery");
+        JsonStreams.writeList(out, profile.getGallery(), galleryImageAdapter);
+        out.name("number_verified_accounts").value(profile.getNumberVerifiedAccounts());
+        out.name("last_profile_edit").value(profile.getLastProfileEdit().map(Instant::toString).orElse(null));
+        out.name("registration_date").value(profile.getRegistrationDate().map(Instant::toString).orElse(null));
+        out.endObject();
+    }
+
+    /**
+     * Reads a profile.
+     *
+     * @param in the reader
+     * @return the profile, or null if the next value is a JSON null
+     * @throws IOException        if the JSON is malformed or a member has the wrong type
+     * @throws JsonParseException if the hash or profile URL is missing
+     */
+    @Override
+    public GravatarProfile read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        String hash = null;
+        String displayName = null;
+        String profileUrl = null;
+        String avatarUrl = null;
+        String avatarAltText = null;
+        String location = null;
+        String description = null;
+        String jobTitle = null;
+        String company = null;
+        ImmutableList<GravatarProfileVerifiedAccount> verifiedAccounts = ImmutableList.of();
+        String pronunciation = null;
+        String pronouns = null;
+        String timezone = null;
+        ImmutableList<GravatarProfileLanguage> languages = ImmutableList.of();
+        String firstName = null;
+        String lastName = null;
+        boolean isOrganization = false;
+        ImmutableList<GravatarProfileUrl> links = ImmutableList.of();
+        ImmutableList<GravatarProfileInterest> interests = ImmutableList.of();
+        GravatarProfilePayments payments = null;
+        GravatarProfileContactInfo contactInfo = null;
+        ImmutableList<GravatarProfileGalleryImage> gallery = ImmutableList.of();
+        int numberVerifiedAccounts = 0;
+        String lastProfileEdit = null;
+        String registrationDate = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "hash" -> hash = JsonStreams.nextNullableString(in);
+                case "display_name" -> displayName = JsonStreams.nextNullableString(in);
+                case "profile_url" -> profileUrl = JsonStreams.nextNullableString(in);
+                case "avatar_url" -> avatarUrl = JsonStreams.nextNullableString(in);
+                case "avatar_alt_text" -> avatarAltText = JsonStreams.nextNullableString(in);
+                case "location" -> location = JsonStreams.nextNullableString(in);
+                case "description" -> description = JsonStreams.nextNullableString(in);
+                case "job_title" -> jobTitle = JsonStreams.nextNullableString(in);
+                case "company" -> company = JsonStreams.nextNullableString(in);
+                case "verified_accounts" -> verifiedAccounts = JsonStreams.readList(in, verifiedAccountAdapter);
+                case "pronunciation" -> pronunciation = JsonStreams.nextNullableString(in);
+                case "pronouns" -> pronouns = interner.intern(JsonStreams.nextNullableString(in));
+                case "timezone" -> timezone = interner.intern(JsonStreams.nextNullableString(in));
+                case "languages" -> languages = JsonStreams.readList(in, languageAdapter);
+                case "first_name" -> firstName = JsonStreams.nextNullableString(in);
+                case "last_name" -> lastName = JsonStreams.nextNullableString(in);
+                case "is_organization" -> isOrganization = JsonStreams.nextBoolean(in, false);
+                case "links" -> links = JsonStreams.readList(in, linkAdapter);
+                case "interests" -> interests = JsonStreams.readList(in, interestAdapter);
+                case "payments" -> payments = paymentsAdapter.read(in);
+                case "contact_info" -> contactInfo = contactInfoAdapter.read(in);
+                case "gallery" -> gallery = JsonStreams.readList(in, galleryImageAdapter);
+                case "number_verified_accounts" -> numberVerifiedAccounts = JsonStreams.nextInt(in, 0);
+                case "last_profile_edit" -> lastProfileEdit = JsonStreams.nextNullableString(in);
+                case "registration_date" -> registrationDate = JsonStreams.nextNullableString(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        if (hash == null) throw new JsonParseException("Profile is missing its hash");
+        if (profileUrl == null) throw new JsonParseException("Profile is missing its profile URL");
+
+        GravatarProfile profile = new GravatarProfile(
+                hash,
+                displayName,
+                profileUrl, avatarUrl, avatarAltText,
+                location,
+                description,
+                jobTitle, company,
+                verifiedAccounts,
+                pronunciation, pronouns,
+                timezone,
+                languages,
+                firstName, lastName,
+                isOrganization,
+                links, interests, payments,
+                contactInfo,
+                gallery,
+                numberVerifiedAccounts,
+                lastProfileEdit,
+                registrationDate
+        );
+        return epochTimestamps ? profile.withEpochTimestamps() : profile;
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.natche.gravatarjavaclient.profile.gson;
+
+import com.github.natche.gravatarjavaclient.profile.memory.GravatarStringInterner;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfileUrl;
+import com.google.common.base.Preconditions;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * A streaming type adapter for {@link GravatarProfileUrl}s.
+ */
+public final class GravatarProfileUrlTypeAdapter extends TypeAdapter<GravatarProfileUrl> {
+    /**
+     * The interner of the labels of read URLs.
+     */
+    private final GravatarStringInterner interner;
+
+    /**
+     * Constructs a new GravatarProfileUrlTypeAdapter which does not intern what it reads.
+     */
+    public GravatarProfileUrlTypeAdapter() {
+        this(GravatarStringInterner.none());
+    }
+
+    /**
+     * Constructs a new GravatarProfileUrlTypeAdapter which interns the labels of the URLs it reads.
+     *
+     * @param interner the interner
+     * @throws NullPointerException if the provided interner is null
+     */
+    public GravatarProfileUrlTypeAdapter(GravatarStringInterner interner) {
+        this.interner = Preconditions.checkNotNull(interner);
+    }
+
+    /**
+     * Writes the provided link.
+     *
+     * @param out  the writer
+     * @param link the link
+     * @throws IOException if the link cannot be written
+     */
+    @Override
+    public void write(JsonWriter out, GravatarProfileUrl link) throws IOException {
+        if (link == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name("label").value(link.getLabel());
+        out.name("value").value(link.getUrl());
+        out.endObject();
+    }
+
+    /**
+     * Reads a link, skipping unknown members.
+     *
+     * @param in the reader
+     * @return the link, or null if the next value is a JSON null
+     * @throws IOException                        if the next value is not an object
+     * @throws com.google.gson.JsonParseException if the label or URL is missing or empty
+     */
+    @Override
+    public GravatarProfileUrl read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        String label = null;
+        String url = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "label" -> label = interner.intern(JsonStreams.nextNullableString(in));
+                case "value" -> url = JsonStreams.nextNullableString(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        try {
+            return new GravatarProfileUrl(label, url);
+        } catch (NullPointerException | IllegalArgumentException e) {
+            throw JsonStreams.invalidEntry("profile URL", e);
+        }
+    }
+}
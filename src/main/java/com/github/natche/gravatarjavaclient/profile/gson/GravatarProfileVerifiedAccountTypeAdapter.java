@@ -0,0 +1,95 @@
+package com.github.natche.gravatarjavaclient.profile.gson;
+
+import com.github.natche.gravatarjavaclient.profile.memory.GravatarStringInterner;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfileVerifiedAccount;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * A streaming type adapter for {@link GravatarProfileVerifiedAccount}s.
+ */
+public final class GravatarProfileVerifiedAccountTypeAdapter extends TypeAdapter<GravatarProfileVerifiedAccount> {
+    /**
+     * The interner of the service types, labels, and icons of read verified accounts.
+     */
+    private final GravatarStringInterner interner;
+
+    /**
+     * Constructs a new GravatarProfileVerifiedAccountTypeAdapter which does not intern what it reads.
+     */
+    public GravatarProfileVerifiedAccountTypeAdapter() {
+        this(GravatarStringInterner.none());
+    }
+
+    /**
+     * Constructs a new GravatarProfileVerifiedAccountTypeAdapter which interns the service types, labels, and icons of the verified accounts it reads.
+     *
+     * @param interner the interner
+     * @throws NullPointerException if the provided interner is null
+     */
+    public GravatarProfileVerifiedAccountTypeAdapter(GravatarStringInterner interner) {
+        this.interner = Preconditions.checkNotNull(interner);
+    }
+
+    /**
+     * Writes the provided verified account.
+     *
+     * @param out     the writer
+     * @param account the verified account
+     * @throws IOException if the verified account cannot be written
+     */
+    @Override
+    public void write(JsonWriter out, GravatarProfileVerifiedAccount account) throws IOException {
+        if (account == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name("service_type").value(account.getServiceType());
+        out.name("service_label").value(account.getServiceLabel());
+        out.name("service_icon").value(account.getServiceIcon());
+        out.name("url").value(account.getUrl());
+        out.endObject();
+    }
+
+    /**
+     * Reads a verified account, skipping unknown members. Missing members are read as empty.
+     *
+     * @param in the reader
+     * @return the verified account, or null if the next value is a JSON null
+     * @throws IOException if the next value is not an object
+     */
+    @Override
+    public GravatarProfileVerifiedAccount read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        String serviceType = null;
+        String serviceLabel = null;
+        String serviceIcon = null;
+        String url = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "service_type" -> serviceType = interner.intern(JsonStreams.nextNullableString(in));
+                case "service_label" -> serviceLabel = interner.intern(JsonStreams.nextNullableString(in));
+                case "service_icon" -> serviceIcon = interner.intern(JsonStreams.nextNullableString(in));
+                case "url" -> url = JsonStreams.nextNullableString(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        return new GravatarProfileVerifiedAccount(Strings.nullToEmpty(serviceType), Strings.nullToEmpty(serviceLabel),
+                Strings.nullToEmpty(serviceIcon), Strings.nullToEmpty(url));
+    }
+}
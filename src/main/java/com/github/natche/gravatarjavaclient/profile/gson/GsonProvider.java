@@ -1,9 +1,12 @@
 package com.github.natche.gravatarjavaclient.profile.gson;
 
-import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile;
+import com.github.natche.gravatarjavaclient.profile.memory.GravatarStringInterner;
+import com.github.natche.gravatarjavaclient.profile.serialization.*;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
 
 /**
  * A singleton for providing a common shared {@link Gson} instance
@@ -20,11 +23,20 @@ public enum GsonProvider {
      */
     private final Gson gson;
 
+    /**
+     * The interner shared by the gson object which interns repeated values.
+     */
+    private final GravatarStringInterner interner;
+
+    /**
+     * The encapsulated gson object which interns repeated values.
+     */
+    private final Gson interningGson;
+
     GsonProvider() {
-        gson = new GsonBuilder()
-                .registerTypeAdapter(ImmutableList.class, new ImmutableListDeserializer())
-                .registerTypeAdapter(GravatarProfile.class, new GravatarProfileDeserializer())
-                .create();
+        gson = build(GravatarStringInterner.none(), false);
+        interner = GravatarStringInterner.create();
+        interningGson = build(interner, true);
     }
 
     /**
@@ -35,4 +47,73 @@ public enum GsonProvider {
     public Gson get() {
         return gson;
     }
+
+    /**
+     * Returns a Gson object which reads profiles as {@link #get()} does, except that low-cardinality strings
+     * such as verified account services, language codes, interest names, and link labels are interned through
+     * a shared interner of the default capacity, and whole-second timestamps are held as epoch seconds rather
+     * than text. Profiles read by it share one instance of each such value, which suits keeping many profiles
+     * resident. Profiles are written the same by both Gson objects.
+     *
+     * @return the Gson object which interns repeated values
+     */
+    public Gson getInterning() {
+        return interningGson;
+    }
+
+    /**
+     * Returns the interner shared by {@link #getInterning()}.
+     *
+     * @return the interner shared by the interning Gson object
+     */
+    public GravatarStringInterner getInterner() {
+        return interner;
+    }
+
+    /**
+     * Returns a new Gson object which reads profiles as {@link #getInterning()} does, interning low-cardinality
+     * strings through the provided interner.
+     *
+     * @param interner the interner
+     * @return a new Gson object
+     * @throws NullPointerException if the provided interner is null
+     */
+    public Gson create(GravatarStringInterner interner) {
+        Preconditions.checkNotNull(interner);
+        return build(interner, true);
+    }
+
+    /**
+     * Builds a Gson object interning through the provided interner, and holding
+     * timestamps of read profiles as epoch seconds if requested.
+     */
+    private static Gson build(GravatarStringInterner interner, boolean epochTimestamps) {
+        TypeAdapter<GravatarProfileVerifiedAccount> verifiedAccountAdapter =
+                new GravatarProfileVerifiedAccountTypeAdapter(interner);
+        TypeAdapter<GravatarProfileLanguage> languageAdapter = new GravatarProfileLanguageTypeAdapter(interner);
+        TypeAdapter<GravatarProfileUrl> linkAdapter = new GravatarProfileUrlTypeAdapter(interner);
+        TypeAdapter<GravatarProfileInterest> interestAdapter = new GravatarProfileInterestTypeAdapter(interner);
+        TypeAdapter<GravatarCryptoWalletAddress> walletAdapter = new GravatarCryptoWalletAddressTypeAdapter(interner);
+        TypeAdapter<GravatarProfilePayments> paymentsAdapter =
+                new GravatarProfilePaymentsTypeAdapter(linkAdapter, walletAdapter);
+        TypeAdapter<GravatarProfileContactInfo> contactInfoAdapter = new GravatarProfileContactInfoTypeAdapter();
+        TypeAdapter<GravatarProfileGalleryImage> galleryImageAdapter = new GravatarProfileGalleryImageTypeAdapter();
+
+        return new GsonBuilder()
+                .registerTypeAdapter(ImmutableList.class, new ImmutableListDeserializer())
+                .registerTypeAdapter(GravatarProfileVerifiedAccount.class, verifiedAccountAdapter)
+                .registerTypeAdapter(GravatarProfileLanguage.class, languageAdapter)
+                .registerTypeAdapter(GravatarProfileUrl.class, linkAdapter)
+                .registerTypeAdapter(GravatarProfileInterest.class, interestAdapter)
+                .registerTypeAdapter(GravatarCryptoWalletAddress.class, walletAdapter)
+                .registerTypeAdapter(GravatarProfilePayments.class, paymentsAdapter)
+                .registerTypeAdapter(GravatarProfileContactInfo.class, contactInfoAdapter)
+                .registerTypeAdapter(GravatarProfileGalleryImage.class, galleryImageAdapter)
+                .registerTypeAdapter(GravatarProfile.class, epochTimestamps
+                        ? new GravatarProfileTypeAdapter(verifiedAccountAdapter, languageAdapter, linkAdapter,
+                        interestAdapter, paymentsAdapter, contactInfoAdapter, galleryImageAdapter, interner)
+                        : new GravatarProfileTypeAdapter(verifiedAccountAdapter, languageAdapter, linkAdapter,
+                        interestAdapter, paymentsAdapter, contactInfoAdapter, galleryImageAdapter))
+                .create();
+    }
 }
@@ -0,0 +1,150 @@
+package com.github.natche.gravatarjavaclient.profile.gson;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Helpers shared by the streaming type adapters of the profile graph and the readers built on them.
+ */
+public final class JsonStreams {
+    private JsonStreams() {}
+
+    /**
+     * Reads a string, or returns null if the next value is a JSON null.
+     * Numbers and booleans are read as their literal text.
+     *
+     * @param in the reader
+     * @return the string or null
+     * @throws IOException if the next value is not a string, number, boolean, or null
+     */
+    public static String nextNullableString(JsonReader in) throws IOException {
+        return switch (in.peek()) {
+            case NULL -> {
+                in.nextNull();
+                yield null;
+            }
+            case BOOLEAN -> String.valueOf(in.nextBoolean());
+            default -> in.nextString();
+        };
+    }
+
+    /**
+     * Reads an int, or returns the provided default if the next value is a JSON null.
+     *
+     * @param in           the reader
+     * @param defaultValue the value returned for a JSON null
+     * @return the int
+     * @throws IOException if the next value is not an int or null
+     */
+    public static int nextInt(JsonReader in, int defaultValue) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return defaultValue;
+        }
+        return in.nextInt();
+    }
+
+    /**
+     * Reads a boolean, or returns the provided default if the next value is a JSON null.
+     *
+     * @param in           the reader
+     * @param defaultValue the value returned for a JSON null
+     * @return the boolean
+     * @throws IOException if the next value is not a boolean or null
+     */
+    public static boolean nextBoolean(JsonReader in, boolean defaultValue) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return defaultValue;
+        }
+        return in.nextBoolean();
+    }
+
+    /**
+     * Reads an array using the provided element adapter. A JSON null is read as an empty list.
+     * Elements the adapter reads as null, or rejects with a {@link JsonParseException} after consuming them,
+     * are skipped so that one malformed entry does not discard the rest of a profile.
+     *
+     * @param in      the reader
+     * @param adapter the element adapter
+     * @param <T>     the element type
+     * @return the elements
+     * @throws IOException if the next value is not an array or null
+     */
+    public static <T> ImmutableList<T> readList(JsonReader in, TypeAdapter<T> adapter) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return ImmutableList.of();
+        }
+
+        ImmutableList.Builder<T> builder = ImmutableList.builder();
+        in.beginArray();
+        while (in.hasNext()) {
+            T element;
+            try {
+                element = adapter.read(in);
+            } catch (InvalidEntryException e) {
+                continue;
+            }
+            if (element != null) builder.add(element);
+        }
+        in.endArray();
+        return builder.build();
+    }
+
+    /**
+     * Writes the provided list as an array using the provided element adapter.
+     *
+     * @param out     the writer
+     * @param list    the list
+     * @param adapter the element adapter
+     * @param <T>     the element type
+     * @throws IOException if the list cannot be written
+     */
+    public static <T> void writeList(JsonWriter out, List<T> list, TypeAdapter<T> adapter) throws IOException {
+        out.beginArray();
+        for (T element : list) {
+            adapter.write(out, element);
+        }
+        out.endArray();
+    }
+
+    /**
+     * Creates the exception thrown when a fully consumed object cannot be constructed from the values read.
+     *
+     * @param type      the name of the type being read
+     * @param exception the exception thrown by the type's constructor
+     * @return the exception
+     */
+    static JsonParseException invalidEntry(String type, RuntimeException exception) {
+        return new InvalidEntryException("Invalid " + type, exception);
+    }
+
+    /**
+     * Thrown when an object was fully consumed but its values were rejected by the constructor of its type,
+     * leaving the reader positioned after the object.
+     */
+    static final class InvalidEntryException extends JsonParseException {
+        /**
+         * The serial version UID of this exception.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Constructs a new InvalidEntryException.
+         *
+         * @param message the message
+         * @param cause   the exception thrown by the constructor
+         */
+        InvalidEntryException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -1,7 +1,7 @@
 /**
  * Classes related to {@link com.google.gson.Gson} serialization.
  * In particular, serialization to {@link com.google.common.collect.ImmutableList}s
- * instead of lists/array lists and custom handling of serialization for
- * {@link com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile}s.
+ * instead of lists/array lists and streaming type adapters for
+ * {@link com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile}s and their nested types.
  */
 package com.github.natche.gravatarjavaclient.profile.gson;
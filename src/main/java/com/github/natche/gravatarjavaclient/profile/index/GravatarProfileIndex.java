@@ -0,0 +1,323 @@
+package com.github.natche.gravatarjavaclient.profile.index;
+
+import com.github.natche.gravatarjavaclient.enums.GravatarProfileIndexField;
+import com.github.natche.gravatarjavaclient.profile.GravatarProfileCache;
+import com.github.natche.gravatarjavaclient.profile.GravatarProfileCacheListener;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfileInterest;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfileLanguage;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfileVerifiedAccount;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+/**
+ * An inverted index of profiles by verified account service type, company, location, language code,
+ * and interest, answering {@link GravatarProfileQuery}s without scanning every profile.
+ * <p>
+ * Each indexed profile is given a small integer ID, and each value of each field maps to the compressed set of
+ * IDs of the profiles having it, so a query is answered by intersecting and uniting those sets. An index attached
+ * to a {@link GravatarProfileCache} is kept up to date as the cache stores, replaces, evicts, and invalidates
+ * profiles; profiles may also be added and removed directly by key. It is safe for use by multiple threads.
+ */
+public final class GravatarProfileIndex implements GravatarProfileCacheListener {
+    /**
+     * The ID of each indexed key.
+     */
+    private final HashMap<String, Integer> ids = new HashMap<>();
+
+    /**
+     * The profile of each ID, or null if the ID is free.
+     */
+    private GravatarProfile[] profiles = new GravatarProfile[16];
+
+    /**
+     * The IDs freed by removed profiles, reused before new IDs are allocated.
+     */
+    private final ArrayDeque<Integer> freeIds = new ArrayDeque<>();
+
+    /**
+     * The next ID never allocated.
+     */
+    private int nextId;
+
+    /**
+     * The IDs of the profiles having each value, by field.
+     */
+    private final EnumMap<GravatarProfileIndexField, HashMap<String, PostingList>> postings =
+            new EnumMap<>(GravatarProfileIndexField.class);
+
+    /**
+     * The lock guarding the state of this index.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private GravatarProfileIndex() {
+        for (GravatarProfileIndexField field : GravatarProfileIndexField.values()) {
+            postings.put(field, new HashMap<>());
+        }
+    }
+
+    /**
+     * Constructs a new, empty index.
+     *
+     * @return a new index
+     */
+    public static GravatarProfileIndex create() {
+        return new GravatarProfileIndex();
+    }
+
+    /**
+     * Constructs a new index of the profiles held by the provided cache, kept up to date as they change.
+     *
+     * @param cache the cache
+     * @return a new index
+     * @throws NullPointerException if the provided cache is null
+     */
+    public static GravatarProfileIndex attach(GravatarProfileCache cache) {
+        Preconditions.checkNotNull(cache);
+
+        GravatarProfileIndex index = new GravatarProfileIndex();
+        cache.addListener(index);
+        return index;
+    }
+
+    /**
+     * Indexes the provided profile under the provided key, replacing any profile already indexed under it.
+     *
+     * @param key     the key
+     * @param profile the profile
+     * @throws NullPointerException if either argument is null
+     */
+    @Override
+    public void onStore(String key, GravatarProfile profile) {
+        Preconditions.checkNotNull(key);
+        Preconditions.checkNotNull(profile);
+
+        lock.writeLock().lock();
+        try {
+            Integer existing = ids.get(key);
+            int id;
+            if (existing != null) {
+                id = existing;
+                if (profiles[id].equals(profile)) return;
+                forEachValue(profiles[id], (field, value) -> removePosting(field, value, id));
+            } else {
+                id = allocateId();
+                ids.put(key, id);
+            }
+
+            profiles[id] = profile;
+            forEachValue(profile, (field, value) ->
+                    postings.get(field).computeIfAbsent(value, ignored -> new PostingList()).add(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the profile indexed under the provided key, if present.
+     *
+     * @param key the key
+     * @throws NullPointerException if the provided key is null
+     */
+    @Override
+    public void onRemove(String key) {
+        Preconditions.checkNotNull(key);
+
+        lock.writeLock().lock();
+        try {
+            Integer id = ids.remove(key);
+            if (id == null) return;
+
+            forEachValue(profiles[id], (field, value) -> removePosting(field, value, id));
+            profiles[id] = null;
+            freeIds.push(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the profiles matched by the provided query.
+     *
+     * @param query the query
+     * @return the profiles matched by the provided query
+     * @throws NullPointerException if the provided query is null
+     */
+    public ImmutableList<GravatarProfile> find(GravatarProfileQuery query) {
+        Preconditions.checkNotNull(query);
+
+        lock.readLock().lock();
+        try {
+            ImmutableList.Builder<GravatarProfile> builder = ImmutableList.builder();
+            evaluate(query).forEach(id -> builder.add(profiles[id]));
+            return builder.build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of profiles matched by the provided query.
+     *
+     * @param query the query
+     * @return the number of profiles matched by the provided query
+     * @throws NullPointerException if the provided query is null
+     */
+    public int count(GravatarProfileQuery query) {
+        Preconditions.checkNotNull(query);
+
+        lock.readLock().lock();
+        try {
+            return evaluate(query).cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of profiles indexed.
+     *
+     * @return the number of profiles indexed
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ids.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of distinct values indexed for the provided field.
+     *
+     * @param field the field
+     * @return the number of distinct values indexed for the provided field
+     * @throws NullPointerException if the provided field is null
+     */
+    public int getValueCount(GravatarProfileIndexField field) {
+        Preconditions.checkNotNull(field);
+
+        lock.readLock().lock();
+        try {
+            return postings.get(field).size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the IDs matched by the provided query. Terms return the indexed posting list itself, so callers
+     * must hold the read lock and must not modify the result.
+     */
+    private PostingList evaluate(GravatarProfileQuery query) {
+        if (query.getField() != null) {
+            PostingList posting = postings.get(query.getField()).get(query.getValue());
+            return posting != null ? posting : new PostingList();
+        }
+
+        List<PostingList> operands = new ArrayList<>(query.getOperands().size());
+        for (GravatarProfileQuery operand : query.getOperands()) {
+            operands.add(evaluate(operand));
+        }
+
+        if (query.isConjunction()) {
+            // Intersecting the smallest lists first keeps every intermediate result small
+            operands.sort(Comparator.comparingInt(PostingList::cardinality));
+            PostingList result = operands.get(0);
+            for (int i = 1; i < operands.size() && !result.isEmpty(); i++) {
+                result = PostingList.and(result, operands.get(i));
+            }
+            return result;
+        }
+
+        PostingList result = operands.get(0);
+        for (int i = 1; i < operands.size(); i++) {
+            result = PostingList.or(result, operands.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Returns a free ID, growing the profiles if every ID is in use. Callers must hold the write lock.
+     */
+    private int allocateId() {
+        if (!freeIds.isEmpty()) return freeIds.pop();
+
+        if (nextId == profiles.length) profiles = Arrays.copyOf(profiles, nextId * 2);
+        return nextId++;
+    }
+
+    /**
+     * Removes the provided ID from the posting list of the provided value, dropping the list once it is empty.
+     * Callers must hold the write lock.
+     */
+    private void removePosting(GravatarProfileIndexField field, String value, int id) {
+        Map<String, PostingList> values = postings.get(field);
+        PostingList posting = values.get(value);
+        if (posting != null && posting.remove(id) && posting.isEmpty()) values.remove(value);
+    }
+
+    /**
+     * Passes every indexed field and normalized value of the provided profile to the provided consumer.
+     */
+    private static void forEachValue(GravatarProfile profile,
+                                     BiConsumer<GravatarProfileIndexField, String> consumer) {
+        accept(GravatarProfileIndexField.Company, profile.getCompany(), consumer);
+        accept(GravatarProfileIndexField.Location, profile.getLocation(), consumer);
+        if (profile.getVerifiedAccounts() != null) {
+            for (GravatarProfileVerifiedAccount account : profile.getVerifiedAccounts()) {
+                accept(GravatarProfileIndexField.VerifiedAccountService, account.getServiceType(), consumer);
+            }
+        }
+        if (profile.getLanguages() != null) {
+            for (GravatarProfileLanguage language : profile.getLanguages()) {
+                accept(GravatarProfileIndexField.LanguageCode, language.getCode(), consumer);
+            }
+        }
+        if (profile.getInterests() != null) {
+            for (GravatarProfileInterest interest : profile.getInterests()) {
+                accept(GravatarProfileIndexField.Interest, interest.getName(), consumer);
+            }
+        }
+    }
+
+    /**
+     * Passes the provided field and the normalized provided value to the provided consumer
+     * unless the value is null or blank.
+     */
+    private static void accept(GravatarProfileIndexField field, String value,
+                               BiConsumer<GravatarProfileIndexField, String> consumer) {
+        if (value != null && !value.isBlank()) consumer.accept(field, GravatarProfileQuery.normalize(value));
+    }
+
+    /**
+     * Returns a string representation of this index.
+     *
+     * @return a string representation of this index
+     */
+    @Override
+    public String toString() {
+        lock.readLock().lock();
+        try {
+            return "GravatarProfileIndex{"
+                    + "size=" + ids.size()
+                    + "}";
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.github.natche.gravatarjavaclient.profile.index;
+
+import com.github.natche.gravatarjavaclient.enums.GravatarProfileIndexField;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.annotations.Immutable;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * A query matching profiles in a {@link GravatarProfileIndex}, built from terms matching a value of a field and
+ * combined with {@link #and(GravatarProfileQuery)} and {@link #or(GravatarProfileQuery)}.
+ * <p>
+ * Values are matched exactly after trimming and lowercasing, so "GitHub " matches a verified account with the
+ * service type "github", but "San Francisco" does not match the location "San Francisco, CA".
+ */
+@Immutable
+public final class GravatarProfileQuery {
+    /**
+     * The field of a term, or null for a conjunction or disjunction.
+     */
+    private final GravatarProfileIndexField field;
+
+    /**
+     * The normalized value of a term, or null for a conjunction or disjunction.
+     */
+    private final String value;
+
+    /**
+     * Whether this is a conjunction rather than a disjunction; ignored for a term.
+     */
+    private final boolean conjunction;
+
+    /**
+     * The queries combined by a conjunction or disjunction, or empty for a term.
+     */
+    private final ImmutableList<GravatarProfileQuery> operands;
+
+    private GravatarProfileQuery(GravatarProfileIndexField field, String value, boolean conjunction,
+                                 ImmutableList<GravatarProfileQuery> operands) {
+        this.field = field;
+        this.value = value;
+        this.conjunction = conjunction;
+        this.operands = operands;
+    }
+
+    /**
+     * Returns a query matching profiles whose provided field has the provided value.
+     *
+     * @param field the field
+     * @param value the value
+     * @return a new query
+     * @throws NullPointerException     if either argument is null
+     * @throws IllegalArgumentException if the value is empty or blank
+     */
+    public static GravatarProfileQuery where(GravatarProfileIndexField field, String value) {
+        Preconditions.checkNotNull(field);
+        Preconditions.checkNotNull(value);
+        Preconditions.checkArgument(!value.isBlank());
+
+        return new GravatarProfileQuery(field, normalize(value), false, ImmutableList.of());
+    }
+
+    /**
+     * Returns a query matching profiles with a verified account of the provided service type.
+     *
+     * @param serviceType the service type, such as "github"
+     * @return a new query
+     * @throws NullPointerException     if the provided service type is null
+     * @throws IllegalArgumentException if the provided service type is empty or blank
+     */
+    public static GravatarProfileQuery hasVerifiedAccount(String serviceType) {
+        return where(GravatarProfileIndexField.VerifiedAccountService, serviceType);
+    }
+
+    /**
+     * Returns a query matching profiles with the provided company.
+     *
+     * @param company the company
+     * @return a new query
+     * @throws NullPointerException     if the provided company is null
+     * @throws IllegalArgumentException if the provided company is empty or blank
+     */
+    public static GravatarProfileQuery company(String company) {
+        return where(GravatarProfileIndexField.Company, company);
+    }
+
+    /**
+     * Returns a query matching profiles with the provided location.
+     *
+     * @param location the location
+     * @return a new query
+     * @throws NullPointerException     if the provided location is null
+     * @throws IllegalArgumentException if the provided location is empty or blank
+     */
+    public static GravatarProfileQuery location(String location) {
+        return where(GravatarProfileIndexField.Location, location);
+    }
+
+    /**
+     * Returns a query matching profiles listing the language with the provided code.
+     *
+     * @param code the ISO 639-1 code of the language
+     * @return a new query
+     * @throws NullPointerException     if the provided code is null
+     * @throws IllegalArgumentException if the provided code is empty or blank
+     */
+    public static GravatarProfileQuery language(String code) {
+        return where(GravatarProfileIndexField.LanguageCode, code);
+    }
+
+    /**
+     * Returns a query matching profiles listing the provided interest.
+     *
+     * @param interest the name of the interest
+     * @return a new query
+     * @throws NullPointerException     if the provided interest is null
+     * @throws IllegalArgumentException if the provided interest is empty or blank
+     */
+    public static GravatarProfileQuery interest(String interest) {
+        return where(GravatarProfileIndexField.Interest, interest);
+    }
+
+    /**
+     * Returns a query matching profiles matched by both this and the provided query.
+     *
+     * @param other the other query
+     * @return a new query
+     * @throws NullPointerException if the provided query is null
+     */
+    public GravatarProfileQuery and(GravatarProfileQuery other) {
+        return combine(other, true);
+    }
+
+    /**
+     * Returns a query matching profiles matched by either this or the provided query.
+     *
+     * @param other the other query
+     * @return a new query
+     * @throws NullPointerException if the provided query is null
+     */
+    public GravatarProfileQuery or(GravatarProfileQuery other) {
+        return combine(other, false);
+    }
+
+    /**
+     * Returns the field of this term, or null if this is a conjunction or disjunction.
+     *
+     * @return the field of this term
+     */
+    GravatarProfileIndexField getField() {
+        return field;
+    }
+
+    /**
+     * Returns the normalized value of this term, or null if this is a conjunction or disjunction.
+     *
+     * @return the normalized value of this term
+     */
+    String getValue() {
+        return value;
+    }
+
+    /**
+     * Returns whether this is a conjunction.
+     *
+     * @return whether this is a conjunction
+     */
+    boolean isConjunction() {
+        return field == null && conjunction;
+    }
+
+    /**
+     * Returns the queries combined by this conjunction or disjunction, or an empty list if this is a term.
+     *
+     * @return the queries combined by this conjunction or disjunction
+     */
+    ImmutableList<GravatarProfileQuery> getOperands() {
+        return operands;
+    }
+
+    /**
+     * Returns the provided value as it is indexed and queried.
+     *
+     * @param value the value
+     * @return the normalized value
+     */
+    static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns a conjunction or disjunction of this and the provided query, flattening operands of the same kind
+     * so that chained calls produce a single node.
+     */
+    private GravatarProfileQuery combine(GravatarProfileQuery other, boolean conjunction) {
+        Preconditions.checkNotNull(other);
+
+        ImmutableList.Builder<GravatarProfileQuery> builder = ImmutableList.builder();
+        for (GravatarProfileQuery query : new GravatarProfileQuery[]{this, other}) {
+            if (query.field == null && query.conjunction == conjunction) builder.addAll(query.operands);
+            else builder.add(query);
+        }
+        return new GravatarProfileQuery(null, null, conjunction, builder.build());
+    }
+
+    /**
+     * Returns the expression of this query, parenthesizing conjunctions and disjunctions.
+     */
+    private String expression() {
+        if (field != null) return field + "=\"" + value + "\"";
+
+        StringBuilder builder = new StringBuilder("(");
+        for (int i = 0; i < operands.size(); i++) {
+            if (i > 0) builder.append(conjunction ? " AND " : " OR ");
+            builder.append(operands.get(i).expression());
+        }
+        return builder.append(")").toString();
+    }
+
+    /**
+     * Returns whether the provided object is equal to this.
+     *
+     * @param o the other object
+     * @return whether the provided object is equal to this
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GravatarProfileQuery other)) return false;
+        return field == other.field
+                && Objects.equals(value, other.value)
+                && conjunction == other.conjunction
+                && operands.equals(other.operands);
+    }
+
+    /**
+     * Returns a hashcode for this object.
+     *
+     * @return a hashcode for this object
+     */
+    @Override
+    public int hashCode() {
+        int ret = Objects.hashCode(field);
+        ret = 31 * ret + Objects.hashCode(value);
+        ret = 31 * ret + Boolean.hashCode(conjunction);
+        ret = 31 * ret + operands.hashCode();
+        return ret;
+    }
+
+    /**
+     * Returns a string representation of this object.
+     *
+     * @return a string representation of this object
+     */
+    @Override
+    public String toString() {
+        return "GravatarProfileQuery{"
+                + "expression=" + expression()
+                + "}";
+    }
+}
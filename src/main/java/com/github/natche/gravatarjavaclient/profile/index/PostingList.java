@@ -0,0 +1,465 @@
+package com.github.natche.gravatarjavaclient.profile.index;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A compressed set of non-negative document IDs.
+ * <p>
+ * IDs are partitioned into chunks of 65536 by their upper 16 bits. Each chunk stores its lower 16 bits either as a
+ * sorted array of chars while it holds at most {@link #ARRAY_MAX_CARDINALITY} IDs, or as a 65536-bit bitmap once it
+ * holds more, so a sparse list costs two bytes per ID and a dense one an eighth of a byte. Intersections and unions
+ * combine chunks pairwise, choosing a merge, probe, or word-wise loop by the representation of each side.
+ * A posting list is not safe for concurrent use.
+ */
+final class PostingList {
+    /**
+     * The greatest number of IDs a chunk stores as an array.
+     */
+    static final int ARRAY_MAX_CARDINALITY = 4096;
+
+    /**
+     * The number of longs in the bitmap of a chunk.
+     */
+    private static final int BITMAP_LENGTH = 1024;
+
+    /**
+     * The upper 16 bits of the IDs of each chunk, sorted, of which the first {@link #chunkCount} are used.
+     */
+    private char[] keys;
+
+    /**
+     * The chunk of each key.
+     */
+    private Chunk[] chunks;
+
+    /**
+     * The number of chunks.
+     */
+    private int chunkCount;
+
+    /**
+     * Constructs a new, empty posting list.
+     */
+    PostingList() {
+        this(4);
+    }
+
+    private PostingList(int capacity) {
+        this.keys = new char[capacity];
+        this.chunks = new Chunk[capacity];
+    }
+
+    /**
+     * Adds the provided ID.
+     *
+     * @param id the ID
+     * @return whether the ID was not already present
+     * @throws IllegalArgumentException if the ID is negative
+     */
+    boolean add(int id) {
+        Preconditions.checkArgument(id >= 0);
+
+        char key = (char) (id >>> 16);
+        int index = Arrays.binarySearch(keys, 0, chunkCount, key);
+        if (index < 0) {
+            index = -index - 1;
+            insertChunk(index, key, new Chunk());
+        }
+        return chunks[index].add((char) id);
+    }
+
+    /**
+     * Removes the provided ID.
+     *
+     * @param id the ID
+     * @return whether the ID was present
+     */
+    boolean remove(int id) {
+        if (id < 0) return false;
+
+        int index = Arrays.binarySearch(keys, 0, chunkCount, (char) (id >>> 16));
+        if (index < 0 || !chunks[index].remove((char) id)) return false;
+
+        if (chunks[index].cardinality == 0) {
+            System.arraycopy(keys, index + 1, keys, index, chunkCount - index - 1);
+            System.arraycopy(chunks, index + 1, chunks, index, chunkCount - index - 1);
+            chunks[--chunkCount] = null;
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the provided ID is present.
+     *
+     * @param id the ID
+     * @return whether the ID is present
+     */
+    boolean contains(int id) {
+        if (id < 0) return false;
+
+        int index = Arrays.binarySearch(keys, 0, chunkCount, (char) (id >>> 16));
+        return index >= 0 && chunks[index].contains((char) id);
+    }
+
+    /**
+     * Returns the number of IDs present.
+     *
+     * @return the number of IDs present
+     */
+    int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < chunkCount; i++) {
+            cardinality += chunks[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    /**
+     * Returns whether no IDs are present.
+     *
+     * @return whether no IDs are present
+     */
+    boolean isEmpty() {
+        return chunkCount == 0;
+    }
+
+    /**
+     * Returns the number of bytes used by the IDs of this list, excluding object overhead.
+     *
+     * @return the number of bytes used by the IDs of this list
+     */
+    long sizeInBytes() {
+        long bytes = (long) chunkCount * Character.BYTES;
+        for (int i = 0; i < chunkCount; i++) {
+            bytes += chunks[i].bitmap != null
+                    ? (long) BITMAP_LENGTH * Long.BYTES
+                    : (long) chunks[i].values.length * Character.BYTES;
+        }
+        return bytes;
+    }
+
+    /**
+     * Passes every ID to the provided consumer in ascending order.
+     *
+     * @param consumer the consumer
+     */
+    void forEach(IntConsumer consumer) {
+        for (int i = 0; i < chunkCount; i++) {
+            chunks[i].forEach(keys[i] << 16, consumer);
+        }
+    }
+
+    /**
+     * Returns the IDs present in both provided lists.
+     *
+     * @param first  the first list
+     * @param second the second list
+     * @return a new list of the intersection
+     */
+    static PostingList and(PostingList first, PostingList second) {
+        PostingList result = new PostingList(Math.max(1, Math.min(first.chunkCount, second.chunkCount)));
+        int i = 0;
+        int j = 0;
+        while (i < first.chunkCount && j < second.chunkCount) {
+            char firstKey = first.keys[i];
+            char secondKey = second.keys[j];
+            if (firstKey < secondKey) {
+                i++;
+            } else if (firstKey > secondKey) {
+                j++;
+            } else {
+                Chunk chunk = Chunk.and(first.chunks[i++], second.chunks[j++]);
+                if (chunk.cardinality > 0) result.insertChunk(result.chunkCount, firstKey, chunk);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the IDs present in either provided list.
+     *
+     * @param first  the first list
+     * @param second the second list
+     * @return a new list of the union
+     */
+    static PostingList or(PostingList first, PostingList second) {
+        PostingList result = new PostingList(Math.max(1, first.chunkCount + second.chunkCount));
+        int i = 0;
+        int j = 0;
+        while (i < first.chunkCount || j < second.chunkCount) {
+            if (j == second.chunkCount || (i < first.chunkCount && first.keys[i] < second.keys[j])) {
+                result.insertChunk(result.chunkCount, first.keys[i], first.chunks[i++].copy());
+            } else if (i == first.chunkCount || second.keys[j] < first.keys[i]) {
+                result.insertChunk(result.chunkCount, second.keys[j], second.chunks[j++].copy());
+            } else {
+                result.insertChunk(result.chunkCount, first.keys[i], Chunk.or(first.chunks[i++], second.chunks[j++]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a string representation of this list.
+     *
+     * @return a string representation of this list
+     */
+    @Override
+    public String toString() {
+        return "PostingList{"
+                + "cardinality=" + cardinality()
+                + ", chunkCount=" + chunkCount
+                + "}";
+    }
+
+    /**
+     * Inserts the provided chunk at the provided index, growing the arrays if needed.
+     */
+    private void insertChunk(int index, char key, Chunk chunk) {
+        if (chunkCount == keys.length) {
+            keys = Arrays.copyOf(keys, chunkCount * 2);
+            chunks = Arrays.copyOf(chunks, chunkCount * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, chunkCount - index);
+        System.arraycopy(chunks, index, chunks, index + 1, chunkCount - index);
+        keys[index] = key;
+        chunks[index] = chunk;
+        chunkCount++;
+    }
+
+    /**
+     * The lower 16 bits of the IDs sharing one upper 16 bits, stored as a sorted array or a bitmap.
+     */
+    private static final class Chunk {
+        /**
+         * The sorted values while this chunk is an array, of which the first {@link #cardinality} are used,
+         * or null while it is a bitmap.
+         */
+        private char[] values;
+
+        /**
+         * The bitmap of values while this chunk is a bitmap, or null while it is an array.
+         */
+        private long[] bitmap;
+
+        /**
+         * The number of values.
+         */
+        private int cardinality;
+
+        Chunk() {
+            this.values = new char[4];
+        }
+
+        private Chunk(char[] values, long[] bitmap, int cardinality) {
+            this.values = values;
+            this.bitmap = bitmap;
+            this.cardinality = cardinality;
+        }
+
+        /**
+         * Adds the provided value, returning whether it was absent.
+         */
+        private boolean add(char value) {
+            if (bitmap != null) {
+                long before = bitmap[value >>> 6];
+                bitmap[value >>> 6] = before | (1L << value);
+                if (before == bitmap[value >>> 6]) return false;
+                cardinality++;
+                return true;
+            }
+
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) return false;
+            if (cardinality == ARRAY_MAX_CARDINALITY) {
+                toBitmap();
+                return add(value);
+            }
+
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX_CARDINALITY, cardinality * 2));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return true;
+        }
+
+        /**
+         * Removes the provided value, returning whether it was present.
+         */
+        private boolean remove(char value) {
+            if (bitmap != null) {
+                long before = bitmap[value >>> 6];
+                bitmap[value >>> 6] = before & ~(1L << value);
+                if (before == bitmap[value >>> 6]) return false;
+                if (--cardinality <= ARRAY_MAX_CARDINALITY) toArray();
+                return true;
+            }
+
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index < 0) return false;
+            System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+            cardinality--;
+            return true;
+        }
+
+        /**
+         * Returns whether the provided value is present.
+         */
+        private boolean contains(char value) {
+            if (bitmap != null) return (bitmap[value >>> 6] & (1L << value)) != 0;
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        /**
+         * Passes every value, combined with the provided upper bits, to the provided consumer in ascending order.
+         */
+        private void forEach(int high, IntConsumer consumer) {
+            if (bitmap == null) {
+                for (int i = 0; i < cardinality; i++) {
+                    consumer.accept(high | values[i]);
+                }
+                return;
+            }
+
+            for (int word = 0; word < BITMAP_LENGTH; word++) {
+                long bits = bitmap[word];
+                while (bits != 0) {
+                    consumer.accept(high | (word << 6) | Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+        }
+
+        /**
+         * Returns a copy of this chunk.
+         */
+        private Chunk copy() {
+            return bitmap != null
+                    ? new Chunk(null, bitmap.clone(), cardinality)
+                    : new Chunk(Arrays.copyOf(values, Math.max(1, cardinality)), null, cardinality);
+        }
+
+        /**
+         * Converts this chunk from an array to a bitmap.
+         */
+        private void toBitmap() {
+            bitmap = new long[BITMAP_LENGTH];
+            for (int i = 0; i < cardinality; i++) {
+                bitmap[values[i] >>> 6] |= 1L << values[i];
+            }
+            values = null;
+        }
+
+        /**
+         * Converts this chunk from a bitmap to an array.
+         */
+        private void toArray() {
+            values = new char[Math.max(1, cardinality)];
+            int index = 0;
+            for (int word = 0; word < BITMAP_LENGTH; word++) {
+                long bits = bitmap[word];
+                while (bits != 0) {
+                    values[index++] = (char) ((word << 6) | Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+            bitmap = null;
+        }
+
+        /**
+         * Returns the values present in both provided chunks.
+         */
+        private static Chunk and(Chunk first, Chunk second) {
+            if (first.bitmap != null && second.bitmap != null) {
+                long[] bitmap = new long[BITMAP_LENGTH];
+                int cardinality = 0;
+                for (int word = 0; word < BITMAP_LENGTH; word++) {
+                    bitmap[word] = first.bitmap[word] & second.bitmap[word];
+                    cardinality += Long.bitCount(bitmap[word]);
+                }
+                Chunk chunk = new Chunk(null, bitmap, cardinality);
+                if (cardinality <= ARRAY_MAX_CARDINALITY) chunk.toArray();
+                return chunk;
+            }
+
+            if (first.bitmap != null || second.bitmap != null) {
+                Chunk array = first.bitmap == null ? first : second;
+                Chunk bitmap = first.bitmap == null ? second : first;
+                char[] values = new char[Math.max(1, array.cardinality)];
+                int cardinality = 0;
+                for (int i = 0; i < array.cardinality; i++) {
+                    if (bitmap.contains(array.values[i])) values[cardinality++] = array.values[i];
+                }
+                return new Chunk(values, null, cardinality);
+            }
+
+            char[] values = new char[Math.max(1, Math.min(first.cardinality, second.cardinality))];
+            int cardinality = 0;
+            int i = 0;
+            int j = 0;
+            while (i < first.cardinality && j < second.cardinality) {
+                char a = first.values[i];
+                char b = second.values[j];
+                if (a < b) {
+                    i++;
+                } else if (a > b) {
+                    j++;
+                } else {
+                    values[cardinality++] = a;
+                    i++;
+                    j++;
+                }
+            }
+            return new Chunk(values, null, cardinality);
+        }
+
+        /**
+         * Returns the values present in either provided chunk.
+         */
+        private static Chunk or(Chunk first, Chunk second) {
+            if (first.bitmap == null && second.bitmap == null
+                    && first.cardinality + second.cardinality <= ARRAY_MAX_CARDINALITY) {
+                char[] values = new char[Math.max(1, first.cardinality + second.cardinality)];
+                int cardinality = 0;
+                int i = 0;
+                int j = 0;
+                while (i < first.cardinality || j < second.cardinality) {
+                    if (j == second.cardinality || (i < first.cardinality && first.values[i] < second.values[j])) {
+                        values[cardinality++] = first.values[i++];
+                    } else if (i == first.cardinality || second.values[j] < first.values[i]) {
+                        values[cardinality++] = second.values[j++];
+                    } else {
+                        values[cardinality++] = first.values[i++];
+                        j++;
+                    }
+                }
+                return new Chunk(values, null, cardinality);
+            }
+
+            long[] bitmap = new long[BITMAP_LENGTH];
+            for (Chunk chunk : new Chunk[]{first, second}) {
+                if (chunk.bitmap != null) {
+                    for (int word = 0; word < BITMAP_LENGTH; word++) {
+                        bitmap[word] |= chunk.bitmap[word];
+                    }
+                } else {
+                    for (int i = 0; i < chunk.cardinality; i++) {
+                        bitmap[chunk.values[i] >>> 6] |= 1L << chunk.values[i];
+                    }
+                }
+            }
+            int cardinality = 0;
+            for (long word : bitmap) {
+                cardinality += Long.bitCount(word);
+            }
+            Chunk chunk = new Chunk(null, bitmap, cardinality);
+            if (cardinality <= ARRAY_MAX_CARDINALITY) chunk.toArray();
+            return chunk;
+        }
+    }
+}
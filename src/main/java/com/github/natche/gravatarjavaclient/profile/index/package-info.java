@@ -0,0 +1,5 @@
+/**
+ * An inverted index answering queries over profiles held by a
+ * {@link com.github.natche.gravatarjavaclient.profile.GravatarProfileCache}.
+ */
+package com.github.natche.gravatarjavaclient.profile.index;
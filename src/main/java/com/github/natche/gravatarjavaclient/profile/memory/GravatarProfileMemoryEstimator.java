@@ -0,0 +1,274 @@
+package com.github.natche.gravatarjavaclient.profile.memory;
+
+import com.github.natche.gravatarjavaclient.profile.serialization.*;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.ImmutableLongArray;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Estimates the memory held by {@link GravatarProfile}s.
+ * <p>
+ * Sizes are modeled on a 64-bit JVM with compressed references and compact strings: objects have a 12 byte
+ * header, references take 4 bytes, and every object is padded to a multiple of 8 bytes. Strings whose characters
+ * all fit in Latin-1 take one byte per character and others take two. Objects are identified by identity, so an
+ * interned string or shared list is only counted once. The estimate is meant for comparing representations,
+ * such as profiles read with and without interning, rather than as an exact heap measurement.
+ */
+public enum GravatarProfileMemoryEstimator {
+    /**
+     * The profile memory estimator.
+     */
+    INSTANCE;
+
+    /**
+     * The size of an object header.
+     */
+    private static final int HEADER_BYTES = 12;
+
+    /**
+     * The size of an array header, including its length.
+     */
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    /**
+     * The size of a compressed reference.
+     */
+    private static final int REFERENCE_BYTES = 4;
+
+    /**
+     * The alignment of every object.
+     */
+    private static final int ALIGNMENT = 8;
+
+    /**
+     * The shallow size of a string, excluding its backing array.
+     */
+    private static final long STRING_BYTES = shallow(1, 0, 1, 2);
+
+    /**
+     * The owner recorded for objects reachable from more than one profile.
+     */
+    private static final int SHARED = -1;
+
+    /**
+     * Estimates the bytes of every object reachable from the provided profile, counting each object once.
+     *
+     * @param profile the profile
+     * @return the estimated bytes of the profile
+     * @throws NullPointerException if the provided profile is null
+     */
+    public long estimateBytes(GravatarProfile profile) {
+        Preconditions.checkNotNull(profile);
+        return estimate(ImmutableList.of(profile)).getTotalBytes();
+    }
+
+    /**
+     * Estimates the bytes retained by each of the provided profiles and the bytes they share.
+     *
+     * @param profiles the profiles
+     * @return the report
+     * @throws NullPointerException if the provided list or any profile is null
+     */
+    public GravatarProfileMemoryReport estimate(List<GravatarProfile> profiles) {
+        Preconditions.checkNotNull(profiles);
+
+        Map<Object, Integer> owners = new IdentityHashMap<>();
+        Map<Object, Long> sizes = new IdentityHashMap<>();
+        for (int i = 0; i < profiles.size(); i++) {
+            new Walk(i, owners, sizes).profile(Preconditions.checkNotNull(profiles.get(i)));
+        }
+
+        long[] retained = new long[profiles.size()];
+        long shared = 0;
+        for (Map.Entry<Object, Integer> entry : owners.entrySet()) {
+            long size = sizes.get(entry.getKey());
+            if (entry.getValue() == SHARED) shared += size;
+            else retained[entry.getValue()] += size;
+        }
+        return new GravatarProfileMemoryReport(ImmutableLongArray.copyOf(retained), shared);
+    }
+
+    /**
+     * A walk over the objects reachable from one profile.
+     */
+    private static final class Walk {
+        /**
+         * The index of the profile being walked.
+         */
+        private final int owner;
+
+        /**
+         * The objects seen during this walk.
+         */
+        private final Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        /**
+         * The owner of every object seen so far.
+         */
+        private final Map<Object, Integer> owners;
+
+        /**
+         * The estimated size of every object seen so far.
+         */
+        private final Map<Object, Long> sizes;
+
+        private Walk(int owner, Map<Object, Integer> owners, Map<Object, Long> sizes) {
+            this.owner = owner;
+            this.owners = owners;
+            this.sizes = sizes;
+        }
+
+        /**
+         * Records the provided object and returns whether it was not yet seen during this walk. Objects already
+         * seen by the walk of another profile are walked again so that everything they reach is marked shared.
+         */
+        private boolean visit(Object object, long size) {
+            if (!seen.add(object)) return false;
+            Integer previous = owners.putIfAbsent(object, owner);
+            if (previous == null) sizes.put(object, size);
+            else if (previous != SHARED) owners.put(object, SHARED);
+            return true;
+        }
+
+        /**
+         * Walks the provided profile and everything reachable from it.
+         */
+        private void profile(GravatarProfile profile) {
+            if (!visit(profile, shallow(23, 2, 1, 2))) return;
+
+            string(profile.getHash());
+            string(profile.getDisplayName());
+            string(profile.getProfileUrl());
+            string(profile.getAvatarUrl());
+            string(profile.getAvatarAltText());
+            string(profile.getLocation());
+            string(profile.getDescription());
+            string(profile.getJobTitle());
+            string(profile.getCompany());
+            string(profile.getPronunciation());
+            string(profile.getPronouns());
+            string(profile.getTimezone().orElse(null));
+            string(profile.getFirstName().orElse(null));
+            string(profile.getLastName().orElse(null));
+            string(profile.getLastProfileEditText().orElse(null));
+            string(profile.getRegistrationDateText().orElse(null));
+
+            if (list(profile.getVerifiedAccounts())) {
+                for (GravatarProfileVerifiedAccount account : profile.getVerifiedAccounts()) {
+                    if (!visit(account, shallow(4, 0, 0, 0))) continue;
+                    string(account.getServiceType());
+                    string(account.getServiceLabel());
+                    string(account.getServiceIcon());
+                    string(account.getUrl());
+                }
+            }
+            if (list(profile.getLanguages())) {
+                for (GravatarProfileLanguage language : profile.getLanguages()) {
+                    if (!visit(language, shallow(2, 0, 1, 1))) continue;
+                    string(language.getCode());
+                    string(language.getName());
+                }
+            }
+            urls(profile.getLinks());
+            if (list(profile.getInterests())) {
+                for (GravatarProfileInterest interest : profile.getInterests()) {
+                    if (visit(interest, shallow(1, 0, 1, 0))) string(interest.getName());
+                }
+            }
+            profile.getPayments().ifPresent(payments -> {
+                if (!visit(payments, shallow(2, 0, 0, 0))) return;
+                urls(payments.getLinks());
+                if (list(payments.getCryptoWallets())) {
+                    for (GravatarCryptoWalletAddress wallet : payments.getCryptoWallets()) {
+                        if (!visit(wallet, shallow(2, 0, 0, 0))) continue;
+                        string(wallet.getLabel());
+                        string(wallet.getAddress());
+                    }
+                }
+            });
+            profile.getContactInfo().ifPresent(contactInfo -> {
+                if (!visit(contactInfo, shallow(6, 0, 0, 0))) return;
+                string(contactInfo.getHomePhone());
+                string(contactInfo.getWorkPhone());
+                string(contactInfo.getCellPhone());
+                string(contactInfo.getEmail());
+                string(contactInfo.getContactForm());
+                string(contactInfo.getCalendar());
+            });
+            if (list(profile.getGallery())) {
+                for (GravatarProfileGalleryImage image : profile.getGallery()) {
+                    if (!visit(image, shallow(2, 0, 0, 0))) continue;
+                    string(image.getUrl());
+                    string(image.getAltText());
+                }
+            }
+        }
+
+        /**
+         * Walks the provided list of URLs.
+         */
+        private void urls(ImmutableList<GravatarProfileUrl> urls) {
+            if (!list(urls)) return;
+            for (GravatarProfileUrl url : urls) {
+                if (!visit(url, shallow(2, 0, 0, 0))) continue;
+                string(url.getLabel());
+                string(url.getUrl());
+            }
+        }
+
+        /**
+         * Records the provided list and returns whether its elements should be walked.
+         */
+        private boolean list(ImmutableList<?> list) {
+            long size = list.size() == 1
+                    ? shallow(1, 0, 0, 0)
+                    : shallow(1, 0, 0, 0) + array(list.size(), REFERENCE_BYTES);
+            return visit(list, size);
+        }
+
+        /**
+         * Records the provided string and its backing array, if it is not null.
+         */
+        private void string(String value) {
+            if (value == null) return;
+            visit(value, STRING_BYTES + array(value.length(), isLatin1(value) ? 1 : 2));
+        }
+    }
+
+    /**
+     * Returns the estimated size of an object with the provided numbers of fields.
+     */
+    private static long shallow(int references, int longs, int ints, int bytes) {
+        return align(HEADER_BYTES + (long) references * REFERENCE_BYTES + longs * 8L + ints * 4L + bytes);
+    }
+
+    /**
+     * Returns the estimated size of an array of the provided length and element size.
+     */
+    private static long array(int length, int elementBytes) {
+        return align(ARRAY_HEADER_BYTES + (long) length * elementBytes);
+    }
+
+    /**
+     * Returns the provided size rounded up to the alignment of objects.
+     */
+    private static long align(long bytes) {
+        return (bytes + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /**
+     * Returns whether every character of the provided string fits in Latin-1.
+     */
+    private static boolean isLatin1(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,147 @@
+package com.github.natche.gravatarjavaclient.profile.memory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.primitives.ImmutableLongArray;
+import com.google.errorprone.annotations.Immutable;
+
+/**
+ * An estimate of the memory held by a group of profiles.
+ * <p>
+ * Objects reachable from only one profile are retained by that profile: they would be collected along with it.
+ * Objects reachable from more than one profile, such as interned strings and shared empty lists, are counted
+ * once as shared bytes. The total is the sum of every retained and shared byte.
+ */
+@Immutable
+public final class GravatarProfileMemoryReport {
+    /**
+     * The bytes retained by each profile, in the order the profiles were provided.
+     */
+    private final ImmutableLongArray retainedBytes;
+
+    /**
+     * The bytes of objects shared by more than one profile.
+     */
+    private final long sharedBytes;
+
+    /**
+     * Constructs a new GravatarProfileMemoryReport.
+     *
+     * @param retainedBytes the bytes retained by each profile
+     * @param sharedBytes   the bytes of objects shared by more than one profile
+     * @throws NullPointerException     if the provided retained bytes are null
+     * @throws IllegalArgumentException if any count of bytes is negative
+     */
+    public GravatarProfileMemoryReport(ImmutableLongArray retainedBytes, long sharedBytes) {
+        Preconditions.checkNotNull(retainedBytes);
+        Preconditions.checkArgument(retainedBytes.stream().allMatch(bytes -> bytes >= 0));
+        Preconditions.checkArgument(sharedBytes >= 0);
+
+        this.retainedBytes = retainedBytes.trimmed();
+        this.sharedBytes = sharedBytes;
+    }
+
+    /**
+     * Returns the number of profiles this report covers.
+     *
+     * @return the number of profiles
+     */
+    public int getProfileCount() {
+        return retainedBytes.length();
+    }
+
+    /**
+     * Returns the bytes retained by each profile, in the order the profiles were provided.
+     *
+     * @return the bytes retained by each profile
+     */
+    public ImmutableLongArray getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    /**
+     * Returns the bytes retained by the profile at the provided index.
+     *
+     * @param index the index of the profile
+     * @return the bytes retained by the profile
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public long getRetainedBytes(int index) {
+        return retainedBytes.get(index);
+    }
+
+    /**
+     * Returns the sum of the bytes retained by each profile.
+     *
+     * @return the sum of the bytes retained by each profile
+     */
+    public long getTotalRetainedBytes() {
+        return retainedBytes.stream().sum();
+    }
+
+    /**
+     * Returns the mean of the bytes retained by each profile, or zero if there are none.
+     *
+     * @return the mean of the bytes retained by each profile
+     */
+    public double getAverageRetainedBytes() {
+        return retainedBytes.isEmpty() ? 0 : (double) getTotalRetainedBytes() / retainedBytes.length();
+    }
+
+    /**
+     * Returns the bytes of objects shared by more than one profile.
+     *
+     * @return the bytes of objects shared by more than one profile
+     */
+    public long getSharedBytes() {
+        return sharedBytes;
+    }
+
+    /**
+     * Returns the bytes of every object reachable from the profiles, counting shared objects once.
+     *
+     * @return the total bytes
+     */
+    public long getTotalBytes() {
+        return getTotalRetainedBytes() + sharedBytes;
+    }
+
+    /**
+     * Returns whether the provided object is equal to this.
+     *
+     * @param o the other object
+     * @return whether the provided object is equal to this
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GravatarProfileMemoryReport other)) return false;
+        return sharedBytes == other.sharedBytes && retainedBytes.equals(other.retainedBytes);
+    }
+
+    /**
+     * Returns a hashcode for this object.
+     *
+     * @return a hashcode for this object
+     */
+    @Override
+    public int hashCode() {
+        int ret = retainedBytes.hashCode();
+        ret = 31 * ret + Long.hashCode(sharedBytes);
+        return ret;
+    }
+
+    /**
+     * Returns a string representation of this object.
+     *
+     * @return a string representation of this object
+     */
+    @Override
+    public String toString() {
+        return "GravatarProfileMemoryReport{"
+                + "profileCount=" + getProfileCount()
+                + ", averageRetainedBytes=" + String.format("%.1f", getAverageRetainedBytes())
+                + ", sharedBytes=" + sharedBytes
+                + ", totalBytes=" + getTotalBytes()
+                + "}";
+    }
+}
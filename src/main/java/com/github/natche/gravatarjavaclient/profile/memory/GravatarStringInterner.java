@@ -0,0 +1,183 @@
+package com.github.natche.gravatarjavaclient.profile.memory;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, thread-safe pool of canonical strings.
+ * <p>
+ * Interning returns the pooled instance equal to a string if there is one, so equal values read for many
+ * profiles share one instance. Strings longer than the maximum length are never pooled, as long values such
+ * as descriptions rarely repeat. Once the pool holds its capacity, unseen strings are returned as they are
+ * rather than evicting pooled ones; low-cardinality values are seen early, so they remain pooled. The capacity
+ * may be exceeded slightly by threads interning concurrently.
+ */
+public final class GravatarStringInterner {
+    /**
+     * The default maximum number of pooled strings.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /**
+     * The default maximum length of pooled strings.
+     */
+    public static final int DEFAULT_MAX_LENGTH = 128;
+
+    /**
+     * An interner which pools nothing.
+     */
+    private static final GravatarStringInterner NONE = new GravatarStringInterner(0, 0);
+
+    /**
+     * The pooled strings, each mapped to itself.
+     */
+    private final ConcurrentHashMap<String, String> pool;
+
+    /**
+     * The maximum number of pooled strings.
+     */
+    private final int capacity;
+
+    /**
+     * The maximum length of pooled strings.
+     */
+    private final int maxLength;
+
+    /**
+     * The number of strings for which a pooled instance was returned.
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * The number of strings which were not pooled because the pool was full.
+     */
+    private final LongAdder rejections = new LongAdder();
+
+    private GravatarStringInterner(int capacity, int maxLength) {
+        this.pool = new ConcurrentHashMap<>(Math.min(capacity, DEFAULT_CAPACITY));
+        this.capacity = capacity;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Returns a new interner with the default capacity and maximum length.
+     *
+     * @return a new interner
+     */
+    public static GravatarStringInterner create() {
+        return new GravatarStringInterner(DEFAULT_CAPACITY, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * Returns a new interner with the provided capacity and maximum length.
+     *
+     * @param capacity  the maximum number of pooled strings
+     * @param maxLength the maximum length of pooled strings
+     * @return a new interner
+     * @throws IllegalArgumentException if the capacity or maximum length is negative
+     */
+    public static GravatarStringInterner create(int capacity, int maxLength) {
+        Preconditions.checkArgument(capacity >= 0);
+        Preconditions.checkArgument(maxLength >= 0);
+
+        return new GravatarStringInterner(capacity, maxLength);
+    }
+
+    /**
+     * Returns an interner which pools nothing and returns every string as it is.
+     *
+     * @return an interner which pools nothing
+     */
+    public static GravatarStringInterner none() {
+        return NONE;
+    }
+
+    /**
+     * Returns the pooled string equal to the provided one, pooling it first if there is room.
+     *
+     * @param value the string, which may be null
+     * @return the canonical instance of the string, or the string itself if it was not pooled
+     */
+    public String intern(String value) {
+        if (value == null || value.length() > maxLength) return value;
+
+        String pooled = pool.get(value);
+        if (pooled != null) {
+            hits.increment();
+            return pooled;
+        }
+
+        if (pool.size() >= capacity) {
+            if (capacity > 0) rejections.increment();
+            return value;
+        }
+
+        pooled = pool.putIfAbsent(value, value);
+        if (pooled == null) return value;
+        hits.increment();
+        return pooled;
+    }
+
+    /**
+     * Returns the number of pooled strings.
+     *
+     * @return the number of pooled strings
+     */
+    public int getSize() {
+        return pool.size();
+    }
+
+    /**
+     * Returns the maximum number of pooled strings.
+     *
+     * @return the maximum number of pooled strings
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the maximum length of pooled strings.
+     *
+     * @return the maximum length of pooled strings
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * Returns the number of strings for which a pooled instance was returned.
+     *
+     * @return the number of strings for which a pooled instance was returned
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of strings which were not pooled because the pool was full.
+     *
+     * @return the number of strings which were not pooled because the pool was full
+     */
+    public long getRejectionCount() {
+        return rejections.sum();
+    }
+
+    /**
+     * Returns a string representation of this object.
+     *
+     * @return a string representation of this object
+     */
+    @Override
+    public String toString() {
+        return "GravatarStringInterner{"
+                + "size=" + getSize()
+                + ", capacity=" + capacity
+                + ", maxLength=" + maxLength
+                + ", hits=" + getHitCount()
+                + ", rejections=" + getRejectionCount()
+                + "}";
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * Classes for reducing and measuring the memory held by resident
+ * {@link com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile}s.
+ */
+package com.github.natche.gravatarjavaclient.profile.memory;
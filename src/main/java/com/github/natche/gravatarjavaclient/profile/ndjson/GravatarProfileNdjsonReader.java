@@ -0,0 +1,333 @@
+package com.github.natche.gravatarjavaclient.profile.ndjson;
+
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
+import com.github.natche.gravatarjavaclient.profile.gson.GsonProvider;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * A reader of files of newline-delimited JSON profiles, such as those written by a
+ * {@link GravatarProfileNdjsonWriter}.
+ * <p>
+ * To read a file in parallel, it is split into chunks of roughly the chunk size, each moved forward to start just
+ * after a newline so that no line spans two chunks. Each chunk is parsed on its own thread through its own channel
+ * and buffers, and the chunks' profiles are joined in file order. Lines are separated by {@code \n} or
+ * {@code \r\n}, blank lines are skipped, and a line which is not exactly one profile fails the read with its line
+ * number. A reader is safe for use by multiple threads.
+ */
+public final class GravatarProfileNdjsonReader {
+    /**
+     * The default target size in bytes of each chunk read in parallel.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 4 << 20;
+
+    /**
+     * The size of the buffer each chunk is read through.
+     */
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The size of the buffer scanned for the newline ending a chunk.
+     */
+    private static final int SCAN_BUFFER_SIZE = 1 << 12;
+
+    /**
+     * The Gson object whose settings profiles are read with.
+     */
+    private final Gson gson;
+
+    /**
+     * The adapter profiles are read by. Type adapters hold no state between reads, so it is shared by every thread.
+     */
+    private final TypeAdapter<GravatarProfile> adapter;
+
+    /**
+     * The target size in bytes of each chunk read in parallel.
+     */
+    private final int chunkSize;
+
+    GravatarProfileNdjsonReader(Gson gson, int chunkSize) {
+        Preconditions.checkNotNull(gson);
+        Preconditions.checkArgument(chunkSize > 0);
+
+        this.gson = gson;
+        this.adapter = gson.getAdapter(GravatarProfile.class);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Constructs a new reader using the shared {@link GsonProvider} Gson object.
+     *
+     * @return a new reader
+     */
+    public static GravatarProfileNdjsonReader create() {
+        return create(GsonProvider.INSTANCE.get());
+    }
+
+    /**
+     * Constructs a new reader which reads profiles with the provided Gson object, such as
+     * {@link GsonProvider#getInterning()} to share repeated values between the profiles read.
+     *
+     * @param gson the Gson object
+     * @return a new reader
+     * @throws NullPointerException if the provided Gson object is null
+     */
+    public static GravatarProfileNdjsonReader create(Gson gson) {
+        return new GravatarProfileNdjsonReader(gson, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Reads the file at the provided path on the current thread, passing each profile to the provided consumer
+     * as it is read. Memory use is bounded by the read buffer no matter the size of the file.
+     *
+     * @param path     the path of the file
+     * @param consumer the consumer of the profiles
+     * @return the number of profiles read
+     * @throws NullPointerException        if either argument is null
+     * @throws IllegalArgumentException    if the provided path is not a regular file
+     * @throws GravatarJavaClientException if the file cannot be read or a line is not a valid profile
+     */
+    public long forEach(Path path, Consumer<GravatarProfile> consumer) {
+        Preconditions.checkNotNull(path);
+        Preconditions.checkNotNull(consumer);
+        Preconditions.checkArgument(Files.isRegularFile(path));
+
+        long[] count = new long[1];
+        ChunkResult result = readChunk(path, 0, Long.MAX_VALUE, profile -> {
+            consumer.accept(profile);
+            count[0]++;
+        });
+        result.throwIfInvalid(0);
+        return count[0];
+    }
+
+    /**
+     * Reads the file at the provided path in parallel using a thread per available processor.
+     *
+     * @param path the path of the file
+     * @return the profiles, in file order
+     * @throws NullPointerException        if the provided path is null
+     * @throws IllegalArgumentException    if the provided path is not a regular file
+     * @throws GravatarJavaClientException if the file cannot be read, a line is not a valid profile,
+     *                                     or the current thread is interrupted
+     */
+    public ImmutableList<GravatarProfile> readAll(Path path) {
+        return readAll(path, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Reads the file at the provided path in parallel using up to the provided number of threads.
+     *
+     * @param path        the path of the file
+     * @param parallelism the maximum number of chunks read at once
+     * @return the profiles, in file order
+     * @throws NullPointerException        if the provided path is null
+     * @throws IllegalArgumentException    if the provided path is not a regular file or the parallelism
+     *                                     is not positive
+     * @throws GravatarJavaClientException if the file cannot be read, a line is not a valid profile,
+     *                                     or the current thread is interrupted
+     */
+    public ImmutableList<GravatarProfile> readAll(Path path, int parallelism) {
+        Preconditions.checkNotNull(path);
+        Preconditions.checkArgument(Files.isRegularFile(path));
+        Preconditions.checkArgument(parallelism > 0);
+
+        List<Long> starts = chunkStarts(path);
+        if (parallelism == 1 || starts.size() <= 2) {
+            ImmutableList.Builder<GravatarProfile> profiles = ImmutableList.builder();
+            forEach(path, profiles::add);
+            return profiles.build();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, starts.size() - 1));
+        try {
+            List<Future<ChunkResult>> futures = new ArrayList<>(starts.size() - 1);
+            for (int i = 0; i + 1 < starts.size(); i++) {
+                long start = starts.get(i);
+                long end = starts.get(i + 1);
+                futures.add(executor.submit(() -> {
+                    List<GravatarProfile> profiles = new ArrayList<>();
+                    ChunkResult result = readChunk(path, start, end, profiles::add);
+                    result.profiles = profiles;
+                    return result;
+                }));
+            }
+
+            ImmutableList.Builder<GravatarProfile> profiles = ImmutableList.builder();
+            long linesBefore = 0;
+            for (Future<ChunkResult> future : futures) {
+                ChunkResult result = future.get();
+                result.throwIfInvalid(linesBefore);
+                profiles.addAll(result.profiles);
+                linesBefore += result.lineCount;
+            }
+            return profiles.build();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof GravatarJavaClientException clientException) throw clientException;
+            throw new GravatarJavaClientException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GravatarJavaClientException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns a string representation of this reader.
+     *
+     * @return a string representation of this reader
+     */
+    @Override
+    public String toString() {
+        return "GravatarProfileNdjsonReader{"
+                + "chunkSize=" + chunkSize
+                + "}";
+    }
+
+    /**
+     * Returns the offsets at which the chunks of the provided file start, followed by the size of the file.
+     * Every offset but the first is just after a newline.
+     */
+    private List<Long> chunkStarts(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<Long> starts = new ArrayList<>();
+            starts.add(0L);
+            long start = 0;
+            while (size - start > chunkSize) {
+                start = lineStartAtOrAfter(channel, start + chunkSize, size);
+                if (start < size) starts.add(start);
+            }
+            starts.add(size);
+            return starts;
+        } catch (IOException e) {
+            throw new GravatarJavaClientException(e);
+        }
+    }
+
+    /**
+     * Returns the offset just after the first newline at or after the byte before the provided offset,
+     * or the provided size if there is none.
+     */
+    private static long lineStartAtOrAfter(FileChannel channel, long offset, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long position = offset - 1;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') return position + i + 1;
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Reads the lines of the provided file from the provided start offset up to the provided end offset,
+     * passing each profile to the provided consumer and stopping at the first invalid line.
+     */
+    private ChunkResult readChunk(Path path, long start, long end, Consumer<GravatarProfile> consumer) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            channel.position(start);
+            InputStream in = ByteStreams.limit(Channels.newInputStream(channel), end - start);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8),
+                    READ_BUFFER_SIZE);
+
+            ChunkResult result = new ChunkResult();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                result.lineCount++;
+                if (line.isBlank()) continue;
+
+                GravatarProfile profile;
+                try {
+                    profile = parseLine(line);
+                } catch (IOException | JsonParseException | IllegalArgumentException
+                         | IllegalStateException | NullPointerException e) {
+                    result.invalidLine = result.lineCount;
+                    result.error = e.getMessage();
+                    return result;
+                }
+                consumer.accept(profile);
+            }
+            return result;
+        } catch (IOException e) {
+            throw new GravatarJavaClientException(e);
+        }
+    }
+
+    /**
+     * Parses the provided line as exactly one profile.
+     */
+    private GravatarProfile parseLine(String line) throws IOException {
+        JsonReader reader = gson.newJsonReader(new StringReader(line));
+        GravatarProfile profile = adapter.read(reader);
+        if (profile == null) throw new JsonParseException("Expected a profile but was null");
+        if (reader.peek() != JsonToken.END_DOCUMENT) throw new JsonParseException("Expected one profile per line");
+        return profile;
+    }
+
+    /**
+     * The outcome of reading one chunk.
+     */
+    private static final class ChunkResult {
+        /**
+         * The profiles read, when they are collected rather than consumed.
+         */
+        private List<GravatarProfile> profiles;
+
+        /**
+         * The number of lines read, including blank lines.
+         */
+        private long lineCount;
+
+        /**
+         * The line of the chunk, counting from one, which was not a valid profile, or zero.
+         */
+        private long invalidLine;
+
+        /**
+         * The message of the error parsing the invalid line, or null.
+         */
+        private String error;
+
+        /**
+         * Throws if a line was invalid, numbering it after the provided number of lines in preceding chunks.
+         */
+        private void throwIfInvalid(long linesBefore) {
+            if (invalidLine == 0) return;
+            throw new GravatarJavaClientException("Invalid profile on line " + (linesBefore + invalidLine)
+                    + ": " + error);
+        }
+    }
+}
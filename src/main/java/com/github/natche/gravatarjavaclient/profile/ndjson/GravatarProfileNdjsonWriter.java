@@ -0,0 +1,225 @@
+package com.github.natche.gravatarjavaclient.profile.ndjson;
+
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
+import com.github.natche.gravatarjavaclient.profile.gson.GsonProvider;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile;
+import com.google.common.base.Preconditions;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A writer which streams profiles to a file as newline-delimited JSON, one profile per line.
+ * <p>
+ * Profiles are serialized straight into a single buffered writer over the file's channel, so memory use is bounded
+ * by the buffer no matter how many profiles are written. Profiles are always written compactly, even with a Gson
+ * object which pretty prints. The file is created if it does not exist and truncated if it does. A writer is safe
+ * for use by multiple threads, though profiles written concurrently are written in an unspecified order.
+ */
+public final class GravatarProfileNdjsonWriter implements Closeable, Flushable {
+    /**
+     * The number of characters buffered before they are written to the file.
+     */
+    static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The path of the file.
+     */
+    private final Path path;
+
+    /**
+     * The Gson object whose settings profiles are written with.
+     */
+    private final Gson gson;
+
+    /**
+     * The adapter profiles are written by.
+     */
+    private final TypeAdapter<GravatarProfile> adapter;
+
+    /**
+     * The buffered writer over the file's channel.
+     */
+    private final BufferedWriter writer;
+
+    /**
+     * The number of profiles written.
+     */
+    private long count;
+
+    /**
+     * Whether this writer has been closed.
+     */
+    private boolean closed;
+
+    private GravatarProfileNdjsonWriter(Path path, Gson gson, BufferedWriter writer) {
+        this.path = path;
+        this.gson = gson;
+        this.adapter = gson.getAdapter(GravatarProfile.class);
+        this.writer = writer;
+    }
+
+    /**
+     * Opens a writer for the file at the provided path using the shared {@link GsonProvider} Gson object.
+     *
+     * @param path the path of the file
+     * @return a writer for the file
+     * @throws NullPointerException        if the provided path is null
+     * @throws IllegalArgumentException    if the provided path is a directory
+     * @throws GravatarJavaClientException if the file cannot be opened
+     */
+    public static GravatarProfileNdjsonWriter open(Path path) {
+        return open(path, GsonProvider.INSTANCE.get());
+    }
+
+    /**
+     * Opens a writer for the file at the provided path which writes profiles with the provided Gson object.
+     *
+     * @param path the path of the file
+     * @param gson the Gson object
+     * @return a writer for the file
+     * @throws NullPointerException        if either argument is null
+     * @throws IllegalArgumentException    if the provided path is a directory
+     * @throws GravatarJavaClientException if the file cannot be opened
+     */
+    public static GravatarProfileNdjsonWriter open(Path path, Gson gson) {
+        Preconditions.checkNotNull(path);
+        Preconditions.checkNotNull(gson);
+        Preconditions.checkArgument(!Files.isDirectory(path));
+
+        try {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            BufferedWriter writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8),
+                    WRITE_BUFFER_SIZE);
+            return new GravatarProfileNdjsonWriter(path, gson, writer);
+        } catch (IOException e) {
+            throw new GravatarJavaClientException(e);
+        }
+    }
+
+    /**
+     * Returns the path of the file.
+     *
+     * @return the path of the file
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the number of profiles written.
+     *
+     * @return the number of profiles written
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Writes the provided profile as a line.
+     *
+     * @param profile the profile
+     * @return this writer
+     * @throws NullPointerException        if the provided profile is null
+     * @throws GravatarJavaClientException if this writer has been closed or the write fails
+     */
+    @CanIgnoreReturnValue
+    public synchronized GravatarProfileNdjsonWriter write(GravatarProfile profile) {
+        Preconditions.checkNotNull(profile);
+        ensureOpen();
+
+        try {
+            // The JSON writer holds no buffer of its own, so it is not closed or flushed
+            JsonWriter json = gson.newJsonWriter(writer);
+            json.setIndent("");
+            adapter.write(json, profile);
+            writer.write('\n');
+            count++;
+            return this;
+        } catch (IOException e) {
+            throw new GravatarJavaClientException(e);
+        }
+    }
+
+    /**
+     * Writes each of the provided profiles as a line, consuming them one at a time.
+     *
+     * @param profiles the profiles
+     * @return this writer
+     * @throws NullPointerException        if the provided profiles or any profile is null
+     * @throws GravatarJavaClientException if this writer has been closed or a write fails
+     */
+    @CanIgnoreReturnValue
+    public GravatarProfileNdjsonWriter writeAll(Iterable<GravatarProfile> profiles) {
+        Preconditions.checkNotNull(profiles);
+        profiles.forEach(this::write);
+        return this;
+    }
+
+    /**
+     * Writes any buffered profiles to the file.
+     *
+     * @throws GravatarJavaClientException if this writer has been closed or the write fails
+     */
+    @Override
+    public synchronized void flush() {
+        ensureOpen();
+
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new GravatarJavaClientException(e);
+        }
+    }
+
+    /**
+     * Writes any buffered profiles and closes the file. Closing a closed writer has no effect.
+     *
+     * @throws GravatarJavaClientException if the write fails
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new GravatarJavaClientException(e);
+        }
+    }
+
+    /**
+     * Returns a string representation of this writer.
+     *
+     * @return a string representation of this writer
+     */
+    @Override
+    public synchronized String toString() {
+        return "GravatarProfileNdjsonWriter{"
+                + "path=\"" + path + "\""
+                + ", count=" + count
+                + ", closed=" + closed
+                + "}";
+    }
+
+    /**
+     * Throws if this writer has been closed.
+     */
+    private void ensureOpen() {
+        if (closed) throw new GravatarJavaClientException("The writer has been closed");
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Streaming export and parallel import of profiles as newline-delimited JSON, one profile per line.
+ */
+package com.github.natche.gravatarjavaclient.profile.ndjson;
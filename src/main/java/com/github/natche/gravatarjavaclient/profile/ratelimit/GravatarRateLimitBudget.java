@@ -0,0 +1,162 @@
+package com.github.natche.gravatarjavaclient.profile.ratelimit;
+
+import com.github.natche.gravatarjavaclient.enums.GravatarRequestAuthentication;
+import com.google.common.base.Preconditions;
+import com.google.errorprone.annotations.Immutable;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * A snapshot of what the {@link GravatarRateLimitGovernor} knows of one request budget of the Gravatar API.
+ * Values the API has not yet reported are absent.
+ */
+@Immutable
+public final class GravatarRateLimitBudget {
+    /**
+     * The value of a count which has not been reported.
+     */
+    private static final int UNKNOWN = -1;
+
+    /**
+     * The authentication of the requests drawing from this budget.
+     */
+    private final GravatarRequestAuthentication authentication;
+
+    /**
+     * The number of requests allowed per window, or {@link #UNKNOWN}.
+     */
+    private final int limit;
+
+    /**
+     * The number of requests remaining in the current window, or {@link #UNKNOWN}.
+     */
+    private final int remaining;
+
+    /**
+     * The instant the current window resets, or null.
+     */
+    private final Instant resetAt;
+
+    /**
+     * The instant before which no request is sent, or null.
+     */
+    private final Instant pausedUntil;
+
+    /**
+     * Constructs a new GravatarRateLimitBudget.
+     *
+     * @param authentication the authentication of the requests drawing from this budget
+     * @param limit          the number of requests allowed per window, or a negative number if unknown
+     * @param remaining      the number of requests remaining in the current window, or a negative number if unknown
+     * @param resetAt        the instant the current window resets, or null if unknown
+     * @param pausedUntil    the instant before which no request is sent, or null if requests are not paused
+     * @throws NullPointerException if the provided authentication is null
+     */
+    GravatarRateLimitBudget(GravatarRequestAuthentication authentication, int limit, int remaining,
+                            Instant resetAt, Instant pausedUntil) {
+        Preconditions.checkNotNull(authentication);
+
+        this.authentication = authentication;
+        this.limit = Math.max(limit, UNKNOWN);
+        this.remaining = Math.max(remaining, UNKNOWN);
+        this.resetAt = resetAt;
+        this.pausedUntil = pausedUntil;
+    }
+
+    /**
+     * Returns the authentication of the requests drawing from this budget.
+     *
+     * @return the authentication of the requests drawing from this budget
+     */
+    public GravatarRequestAuthentication getAuthentication() {
+        return authentication;
+    }
+
+    /**
+     * Returns the number of requests allowed per window, if reported.
+     *
+     * @return the number of requests allowed per window, if reported
+     */
+    public OptionalInt getLimit() {
+        return limit == UNKNOWN ? OptionalInt.empty() : OptionalInt.of(limit);
+    }
+
+    /**
+     * Returns the number of requests remaining in the current window, if known. This counts down as requests
+     * are reserved and is corrected by each response.
+     *
+     * @return the number of requests remaining in the current window, if known
+     */
+    public OptionalInt getRemaining() {
+        return remaining == UNKNOWN ? OptionalInt.empty() : OptionalInt.of(remaining);
+    }
+
+    /**
+     * Returns the instant the current window resets, if known.
+     *
+     * @return the instant the current window resets, if known
+     */
+    public Optional<Instant> getResetAt() {
+        return Optional.ofNullable(resetAt);
+    }
+
+    /**
+     * Returns the instant before which no request is sent, if requests are paused.
+     *
+     * @return the instant before which no request is sent, if requests are paused
+     */
+    public Optional<Instant> getPausedUntil() {
+        return Optional.ofNullable(pausedUntil);
+    }
+
+    /**
+     * Returns whether the provided object is equal to this.
+     *
+     * @param o the other object
+     * @return whether the provided object is equal to this
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GravatarRateLimitBudget other)) return false;
+        return authentication == other.authentication
+                && limit == other.limit
+                && remaining == other.remaining
+                && Objects.equals(resetAt, other.resetAt)
+                && Objects.equals(pausedUntil, other.pausedUntil);
+    }
+
+    /**
+     * Returns a hashcode for this object.
+     *
+     * @return a hashcode for this object
+     */
+    @Override
+    public int hashCode() {
+        int ret = authentication.hashCode();
+        ret = 31 * ret + Integer.hashCode(limit);
+        ret = 31 * ret + Integer.hashCode(remaining);
+        ret = 31 * ret + Objects.hashCode(resetAt);
+        ret = 31 * ret + Objects.hashCode(pausedUntil);
+        return ret;
+    }
+
+    /**
+     * Returns a string representation of this object.
+     *
+     * @return a string representation of this object
+     */
+    @Override
+    public String toString() {
+        return "GravatarRateLimitBudget{"
+                + "authentication=" + authentication
+                + ", limit=" + limit
+                + ", remaining=" + remaining
+                + ", resetAt=" + resetAt
+                + ", pausedUntil=" + pausedUntil
+                + "}";
+    }
+}
@@ -0,0 +1,148 @@
+package com.github.natche.gravatarjavaclient.profile.ratelimit;
+
+import com.github.natche.gravatarjavaclient.enums.GravatarRequestAuthentication;
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
+import com.google.common.base.Preconditions;
+
+import java.net.http.HttpHeaders;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * A singleton pacing requests to the Gravatar Profile API within the budgets the API reports.
+ * <p>
+ * The API reports its hourly budget in the {@code X-RateLimit-Limit}, {@code X-RateLimit-Remaining}, and
+ * {@code X-RateLimit-Reset} headers of each response, and how long to wait in the {@code Retry-After} header
+ * of a 429 response. Authenticated and unauthenticated requests draw from separate budgets. Before a request is
+ * sent, a slot is reserved for it: while the budget is unknown or plentiful it may be sent immediately; as the
+ * budget runs down requests are spaced evenly across the rest of the window; once it is exhausted, or after a
+ * 429 response, requests wait for the window to reset or the server's retry time. Callers are therefore delayed
+ * rather than failed.
+ */
+public enum GravatarRateLimitGovernor {
+    /**
+     * The rate limit governor.
+     */
+    INSTANCE;
+
+    /**
+     * The clock used to read the current instant.
+     */
+    private final Clock clock = Clock.systemUTC();
+
+    /**
+     * The budget of unauthenticated requests.
+     */
+    private final RateLimitWindow unauthenticated = new RateLimitWindow();
+
+    /**
+     * The budget of authenticated requests.
+     */
+    private final RateLimitWindow authenticated = new RateLimitWindow();
+
+    /**
+     * Reserves a request from the provided budget and returns how long the caller should wait before sending it.
+     * Every reservation counts against the budget, so the request should be sent once the delay has elapsed.
+     *
+     * @param authentication the authentication of the request
+     * @return the delay before the request may be sent, which may be zero
+     * @throws NullPointerException if the provided authentication is null
+     */
+    public Duration reserve(GravatarRequestAuthentication authentication) {
+        return reserve(authentication, clock.instant());
+    }
+
+    /**
+     * Reserves a request from the provided budget and blocks until it may be sent.
+     *
+     * @param authentication the authentication of the request
+     * @throws NullPointerException        if the provided authentication is null
+     * @throws GravatarJavaClientException if the current thread is interrupted while waiting
+     */
+    public void acquire(GravatarRequestAuthentication authentication) {
+        Duration delay = reserve(authentication);
+        if (delay.isZero()) return;
+
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GravatarJavaClientException(e);
+        }
+    }
+
+    /**
+     * Updates the provided budget from the status code and headers of a response.
+     *
+     * @param authentication the authentication of the request
+     * @param statusCode     the HTTP status code of the response
+     * @param headers        the headers of the response
+     * @throws NullPointerException if the provided authentication or headers are null
+     */
+    public void update(GravatarRequestAuthentication authentication, int statusCode, HttpHeaders headers) {
+        update(authentication, statusCode, headers, clock.instant());
+    }
+
+    /**
+     * Returns a snapshot of what is known of the provided budget.
+     *
+     * @param authentication the authentication of the requests drawing from the budget
+     * @return the snapshot
+     * @throws NullPointerException if the provided authentication is null
+     */
+    public GravatarRateLimitBudget getBudget(GravatarRequestAuthentication authentication) {
+        return getBudget(authentication, clock.instant());
+    }
+
+    /**
+     * Reserves a request from the provided budget at the provided instant.
+     *
+     * @param authentication the authentication of the request
+     * @param now            the current instant
+     * @return the delay before the request may be sent
+     */
+    Duration reserve(GravatarRequestAuthentication authentication, Instant now) {
+        return window(authentication).reserve(Preconditions.checkNotNull(now));
+    }
+
+    /**
+     * Updates the provided budget from a response received at the provided instant.
+     *
+     * @param authentication the authentication of the request
+     * @param statusCode     the HTTP status code of the response
+     * @param headers        the headers of the response
+     * @param now            the current instant
+     */
+    void update(GravatarRequestAuthentication authentication, int statusCode, HttpHeaders headers, Instant now) {
+        Preconditions.checkNotNull(headers);
+        window(authentication).update(statusCode, headers, Preconditions.checkNotNull(now));
+    }
+
+    /**
+     * Returns a snapshot of the provided budget at the provided instant.
+     *
+     * @param authentication the authentication of the requests drawing from the budget
+     * @param now            the current instant
+     * @return the snapshot
+     */
+    GravatarRateLimitBudget getBudget(GravatarRequestAuthentication authentication, Instant now) {
+        return window(authentication).snapshot(authentication, Preconditions.checkNotNull(now));
+    }
+
+    /**
+     * Forgets everything known of both budgets.
+     */
+    void clear() {
+        unauthenticated.clear();
+        authenticated.clear();
+    }
+
+    /**
+     * Returns the window of the provided budget.
+     */
+    private RateLimitWindow window(GravatarRequestAuthentication authentication) {
+        Preconditions.checkNotNull(authentication);
+        return authentication == GravatarRequestAuthentication.Authenticated ? authenticated : unauthenticated;
+    }
+}
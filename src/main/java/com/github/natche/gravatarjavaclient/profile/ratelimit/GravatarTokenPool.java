@@ -0,0 +1,446 @@
+package com.github.natche.gravatarjavaclient.profile.ratelimit;
+
+import com.github.natche.gravatarjavaclient.enums.GravatarRequestAuthentication;
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import java.net.http.HttpHeaders;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A pool of API tokens which spreads authenticated requests to the Gravatar Profile API across their budgets,
+ * so that the requests a service can send grow with the number of tokens it holds.
+ * <p>
+ * Each token has its own budget, learned from the rate limit headers of the responses to its requests and paced
+ * as the {@link GravatarRateLimitGovernor} paces a single budget. Tokens are acquired in a smooth weighted
+ * rotation: each token is weighted by the requests remaining in its budget, so tokens with more to spare carry
+ * proportionally more requests, interleaved rather than in runs. A token whose budget is exhausted, which received
+ * a 429 response, or which was rejected as unauthorized is quarantined and not acquired until its window resets,
+ * the server's retry time passes, or {@link #UNAUTHORIZED_QUARANTINE} elapses. When every token is quarantined,
+ * callers wait for the first to be released. A pool is safe for use by multiple threads.
+ */
+public final class GravatarTokenPool {
+    /**
+     * How long a token rejected as unauthorized is quarantined.
+     */
+    public static final Duration UNAUTHORIZED_QUARANTINE = Duration.ofMinutes(10);
+
+    /**
+     * The number of characters of each token kept in its statistics.
+     */
+    private static final int TOKEN_SUBSTRING_LENGTH = 5;
+
+    /**
+     * The status code of responses to requests which exceeded the budget.
+     */
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    /**
+     * The status code of responses reporting that a profile does not exist, which are not errors.
+     */
+    private static final int NOT_FOUND = 404;
+
+    /**
+     * The clock used to read the current instant.
+     */
+    private final Clock clock = Clock.systemUTC();
+
+    /**
+     * The state of each token, in the order they were provided.
+     */
+    private final ImmutableList<TokenState> states;
+
+    /**
+     * The state of each token, by token.
+     */
+    private final HashMap<String, TokenState> statesByToken = new HashMap<>();
+
+    private GravatarTokenPool(ImmutableList<String> tokens) {
+        ImmutableList.Builder<TokenState> builder = ImmutableList.builderWithExpectedSize(tokens.size());
+        for (String token : tokens) {
+            TokenState state = new TokenState(token);
+            builder.add(state);
+            statesByToken.put(token, state);
+        }
+        this.states = builder.build();
+    }
+
+    /**
+     * Constructs a new pool of the provided tokens.
+     *
+     * @param tokens the tokens
+     * @return a new pool
+     * @throws NullPointerException     if the provided tokens or any token is null
+     * @throws IllegalArgumentException if no tokens are provided, or any token is empty or provided twice
+     */
+    public static GravatarTokenPool of(Iterable<String> tokens) {
+        Preconditions.checkNotNull(tokens);
+
+        ImmutableList<String> copy = ImmutableList.copyOf(tokens);
+        Preconditions.checkArgument(!copy.isEmpty());
+        for (String token : copy) Preconditions.checkArgument(!token.trim().isEmpty());
+        Preconditions.checkArgument(copy.stream().distinct().count() == copy.size());
+
+        return new GravatarTokenPool(copy);
+    }
+
+    /**
+     * Constructs a new pool of the provided tokens.
+     *
+     * @param tokens the tokens
+     * @return a new pool
+     * @throws NullPointerException     if the provided tokens or any token is null
+     * @throws IllegalArgumentException if no tokens are provided, or any token is empty or provided twice
+     */
+    public static GravatarTokenPool of(String... tokens) {
+        Preconditions.checkNotNull(tokens);
+        return of(List.of(tokens));
+    }
+
+    /**
+     * Returns the number of tokens in this pool.
+     *
+     * @return the number of tokens in this pool
+     */
+    public int size() {
+        return states.size();
+    }
+
+    /**
+     * Returns the first token of this pool, under which profiles fetched through it are cached and stored.
+     *
+     * @return the first token of this pool
+     */
+    public String getPrimaryToken() {
+        return states.get(0).token;
+    }
+
+    /**
+     * Acquires a token for one request, blocking until a token is out of quarantine and the request fits the
+     * pace of its budget. The request should be sent immediately and its response passed to
+     * {@link #update(String, int, HttpHeaders)}, or its failure to {@link #recordFailure(String)}.
+     *
+     * @return the token
+     * @throws GravatarJavaClientException if the current thread is interrupted while waiting
+     */
+    public String acquire() {
+        while (true) {
+            Reservation reservation = reserve(clock.instant());
+            if (!reservation.delay.isZero()) {
+                try {
+                    Thread.sleep(reservation.delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new GravatarJavaClientException(e);
+                }
+            }
+            if (reservation.token != null) return reservation.token;
+        }
+    }
+
+    /**
+     * Acquires a token for one request without blocking. The returned future completes with the token once it
+     * is out of quarantine and the request fits the pace of its budget, as {@link #acquire()} would return it.
+     *
+     * @return a future completed with the token
+     */
+    public CompletableFuture<String> acquireAsync() {
+        Reservation reservation = reserve(clock.instant());
+        if (reservation.token != null && reservation.delay.isZero()) {
+            return CompletableFuture.completedFuture(reservation.token);
+        }
+
+        Executor delayed = CompletableFuture.delayedExecutor(reservation.delay.toNanos(), TimeUnit.NANOSECONDS);
+        if (reservation.token != null) return CompletableFuture.supplyAsync(() -> reservation.token, delayed);
+        return CompletableFuture.runAsync(() -> {}, delayed).thenCompose(ignored -> acquireAsync());
+    }
+
+    /**
+     * Updates the budget and statistics of the provided token from the status code and headers of the response
+     * to a request it was acquired for.
+     *
+     * @param token      the token
+     * @param statusCode the HTTP status code of the response
+     * @param headers    the headers of the response
+     * @throws NullPointerException     if the provided token or headers are null
+     * @throws IllegalArgumentException if the provided token is not in this pool
+     */
+    public void update(String token, int statusCode, HttpHeaders headers) {
+        update(token, statusCode, headers, clock.instant());
+    }
+
+    /**
+     * Records that a request the provided token was acquired for could not be sent or its response not received.
+     *
+     * @param token the token
+     * @throws NullPointerException     if the provided token is null
+     * @throws IllegalArgumentException if the provided token is not in this pool
+     */
+    public synchronized void recordFailure(String token) {
+        stateOf(token).errorCount++;
+    }
+
+    /**
+     * Returns the statistics of each token, in the order the tokens were provided.
+     *
+     * @return the statistics of each token
+     */
+    public ImmutableList<GravatarTokenStatistics> getStatistics() {
+        return getStatistics(clock.instant());
+    }
+
+    /**
+     * Reserves a request at the provided instant. If every token is quarantined, the reservation has no token
+     * and its delay is the time until the first is released.
+     *
+     * @param now the current instant
+     * @return the reservation
+     */
+    synchronized Reservation reserve(Instant now) {
+        Preconditions.checkNotNull(now);
+
+        List<GravatarRateLimitBudget> budgets = new ArrayList<>(states.size());
+        long knownWeight = 0;
+        int knownCount = 0;
+        Instant firstRelease = null;
+        for (TokenState state : states) {
+            GravatarRateLimitBudget budget = state.window.snapshot(GravatarRequestAuthentication.Authenticated, now);
+            Instant until = quarantinedUntil(state, budget, now);
+            if (until != null) {
+                firstRelease = earlier(firstRelease, until);
+                budgets.add(null);
+                continue;
+            }
+
+            budgets.add(budget);
+            long weight = weightOf(budget);
+            if (weight > 0) {
+                knownWeight += weight;
+                knownCount++;
+            }
+        }
+
+        // Tokens whose budgets are unknown are weighted as the average token, so they are tried without being favored
+        long unknownWeight = knownCount > 0 ? Math.max(1, knownWeight / knownCount) : 1;
+        long totalWeight = 0;
+        TokenState chosen = null;
+        for (int i = 0; i < states.size(); i++) {
+            if (budgets.get(i) == null) continue;
+
+            TokenState state = states.get(i);
+            long weight = weightOf(budgets.get(i));
+            if (weight <= 0) weight = unknownWeight;
+            state.currentWeight += weight;
+            totalWeight += weight;
+            if (chosen == null || state.currentWeight > chosen.currentWeight) chosen = state;
+        }
+
+        if (chosen == null) return new Reservation(null, Duration.between(now, firstRelease));
+
+        chosen.currentWeight -= totalWeight;
+        chosen.requestCount++;
+        Duration delay = chosen.window.reserve(now);
+        settle(chosen, now);
+        return new Reservation(chosen.token, delay);
+    }
+
+    /**
+     * Updates the provided token from a response received at the provided instant.
+     *
+     * @param token      the token
+     * @param statusCode the HTTP status code of the response
+     * @param headers    the headers of the response
+     * @param now        the current instant
+     */
+    synchronized void update(String token, int statusCode, HttpHeaders headers, Instant now) {
+        Preconditions.checkNotNull(headers);
+        Preconditions.checkNotNull(now);
+
+        TokenState state = stateOf(token);
+        state.window.update(statusCode, headers, now);
+        if (statusCode == TOO_MANY_REQUESTS) {
+            state.rateLimitedCount++;
+            state.errorCount++;
+        } else if (statusCode == 401 || statusCode == 403) {
+            state.errorCount++;
+            state.quarantinedUntil = later(state.quarantinedUntil, now.plus(UNAUTHORIZED_QUARANTINE));
+        } else if (statusCode >= 400 && statusCode != NOT_FOUND) {
+            state.errorCount++;
+        }
+        settle(state, now);
+    }
+
+    /**
+     * Returns the statistics of each token at the provided instant.
+     *
+     * @param now the current instant
+     * @return the statistics of each token
+     */
+    synchronized ImmutableList<GravatarTokenStatistics> getStatistics(Instant now) {
+        Preconditions.checkNotNull(now);
+
+        ImmutableList.Builder<GravatarTokenStatistics> statistics = ImmutableList.builderWithExpectedSize(size());
+        for (int i = 0; i < states.size(); i++) {
+            TokenState state = states.get(i);
+            GravatarRateLimitBudget budget = state.window.snapshot(GravatarRequestAuthentication.Authenticated, now);
+            String prefix = state.token.length() > TOKEN_SUBSTRING_LENGTH
+                    ? state.token.substring(0, TOKEN_SUBSTRING_LENGTH) + "..."
+                    : state.token;
+            statistics.add(new GravatarTokenStatistics(i, prefix, state.requestCount, state.errorCount,
+                    state.rateLimitedCount, budget, quarantinedUntil(state, budget, now)));
+        }
+        return statistics.build();
+    }
+
+    /**
+     * Returns a string representation of this pool.
+     *
+     * @return a string representation of this pool
+     */
+    @Override
+    public synchronized String toString() {
+        Instant now = clock.instant();
+        int available = 0;
+        for (TokenState state : states) {
+            GravatarRateLimitBudget budget = state.window.snapshot(GravatarRequestAuthentication.Authenticated, now);
+            if (quarantinedUntil(state, budget, now) == null) available++;
+        }
+
+        return "GravatarTokenPool{"
+                + "size=" + states.size()
+                + ", available=" + available
+                + "}";
+    }
+
+    /**
+     * Returns the state of the provided token.
+     */
+    private TokenState stateOf(String token) {
+        Preconditions.checkNotNull(token);
+
+        TokenState state = statesByToken.get(token);
+        Preconditions.checkArgument(state != null);
+        return state;
+    }
+
+    /**
+     * Quarantines the provided token if its budget is exhausted with no known reset, which its window would
+     * otherwise never release.
+     */
+    private static void settle(TokenState state, Instant now) {
+        GravatarRateLimitBudget budget = state.window.snapshot(GravatarRequestAuthentication.Authenticated, now);
+        if (budget.getRemaining().orElse(-1) == 0 && budget.getResetAt().isEmpty()) {
+            state.window.clear();
+            state.quarantinedUntil = later(state.quarantinedUntil, now.plus(RateLimitWindow.DEFAULT_PAUSE));
+        }
+    }
+
+    /**
+     * Returns the instant the provided token is released from quarantine, or null if it is not quarantined.
+     */
+    private static Instant quarantinedUntil(TokenState state, GravatarRateLimitBudget budget, Instant now) {
+        Instant until = state.quarantinedUntil != null && state.quarantinedUntil.isAfter(now)
+                ? state.quarantinedUntil
+                : null;
+        until = later(until, budget.getPausedUntil().orElse(null));
+        if (budget.getRemaining().orElse(-1) == 0) until = later(until, budget.getResetAt().orElse(null));
+        return until;
+    }
+
+    /**
+     * Returns the weight of a token with the provided budget, or zero if its budget is unknown.
+     */
+    private static long weightOf(GravatarRateLimitBudget budget) {
+        if (budget.getRemaining().isPresent()) return budget.getRemaining().getAsInt();
+        return budget.getLimit().orElse(0);
+    }
+
+    /**
+     * Returns the later of the provided instants, either of which may be null.
+     */
+    private static Instant later(Instant first, Instant second) {
+        if (first == null) return second;
+        if (second == null) return first;
+        return first.isAfter(second) ? first : second;
+    }
+
+    /**
+     * Returns the earlier of the provided instants, the first of which may be null.
+     */
+    private static Instant earlier(Instant first, Instant second) {
+        return first == null || second.isBefore(first) ? second : first;
+    }
+
+    /**
+     * A token reserved for one request and how long to wait before sending it.
+     */
+    static final class Reservation {
+        /**
+         * The token, or null if every token is quarantined.
+         */
+        final String token;
+
+        /**
+         * The delay before the request may be sent, or before a token is released if none was reserved.
+         */
+        final Duration delay;
+
+        Reservation(String token, Duration delay) {
+            this.token = token;
+            this.delay = delay;
+        }
+    }
+
+    /**
+     * The budget, rotation weight, and statistics of one token.
+     */
+    private static final class TokenState {
+        /**
+         * The token.
+         */
+        private final String token;
+
+        /**
+         * The budget of the token.
+         */
+        private final RateLimitWindow window = new RateLimitWindow();
+
+        /**
+         * The weight the token has accumulated in the rotation.
+         */
+        private long currentWeight;
+
+        /**
+         * The number of requests the token has been acquired for.
+         */
+        private long requestCount;
+
+        /**
+         * The number of requests which failed or received an error response.
+         */
+        private long errorCount;
+
+        /**
+         * The number of requests which received a 429 response.
+         */
+        private long rateLimitedCount;
+
+        /**
+         * The instant before which the token is not acquired regardless of its budget, or null.
+         */
+        private Instant quarantinedUntil;
+
+        private TokenState(String token) {
+            this.token = token;
+        }
+    }
+}
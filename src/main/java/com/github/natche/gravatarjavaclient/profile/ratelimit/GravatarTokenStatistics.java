@@ -0,0 +1,200 @@
+package com.github.natche.gravatarjavaclient.profile.ratelimit;
+
+import com.google.common.base.Preconditions;
+import com.google.errorprone.annotations.Immutable;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A snapshot of the traffic one token of a {@link GravatarTokenPool} has carried and of its request budget.
+ * The token itself is not retained; only its first few characters are kept to identify it.
+ */
+@Immutable
+public final class GravatarTokenStatistics {
+    /**
+     * The position of the token within its pool.
+     */
+    private final int index;
+
+    /**
+     * The first few characters of the token.
+     */
+    private final String tokenPrefix;
+
+    /**
+     * The number of requests the token has been acquired for.
+     */
+    private final long requestCount;
+
+    /**
+     * The number of requests which failed or received an error response, other than not found.
+     */
+    private final long errorCount;
+
+    /**
+     * The number of requests which received a 429 response.
+     */
+    private final long rateLimitedCount;
+
+    /**
+     * What is known of the token's request budget.
+     */
+    private final GravatarRateLimitBudget budget;
+
+    /**
+     * The instant before which the token is not acquired, or null.
+     */
+    private final Instant quarantinedUntil;
+
+    /**
+     * Constructs a new GravatarTokenStatistics.
+     *
+     * @param index            the position of the token within its pool
+     * @param tokenPrefix      the first few characters of the token
+     * @param requestCount     the number of requests the token has been acquired for
+     * @param errorCount       the number of requests which failed or received an error response
+     * @param rateLimitedCount the number of requests which received a 429 response
+     * @param budget           what is known of the token's request budget
+     * @param quarantinedUntil the instant before which the token is not acquired, or null
+     * @throws NullPointerException if the provided prefix or budget is null
+     */
+    GravatarTokenStatistics(int index, String tokenPrefix, long requestCount, long errorCount,
+                            long rateLimitedCount, GravatarRateLimitBudget budget, Instant quarantinedUntil) {
+        this.index = index;
+        this.tokenPrefix = Preconditions.checkNotNull(tokenPrefix);
+        this.requestCount = requestCount;
+        this.errorCount = errorCount;
+        this.rateLimitedCount = rateLimitedCount;
+        this.budget = Preconditions.checkNotNull(budget);
+        this.quarantinedUntil = quarantinedUntil;
+    }
+
+    /**
+     * Returns the position of the token within its pool.
+     *
+     * @return the position of the token within its pool
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the first few characters of the token followed by an ellipsis.
+     *
+     * @return the first few characters of the token
+     */
+    public String getTokenPrefix() {
+        return tokenPrefix;
+    }
+
+    /**
+     * Returns the number of requests the token has been acquired for.
+     *
+     * @return the number of requests the token has been acquired for
+     */
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * Returns the number of requests which could not be sent or received an error response.
+     * Responses reporting that a profile was not found are not errors.
+     *
+     * @return the number of requests which could not be sent or received an error response
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Returns the number of requests which received a 429 response. These are included in the error count.
+     *
+     * @return the number of requests which received a 429 response
+     */
+    public long getRateLimitedCount() {
+        return rateLimitedCount;
+    }
+
+    /**
+     * Returns the fraction of requests which were errors, or zero if none have been sent.
+     *
+     * @return the fraction of requests which were errors
+     */
+    public double getErrorRate() {
+        return requestCount == 0 ? 0 : (double) errorCount / requestCount;
+    }
+
+    /**
+     * Returns what is known of the token's request budget.
+     *
+     * @return what is known of the token's request budget
+     */
+    public GravatarRateLimitBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Returns the instant before which the token is not acquired, if it is quarantined.
+     *
+     * @return the instant before which the token is not acquired, if it is quarantined
+     */
+    public Optional<Instant> getQuarantinedUntil() {
+        return Optional.ofNullable(quarantinedUntil);
+    }
+
+    /**
+     * Returns whether the provided object is equal to this.
+     *
+     * @param o the other object
+     * @return whether the provided object is equal to this
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GravatarTokenStatistics other)) return false;
+        return index == other.index
+                && tokenPrefix.equals(other.tokenPrefix)
+                && requestCount == other.requestCount
+                && errorCount == other.errorCount
+                && rateLimitedCount == other.rateLimitedCount
+                && budget.equals(other.budget)
+                && Objects.equals(quarantinedUntil, other.quarantinedUntil);
+    }
+
+    /**
+     * Returns a hashcode for this object.
+     *
+     * @return a hashcode for this object
+     */
+    @Override
+    public int hashCode() {
+        int ret = Integer.hashCode(index);
+        ret = 31 * ret + tokenPrefix.hashCode();
+        ret = 31 * ret + Long.hashCode(requestCount);
+        ret = 31 * ret + Long.hashCode(errorCount);
+        ret = 31 * ret + Long.hashCode(rateLimitedCount);
+        ret = 31 * ret + budget.hashCode();
+        ret = 31 * ret + Objects.hashCode(quarantinedUntil);
+        return ret;
+    }
+
+    /**
+     * Returns a string representation of this object.
+     *
+     * @return a string representation of this object
+     */
+    @Override
+    public String toString() {
+        return "GravatarTokenStatistics{"
+                + "index=" + index
+                + ", tokenPrefix=\"" + tokenPrefix + "\""
+                + ", requestCount=" + requestCount
+                + ", errorCount=" + errorCount
+                + ", rateLimitedCount=" + rateLimitedCount
+                + ", budget=" + budget
+                + ", quarantinedUntil=" + quarantinedUntil
+                + "}";
+    }
+}
@@ -0,0 +1,219 @@
+package com.github.natche.gravatarjavaclient.profile.ratelimit;
+
+import com.github.natche.gravatarjavaclient.enums.GravatarRequestAuthentication;
+
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+
+/**
+ * The state of one request budget: what the API last reported of it, the requests reserved against it since,
+ * and the schedule on which further requests are released.
+ * <p>
+ * Requests are spaced evenly across what remains of the window, so that the budget runs out as the window
+ * resets rather than at its start. Up to {@link #BURST} requests may be released at once before spacing applies.
+ */
+final class RateLimitWindow {
+    /**
+     * The number of requests which may be released at once before they are spaced.
+     */
+    static final int BURST = 10;
+
+    /**
+     * The length assumed for a window which follows one the API reported; the profile API's quotas are hourly.
+     */
+    static final Duration ASSUMED_WINDOW = Duration.ofHours(1);
+
+    /**
+     * How long to pause after a 429 response which gives no indication of when to retry.
+     */
+    static final Duration DEFAULT_PAUSE = Duration.ofMinutes(1);
+
+    /**
+     * Reset header values below this are relative seconds rather than epoch seconds.
+     */
+    private static final long MIN_EPOCH_SECONDS = 1_000_000_000L;
+
+    /**
+     * The status code of responses to requests which exceeded the budget.
+     */
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    /**
+     * The number of requests allowed per window, or -1 if unknown.
+     */
+    private int limit = -1;
+
+    /**
+     * The number of requests remaining in the current window, or -1 if unknown.
+     */
+    private int remaining = -1;
+
+    /**
+     * The instant the current window resets, or null if unknown.
+     */
+    private Instant resetAt;
+
+    /**
+     * The instant before which no request is released, or null.
+     */
+    private Instant pausedUntil;
+
+    /**
+     * The instant the next request is due if requests are evenly spaced, or null if none has been scheduled.
+     */
+    private Instant nextSlot;
+
+    /**
+     * Reserves a request and returns how long after the provided instant it may be sent.
+     *
+     * @param now the current instant
+     * @return the delay before the request may be sent
+     */
+    synchronized Duration reserve(Instant now) {
+        advance(now);
+
+        Instant start = later(now, pausedUntil);
+        if (remaining == 0) {
+            Instant until = resetAt != null ? resetAt : now.plus(DEFAULT_PAUSE);
+            pausedUntil = later(pausedUntil, until);
+            start = later(start, until);
+            nextSlot = null;
+            if (limit > 0 && resetAt != null) {
+                remaining = limit;
+                resetAt = resetAt.plus(ASSUMED_WINDOW);
+            } else {
+                remaining = -1;
+                resetAt = null;
+            }
+        }
+
+        Instant slot = later(start, nextSlot);
+        if (remaining > 0 && resetAt != null && resetAt.isAfter(slot)) {
+            Duration interval = Duration.between(slot, resetAt).dividedBy(remaining);
+            Instant earliest = slot.minus(interval.multipliedBy(BURST - 1));
+            start = later(start, earliest);
+            nextSlot = slot.plus(interval);
+        }
+        if (remaining > 0) remaining--;
+
+        return Duration.between(now, start);
+    }
+
+    /**
+     * Updates this window from the status code and headers of a response received at the provided instant.
+     *
+     * @param statusCode the HTTP status code of the response
+     * @param headers    the headers of the response
+     * @param now        the current instant
+     */
+    synchronized void update(int statusCode, HttpHeaders headers, Instant now) {
+        Optional<Long> reportedLimit = longHeader(headers, "x-ratelimit-limit");
+        Optional<Long> reportedRemaining = longHeader(headers, "x-ratelimit-remaining");
+        Instant reportedReset = longHeader(headers, "x-ratelimit-reset")
+                .map(value -> value >= MIN_EPOCH_SECONDS ? Instant.ofEpochSecond(value) : now.plusSeconds(value))
+                .orElse(null);
+
+        reportedLimit.ifPresent(value -> limit = (int) Math.min(value, Integer.MAX_VALUE));
+        if (reportedRemaining.isPresent()) {
+            int value = (int) Math.min(reportedRemaining.get(), Integer.MAX_VALUE);
+            boolean sameWindow = reportedReset == null || reportedReset.equals(resetAt);
+            // Responses to earlier requests may arrive after later reservations were counted
+            remaining = sameWindow && remaining >= 0 ? Math.min(remaining, value) : value;
+        }
+        if (reportedReset != null) {
+            if (!reportedReset.equals(resetAt)) nextSlot = null;
+            resetAt = reportedReset;
+        }
+
+        Instant retryAt = retryAfter(headers, now);
+        if (statusCode == TOO_MANY_REQUESTS && retryAt == null) {
+            retryAt = resetAt != null && resetAt.isAfter(now) ? resetAt : now.plus(DEFAULT_PAUSE);
+        }
+        if (retryAt != null) pausedUntil = later(pausedUntil, retryAt);
+    }
+
+    /**
+     * Returns a snapshot of this window at the provided instant.
+     *
+     * @param authentication the authentication of the requests drawing from this window
+     * @param now            the current instant
+     * @return the snapshot
+     */
+    synchronized GravatarRateLimitBudget snapshot(GravatarRequestAuthentication authentication, Instant now) {
+        advance(now);
+        return new GravatarRateLimitBudget(authentication, limit, remaining, resetAt, pausedUntil);
+    }
+
+    /**
+     * Forgets everything known of this window.
+     */
+    synchronized void clear() {
+        limit = -1;
+        remaining = -1;
+        resetAt = null;
+        pausedUntil = null;
+        nextSlot = null;
+    }
+
+    /**
+     * Moves this window forward to the provided instant, starting a new window if the current one has reset.
+     */
+    private void advance(Instant now) {
+        if (pausedUntil != null && !pausedUntil.isAfter(now)) pausedUntil = null;
+        if (resetAt == null || now.isBefore(resetAt)) return;
+
+        nextSlot = null;
+        if (limit > 0) {
+            remaining = limit;
+            while (!now.isBefore(resetAt)) resetAt = resetAt.plus(ASSUMED_WINDOW);
+        } else {
+            remaining = -1;
+            resetAt = null;
+        }
+    }
+
+    /**
+     * Returns the later of the provided instants, either of which may be null.
+     */
+    private static Instant later(Instant first, Instant second) {
+        if (first == null) return second;
+        if (second == null) return first;
+        return first.isAfter(second) ? first : second;
+    }
+
+    /**
+     * Returns the value of the provided header as a non-negative long, if present and well formed.
+     */
+    private static Optional<Long> longHeader(HttpHeaders headers, String name) {
+        return headers.firstValue(name).flatMap(value -> {
+            try {
+                long parsed = Long.parseLong(value.trim());
+                return parsed >= 0 ? Optional.of(parsed) : Optional.empty();
+            } catch (NumberFormatException e) {
+                return Optional.empty();
+            }
+        });
+    }
+
+    /**
+     * Returns the instant given by the Retry-After header, which may be a number of seconds or an HTTP date,
+     * or null if it is absent or malformed.
+     */
+    private static Instant retryAfter(HttpHeaders headers, Instant now) {
+        Optional<String> value = headers.firstValue("retry-after");
+        if (value.isEmpty()) return null;
+
+        Optional<Long> seconds = longHeader(headers, "retry-after");
+        if (seconds.isPresent()) return now.plusSeconds(seconds.get());
+        try {
+            return ZonedDateTime.parse(value.get().trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
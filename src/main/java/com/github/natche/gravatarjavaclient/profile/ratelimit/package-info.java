@@ -0,0 +1,4 @@
+/**
+ * Classes for pacing requests to the Gravatar Profile API within the budgets it reports.
+ */
+package com.github.natche.gravatarjavaclient.profile.ratelimit;
@@ -6,6 +6,7 @@ import com.google.errorprone.annotations.Immutable;
 import com.google.gson.annotations.SerializedName;
 
 import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -16,6 +17,16 @@ import java.util.Optional;
  */
 @Immutable
 public final class GravatarProfile {
+    /**
+     * The bit of {@link #epochTimestamps} set when the last profile edit is held as epoch seconds.
+     */
+    private static final int LAST_PROFILE_EDIT_EPOCH = 1;
+
+    /**
+     * The bit of {@link #epochTimestamps} set when the registration date is held as epoch seconds.
+     */
+    private static final int REGISTRATION_DATE_EPOCH = 2;
+
     /**
      * The SHA256 hash of the user's primary email address.
      */
@@ -143,17 +154,33 @@ public final class GravatarProfile {
     private final int numberVerifiedAccounts;
 
     /**
-     * The last time this account was edited at.
+     * The last time this account was edited at, or null if it is absent or held as epoch seconds.
      */
     @SerializedName("last_profile_edit")
     private final String lastProfileEdit;
 
     /**
-     * The date this account was registered at.
+     * The date this account was registered at, or null if it is absent or held as epoch seconds.
      */
     @SerializedName("registration_date")
     private final String registrationDate;
 
+    /**
+     * The last time this account was edited at in seconds since the epoch, if it is held as epoch seconds.
+     */
+    private final transient long lastProfileEditEpochSecond;
+
+    /**
+     * The date this account was registered at in seconds since the epoch, if it is held as epoch seconds.
+     */
+    private final transient long registrationDateEpochSecond;
+
+    /**
+     * Which timestamps are held as epoch seconds rather than text. Zero unless set by
+     * {@link #withEpochTimestamps()}, including for profiles read by reflection.
+     */
+    private final transient byte epochTimestamps;
+
     /**
      * Constructs a new GravatarProfile.
      *
@@ -233,6 +260,87 @@ public final class GravatarProfile {
         this.numberVerifiedAccounts = numberVerifiedAccounts;
         this.lastProfileEdit = lastProfileEdit;
         this.registrationDate = registrationDate;
+        this.lastProfileEditEpochSecond = 0;
+        this.registrationDateEpochSecond = 0;
+        this.epochTimestamps = 0;
+    }
+
+    /**
+     * Constructs a copy of the provided profile with the provided timestamp representation.
+     */
+    private GravatarProfile(GravatarProfile source,
+                            String lastProfileEdit, long lastProfileEditEpochSecond,
+                            String registrationDate, long registrationDateEpochSecond,
+                            byte epochTimestamps) {
+        this.hash = source.hash;
+        this.displayName = source.displayName;
+        this.profileUrl = source.profileUrl;
+        this.avatarUrl = source.avatarUrl;
+        this.avatarAltText = source.avatarAltText;
+        this.location = source.location;
+        this.description = source.description;
+        this.jobTitle = source.jobTitle;
+        this.company = source.company;
+        this.verifiedAccounts = source.verifiedAccounts;
+        this.pronunciation = source.pronunciation;
+        this.pronouns = source.pronouns;
+        this.timezone = source.timezone;
+        this.languages = source.languages;
+        this.firstName = source.firstName;
+        this.lastName = source.lastName;
+        this.isOrganization = source.isOrganization;
+        this.links = source.links;
+        this.interests = source.interests;
+        this.payments = source.payments;
+        this.contactInfo = source.contactInfo;
+        this.gallery = source.gallery;
+        this.numberVerifiedAccounts = source.numberVerifiedAccounts;
+        this.lastProfileEdit = lastProfileEdit;
+        this.lastProfileEditEpochSecond = lastProfileEditEpochSecond;
+        this.registrationDate = registrationDate;
+        this.registrationDateEpochSecond = registrationDateEpochSecond;
+        this.epochTimestamps = epochTimestamps;
+    }
+
+    /**
+     * Returns a profile equal to this one which holds its timestamps as epoch seconds rather than text,
+     * as profiles read by {@code GsonProvider.getInterning()} do. Only timestamps whose text is exactly the
+     * {@link Instant#toString()} of a whole second are converted, so the timestamps, equality, hashcode,
+     * and JSON written by the provided type adapters are unchanged; others are kept as text.
+     * <p>
+     * Reflective serialization skips the epoch seconds, so a converted profile should be written
+     * with a Gson object of {@code GsonProvider}.
+     *
+     * @return a profile holding its timestamps as epoch seconds where possible, which may be this profile
+     */
+    public GravatarProfile withEpochTimestamps() {
+        Instant edited = wholeSecond(lastProfileEdit);
+        Instant registered = wholeSecond(registrationDate);
+        if (edited == null && registered == null) return this;
+
+        byte flags = (byte) (epochTimestamps
+                | (edited != null ? LAST_PROFILE_EDIT_EPOCH : 0)
+                | (registered != null ? REGISTRATION_DATE_EPOCH : 0));
+        return new GravatarProfile(this,
+                edited != null ? null : lastProfileEdit,
+                edited != null ? edited.getEpochSecond() : lastProfileEditEpochSecond,
+                registered != null ? null : registrationDate,
+                registered != null ? registered.getEpochSecond() : registrationDateEpochSecond,
+                flags);
+    }
+
+    /**
+     * Returns the instant of the provided text if it is exactly the text of a whole second, otherwise null.
+     */
+    private static Instant wholeSecond(String text) {
+        if (text == null) return null;
+
+        try {
+            Instant instant = Instant.parse(text);
+            return instant.getNano() == 0 && instant.toString().equals(text) ? instant : null;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
     }
 
     /**
@@ -453,18 +561,60 @@ public final class GravatarProfile {
      * @return the last time this account was edited at
      */
     public Optional<Instant> getLastProfileEdit() {
+        if ((epochTimestamps & LAST_PROFILE_EDIT_EPOCH) != 0) {
+            return Optional.of(Instant.ofEpochSecond(lastProfileEditEpochSecond));
+        }
         return lastProfileEdit == null ? Optional.empty() : Optional.of(Instant.parse(lastProfileEdit));
     }
 
+    /**
+     * Returns the text of the last time this account was edited at as it is held by this profile.
+     * This is empty if it is absent or held as epoch seconds; see {@link #withEpochTimestamps()}.
+     *
+     * @return the text of the last time this account was edited at, if held as text
+     */
+    public Optional<String> getLastProfileEditText() {
+        return Optional.ofNullable(lastProfileEdit);
+    }
+
     /**
      * Returns the date this account was registered at.
      *
      * @return the date this account was registered at
      */
     public Optional<Instant> getRegistrationDate() {
+        if ((epochTimestamps & REGISTRATION_DATE_EPOCH) != 0) {
+            return Optional.of(Instant.ofEpochSecond(registrationDateEpochSecond));
+        }
         return registrationDate == null ? Optional.empty() : Optional.of(Instant.parse(registrationDate));
     }
 
+    /**
+     * Returns the text of the date this account was registered at as it is held by this profile.
+     * This is empty if it is absent or held as epoch seconds; see {@link #withEpochTimestamps()}.
+     *
+     * @return the text of the date this account was registered at, if held as text
+     */
+    public Optional<String> getRegistrationDateText() {
+        return Optional.ofNullable(registrationDate);
+    }
+
+    /**
+     * Returns the text of the last profile edit, converting it back from epoch seconds if held that way.
+     */
+    private String lastProfileEditText() {
+        if ((epochTimestamps & LAST_PROFILE_EDIT_EPOCH) == 0) return lastProfileEdit;
+        return Instant.ofEpochSecond(lastProfileEditEpochSecond).toString();
+    }
+
+    /**
+     * Returns the text of the registration date, converting it back from epoch seconds if held that way.
+     */
+    private String registrationDateText() {
+        if ((epochTimestamps & REGISTRATION_DATE_EPOCH) == 0) return registrationDate;
+        return Instant.ofEpochSecond(registrationDateEpochSecond).toString();
+    }
+
     /**
      * Returns whether the provided object is equal to this.
      *
@@ -499,8 +649,8 @@ public final class GravatarProfile {
                 && Objects.equals(payments, that.payments)
                 && Objects.equals(contactInfo, that.contactInfo)
                 && Objects.equals(gallery, that.gallery)
-                && Objects.equals(lastProfileEdit, that.lastProfileEdit)
-                && Objects.equals(registrationDate, that.registrationDate);
+                && Objects.equals(lastProfileEditText(), that.lastProfileEditText())
+                && Objects.equals(registrationDateText(), that.registrationDateText());
     }
 
     /**
@@ -533,8 +683,8 @@ public final class GravatarProfile {
         ret = 31 * ret + Objects.hashCode(contactInfo);
         ret = 31 * ret + gallery.hashCode();
         ret = 31 * ret + numberVerifiedAccounts;
-        ret = 31 * ret + Objects.hashCode(lastProfileEdit);
-        ret = 31 * ret + Objects.hashCode(registrationDate);
+        ret = 31 * ret + Objects.hashCode(lastProfileEditText());
+        ret = 31 * ret + Objects.hashCode(registrationDateText());
         return ret;
     }
 
@@ -569,8 +719,8 @@ public final class GravatarProfile {
                 + ", contactInfo=" + contactInfo
                 + ", gallery=" + gallery
                 + ", numberVerifiedAccounts=" + numberVerifiedAccounts
-                + ", lastProfileEdit=\"" + lastProfileEdit + "\""
-                + ", registrationDate=\"" + registrationDate + "\""
+                + ", lastProfileEdit=\"" + lastProfileEditText() + "\""
+                + ", registrationDate=\"" + registrationDateText() + "\""
                 + "}";
     }
 }
@@ -3,10 +3,12 @@ package com.github.natche.gravatarjavaclient.profile.serialization;
 import com.google.common.base.Preconditions;
 import com.google.errorprone.annotations.Immutable;
 
+import java.time.Duration;
 import java.time.Instant;
 
 /**
- * Represents metadata of a Gravatar profile request.
+ * Represents metadata of a request to a Gravatar API: when it was made, whether it succeeded,
+ * and how long it took.
  */
 @SuppressWarnings("ClassCanBeRecord") /* GSON needs this */
 @Immutable
@@ -22,17 +24,38 @@ public final class GravatarProfileRequestResult {
     private final boolean succeeded;
 
     /**
-     * Constructs a new GravatarProfileRequestResult.
+     * The time from the request being made to its response or failure.
+     */
+    private final Duration latency;
+
+    /**
+     * Constructs a new GravatarProfileRequestResult with no recorded latency.
      *
      * @param requestInstant the instant when the request was made
      * @param succeeded      whether the request succeeded
      * @throws NullPointerException if requestInstant is null
      */
     public GravatarProfileRequestResult(Instant requestInstant, boolean succeeded) {
+        this(requestInstant, succeeded, Duration.ZERO);
+    }
+
+    /**
+     * Constructs a new GravatarProfileRequestResult.
+     *
+     * @param requestInstant the instant when the request was made
+     * @param succeeded      whether the request succeeded
+     * @param latency        the time from the request being made to its response or failure
+     * @throws NullPointerException     if requestInstant or latency is null
+     * @throws IllegalArgumentException if the latency is negative
+     */
+    public GravatarProfileRequestResult(Instant requestInstant, boolean succeeded, Duration latency) {
         Preconditions.checkNotNull(requestInstant);
+        Preconditions.checkNotNull(latency);
+        Preconditions.checkArgument(!latency.isNegative());
 
         this.requestInstant = requestInstant;
         this.succeeded = succeeded;
+        this.latency = latency;
     }
 
     /**
@@ -44,6 +67,24 @@ public final class GravatarProfileRequestResult {
         return requestInstant;
     }
 
+    /**
+     * Returns the time from the request being made to its response or failure.
+     *
+     * @return the latency of the request
+     */
+    public Duration getLatency() {
+        return latency;
+    }
+
+    /**
+     * Returns the instant the request completed at, its request instant plus its latency.
+     *
+     * @return the instant the request completed at
+     */
+    public Instant getCompletionInstant() {
+        return requestInstant.plus(latency);
+    }
+
     /**
      * Returns whether the request succeeded.
      *
@@ -73,7 +114,8 @@ public final class GravatarProfileRequestResult {
         if (this == o) return true;
         if (!(o instanceof GravatarProfileRequestResult other)) return false;
         return succeeded == other.succeeded
-                && requestInstant.equals(other.requestInstant);
+                && requestInstant.equals(other.requestInstant)
+                && latency.equals(other.latency);
     }
 
     /**
@@ -85,6 +127,7 @@ public final class GravatarProfileRequestResult {
     public int hashCode() {
         int ret = requestInstant.hashCode();
         ret = 31 * ret + (succeeded ? 1 : 0);
+        ret = 31 * ret + latency.hashCode();
         return ret;
     }
 
@@ -98,6 +141,7 @@ public final class GravatarProfileRequestResult {
         return "GravatarProfileRequestResult{"
                 + "requestInstant=" + requestInstant
                 + ", succeeded=" + succeeded
+                + ", latency=" + latency
                 + "}";
     }
 }
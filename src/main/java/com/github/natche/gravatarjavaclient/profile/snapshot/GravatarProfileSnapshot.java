@@ -0,0 +1,780 @@
+package com.github.natche.gravatarjavaclient.profile.snapshot;
+
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile;
+import com.github.natche.gravatarjavaclient.utils.StagingFiles;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+
+import static com.github.natche.gravatarjavaclient.profile.snapshot.GravatarProfileSnapshotFormat.*;
+
+/**
+ * An immutable, columnar snapshot of profiles for analytics scans.
+ * <p>
+ * Rather than one object per profile, a snapshot keeps one primitive array per field: organization flags as a
+ * bitmap, verified account counts, last edit and registration timestamps in epoch seconds, and dictionary IDs of
+ * companies and locations, whose distinct values are stored once. A scan reads only the columns it needs,
+ * sequentially, and each filter and aggregate is a branch-free counted loop over primitive arrays, the shape the
+ * JIT compiler unrolls and vectorizes.
+ * <p>
+ * Filters return the matching rows as a {@link BitSet}, which may be combined with {@link BitSet#and(BitSet)}
+ * and {@link BitSet#or(BitSet)} and passed to the aggregates. A snapshot may be written to a file laid out for
+ * memory mapping and read back with {@link #open(Path)}. It is safe for use by multiple threads.
+ */
+public final class GravatarProfileSnapshot {
+    /**
+     * The length of the buffer a snapshot is written through.
+     */
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The suffix of the staging file a snapshot is written to before it is moved into place.
+     */
+    private static final String STAGING_SUFFIX = ".tmp";
+
+    /**
+     * The number of rows.
+     */
+    private final int rowCount;
+
+    /**
+     * The organization bit of each row.
+     */
+    private final long[] organization;
+
+    /**
+     * The last profile edit of each row in epoch seconds, or {@link GravatarProfileSnapshotFormat#NO_TIMESTAMP}.
+     */
+    private final long[] lastProfileEdit;
+
+    /**
+     * The registration date of each row in epoch seconds, or {@link GravatarProfileSnapshotFormat#NO_TIMESTAMP}.
+     */
+    private final long[] registrationDate;
+
+    /**
+     * The number of verified accounts of each row.
+     */
+    private final int[] numberVerifiedAccounts;
+
+    /**
+     * The company ID of each row, or {@link GravatarProfileSnapshotFormat#NO_VALUE}.
+     */
+    private final int[] companyIds;
+
+    /**
+     * The location ID of each row, or {@link GravatarProfileSnapshotFormat#NO_VALUE}.
+     */
+    private final int[] locationIds;
+
+    /**
+     * The hash of each row.
+     */
+    private final String[] hashes;
+
+    /**
+     * The company of each company ID.
+     */
+    private final ImmutableList<String> companies;
+
+    /**
+     * The location of each location ID.
+     */
+    private final ImmutableList<String> locations;
+
+    /**
+     * The ID of each company.
+     */
+    private final ImmutableMap<String, Integer> companyIdsByValue;
+
+    /**
+     * The ID of each location.
+     */
+    private final ImmutableMap<String, Integer> locationIdsByValue;
+
+    GravatarProfileSnapshot(int rowCount, long[] organization, long[] lastProfileEdit, long[] registrationDate,
+                            int[] numberVerifiedAccounts, int[] companyIds, int[] locationIds, String[] hashes,
+                            ImmutableList<String> companies, ImmutableList<String> locations) {
+        this.rowCount = rowCount;
+        this.organization = organization;
+        this.lastProfileEdit = lastProfileEdit;
+        this.registrationDate = registrationDate;
+        this.numberVerifiedAccounts = numberVerifiedAccounts;
+        this.companyIds = companyIds;
+        this.locationIds = locationIds;
+        this.hashes = hashes;
+        this.companies = companies;
+        this.locations = locations;
+        this.companyIdsByValue = idsByValue(companies);
+        this.locationIdsByValue = idsByValue(locations);
+    }
+
+    /**
+     * Returns a snapshot of the provided profiles, one row per profile in iteration order.
+     *
+     * @param profiles the profiles
+     * @return a new snapshot
+     * @throws NullPointerException if the provided profiles or any profile is null
+     */
+    public static GravatarProfileSnapshot of(Iterable<GravatarProfile> profiles) {
+        return GravatarProfileSnapshotBuilder.create().addAll(profiles).build();
+    }
+
+    /**
+     * Maps the snapshot file at the provided path and reads its columns.
+     *
+     * @param path the path of the snapshot file
+     * @return the snapshot
+     * @throws NullPointerException        if the provided path is null
+     * @throws IllegalArgumentException    if the provided path is not a regular file
+     * @throws GravatarJavaClientException if the file cannot be read or is not a valid snapshot
+     */
+    public static GravatarProfileSnapshot open(Path path) {
+        Preconditions.checkNotNull(path);
+        Preconditions.checkArgument(Files.isRegularFile(path));
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_LENGTH) throw new GravatarJavaClientException("Not a profile snapshot");
+            if (channel.size() > Integer.MAX_VALUE) throw new GravatarJavaClientException("The snapshot is too large");
+
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(mapped.order(ByteOrder.LITTLE_ENDIAN));
+        } catch (IOException e) {
+            throw new GravatarJavaClientException(e);
+        }
+    }
+
+    /**
+     * Writes this snapshot to the provided path, replacing any existing file once it is complete.
+     *
+     * @param path the path of the snapshot file
+     * @throws NullPointerException        if the provided path is null
+     * @throws IllegalArgumentException    if the provided path is a directory
+     * @throws GravatarJavaClientException if the file cannot be written
+     */
+    public void writeTo(Path path) {
+        Preconditions.checkNotNull(path);
+        Preconditions.checkArgument(!Files.isDirectory(path));
+
+        try {
+            Path directory = path.toAbsolutePath().getParent();
+            Path staging = StagingFiles.create(directory, "." + path.getFileName(), STAGING_SUFFIX);
+            try {
+                try (FileChannel channel = FileChannel.open(staging, StandardOpenOption.WRITE)) {
+                    write(new SectionWriter(channel));
+                    channel.force(false);
+                }
+                Files.move(staging, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(staging);
+            }
+        } catch (IOException e) {
+            throw new GravatarJavaClientException(e);
+        }
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return the number of rows
+     */
+    public int size() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the distinct companies, indexed by their dictionary ID.
+     *
+     * @return the distinct companies
+     */
+    public ImmutableList<String> getCompanies() {
+        return companies;
+    }
+
+    /**
+     * Returns the distinct locations, indexed by their dictionary ID.
+     *
+     * @return the distinct locations
+     */
+    public ImmutableList<String> getLocations() {
+        return locations;
+    }
+
+    /**
+     * Returns the hash of the profile of the provided row.
+     *
+     * @param row the row
+     * @return the hash
+     * @throws IndexOutOfBoundsException if the provided row does not exist
+     */
+    public String getHash(int row) {
+        Preconditions.checkElementIndex(row, rowCount);
+        return hashes[row];
+    }
+
+    /**
+     * Returns whether the profile of the provided row is an organization.
+     *
+     * @param row the row
+     * @return whether the profile is an organization
+     * @throws IndexOutOfBoundsException if the provided row does not exist
+     */
+    public boolean isOrganization(int row) {
+        Preconditions.checkElementIndex(row, rowCount);
+        return (organization[row >>> 6] & (1L << row)) != 0;
+    }
+
+    /**
+     * Returns the number of verified accounts of the profile of the provided row.
+     *
+     * @param row the row
+     * @return the number of verified accounts
+     * @throws IndexOutOfBoundsException if the provided row does not exist
+     */
+    public int getNumberVerifiedAccounts(int row) {
+        Preconditions.checkElementIndex(row, rowCount);
+        return numberVerifiedAccounts[row];
+    }
+
+    /**
+     * Returns the last edit of the profile of the provided row, truncated to the second.
+     *
+     * @param row the row
+     * @return the last edit, if known
+     * @throws IndexOutOfBoundsException if the provided row does not exist
+     */
+    public Optional<Instant> getLastProfileEdit(int row) {
+        Preconditions.checkElementIndex(row, rowCount);
+        return instantOf(lastProfileEdit[row]);
+    }
+
+    /**
+     * Returns the registration date of the profile of the provided row, truncated to the second.
+     *
+     * @param row the row
+     * @return the registration date, if known
+     * @throws IndexOutOfBoundsException if the provided row does not exist
+     */
+    public Optional<Instant> getRegistrationDate(int row) {
+        Preconditions.checkElementIndex(row, rowCount);
+        return instantOf(registrationDate[row]);
+    }
+
+    /**
+     * Returns the company of the profile of the provided row.
+     *
+     * @param row the row
+     * @return the company, if set
+     * @throws IndexOutOfBoundsException if the provided row does not exist
+     */
+    public Optional<String> getCompany(int row) {
+        Preconditions.checkElementIndex(row, rowCount);
+        return companyIds[row] == NO_VALUE ? Optional.empty() : Optional.of(companies.get(companyIds[row]));
+    }
+
+    /**
+     * Returns the location of the profile of the provided row.
+     *
+     * @param row the row
+     * @return the location, if set
+     * @throws IndexOutOfBoundsException if the provided row does not exist
+     */
+    public Optional<String> getLocation(int row) {
+        Preconditions.checkElementIndex(row, rowCount);
+        return locationIds[row] == NO_VALUE ? Optional.empty() : Optional.of(locations.get(locationIds[row]));
+    }
+
+    /**
+     * Returns every row.
+     *
+     * @return every row
+     */
+    public BitSet all() {
+        BitSet rows = new BitSet(rowCount);
+        rows.set(0, rowCount);
+        return rows;
+    }
+
+    /**
+     * Returns the rows of organizations.
+     *
+     * @return the rows of organizations
+     */
+    public BitSet whereOrganization() {
+        return BitSet.valueOf(organization);
+    }
+
+    /**
+     * Returns the rows whose company is exactly the provided company.
+     *
+     * @param company the company
+     * @return the matching rows
+     * @throws NullPointerException if the provided company is null
+     */
+    public BitSet whereCompany(String company) {
+        Preconditions.checkNotNull(company);
+        Integer id = companyIdsByValue.get(company);
+        return id == null ? new BitSet() : selectEqual(companyIds, id);
+    }
+
+    /**
+     * Returns the rows whose location is exactly the provided location.
+     *
+     * @param location the location
+     * @return the matching rows
+     * @throws NullPointerException if the provided location is null
+     */
+    public BitSet whereLocation(String location) {
+        Preconditions.checkNotNull(location);
+        Integer id = locationIdsByValue.get(location);
+        return id == null ? new BitSet() : selectEqual(locationIds, id);
+    }
+
+    /**
+     * Returns the rows with at least the provided number of verified accounts.
+     *
+     * @param minimum the minimum number of verified accounts
+     * @return the matching rows
+     */
+    public BitSet whereVerifiedAccountsAtLeast(int minimum) {
+        long[] words = new long[wordCount(rowCount)];
+        for (int word = 0; word < words.length; word++) {
+            int base = word << 6;
+            int end = Math.min(64, rowCount - base);
+            long bits = 0;
+            for (int bit = 0; bit < end; bit++) {
+                bits |= (numberVerifiedAccounts[base + bit] >= minimum ? 1L : 0L) << bit;
+            }
+            words[word] = bits;
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Returns the rows whose profile was last edited at or after the provided start and before the provided end.
+     * Rows without a last edit never match.
+     *
+     * @param start the inclusive start
+     * @param end   the exclusive end
+     * @return the matching rows
+     * @throws NullPointerException if either argument is null
+     */
+    public BitSet whereLastProfileEditBetween(Instant start, Instant end) {
+        return selectBetween(lastProfileEdit, start, end);
+    }
+
+    /**
+     * Returns the rows whose profile was registered at or after the provided start and before the provided end.
+     * Rows without a registration date never match.
+     *
+     * @param start the inclusive start
+     * @param end   the exclusive end
+     * @return the matching rows
+     * @throws NullPointerException if either argument is null
+     */
+    public BitSet whereRegisteredBetween(Instant start, Instant end) {
+        return selectBetween(registrationDate, start, end);
+    }
+
+    /**
+     * Returns the total number of verified accounts of the provided rows.
+     *
+     * @param rows the rows
+     * @return the total number of verified accounts
+     * @throws NullPointerException     if the provided rows are null
+     * @throws IllegalArgumentException if any provided row does not exist
+     */
+    public long sumVerifiedAccounts(BitSet rows) {
+        long[] mask = maskOf(rows);
+        long sum = 0;
+        for (int row = 0; row < rowCount; row++) {
+            sum += numberVerifiedAccounts[row] & -(int) ((mask[row >>> 6] >>> row) & 1);
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the latest last profile edit of the provided rows.
+     *
+     * @param rows the rows
+     * @return the latest last profile edit, or empty if no provided row has one
+     * @throws NullPointerException     if the provided rows are null
+     * @throws IllegalArgumentException if any provided row does not exist
+     */
+    public Optional<Instant> getLatestProfileEdit(BitSet rows) {
+        long[] mask = maskOf(rows);
+        long latest = NO_TIMESTAMP;
+        for (int row = 0; row < rowCount; row++) {
+            long selected = ((mask[row >>> 6] >>> row) & 1) != 0 ? lastProfileEdit[row] : NO_TIMESTAMP;
+            latest = Math.max(latest, selected);
+        }
+        return instantOf(latest);
+    }
+
+    /**
+     * Returns the number of the provided rows with each company, omitting companies with none.
+     *
+     * @param rows the rows
+     * @return the number of rows by company, in dictionary order
+     * @throws NullPointerException     if the provided rows are null
+     * @throws IllegalArgumentException if any provided row does not exist
+     */
+    public ImmutableMap<String, Integer> countByCompany(BitSet rows) {
+        return countBy(companyIds, companies, rows);
+    }
+
+    /**
+     * Returns the number of the provided rows with each location, omitting locations with none.
+     *
+     * @param rows the rows
+     * @return the number of rows by location, in dictionary order
+     * @throws NullPointerException     if the provided rows are null
+     * @throws IllegalArgumentException if any provided row does not exist
+     */
+    public ImmutableMap<String, Integer> countByLocation(BitSet rows) {
+        return countBy(locationIds, locations, rows);
+    }
+
+    /**
+     * Returns a string representation of this snapshot.
+     *
+     * @return a string representation of this snapshot
+     */
+    @Override
+    public String toString() {
+        return "GravatarProfileSnapshot{"
+                + "rowCount=" + rowCount
+                + ", companyCount=" + companies.size()
+                + ", locationCount=" + locations.size()
+                + "}";
+    }
+
+    /**
+     * Returns the rows of the provided column equal to the provided value.
+     */
+    private BitSet selectEqual(int[] column, int value) {
+        long[] words = new long[wordCount(rowCount)];
+        for (int word = 0; word < words.length; word++) {
+            int base = word << 6;
+            int end = Math.min(64, rowCount - base);
+            long bits = 0;
+            for (int bit = 0; bit < end; bit++) {
+                bits |= (column[base + bit] == value ? 1L : 0L) << bit;
+            }
+            words[word] = bits;
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Returns the rows of the provided timestamp column at or after the provided start and before the provided end.
+     */
+    private BitSet selectBetween(long[] column, Instant start, Instant end) {
+        Preconditions.checkNotNull(start);
+        Preconditions.checkNotNull(end);
+
+        // Absent timestamps are Long.MIN_VALUE, below every representable start
+        long from = start.getEpochSecond() + (start.getNano() > 0 ? 1 : 0);
+        long to = end.getEpochSecond() + (end.getNano() > 0 ? 1 : 0);
+        long[] words = new long[wordCount(rowCount)];
+        for (int word = 0; word < words.length; word++) {
+            int base = word << 6;
+            int limit = Math.min(64, rowCount - base);
+            long bits = 0;
+            for (int bit = 0; bit < limit; bit++) {
+                long value = column[base + bit];
+                bits |= (value >= from & value < to ? 1L : 0L) << bit;
+            }
+            words[word] = bits;
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Returns the number of the provided rows with each value of the provided dictionary encoded column.
+     */
+    private ImmutableMap<String, Integer> countBy(int[] column, ImmutableList<String> dictionary, BitSet rows) {
+        long[] mask = maskOf(rows);
+        // Slot zero counts rows without a value so the loop needs no branch
+        int[] counts = new int[dictionary.size() + 1];
+        for (int row = 0; row < rowCount; row++) {
+            counts[column[row] + 1] += (int) ((mask[row >>> 6] >>> row) & 1);
+        }
+
+        ImmutableMap.Builder<String, Integer> builder = ImmutableMap.builder();
+        for (int id = 0; id < dictionary.size(); id++) {
+            if (counts[id + 1] > 0) builder.put(dictionary.get(id), counts[id + 1]);
+        }
+        return builder.buildOrThrow();
+    }
+
+    /**
+     * Returns the words of the provided rows padded to the number of words of this snapshot.
+     */
+    private long[] maskOf(BitSet rows) {
+        Preconditions.checkNotNull(rows);
+        Preconditions.checkArgument(rows.length() <= rowCount);
+        return Arrays.copyOf(rows.toLongArray(), wordCount(rowCount));
+    }
+
+    /**
+     * Writes the sections of this snapshot through the provided writer.
+     */
+    private void write(SectionWriter writer) throws IOException {
+        writer.buffer.putInt(MAGIC).putInt(VERSION).putInt(rowCount)
+                .putInt(companies.size()).putInt(locations.size()).putInt(0);
+        writer.writeLongs(organization);
+        writer.writeLongs(lastProfileEdit);
+        writer.writeLongs(registrationDate);
+        writer.writeInts(numberVerifiedAccounts);
+        writer.writeInts(companyIds);
+        writer.writeInts(locationIds);
+        writer.writeStrings(Arrays.asList(hashes));
+        writer.writeStrings(companies);
+        writer.writeStrings(locations);
+        writer.flush();
+    }
+
+    /**
+     * Reads a snapshot from the provided little-endian buffer.
+     */
+    private static GravatarProfileSnapshot read(ByteBuffer buffer) {
+        try {
+            if (buffer.getInt() != MAGIC) throw new GravatarJavaClientException("Not a profile snapshot");
+            if (buffer.getInt() != VERSION) throw new GravatarJavaClientException("Unsupported snapshot version");
+            int rowCount = buffer.getInt();
+            int companyCount = buffer.getInt();
+            int locationCount = buffer.getInt();
+            buffer.getInt();
+            if (rowCount < 0 || companyCount < 0 || locationCount < 0) throw corrupt();
+            // Every row occupies at least 32 bytes, so reject impossible counts before allocating columns
+            if ((long) rowCount * 32 > buffer.remaining()) throw corrupt();
+
+            long[] organization = readLongs(buffer, wordCount(rowCount));
+            long[] lastProfileEdit = readLongs(buffer, rowCount);
+            long[] registrationDate = readLongs(buffer, rowCount);
+            int[] numberVerifiedAccounts = readInts(buffer, rowCount);
+            int[] companyIds = readIds(buffer, rowCount, companyCount);
+            int[] locationIds = readIds(buffer, rowCount, locationCount);
+            String[] hashes = readStrings(buffer, rowCount);
+            String[] companies = readStrings(buffer, companyCount);
+            String[] locations = readStrings(buffer, locationCount);
+            if (buffer.hasRemaining()) throw corrupt();
+
+            return new GravatarProfileSnapshot(rowCount, organization, lastProfileEdit, registrationDate,
+                    numberVerifiedAccounts, companyIds, locationIds, hashes,
+                    ImmutableList.copyOf(companies), ImmutableList.copyOf(locations));
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw corrupt();
+        }
+    }
+
+    /**
+     * Bulk copies the provided number of longs from the provided buffer and skips the padding after them.
+     */
+    private static long[] readLongs(ByteBuffer buffer, int count) {
+        long[] values = new long[count];
+        buffer.asLongBuffer().get(values);
+        skip(buffer, (long) count * Long.BYTES);
+        return values;
+    }
+
+    /**
+     * Bulk copies the provided number of ints from the provided buffer and skips the padding after them.
+     */
+    private static int[] readInts(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        skip(buffer, (long) count * Integer.BYTES);
+        return values;
+    }
+
+    /**
+     * Reads a column of dictionary IDs, validating that each is absent or within the dictionary.
+     */
+    private static int[] readIds(ByteBuffer buffer, int count, int dictionarySize) {
+        int[] ids = readInts(buffer, count);
+        for (int id : ids) {
+            if (id < NO_VALUE || id >= dictionarySize) throw corrupt();
+        }
+        return ids;
+    }
+
+    /**
+     * Reads the provided number of strings as offsets followed by UTF-8 bytes.
+     */
+    private static String[] readStrings(ByteBuffer buffer, int count) {
+        int[] offsets = readInts(buffer, count + 1);
+        if (offsets[0] != 0) throw corrupt();
+        for (int i = 0; i < count; i++) {
+            if (offsets[i + 1] < offsets[i]) throw corrupt();
+        }
+
+        int start = buffer.position();
+        int length = offsets[count];
+        if (length > buffer.remaining()) throw corrupt();
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            byte[] bytes = new byte[offsets[i + 1] - offsets[i]];
+            buffer.get(start + offsets[i], bytes);
+            values[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        skip(buffer, length);
+        return values;
+    }
+
+    /**
+     * Advances the provided buffer past a section of the provided length and its padding.
+     */
+    private static void skip(ByteBuffer buffer, long length) {
+        long next = align(buffer.position() + length);
+        if (next > buffer.limit()) throw new BufferUnderflowException();
+        buffer.position((int) next);
+    }
+
+    /**
+     * Returns the exception thrown for a snapshot which is truncated or corrupt.
+     */
+    private static GravatarJavaClientException corrupt() {
+        return new GravatarJavaClientException("The snapshot is truncated or corrupt");
+    }
+
+    /**
+     * Returns the instant of the provided epoch second, or empty if it is
+     * {@link GravatarProfileSnapshotFormat#NO_TIMESTAMP}.
+     */
+    private static Optional<Instant> instantOf(long epochSecond) {
+        return epochSecond == NO_TIMESTAMP ? Optional.empty() : Optional.of(Instant.ofEpochSecond(epochSecond));
+    }
+
+    /**
+     * Returns the index of each value of the provided dictionary.
+     */
+    private static ImmutableMap<String, Integer> idsByValue(ImmutableList<String> dictionary) {
+        HashMap<String, Integer> ids = new HashMap<>();
+        for (int id = 0; id < dictionary.size(); id++) {
+            ids.put(dictionary.get(id), id);
+        }
+        return ImmutableMap.copyOf(ids);
+    }
+
+    /**
+     * Writes aligned little-endian sections to a channel through a fixed buffer.
+     */
+    private static final class SectionWriter {
+        /**
+         * The channel written to.
+         */
+        private final FileChannel channel;
+
+        /**
+         * The buffer sections are written through.
+         */
+        private final ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+        /**
+         * The number of bytes written, including those still buffered.
+         */
+        private long position;
+
+        private SectionWriter(FileChannel channel) {
+            this.channel = channel;
+            this.position = HEADER_LENGTH;
+        }
+
+        /**
+         * Writes the provided longs followed by padding.
+         */
+        private void writeLongs(long[] values) throws IOException {
+            for (long value : values) {
+                ensureRemaining(Long.BYTES);
+                buffer.putLong(value);
+            }
+            pad((long) values.length * Long.BYTES);
+        }
+
+        /**
+         * Writes the provided ints followed by padding.
+         */
+        private void writeInts(int[] values) throws IOException {
+            for (int value : values) {
+                ensureRemaining(Integer.BYTES);
+                buffer.putInt(value);
+            }
+            pad((long) values.length * Integer.BYTES);
+        }
+
+        /**
+         * Writes the offsets and UTF-8 bytes of the provided strings, each followed by padding.
+         */
+        private void writeStrings(List<String> values) throws IOException {
+            byte[][] encoded = new byte[values.size()][];
+            int[] offsets = new int[values.size() + 1];
+            for (int i = 0; i < values.size(); i++) {
+                encoded[i] = values.get(i).getBytes(StandardCharsets.UTF_8);
+                offsets[i + 1] = Math.addExact(offsets[i], encoded[i].length);
+            }
+
+            writeInts(offsets);
+            for (byte[] bytes : encoded) {
+                int written = 0;
+                while (written < bytes.length) {
+                    ensureRemaining(1);
+                    int length = Math.min(buffer.remaining(), bytes.length - written);
+                    buffer.put(bytes, written, length);
+                    written += length;
+                }
+            }
+            pad(offsets[values.size()]);
+        }
+
+        /**
+         * Records a section of the provided length and writes zeros up to the next aligned offset.
+         */
+        private void pad(long length) throws IOException {
+            long next = align(position + length);
+            for (long i = position + length; i < next; i++) {
+                ensureRemaining(1);
+                buffer.put((byte) 0);
+            }
+            position = next;
+        }
+
+        /**
+         * Flushes the buffer if it has fewer than the provided number of bytes remaining.
+         */
+        private void ensureRemaining(int length) throws IOException {
+            if (buffer.remaining() < length) flush();
+        }
+
+        /**
+         * Writes every buffered byte to the channel.
+         */
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.github.natche.gravatarjavaclient.profile.snapshot;
+
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Optional;
+
+import static com.github.natche.gravatarjavaclient.profile.snapshot.GravatarProfileSnapshotFormat.*;
+
+/**
+ * A builder appending profiles to the columns of a {@link GravatarProfileSnapshot}, one row per profile in the
+ * order they are added. Companies and locations are dictionary encoded as they are added, so only the distinct
+ * values are kept as strings. A builder is not safe for concurrent use.
+ */
+public final class GravatarProfileSnapshotBuilder {
+    /**
+     * The number of rows added.
+     */
+    private int rowCount;
+
+    /**
+     * The organization bit of each row.
+     */
+    private long[] organization = new long[1];
+
+    /**
+     * The last profile edit of each row in epoch seconds.
+     */
+    private long[] lastProfileEdit = new long[64];
+
+    /**
+     * The registration date of each row in epoch seconds.
+     */
+    private long[] registrationDate = new long[64];
+
+    /**
+     * The number of verified accounts of each row.
+     */
+    private int[] numberVerifiedAccounts = new int[64];
+
+    /**
+     * The company ID of each row.
+     */
+    private int[] companyIds = new int[64];
+
+    /**
+     * The location ID of each row.
+     */
+    private int[] locationIds = new int[64];
+
+    /**
+     * The hash of each row.
+     */
+    private final ArrayList<String> hashes = new ArrayList<>();
+
+    /**
+     * The distinct companies.
+     */
+    private final Dictionary companies = new Dictionary();
+
+    /**
+     * The distinct locations.
+     */
+    private final Dictionary locations = new Dictionary();
+
+    private GravatarProfileSnapshotBuilder() {}
+
+    /**
+     * Constructs a new, empty builder.
+     *
+     * @return a new builder
+     */
+    public static GravatarProfileSnapshotBuilder create() {
+        return new GravatarProfileSnapshotBuilder();
+    }
+
+    /**
+     * Appends a row for the provided profile.
+     *
+     * @param profile the profile
+     * @return this builder
+     * @throws NullPointerException  if the provided profile is null
+     * @throws IllegalStateException if the builder already holds the maximum number of rows
+     */
+    @CanIgnoreReturnValue
+    public GravatarProfileSnapshotBuilder add(GravatarProfile profile) {
+        Preconditions.checkNotNull(profile);
+        Preconditions.checkState(rowCount < Integer.MAX_VALUE - 64);
+
+        if (rowCount == lastProfileEdit.length) grow();
+        int row = rowCount++;
+        if (profile.isOrganization()) organization[row >>> 6] |= 1L << row;
+        lastProfileEdit[row] = epochSecondOf(profile.getLastProfileEdit());
+        registrationDate[row] = epochSecondOf(profile.getRegistrationDate());
+        numberVerifiedAccounts[row] = profile.getNumberVerifiedAccounts();
+        companyIds[row] = companies.idOf(profile.getCompany());
+        locationIds[row] = locations.idOf(profile.getLocation());
+        hashes.add(profile.getHash());
+        return this;
+    }
+
+    /**
+     * Appends a row for each of the provided profiles.
+     *
+     * @param profiles the profiles
+     * @return this builder
+     * @throws NullPointerException if the provided profiles or any profile is null
+     */
+    @CanIgnoreReturnValue
+    public GravatarProfileSnapshotBuilder addAll(Iterable<GravatarProfile> profiles) {
+        Preconditions.checkNotNull(profiles);
+        profiles.forEach(this::add);
+        return this;
+    }
+
+    /**
+     * Returns the number of rows added.
+     *
+     * @return the number of rows added
+     */
+    public int size() {
+        return rowCount;
+    }
+
+    /**
+     * Returns a snapshot of the rows added so far. The builder may continue to be used afterward.
+     *
+     * @return a new snapshot
+     */
+    public GravatarProfileSnapshot build() {
+        return new GravatarProfileSnapshot(rowCount,
+                Arrays.copyOf(organization, wordCount(rowCount)),
+                Arrays.copyOf(lastProfileEdit, rowCount),
+                Arrays.copyOf(registrationDate, rowCount),
+                Arrays.copyOf(numberVerifiedAccounts, rowCount),
+                Arrays.copyOf(companyIds, rowCount),
+                Arrays.copyOf(locationIds, rowCount),
+                hashes.toArray(new String[0]),
+                ImmutableList.copyOf(companies.values),
+                ImmutableList.copyOf(locations.values));
+    }
+
+    /**
+     * Doubles the capacity of every column.
+     */
+    private void grow() {
+        int capacity = lastProfileEdit.length * 2;
+        organization = Arrays.copyOf(organization, wordCount(capacity));
+        lastProfileEdit = Arrays.copyOf(lastProfileEdit, capacity);
+        registrationDate = Arrays.copyOf(registrationDate, capacity);
+        numberVerifiedAccounts = Arrays.copyOf(numberVerifiedAccounts, capacity);
+        companyIds = Arrays.copyOf(companyIds, capacity);
+        locationIds = Arrays.copyOf(locationIds, capacity);
+    }
+
+    /**
+     * Returns the epoch second of the provided timestamp, or {@link GravatarProfileSnapshotFormat#NO_TIMESTAMP}.
+     */
+    private static long epochSecondOf(Optional<Instant> timestamp) {
+        return timestamp.map(Instant::getEpochSecond).orElse(NO_TIMESTAMP);
+    }
+
+    /**
+     * The distinct values of a dictionary encoded column, in the order they were first seen.
+     */
+    private static final class Dictionary {
+        /**
+         * The ID of each value.
+         */
+        private final HashMap<String, Integer> ids = new HashMap<>();
+
+        /**
+         * The value of each ID.
+         */
+        private final ArrayList<String> values = new ArrayList<>();
+
+        /**
+         * Returns the ID of the provided value, assigning the next ID if it is new,
+         * or {@link GravatarProfileSnapshotFormat#NO_VALUE} if it is null or blank.
+         */
+        private int idOf(String value) {
+            if (value == null || value.isBlank()) return NO_VALUE;
+            return ids.computeIfAbsent(value, ignored -> {
+                values.add(value);
+                return values.size() - 1;
+            });
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.natche.gravatarjavaclient.profile.snapshot;
+
+/**
+ * Constants describing the layout of a snapshot file written by {@link GravatarProfileSnapshot#writeTo}.
+ * <p>
+ * Unlike the other file formats of this library, a snapshot is little-endian so that its columns match the native
+ * byte order of common hardware and may be mapped and read in place by other tools. It is laid out as follows,
+ * with every section starting at a multiple of {@link #ALIGNMENT} bytes and zero padding between sections:
+ * <pre>{@code
+ * header:  int magic, int version, int rowCount, int companyCount, int locationCount, int reserved
+ * columns: long[(rowCount + 63) / 64] organization bits, lowest bit first
+ *          long[rowCount] last profile edit, long[rowCount] registration date (epoch seconds or NO_TIMESTAMP)
+ *          int[rowCount] number of verified accounts
+ *          int[rowCount] company ID, int[rowCount] location ID (dictionary index or NO_VALUE)
+ * strings: int[rowCount + 1] hash offsets, byte[] hashes (UTF-8)
+ *          int[companyCount + 1] company offsets, byte[] companies (UTF-8)
+ *          int[locationCount + 1] location offsets, byte[] locations (UTF-8)
+ * }</pre>
+ * String {@code i} of a section spans the bytes from offset {@code i} to offset {@code i + 1}.
+ */
+final class GravatarProfileSnapshotFormat {
+    /**
+     * The magic number at the start of a snapshot.
+     */
+    static final int MAGIC = 0x47505353;
+
+    /**
+     * The version of the snapshot format.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The length in bytes of the header.
+     */
+    static final int HEADER_LENGTH = 24;
+
+    /**
+     * The alignment in bytes of every section.
+     */
+    static final int ALIGNMENT = 8;
+
+    /**
+     * The timestamp of a profile without one.
+     */
+    static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    /**
+     * The dictionary ID of a profile without a value.
+     */
+    static final int NO_VALUE = -1;
+
+    private GravatarProfileSnapshotFormat() {}
+
+    /**
+     * Returns the provided length rounded up to the alignment of sections.
+     *
+     * @param length the length
+     * @return the aligned length
+     */
+    static long align(long length) {
+        return (length + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    /**
+     * Returns the number of longs holding one bit for each of the provided number of rows.
+     *
+     * @param rowCount the number of rows
+     * @return the number of longs
+     */
+    static int wordCount(int rowCount) {
+        return (rowCount + 63) >>> 6;
+    }
+}
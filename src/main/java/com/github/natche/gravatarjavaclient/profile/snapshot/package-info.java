@@ -0,0 +1,4 @@
+/**
+ * Columnar snapshots of profiles for filter and aggregate scans, and the file format they are written in.
+ */
+package com.github.natche.gravatarjavaclient.profile.snapshot;
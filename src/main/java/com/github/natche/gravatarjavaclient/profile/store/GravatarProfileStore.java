@@ -0,0 +1,758 @@
+package com.github.natche.gravatarjavaclient.profile.store;
+
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
+import com.github.natche.gravatarjavaclient.profile.codec.GravatarProfileCodec;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile;
+import com.google.common.base.Preconditions;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static com.github.natche.gravatarjavaclient.profile.store.ProfileSegmentFormat.*;
+
+/**
+ * A persistent store of profiles which survives restarts of the JVM.
+ * <p>
+ * Profiles are encoded with the {@link GravatarProfileCodec}, compressed with a {@link Deflater}, and appended to
+ * the active segment of a log of segment files; nothing is rewritten in place. Once the active segment reaches its
+ * maximum size it is sealed with an index of its records and a new segment is started. When the store is opened,
+ * the in-memory hash index of every key is rebuilt from the indexes of the sealed segments, so a warm restart reads
+ * only segment footers and never the profiles themselves. Segments left unsealed by a crash are scanned and
+ * truncated after their last intact record.
+ * <p>
+ * Putting a key again or removing it supersedes its earlier records. Once at least half of the bytes of the sealed
+ * segments are superseded, they are compacted in the background: their live records are copied to new segments and
+ * the originals are deleted. A removal is copied too while a record it removed may still be on disk, so that a
+ * segment which could not be deleted never brings a removed profile back. Lookups and writes continue while a
+ * compaction copies records.
+ * <p>
+ * The store is safe for use by multiple threads of a single process. The layout of the directory is:
+ * <pre>{@code
+ * directory/
+ *     0000000000000001.segment
+ *     0000000000000002.segment
+ *     ...
+ * }</pre>
+ */
+public final class GravatarProfileStore implements Closeable {
+    /**
+     * The default number of bytes of records after which the active segment is sealed.
+     */
+    public static final long DEFAULT_MAX_SEGMENT_BYTES = 16L << 20;
+
+    /**
+     * The fraction of the bytes of the sealed segments which must be superseded before they are compacted.
+     */
+    static final double COMPACTION_THRESHOLD = 0.5;
+
+    /**
+     * The directory holding the segments.
+     */
+    private final Path directory;
+
+    /**
+     * How long a profile is returned after it was stored, or null if profiles do not expire.
+     */
+    private final Duration maxAge;
+
+    /**
+     * The number of bytes of records after which the active segment is sealed.
+     */
+    private final long maxSegmentBytes;
+
+    /**
+     * The clock used to timestamp and expire profiles.
+     */
+    private final Clock clock;
+
+    /**
+     * The latest record of every live key.
+     */
+    private final ConcurrentHashMap<String, ProfileSegment.Entry> index;
+
+    /**
+     * Every segment by ID, including the active segment.
+     */
+    private final ConcurrentSkipListMap<Long, ProfileSegment> segments;
+
+    /**
+     * The lock held for reading by lookups and writes and for writing while segments are swapped or closed.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * The lock serializing appends to the active segment.
+     */
+    private final Object appendLock = new Object();
+
+    /**
+     * The lock serializing compactions.
+     */
+    private final Object compactionLock = new Object();
+
+    /**
+     * Whether a background compaction has been scheduled and not yet finished.
+     */
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+
+    /**
+     * Segments which were compacted or abandoned but could not be deleted, guarded by {@link #compactionLock}.
+     * While any remain, every removal of a key which is not live is copied by compaction.
+     */
+    private final List<ProfileSegment> leftovers = new ArrayList<>();
+
+    /**
+     * The executor running background compactions.
+     */
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "gravatar-profile-store-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The sequence number of the next record.
+     */
+    private final AtomicLong nextSequence;
+
+    /**
+     * The ID of the next segment.
+     */
+    private final AtomicLong nextSegmentId;
+
+    /**
+     * The segment records are appended to, guarded by {@link #appendLock}.
+     */
+    private ProfileSegment active;
+
+    /**
+     * Whether this store has been closed.
+     */
+    private volatile boolean closed;
+
+    private GravatarProfileStore(Path directory, Duration maxAge, long maxSegmentBytes, Clock clock,
+                                 ConcurrentHashMap<String, ProfileSegment.Entry> index,
+                                 ConcurrentSkipListMap<Long, ProfileSegment> segments,
+                                 long nextSequence, long nextSegmentId) {
+        this.directory = directory;
+        this.maxAge = maxAge;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.clock = clock;
+        this.index = index;
+        this.segments = segments;
+        this.nextSequence = new AtomicLong(nextSequence);
+        this.nextSegmentId = new AtomicLong(nextSegmentId);
+    }
+
+    /**
+     * Opens the store in the provided directory, creating it if it does not exist. Stored profiles do not expire.
+     *
+     * @param directory the directory of the store
+     * @return the opened store
+     * @throws NullPointerException        if the provided directory is null
+     * @throws IllegalArgumentException    if the provided directory exists and is not a directory
+     * @throws GravatarJavaClientException if the store cannot be read or created
+     */
+    public static GravatarProfileStore open(Path directory) {
+        return open(directory, null, DEFAULT_MAX_SEGMENT_BYTES, Clock.systemUTC());
+    }
+
+    /**
+     * Opens the store in the provided directory, creating it if it does not exist.
+     * Profiles stored longer ago than the provided maximum age are treated as absent.
+     *
+     * @param directory the directory of the store
+     * @param maxAge    how long a profile is returned after it was stored
+     * @return the opened store
+     * @throws NullPointerException        if any parameter is null
+     * @throws IllegalArgumentException    if the provided directory exists and is not a directory
+     *                                     or the maximum age is not positive
+     * @throws GravatarJavaClientException if the store cannot be read or created
+     */
+    public static GravatarProfileStore open(Path directory, Duration maxAge) {
+        Preconditions.checkNotNull(maxAge);
+        return open(directory, maxAge, DEFAULT_MAX_SEGMENT_BYTES, Clock.systemUTC());
+    }
+
+    /**
+     * Opens the store in the provided directory, creating it if it does not exist.
+     *
+     * @param directory       the directory of the store
+     * @param maxAge          how long a profile is returned after it was stored, or null if profiles do not expire
+     * @param maxSegmentBytes the number of bytes of records after which the active segment is sealed
+     * @param clock           the clock used to timestamp and expire profiles
+     * @return the opened store
+     */
+    static GravatarProfileStore open(Path directory, Duration maxAge, long maxSegmentBytes, Clock clock) {
+        Preconditions.checkNotNull(directory);
+        Preconditions.checkNotNull(clock);
+        Preconditions.checkArgument(!Files.exists(directory) || Files.isDirectory(directory));
+        Preconditions.checkArgument(maxAge == null || (!maxAge.isNegative() && !maxAge.isZero()));
+        Preconditions.checkArgument(maxSegmentBytes > 0);
+
+        ConcurrentSkipListMap<Long, ProfileSegment> segments = new ConcurrentSkipListMap<>();
+        try {
+            Files.createDirectories(directory);
+            for (Path path : listSegments(directory)) {
+                long id = segmentId(path);
+                segments.put(id, ProfileSegment.open(path, id));
+            }
+
+            Map<String, ProfileSegment.Entry> latest = new HashMap<>();
+            long maxSequence = 0;
+            for (ProfileSegment segment : segments.values()) {
+                for (ProfileSegment.Entry entry : segment.getEntries()) {
+                    latest.merge(entry.key, entry, (first, second) -> first.sequence >= second.sequence ? first : second);
+                    maxSequence = Math.max(maxSequence, entry.sequence);
+                }
+            }
+
+            ConcurrentHashMap<String, ProfileSegment.Entry> index = new ConcurrentHashMap<>(latest.size());
+            for (ProfileSegment.Entry entry : latest.values()) {
+                if (entry.type != PUT) continue;
+                index.put(entry.key, entry);
+                entry.segment.addLiveBytes(entry.length);
+            }
+
+            long nextSegmentId = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+            GravatarProfileStore store = new GravatarProfileStore(directory, maxAge, maxSegmentBytes, clock,
+                    index, segments, maxSequence + 1, nextSegmentId);
+            store.active = store.createSegment();
+            segments.put(store.active.getId(), store.active);
+            return store;
+        } catch (IOException e) {
+            segments.values().forEach(GravatarProfileStore::closeQuietly);
+            throw new GravatarJavaClientException(e);
+        } catch (RuntimeException e) {
+            segments.values().forEach(GravatarProfileStore::closeQuietly);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the directory of this store.
+     *
+     * @return the directory of this store
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Returns how long a profile is returned after it was stored, if profiles expire.
+     *
+     * @return how long a profile is returned after it was stored
+     */
+    public Optional<Duration> getMaxAge() {
+        return Optional.ofNullable(maxAge);
+    }
+
+    /**
+     * Returns the number of keys in this store, including those whose profiles have expired.
+     *
+     * @return the number of keys in this store
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Returns the number of segment files of this store.
+     *
+     * @return the number of segment files
+     */
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Returns the number of bytes occupied by records which have been superseded or removed
+     * and not yet reclaimed by compaction.
+     *
+     * @return the number of bytes occupied by superseded records
+     */
+    public long getSupersededBytes() {
+        long superseded = 0;
+        for (ProfileSegment segment : segments.values()) {
+            superseded += segment.getRecordBytes() - segment.getLiveBytes();
+        }
+        return superseded;
+    }
+
+    /**
+     * Returns whether this store holds an unexpired profile for the provided key.
+     *
+     * @param key the key
+     * @return whether this store holds an unexpired profile for the key
+     * @throws NullPointerException if the provided key is null
+     */
+    public boolean contains(String key) {
+        Preconditions.checkNotNull(key);
+
+        ProfileSegment.Entry entry = index.get(key);
+        return entry != null && !isExpired(entry);
+    }
+
+    /**
+     * Returns the profile stored under the provided key, if present and unexpired.
+     *
+     * @param key the key
+     * @return the profile stored under the key
+     * @throws NullPointerException        if the provided key is null
+     * @throws GravatarJavaClientException if this store has been closed or the profile cannot be read
+     */
+    public Optional<GravatarProfile> get(String key) {
+        Preconditions.checkNotNull(key);
+
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            ProfileSegment.Entry entry = index.get(key);
+            if (entry == null || isExpired(entry)) return Optional.empty();
+            return Optional.of(decode(entry.segment.read(entry)));
+        } catch (IOException e) {
+            throw new GravatarJavaClientException(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the profile stored under the provided key, or obtains it from the provided fetcher and stores it
+     * if it is absent or expired.
+     *
+     * @param key     the key
+     * @param fetcher the supplier of the profile, typically a request to the Gravatar Profile API
+     * @return the profile
+     * @throws NullPointerException        if any parameter is null or the fetcher returns null
+     * @throws GravatarJavaClientException if this store has been closed, the profile cannot be read or written,
+     *                                     or the fetcher throws
+     */
+    public GravatarProfile computeIfAbsent(String key, Supplier<GravatarProfile> fetcher) {
+        Preconditions.checkNotNull(fetcher);
+
+        Optional<GravatarProfile> stored = get(key);
+        if (stored.isPresent()) return stored.get();
+
+        GravatarProfile profile = Preconditions.checkNotNull(fetcher.get());
+        put(key, profile);
+        return profile;
+    }
+
+    /**
+     * Stores the provided profile under the provided key, superseding any profile previously stored under it.
+     *
+     * @param key     the key
+     * @param profile the profile
+     * @return this store
+     * @throws NullPointerException        if any parameter is null
+     * @throws IllegalArgumentException    if the provided key is empty or too long
+     * @throws GravatarJavaClientException if this store has been closed or the write fails
+     */
+    @CanIgnoreReturnValue
+    public GravatarProfileStore put(String key, GravatarProfile profile) {
+        checkKey(key);
+        Preconditions.checkNotNull(profile);
+
+        byte[] encoded = GravatarProfileCodec.INSTANCE.encode(profile).array();
+        append(PUT, key, encoded.length, deflate(encoded));
+        return this;
+    }
+
+    /**
+     * Removes the profile stored under the provided key.
+     *
+     * @param key the key
+     * @return whether a profile was stored under the key
+     * @throws NullPointerException        if the provided key is null
+     * @throws IllegalArgumentException    if the provided key is empty or too long
+     * @throws GravatarJavaClientException if this store has been closed or the write fails
+     */
+    @CanIgnoreReturnValue
+    public boolean remove(String key) {
+        checkKey(key);
+        if (!index.containsKey(key)) return false;
+
+        return append(REMOVE, key, 0, new byte[0]);
+    }
+
+    /**
+     * Seals the active segment and compacts every sealed segment, waiting for the compaction to finish.
+     *
+     * @return the number of bytes reclaimed
+     * @throws GravatarJavaClientException if this store has been closed or compaction fails
+     */
+    @CanIgnoreReturnValue
+    public long compact() {
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            synchronized (appendLock) {
+                if (!active.getEntries().isEmpty()) roll();
+            }
+        } catch (IOException e) {
+            throw new GravatarJavaClientException(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return compactSealed();
+    }
+
+    /**
+     * Waits for any compaction to finish, seals the active segment, and closes every segment.
+     *
+     * @throws GravatarJavaClientException if sealing the active segment fails
+     */
+    @Override
+    public void close() {
+        compactor.shutdown();
+        synchronized (compactionLock) {
+            lock.writeLock().lock();
+            try {
+                if (closed) return;
+                closed = true;
+
+                synchronized (appendLock) {
+                    if (active.getEntries().isEmpty()) {
+                        segments.remove(active.getId());
+                        active.delete();
+                    } else {
+                        active.seal();
+                    }
+                }
+            } catch (IOException e) {
+                throw new GravatarJavaClientException(e);
+            } finally {
+                for (ProfileSegment segment : segments.values()) {
+                    closeQuietly(segment);
+                }
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns a string representation of this store.
+     *
+     * @return a string representation of this store
+     */
+    @Override
+    public String toString() {
+        return "GravatarProfileStore{"
+                + "directory=\"" + directory + "\""
+                + ", size=" + index.size()
+                + ", segmentCount=" + segments.size()
+                + ", maxAge=" + maxAge
+                + ", closed=" + closed
+                + "}";
+    }
+
+    /**
+     * Appends a record to the active segment and updates the index, returning whether the key was live.
+     */
+    private boolean append(byte type, String key, int encodedLength, byte[] payload) {
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            synchronized (appendLock) {
+                long storedAt = clock.instant().getEpochSecond();
+                ProfileSegment.Entry entry = active.append(type, key,
+                        nextSequence.getAndIncrement(), storedAt, encodedLength, payload);
+
+                ProfileSegment.Entry previous;
+                if (type == PUT) {
+                    previous = index.put(key, entry);
+                    active.addLiveBytes(entry.length);
+                } else {
+                    previous = index.remove(key);
+                }
+                if (previous != null) previous.segment.addLiveBytes(-previous.length);
+
+                if (active.getRecordBytes() >= maxSegmentBytes) {
+                    roll();
+                    scheduleCompactionIfNeeded();
+                }
+                return previous != null;
+            }
+        } catch (IOException e) {
+            throw new GravatarJavaClientException(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Seals the active segment and starts a new one. The append lock must be held.
+     */
+    private void roll() throws IOException {
+        active.seal();
+        active = createSegment();
+        segments.put(active.getId(), active);
+    }
+
+    /**
+     * Schedules a background compaction if enough of the sealed segments has been superseded.
+     */
+    private void scheduleCompactionIfNeeded() {
+        long recordBytes = 0;
+        long liveBytes = 0;
+        for (ProfileSegment segment : segments.values()) {
+            if (!segment.isSealed()) continue;
+            recordBytes += segment.getRecordBytes();
+            liveBytes += segment.getLiveBytes();
+        }
+        if (recordBytes == 0 || recordBytes - liveBytes < recordBytes * COMPACTION_THRESHOLD) return;
+        if (!compactionScheduled.compareAndSet(false, true)) return;
+
+        compactor.execute(() -> {
+            try {
+                compactSealed();
+            } catch (GravatarJavaClientException ignored) {
+                // The superseded records remain and are retried by the next compaction
+            } finally {
+                compactionScheduled.set(false);
+            }
+        });
+    }
+
+    /**
+     * Copies the live records of every sealed segment to new segments and deletes the originals,
+     * returning the number of bytes reclaimed. The last removal of a key which is not live is copied
+     * as well if a record it removed is among the originals or a leftover segment remains, since the
+     * removal would otherwise be lost if that record outlived it.
+     */
+    private long compactSealed() {
+        synchronized (compactionLock) {
+            if (closed) throw new GravatarJavaClientException("The store has been closed");
+
+            leftovers.removeIf(GravatarProfileStore::tryDelete);
+
+            List<ProfileSegment> sources = new ArrayList<>();
+            for (ProfileSegment segment : segments.values()) {
+                if (segment.isSealed()) sources.add(segment);
+            }
+            if (sources.isEmpty()) return 0;
+
+            // The last removal of each key which is not live, copied if a record it removed may outlive compaction
+            Map<String, ProfileSegment.Entry> removals = new HashMap<>();
+            Set<String> putKeys = new HashSet<>();
+            for (ProfileSegment source : sources) {
+                for (ProfileSegment.Entry entry : source.getEntries()) {
+                    if (entry.type == PUT) putKeys.add(entry.key);
+                    if (entry.type == PUT || index.containsKey(entry.key)) continue;
+                    removals.merge(entry.key, entry,
+                            (first, second) -> first.sequence >= second.sequence ? first : second);
+                }
+            }
+            if (leftovers.isEmpty()) removals.keySet().retainAll(putKeys);
+
+            List<ProfileSegment> outputs = new ArrayList<>();
+            List<ProfileSegment.Entry[]> moves = new ArrayList<>();
+            long reclaimed = 0;
+            try {
+                ProfileSegment output = null;
+                for (ProfileSegment source : sources) {
+                    reclaimed += Files.size(source.getPath());
+                    for (ProfileSegment.Entry entry : source.getEntries()) {
+                        boolean live = entry.type == PUT && index.get(entry.key) == entry;
+                        if (!live && removals.get(entry.key) != entry) continue;
+
+                        if (output == null || output.getRecordBytes() >= maxSegmentBytes) {
+                            if (output != null) output.seal();
+                            output = createSegment();
+                            outputs.add(output);
+                        }
+                        ProfileSegment.Entry copy = output.copy(entry, source.read(entry));
+                        if (live) moves.add(new ProfileSegment.Entry[]{entry, copy});
+                    }
+                }
+                if (output != null) output.seal();
+                for (ProfileSegment segment : outputs) {
+                    reclaimed -= Files.size(segment.getPath());
+                }
+            } catch (IOException e) {
+                abandon(outputs);
+                throw new GravatarJavaClientException(e);
+            } catch (RuntimeException e) {
+                abandon(outputs);
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                for (ProfileSegment.Entry[] move : moves) {
+                    if (index.replace(move[0].key, move[0], move[1])) move[1].segment.addLiveBytes(move[1].length);
+                }
+                for (ProfileSegment segment : outputs) {
+                    segments.put(segment.getId(), segment);
+                }
+                for (ProfileSegment segment : sources) {
+                    segments.remove(segment.getId());
+                }
+                abandon(sources);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return reclaimed;
+        }
+    }
+
+    /**
+     * Deletes the provided segments, keeping those which could not be deleted as leftovers.
+     * The compaction lock must be held.
+     */
+    private void abandon(List<ProfileSegment> abandoned) {
+        for (ProfileSegment segment : abandoned) {
+            if (!tryDelete(segment)) leftovers.add(segment);
+        }
+    }
+
+    /**
+     * Creates a segment with the next ID.
+     */
+    private ProfileSegment createSegment() throws IOException {
+        long id = nextSegmentId.getAndIncrement();
+        return ProfileSegment.create(directory.resolve(fileName(id)), id);
+    }
+
+    /**
+     * Returns whether the provided record was stored longer ago than the maximum age.
+     */
+    private boolean isExpired(ProfileSegment.Entry entry) {
+        return maxAge != null && clock.instant().getEpochSecond() - entry.storedAt >= maxAge.toSeconds();
+    }
+
+    /**
+     * Throws if this store has been closed.
+     */
+    private void ensureOpen() {
+        if (closed) throw new GravatarJavaClientException("The store has been closed");
+    }
+
+    /**
+     * Validates the provided key.
+     */
+    private static void checkKey(String key) {
+        Preconditions.checkNotNull(key);
+        Preconditions.checkArgument(!key.isEmpty());
+        Preconditions.checkArgument(key.getBytes(StandardCharsets.UTF_8).length <= MAX_KEY_LENGTH);
+    }
+
+    /**
+     * Compresses the provided bytes.
+     */
+    private static byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 16);
+            byte[] chunk = new byte[Math.max(64, bytes.length)];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Inflates and decodes the profile of the provided record.
+     */
+    private static GravatarProfile decode(ByteBuffer record) {
+        byte[] encoded = new byte[ProfileSegment.encodedLength(record)];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(ProfileSegment.payload(record));
+            int length = 0;
+            while (length < encoded.length && !inflater.finished()) {
+                int inflated = inflater.inflate(encoded, length, encoded.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                length += inflated;
+            }
+            if (length != encoded.length) throw new GravatarJavaClientException("The profile record is truncated");
+        } catch (DataFormatException e) {
+            throw new GravatarJavaClientException(e);
+        } finally {
+            inflater.end();
+        }
+        return GravatarProfileCodec.INSTANCE.decode(ByteBuffer.wrap(encoded));
+    }
+
+    /**
+     * Returns the segment files in the provided directory in order of their IDs.
+     */
+    private static List<Path> listSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_EXTENSION))
+                    .filter(path -> segmentId(path) > 0)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Returns the ID of the segment at the provided path, or -1 if its name is not that of a segment.
+     */
+    private static long segmentId(Path path) {
+        String name = path.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SEGMENT_EXTENSION.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Closes the provided segment, ignoring any exception.
+     */
+    private static void closeQuietly(ProfileSegment segment) {
+        try {
+            segment.close();
+        } catch (IOException ignored) {
+            // Nothing else can be done
+        }
+    }
+
+    /**
+     * Deletes the provided segment, returning whether it was deleted.
+     */
+    private static boolean tryDelete(ProfileSegment segment) {
+        try {
+            segment.delete();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,519 @@
+package com.github.natche.gravatarjavaclient.profile.store;
+
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import static com.github.natche.gravatarjavaclient.profile.store.ProfileSegmentFormat.*;
+
+/**
+ * A single segment file of a {@link GravatarProfileStore}.
+ * <p>
+ * Records are appended to a segment until it is sealed, at which point an index of every record it holds
+ * and a footer pointing at that index are appended and the segment becomes immutable. Opening an existing
+ * segment reads its index from the footer; a segment left unsealed by a crash is instead scanned record by
+ * record, truncated after its last intact record, and sealed. Appends must be serialized by the caller;
+ * reads are safe for use by multiple threads.
+ */
+final class ProfileSegment {
+    /**
+     * The ID of this segment, which orders it among the segments of a store.
+     */
+    private final long id;
+
+    /**
+     * The path of this segment.
+     */
+    private final Path path;
+
+    /**
+     * The channel of this segment.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Every record in this segment, in the order they were appended.
+     */
+    private final List<Entry> entries;
+
+    /**
+     * The number of bytes of records in this segment which are still live.
+     */
+    private final AtomicLong liveBytes = new AtomicLong();
+
+    /**
+     * The offset the next record will be written at.
+     */
+    private volatile long size;
+
+    /**
+     * Whether this segment has been sealed.
+     */
+    private volatile boolean sealed;
+
+    private ProfileSegment(long id, Path path, FileChannel channel, List<Entry> entries, long size, boolean sealed) {
+        this.id = id;
+        this.path = path;
+        this.channel = channel;
+        this.entries = entries;
+        this.size = size;
+        this.sealed = sealed;
+    }
+
+    /**
+     * Creates a new, empty segment at the provided path.
+     *
+     * @param path the path of the segment, which must not exist
+     * @param id   the ID of the segment
+     * @return the segment
+     * @throws IOException if the segment cannot be created
+     */
+    static ProfileSegment create(Path path, long id) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH).putInt(HEADER_MAGIC).putInt(VERSION).flip();
+            writeFully(channel, header, 0);
+            return new ProfileSegment(id, path, channel, new ArrayList<>(), HEADER_LENGTH, false);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens the existing segment at the provided path, sealing it if it was left unsealed.
+     *
+     * @param path the path of the segment
+     * @param id   the ID of the segment
+     * @return the sealed segment
+     * @throws IOException                 if the segment cannot be read
+     * @throws GravatarJavaClientException if the segment is not a profile segment
+     */
+    static ProfileSegment open(Path path, long id) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long fileSize = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            if (fileSize < HEADER_LENGTH || readFully(channel, header, 0) < HEADER_LENGTH
+                    || header.getInt(0) != HEADER_MAGIC) {
+                throw new GravatarJavaClientException("Not a profile segment: " + path);
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new GravatarJavaClientException("Unsupported profile segment version: " + header.getInt(4));
+            }
+
+            ProfileSegment segment = new ProfileSegment(id, path, channel, new ArrayList<>(), HEADER_LENGTH, false);
+            if (!segment.readIndex(fileSize)) {
+                segment.scan(fileSize);
+                segment.seal();
+            }
+            return segment;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the ID of this segment.
+     *
+     * @return the ID of this segment
+     */
+    long getId() {
+        return id;
+    }
+
+    /**
+     * Returns the path of this segment.
+     *
+     * @return the path of this segment
+     */
+    Path getPath() {
+        return path;
+    }
+
+    /**
+     * Returns every record in this segment, in the order they were appended.
+     * The list must not be read while records are being appended.
+     *
+     * @return every record in this segment
+     */
+    List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Returns the number of bytes of records in this segment.
+     *
+     * @return the number of bytes of records in this segment
+     */
+    long getRecordBytes() {
+        return size - HEADER_LENGTH;
+    }
+
+    /**
+     * Returns the number of bytes of records in this segment which are still live.
+     *
+     * @return the number of bytes of live records
+     */
+    long getLiveBytes() {
+        return liveBytes.get();
+    }
+
+    /**
+     * Adds the provided number of bytes to the live bytes of this segment.
+     *
+     * @param delta the number of bytes, which may be negative
+     */
+    void addLiveBytes(long delta) {
+        liveBytes.addAndGet(delta);
+    }
+
+    /**
+     * Returns whether this segment has been sealed.
+     *
+     * @return whether this segment has been sealed
+     */
+    boolean isSealed() {
+        return sealed;
+    }
+
+    /**
+     * Appends a record to this segment.
+     *
+     * @param type          the type of the record
+     * @param key           the key
+     * @param sequence      the sequence number of the record
+     * @param storedAt      the epoch second the record was stored at
+     * @param encodedLength the length of the payload once inflated
+     * @param payload       the compressed payload
+     * @return the entry of the record
+     * @throws IOException if the write fails
+     */
+    Entry append(byte type, String key, long sequence, long storedAt, int encodedLength, byte[] payload)
+            throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_LENGTH + keyBytes.length + payload.length);
+        record.putInt(0)
+                .put(type)
+                .putLong(sequence)
+                .putLong(storedAt)
+                .putInt(keyBytes.length)
+                .putInt(encodedLength)
+                .putInt(payload.length)
+                .put(keyBytes)
+                .put(payload);
+        record.putInt(0, crc(record, 4, record.capacity() - 4));
+        return appendRecord(key, type, sequence, storedAt, record.flip());
+    }
+
+    /**
+     * Appends a copy of the provided record, read from another segment by {@link #read(Entry)}.
+     *
+     * @param source the entry of the record in its original segment
+     * @param record the record
+     * @return the entry of the copy
+     * @throws IOException if the write fails
+     */
+    Entry copy(Entry source, ByteBuffer record) throws IOException {
+        return appendRecord(source.key, source.type, source.sequence, source.storedAt, record.duplicate().rewind());
+    }
+
+    /**
+     * Reads and verifies the record of the provided entry.
+     *
+     * @param entry the entry
+     * @return the record, positioned at its start
+     * @throws IOException                 if the read fails
+     * @throws GravatarJavaClientException if the record is truncated or corrupt
+     */
+    ByteBuffer read(Entry entry) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(entry.length);
+        if (readFully(channel, record, entry.offset) < entry.length
+                || record.getInt(0) != crc(record, 4, entry.length - 4)) {
+            throw new GravatarJavaClientException("The profile record is truncated or corrupt: " + entry.key);
+        }
+        return record.rewind();
+    }
+
+    /**
+     * Returns the length of the payload of the provided record once inflated.
+     *
+     * @param record the record
+     * @return the length of the inflated payload
+     */
+    static int encodedLength(ByteBuffer record) {
+        return record.getInt(25);
+    }
+
+    /**
+     * Returns a view of the payload of the provided record.
+     *
+     * @param record the record
+     * @return the payload
+     */
+    static ByteBuffer payload(ByteBuffer record) {
+        int keyLength = record.getInt(21);
+        return record.slice(RECORD_HEADER_LENGTH + keyLength, record.getInt(29));
+    }
+
+    /**
+     * Appends the index and footer, forces this segment to storage, and makes it immutable.
+     *
+     * @throws IOException if the write fails
+     */
+    void seal() throws IOException {
+        if (sealed) return;
+
+        int indexLength = 0;
+        List<byte[]> keys = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            byte[] keyBytes = entry.key.getBytes(StandardCharsets.UTF_8);
+            keys.add(keyBytes);
+            indexLength += INDEX_ENTRY_HEADER_LENGTH + keyBytes.length;
+        }
+
+        ByteBuffer index = ByteBuffer.allocate(indexLength + FOOTER_LENGTH);
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            index.put(entry.type)
+                    .putLong(entry.sequence)
+                    .putLong(entry.storedAt)
+                    .putLong(entry.offset)
+                    .putInt(entry.length)
+                    .putInt(keys.get(i).length)
+                    .put(keys.get(i));
+        }
+        index.putLong(size)
+                .putInt(entries.size())
+                .putInt(crc(index, 0, indexLength))
+                .putInt(FOOTER_MAGIC);
+
+        channel.truncate(size);
+        writeFully(channel, index.flip(), size);
+        channel.force(true);
+        sealed = true;
+    }
+
+    /**
+     * Closes this segment.
+     *
+     * @throws IOException if closing the channel fails
+     */
+    void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Closes and deletes this segment.
+     *
+     * @throws IOException if closing or deleting the file fails
+     */
+    void delete() throws IOException {
+        channel.close();
+        Files.deleteIfExists(path);
+    }
+
+    /**
+     * Returns a string representation of this segment.
+     *
+     * @return a string representation of this segment
+     */
+    @Override
+    public String toString() {
+        return "ProfileSegment{"
+                + "id=" + id
+                + ", recordCount=" + entries.size()
+                + ", recordBytes=" + getRecordBytes()
+                + ", liveBytes=" + liveBytes.get()
+                + ", sealed=" + sealed
+                + "}";
+    }
+
+    /**
+     * Writes the provided record at the end of this segment and records its entry.
+     */
+    private Entry appendRecord(String key, byte type, long sequence, long storedAt, ByteBuffer record)
+            throws IOException {
+        if (sealed) throw new GravatarJavaClientException("The segment has been sealed");
+
+        long offset = size;
+        int length = record.remaining();
+        writeFully(channel, record, offset);
+        size = offset + length;
+
+        Entry entry = new Entry(key, type, sequence, storedAt, this, offset, length);
+        entries.add(entry);
+        return entry;
+    }
+
+    /**
+     * Reads the index from the footer of a sealed segment, returning whether the footer and index are intact.
+     */
+    private boolean readIndex(long fileSize) throws IOException {
+        if (fileSize < HEADER_LENGTH + FOOTER_LENGTH) return false;
+
+        ByteBuffer footer = ByteBuffer.allocate(FOOTER_LENGTH);
+        if (readFully(channel, footer, fileSize - FOOTER_LENGTH) < FOOTER_LENGTH) return false;
+        long indexOffset = footer.getLong(0);
+        int entryCount = footer.getInt(8);
+        long indexLength = fileSize - FOOTER_LENGTH - indexOffset;
+        if (footer.getInt(16) != FOOTER_MAGIC || entryCount < 0 || indexOffset < HEADER_LENGTH
+                || indexLength < (long) entryCount * INDEX_ENTRY_HEADER_LENGTH || indexLength > Integer.MAX_VALUE) {
+            return false;
+        }
+
+        ByteBuffer index = ByteBuffer.allocate((int) indexLength);
+        if (readFully(channel, index, indexOffset) < indexLength || crc(index, 0, (int) indexLength) != footer.getInt(12)) {
+            return false;
+        }
+
+        index.rewind();
+        List<Entry> loaded = new ArrayList<>(entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            if (index.remaining() < INDEX_ENTRY_HEADER_LENGTH) return false;
+            byte type = index.get();
+            long sequence = index.getLong();
+            long storedAt = index.getLong();
+            long recordOffset = index.getLong();
+            int recordLength = index.getInt();
+            int keyLength = index.getInt();
+            if (keyLength <= 0 || keyLength > index.remaining() || recordLength < RECORD_HEADER_LENGTH
+                    || recordOffset < HEADER_LENGTH || recordOffset + recordLength > indexOffset) {
+                return false;
+            }
+
+            byte[] keyBytes = new byte[keyLength];
+            index.get(keyBytes);
+            String key = new String(keyBytes, StandardCharsets.UTF_8);
+            loaded.add(new Entry(key, type, sequence, storedAt, this, recordOffset, recordLength));
+        }
+
+        entries.addAll(loaded);
+        size = indexOffset;
+        sealed = true;
+        return true;
+    }
+
+    /**
+     * Reads every intact record of an unsealed segment, stopping at the first truncated or corrupt record.
+     */
+    private void scan(long fileSize) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_LENGTH);
+        long offset = HEADER_LENGTH;
+        while (offset + RECORD_HEADER_LENGTH <= fileSize) {
+            if (readFully(channel, header.clear(), offset) < RECORD_HEADER_LENGTH) break;
+            byte type = header.get(4);
+            int keyLength = header.getInt(21);
+            int payloadLength = header.getInt(29);
+            if ((type != PUT && type != REMOVE) || keyLength <= 0 || keyLength > MAX_KEY_LENGTH
+                    || payloadLength < 0 || offset + RECORD_HEADER_LENGTH + keyLength + payloadLength > fileSize) {
+                break;
+            }
+
+            int length = RECORD_HEADER_LENGTH + keyLength + payloadLength;
+            ByteBuffer record = ByteBuffer.allocate(length);
+            if (readFully(channel, record, offset) < length || record.getInt(0) != crc(record, 4, length - 4)) break;
+
+            String key = new String(record.array(), RECORD_HEADER_LENGTH, keyLength, StandardCharsets.UTF_8);
+            entries.add(new Entry(key, type, record.getLong(5), record.getLong(13), this, offset, length));
+            offset += length;
+        }
+        size = offset;
+    }
+
+    /**
+     * Returns the CRC32 of the provided range of the provided buffer.
+     */
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Reads into the provided buffer from the provided position until it is full or the end of the channel
+     * is reached, returning the number of bytes read.
+     */
+    private static int readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + total);
+            if (read < 0) break;
+            total += read;
+        }
+        return total;
+    }
+
+    /**
+     * Writes the remaining bytes of the provided buffer at the provided position.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+    }
+
+    /**
+     * The location and metadata of one record.
+     */
+    static final class Entry {
+        /**
+         * The key of the record.
+         */
+        final String key;
+
+        /**
+         * The type of the record.
+         */
+        final byte type;
+
+        /**
+         * The sequence number of the record; of two records for a key, the one with the greater sequence wins.
+         */
+        final long sequence;
+
+        /**
+         * The epoch second the record was stored at.
+         */
+        final long storedAt;
+
+        /**
+         * The segment holding the record.
+         */
+        final ProfileSegment segment;
+
+        /**
+         * The offset of the record within its segment.
+         */
+        final long offset;
+
+        /**
+         * The length of the record in bytes.
+         */
+        final int length;
+
+        Entry(String key, byte type, long sequence, long storedAt, ProfileSegment segment, long offset, int length) {
+            this.key = key;
+            this.type = type;
+            this.sequence = sequence;
+            this.storedAt = storedAt;
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.natche.gravatarjavaclient.profile.store;
+
+/**
+ * Constants describing the layout of a profile segment file shared by {@link ProfileSegment}
+ * and {@link GravatarProfileStore}.
+ * <p>
+ * A segment is laid out as follows, with all integers big-endian:
+ * <pre>{@code
+ * header:  int magic, int version
+ * record:  int crc, byte type, long sequence, long storedAt, int keyLength, int encodedLength,
+ *          int payloadLength, byte[keyLength] key (UTF-8), byte[payloadLength] payload
+ * ...
+ * index:   entryCount * (byte type, long sequence, long storedAt, long recordOffset, int recordLength,
+ *          int keyLength, byte[keyLength] key)
+ * footer:  long indexOffset, int entryCount, int indexCrc, int magic
+ * }</pre>
+ * The payload of a put record is the {@link com.github.natche.gravatarjavaclient.profile.codec.GravatarProfileCodec}
+ * encoding of the profile compressed with a {@link java.util.zip.Deflater}; a remove record has no payload.
+ * The record CRC covers every byte of the record after it. Only sealed segments have an index and footer.
+ */
+final class ProfileSegmentFormat {
+    /**
+     * The magic number at the start of a segment.
+     */
+    static final int HEADER_MAGIC = 0x47505347;
+
+    /**
+     * The magic number at the end of a sealed segment.
+     */
+    static final int FOOTER_MAGIC = 0x4750534B;
+
+    /**
+     * The version of the segment format.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The length in bytes of the header.
+     */
+    static final int HEADER_LENGTH = 8;
+
+    /**
+     * The length in bytes of the footer.
+     */
+    static final int FOOTER_LENGTH = 20;
+
+    /**
+     * The length in bytes of a record before its key.
+     */
+    static final int RECORD_HEADER_LENGTH = 33;
+
+    /**
+     * The length in bytes of an index entry before its key.
+     */
+    static final int INDEX_ENTRY_HEADER_LENGTH = 33;
+
+    /**
+     * The maximum length in bytes of an encoded key.
+     */
+    static final int MAX_KEY_LENGTH = 1024;
+
+    /**
+     * The record type of a profile being put.
+     */
+    static final byte PUT = 1;
+
+    /**
+     * The record type of a key being removed.
+     */
+    static final byte REMOVE = 2;
+
+    /**
+     * The extension of segment files.
+     */
+    static final String SEGMENT_EXTENSION = ".segment";
+
+    private ProfileSegmentFormat() {}
+
+    /**
+     * Returns the file name of the segment with the provided ID.
+     *
+     * @param id the ID of the segment
+     * @return the file name of the segment
+     */
+    static String fileName(long id) {
+        return String.format("%016d", id) + SEGMENT_EXTENSION;
+    }
+}
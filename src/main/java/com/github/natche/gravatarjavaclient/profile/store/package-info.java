@@ -0,0 +1,5 @@
+/**
+ * A persistent store for profiles obtained from
+ * {@link com.github.natche.gravatarjavaclient.profile.GravatarProfileRequest}s.
+ */
+package com.github.natche.gravatarjavaclient.profile.store;
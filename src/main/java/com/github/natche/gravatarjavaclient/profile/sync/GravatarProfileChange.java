@@ -0,0 +1,183 @@
+package com.github.natche.gravatarjavaclient.profile.sync;
+
+import com.github.natche.gravatarjavaclient.enums.GravatarProfileChangeType;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.annotations.Immutable;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A change to a mirrored profile detected by a refresh, with the fields which changed.
+ */
+@Immutable
+public final class GravatarProfileChange {
+    /**
+     * The SHA256 hash or ID of the profile.
+     */
+    private final String hashOrId;
+
+    /**
+     * How the profile changed.
+     */
+    private final GravatarProfileChangeType type;
+
+    /**
+     * The profile before the change, or null if it was added.
+     */
+    private final GravatarProfile previous;
+
+    /**
+     * The profile after the change, or null if it was removed.
+     */
+    private final GravatarProfile current;
+
+    /**
+     * The fields which changed.
+     */
+    private final ImmutableList<GravatarProfileFieldChange> fieldChanges;
+
+    /**
+     * The instant the change was detected.
+     */
+    private final Instant detectedAt;
+
+    /**
+     * Constructs a new GravatarProfileChange.
+     *
+     * @param hashOrId     the SHA256 hash or ID of the profile
+     * @param type         how the profile changed
+     * @param previous     the profile before the change, or null if it was added
+     * @param current      the profile after the change, or null if it was removed
+     * @param fieldChanges the fields which changed
+     * @param detectedAt   the instant the change was detected
+     * @throws NullPointerException     if the hash or ID, type, field changes, any field change,
+     *                                  or instant is null
+     * @throws IllegalArgumentException if the profiles present do not match the type or no fields changed
+     */
+    public GravatarProfileChange(String hashOrId, GravatarProfileChangeType type, GravatarProfile previous,
+                                 GravatarProfile current, List<GravatarProfileFieldChange> fieldChanges,
+                                 Instant detectedAt) {
+        Preconditions.checkNotNull(hashOrId);
+        Preconditions.checkNotNull(type);
+        Preconditions.checkNotNull(fieldChanges);
+        Preconditions.checkNotNull(detectedAt);
+        Preconditions.checkArgument((previous == null) == (type == GravatarProfileChangeType.Added));
+        Preconditions.checkArgument((current == null) == (type == GravatarProfileChangeType.Removed));
+        Preconditions.checkArgument(!fieldChanges.isEmpty());
+
+        this.hashOrId = hashOrId;
+        this.type = type;
+        this.previous = previous;
+        this.current = current;
+        this.fieldChanges = ImmutableList.copyOf(fieldChanges);
+        this.detectedAt = detectedAt;
+    }
+
+    /**
+     * Returns the SHA256 hash or ID of the profile.
+     *
+     * @return the SHA256 hash or ID of the profile
+     */
+    public String getHashOrId() {
+        return hashOrId;
+    }
+
+    /**
+     * Returns how the profile changed.
+     *
+     * @return how the profile changed
+     */
+    public GravatarProfileChangeType getType() {
+        return type;
+    }
+
+    /**
+     * Returns the profile before the change, unless it was added.
+     *
+     * @return the profile before the change
+     */
+    public Optional<GravatarProfile> getPrevious() {
+        return Optional.ofNullable(previous);
+    }
+
+    /**
+     * Returns the profile after the change, unless it was removed.
+     *
+     * @return the profile after the change
+     */
+    public Optional<GravatarProfile> getCurrent() {
+        return Optional.ofNullable(current);
+    }
+
+    /**
+     * Returns the fields which changed.
+     *
+     * @return the fields which changed
+     */
+    public ImmutableList<GravatarProfileFieldChange> getFieldChanges() {
+        return fieldChanges;
+    }
+
+    /**
+     * Returns the instant the change was detected.
+     *
+     * @return the instant the change was detected
+     */
+    public Instant getDetectedAt() {
+        return detectedAt;
+    }
+
+    /**
+     * Returns whether the provided object is equal to this.
+     *
+     * @param o the other object
+     * @return whether the provided object is equal to this
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GravatarProfileChange other)) return false;
+        return hashOrId.equals(other.hashOrId)
+                && type == other.type
+                && Objects.equals(previous, other.previous)
+                && Objects.equals(current, other.current)
+                && fieldChanges.equals(other.fieldChanges)
+                && detectedAt.equals(other.detectedAt);
+    }
+
+    /**
+     * Returns a hashcode for this object.
+     *
+     * @return a hashcode for this object
+     */
+    @Override
+    public int hashCode() {
+        int ret = hashOrId.hashCode();
+        ret = 31 * ret + type.hashCode();
+        ret = 31 * ret + Objects.hashCode(previous);
+        ret = 31 * ret + Objects.hashCode(current);
+        ret = 31 * ret + fieldChanges.hashCode();
+        ret = 31 * ret + detectedAt.hashCode();
+        return ret;
+    }
+
+    /**
+     * Returns a string representation of this object.
+     *
+     * @return a string representation of this object
+     */
+    @Override
+    public String toString() {
+        return "GravatarProfileChange{"
+                + "hashOrId=\"" + hashOrId + "\""
+                + ", type=" + type
+                + ", fields=" + fieldChanges.stream().map(GravatarProfileFieldChange::getField).toList()
+                + ", detectedAt=" + detectedAt
+                + "}";
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.natche.gravatarjavaclient.profile.sync;
+
+import com.github.natche.gravatarjavaclient.enums.GravatarProfileField;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile;
+import com.google.common.collect.ImmutableList;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A singleton computing the fields which differ between two versions of a profile.
+ */
+public enum GravatarProfileDiffer {
+    /**
+     * The profile differ.
+     */
+    INSTANCE;
+
+    /**
+     * Returns the fields which differ between the provided profiles, in the order of {@link GravatarProfileField}.
+     * A null profile has every field unset, so diffing against null lists every field which is set.
+     *
+     * @param previous the previous profile, or null
+     * @param current  the current profile, or null
+     * @return the fields which differ, which is empty if the profiles are equal
+     */
+    public ImmutableList<GravatarProfileFieldChange> diff(GravatarProfile previous, GravatarProfile current) {
+        if (Objects.equals(previous, current)) return ImmutableList.of();
+
+        ImmutableList.Builder<GravatarProfileFieldChange> changes = ImmutableList.builder();
+        for (GravatarProfileField field : GravatarProfileField.values()) {
+            Object previousValue = valueOf(previous, field);
+            Object currentValue = valueOf(current, field);
+            if (!Objects.equals(previousValue, currentValue)) {
+                changes.add(new GravatarProfileFieldChange(field, previousValue, currentValue));
+            }
+        }
+        return changes.build();
+    }
+
+    /**
+     * Returns the value of the provided field of the provided profile, or null if the profile is null
+     * or the field is unset. Empty lists are treated as unset.
+     *
+     * @param profile the profile, or null
+     * @param field   the field
+     * @return the value of the field, or null
+     */
+    public Object valueOf(GravatarProfile profile, GravatarProfileField field) {
+        if (profile == null) return null;
+
+        Object value = switch (field) {
+            case Hash -> profile.getHash();
+            case DisplayName -> profile.getDisplayName();
+            case ProfileUrl -> profile.getProfileUrl();
+            case AvatarUrl -> profile.getAvatarUrl();
+            case AvatarAltText -> profile.getAvatarAltText();
+            case Location -> profile.getLocation();
+            case Description -> profile.getDescription();
+            case JobTitle -> profile.getJobTitle();
+            case Company -> profile.getCompany();
+            case VerifiedAccounts -> profile.getVerifiedAccounts();
+            case Pronunciation -> profile.getPronunciation();
+            case Pronouns -> profile.getPronouns();
+            case Timezone -> profile.getTimezone();
+            case Languages -> profile.getLanguages();
+            case FirstName -> profile.getFirstName();
+            case LastName -> profile.getLastName();
+            case Organization -> profile.isOrganization();
+            case Links -> profile.getLinks();
+            case Interests -> profile.getInterests();
+            case Payments -> profile.getPayments();
+            case ContactInfo -> profile.getContactInfo();
+            case Gallery -> profile.getGallery();
+            case NumberVerifiedAccounts -> profile.getNumberVerifiedAccounts();
+            case LastProfileEdit -> profile.getLastProfileEdit();
+            case RegistrationDate -> profile.getRegistrationDate();
+        };
+
+        if (value instanceof Optional<?> optional) return optional.orElse(null);
+        if (value instanceof ImmutableList<?> list && list.isEmpty()) return null;
+        return value;
+    }
+}
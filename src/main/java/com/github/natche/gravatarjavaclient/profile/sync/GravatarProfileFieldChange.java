@@ -0,0 +1,118 @@
+package com.github.natche.gravatarjavaclient.profile.sync;
+
+import com.github.natche.gravatarjavaclient.enums.GravatarProfileField;
+import com.google.common.base.Preconditions;
+import com.google.errorprone.annotations.Immutable;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A change to a single field of a profile. Values are those returned by the field's getter on
+ * {@link com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile}, with optional values unwrapped,
+ * and are absent if the field was or became unset.
+ */
+@Immutable
+public final class GravatarProfileFieldChange {
+    /**
+     * The field which changed.
+     */
+    private final GravatarProfileField field;
+
+    /**
+     * The previous value, or null if the field was unset.
+     */
+    private final Object previousValue;
+
+    /**
+     * The current value, or null if the field is unset.
+     */
+    private final Object currentValue;
+
+    /**
+     * Constructs a new GravatarProfileFieldChange.
+     *
+     * @param field         the field which changed
+     * @param previousValue the previous value, or null if the field was unset
+     * @param currentValue  the current value, or null if the field is unset
+     * @throws NullPointerException     if the provided field is null
+     * @throws IllegalArgumentException if the provided values are equal
+     */
+    public GravatarProfileFieldChange(GravatarProfileField field, Object previousValue, Object currentValue) {
+        Preconditions.checkNotNull(field);
+        Preconditions.checkArgument(!Objects.equals(previousValue, currentValue));
+
+        this.field = field;
+        this.previousValue = previousValue;
+        this.currentValue = currentValue;
+    }
+
+    /**
+     * Returns the field which changed.
+     *
+     * @return the field which changed
+     */
+    public GravatarProfileField getField() {
+        return field;
+    }
+
+    /**
+     * Returns the previous value, if the field was set.
+     *
+     * @return the previous value
+     */
+    public Optional<Object> getPreviousValue() {
+        return Optional.ofNullable(previousValue);
+    }
+
+    /**
+     * Returns the current value, if the field is set.
+     *
+     * @return the current value
+     */
+    public Optional<Object> getCurrentValue() {
+        return Optional.ofNullable(currentValue);
+    }
+
+    /**
+     * Returns whether the provided object is equal to this.
+     *
+     * @param o the other object
+     * @return whether the provided object is equal to this
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GravatarProfileFieldChange other)) return false;
+        return field == other.field
+                && Objects.equals(previousValue, other.previousValue)
+                && Objects.equals(currentValue, other.currentValue);
+    }
+
+    /**
+     * Returns a hashcode for this object.
+     *
+     * @return a hashcode for this object
+     */
+    @Override
+    public int hashCode() {
+        int ret = field.hashCode();
+        ret = 31 * ret + Objects.hashCode(previousValue);
+        ret = 31 * ret + Objects.hashCode(currentValue);
+        return ret;
+    }
+
+    /**
+     * Returns a string representation of this object.
+     *
+     * @return a string representation of this object
+     */
+    @Override
+    public String toString() {
+        return "GravatarProfileFieldChange{"
+                + "field=" + field
+                + ", previousValue=" + previousValue
+                + ", currentValue=" + currentValue
+                + "}";
+    }
+}
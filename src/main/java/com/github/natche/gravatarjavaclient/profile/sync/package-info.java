@@ -0,0 +1,5 @@
+/**
+ * Field-level differences between versions of a profile, as emitted by
+ * {@link com.github.natche.gravatarjavaclient.profile.GravatarProfileSync}.
+ */
+package com.github.natche.gravatarjavaclient.profile.sync;
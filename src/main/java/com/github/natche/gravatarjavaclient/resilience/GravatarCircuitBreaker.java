@@ -0,0 +1,435 @@
+package com.github.natche.gravatarjavaclient.resilience;
+
+import com.github.natche.gravatarjavaclient.enums.GravatarCircuitState;
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfileRequestResult;
+import com.google.common.base.Preconditions;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * A circuit breaker failing requests fast once too many recent requests have failed or been slow.
+ * <p>
+ * While {@link GravatarCircuitState#Closed} every request is permitted and its outcome is recorded in a
+ * {@link GravatarRequestOutcomeHistory}. Once the history holds at least the minimum number of outcomes and the
+ * fraction which failed, or the fraction at least as slow as the slow call threshold, reaches its threshold, the
+ * breaker opens. While {@link GravatarCircuitState#Open} every request is rejected until the open duration has
+ * elapsed, after which the breaker is {@link GravatarCircuitState#HalfOpen} and permits a few probe requests:
+ * a probe which fails or is slow opens it again, and once every probe has succeeded it closes with an empty
+ * history. A caller granted permission must report the outcome of its request through {@link #onResult}, or
+ * use {@link #execute(Callable)} which does so itself. It is safe for use by multiple threads.
+ */
+public final class GravatarCircuitBreaker {
+    /**
+     * The default fraction of failed requests at which the breaker opens.
+     */
+    public static final double DEFAULT_FAILURE_RATE_THRESHOLD = 0.5;
+
+    /**
+     * The default latency at which a request is slow.
+     */
+    public static final Duration DEFAULT_SLOW_CALL_THRESHOLD = Duration.ofSeconds(5);
+
+    /**
+     * The default fraction of slow requests at which the breaker opens.
+     */
+    public static final double DEFAULT_SLOW_CALL_RATE_THRESHOLD = 1.0;
+
+    /**
+     * The default number of outcomes required before the breaker may open.
+     */
+    public static final int DEFAULT_MINIMUM_CALLS = 20;
+
+    /**
+     * The default duration the breaker stays open before permitting probes.
+     */
+    public static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+
+    /**
+     * The default number of probes which must succeed to close the breaker.
+     */
+    public static final int DEFAULT_HALF_OPEN_PROBES = 3;
+
+    /**
+     * The clock used to read the current instant.
+     */
+    private final Clock clock = Clock.systemUTC();
+
+    /**
+     * The history of outcomes the thresholds are evaluated against.
+     */
+    private final GravatarRequestOutcomeHistory history;
+
+    /**
+     * The fraction of failed requests at which the breaker opens.
+     */
+    private double failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
+
+    /**
+     * The latency at which a request is slow.
+     */
+    private Duration slowCallThreshold = DEFAULT_SLOW_CALL_THRESHOLD;
+
+    /**
+     * The fraction of slow requests at which the breaker opens.
+     */
+    private double slowCallRateThreshold = DEFAULT_SLOW_CALL_RATE_THRESHOLD;
+
+    /**
+     * The number of outcomes required before the breaker may open.
+     */
+    private int minimumCalls = DEFAULT_MINIMUM_CALLS;
+
+    /**
+     * The duration the breaker stays open before permitting probes.
+     */
+    private Duration openDuration = DEFAULT_OPEN_DURATION;
+
+    /**
+     * The number of probes which must succeed to close the breaker.
+     */
+    private int halfOpenProbes = DEFAULT_HALF_OPEN_PROBES;
+
+    /**
+     * The current state.
+     */
+    private GravatarCircuitState state = GravatarCircuitState.Closed;
+
+    /**
+     * The instant the breaker last opened.
+     */
+    private Instant openedAt = Instant.MIN;
+
+    /**
+     * The number of probes permitted since the breaker became half-open.
+     */
+    private int permittedProbes;
+
+    /**
+     * The number of probes which have succeeded since the breaker became half-open.
+     */
+    private int succeededProbes;
+
+    /**
+     * The number of requests rejected.
+     */
+    private long rejectedCount;
+
+    private GravatarCircuitBreaker(GravatarRequestOutcomeHistory history) {
+        this.history = history;
+    }
+
+    /**
+     * Constructs a new closed circuit breaker with a default history and the default thresholds.
+     *
+     * @return a new circuit breaker
+     */
+    public static GravatarCircuitBreaker create() {
+        return create(GravatarRequestOutcomeHistory.create());
+    }
+
+    /**
+     * Constructs a new closed circuit breaker evaluating its thresholds against the provided history.
+     *
+     * @param history the history of outcomes
+     * @return a new circuit breaker
+     * @throws NullPointerException if the provided history is null
+     */
+    public static GravatarCircuitBreaker create(GravatarRequestOutcomeHistory history) {
+        return new GravatarCircuitBreaker(Preconditions.checkNotNull(history));
+    }
+
+    /**
+     * Sets the fraction of failed requests at which the breaker opens.
+     *
+     * @param failureRateThreshold the fraction, greater than zero and at most one
+     * @return this circuit breaker
+     * @throws IllegalArgumentException if the provided fraction is not within (0, 1]
+     */
+    @CanIgnoreReturnValue
+    public synchronized GravatarCircuitBreaker setFailureRateThreshold(double failureRateThreshold) {
+        Preconditions.checkArgument(failureRateThreshold > 0 && failureRateThreshold <= 1);
+        this.failureRateThreshold = failureRateThreshold;
+        return this;
+    }
+
+    /**
+     * Sets the latency at which a request is slow and the fraction of slow requests at which the breaker opens.
+     *
+     * @param slowCallThreshold     the latency at which a request is slow
+     * @param slowCallRateThreshold the fraction, greater than zero and at most one
+     * @return this circuit breaker
+     * @throws NullPointerException     if the provided latency is null
+     * @throws IllegalArgumentException if the provided latency is not positive or the fraction is not within (0, 1]
+     */
+    @CanIgnoreReturnValue
+    public synchronized GravatarCircuitBreaker setSlowCallThreshold(Duration slowCallThreshold,
+                                                                    double slowCallRateThreshold) {
+        Preconditions.checkNotNull(slowCallThreshold);
+        Preconditions.checkArgument(!slowCallThreshold.isNegative() && !slowCallThreshold.isZero());
+        Preconditions.checkArgument(slowCallRateThreshold > 0 && slowCallRateThreshold <= 1);
+
+        this.slowCallThreshold = slowCallThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        return this;
+    }
+
+    /**
+     * Sets the number of outcomes required before the breaker may open.
+     *
+     * @param minimumCalls the number of outcomes
+     * @return this circuit breaker
+     * @throws IllegalArgumentException if the provided number is not positive
+     */
+    @CanIgnoreReturnValue
+    public synchronized GravatarCircuitBreaker setMinimumCalls(int minimumCalls) {
+        Preconditions.checkArgument(minimumCalls > 0);
+        this.minimumCalls = minimumCalls;
+        return this;
+    }
+
+    /**
+     * Sets the duration the breaker stays open before permitting probes.
+     *
+     * @param openDuration the duration
+     * @return this circuit breaker
+     * @throws NullPointerException     if the provided duration is null
+     * @throws IllegalArgumentException if the provided duration is negative
+     */
+    @CanIgnoreReturnValue
+    public synchronized GravatarCircuitBreaker setOpenDuration(Duration openDuration) {
+        Preconditions.checkNotNull(openDuration);
+        Preconditions.checkArgument(!openDuration.isNegative());
+        this.openDuration = openDuration;
+        return this;
+    }
+
+    /**
+     * Sets the number of probes which must succeed while half-open to close the breaker.
+     *
+     * @param halfOpenProbes the number of probes
+     * @return this circuit breaker
+     * @throws IllegalArgumentException if the provided number is not positive
+     */
+    @CanIgnoreReturnValue
+    public synchronized GravatarCircuitBreaker setHalfOpenProbes(int halfOpenProbes) {
+        Preconditions.checkArgument(halfOpenProbes > 0);
+        this.halfOpenProbes = halfOpenProbes;
+        return this;
+    }
+
+    /**
+     * Returns the history of outcomes the thresholds are evaluated against.
+     *
+     * @return the history of outcomes
+     */
+    public GravatarRequestOutcomeHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Returns the current state.
+     *
+     * @return the current state
+     */
+    public GravatarCircuitState getState() {
+        return getState(clock.instant());
+    }
+
+    /**
+     * Returns a summary of the outcomes within the history using the slow call threshold of this breaker.
+     *
+     * @return a summary of the outcomes
+     */
+    public synchronized GravatarOutcomeStatistics getStatistics() {
+        return history.getStatistics(slowCallThreshold);
+    }
+
+    /**
+     * Returns the number of requests this breaker has rejected.
+     *
+     * @return the number of requests rejected
+     */
+    public synchronized long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Returns whether a request may be sent now. If so, its outcome must be reported through {@link #onResult}.
+     *
+     * @return whether a request may be sent
+     */
+    public boolean tryAcquirePermission() {
+        return tryAcquirePermission(clock.instant());
+    }
+
+    /**
+     * Returns a permission acquired for a request which was never sent, so that while half-open another probe
+     * may be sent in its place.
+     */
+    public synchronized void releasePermission() {
+        if (state == GravatarCircuitState.HalfOpen && permittedProbes > succeededProbes) permittedProbes--;
+    }
+
+    /**
+     * Records the outcome of a request this breaker permitted and opens or closes the breaker as required.
+     *
+     * @param result the outcome
+     * @throws NullPointerException if the provided outcome is null
+     */
+    public synchronized void onResult(GravatarProfileRequestResult result) {
+        Preconditions.checkNotNull(result);
+        history.record(result);
+
+        Instant now = result.getCompletionInstant();
+        boolean slow = result.getLatency().compareTo(slowCallThreshold) >= 0;
+        switch (state) {
+            case Closed -> {
+                GravatarOutcomeStatistics statistics = history.getStatistics(slowCallThreshold, now);
+                if (statistics.getCount() >= minimumCalls
+                        && (statistics.getFailureRate() >= failureRateThreshold
+                        || statistics.getSlowCallRate() >= slowCallRateThreshold)) {
+                    open(now);
+                }
+            }
+            case HalfOpen -> {
+                if (result.failed() || slow) {
+                    open(now);
+                } else if (++succeededProbes >= halfOpenProbes) {
+                    state = GravatarCircuitState.Closed;
+                    history.clear();
+                }
+            }
+            case Open -> {
+                // A request permitted before the breaker opened; its outcome is recorded but changes nothing
+            }
+        }
+    }
+
+    /**
+     * Calls the provided request if this breaker permits it and records its outcome. A request which throws
+     * is a failure.
+     *
+     * @param request the request
+     * @param <T>     the type of the request's result
+     * @return the request's result
+     * @throws NullPointerException        if the provided request is null
+     * @throws GravatarJavaClientException if the breaker rejects the request, or wrapping a checked exception
+     *                                     thrown by the request
+     */
+    public <T> T execute(Callable<T> request) {
+        Preconditions.checkNotNull(request);
+        if (!tryAcquirePermission()) throw new GravatarJavaClientException("The circuit breaker is open");
+
+        try {
+            return callAndRecord(request);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new GravatarJavaClientException(e);
+        }
+    }
+
+    /**
+     * Calls the provided request if this breaker permits it and records its outcome, or returns the result of
+     * the provided fallback if the breaker rejects the request or the request throws. The fallback is typically
+     * a cached or placeholder value.
+     *
+     * @param request  the request
+     * @param fallback the fallback
+     * @param <T>      the type of the request's result
+     * @return the request's result, or the fallback's
+     * @throws NullPointerException if the provided request or fallback is null
+     */
+    public <T> T execute(Callable<T> request, Supplier<T> fallback) {
+        Preconditions.checkNotNull(request);
+        Preconditions.checkNotNull(fallback);
+        if (!tryAcquirePermission()) return fallback.get();
+
+        try {
+            return callAndRecord(request);
+        } catch (Exception e) {
+            return fallback.get();
+        }
+    }
+
+    /**
+     * Returns the state at the provided instant, moving from open to half-open once the open duration has elapsed.
+     *
+     * @param now the current instant
+     * @return the state
+     */
+    synchronized GravatarCircuitState getState(Instant now) {
+        Preconditions.checkNotNull(now);
+
+        if (state == GravatarCircuitState.Open && !now.isBefore(openedAt.plus(openDuration))) {
+            state = GravatarCircuitState.HalfOpen;
+            permittedProbes = 0;
+            succeededProbes = 0;
+        }
+        return state;
+    }
+
+    /**
+     * Returns whether a request may be sent at the provided instant.
+     *
+     * @param now the current instant
+     * @return whether a request may be sent
+     */
+    synchronized boolean tryAcquirePermission(Instant now) {
+        GravatarCircuitState current = getState(now);
+        if (current == GravatarCircuitState.Closed) return true;
+
+        if (current == GravatarCircuitState.HalfOpen && permittedProbes < halfOpenProbes) {
+            permittedProbes++;
+            return true;
+        }
+
+        rejectedCount++;
+        return false;
+    }
+
+    /**
+     * Calls the provided request, timing it and recording its outcome, and rethrows anything it throws.
+     */
+    private <T> T callAndRecord(Callable<T> request) throws Exception {
+        Instant requestInstant = clock.instant();
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            T ret = request.call();
+            succeeded = true;
+            return ret;
+        } finally {
+            Duration latency = Duration.ofNanos(System.nanoTime() - start);
+            onResult(new GravatarProfileRequestResult(requestInstant, succeeded, latency));
+        }
+    }
+
+    /**
+     * Opens the breaker at the provided instant.
+     */
+    private void open(Instant now) {
+        state = GravatarCircuitState.Open;
+        openedAt = now;
+    }
+
+    /**
+     * Returns a string representation of this circuit breaker.
+     *
+     * @return a string representation of this circuit breaker
+     */
+    @Override
+    public synchronized String toString() {
+        return "GravatarCircuitBreaker{"
+                + "state=" + state
+                + ", rejectedCount=" + rejectedCount
+                + ", history=" + history
+                + "}";
+    }
+}
@@ -0,0 +1,488 @@
+package com.github.natche.gravatarjavaclient.resilience;
+
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
+import com.google.common.base.Preconditions;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A limit on the number of requests in flight at once which adapts to the latency the server responds with,
+ * so that it settles near the highest concurrency the server sustains without queueing requests.
+ * <p>
+ * The limit grows additively and shrinks multiplicatively. A request which completes within the latency tolerance
+ * of the baseline latency, the lowest latency of recent requests, grows the limit by one while the limit is at
+ * least half used. A request which takes longer, or which is dropped because the server was overloaded, shrinks
+ * the limit by the backoff ratio. Requests beyond the limit wait in arrival order. It is safe for use by multiple
+ * threads.
+ */
+public final class GravatarConcurrencyLimiter {
+    /**
+     * The default initial limit.
+     */
+    public static final int DEFAULT_INITIAL_LIMIT = 20;
+
+    /**
+     * The default minimum limit.
+     */
+    public static final int DEFAULT_MIN_LIMIT = 1;
+
+    /**
+     * The default maximum limit.
+     */
+    public static final int DEFAULT_MAX_LIMIT = 200;
+
+    /**
+     * The default ratio the limit is multiplied by when it shrinks.
+     */
+    public static final double DEFAULT_BACKOFF_RATIO = 0.9;
+
+    /**
+     * The default multiple of the baseline latency above which a request shrinks the limit.
+     */
+    public static final double DEFAULT_LATENCY_TOLERANCE = 2.0;
+
+    /**
+     * The default number of requests over which the baseline latency is measured.
+     */
+    public static final int DEFAULT_BASELINE_WINDOW = 500;
+
+    /**
+     * The requests waiting for the limit, oldest first.
+     */
+    private final Queue<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+
+    /**
+     * The limit, whose floor is the number of requests which may be in flight.
+     */
+    private double limit;
+
+    /**
+     * The minimum limit.
+     */
+    private int minLimit = DEFAULT_MIN_LIMIT;
+
+    /**
+     * The maximum limit.
+     */
+    private int maxLimit = DEFAULT_MAX_LIMIT;
+
+    /**
+     * The ratio the limit is multiplied by when it shrinks.
+     */
+    private double backoffRatio = DEFAULT_BACKOFF_RATIO;
+
+    /**
+     * The multiple of the baseline latency above which a request shrinks the limit.
+     */
+    private double latencyTolerance = DEFAULT_LATENCY_TOLERANCE;
+
+    /**
+     * The number of requests over which the baseline latency is measured.
+     */
+    private int baselineWindow = DEFAULT_BASELINE_WINDOW;
+
+    /**
+     * The lowest latency in nanoseconds of the previous window of requests.
+     */
+    private long previousWindowMinNanos = Long.MAX_VALUE;
+
+    /**
+     * The lowest latency in nanoseconds of the current window of requests.
+     */
+    private long windowMinNanos = Long.MAX_VALUE;
+
+    /**
+     * The number of requests measured in the current window.
+     */
+    private int windowCount;
+
+    /**
+     * The number of requests in flight.
+     */
+    private int inFlight;
+
+    /**
+     * The number of requests rejected by {@link #tryAcquire()}.
+     */
+    private long rejectedCount;
+
+    /**
+     * The number of requests dropped by the server.
+     */
+    private long droppedCount;
+
+    private GravatarConcurrencyLimiter(int initialLimit) {
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Constructs a new limiter starting at {@link #DEFAULT_INITIAL_LIMIT}.
+     *
+     * @return a new limiter
+     */
+    public static GravatarConcurrencyLimiter create() {
+        return create(DEFAULT_INITIAL_LIMIT);
+    }
+
+    /**
+     * Constructs a new limiter starting at the provided limit.
+     *
+     * @param initialLimit the initial limit
+     * @return a new limiter
+     * @throws IllegalArgumentException if the provided limit is not within
+     *                                  [{@link #DEFAULT_MIN_LIMIT}, {@link #DEFAULT_MAX_LIMIT}]
+     */
+    public static GravatarConcurrencyLimiter create(int initialLimit) {
+        Preconditions.checkArgument(initialLimit >= DEFAULT_MIN_LIMIT && initialLimit <= DEFAULT_MAX_LIMIT);
+
+        return new GravatarConcurrencyLimiter(initialLimit);
+    }
+
+    /**
+     * Sets the minimum and maximum limit, clamping the limit between them.
+     *
+     * @param minLimit the minimum limit, at least one
+     * @param maxLimit the maximum limit, at least the minimum limit
+     * @return this limiter
+     * @throws IllegalArgumentException if the minimum limit is not positive or exceeds the maximum limit
+     */
+    @CanIgnoreReturnValue
+    public GravatarConcurrencyLimiter setLimits(int minLimit, int maxLimit) {
+        Preconditions.checkArgument(minLimit > 0);
+        Preconditions.checkArgument(maxLimit >= minLimit);
+
+        synchronized (this) {
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.limit = Math.max(minLimit, Math.min(maxLimit, limit));
+        }
+        grantWaiters();
+        return this;
+    }
+
+    /**
+     * Sets the ratio the limit is multiplied by when it shrinks.
+     *
+     * @param backoffRatio the ratio, greater than zero and less than one
+     * @return this limiter
+     * @throws IllegalArgumentException if the provided ratio is not within (0, 1)
+     */
+    @CanIgnoreReturnValue
+    public synchronized GravatarConcurrencyLimiter setBackoffRatio(double backoffRatio) {
+        Preconditions.checkArgument(backoffRatio > 0 && backoffRatio < 1);
+
+        this.backoffRatio = backoffRatio;
+        return this;
+    }
+
+    /**
+     * Sets the multiple of the baseline latency above which a request shrinks the limit.
+     *
+     * @param latencyTolerance the multiple, greater than one
+     * @return this limiter
+     * @throws IllegalArgumentException if the provided multiple is not greater than one
+     */
+    @CanIgnoreReturnValue
+    public synchronized GravatarConcurrencyLimiter setLatencyTolerance(double latencyTolerance) {
+        Preconditions.checkArgument(latencyTolerance > 1);
+
+        this.latencyTolerance = latencyTolerance;
+        return this;
+    }
+
+    /**
+     * Sets the number of requests over which the baseline latency is measured. The baseline is the lowest latency
+     * of the current and previous window, so it follows a lasting change in latency within two windows.
+     *
+     * @param baselineWindow the number of requests, at least one
+     * @return this limiter
+     * @throws IllegalArgumentException if the provided number is not positive
+     */
+    @CanIgnoreReturnValue
+    public synchronized GravatarConcurrencyLimiter setBaselineWindow(int baselineWindow) {
+        Preconditions.checkArgument(baselineWindow > 0);
+
+        this.baselineWindow = baselineWindow;
+        return this;
+    }
+
+    /**
+     * Returns the number of requests which may be in flight at once.
+     *
+     * @return the limit
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Returns the number of requests in flight.
+     *
+     * @return the number of requests in flight
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Returns the number of requests waiting for the limit.
+     *
+     * @return the number of requests waiting
+     */
+    public synchronized int getQueueLength() {
+        return waiters.size();
+    }
+
+    /**
+     * Returns the number of requests rejected by {@link #tryAcquire()}.
+     *
+     * @return the number of rejected requests
+     */
+    public synchronized long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Returns the number of requests dropped by the server.
+     *
+     * @return the number of dropped requests
+     */
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Returns the baseline latency, if any request has completed.
+     *
+     * @return the baseline latency, if any request has completed
+     */
+    public synchronized Optional<Duration> getBaselineLatency() {
+        long baseline = Math.min(previousWindowMinNanos, windowMinNanos);
+        return baseline == Long.MAX_VALUE ? Optional.empty() : Optional.of(Duration.ofNanos(baseline));
+    }
+
+    /**
+     * Returns whether a request may be sent now without waiting. If so, it must be reported through
+     * {@link #release(Duration, boolean)} or {@link #release()}.
+     *
+     * @return whether a request may be sent
+     */
+    public synchronized boolean tryAcquire() {
+        if (!waiters.isEmpty() || inFlight >= getLimit()) {
+            rejectedCount++;
+            return false;
+        }
+
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Waits until a request may be sent. It must then be reported through {@link #release(Duration, boolean)}
+     * or {@link #release()}.
+     *
+     * @throws GravatarJavaClientException if the current thread is interrupted while waiting
+     */
+    public void acquire() {
+        CompletableFuture<Void> permit = acquireAsync();
+        try {
+            permit.get();
+        } catch (InterruptedException e) {
+            if (!permit.cancel(false)) release();
+            Thread.currentThread().interrupt();
+            throw new GravatarJavaClientException(e);
+        } catch (ExecutionException e) {
+            throw new GravatarJavaClientException(e);
+        }
+    }
+
+    /**
+     * Returns a future completed once a request may be sent. The request must then be reported through
+     * {@link #release(Duration, boolean)} or {@link #release()}. Cancelling the future gives up waiting.
+     *
+     * @return a future completed once a request may be sent
+     */
+    public CompletableFuture<Void> acquireAsync() {
+        CompletableFuture<Void> waiter;
+        synchronized (this) {
+            if (waiters.isEmpty() && inFlight < getLimit()) {
+                inFlight++;
+                return CompletableFuture.completedFuture(null);
+            }
+            waiter = new CompletableFuture<>();
+            waiters.add(waiter);
+        }
+
+        waiter.whenComplete((ignored, error) -> {
+            if (waiter.isCancelled()) removeWaiter(waiter);
+        });
+        return waiter;
+    }
+
+    /**
+     * Reports that a request completed with the provided latency, adapting the limit.
+     *
+     * @param latency the latency of the request
+     * @param dropped whether the server dropped the request because it was overloaded
+     * @throws NullPointerException     if the provided latency is null
+     * @throws IllegalArgumentException if the provided latency is negative
+     */
+    public void release(Duration latency, boolean dropped) {
+        Preconditions.checkNotNull(latency);
+        Preconditions.checkArgument(!latency.isNegative());
+
+        synchronized (this) {
+            int inFlightBefore = inFlight;
+            inFlight = Math.max(0, inFlight - 1);
+            if (dropped) {
+                droppedCount++;
+                shrink();
+            } else {
+                long nanos = latency.toNanos();
+                long baseline = Math.min(previousWindowMinNanos, windowMinNanos);
+                if (baseline != Long.MAX_VALUE && nanos > baseline * latencyTolerance) shrink();
+                else if (inFlightBefore * 2 >= limit) limit = Math.min(maxLimit, limit + 1);
+                recordLatency(nanos);
+            }
+        }
+        grantWaiters();
+    }
+
+    /**
+     * Reports that a request was not completed, such as because it was cancelled, without adapting the limit.
+     */
+    public void release() {
+        synchronized (this) {
+            inFlight = Math.max(0, inFlight - 1);
+        }
+        grantWaiters();
+    }
+
+    /**
+     * Sends the provided request once it may be sent, reporting its latency when it completes. A request which
+     * completes exceptionally, or whose response matches the provided predicate, was dropped. Cancelling the
+     * returned future gives up waiting or cancels the request.
+     *
+     * @param request the request
+     * @param dropped whether a response shows the server dropped the request because it was overloaded
+     * @param <T>     the type of the response
+     * @return a future completed with the request's response
+     * @throws NullPointerException if the provided request or predicate is null
+     */
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> request, Predicate<? super T> dropped) {
+        Preconditions.checkNotNull(request);
+        Preconditions.checkNotNull(dropped);
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<T>> sent = new AtomicReference<>();
+        CompletableFuture<Void> permit = acquireAsync();
+        permit.thenRun(() -> {
+            if (result.isDone()) {
+                release();
+                return;
+            }
+
+            long start = System.nanoTime();
+            CompletableFuture<T> attempt;
+            try {
+                attempt = request.get();
+            } catch (RuntimeException e) {
+                release();
+                result.completeExceptionally(e);
+                return;
+            }
+            sent.set(attempt);
+            attempt.whenComplete((response, error) -> {
+                if (attempt.isCancelled()) release();
+                else release(Duration.ofNanos(System.nanoTime() - start), error != null || dropped.test(response));
+
+                if (error == null) result.complete(response);
+                else result.completeExceptionally(unwrap(error));
+            });
+            if (result.isCancelled()) attempt.cancel(true);
+        });
+        result.whenComplete((response, error) -> {
+            if (!result.isCancelled()) return;
+            permit.cancel(false);
+            CompletableFuture<T> attempt = sent.get();
+            if (attempt != null) attempt.cancel(true);
+        });
+        return result;
+    }
+
+    /**
+     * Multiplies the limit by the backoff ratio, down to the minimum limit.
+     */
+    private void shrink() {
+        limit = Math.max(minLimit, limit * backoffRatio);
+    }
+
+    /**
+     * Records the provided latency in the current baseline window, starting a new window once it is full.
+     */
+    private void recordLatency(long nanos) {
+        windowMinNanos = Math.min(windowMinNanos, nanos);
+        if (++windowCount < baselineWindow) return;
+
+        previousWindowMinNanos = windowMinNanos;
+        windowMinNanos = Long.MAX_VALUE;
+        windowCount = 0;
+    }
+
+    /**
+     * Lets waiting requests proceed, oldest first, while the limit allows.
+     */
+    private void grantWaiters() {
+        while (true) {
+            CompletableFuture<Void> waiter;
+            synchronized (this) {
+                if (waiters.isEmpty() || inFlight >= getLimit()) return;
+                waiter = waiters.poll();
+                inFlight++;
+            }
+            if (!waiter.complete(null)) release();
+        }
+    }
+
+    /**
+     * Removes the provided waiter, which gave up waiting.
+     */
+    private synchronized void removeWaiter(CompletableFuture<Void> waiter) {
+        waiters.remove(waiter);
+    }
+
+    /**
+     * Returns the cause of the provided throwable if it only wraps a failure of a dependent stage.
+     */
+    private static Throwable unwrap(Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause()
+                : throwable;
+    }
+
+    /**
+     * Returns a string representation of this limiter.
+     *
+     * @return a string representation of this limiter
+     */
+    @Override
+    public synchronized String toString() {
+        return "GravatarConcurrencyLimiter{"
+                + "limit=" + getLimit()
+                + ", inFlight=" + inFlight
+                + ", queueLength=" + waiters.size()
+                + ", minLimit=" + minLimit
+                + ", maxLimit=" + maxLimit
+                + "}";
+    }
+}
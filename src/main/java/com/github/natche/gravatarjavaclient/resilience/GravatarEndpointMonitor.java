@@ -0,0 +1,418 @@
+package com.github.natche.gravatarjavaclient.resilience;
+
+import com.github.natche.gravatarjavaclient.enums.GravatarEndpoint;
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfileRequestResult;
+import com.google.common.base.Preconditions;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A singleton recording the outcome of every avatar, QR code, and profile request this library sends.
+ * <p>
+ * Each endpoint always has a {@link GravatarRequestOutcomeHistory}. A {@link GravatarCircuitBreaker} may also be
+ * set for an endpoint, after which requests to it are rejected while the breaker is open: image requests throw,
+ * profile batches report {@link com.github.natche.gravatarjavaclient.enums.GravatarProfileBatchStatus#CircuitOpen},
+ * and a {@link com.github.natche.gravatarjavaclient.profile.GravatarProfileCache} serves expired profiles instead.
+ * A {@link GravatarRetryPolicy} may likewise be set for an endpoint, after which requests to it which fail
+ * transiently are retried, and a {@link GravatarHedgingPolicy}, after which requests to it which are slower than
+ * usual are sent a second time. No endpoint has a breaker, retry policy, or hedging policy by default.
+ * <p>
+ * Every request is sent through the HTTP client shared by this monitor, in front of which a
+ * {@link GravatarConcurrencyLimiter} may be set to adapt how many requests are in flight at once to the latency
+ * of the responses. There is no limiter by default.
+ */
+public enum GravatarEndpointMonitor {
+    /**
+     * The endpoint monitor.
+     */
+    INSTANCE;
+
+    /**
+     * The HTTP client every request is sent through. Gravatar redirects some default images,
+     * so redirects are followed.
+     */
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    /**
+     * The history of each endpoint.
+     */
+    private final Map<GravatarEndpoint, GravatarRequestOutcomeHistory> histories = createHistories();
+
+    /**
+     * The circuit breaker of each endpoint which has one.
+     */
+    private final Map<GravatarEndpoint, GravatarCircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    /**
+     * The retry policy of each endpoint which has one.
+     */
+    private final Map<GravatarEndpoint, GravatarRetryPolicy> retryPolicies = new ConcurrentHashMap<>();
+
+    /**
+     * The hedging policy of each endpoint which has one.
+     */
+    private final Map<GravatarEndpoint, GravatarHedgingPolicy> hedgingPolicies = new ConcurrentHashMap<>();
+
+    /**
+     * The concurrency limiter in front of the HTTP client, if there is one.
+     */
+    private volatile GravatarConcurrencyLimiter concurrencyLimiter;
+
+    /**
+     * Returns a new history for every endpoint.
+     */
+    private static Map<GravatarEndpoint, GravatarRequestOutcomeHistory> createHistories() {
+        Map<GravatarEndpoint, GravatarRequestOutcomeHistory> ret = new EnumMap<>(GravatarEndpoint.class);
+        for (GravatarEndpoint endpoint : GravatarEndpoint.values()) {
+            ret.put(endpoint, GravatarRequestOutcomeHistory.create());
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the history of the provided endpoint.
+     *
+     * @param endpoint the endpoint
+     * @return the history of the endpoint
+     * @throws NullPointerException if the provided endpoint is null
+     */
+    public GravatarRequestOutcomeHistory getHistory(GravatarEndpoint endpoint) {
+        return histories.get(Preconditions.checkNotNull(endpoint));
+    }
+
+    /**
+     * Sets the circuit breaker of the provided endpoint, replacing any it had.
+     *
+     * @param endpoint the endpoint
+     * @param breaker  the circuit breaker
+     * @throws NullPointerException if the provided endpoint or breaker is null
+     */
+    public void setCircuitBreaker(GravatarEndpoint endpoint, GravatarCircuitBreaker breaker) {
+        Preconditions.checkNotNull(endpoint);
+        Preconditions.checkNotNull(breaker);
+
+        breakers.put(endpoint, breaker);
+    }
+
+    /**
+     * Removes the circuit breaker of the provided endpoint.
+     *
+     * @param endpoint the endpoint
+     * @return whether the endpoint had a circuit breaker
+     * @throws NullPointerException if the provided endpoint is null
+     */
+    public boolean removeCircuitBreaker(GravatarEndpoint endpoint) {
+        return breakers.remove(Preconditions.checkNotNull(endpoint)) != null;
+    }
+
+    /**
+     * Returns the circuit breaker of the provided endpoint, if it has one.
+     *
+     * @param endpoint the endpoint
+     * @return the circuit breaker of the endpoint, if it has one
+     * @throws NullPointerException if the provided endpoint is null
+     */
+    public Optional<GravatarCircuitBreaker> getCircuitBreaker(GravatarEndpoint endpoint) {
+        return Optional.ofNullable(breakers.get(Preconditions.checkNotNull(endpoint)));
+    }
+
+    /**
+     * Sets the retry policy of the provided endpoint, replacing any it had.
+     *
+     * @param endpoint the endpoint
+     * @param policy   the retry policy
+     * @throws NullPointerException if the provided endpoint or policy is null
+     */
+    public void setRetryPolicy(GravatarEndpoint endpoint, GravatarRetryPolicy policy) {
+        Preconditions.checkNotNull(endpoint);
+        Preconditions.checkNotNull(policy);
+
+        retryPolicies.put(endpoint, policy);
+    }
+
+    /**
+     * Removes the retry policy of the provided endpoint.
+     *
+     * @param endpoint the endpoint
+     * @return whether the endpoint had a retry policy
+     * @throws NullPointerException if the provided endpoint is null
+     */
+    public boolean removeRetryPolicy(GravatarEndpoint endpoint) {
+        return retryPolicies.remove(Preconditions.checkNotNull(endpoint)) != null;
+    }
+
+    /**
+     * Returns the retry policy of the provided endpoint, if it has one.
+     *
+     * @param endpoint the endpoint
+     * @return the retry policy of the endpoint, if it has one
+     * @throws NullPointerException if the provided endpoint is null
+     */
+    public Optional<GravatarRetryPolicy> getRetryPolicy(GravatarEndpoint endpoint) {
+        return Optional.ofNullable(retryPolicies.get(Preconditions.checkNotNull(endpoint)));
+    }
+
+    /**
+     * Sets the hedging policy of the provided endpoint, replacing any it had.
+     *
+     * @param endpoint the endpoint
+     * @param policy   the hedging policy
+     * @throws NullPointerException if the provided endpoint or policy is null
+     */
+    public void setHedgingPolicy(GravatarEndpoint endpoint, GravatarHedgingPolicy policy) {
+        Preconditions.checkNotNull(endpoint);
+        Preconditions.checkNotNull(policy);
+
+        hedgingPolicies.put(endpoint, policy);
+    }
+
+    /**
+     * Removes the hedging policy of the provided endpoint.
+     *
+     * @param endpoint the endpoint
+     * @return whether the endpoint had a hedging policy
+     * @throws NullPointerException if the provided endpoint is null
+     */
+    public boolean removeHedgingPolicy(GravatarEndpoint endpoint) {
+        return hedgingPolicies.remove(Preconditions.checkNotNull(endpoint)) != null;
+    }
+
+    /**
+     * Returns the hedging policy of the provided endpoint, if it has one.
+     *
+     * @param endpoint the endpoint
+     * @return the hedging policy of the endpoint, if it has one
+     * @throws NullPointerException if the provided endpoint is null
+     */
+    public Optional<GravatarHedgingPolicy> getHedgingPolicy(GravatarEndpoint endpoint) {
+        return Optional.ofNullable(hedgingPolicies.get(Preconditions.checkNotNull(endpoint)));
+    }
+
+    /**
+     * Sets the concurrency limiter in front of the HTTP client, replacing any there was.
+     *
+     * @param limiter the concurrency limiter
+     * @throws NullPointerException if the provided limiter is null
+     */
+    public void setConcurrencyLimiter(GravatarConcurrencyLimiter limiter) {
+        concurrencyLimiter = Preconditions.checkNotNull(limiter);
+    }
+
+    /**
+     * Removes the concurrency limiter in front of the HTTP client. Requests waiting for it still wait for it.
+     *
+     * @return whether there was a concurrency limiter
+     */
+    public boolean removeConcurrencyLimiter() {
+        boolean ret = concurrencyLimiter != null;
+        concurrencyLimiter = null;
+        return ret;
+    }
+
+    /**
+     * Returns the concurrency limiter in front of the HTTP client, if there is one.
+     *
+     * @return the concurrency limiter, if there is one
+     */
+    public Optional<GravatarConcurrencyLimiter> getConcurrencyLimiter() {
+        return Optional.ofNullable(concurrencyLimiter);
+    }
+
+    /**
+     * Sends the provided request through the shared HTTP client without blocking, once the concurrency limiter
+     * permits it if there is one. A response with status 429, 503, or 504, or a failure to send the request,
+     * shows the limiter that the server is overloaded.
+     *
+     * @param request     the request
+     * @param bodyHandler the handler of the response's body
+     * @param <T>         the type of the response's body
+     * @return a future completed with the response
+     * @throws NullPointerException if the provided request or handler is null
+     */
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                                                           HttpResponse.BodyHandler<T> bodyHandler) {
+        Preconditions.checkNotNull(request);
+        Preconditions.checkNotNull(bodyHandler);
+
+        GravatarConcurrencyLimiter limiter = concurrencyLimiter;
+        if (limiter == null) return HTTP_CLIENT.sendAsync(request, bodyHandler);
+        return limiter.execute(() -> HTTP_CLIENT.sendAsync(request, bodyHandler),
+                response -> isOverloaded(response.statusCode()));
+    }
+
+    /**
+     * Returns whether the provided status code shows the server is overloaded.
+     */
+    private static boolean isOverloaded(int statusCode) {
+        return statusCode == 429 || statusCode == 503 || statusCode == 504;
+    }
+
+    /**
+     * Returns whether a request to the provided endpoint may be sent now, which is always the case for an
+     * endpoint without a circuit breaker. If so, its outcome must be reported through {@link #record} or its
+     * permission returned through {@link #releasePermission}.
+     *
+     * @param endpoint the endpoint
+     * @return whether a request may be sent
+     * @throws NullPointerException if the provided endpoint is null
+     */
+    public boolean tryAcquirePermission(GravatarEndpoint endpoint) {
+        GravatarCircuitBreaker breaker = breakers.get(Preconditions.checkNotNull(endpoint));
+        return breaker == null || breaker.tryAcquirePermission();
+    }
+
+    /**
+     * Acquires permission to send a request to the provided endpoint.
+     *
+     * @param endpoint the endpoint
+     * @throws NullPointerException        if the provided endpoint is null
+     * @throws GravatarJavaClientException if the circuit breaker of the endpoint is open
+     */
+    public void acquirePermission(GravatarEndpoint endpoint) {
+        if (!tryAcquirePermission(endpoint)) {
+            throw new GravatarJavaClientException("The circuit breaker of the " + endpoint + " endpoint is open");
+        }
+    }
+
+    /**
+     * Returns a permission acquired for a request to the provided endpoint which was never sent.
+     *
+     * @param endpoint the endpoint
+     * @throws NullPointerException if the provided endpoint is null
+     */
+    public void releasePermission(GravatarEndpoint endpoint) {
+        GravatarCircuitBreaker breaker = breakers.get(Preconditions.checkNotNull(endpoint));
+        if (breaker != null) breaker.releasePermission();
+    }
+
+    /**
+     * Records the outcome of a request to the provided endpoint in its history and circuit breaker.
+     *
+     * @param endpoint the endpoint
+     * @param result   the outcome
+     * @throws NullPointerException if the provided endpoint or outcome is null
+     */
+    public void record(GravatarEndpoint endpoint, GravatarProfileRequestResult result) {
+        Preconditions.checkNotNull(endpoint);
+        Preconditions.checkNotNull(result);
+
+        GravatarRequestOutcomeHistory history = histories.get(endpoint);
+        GravatarCircuitBreaker breaker = breakers.get(endpoint);
+        if (breaker != null) breaker.onResult(result);
+        if (breaker == null || breaker.getHistory() != history) history.record(result);
+    }
+
+    /**
+     * Calls the provided request to the provided endpoint once permitted, timing it and recording its outcome.
+     * A request which throws is a failure, and is retried as the retry policy of the endpoint permits, if it
+     * has one. Each attempt is permitted and recorded separately.
+     *
+     * @param endpoint the endpoint
+     * @param request  the request
+     * @param <T>      the type of the request's result
+     * @return the request's result
+     * @throws NullPointerException        if the provided endpoint or request is null
+     * @throws GravatarJavaClientException if the circuit breaker of the endpoint is open, or wrapping a checked
+     *                                     exception thrown by the request
+     */
+    public <T> T call(GravatarEndpoint endpoint, Callable<T> request) {
+        Preconditions.checkNotNull(request);
+        GravatarRetryPolicy policy = retryPolicies.get(Preconditions.checkNotNull(endpoint));
+        if (policy != null) return policy.execute(() -> callOnce(endpoint, request));
+
+        try {
+            return callOnce(endpoint, request);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new GravatarJavaClientException(e);
+        }
+    }
+
+    /**
+     * Sends the provided request to the provided endpoint and waits for its response, hedging it as the hedging
+     * policy of the endpoint permits, if it has one. Hedges are neither permitted nor recorded separately, so
+     * this is meant to be called within a request passed to {@link #call} or otherwise permitted and recorded.
+     *
+     * @param endpoint the endpoint
+     * @param request  the request, called once per attempt
+     * @param discard  the consumer of responses which arrive after another attempt's response
+     * @param <T>      the type of the response
+     * @return the first successful response
+     * @throws NullPointerException if the provided endpoint, request, or consumer is null
+     * @throws Exception            anything the last attempt to fail completed with
+     */
+    public <T> T callHedged(GravatarEndpoint endpoint,
+                            Supplier<CompletableFuture<T>> request,
+                            Consumer<? super T> discard) throws Exception {
+        Preconditions.checkNotNull(request);
+        Preconditions.checkNotNull(discard);
+        GravatarHedgingPolicy policy = hedgingPolicies.get(Preconditions.checkNotNull(endpoint));
+
+        CompletableFuture<T> response = policy == null
+                ? request.get()
+                : policy.execute(histories.get(endpoint), request, discard);
+        try {
+            return response.get();
+        } catch (InterruptedException e) {
+            response.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException | CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) throw exception;
+            if (cause instanceof Error error) throw error;
+            throw e;
+        }
+    }
+
+    /**
+     * Calls the provided request to the provided endpoint once permitted, timing it and recording its outcome,
+     * and rethrows anything it throws.
+     */
+    private <T> T callOnce(GravatarEndpoint endpoint, Callable<T> request) throws Exception {
+        acquirePermission(endpoint);
+
+        Instant requestInstant = Instant.now();
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            T ret = request.call();
+            succeeded = true;
+            return ret;
+        } finally {
+            Duration latency = Duration.ofNanos(System.nanoTime() - start);
+            record(endpoint, new GravatarProfileRequestResult(requestInstant, succeeded, latency));
+        }
+    }
+
+    /**
+     * Clears every history and removes every circuit breaker, retry policy, and hedging policy,
+     * and the concurrency limiter.
+     */
+    void clear() {
+        histories.values().forEach(GravatarRequestOutcomeHistory::clear);
+        breakers.clear();
+        retryPolicies.clear();
+        hedgingPolicies.clear();
+        concurrencyLimiter = null;
+    }
+}
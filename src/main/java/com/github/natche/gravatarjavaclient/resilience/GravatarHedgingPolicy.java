@@ -0,0 +1,418 @@
+package com.github.natche.gravatarjavaclient.resilience;
+
+import com.google.common.base.Preconditions;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A policy for hedging requests: sending a duplicate of a request which is slower than usual and taking
+ * whichever response arrives first, so that an occasional slow server does not set the tail latency.
+ * <p>
+ * The duplicate is sent once the request has been outstanding for longer than a percentile of the latencies in
+ * a {@link GravatarRequestOutcomeHistory}, or a default delay until it holds enough of them. The first successful
+ * response completes the request and the other attempt is cancelled; if both fail, the request fails. Like the
+ * retry budget of a {@link GravatarRetryPolicy}, the hedge budget holds at most a maximum number of hedges and
+ * every request adds a fraction of a hedge to it, so at most that fraction of requests are duplicated. Only
+ * idempotent requests, such as the GET requests this library sends, should be hedged. It is safe for use by
+ * multiple threads.
+ */
+public final class GravatarHedgingPolicy {
+    /**
+     * The default percentile of latencies after which a request is hedged.
+     */
+    public static final double DEFAULT_PERCENTILE = 0.95;
+
+    /**
+     * The default number of successful outcomes required before the percentile is used.
+     */
+    public static final int DEFAULT_MINIMUM_SAMPLES = 20;
+
+    /**
+     * The default delay before hedging while there are too few outcomes.
+     */
+    public static final Duration DEFAULT_DELAY = Duration.ofSeconds(1);
+
+    /**
+     * The default minimum delay before hedging.
+     */
+    public static final Duration DEFAULT_MINIMUM_DELAY = Duration.ofMillis(10);
+
+    /**
+     * The default fraction of a hedge each request adds to the hedge budget.
+     */
+    public static final double DEFAULT_HEDGE_RATIO = 0.1;
+
+    /**
+     * The default maximum number of hedges the hedge budget holds.
+     */
+    public static final int DEFAULT_MAX_HEDGE_TOKENS = 10;
+
+    /**
+     * The percentile of latencies after which a request is hedged.
+     */
+    private double percentile = DEFAULT_PERCENTILE;
+
+    /**
+     * The number of successful outcomes required before the percentile is used.
+     */
+    private int minimumSamples = DEFAULT_MINIMUM_SAMPLES;
+
+    /**
+     * The delay before hedging while there are too few outcomes.
+     */
+    private Duration defaultDelay = DEFAULT_DELAY;
+
+    /**
+     * The minimum delay before hedging.
+     */
+    private Duration minimumDelay = DEFAULT_MINIMUM_DELAY;
+
+    /**
+     * The fraction of a hedge each request adds to the hedge budget.
+     */
+    private double hedgeRatio = DEFAULT_HEDGE_RATIO;
+
+    /**
+     * The maximum number of hedges the hedge budget holds.
+     */
+    private int maxHedgeTokens = DEFAULT_MAX_HEDGE_TOKENS;
+
+    /**
+     * The number of hedges the hedge budget holds.
+     */
+    private double hedgeTokens = DEFAULT_MAX_HEDGE_TOKENS;
+
+    /**
+     * The number of hedges sent.
+     */
+    private long hedgeCount;
+
+    /**
+     * The number of hedged requests the hedge completed first.
+     */
+    private long hedgeWinCount;
+
+    /**
+     * The number of hedged requests the original attempt completed first.
+     */
+    private long hedgeLossCount;
+
+    /**
+     * The number of hedges not sent because the hedge budget was exhausted.
+     */
+    private long exhaustedCount;
+
+    private GravatarHedgingPolicy() {}
+
+    /**
+     * Constructs a new hedging policy with the default percentile, delays, and budget.
+     *
+     * @return a new hedging policy
+     */
+    public static GravatarHedgingPolicy create() {
+        return new GravatarHedgingPolicy();
+    }
+
+    /**
+     * Sets the percentile of latencies after which a request is hedged and the number of successful outcomes
+     * required before it is used.
+     *
+     * @param percentile     the percentile, greater than zero and at most one
+     * @param minimumSamples the number of successful outcomes required
+     * @return this hedging policy
+     * @throws IllegalArgumentException if the provided percentile is not within (0, 1]
+     *                                  or the minimum number of samples is not positive
+     */
+    @CanIgnoreReturnValue
+    public synchronized GravatarHedgingPolicy setPercentile(double percentile, int minimumSamples) {
+        Preconditions.checkArgument(percentile > 0 && percentile <= 1);
+        Preconditions.checkArgument(minimumSamples > 0);
+
+        this.percentile = percentile;
+        this.minimumSamples = minimumSamples;
+        return this;
+    }
+
+    /**
+     * Sets the delay before hedging while there are too few outcomes, and the minimum delay before hedging.
+     *
+     * @param defaultDelay the delay while there are too few outcomes
+     * @param minimumDelay the minimum delay
+     * @return this hedging policy
+     * @throws NullPointerException     if either provided delay is null
+     * @throws IllegalArgumentException if either provided delay is negative
+     */
+    @CanIgnoreReturnValue
+    public synchronized GravatarHedgingPolicy setDelays(Duration defaultDelay, Duration minimumDelay) {
+        Preconditions.checkNotNull(defaultDelay);
+        Preconditions.checkNotNull(minimumDelay);
+        Preconditions.checkArgument(!defaultDelay.isNegative());
+        Preconditions.checkArgument(!minimumDelay.isNegative());
+
+        this.defaultDelay = defaultDelay;
+        this.minimumDelay = minimumDelay;
+        return this;
+    }
+
+    /**
+     * Sets the hedge budget: the fraction of a hedge each request adds to it and the maximum number of hedges
+     * it holds. The budget is refilled to the new maximum.
+     *
+     * @param hedgeRatio     the fraction of a hedge each request adds, at least zero
+     * @param maxHedgeTokens the maximum number of hedges held, at least zero
+     * @return this hedging policy
+     * @throws IllegalArgumentException if either provided value is negative
+     */
+    @CanIgnoreReturnValue
+    public synchronized GravatarHedgingPolicy setHedgeBudget(double hedgeRatio, int maxHedgeTokens) {
+        Preconditions.checkArgument(hedgeRatio >= 0);
+        Preconditions.checkArgument(maxHedgeTokens >= 0);
+
+        this.hedgeRatio = hedgeRatio;
+        this.maxHedgeTokens = maxHedgeTokens;
+        this.hedgeTokens = maxHedgeTokens;
+        return this;
+    }
+
+    /**
+     * Returns the number of hedges sent.
+     *
+     * @return the number of hedges sent
+     */
+    public synchronized long getHedgeCount() {
+        return hedgeCount;
+    }
+
+    /**
+     * Returns the number of hedged requests the hedge completed first.
+     *
+     * @return the number of hedged requests the hedge won
+     */
+    public synchronized long getHedgeWinCount() {
+        return hedgeWinCount;
+    }
+
+    /**
+     * Returns the number of hedged requests the original attempt completed first.
+     *
+     * @return the number of hedged requests the hedge lost
+     */
+    public synchronized long getHedgeLossCount() {
+        return hedgeLossCount;
+    }
+
+    /**
+     * Returns the number of hedges not sent because the hedge budget was exhausted.
+     *
+     * @return the number of hedges not sent for lack of budget
+     */
+    public synchronized long getExhaustedCount() {
+        return exhaustedCount;
+    }
+
+    /**
+     * Returns how long a request should be outstanding before it is hedged, given the provided history.
+     *
+     * @param history the history of the requests' outcomes
+     * @return the delay before hedging
+     * @throws NullPointerException if the provided history is null
+     */
+    public Duration getHedgeDelay(GravatarRequestOutcomeHistory history) {
+        Preconditions.checkNotNull(history);
+
+        double percentile;
+        int minimumSamples;
+        Duration defaultDelay;
+        Duration minimumDelay;
+        synchronized (this) {
+            percentile = this.percentile;
+            minimumSamples = this.minimumSamples;
+            defaultDelay = this.defaultDelay;
+            minimumDelay = this.minimumDelay;
+        }
+
+        Duration delay = history.getLatencyPercentile(percentile, minimumSamples).orElse(defaultDelay);
+        return delay.compareTo(minimumDelay) < 0 ? minimumDelay : delay;
+    }
+
+    /**
+     * Sends the provided request, sending it again if it has not completed within the hedge delay of the provided
+     * history and the hedge budget allows it.
+     *
+     * @param history the history of the requests' outcomes
+     * @param request the request, called once per attempt
+     * @param <T>     the type of the response
+     * @return a future completed with the first successful response
+     * @throws NullPointerException if the provided history or request is null
+     */
+    public <T> CompletableFuture<T> execute(GravatarRequestOutcomeHistory history,
+                                            Supplier<CompletableFuture<T>> request) {
+        return execute(history, request, ignored -> {});
+    }
+
+    /**
+     * Sends the provided request, sending it again if it has not completed within the hedge delay of the provided
+     * history and the hedge budget allows it. A successful response which arrives after the request has completed
+     * is passed to the provided consumer, such as to close its body.
+     *
+     * @param history the history of the requests' outcomes
+     * @param request the request, called once per attempt
+     * @param discard the consumer of responses which arrive too late
+     * @param <T>     the type of the response
+     * @return a future completed with the first successful response
+     * @throws NullPointerException if the provided history, request, or consumer is null
+     */
+    public <T> CompletableFuture<T> execute(GravatarRequestOutcomeHistory history,
+                                            Supplier<CompletableFuture<T>> request,
+                                            Consumer<? super T> discard) {
+        Preconditions.checkNotNull(history);
+        Preconditions.checkNotNull(request);
+        Preconditions.checkNotNull(discard);
+
+        Duration delay = getHedgeDelay(history);
+        synchronized (this) {
+            hedgeTokens = Math.min(maxHedgeTokens, hedgeTokens + hedgeRatio);
+        }
+
+        HedgedRequest<T> hedged = new HedgedRequest<>(request, discard);
+        hedged.start();
+        CompletableFuture.delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS).execute(hedged::hedge);
+        return hedged.result;
+    }
+
+    /**
+     * Draws a hedge from the budget, returning whether there was one.
+     */
+    private synchronized boolean tryAcquireHedge() {
+        if (hedgeTokens < 1) {
+            exhaustedCount++;
+            return false;
+        }
+
+        hedgeTokens--;
+        hedgeCount++;
+        return true;
+    }
+
+    /**
+     * Records which attempt of a hedged request completed first.
+     */
+    private synchronized void recordWinner(boolean hedgeWon) {
+        if (hedgeWon) hedgeWinCount++;
+        else hedgeLossCount++;
+    }
+
+    /**
+     * Returns a string representation of this hedging policy.
+     *
+     * @return a string representation of this hedging policy
+     */
+    @Override
+    public synchronized String toString() {
+        return "GravatarHedgingPolicy{"
+                + "percentile=" + percentile
+                + ", hedgeCount=" + hedgeCount
+                + ", hedgeWinCount=" + hedgeWinCount
+                + ", hedgeLossCount=" + hedgeLossCount
+                + ", exhaustedCount=" + exhaustedCount
+                + "}";
+    }
+
+    /**
+     * The attempts of a single hedged request. Every transition happens under the lock of this object.
+     *
+     * @param <T> the type of the response
+     */
+    private final class HedgedRequest<T> {
+        /**
+         * The request, called once per attempt.
+         */
+        private final Supplier<CompletableFuture<T>> request;
+
+        /**
+         * The consumer of responses which arrive too late.
+         */
+        private final Consumer<? super T> discard;
+
+        /**
+         * The future completed with the first successful response.
+         */
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        /**
+         * The original attempt.
+         */
+        private CompletableFuture<T> primary;
+
+        /**
+         * The hedge, if one has been sent.
+         */
+        private CompletableFuture<T> hedge;
+
+        /**
+         * Whether an attempt has succeeded, set before the other attempt is cancelled.
+         */
+        private boolean decided;
+
+        private HedgedRequest(Supplier<CompletableFuture<T>> request, Consumer<? super T> discard) {
+            this.request = request;
+            this.discard = discard;
+        }
+
+        /**
+         * Sends the original attempt, and cancels every attempt if the result is cancelled.
+         */
+        private synchronized void start() {
+            primary = request.get();
+            primary.whenComplete((response, error) -> complete(primary, response, error));
+            result.whenComplete((response, error) -> {
+                if (result.isCancelled()) cancelAttempts();
+            });
+        }
+
+        /**
+         * Sends the hedge if the request is still outstanding and the budget allows it.
+         */
+        private synchronized void hedge() {
+            if (result.isDone() || primary.isDone() || !tryAcquireHedge()) return;
+
+            hedge = request.get();
+            hedge.whenComplete((response, error) -> complete(hedge, response, error));
+        }
+
+        /**
+         * Completes the result with the provided attempt's response, or with its error if no other attempt
+         * is outstanding.
+         */
+        private synchronized void complete(CompletableFuture<T> attempt, T response, Throwable error) {
+            if (decided || result.isDone()) {
+                if (error == null) discard.accept(response);
+                return;
+            }
+
+            CompletableFuture<T> other = attempt == primary ? hedge : primary;
+            if (error == null) {
+                if (hedge != null) recordWinner(attempt == hedge);
+                // The loser is cancelled first so that it is already cancelled once the result is observed
+                decided = true;
+                if (other != null) other.cancel(true);
+                result.complete(response);
+            } else if (other == null || other.isDone()) {
+                result.completeExceptionally(error);
+            }
+        }
+
+        /**
+         * Cancels every attempt.
+         */
+        private synchronized void cancelAttempts() {
+            if (primary != null) primary.cancel(true);
+            if (hedge != null) hedge.cancel(true);
+        }
+    }
+}
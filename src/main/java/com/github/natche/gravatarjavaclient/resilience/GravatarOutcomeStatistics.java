@@ -0,0 +1,148 @@
+package com.github.natche.gravatarjavaclient.resilience;
+
+import com.google.common.base.Preconditions;
+import com.google.errorprone.annotations.Immutable;
+
+import java.time.Duration;
+
+/**
+ * A summary of the outcomes held by a {@link GravatarRequestOutcomeHistory}: how many requests failed and how
+ * many were slower than a threshold.
+ */
+@Immutable
+public final class GravatarOutcomeStatistics {
+    /**
+     * The number of outcomes.
+     */
+    private final int count;
+
+    /**
+     * The number of outcomes which failed.
+     */
+    private final int failureCount;
+
+    /**
+     * The number of outcomes at least as slow as the slow call threshold.
+     */
+    private final int slowCount;
+
+    /**
+     * The mean latency of the outcomes.
+     */
+    private final Duration averageLatency;
+
+    /**
+     * Constructs a new GravatarOutcomeStatistics.
+     *
+     * @param count          the number of outcomes
+     * @param failureCount   the number of outcomes which failed
+     * @param slowCount      the number of outcomes at least as slow as the slow call threshold
+     * @param averageLatency the mean latency of the outcomes
+     * @throws NullPointerException if the provided latency is null
+     */
+    GravatarOutcomeStatistics(int count, int failureCount, int slowCount, Duration averageLatency) {
+        this.count = count;
+        this.failureCount = failureCount;
+        this.slowCount = slowCount;
+        this.averageLatency = Preconditions.checkNotNull(averageLatency);
+    }
+
+    /**
+     * Returns the number of outcomes.
+     *
+     * @return the number of outcomes
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the number of outcomes which failed.
+     *
+     * @return the number of outcomes which failed
+     */
+    public int getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * Returns the number of outcomes at least as slow as the slow call threshold.
+     *
+     * @return the number of slow outcomes
+     */
+    public int getSlowCount() {
+        return slowCount;
+    }
+
+    /**
+     * Returns the fraction of outcomes which failed, or zero if there are none.
+     *
+     * @return the fraction of outcomes which failed
+     */
+    public double getFailureRate() {
+        return count == 0 ? 0 : (double) failureCount / count;
+    }
+
+    /**
+     * Returns the fraction of outcomes at least as slow as the slow call threshold, or zero if there are none.
+     *
+     * @return the fraction of slow outcomes
+     */
+    public double getSlowCallRate() {
+        return count == 0 ? 0 : (double) slowCount / count;
+    }
+
+    /**
+     * Returns the mean latency of the outcomes, or zero if there are none.
+     *
+     * @return the mean latency of the outcomes
+     */
+    public Duration getAverageLatency() {
+        return averageLatency;
+    }
+
+    /**
+     * Returns whether the provided object is equal to this.
+     *
+     * @param o the other object
+     * @return whether the provided object is equal to this
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GravatarOutcomeStatistics other)) return false;
+        return count == other.count
+                && failureCount == other.failureCount
+                && slowCount == other.slowCount
+                && averageLatency.equals(other.averageLatency);
+    }
+
+    /**
+     * Returns a hashcode for this object.
+     *
+     * @return a hashcode for this object
+     */
+    @Override
+    public int hashCode() {
+        int ret = Integer.hashCode(count);
+        ret = 31 * ret + Integer.hashCode(failureCount);
+        ret = 31 * ret + Integer.hashCode(slowCount);
+        ret = 31 * ret + averageLatency.hashCode();
+        return ret;
+    }
+
+    /**
+     * Returns a string representation of this object.
+     *
+     * @return a string representation of this object
+     */
+    @Override
+    public String toString() {
+        return "GravatarOutcomeStatistics{"
+                + "count=" + count
+                + ", failureCount=" + failureCount
+                + ", slowCount=" + slowCount
+                + ", averageLatency=" + averageLatency
+                + "}";
+    }
+}
@@ -0,0 +1,258 @@
+package com.github.natche.gravatarjavaclient.resilience;
+
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfileRequestResult;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * A sliding window over the outcomes of the most recent requests: at most a maximum number of outcomes, none
+ * completed longer ago than a maximum age. Outcomes are held in a ring, so recording one is constant time and
+ * the oldest is overwritten once the window is full. It is safe for use by multiple threads.
+ */
+public final class GravatarRequestOutcomeHistory {
+    /**
+     * The default maximum number of outcomes.
+     */
+    public static final int DEFAULT_CAPACITY = 100;
+
+    /**
+     * The default maximum age of an outcome.
+     */
+    public static final Duration DEFAULT_MAX_AGE = Duration.ofMinutes(1);
+
+    /**
+     * The clock used to read the current instant.
+     */
+    private final Clock clock = Clock.systemUTC();
+
+    /**
+     * The outcomes, oldest first starting at {@link #head}.
+     */
+    private final GravatarProfileRequestResult[] ring;
+
+    /**
+     * The maximum age of an outcome.
+     */
+    private final Duration maxAge;
+
+    /**
+     * The index of the oldest outcome.
+     */
+    private int head;
+
+    /**
+     * The number of outcomes held.
+     */
+    private int size;
+
+    private GravatarRequestOutcomeHistory(int capacity, Duration maxAge) {
+        this.ring = new GravatarProfileRequestResult[capacity];
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Constructs a new history holding the last {@link #DEFAULT_CAPACITY} outcomes
+     * completed within {@link #DEFAULT_MAX_AGE}.
+     *
+     * @return a new history
+     */
+    public static GravatarRequestOutcomeHistory create() {
+        return create(DEFAULT_CAPACITY, DEFAULT_MAX_AGE);
+    }
+
+    /**
+     * Constructs a new history holding at most the provided number of outcomes, none completed longer ago
+     * than the provided maximum age.
+     *
+     * @param capacity the maximum number of outcomes
+     * @param maxAge   the maximum age of an outcome
+     * @return a new history
+     * @throws NullPointerException     if the provided maximum age is null
+     * @throws IllegalArgumentException if the capacity or maximum age is not positive
+     */
+    public static GravatarRequestOutcomeHistory create(int capacity, Duration maxAge) {
+        Preconditions.checkArgument(capacity > 0);
+        Preconditions.checkNotNull(maxAge);
+        Preconditions.checkArgument(!maxAge.isNegative() && !maxAge.isZero());
+
+        return new GravatarRequestOutcomeHistory(capacity, maxAge);
+    }
+
+    /**
+     * Returns the maximum number of outcomes.
+     *
+     * @return the maximum number of outcomes
+     */
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    /**
+     * Returns the maximum age of an outcome.
+     *
+     * @return the maximum age of an outcome
+     */
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    /**
+     * Records the provided outcome, overwriting the oldest if the window is full.
+     *
+     * @param result the outcome
+     * @throws NullPointerException if the provided outcome is null
+     */
+    public synchronized void record(GravatarProfileRequestResult result) {
+        Preconditions.checkNotNull(result);
+
+        if (size == ring.length) {
+            ring[head] = result;
+            head = (head + 1) % ring.length;
+        } else {
+            ring[(head + size) % ring.length] = result;
+            size++;
+        }
+    }
+
+    /**
+     * Returns the outcomes within the window, oldest first.
+     *
+     * @return the outcomes within the window
+     */
+    public ImmutableList<GravatarProfileRequestResult> getResults() {
+        return getResults(clock.instant());
+    }
+
+    /**
+     * Returns a summary of the outcomes within the window, counting those taking at least the provided
+     * threshold as slow.
+     *
+     * @param slowCallThreshold the latency at which a request is slow
+     * @return a summary of the outcomes
+     * @throws NullPointerException if the provided threshold is null
+     */
+    public GravatarOutcomeStatistics getStatistics(Duration slowCallThreshold) {
+        return getStatistics(slowCallThreshold, clock.instant());
+    }
+
+    /**
+     * Returns the provided percentile of the latencies of the successful outcomes within the window, or empty if
+     * there are fewer than the provided number of them.
+     *
+     * @param percentile     the percentile, greater than zero and at most one
+     * @param minimumSamples the number of successful outcomes required
+     * @return the percentile of the latencies, if there are enough successful outcomes
+     * @throws IllegalArgumentException if the provided percentile is not within (0, 1]
+     *                                  or the minimum number of samples is not positive
+     */
+    public Optional<Duration> getLatencyPercentile(double percentile, int minimumSamples) {
+        return getLatencyPercentile(percentile, minimumSamples, clock.instant());
+    }
+
+    /**
+     * Removes every outcome.
+     */
+    public synchronized void clear() {
+        Arrays.fill(ring, null);
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Returns the outcomes within the window at the provided instant, oldest first.
+     *
+     * @param now the current instant
+     * @return the outcomes within the window
+     */
+    synchronized ImmutableList<GravatarProfileRequestResult> getResults(Instant now) {
+        Preconditions.checkNotNull(now);
+
+        Instant cutoff = now.minus(maxAge);
+        ImmutableList.Builder<GravatarProfileRequestResult> results = ImmutableList.builderWithExpectedSize(size);
+        for (int i = 0; i < size; i++) {
+            GravatarProfileRequestResult result = ring[(head + i) % ring.length];
+            if (!result.getCompletionInstant().isBefore(cutoff)) results.add(result);
+        }
+        return results.build();
+    }
+
+    /**
+     * Returns a summary of the outcomes within the window at the provided instant.
+     *
+     * @param slowCallThreshold the latency at which a request is slow
+     * @param now               the current instant
+     * @return a summary of the outcomes
+     */
+    synchronized GravatarOutcomeStatistics getStatistics(Duration slowCallThreshold, Instant now) {
+        Preconditions.checkNotNull(slowCallThreshold);
+        Preconditions.checkNotNull(now);
+
+        Instant cutoff = now.minus(maxAge);
+        int count = 0;
+        int failureCount = 0;
+        int slowCount = 0;
+        Duration totalLatency = Duration.ZERO;
+        for (int i = 0; i < size; i++) {
+            GravatarProfileRequestResult result = ring[(head + i) % ring.length];
+            if (result.getCompletionInstant().isBefore(cutoff)) continue;
+
+            count++;
+            if (result.failed()) failureCount++;
+            if (result.getLatency().compareTo(slowCallThreshold) >= 0) slowCount++;
+            totalLatency = totalLatency.plus(result.getLatency());
+        }
+
+        Duration averageLatency = count == 0 ? Duration.ZERO : totalLatency.dividedBy(count);
+        return new GravatarOutcomeStatistics(count, failureCount, slowCount, averageLatency);
+    }
+
+    /**
+     * Returns the provided percentile of the latencies of the successful outcomes within the window at the
+     * provided instant, using the nearest rank.
+     *
+     * @param percentile     the percentile
+     * @param minimumSamples the number of successful outcomes required
+     * @param now            the current instant
+     * @return the percentile of the latencies, if there are enough successful outcomes
+     */
+    synchronized Optional<Duration> getLatencyPercentile(double percentile, int minimumSamples, Instant now) {
+        Preconditions.checkArgument(percentile > 0 && percentile <= 1);
+        Preconditions.checkArgument(minimumSamples > 0);
+        Preconditions.checkNotNull(now);
+
+        Instant cutoff = now.minus(maxAge);
+        long[] latencies = new long[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            GravatarProfileRequestResult result = ring[(head + i) % ring.length];
+            if (result.succeeded() && !result.getCompletionInstant().isBefore(cutoff)) {
+                latencies[count++] = result.getLatency().toNanos();
+            }
+        }
+        if (count < minimumSamples) return Optional.empty();
+
+        Arrays.sort(latencies, 0, count);
+        int rank = (int) Math.ceil(percentile * count);
+        return Optional.of(Duration.ofNanos(latencies[Math.max(rank, 1) - 1]));
+    }
+
+    /**
+     * Returns a string representation of this history.
+     *
+     * @return a string representation of this history
+     */
+    @Override
+    public synchronized String toString() {
+        return "GravatarRequestOutcomeHistory{"
+                + "size=" + size
+                + ", capacity=" + ring.length
+                + ", maxAge=" + maxAge
+                + "}";
+    }
+}
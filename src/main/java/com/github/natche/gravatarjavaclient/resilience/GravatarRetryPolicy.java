@@ -0,0 +1,387 @@
+package com.github.natche.gravatarjavaclient.resilience;
+
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Ints;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A policy for retrying requests which failed transiently, such as with a server error or a reset connection.
+ * <p>
+ * A failed attempt is retried if it is retryable, fewer than the maximum number of attempts have been made, and
+ * the retry budget allows it. Before each retry the caller waits a random delay between zero and an exponentially
+ * growing ceiling, so that callers which failed together do not retry together. The retry budget holds at most a
+ * maximum number of retries and every request adds a fraction of a retry to it, so that during an outage retries
+ * add at most that fraction to the traffic sent rather than multiplying it. Only idempotent requests, such as the
+ * GET requests this library sends, should be retried. It is safe for use by multiple threads.
+ */
+public final class GravatarRetryPolicy {
+    /**
+     * The default maximum number of attempts of a request, including the first.
+     */
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+    /**
+     * The default ceiling of the delay before the first retry.
+     */
+    public static final Duration DEFAULT_BASE_DELAY = Duration.ofMillis(100);
+
+    /**
+     * The default maximum ceiling of the delay before a retry.
+     */
+    public static final Duration DEFAULT_MAX_DELAY = Duration.ofSeconds(5);
+
+    /**
+     * The default fraction of a retry each request adds to the retry budget.
+     */
+    public static final double DEFAULT_RETRY_RATIO = 0.1;
+
+    /**
+     * The default maximum number of retries the retry budget holds.
+     */
+    public static final int DEFAULT_MAX_RETRY_TOKENS = 10;
+
+    /**
+     * The status codes retried by default.
+     */
+    public static final ImmutableSet<Integer> DEFAULT_RETRYABLE_STATUS_CODES = ImmutableSet.of(408, 500, 502, 503, 504);
+
+    /**
+     * The maximum number of attempts of a request, including the first.
+     */
+    private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+
+    /**
+     * The ceiling of the delay before the first retry.
+     */
+    private Duration baseDelay = DEFAULT_BASE_DELAY;
+
+    /**
+     * The maximum ceiling of the delay before a retry.
+     */
+    private Duration maxDelay = DEFAULT_MAX_DELAY;
+
+    /**
+     * The fraction of a retry each request adds to the retry budget.
+     */
+    private double retryRatio = DEFAULT_RETRY_RATIO;
+
+    /**
+     * The maximum number of retries the retry budget holds.
+     */
+    private int maxRetryTokens = DEFAULT_MAX_RETRY_TOKENS;
+
+    /**
+     * The status codes which are retried.
+     */
+    private ImmutableSet<Integer> retryableStatusCodes = DEFAULT_RETRYABLE_STATUS_CODES;
+
+    /**
+     * The number of retries the retry budget holds.
+     */
+    private double retryTokens = DEFAULT_MAX_RETRY_TOKENS;
+
+    /**
+     * The number of retries permitted.
+     */
+    private long retryCount;
+
+    /**
+     * The number of retryable failures not retried because the retry budget was exhausted.
+     */
+    private long exhaustedCount;
+
+    private GravatarRetryPolicy() {}
+
+    /**
+     * Constructs a new retry policy with the default attempts, backoff, budget, and retryable status codes.
+     *
+     * @return a new retry policy
+     */
+    public static GravatarRetryPolicy create() {
+        return new GravatarRetryPolicy();
+    }
+
+    /**
+     * Sets the maximum number of attempts of a request, including the first.
+     *
+     * @param maxAttempts the maximum number of attempts
+     * @return this retry policy
+     * @throws IllegalArgumentException if the provided number is not positive
+     */
+    @CanIgnoreReturnValue
+    public synchronized GravatarRetryPolicy setMaxAttempts(int maxAttempts) {
+        Preconditions.checkArgument(maxAttempts > 0);
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    /**
+     * Sets the ceiling of the delay before the first retry, which doubles with each further retry up to the
+     * provided maximum.
+     *
+     * @param baseDelay the ceiling of the delay before the first retry
+     * @param maxDelay  the maximum ceiling of the delay before a retry
+     * @return this retry policy
+     * @throws NullPointerException     if either provided delay is null
+     * @throws IllegalArgumentException if either provided delay is negative or the base exceeds the maximum
+     */
+    @CanIgnoreReturnValue
+    public synchronized GravatarRetryPolicy setBackoff(Duration baseDelay, Duration maxDelay) {
+        Preconditions.checkNotNull(baseDelay);
+        Preconditions.checkNotNull(maxDelay);
+        Preconditions.checkArgument(!baseDelay.isNegative());
+        Preconditions.checkArgument(baseDelay.compareTo(maxDelay) <= 0);
+
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        return this;
+    }
+
+    /**
+     * Sets the retry budget: the fraction of a retry each request adds to it and the maximum number of retries
+     * it holds. The budget is refilled to the new maximum.
+     *
+     * @param retryRatio     the fraction of a retry each request adds, at least zero
+     * @param maxRetryTokens the maximum number of retries held, at least zero
+     * @return this retry policy
+     * @throws IllegalArgumentException if either provided value is negative
+     */
+    @CanIgnoreReturnValue
+    public synchronized GravatarRetryPolicy setRetryBudget(double retryRatio, int maxRetryTokens) {
+        Preconditions.checkArgument(retryRatio >= 0);
+        Preconditions.checkArgument(maxRetryTokens >= 0);
+
+        this.retryRatio = retryRatio;
+        this.maxRetryTokens = maxRetryTokens;
+        this.retryTokens = maxRetryTokens;
+        return this;
+    }
+
+    /**
+     * Sets the HTTP status codes which are retried.
+     *
+     * @param statusCodes the status codes
+     * @return this retry policy
+     * @throws NullPointerException if the provided status codes are null
+     */
+    @CanIgnoreReturnValue
+    public synchronized GravatarRetryPolicy setRetryableStatusCodes(int... statusCodes) {
+        Preconditions.checkNotNull(statusCodes);
+        this.retryableStatusCodes = ImmutableSet.copyOf(Ints.asList(statusCodes));
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of attempts of a request, including the first.
+     *
+     * @return the maximum number of attempts
+     */
+    public synchronized int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Returns the HTTP status codes which are retried.
+     *
+     * @return the status codes which are retried
+     */
+    public synchronized ImmutableSet<Integer> getRetryableStatusCodes() {
+        return retryableStatusCodes;
+    }
+
+    /**
+     * Returns the number of retries the retry budget holds.
+     *
+     * @return the number of retries the retry budget holds
+     */
+    public synchronized double getAvailableRetries() {
+        return retryTokens;
+    }
+
+    /**
+     * Returns the number of retries this policy has permitted.
+     *
+     * @return the number of retries permitted
+     */
+    public synchronized long getRetryCount() {
+        return retryCount;
+    }
+
+    /**
+     * Returns the number of retryable failures not retried because the retry budget was exhausted.
+     *
+     * @return the number of failures not retried for lack of budget
+     */
+    public synchronized long getExhaustedCount() {
+        return exhaustedCount;
+    }
+
+    /**
+     * Returns whether a response with the provided status code is retryable.
+     *
+     * @param statusCode the HTTP status code
+     * @return whether the response is retryable
+     */
+    public synchronized boolean isRetryable(int statusCode) {
+        return retryableStatusCodes.contains(statusCode);
+    }
+
+    /**
+     * Returns whether the provided error is retryable. An error is retryable if it is or was caused by an
+     * {@link IOException}, such as a reset connection or a timeout, other than one showing the request itself
+     * to be wrong, such as a missing resource, a malformed URL, or an unknown host.
+     *
+     * @param error the error
+     * @return whether the error is retryable
+     * @throws NullPointerException if the provided error is null
+     */
+    public boolean isRetryable(Throwable error) {
+        Preconditions.checkNotNull(error);
+
+        boolean retryable = false;
+        for (Throwable cause = error; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof FileNotFoundException
+                    || cause instanceof MalformedURLException
+                    || cause instanceof UnknownHostException) {
+                return false;
+            }
+            if (cause instanceof IOException) retryable = true;
+        }
+        return retryable;
+    }
+
+    /**
+     * Records that a request is being sent for the first time, adding to the retry budget. Retries of the
+     * request must not be recorded.
+     */
+    public synchronized void recordRequest() {
+        retryTokens = Math.min(maxRetryTokens, retryTokens + retryRatio);
+    }
+
+    /**
+     * Returns the delay before retrying an attempt which received a response with the provided status code, or
+     * empty if it should not be retried. A returned delay draws a retry from the retry budget.
+     *
+     * @param attempt    the number of the attempt which failed, starting from one
+     * @param statusCode the HTTP status code of its response
+     * @return the delay before the retry, if it should be retried
+     * @throws IllegalArgumentException if the provided attempt is not positive
+     */
+    public Optional<Duration> getRetryDelay(int attempt, int statusCode) {
+        Preconditions.checkArgument(attempt > 0);
+        return isRetryable(statusCode) ? tryAcquireRetry(attempt) : Optional.empty();
+    }
+
+    /**
+     * Returns the delay before retrying an attempt which failed with the provided error, or empty if it should
+     * not be retried. A returned delay draws a retry from the retry budget.
+     *
+     * @param attempt the number of the attempt which failed, starting from one
+     * @param error   the error
+     * @return the delay before the retry, if it should be retried
+     * @throws NullPointerException     if the provided error is null
+     * @throws IllegalArgumentException if the provided attempt is not positive
+     */
+    public Optional<Duration> getRetryDelay(int attempt, Throwable error) {
+        Preconditions.checkArgument(attempt > 0);
+        return isRetryable(error) ? tryAcquireRetry(attempt) : Optional.empty();
+    }
+
+    /**
+     * Returns a random delay before the retry following the provided attempt, between zero and the base delay
+     * doubled for each earlier retry, at most the maximum delay.
+     *
+     * @param attempt the number of the attempt which failed, starting from one
+     * @return the delay before the retry
+     * @throws IllegalArgumentException if the provided attempt is not positive
+     */
+    public synchronized Duration getBackoff(int attempt) {
+        Preconditions.checkArgument(attempt > 0);
+
+        double ceiling = Math.min(maxDelay.toNanos(), baseDelay.toNanos() * Math.pow(2, attempt - 1));
+        return Duration.ofNanos(ThreadLocalRandom.current().nextLong((long) ceiling + 1));
+    }
+
+    /**
+     * Calls the provided request, retrying it while it throws a retryable error and this policy permits.
+     *
+     * @param request the request
+     * @param <T>     the type of the request's result
+     * @return the request's result
+     * @throws NullPointerException        if the provided request is null
+     * @throws GravatarJavaClientException wrapping a checked exception thrown by the last attempt, or if the
+     *                                     current thread is interrupted while waiting to retry
+     */
+    public <T> T execute(Callable<T> request) {
+        Preconditions.checkNotNull(request);
+        recordRequest();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return request.call();
+            } catch (Exception e) {
+                Optional<Duration> delay = getRetryDelay(attempt, e);
+                if (delay.isEmpty()) {
+                    if (e instanceof RuntimeException runtimeException) throw runtimeException;
+                    throw new GravatarJavaClientException(e);
+                }
+                sleep(delay.get());
+            }
+        }
+    }
+
+    /**
+     * Blocks for the provided delay before a retry, throwing if the current thread is interrupted.
+     */
+    private static void sleep(Duration delay) {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GravatarJavaClientException(e);
+        }
+    }
+
+    /**
+     * Draws a retry from the budget if the provided attempt was not the last, returning the delay before it.
+     */
+    private synchronized Optional<Duration> tryAcquireRetry(int attempt) {
+        if (attempt >= maxAttempts) return Optional.empty();
+        if (retryTokens < 1) {
+            exhaustedCount++;
+            return Optional.empty();
+        }
+
+        retryTokens--;
+        retryCount++;
+        return Optional.of(getBackoff(attempt));
+    }
+
+    /**
+     * Returns a string representation of this retry policy.
+     *
+     * @return a string representation of this retry policy
+     */
+    @Override
+    public synchronized String toString() {
+        return "GravatarRetryPolicy{"
+                + "maxAttempts=" + maxAttempts
+                + ", baseDelay=" + baseDelay
+                + ", maxDelay=" + maxDelay
+                + ", retryRatio=" + retryRatio
+                + ", maxRetryTokens=" + maxRetryTokens
+                + ", retryableStatusCodes=" + retryableStatusCodes
+                + "}";
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Classes for recording the outcomes of requests to the Gravatar APIs and failing fast while they are degraded.
+ */
+package com.github.natche.gravatarjavaclient.resilience;
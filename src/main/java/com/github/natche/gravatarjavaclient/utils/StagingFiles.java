@@ -0,0 +1,43 @@
+package com.github.natche.gravatarjavaclient.utils;
+
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Utilities for staging files, which are written in full before being moved over their target.
+ */
+public final class StagingFiles {
+    private StagingFiles() {}
+
+    /**
+     * Creates a new, empty staging file with a unique name in the provided directory. Unlike
+     * {@link Files#createTempFile(Path, String, String)}, which restricts the file to its owner, the file is created
+     * with the default permissions, so a file moved over its target is as readable as one written in place.
+     *
+     * @param directory the directory to create the file in
+     * @param prefix    the prefix of the file's name
+     * @param suffix    the suffix of the file's name
+     * @return the path of the new file
+     * @throws NullPointerException if any parameter is null
+     * @throws IOException          if the file cannot be created
+     */
+    public static Path create(Path directory, String prefix, String suffix) throws IOException {
+        Preconditions.checkNotNull(directory);
+        Preconditions.checkNotNull(prefix);
+        Preconditions.checkNotNull(suffix);
+
+        while (true) {
+            String name = prefix + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + suffix;
+            try {
+                return Files.createFile(directory.resolve(name));
+            } catch (FileAlreadyExistsException e) {
+                // Another file has the name, so another is drawn
+            }
+        }
+    }
+}
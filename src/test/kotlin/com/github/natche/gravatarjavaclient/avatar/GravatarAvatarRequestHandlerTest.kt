@@ -0,0 +1,60 @@
+package com.github.natche.gravatarjavaclient.avatar
+
+import com.github.natche.gravatarjavaclient.enums.GravatarEndpoint
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException
+import com.github.natche.gravatarjavaclient.resilience.GravatarEndpointMonitor
+import com.sun.net.httpserver.HttpServer
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.net.InetSocketAddress
+import java.time.Duration
+
+/**
+ * Tests for the [GravatarAvatarRequestHandler].
+ */
+class GravatarAvatarRequestHandlerTest {
+    /**
+     * Tests that client errors are thrown but recorded as successful requests, and server errors as failures.
+     */
+    @Test
+    fun testReadImageRecordsClientErrorsAsHealthy() {
+        val server = HttpServer.create(InetSocketAddress("127.0.0.1", 0), 0)
+        server.createContext("/") { exchange ->
+            exchange.sendResponseHeaders(exchange.requestURI.path.substring(1).toInt(), -1)
+            exchange.close()
+        }
+        server.start()
+
+        try {
+            val baseUrl = "http://127.0.0.1:${server.address.port}/"
+            val history = GravatarEndpointMonitor.INSTANCE.getHistory(GravatarEndpoint.QrCode)
+            val count = history.results.size
+            val failureCount = history.getStatistics(Duration.ofMinutes(1)).failureCount
+
+            val missing = assertThrows(GravatarJavaClientException::class.java) {
+                GravatarAvatarRequestHandler.INSTANCE.readImage(GravatarEndpoint.QrCode, baseUrl + "404")
+            }
+            assertEquals(baseUrl + "404", missing.message)
+            assertThrows(GravatarJavaClientException::class.java) {
+                GravatarAvatarRequestHandler.INSTANCE.readImage(GravatarEndpoint.QrCode, baseUrl + "410")
+            }
+            val badRequest = assertThrows(GravatarJavaClientException::class.java) {
+                GravatarAvatarRequestHandler.INSTANCE.readImage(GravatarEndpoint.QrCode, baseUrl + "400")
+            }
+            assertEquals("Server returned HTTP response code: 400 for URL: ${baseUrl}400", badRequest.message)
+            assertEquals(count + 3, history.results.size)
+            assertEquals(failureCount, history.getStatistics(Duration.ofMinutes(1)).failureCount)
+
+            assertThrows(GravatarJavaClientException::class.java) {
+                GravatarAvatarRequestHandler.INSTANCE.readImage(GravatarEndpoint.QrCode, baseUrl + "429")
+            }
+            assertThrows(GravatarJavaClientException::class.java) {
+                GravatarAvatarRequestHandler.INSTANCE.readImage(GravatarEndpoint.QrCode, baseUrl + "503")
+            }
+            assertEquals(count + 5, history.results.size)
+            assertEquals(failureCount + 2, history.getStatistics(Duration.ofMinutes(1)).failureCount)
+        } finally {
+            server.stop(0)
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.github.natche.gravatarjavaclient.avatar
 
+import com.github.natche.gravatarjavaclient.enums.GravatarPathSaveMode
 import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException
 import com.google.common.collect.ImmutableList
 import org.junit.jupiter.api.Assertions.*
@@ -7,7 +8,15 @@ import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import org.mockito.Mockito
 import java.awt.image.BufferedImage
+import java.io.ByteArrayOutputStream
 import java.io.File
+import java.io.OutputStream
+import java.nio.ByteBuffer
+import java.nio.channels.Channels
+import java.nio.channels.WritableByteChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.attribute.PosixFilePermissions
 
 /**
  * Tests for the [GravatarRequestImageSaver].
@@ -69,4 +78,120 @@ class GravatarAvatarRequestImageSaverTest {
             java.lang.IllegalArgumentException::class.java
         ) { GravatarRequestImageSaver.INSTANCE.saveTo(mockImage, File("invalid<>.png"), "") }
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests for the save to method accepting a path.
+     */
+    @Test
+    fun testSaveToPath() {
+        val image = BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB)
+        val directory = Files.createTempDirectory("saver_path_output")
+        val target = directory.resolve("image.png")
+
+        assertThrows(NullPointerException::class.java)
+        { GravatarRequestImageSaver.INSTANCE.saveTo(image, null as Path?, "png", GravatarPathSaveMode.Replace) }
+        assertThrows(NullPointerException::class.java)
+        { GravatarRequestImageSaver.INSTANCE.saveTo(image, target, "png", null) }
+        assertThrows(IllegalArgumentException::class.java)
+        { GravatarRequestImageSaver.INSTANCE.saveTo(image, directory, "png", GravatarPathSaveMode.Replace) }
+        assertThrows(IllegalArgumentException::class.java)
+        { GravatarRequestImageSaver.INSTANCE.saveTo(image, target, "notAFormat", GravatarPathSaveMode.Replace) }
+
+        assertTrue(GravatarRequestImageSaver.INSTANCE.saveTo(image, target, "png", GravatarPathSaveMode.CreateNew))
+        assertTrue(Files.size(target) > 0)
+        assertThrows(IllegalArgumentException::class.java)
+        { GravatarRequestImageSaver.INSTANCE.saveTo(image, target, "png", GravatarPathSaveMode.CreateNew) }
+        assertTrue(GravatarRequestImageSaver.INSTANCE.saveTo(image, target, "png", GravatarPathSaveMode.Replace))
+        assertTrue(GravatarRequestImageSaver.INSTANCE.saveTo(image, target, "png", GravatarPathSaveMode.AtomicReplace))
+
+        Files.newDirectoryStream(directory).use { entries ->
+            assertEquals(listOf(target), entries.toList())
+        }
+
+        Files.delete(target)
+        Files.delete(directory)
+    }
+
+    /**
+     * Tests that every save mode gives a new file the same permissions, and that an atomic replace keeps those
+     * of the file it replaces.
+     */
+    @Test
+    fun testSaveModePermissions() {
+        val directory = Files.createTempDirectory("saver_permissions_output")
+        if (!directory.fileSystem.supportedFileAttributeViews().contains("posix")) return
+
+        val image = BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB)
+        val permissions = GravatarPathSaveMode.values().map { mode ->
+            val target = directory.resolve("$mode.png")
+            assertTrue(GravatarRequestImageSaver.INSTANCE.saveTo(image, target, "png", mode))
+            Files.getPosixFilePermissions(target)
+        }
+        assertEquals(1, permissions.toSet().size, permissions.toString())
+
+        val target = directory.resolve("${GravatarPathSaveMode.AtomicReplace}.png")
+        val restricted = PosixFilePermissions.fromString("rw-r-----")
+        Files.setPosixFilePermissions(target, restricted)
+        assertTrue(GravatarRequestImageSaver.INSTANCE.saveTo(image, target, "png", GravatarPathSaveMode.AtomicReplace))
+        assertEquals(restricted, Files.getPosixFilePermissions(target))
+
+        Files.newDirectoryStream(directory).use { entries -> entries.forEach(Files::delete) }
+        Files.delete(directory)
+    }
+
+    /**
+     * Tests for the write to methods accepting an output stream or channel.
+     */
+    @Test
+    fun testWriteToStreamAndChannel() {
+        val image = BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB)
+
+        assertThrows(NullPointerException::class.java)
+        { GravatarRequestImageSaver.INSTANCE.writeTo(image, null as OutputStream?, "png") }
+        assertThrows(IllegalArgumentException::class.java)
+        { GravatarRequestImageSaver.INSTANCE.writeTo(image, ByteArrayOutputStream(), "notAFormat") }
+
+        val streamOut = ByteArrayOutputStream()
+        assertTrue(GravatarRequestImageSaver.INSTANCE.writeTo(image, streamOut, "png"))
+        assertTrue(streamOut.size() > 0)
+
+        val channelOut = ByteArrayOutputStream()
+        val channel = Channels.newChannel(channelOut)
+        assertThrows(NullPointerException::class.java)
+        { GravatarRequestImageSaver.INSTANCE.writeTo(image, null as WritableByteChannel?, "png") }
+        assertTrue(GravatarRequestImageSaver.INSTANCE.writeTo(image, channel, "png"))
+        assertTrue(channel.isOpen)
+        assertArrayEquals(streamOut.toByteArray(), channelOut.toByteArray())
+
+        channel.close()
+        assertThrows(IllegalArgumentException::class.java)
+        { GravatarRequestImageSaver.INSTANCE.writeTo(image, channel, "png") }
+    }
+
+    /**
+     * Tests for the write to method accepting a byte buffer and the to byte buffer method.
+     */
+    @Test
+    fun testWriteToByteBuffer() {
+        val image = BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB)
+
+        val encoded = GravatarRequestImageSaver.INSTANCE.toByteBuffer(image, "png")
+        assertTrue(encoded.isReadOnly)
+        assertTrue(encoded.remaining() > 0)
+
+        assertThrows(IllegalArgumentException::class.java)
+        { GravatarRequestImageSaver.INSTANCE.writeTo(image, encoded, "png") }
+
+        val tooSmall = ByteBuffer.allocate(4)
+        assertThrows(GravatarJavaClientException::class.java)
+        { GravatarRequestImageSaver.INSTANCE.writeTo(image, tooSmall, "png") }
+        assertEquals(0, tooSmall.position())
+
+        val direct = ByteBuffer.allocateDirect(encoded.remaining() + 8)
+        direct.position(8)
+        assertTrue(GravatarRequestImageSaver.INSTANCE.writeTo(image, direct, "png"))
+        assertEquals(encoded.remaining() + 8, direct.position())
+        direct.flip().position(8)
+        assertEquals(encoded, direct)
+    }
+}
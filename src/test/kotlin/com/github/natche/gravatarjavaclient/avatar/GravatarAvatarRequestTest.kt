@@ -9,7 +9,13 @@ import org.junit.jupiter.api.Assertions.*
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.extension.ExtendWith
 import org.mockito.junit.jupiter.MockitoExtension
+import java.io.ByteArrayOutputStream
 import java.io.File
+import java.io.OutputStream
+import java.nio.ByteBuffer
+import java.nio.channels.Channels
+import java.nio.file.Files
+import java.nio.file.Path
 import java.util.*
 
 /**
@@ -491,4 +497,69 @@ internal constructor() {
         }
         assertFalse(saveToOutput.exists())
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests for the save methods accepting a path.
+     */
+    @Test
+    fun testSaveToPath() {
+        val fromHash = GravatarAvatarRequest.fromHash("80c44e7f3f5082023ede351d396844f5")
+            .setDefaultImageType(GravatarDefaultImageType.Wavatar)
+            .setSize(200)
+        val directory = Files.createTempDirectory("save_to_path_output")
+        val png = directory.resolve("FromHash.png")
+        val jpg = directory.resolve("FromHash.jpg")
+
+        assertThrows(NullPointerException::class.java)
+        { fromHash.saveTo(null as Path?, "png", GravatarPathSaveMode.Replace) }
+        assertThrows(NullPointerException::class.java)
+        { fromHash.saveTo(png, null, GravatarPathSaveMode.Replace) }
+        assertThrows(NullPointerException::class.java)
+        { fromHash.saveTo(png, "png", null) }
+        assertThrows(IllegalArgumentException::class.java)
+        { fromHash.saveTo(png, " ", GravatarPathSaveMode.Replace) }
+        assertThrows(IllegalArgumentException::class.java)
+        { fromHash.saveTo(directory, "png", GravatarPathSaveMode.Replace) }
+
+        assertTrue(fromHash.saveAsPng(png, GravatarPathSaveMode.CreateNew))
+        assertTrue(isValidPng(png.toFile()))
+        assertTrue(fromHash.saveAsPng(png, GravatarPathSaveMode.AtomicReplace))
+        assertTrue(isValidPng(png.toFile()))
+        assertTrue(fromHash.saveAsJpg(jpg, GravatarPathSaveMode.Replace))
+        assertTrue(isValidJpg(jpg.toFile()))
+
+        Files.delete(png)
+        Files.delete(jpg)
+        Files.delete(directory)
+    }
+
+    /**
+     * Tests for the write to methods and the to byte buffer method.
+     */
+    @Test
+    fun testWriteTo() {
+        val fromHash = GravatarAvatarRequest.fromHash("80c44e7f3f5082023ede351d396844f5")
+            .setDefaultImageType(GravatarDefaultImageType.Wavatar)
+            .setSize(200)
+
+        assertThrows(NullPointerException::class.java) { fromHash.writeTo(null as OutputStream?, "png") }
+        assertThrows(IllegalArgumentException::class.java) { fromHash.writeTo(ByteArrayOutputStream(), "") }
+        assertThrows(NullPointerException::class.java) { fromHash.toByteBuffer(null) }
+
+        val streamOut = ByteArrayOutputStream()
+        assertTrue(fromHash.writeTo(streamOut, "png"))
+        assertTrue(streamOut.size() > 0)
+
+        val channelOut = ByteArrayOutputStream()
+        assertTrue(fromHash.writeTo(Channels.newChannel(channelOut), "png"))
+        assertTrue(channelOut.size() > 0)
+
+        val buffer = ByteBuffer.allocate(streamOut.size() * 2)
+        assertTrue(fromHash.writeTo(buffer, "png"))
+        assertTrue(buffer.position() > 0)
+
+        val encoded = fromHash.toByteBuffer("png")
+        assertTrue(encoded.isReadOnly)
+        assertTrue(encoded.hasRemaining())
+    }
+}
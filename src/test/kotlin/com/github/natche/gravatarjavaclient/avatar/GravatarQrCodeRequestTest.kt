@@ -1,12 +1,19 @@
 package com.github.natche.gravatarjavaclient.avatar
 
 import com.github.natche.gravatarjavaclient.ImagesForTests.Companion.isValidPng
+import com.github.natche.gravatarjavaclient.enums.GravatarPathSaveMode
 import com.github.natche.gravatarjavaclient.enums.GravatarQrImageType
 import com.github.natche.gravatarjavaclient.enums.GravatarQrImageVersion
 import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException
 import org.junit.jupiter.api.Assertions.*
 import org.junit.jupiter.api.Test
+import java.io.ByteArrayOutputStream
 import java.io.File
+import java.io.OutputStream
+import java.nio.ByteBuffer
+import java.nio.channels.Channels
+import java.nio.file.Files
+import java.nio.file.Path
 
 /**
  * Tests for [GravatarQrCodeRequest]s.
@@ -180,4 +187,59 @@ class GravatarQrCodeRequestTest {
         equal.version = GravatarQrImageVersion.Blank
         assertNotEquals(one, equal.setImageType(GravatarQrImageType.Gravatar))
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests for the save to method accepting a path.
+     */
+    @Test
+    fun testSaveToPath() {
+        val request = GravatarQrCodeRequest.fromHash(
+            "c83512d02db256cc5afb78376147ea0f2ea02e6a4e3399b980dea3bef9fc6168"
+        )
+        val directory = Files.createTempDirectory("qr_path_output")
+        val target = directory.resolve("output.png")
+
+        assertThrows(NullPointerException::class.java) { request.saveTo(null as Path?, GravatarPathSaveMode.Replace) }
+        assertThrows(NullPointerException::class.java) { request.saveTo(target, null) }
+        assertThrows(IllegalArgumentException::class.java)
+        { request.saveTo(directory, GravatarPathSaveMode.Replace) }
+
+        assertTrue(request.saveTo(target, GravatarPathSaveMode.CreateNew))
+        assertTrue(isValidPng(target.toFile()))
+        assertThrows(IllegalArgumentException::class.java)
+        { request.saveTo(target, GravatarPathSaveMode.CreateNew) }
+        assertTrue(request.saveTo(target, GravatarPathSaveMode.AtomicReplace))
+        assertTrue(isValidPng(target.toFile()))
+
+        Files.delete(target)
+        Files.delete(directory)
+    }
+
+    /**
+     * Tests for the write to methods and the to byte buffer method.
+     */
+    @Test
+    fun testWriteTo() {
+        val request = GravatarQrCodeRequest.fromHash(
+            "c83512d02db256cc5afb78376147ea0f2ea02e6a4e3399b980dea3bef9fc6168"
+        )
+
+        assertThrows(NullPointerException::class.java) { request.writeTo(null as OutputStream?) }
+
+        val streamOut = ByteArrayOutputStream()
+        assertTrue(request.writeTo(streamOut))
+        assertTrue(streamOut.size() > 0)
+
+        val channelOut = ByteArrayOutputStream()
+        assertTrue(request.writeTo(Channels.newChannel(channelOut)))
+        assertTrue(channelOut.size() > 0)
+
+        val buffer = ByteBuffer.allocate(streamOut.size() * 2)
+        assertTrue(request.writeTo(buffer))
+        assertTrue(buffer.position() > 0)
+
+        val encoded = request.toByteBuffer()
+        assertTrue(encoded.isReadOnly)
+        assertTrue(encoded.hasRemaining())
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.natche.gravatarjavaclient.avatar
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+
+/**
+ * Tests for [GravatarSpriteFrame]s.
+ */
+class GravatarSpriteFrameTest {
+    /**
+     * Tests for construction and the accessor methods.
+     */
+    @Test
+    fun testConstructionAndAccessors() {
+        assertThrows(NullPointerException::class.java) { GravatarSpriteFrame(0, null, 0, 0, 1) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarSpriteFrame(-1, "hash", 0, 0, 1) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarSpriteFrame(0, "hash", -1, 0, 1) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarSpriteFrame(0, "hash", 0, -1, 1) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarSpriteFrame(0, "hash", 0, 0, 0) }
+
+        val frame = GravatarSpriteFrame(3, "hash", 10, 20, 30)
+        assertEquals(3, frame.index)
+        assertEquals("hash", frame.hash)
+        assertEquals(10, frame.x)
+        assertEquals(20, frame.y)
+        assertEquals(30, frame.size)
+    }
+
+    /**
+     * Tests for the equals, hashCode, and toString methods.
+     */
+    @Test
+    fun testEqualsHashCodeAndToString() {
+        val one = GravatarSpriteFrame(3, "hash", 10, 20, 30)
+        val equal = GravatarSpriteFrame(3, "hash", 10, 20, 30)
+        val different = GravatarSpriteFrame(3, "other", 10, 20, 30)
+
+        assertEquals(one, one)
+        assertEquals(one, equal)
+        assertNotEquals(one, different)
+        assertNotEquals(one, Object())
+        assertEquals(one.hashCode(), equal.hashCode())
+        assertNotEquals(one.hashCode(), different.hashCode())
+        assertEquals("GravatarSpriteFrame{index=3, hash=\"hash\", x=10, y=20, size=30}", one.toString())
+    }
+}
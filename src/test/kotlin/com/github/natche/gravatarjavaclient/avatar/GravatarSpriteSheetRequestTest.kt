@@ -0,0 +1,216 @@
+package com.github.natche.gravatarjavaclient.avatar
+
+import com.google.gson.JsonParser
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.awt.Color
+import java.awt.image.BufferedImage
+import java.util.concurrent.Executor
+
+/**
+ * Tests for [GravatarSpriteSheetRequest]s and the [GravatarSpriteSheet]s they produce.
+ */
+@Suppress("SpellCheckingInspection")
+/* Hashes */
+class GravatarSpriteSheetRequestTest {
+    /**
+     * Tests for creation from a list of requests.
+     */
+    @Test
+    fun testCreation() {
+        assertThrows(NullPointerException::class.java) { GravatarSpriteSheetRequest.fromRequests(null) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarSpriteSheetRequest.fromRequests(listOf()) }
+        assertThrows(NullPointerException::class.java)
+        { GravatarSpriteSheetRequest.fromRequests(listOf(GravatarAvatarRequest.fromHash("one"), null)) }
+        assertThrows(IllegalArgumentException::class.java)
+        { GravatarSpriteSheetRequest.fromRequests(requests(GravatarSpriteSheetRequest.MAX_REQUESTS + 1)) }
+
+        val request = GravatarAvatarRequest.fromHash("one").setSize(40)
+        val sheetRequest = GravatarSpriteSheetRequest.fromRequests(listOf(request))
+        request.setSize(100)
+        assertEquals(40, sheetRequest.requests[0].size)
+        assertEquals(GravatarAvatarRequest.fromHash("one").setSize(40), sheetRequest.requests[0])
+    }
+
+    /**
+     * Tests for the accessor and mutator methods.
+     */
+    @Test
+    fun testAccessorsAndMutators() {
+        val sheetRequest = GravatarSpriteSheetRequest.fromRequests(requests(5))
+        assertEquals(3, sheetRequest.columns)
+        assertEquals(80, sheetRequest.cellSize)
+        assertEquals(0, sheetRequest.padding)
+        assertEquals(8, sheetRequest.concurrency)
+
+        assertThrows(IllegalArgumentException::class.java) { sheetRequest.setColumns(-1) }
+        assertThrows(IllegalArgumentException::class.java) { sheetRequest.setCellSize(-1) }
+        assertThrows(IllegalArgumentException::class.java) { sheetRequest.setCellSize(2049) }
+        assertThrows(IllegalArgumentException::class.java) { sheetRequest.setPadding(-1) }
+        assertThrows(IllegalArgumentException::class.java) { sheetRequest.setPadding(257) }
+        assertThrows(IllegalArgumentException::class.java) { sheetRequest.setConcurrency(0) }
+
+        sheetRequest.setColumns(10).setCellSize(32).setPadding(2).setConcurrency(2)
+        assertEquals(5, sheetRequest.columns)
+        assertEquals(32, sheetRequest.cellSize)
+        assertEquals(2, sheetRequest.padding)
+        assertEquals(2, sheetRequest.concurrency)
+
+        val mixedSizes = GravatarSpriteSheetRequest.fromRequests(
+            listOf(GravatarAvatarRequest.fromHash("one").setSize(20), GravatarAvatarRequest.fromHash("two"))
+        )
+        assertEquals(80, mixedSizes.cellSize)
+    }
+
+    /**
+     * Tests for the cache key.
+     */
+    @Test
+    fun testGetCacheKey() {
+        val one = GravatarSpriteSheetRequest.fromRequests(requests(4))
+        val equal = GravatarSpriteSheetRequest.fromRequests(requests(4)).setConcurrency(1)
+        assertEquals(64, one.cacheKey.length)
+        assertEquals(one.cacheKey, equal.cacheKey)
+
+        assertNotEquals(one.cacheKey, GravatarSpriteSheetRequest.fromRequests(requests(4).reversed()).cacheKey)
+        assertNotEquals(one.cacheKey, GravatarSpriteSheetRequest.fromRequests(requests(3)).cacheKey)
+        assertNotEquals(one.cacheKey, GravatarSpriteSheetRequest.fromRequests(requests(4)).setPadding(1).cacheKey)
+        assertNotEquals(one.cacheKey, GravatarSpriteSheetRequest.fromRequests(requests(4)).setColumns(4).cacheKey)
+    }
+
+    /**
+     * Tests for compositing images into a sheet.
+     */
+    @Test
+    fun testComposite() {
+        val sheetRequest = GravatarSpriteSheetRequest.fromRequests(requests(3)).setCellSize(10).setPadding(2)
+        val colors = listOf(Color.RED, Color.GREEN, Color.BLUE)
+        val sheet = sheetRequest.composite(listOf(solid(colors[0], 10), solid(colors[1], 20), solid(colors[2], 5)))
+
+        assertEquals(22, sheet.width)
+        assertEquals(22, sheet.height)
+        assertEquals(sheetRequest.cacheKey, sheet.cacheKey)
+        assertEquals(3, sheet.frames.size)
+        assertEquals(GravatarSpriteFrame(0, "hash0", 0, 0, 10), sheet.getFrame(0))
+        assertEquals(GravatarSpriteFrame(1, "hash1", 12, 0, 10), sheet.getFrame(1))
+        assertEquals(GravatarSpriteFrame(2, "hash2", 0, 12, 10), sheet.getFrame(2))
+
+        sheet.frames.forEach { frame ->
+            val color = colors[frame.index].rgb
+            assertEquals(color, sheet.image.getRGB(frame.x, frame.y))
+            assertEquals(color, sheet.image.getRGB(frame.x + frame.size - 1, frame.y + frame.size - 1))
+        }
+        assertEquals(0, sheet.image.getRGB(11, 0))
+        assertEquals(0, sheet.image.getRGB(12, 12))
+    }
+
+    /**
+     * Tests that a sheet with too many pixels is rejected before any avatar is fetched.
+     */
+    @Test
+    fun testSheetSizeLimit() {
+        val sheetRequest = GravatarSpriteSheetRequest.fromRequests(requests(100)).setCellSize(2048)
+        val failingExecutor = Executor { throw AssertionError("No avatar should be fetched") }
+        val exception = assertThrows(IllegalArgumentException::class.java)
+        { sheetRequest.getSpriteSheet(failingExecutor) }
+        assertEquals(
+            "The sprite sheet would be 20480 by 20480 pixels, more than the maximum of 67108864 pixels",
+            exception.message
+        )
+        assertThrows(IllegalArgumentException::class.java)
+        { sheetRequest.composite(List(100) { solid(Color.RED, 1) }) }
+        assertThrows(NullPointerException::class.java) { sheetRequest.getSpriteSheet(null) }
+
+        // The largest cells fit in a single row of four
+        val row = GravatarSpriteSheetRequest.fromRequests(requests(4)).setCellSize(2048).setColumns(4)
+        val sheet = row.composite(List(4) { solid(Color.RED, 1) })
+        assertEquals(8192, sheet.width)
+        assertEquals(2048, sheet.height)
+    }
+
+    /**
+     * Tests for the coordinate map.
+     */
+    @Test
+    fun testGetCoordinateMapJson() {
+        val sheetRequest = GravatarSpriteSheetRequest.fromRequests(requests(2)).setCellSize(10)
+        val sheet = sheetRequest.composite(listOf(solid(Color.RED, 10), solid(Color.BLUE, 10)))
+
+        val map = JsonParser.parseString(sheet.coordinateMapJson).asJsonObject
+        assertEquals(sheet.cacheKey, map.get("cacheKey").asString)
+        assertEquals(20, map.get("width").asInt)
+        assertEquals(10, map.get("height").asInt)
+        val frames = map.getAsJsonArray("frames")
+        assertEquals(2, frames.size())
+        assertEquals("hash1", frames[1].asJsonObject.get("hash").asString)
+        assertEquals(10, frames[1].asJsonObject.get("x").asInt)
+        assertEquals(0, frames[1].asJsonObject.get("y").asInt)
+        assertEquals(10, frames[1].asJsonObject.get("size").asInt)
+    }
+
+    /**
+     * Tests for fetching avatars into a sheet.
+     */
+    @Test
+    fun testGetSpriteSheet() {
+        val sheetRequest = GravatarSpriteSheetRequest.fromRequests(
+            listOf(
+                GravatarAvatarRequest.fromHash("80c44e7f3f5082023ede351d396844f5").setSize(40),
+                GravatarAvatarRequest.fromEmail("nathan.vincent.2.718@gmail.com").setSize(40),
+                GravatarAvatarRequest.fromEmail("valid.email@email.com").setSize(40),
+            )
+        )
+
+        val sheet = sheetRequest.spriteSheet
+        assertEquals(80, sheet.width)
+        assertEquals(80, sheet.height)
+        assertEquals(3, sheet.frames.size)
+        assertEquals(sheetRequest.cacheKey, sheet.cacheKey)
+    }
+
+    /**
+     * Tests for the equals, hashCode, and toString methods.
+     */
+    @Test
+    fun testEqualsHashCodeAndToString() {
+        val one = GravatarSpriteSheetRequest.fromRequests(requests(2))
+        val equal = GravatarSpriteSheetRequest.fromRequests(requests(2))
+        val different = GravatarSpriteSheetRequest.fromRequests(requests(2)).setPadding(4)
+
+        assertEquals(one, one)
+        assertEquals(one, equal)
+        assertNotEquals(one, different)
+        assertNotEquals(one, Object())
+        assertEquals(one.hashCode(), equal.hashCode())
+        assertNotEquals(one.hashCode(), different.hashCode())
+        assertEquals(
+            "GravatarSpriteSheetRequest{requestCount=2, columns=0, cellSize=0, padding=4, concurrency=8}",
+            different.toString()
+        )
+
+        val sheet = one.setCellSize(10).composite(listOf(solid(Color.RED, 10), solid(Color.BLUE, 10)))
+        assertEquals(
+            "GravatarSpriteSheet{width=20, height=10, frameCount=2, cacheKey=\"${one.cacheKey}\"}",
+            sheet.toString()
+        )
+    }
+
+    companion object {
+        /**
+         * Returns the provided number of avatar requests with distinct hashes.
+         */
+        private fun requests(count: Int) = (0 until count).map { GravatarAvatarRequest.fromHash("hash$it") }
+
+        /**
+         * Returns a square image of the provided size filled with the provided color.
+         */
+        private fun solid(color: Color, size: Int): BufferedImage {
+            val image = BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB)
+            val graphics = image.createGraphics()
+            graphics.color = color
+            graphics.fillRect(0, 0, size, size)
+            graphics.dispose()
+            return image
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.github.natche.gravatarjavaclient.avatar.cache
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+
+/**
+ * Tests for [GravatarOffHeapCacheStatistics].
+ */
+class GravatarOffHeapCacheStatisticsTest {
+    /**
+     * Tests for construction and the accessor methods.
+     */
+    @Test
+    fun testConstructionAndAccessors() {
+        assertThrows(IllegalArgumentException::class.java)
+        { GravatarOffHeapCacheStatistics(100, 100, 100, -1, 0, 0, 0, 0) }
+        assertThrows(IllegalArgumentException::class.java)
+        { GravatarOffHeapCacheStatistics(100, 100, 10, 20, 0, 0, 0, 0) }
+        assertThrows(IllegalArgumentException::class.java)
+        { GravatarOffHeapCacheStatistics(100, 10, 20, 20, 0, 0, 0, 0) }
+        assertThrows(IllegalArgumentException::class.java)
+        { GravatarOffHeapCacheStatistics(10, 20, 20, 20, 0, 0, 0, 0) }
+        assertThrows(IllegalArgumentException::class.java)
+        { GravatarOffHeapCacheStatistics(0, 0, 0, 0, -1, 0, 0, 0) }
+        assertThrows(IllegalArgumentException::class.java)
+        { GravatarOffHeapCacheStatistics(0, 0, 0, 0, 0, -1, 0, 0) }
+        assertThrows(IllegalArgumentException::class.java)
+        { GravatarOffHeapCacheStatistics(0, 0, 0, 0, 0, 0, -1, 0) }
+        assertThrows(IllegalArgumentException::class.java)
+        { GravatarOffHeapCacheStatistics(0, 0, 0, 0, 0, 0, 0, -1) }
+
+        val statistics = GravatarOffHeapCacheStatistics(4096, 2048, 1024, 768, 4, 3, 1, 2)
+        assertEquals(4096, statistics.capacityBytes)
+        assertEquals(2048, statistics.reservedBytes)
+        assertEquals(1024, statistics.chunkBytes)
+        assertEquals(768, statistics.storedBytes)
+        assertEquals(4, statistics.entryCount)
+        assertEquals(3, statistics.hitCount)
+        assertEquals(1, statistics.missCount)
+        assertEquals(2, statistics.evictionCount)
+        assertEquals(0.75, statistics.hitRate)
+        assertEquals(0.25, statistics.internalFragmentation)
+        assertEquals(0.5, statistics.externalFragmentation)
+
+        val empty = GravatarOffHeapCacheStatistics(4096, 0, 0, 0, 0, 0, 0, 0)
+        assertEquals(0.0, empty.hitRate)
+        assertEquals(0.0, empty.internalFragmentation)
+        assertEquals(0.0, empty.externalFragmentation)
+    }
+
+    /**
+     * Tests for the equals, hashCode, and toString methods.
+     */
+    @Test
+    fun testEqualsHashCodeAndToString() {
+        val one = GravatarOffHeapCacheStatistics(4096, 2048, 1024, 768, 4, 3, 1, 2)
+        val equal = GravatarOffHeapCacheStatistics(4096, 2048, 1024, 768, 4, 3, 1, 2)
+        val different = GravatarOffHeapCacheStatistics(4096, 2048, 1024, 768, 4, 3, 1, 3)
+
+        assertEquals(one, one)
+        assertEquals(one, equal)
+        assertNotEquals(one, different)
+        assertNotEquals(one, Object())
+        assertEquals(one.hashCode(), equal.hashCode())
+        assertNotEquals(one.hashCode(), different.hashCode())
+        assertEquals(
+            "GravatarOffHeapCacheStatistics{capacityBytes=4096, reservedBytes=2048, chunkBytes=1024,"
+                    + " storedBytes=768, entryCount=4, hitCount=3, missCount=1, evictionCount=2}",
+            one.toString()
+        )
+    }
+}
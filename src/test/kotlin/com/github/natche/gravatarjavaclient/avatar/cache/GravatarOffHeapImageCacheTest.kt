@@ -0,0 +1,226 @@
+package com.github.natche.gravatarjavaclient.avatar.cache
+
+import com.github.natche.gravatarjavaclient.avatar.GravatarAvatarRequest
+import com.github.natche.gravatarjavaclient.avatar.GravatarQrCodeRequest
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.nio.ByteBuffer
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Tests for the [GravatarOffHeapImageCache].
+ */
+class GravatarOffHeapImageCacheTest {
+    /**
+     * Tests for creating caches.
+     */
+    @Test
+    fun testCreate() {
+        assertThrows(IllegalArgumentException::class.java) { GravatarOffHeapImageCache.create(1024, 255) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarOffHeapImageCache.create(1023, 1024) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarOffHeapImageCache.create(1024) }
+
+        val cache = GravatarOffHeapImageCache.create(1L shl 24)
+        assertEquals(1L shl 24, cache.capacityBytes)
+        assertEquals(GravatarOffHeapImageCache.DEFAULT_SLAB_SIZE, cache.slabSize)
+        assertEquals(GravatarOffHeapCacheStatistics(1L shl 24, 0, 0, 0, 0, 0, 0, 0), cache.statistics)
+    }
+
+    /**
+     * Tests for the keys of requests.
+     */
+    @Test
+    fun testKeyOf() {
+        val request = GravatarAvatarRequest.fromHash("hash")
+        assertThrows(NullPointerException::class.java) { GravatarOffHeapImageCache.keyOf(null, "png") }
+        assertThrows(NullPointerException::class.java) { GravatarOffHeapImageCache.keyOf(request, null) }
+        assertEquals(request.requestUrl + "#png", GravatarOffHeapImageCache.keyOf(request, "PNG"))
+
+        val qrRequest = GravatarQrCodeRequest.fromHash("hash")
+        assertThrows(NullPointerException::class.java)
+        { GravatarOffHeapImageCache.keyOf(null as GravatarQrCodeRequest?) }
+        assertEquals(qrRequest.requestUrl, GravatarOffHeapImageCache.keyOf(qrRequest))
+    }
+
+    /**
+     * Tests for putting and getting images.
+     */
+    @Test
+    fun testPutAndGet() {
+        val cache = GravatarOffHeapImageCache.create(8192, 1024)
+        assertThrows(NullPointerException::class.java) { cache.put(null, bytes(1)) }
+        assertThrows(NullPointerException::class.java) { cache.put("key", null) }
+        assertThrows(IllegalArgumentException::class.java) { cache.put("", bytes(1)) }
+        assertThrows(NullPointerException::class.java) { cache.get(null) }
+
+        val image = bytes(1, 2, 3)
+        assertTrue(cache.put("one", image))
+        assertEquals(0, image.position())
+        assertTrue(cache.put("empty", bytes()))
+        assertFalse(cache.put("large", ByteBuffer.allocate(1025)))
+
+        assertEquals(bytes(1, 2, 3), cache.get("one").get())
+        assertEquals(bytes(), cache.get("empty").get())
+        assertTrue(cache.get("large").isEmpty)
+        assertTrue(cache.contains("one"))
+        assertFalse(cache.contains("large"))
+
+        val target = ByteBuffer.allocateDirect(8)
+        target.put(9)
+        assertTrue(cache.get("one", target))
+        assertEquals(4, target.position())
+        assertEquals(bytes(9, 1, 2, 3), target.flip())
+        assertFalse(cache.get("missing", ByteBuffer.allocate(8)))
+        assertThrows(IllegalArgumentException::class.java)
+        { cache.get("one", ByteBuffer.allocate(8).asReadOnlyBuffer()) }
+        assertThrows(GravatarJavaClientException::class.java) { cache.get("one", ByteBuffer.allocate(2)) }
+
+        assertTrue(cache.put("one", ByteBuffer.allocate(600)))
+        assertEquals(600, cache.get("one").get().remaining())
+        assertEquals(2, cache.statistics.entryCount)
+        assertEquals(600, cache.statistics.storedBytes)
+    }
+
+    /**
+     * Tests for least recently used eviction within a size class.
+     */
+    @Test
+    fun testEviction() {
+        val cache = GravatarOffHeapImageCache.create(1024, 1024)
+        for (key in listOf("a", "b", "c", "d")) assertTrue(cache.put(key, ByteBuffer.allocate(200)))
+        assertTrue(cache.get("a").isPresent)
+
+        assertTrue(cache.put("e", ByteBuffer.allocate(200)))
+        assertFalse(cache.contains("b"))
+        assertTrue(cache.contains("a"))
+        assertTrue(cache.contains("e"))
+        assertEquals(1, cache.statistics.evictionCount)
+
+        assertTrue(cache.remove("a"))
+        assertFalse(cache.remove("a"))
+        assertTrue(cache.put("f", ByteBuffer.allocate(200)))
+        assertEquals(1, cache.statistics.evictionCount)
+    }
+
+    /**
+     * Tests that a size class with no slab reclaims the least recently used slab of another once the capacity
+     * has been reached.
+     */
+    @Test
+    fun testSlabReclamation() {
+        val cache = GravatarOffHeapImageCache.create(2048, 1024)
+        val small = listOf("a", "b", "c", "d", "e", "f", "g", "h")
+        small.forEach { key -> assertTrue(cache.put(key, ByteBuffer.allocate(200))) }
+        assertTrue(cache.get("a").isPresent)
+        assertEquals(2048, cache.statistics.reservedBytes)
+
+        val large = ByteBuffer.wrap(ByteArray(900) { it.toByte() })
+        assertTrue(cache.put("large", large))
+        assertEquals(large, cache.get("large").get())
+        assertTrue(small.take(4).all(cache::contains))
+        assertTrue(small.drop(4).none(cache::contains))
+        assertEquals(4, cache.statistics.evictionCount)
+        assertEquals(2048, cache.statistics.reservedBytes)
+
+        // The class which lost its slab still evicts within the slab it kept
+        assertTrue(cache.put("i", ByteBuffer.allocate(200)))
+        assertFalse(cache.contains("b"))
+        assertTrue(cache.contains("large"))
+
+        // A single slab serves whichever class needs it
+        val single = GravatarOffHeapImageCache.create(1024, 1024)
+        assertTrue(single.put("small", ByteBuffer.allocate(200)))
+        assertTrue(single.put("large", ByteBuffer.allocate(900)))
+        assertFalse(single.contains("small"))
+        assertTrue(single.put("small", ByteBuffer.allocate(200)))
+        assertFalse(single.contains("large"))
+        assertEquals(1024, single.statistics.reservedBytes)
+    }
+
+    /**
+     * Tests for the statistics of a cache and clearing it.
+     */
+    @Test
+    fun testStatisticsAndClear() {
+        val cache = GravatarOffHeapImageCache.create(4096, 1024)
+        cache.put("one", ByteBuffer.allocate(128))
+        cache.put("two", ByteBuffer.allocate(256))
+        cache.get("one")
+        cache.get("missing")
+
+        val statistics = cache.statistics
+        assertEquals(4096, statistics.capacityBytes)
+        assertEquals(1024, statistics.reservedBytes)
+        assertEquals(512, statistics.chunkBytes)
+        assertEquals(384, statistics.storedBytes)
+        assertEquals(2, statistics.entryCount)
+        assertEquals(1, statistics.hitCount)
+        assertEquals(1, statistics.missCount)
+        assertEquals(0.25, statistics.internalFragmentation, 1e-9)
+        assertEquals(0.5, statistics.externalFragmentation, 1e-9)
+
+        cache.clear()
+        assertFalse(cache.contains("one"))
+        assertEquals(0, cache.statistics.reservedBytes)
+        assertEquals(0, cache.statistics.entryCount)
+        assertTrue(cache.put("one", bytes(1)))
+        assertEquals(bytes(1), cache.get("one").get())
+    }
+
+    /**
+     * Tests for concurrent use of a cache.
+     */
+    @Test
+    fun testConcurrentUse() {
+        val cache = GravatarOffHeapImageCache.create(16384, 1024)
+        val executor = Executors.newFixedThreadPool(8)
+        val failures = AtomicInteger()
+        repeat(8) { thread ->
+            executor.submit {
+                for (i in 0 until 5000) {
+                    val key = "key-${(i * 31 + thread) % 200}"
+                    val length = 1 + key.hashCode().mod(900)
+                    val fill = key.hashCode().toByte()
+                    if (i % 3 == 0) {
+                        cache.put(key, ByteBuffer.wrap(ByteArray(length) { fill }))
+                    } else {
+                        cache.get(key).ifPresent { image ->
+                            if (image.remaining() != length || (0 until length).any { image.get(it) != fill }) {
+                                failures.incrementAndGet()
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        executor.shutdown()
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS))
+
+        assertEquals(0, failures.get())
+        val statistics = cache.statistics
+        assertTrue(statistics.reservedBytes <= 16384)
+        assertTrue(statistics.entryCount <= 200)
+    }
+
+    /**
+     * Tests for the toString method.
+     */
+    @Test
+    fun testToString() {
+        val cache = GravatarOffHeapImageCache.create(2048, 1024)
+        assertEquals(
+            "GravatarOffHeapImageCache{capacityBytes=2048, slabSize=1024, sizeClassCount=8}",
+            cache.toString()
+        )
+    }
+
+    companion object {
+        /**
+         * Returns a buffer containing the provided bytes.
+         */
+        private fun bytes(vararg values: Int): ByteBuffer = ByteBuffer.wrap(values.map { it.toByte() }.toByteArray())
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Tests for in-memory image caches.
+ */
+package com.github.natche.gravatarjavaclient.avatar.cache;
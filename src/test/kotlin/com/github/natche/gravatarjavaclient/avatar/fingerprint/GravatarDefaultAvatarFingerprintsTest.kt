@@ -0,0 +1,96 @@
+package com.github.natche.gravatarjavaclient.avatar.fingerprint
+
+import com.github.natche.gravatarjavaclient.avatar.GravatarAvatarRequest
+import com.github.natche.gravatarjavaclient.enums.GravatarDefaultImageType
+import com.github.natche.gravatarjavaclient.enums.GravatarPerceptualHashAlgorithm
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+
+/**
+ * Tests for the [GravatarDefaultAvatarFingerprints].
+ */
+@Suppress("SpellCheckingInspection")
+/* Hashes */
+class GravatarDefaultAvatarFingerprintsTest {
+    /**
+     * Tests for the validation of arguments.
+     */
+    @Test
+    fun testValidation() {
+        val fingerprints = GravatarDefaultAvatarFingerprints.INSTANCE
+        val hash = GravatarPerceptualHash(GravatarPerceptualHashAlgorithm.Dct, 0)
+        assertThrows(NullPointerException::class.java)
+        { fingerprints.getFingerprint(null, GravatarPerceptualHashAlgorithm.Dct) }
+        assertThrows(NullPointerException::class.java)
+        { fingerprints.getFingerprint(GravatarDefaultImageType.Blank, null) }
+        assertThrows(IllegalArgumentException::class.java)
+        { fingerprints.getFingerprint(GravatarDefaultImageType._404, GravatarPerceptualHashAlgorithm.Dct) }
+        assertThrows(NullPointerException::class.java) { fingerprints.getFingerprints(null) }
+        assertThrows(NullPointerException::class.java) { fingerprints.matchHashInvariantDefault(null, 1) }
+        assertThrows(IllegalArgumentException::class.java) { fingerprints.matchHashInvariantDefault(hash, 65) }
+
+        val request = GravatarAvatarRequest.fromHash("80c44e7f3f5082023ede351d396844f5")
+        assertThrows(NullPointerException::class.java)
+        { fingerprints.isDefaultAvatar(null, GravatarPerceptualHashAlgorithm.Dct, 1) }
+        assertThrows(NullPointerException::class.java) { fingerprints.isDefaultAvatar(request, null, 1) }
+        assertThrows(IllegalArgumentException::class.java)
+        { fingerprints.isDefaultAvatar(request, GravatarPerceptualHashAlgorithm.Dct, -1) }
+    }
+
+    /**
+     * Tests for fetching the fingerprints of the default image types.
+     */
+    @Test
+    fun testGetFingerprints() {
+        val fingerprints = GravatarDefaultAvatarFingerprints.INSTANCE.getFingerprints(GravatarPerceptualHashAlgorithm.Dct)
+        assertEquals(GravatarDefaultImageType.values().size - 1, fingerprints.size)
+        assertFalse(fingerprints.containsKey(GravatarDefaultImageType._404))
+        assertSame(
+            fingerprints[GravatarDefaultImageType.MysteryPerson],
+            GravatarDefaultAvatarFingerprints.INSTANCE.getFingerprint(
+                GravatarDefaultImageType.MysteryPerson, GravatarPerceptualHashAlgorithm.Dct
+            )
+        )
+
+        val mysteryPerson = GravatarPerceptualHasher.INSTANCE.hash(
+            GravatarAvatarRequest.fromHash("ffffffffffffffffffffffffffffffff")
+                .setSize(200)
+                .setDefaultImageType(GravatarDefaultImageType.MysteryPerson),
+            GravatarPerceptualHashAlgorithm.Dct
+        )
+        assertEquals(
+            GravatarDefaultImageType.MysteryPerson,
+            GravatarDefaultAvatarFingerprints.INSTANCE.matchHashInvariantDefault(
+                mysteryPerson, GravatarDefaultAvatarFingerprints.DEFAULT_MAX_DISTANCE
+            ).get()
+        )
+    }
+
+    /**
+     * Tests for recognizing default avatars.
+     */
+    @Test
+    fun testIsDefaultAvatar() {
+        val fingerprints = GravatarDefaultAvatarFingerprints.INSTANCE
+        val maxDistance = GravatarDefaultAvatarFingerprints.DEFAULT_MAX_DISTANCE
+
+        val withoutAvatar = GravatarAvatarRequest.fromHash("ffffffffffffffffffffffffffffffff")
+        assertTrue(fingerprints.isDefaultAvatar(withoutAvatar, GravatarPerceptualHashAlgorithm.Dct, maxDistance))
+        assertTrue(fingerprints.isDefaultAvatar(
+            withoutAvatar.setDefaultImageType(GravatarDefaultImageType.MysteryPerson),
+            GravatarPerceptualHashAlgorithm.Difference, maxDistance
+        ))
+
+        assertTrue(fingerprints.isDefaultAvatar(
+            withoutAvatar.setDefaultImageType(GravatarDefaultImageType._404),
+            GravatarPerceptualHashAlgorithm.Dct, maxDistance
+        ))
+
+        val withAvatar = GravatarAvatarRequest.fromHash("80c44e7f3f5082023ede351d396844f5")
+        assertFalse(fingerprints.isDefaultAvatar(withAvatar, GravatarPerceptualHashAlgorithm.Dct, maxDistance))
+        assertFalse(fingerprints.isDefaultAvatar(
+            withAvatar.setDefaultImageType(GravatarDefaultImageType.MysteryPerson),
+            GravatarPerceptualHashAlgorithm.Difference, maxDistance
+        ))
+    }
+}
@@ -0,0 +1,116 @@
+package com.github.natche.gravatarjavaclient.avatar.fingerprint
+
+import com.github.natche.gravatarjavaclient.enums.GravatarPerceptualHashAlgorithm
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import kotlin.random.Random
+
+/**
+ * Tests for [GravatarPerceptualHashIndex]es and the [GravatarPerceptualHashMatch]es they return.
+ */
+class GravatarPerceptualHashIndexTest {
+    /**
+     * Tests for the validation of arguments.
+     */
+    @Test
+    fun testValidation() {
+        assertThrows(NullPointerException::class.java) { GravatarPerceptualHashIndex.create<String>(null) }
+
+        val index = GravatarPerceptualHashIndex.create<String>(GravatarPerceptualHashAlgorithm.Dct)
+        val hash = GravatarPerceptualHash(GravatarPerceptualHashAlgorithm.Dct, 1)
+        val otherAlgorithm = GravatarPerceptualHash(GravatarPerceptualHashAlgorithm.Difference, 1)
+        assertThrows(NullPointerException::class.java) { index.add(null, "value") }
+        assertThrows(NullPointerException::class.java) { index.add(hash, null) }
+        assertThrows(IllegalArgumentException::class.java) { index.add(otherAlgorithm, "value") }
+        assertThrows(NullPointerException::class.java) { index.findWithin(null, 1) }
+        assertThrows(IllegalArgumentException::class.java) { index.findWithin(otherAlgorithm, 1) }
+        assertThrows(IllegalArgumentException::class.java) { index.findWithin(hash, -1) }
+        assertThrows(IllegalArgumentException::class.java) { index.findWithin(hash, 65) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarPerceptualHashMatch("value", hash, 65) }
+    }
+
+    /**
+     * Tests for finding entries in a small index.
+     */
+    @Test
+    fun testFindWithin() {
+        val index = GravatarPerceptualHashIndex.create<String>(GravatarPerceptualHashAlgorithm.Dct)
+        assertEquals(GravatarPerceptualHashAlgorithm.Dct, index.algorithm)
+        assertTrue(index.findWithin(dct(0), 64).isEmpty())
+        assertTrue(index.findNearest(dct(0), 64).isEmpty)
+
+        index.add(dct(0b111), "three")
+        index.add(dct(0b1), "one")
+        index.add(dct(0), "zero")
+        index.add(dct(0b1), "also one")
+        assertEquals(4, index.size())
+
+        val matches = index.findWithin(dct(0), 1)
+        assertEquals(listOf("zero", "one", "also one"), matches.map { it.value })
+        assertEquals(listOf(0, 1, 1), matches.map { it.distance })
+        assertEquals(dct(0b1), matches[1].hash)
+        assertEquals("zero", index.findNearest(dct(0b10), 64).get().value)
+        assertEquals("three", index.findNearest(dct(0b11), 64).get().value)
+        assertEquals("one", index.findNearest(dct(0b1001), 64).get().value)
+        assertEquals(4, index.findWithin(dct(-1), 64).size)
+        assertTrue(index.findWithin(dct(-1), 60).isEmpty())
+        assertEquals("GravatarPerceptualHashIndex{algorithm=Dct, size=4}", index.toString())
+    }
+
+    /**
+     * Tests that probing a large index finds exactly the entries a scan would.
+     */
+    @Test
+    fun testFindWithinMatchesScan() {
+        val random = Random(7)
+        val index = GravatarPerceptualHashIndex.create<Int>(GravatarPerceptualHashAlgorithm.Dct)
+        val hashes = LongArray(20_000) { random.nextLong() }
+        val base = hashes[0]
+        for (i in 1 until 2_000) hashes[i] = base xor flips(random, random.nextInt(20))
+        hashes.forEachIndexed { i, bits -> index.add(dct(bits), i) }
+        assertEquals(hashes.size, index.size())
+
+        for (maxDistance in listOf(0, 3, 4, 8, 11, 15, 16, 30)) {
+            for (query in listOf(base, base xor flips(random, 2), hashes[12_345], random.nextLong())) {
+                val expected = hashes.indices
+                    .filter { java.lang.Long.bitCount(hashes[it] xor query) <= maxDistance }
+                    .sortedWith(compareBy({ java.lang.Long.bitCount(hashes[it] xor query) }, { it }))
+                assertEquals(expected, index.findWithin(dct(query), maxDistance).map { it.value }, "d=$maxDistance")
+            }
+        }
+    }
+
+    /**
+     * Tests for the equals, hashCode, and toString methods of matches.
+     */
+    @Test
+    fun testMatchEqualsHashCodeAndToString() {
+        val one = GravatarPerceptualHashMatch("user", dct(0xF), 2)
+        val equal = GravatarPerceptualHashMatch("user", dct(0xF), 2)
+        val different = GravatarPerceptualHashMatch("user", dct(0xF), 3)
+
+        assertEquals(one, one)
+        assertEquals(one, equal)
+        assertNotEquals(one, different)
+        assertNotEquals(one, Object())
+        assertEquals(one.hashCode(), equal.hashCode())
+        assertNotEquals(one.hashCode(), different.hashCode())
+        assertEquals("GravatarPerceptualHashMatch{value=user, hash=\"000000000000000f\", distance=2}", one.toString())
+    }
+
+    companion object {
+        /**
+         * Returns a DCT hash of the provided bits.
+         */
+        private fun dct(bits: Long) = GravatarPerceptualHash(GravatarPerceptualHashAlgorithm.Dct, bits)
+
+        /**
+         * Returns a mask of the provided number of distinct random bits.
+         */
+        private fun flips(random: Random, count: Int): Long {
+            var mask = 0L
+            while (java.lang.Long.bitCount(mask) < count) mask = mask or (1L shl random.nextInt(64))
+            return mask
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.natche.gravatarjavaclient.avatar.fingerprint
+
+import com.github.natche.gravatarjavaclient.enums.GravatarPerceptualHashAlgorithm
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+
+/**
+ * Tests for [GravatarPerceptualHash]es.
+ */
+class GravatarPerceptualHashTest {
+    /**
+     * Tests for construction, parsing, and the accessor methods.
+     */
+    @Test
+    fun testConstructionAndAccessors() {
+        assertThrows(NullPointerException::class.java) { GravatarPerceptualHash(null, 0) }
+        assertThrows(NullPointerException::class.java)
+        { GravatarPerceptualHash.fromHexString(null, "0000000000000000") }
+        assertThrows(NullPointerException::class.java)
+        { GravatarPerceptualHash.fromHexString(GravatarPerceptualHashAlgorithm.Dct, null) }
+        assertThrows(IllegalArgumentException::class.java)
+        { GravatarPerceptualHash.fromHexString(GravatarPerceptualHashAlgorithm.Dct, "00") }
+        assertThrows(IllegalArgumentException::class.java)
+        { GravatarPerceptualHash.fromHexString(GravatarPerceptualHashAlgorithm.Dct, "000000000000000g") }
+
+        val hash = GravatarPerceptualHash(GravatarPerceptualHashAlgorithm.Difference, -2L)
+        assertEquals(GravatarPerceptualHashAlgorithm.Difference, hash.algorithm)
+        assertEquals(-2L, hash.bits)
+        assertEquals("fffffffffffffffe", hash.toHexString())
+        assertEquals(hash, GravatarPerceptualHash.fromHexString(hash.algorithm, hash.toHexString()))
+        assertEquals("000000000000000f", GravatarPerceptualHash(hash.algorithm, 15).toHexString())
+    }
+
+    /**
+     * Tests for the Hamming distance between hashes.
+     */
+    @Test
+    fun testDistanceTo() {
+        val zero = GravatarPerceptualHash(GravatarPerceptualHashAlgorithm.Dct, 0)
+        assertEquals(0, zero.distanceTo(zero))
+        assertEquals(3, zero.distanceTo(GravatarPerceptualHash(GravatarPerceptualHashAlgorithm.Dct, 0b1011)))
+        assertEquals(64, zero.distanceTo(GravatarPerceptualHash(GravatarPerceptualHashAlgorithm.Dct, -1)))
+        assertThrows(NullPointerException::class.java) { zero.distanceTo(null) }
+        assertThrows(IllegalArgumentException::class.java)
+        { zero.distanceTo(GravatarPerceptualHash(GravatarPerceptualHashAlgorithm.Difference, 0)) }
+    }
+
+    /**
+     * Tests for the equals, hashCode, and toString methods.
+     */
+    @Test
+    fun testEqualsHashCodeAndToString() {
+        val one = GravatarPerceptualHash(GravatarPerceptualHashAlgorithm.Dct, 0xABC)
+        val equal = GravatarPerceptualHash(GravatarPerceptualHashAlgorithm.Dct, 0xABC)
+        val different = GravatarPerceptualHash(GravatarPerceptualHashAlgorithm.Difference, 0xABC)
+
+        assertEquals(one, one)
+        assertEquals(one, equal)
+        assertNotEquals(one, different)
+        assertNotEquals(one, Object())
+        assertEquals(one.hashCode(), equal.hashCode())
+        assertNotEquals(one.hashCode(), different.hashCode())
+        assertEquals("GravatarPerceptualHash{algorithm=Dct, bits=\"0000000000000abc\"}", one.toString())
+    }
+}
@@ -0,0 +1,137 @@
+package com.github.natche.gravatarjavaclient.avatar.fingerprint
+
+import com.github.natche.gravatarjavaclient.avatar.GravatarAvatarRequest
+import com.github.natche.gravatarjavaclient.enums.GravatarPerceptualHashAlgorithm
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.awt.Color
+import java.awt.RenderingHints
+import java.awt.image.BufferedImage
+import kotlin.random.Random
+
+/**
+ * Tests for the [GravatarPerceptualHasher].
+ */
+class GravatarPerceptualHasherTest {
+    /**
+     * Tests for the validation of arguments.
+     */
+    @Test
+    fun testValidation() {
+        val image = BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB)
+        assertThrows(NullPointerException::class.java)
+        { GravatarPerceptualHasher.INSTANCE.hash(null as BufferedImage?, GravatarPerceptualHashAlgorithm.Dct) }
+        assertThrows(NullPointerException::class.java)
+        { GravatarPerceptualHasher.INSTANCE.hash(image, null) }
+        assertThrows(NullPointerException::class.java)
+        { GravatarPerceptualHasher.INSTANCE.hash(null as GravatarAvatarRequest?, GravatarPerceptualHashAlgorithm.Dct) }
+    }
+
+    /**
+     * Tests for hashes of solid and transparent images.
+     */
+    @Test
+    fun testSolidImages() {
+        for (algorithm in GravatarPerceptualHashAlgorithm.values()) {
+            val red = GravatarPerceptualHasher.INSTANCE.hash(solid(Color.RED, 50, BufferedImage.TYPE_INT_RGB), algorithm)
+            val blue = GravatarPerceptualHasher.INSTANCE.hash(solid(Color.BLUE, 7, BufferedImage.TYPE_3BYTE_BGR), algorithm)
+            val transparent = GravatarPerceptualHasher.INSTANCE.hash(
+                BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB), algorithm)
+
+            assertEquals(algorithm, red.algorithm)
+            assertEquals(0L, red.bits, "$algorithm")
+            assertEquals(0L, blue.bits, "$algorithm")
+            assertEquals(0L, transparent.bits, "$algorithm")
+        }
+    }
+
+    /**
+     * Tests that rescaled and re-encoded copies of an image hash near it while other images hash far from it.
+     */
+    @Test
+    fun testNearAndFarImages() {
+        val original = pattern(Random(1), 200)
+        val rescaled = rescale(original, 80)
+        val converted = BufferedImage(200, 200, BufferedImage.TYPE_3BYTE_BGR)
+        converted.createGraphics().apply { drawImage(original, 0, 0, null); dispose() }
+        val mirrored = BufferedImage(200, 200, BufferedImage.TYPE_INT_RGB)
+        mirrored.createGraphics().apply { drawImage(original, 200, 0, -200, 200, null); dispose() }
+        val other = pattern(Random(2), 200)
+
+        for (algorithm in GravatarPerceptualHashAlgorithm.values()) {
+            val hash = GravatarPerceptualHasher.INSTANCE.hash(original, algorithm)
+            assertNotEquals(0L, hash.bits)
+            assertEquals(0, hash.distanceTo(GravatarPerceptualHasher.INSTANCE.hash(converted, algorithm)))
+            assertTrue(hash.distanceTo(GravatarPerceptualHasher.INSTANCE.hash(rescaled, algorithm))
+                    <= GravatarDefaultAvatarFingerprints.DEFAULT_MAX_DISTANCE, "$algorithm")
+            assertTrue(hash.distanceTo(GravatarPerceptualHasher.INSTANCE.hash(mirrored, algorithm))
+                    > GravatarDefaultAvatarFingerprints.DEFAULT_MAX_DISTANCE, "$algorithm")
+            assertTrue(hash.distanceTo(GravatarPerceptualHasher.INSTANCE.hash(other, algorithm))
+                    > GravatarDefaultAvatarFingerprints.DEFAULT_MAX_DISTANCE, "$algorithm")
+        }
+    }
+
+    /**
+     * Tests for the most significant bit of DCT hashes, which is always clear.
+     */
+    @Test
+    fun testDctHashTopBitClear() {
+        for (seed in 0 until 20) {
+            val hash = GravatarPerceptualHasher.INSTANCE.hash(pattern(Random(seed), 64), GravatarPerceptualHashAlgorithm.Dct)
+            assertTrue(hash.bits >= 0)
+        }
+    }
+
+    /**
+     * Tests for hashing a fetched avatar.
+     */
+    @Test
+    fun testHashRequest() {
+        val request = GravatarAvatarRequest.fromHash("80c44e7f3f5082023ede351d396844f5").setSize(64)
+        val small = GravatarPerceptualHasher.INSTANCE.hash(request, GravatarPerceptualHashAlgorithm.Dct)
+        val large = GravatarPerceptualHasher.INSTANCE.hash(request.setSize(256), GravatarPerceptualHashAlgorithm.Dct)
+        assertTrue(small.distanceTo(large) <= GravatarDefaultAvatarFingerprints.DEFAULT_MAX_DISTANCE)
+    }
+
+    companion object {
+        /**
+         * Returns a square image of the provided size and type filled with the provided color.
+         */
+        private fun solid(color: Color, size: Int, type: Int): BufferedImage {
+            val image = BufferedImage(size, size, type)
+            image.createGraphics().apply { this.color = color; fillRect(0, 0, size, size); dispose() }
+            return image
+        }
+
+        /**
+         * Returns a square image of random large rectangles, resembling the blocks of an avatar.
+         */
+        private fun pattern(random: Random, size: Int): BufferedImage {
+            val image = BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB)
+            val graphics = image.createGraphics()
+            graphics.color = Color.WHITE
+            graphics.fillRect(0, 0, size, size)
+            repeat(12) {
+                graphics.color = Color(random.nextInt(0x1000000))
+                graphics.fillRect(
+                    random.nextInt(size), random.nextInt(size), size / 8 + random.nextInt(size / 2),
+                    size / 8 + random.nextInt(size / 2)
+                )
+            }
+            graphics.dispose()
+            return image
+        }
+
+        /**
+         * Returns a smoothly rescaled copy of the provided image.
+         */
+        private fun rescale(image: BufferedImage, size: Int): BufferedImage {
+            val scaled = BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB)
+            val graphics = scaled.createGraphics()
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR)
+            graphics.drawImage(image, 0, 0, size, size, null)
+            graphics.dispose()
+            return scaled
+        }
+    }
+}
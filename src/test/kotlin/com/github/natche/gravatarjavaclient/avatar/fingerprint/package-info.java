@@ -0,0 +1,4 @@
+/**
+ * Tests for perceptual hashing of avatars.
+ */
+package com.github.natche.gravatarjavaclient.avatar.fingerprint;
@@ -0,0 +1,45 @@
+package com.github.natche.gravatarjavaclient.avatar.placeholder
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.awt.Color
+
+/**
+ * Tests for [GravatarAvatarPlaceholder]s.
+ */
+class GravatarAvatarPlaceholderTest {
+    /**
+     * Tests for construction and the accessor methods.
+     */
+    @Test
+    fun testConstructionAndAccessors() {
+        assertThrows(NullPointerException::class.java) { GravatarAvatarPlaceholder(null, 0) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarAvatarPlaceholder("00TI:", 0) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarAvatarPlaceholder("00TI:j", 0x1000000) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarAvatarPlaceholder("00TI:j", -1) }
+
+        val placeholder = GravatarAvatarPlaceholder("00TI:j", 0x0A0B0C)
+        assertEquals("00TI:j", placeholder.blurHash)
+        assertEquals(0x0A0B0C, placeholder.dominantColor)
+        assertEquals("#0a0b0c", placeholder.dominantColorHex)
+        assertEquals(Color(10, 11, 12), placeholder.dominantColorAsColor)
+    }
+
+    /**
+     * Tests for the equals, hashCode, and toString methods.
+     */
+    @Test
+    fun testEqualsHashCodeAndToString() {
+        val one = GravatarAvatarPlaceholder("00TI:j", 0xFF0000)
+        val equal = GravatarAvatarPlaceholder("00TI:j", 0xFF0000)
+        val different = GravatarAvatarPlaceholder("00TI:j", 0xFE0000)
+
+        assertEquals(one, one)
+        assertEquals(one, equal)
+        assertNotEquals(one, different)
+        assertNotEquals(one, Object())
+        assertEquals(one.hashCode(), equal.hashCode())
+        assertNotEquals(one.hashCode(), different.hashCode())
+        assertEquals("GravatarAvatarPlaceholder{blurHash=\"00TI:j\", dominantColor=#ff0000}", one.toString())
+    }
+}
@@ -0,0 +1,251 @@
+package com.github.natche.gravatarjavaclient.avatar.placeholder
+
+import com.github.natche.gravatarjavaclient.avatar.GravatarAvatarRequest
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.awt.Color
+import java.awt.image.BufferedImage
+import java.awt.image.IndexColorModel
+import kotlin.random.Random
+
+/**
+ * Tests for the [GravatarPlaceholderExtractor].
+ */
+class GravatarPlaceholderExtractorTest {
+    /**
+     * Tests for the BlurHash of a single color image.
+     */
+    @Test
+    fun testSolidBlurHash() {
+        val image = solid(Color(255, 0, 0), 16, 16, BufferedImage.TYPE_INT_RGB)
+        val hash = GravatarPlaceholderExtractor.INSTANCE.encodeBlurHash(image, 4, 3)
+
+        assertEquals(28, hash.length)
+        assertEquals('L', hash[0])
+        assertEquals(referenceBlurHash(image, 4, 3), hash)
+
+        val dcOnly = GravatarPlaceholderExtractor.INSTANCE.encodeBlurHash(image, 1, 1)
+        assertEquals("00TI:j", dcOnly)
+        assertEquals(dcOnly.substring(2), hash.substring(2, 6))
+    }
+
+    /**
+     * Tests for the validation of BlurHash component counts.
+     */
+    @Test
+    fun testEncodeBlurHashValidation() {
+        val image = solid(Color.RED, 4, 4, BufferedImage.TYPE_INT_RGB)
+        assertThrows(NullPointerException::class.java)
+        { GravatarPlaceholderExtractor.INSTANCE.encodeBlurHash(null, 4, 3) }
+        assertThrows(IllegalArgumentException::class.java)
+        { GravatarPlaceholderExtractor.INSTANCE.encodeBlurHash(image, 0, 3) }
+        assertThrows(IllegalArgumentException::class.java)
+        { GravatarPlaceholderExtractor.INSTANCE.encodeBlurHash(image, 4, 10) }
+    }
+
+    /**
+     * Tests that every supported image layout produces the same BlurHash as a reference encoder
+     * reading each pixel with getRGB.
+     */
+    @Test
+    fun testBlurHashMatchesReference() {
+        val source = noise(24, 20)
+        val expected = referenceBlurHash(source, 4, 3)
+
+        for (type in listOf(
+            BufferedImage.TYPE_INT_RGB,
+            BufferedImage.TYPE_INT_ARGB,
+            BufferedImage.TYPE_3BYTE_BGR,
+            BufferedImage.TYPE_4BYTE_ABGR,
+            BufferedImage.TYPE_INT_BGR,
+        )) {
+            val converted = convert(source, type)
+            assertEquals(expected, GravatarPlaceholderExtractor.INSTANCE.encodeBlurHash(converted, 4, 3), "type $type")
+        }
+
+        val wide = noise(64, 40)
+        val subimage = wide.getSubimage(10, 7, 24, 20)
+        assertEquals(
+            referenceBlurHash(subimage, 5, 4),
+            GravatarPlaceholderExtractor.INSTANCE.encodeBlurHash(subimage, 5, 4)
+        )
+    }
+
+    /**
+     * Tests for indexed images and large images which are subsampled.
+     */
+    @Test
+    fun testIndexedAndSubsampledImages() {
+        val palette = IndexColorModel(
+            8, 2, byteArrayOf(0, -1), byteArrayOf(0, 0), byteArrayOf(-1, 0)
+        )
+        val indexed = BufferedImage(8, 8, BufferedImage.TYPE_BYTE_INDEXED, palette)
+        for (y in 0 until 8) for (x in 0 until 8) indexed.raster.setSample(x, y, 0, if (x < 4) 0 else 1)
+        assertEquals(
+            referenceBlurHash(indexed, 4, 3),
+            GravatarPlaceholderExtractor.INSTANCE.encodeBlurHash(indexed, 4, 3)
+        )
+
+        val large = solid(Color(10, 200, 30), 512, 512, BufferedImage.TYPE_3BYTE_BGR)
+        val sampleGrid = solid(Color(10, 200, 30), 32, 32, BufferedImage.TYPE_INT_RGB)
+        assertEquals(
+            referenceBlurHash(sampleGrid, 4, 3),
+            GravatarPlaceholderExtractor.INSTANCE.encodeBlurHash(large, 4, 3)
+        )
+
+        val binary = BufferedImage(40, 40, BufferedImage.TYPE_BYTE_BINARY)
+        assertEquals(
+            referenceBlurHash(BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB), 4, 3),
+            GravatarPlaceholderExtractor.INSTANCE.encodeBlurHash(binary, 4, 3)
+        )
+    }
+
+    /**
+     * Tests for dominant color extraction.
+     */
+    @Test
+    fun testDominantColor() {
+        assertThrows(NullPointerException::class.java) { GravatarPlaceholderExtractor.INSTANCE.dominantColor(null) }
+
+        val image = solid(Color(0, 0, 255), 30, 30, BufferedImage.TYPE_INT_ARGB)
+        val graphics = image.createGraphics()
+        graphics.color = Color(200, 10, 10)
+        graphics.fillRect(0, 0, 20, 30)
+        graphics.dispose()
+        assertEquals(0xC80A0A, GravatarPlaceholderExtractor.INSTANCE.dominantColor(image))
+
+        val transparent = BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB)
+        assertEquals(0xFFFFFF, GravatarPlaceholderExtractor.INSTANCE.dominantColor(transparent))
+    }
+
+    /**
+     * Tests for extracting a full placeholder.
+     */
+    @Test
+    fun testExtract() {
+        val image = solid(Color(18, 52, 86), 40, 40, BufferedImage.TYPE_3BYTE_BGR)
+        val placeholder = GravatarPlaceholderExtractor.INSTANCE.extract(image)
+        assertEquals(0x123456, placeholder.dominantColor)
+        assertEquals(GravatarPlaceholderExtractor.INSTANCE.encodeBlurHash(image, 4, 3), placeholder.blurHash)
+
+        assertThrows(NullPointerException::class.java)
+        { GravatarPlaceholderExtractor.INSTANCE.extract(null as BufferedImage?) }
+        assertThrows(NullPointerException::class.java)
+        { GravatarPlaceholderExtractor.INSTANCE.extractAll(null, 1) }
+        assertThrows(IllegalArgumentException::class.java)
+        { GravatarPlaceholderExtractor.INSTANCE.extractAll(listOf(), 0) }
+        assertTrue(GravatarPlaceholderExtractor.INSTANCE.extractAll(listOf(), 4).isEmpty())
+    }
+
+    /**
+     * Tests for extracting placeholders for many avatars.
+     */
+    @Test
+    fun testExtractAll() {
+        val requests = listOf(
+            GravatarAvatarRequest.fromHash("80c44e7f3f5082023ede351d396844f5").setSize(64),
+            GravatarAvatarRequest.fromEmail("nathan.vincent.2.718@gmail.com").setSize(64),
+        )
+
+        val placeholders = GravatarPlaceholderExtractor.INSTANCE.extractAll(requests, 2)
+        assertEquals(2, placeholders.size)
+        assertEquals(GravatarPlaceholderExtractor.INSTANCE.extract(requests[0]), placeholders[0])
+    }
+
+    companion object {
+        /**
+         * Returns an image of the provided size and type filled with the provided color.
+         */
+        private fun solid(color: Color, width: Int, height: Int, type: Int): BufferedImage {
+            val image = BufferedImage(width, height, type)
+            val graphics = image.createGraphics()
+            graphics.color = color
+            graphics.fillRect(0, 0, width, height)
+            graphics.dispose()
+            return image
+        }
+
+        /**
+         * Returns an opaque image of random pixels.
+         */
+        private fun noise(width: Int, height: Int): BufferedImage {
+            val random = Random(42)
+            val image = BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB)
+            for (y in 0 until height) for (x in 0 until width) image.setRGB(x, y, random.nextInt() or (0xFF shl 24))
+            return image
+        }
+
+        /**
+         * Returns a copy of the provided image with the provided type.
+         */
+        private fun convert(image: BufferedImage, type: Int): BufferedImage {
+            val converted = BufferedImage(image.width, image.height, type)
+            val graphics = converted.createGraphics()
+            graphics.drawImage(image, 0, 0, null)
+            graphics.dispose()
+            return converted
+        }
+
+        /**
+         * A straightforward BlurHash encoder which reads every pixel of an image of at most 32 by 32 pixels.
+         */
+        private fun referenceBlurHash(image: BufferedImage, xComponents: Int, yComponents: Int): String {
+            fun toLinear(value: Int): Double {
+                val v = value / 255.0
+                return if (v <= 0.04045) v / 12.92 else Math.pow((v + 0.055) / 1.055, 2.4)
+            }
+
+            fun toSrgb(value: Double): Int {
+                val v = value.coerceIn(0.0, 1.0)
+                return if (v <= 0.0031308) (v * 12.92 * 255 + 0.5).toInt()
+                else ((1.055 * Math.pow(v, 1 / 2.4) - 0.055) * 255 + 0.5).toInt()
+            }
+
+            val alphabet = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~"
+            fun encode(value: Int, length: Int) = (1..length).map {
+                var divisor = 1
+                repeat(length - it) { divisor *= 83 }
+                alphabet[(value / divisor) % 83]
+            }.joinToString("")
+
+            val width = image.width
+            val height = image.height
+            val factors = mutableListOf<DoubleArray>()
+            for (j in 0 until yComponents) for (i in 0 until xComponents) {
+                val factor = DoubleArray(3)
+                for (y in 0 until height) for (x in 0 until width) {
+                    val basis = Math.cos(Math.PI * i * x / width) * Math.cos(Math.PI * j * y / height)
+                    val rgb = image.getRGB(x, y)
+                    factor[0] += basis * toLinear((rgb shr 16) and 0xFF)
+                    factor[1] += basis * toLinear((rgb shr 8) and 0xFF)
+                    factor[2] += basis * toLinear(rgb and 0xFF)
+                }
+                val scale = (if (i == 0 && j == 0) 1.0 else 2.0) / (width * height)
+                factors.add(DoubleArray(3) { factor[it] * scale })
+            }
+
+            val ac = factors.drop(1)
+            val builder = StringBuilder(encode((xComponents - 1) + (yComponents - 1) * 9, 1))
+            val maximumValue = if (ac.isNotEmpty()) {
+                val actualMaximum = ac.maxOf { f -> f.maxOf { Math.abs(it) } }
+                val quantized = Math.floor(actualMaximum * 166 - 0.5).toInt().coerceIn(0, 82)
+                builder.append(encode(quantized, 1))
+                (quantized + 1) / 166.0
+            } else {
+                builder.append(encode(0, 1))
+                1.0
+            }
+            val dc = factors[0]
+            builder.append(encode((toSrgb(dc[0]) shl 16) + (toSrgb(dc[1]) shl 8) + toSrgb(dc[2]), 4))
+            for (f in ac) {
+                fun quantize(value: Double): Int {
+                    val normalized = value / maximumValue
+                    val curved = Math.signum(normalized) * Math.sqrt(Math.abs(normalized))
+                    return Math.floor(curved * 9 + 9.5).toInt().coerceIn(0, 18)
+                }
+                builder.append(encode(quantize(f[0]) * 19 * 19 + quantize(f[1]) * 19 + quantize(f[2]), 2))
+            }
+            return builder.toString()
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Tests for avatar placeholders.
+ */
+package com.github.natche.gravatarjavaclient.avatar.placeholder;
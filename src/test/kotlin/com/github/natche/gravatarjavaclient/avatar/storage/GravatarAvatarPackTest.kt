@@ -0,0 +1,232 @@
+package com.github.natche.gravatarjavaclient.avatar.storage
+
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.nio.ByteBuffer
+import java.nio.file.Files
+
+/**
+ * Tests for the [GravatarAvatarPackWriter], [GravatarAvatarPackReader], and [GravatarAvatarPackCompactor].
+ */
+class GravatarAvatarPackTest {
+    /**
+     * Tests for opening packs.
+     */
+    @Test
+    fun testOpen() {
+        val root = Files.createTempDirectory("pack_open")
+        assertThrows(NullPointerException::class.java) { GravatarAvatarPackWriter.open(null) }
+        assertThrows(NullPointerException::class.java) { GravatarAvatarPackReader.open(null) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarAvatarPackWriter.open(root) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarAvatarPackReader.open(root.resolve("missing")) }
+
+        val garbage = Files.write(root.resolve("garbage"), ByteArray(64) { it.toByte() })
+        assertThrows(GravatarJavaClientException::class.java) { GravatarAvatarPackReader.open(garbage) }
+        assertThrows(GravatarJavaClientException::class.java) { GravatarAvatarPackWriter.open(garbage) }
+
+        val pack = root.resolve("empty.pack")
+        GravatarAvatarPackWriter.open(pack).close()
+        GravatarAvatarPackReader.open(pack).use {
+            assertEquals(pack, it.path)
+            assertEquals(0, it.size())
+            assertTrue(it.get("missing").isEmpty)
+        }
+
+        root.toFile().deleteRecursively()
+    }
+
+    /**
+     * Tests for writing and reading images.
+     */
+    @Test
+    fun testPutAndGet() {
+        val root = Files.createTempDirectory("pack_get")
+        val pack = root.resolve("avatars.pack")
+        GravatarAvatarPackWriter.open(pack).use { writer ->
+            assertThrows(NullPointerException::class.java) { writer.put(null, bytes(1)) }
+            assertThrows(NullPointerException::class.java) { writer.put("key", null) }
+            assertThrows(IllegalArgumentException::class.java) { writer.put("", bytes(1)) }
+            assertThrows(IllegalArgumentException::class.java) { writer.put("k".repeat(1025), bytes(1)) }
+
+            val image = bytes(1, 2, 3)
+            writer.put("one", image)
+            assertEquals(0, image.position())
+            writer.put("two", ByteBuffer.allocateDirect(2).put(4).put(5).flip())
+            writer.put("three", bytes())
+            for (i in 0 until 100) writer.put("avatar-$i", bytes(i, i + 1))
+            assertEquals(103, writer.size())
+        }
+
+        GravatarAvatarPackReader.open(pack).use { reader ->
+            assertEquals(103, reader.size())
+            assertEquals(bytes(1, 2, 3), reader.get("one").get())
+            assertEquals(bytes(4, 5), reader.get("two").get())
+            assertEquals(bytes(), reader.get("three").get())
+            for (i in 0 until 100) assertEquals(bytes(i, i + 1), reader.get("avatar-$i").get())
+            assertTrue(reader.contains("one"))
+            assertFalse(reader.contains("four"))
+            assertTrue(reader.get("one").get().isReadOnly)
+
+            val keys = mutableSetOf<String>()
+            reader.forEach { key, _ -> keys.add(key) }
+            assertEquals(103, keys.size)
+        }
+
+        root.toFile().deleteRecursively()
+    }
+
+    /**
+     * Tests for appending to an existing pack and compacting it.
+     */
+    @Test
+    fun testAppendAndCompact() {
+        val root = Files.createTempDirectory("pack_compact")
+        val pack = root.resolve("avatars.pack")
+        GravatarAvatarPackWriter.open(pack).use {
+            it.put("one", bytes(1, 1, 1, 1))
+            it.put("two", bytes(2, 2))
+        }
+        GravatarAvatarPackWriter.open(pack).use {
+            assertEquals(2, it.size())
+            it.put("one", bytes(9))
+            it.put("three", bytes(3))
+            assertEquals(3 + 4 + 4L, it.supersededBytes)
+        }
+
+        val before = Files.size(pack)
+        GravatarAvatarPackReader.open(pack).use {
+            assertEquals(3, it.size())
+            assertEquals(bytes(9), it.get("one").get())
+            assertEquals(bytes(2, 2), it.get("two").get())
+            assertEquals(bytes(3), it.get("three").get())
+        }
+
+        assertThrows(NullPointerException::class.java) { GravatarAvatarPackCompactor.compact(null) }
+        val reclaimed = GravatarAvatarPackCompactor.compact(pack)
+        assertTrue(reclaimed > 0)
+        assertEquals(before - reclaimed, Files.size(pack))
+        assertFalse(Files.exists(root.resolve("avatars.pack.compacting")))
+
+        GravatarAvatarPackReader.open(pack).use {
+            assertEquals(3, it.size())
+            assertEquals(bytes(9), it.get("one").get())
+            assertEquals(bytes(2, 2), it.get("two").get())
+            assertEquals(bytes(3), it.get("three").get())
+        }
+        assertEquals(0, GravatarAvatarPackCompactor.compact(pack))
+
+        root.toFile().deleteRecursively()
+    }
+
+    /**
+     * Tests that a pack whose last session was torn by a crash is read as of its previous session,
+     * and that the next writer truncates the torn session and appends after it.
+     */
+    @Test
+    fun testTornWriteRecovery() {
+        val root = Files.createTempDirectory("pack_torn")
+        val pack = root.resolve("avatars.pack")
+        GravatarAvatarPackWriter.open(pack).use {
+            it.put("one", bytes(1, 1))
+            it.put("two", bytes(2, 2))
+        }
+        val firstSession = Files.readAllBytes(pack)
+        GravatarAvatarPackWriter.open(pack).use {
+            it.put("one", bytes(9))
+            it.put("three", bytes(3, 3, 3))
+        }
+        val bothSessions = Files.readAllBytes(pack)
+
+        // Every truncation of the second session leaves the first readable
+        for (length in firstSession.size until bothSessions.size) {
+            Files.write(pack, bothSessions.copyOf(length))
+            GravatarAvatarPackReader.open(pack).use {
+                assertEquals(2, it.size())
+                assertEquals(bytes(1, 1), it.get("one").get())
+                assertFalse(it.contains("three"))
+            }
+        }
+
+        GravatarAvatarPackWriter.open(pack).use {
+            assertEquals(2, it.size())
+            it.put("four", bytes(4))
+        }
+        GravatarAvatarPackReader.open(pack).use {
+            assertEquals(3, it.size())
+            assertEquals(bytes(1, 1), it.get("one").get())
+            assertEquals(bytes(4), it.get("four").get())
+            assertFalse(it.contains("three"))
+        }
+        assertArrayEquals(firstSession, Files.readAllBytes(pack).copyOf(firstSession.size))
+
+        // The scan back to the last footer crosses large records, even those containing the footer's magic number
+        val committed = Files.readAllBytes(pack)
+        val magic = byteArrayOf(0x47, 0x41, 0x50, 0x4B)
+        GravatarAvatarPackWriter.open(pack).use {
+            it.put("large", ByteBuffer.wrap(ByteArray(200_000) { index -> magic[index % 4] }))
+        }
+        Files.write(pack, Files.readAllBytes(pack).let { it.copyOf(it.size - 1) })
+        GravatarAvatarPackReader.open(pack).use {
+            assertEquals(3, it.size())
+            assertEquals(committed.size.toLong(), it.committedLength)
+        }
+
+        // A pack whose first session never closed has no images
+        Files.write(pack, firstSession.copyOf(firstSession.size - 1))
+        GravatarAvatarPackReader.open(pack).use { assertEquals(0, it.size()) }
+        GravatarAvatarPackWriter.open(pack).use { it.put("five", bytes(5)) }
+        GravatarAvatarPackReader.open(pack).use {
+            assertEquals(1, it.size())
+            assertEquals(bytes(5), it.get("five").get())
+        }
+
+        root.toFile().deleteRecursively()
+    }
+
+    /**
+     * Tests for use after closing.
+     */
+    @Test
+    fun testClosed() {
+        val root = Files.createTempDirectory("pack_closed")
+        val pack = root.resolve("avatars.pack")
+        val writer = GravatarAvatarPackWriter.open(pack)
+        writer.put("one", bytes(1))
+        writer.close()
+        assertDoesNotThrow { writer.close() }
+        assertThrows(GravatarJavaClientException::class.java) { writer.put("two", bytes(2)) }
+
+        val reader = GravatarAvatarPackReader.open(pack)
+        reader.close()
+        assertThrows(GravatarJavaClientException::class.java) { reader.get("one") }
+        assertThrows(GravatarJavaClientException::class.java) { reader.forEach { _, _ -> } }
+
+        root.toFile().deleteRecursively()
+    }
+
+    /**
+     * Tests for the toString methods.
+     */
+    @Test
+    fun testToString() {
+        val root = Files.createTempDirectory("pack_string")
+        val pack = root.resolve("avatars.pack")
+        GravatarAvatarPackWriter.open(pack).use {
+            it.put("one", bytes(1))
+            assertEquals("GravatarAvatarPackWriter{path=\"$pack\", size=1, closed=false}", it.toString())
+        }
+        GravatarAvatarPackReader.open(pack).use {
+            assertEquals("GravatarAvatarPackReader{path=\"$pack\", size=1}", it.toString())
+        }
+
+        root.toFile().deleteRecursively()
+    }
+
+    companion object {
+        /**
+         * Returns a buffer containing the provided bytes.
+         */
+        private fun bytes(vararg values: Int): ByteBuffer = ByteBuffer.wrap(values.map { it.toByte() }.toByteArray())
+    }
+}
@@ -0,0 +1,173 @@
+package com.github.natche.gravatarjavaclient.avatar.storage
+
+import com.github.natche.gravatarjavaclient.enums.GravatarStoreEntryMode
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.nio.ByteBuffer
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ * Tests for the [GravatarContentAddressedStore].
+ */
+class GravatarContentAddressedStoreTest {
+    /**
+     * Tests for opening a store.
+     */
+    @Test
+    fun testOpen() {
+        assertThrows(NullPointerException::class.java)
+        { GravatarContentAddressedStore.open(null, GravatarStoreEntryMode.IndexRecord) }
+        val root = Files.createTempDirectory("cas_open")
+        assertThrows(NullPointerException::class.java) { GravatarContentAddressedStore.open(root, null) }
+
+        val file = Files.createFile(root.resolve("file"))
+        assertThrows(IllegalArgumentException::class.java)
+        { GravatarContentAddressedStore.open(file, GravatarStoreEntryMode.IndexRecord) }
+
+        GravatarContentAddressedStore.open(root.resolve("store"), GravatarStoreEntryMode.IndexRecord).use {
+            assertEquals(root.resolve("store"), it.root)
+            assertEquals(GravatarStoreEntryMode.IndexRecord, it.mode)
+            assertEquals(GravatarStoreStatistics(0, 0, 0, 0), it.statistics)
+        }
+
+        deleteRecursively(root)
+    }
+
+    /**
+     * Tests for deduplication of identical images using index records.
+     */
+    @Test
+    fun testDeduplicationWithIndexRecords() {
+        val root = Files.createTempDirectory("cas_index")
+        GravatarContentAddressedStore.open(root, GravatarStoreEntryMode.IndexRecord).use { store ->
+            assertThrows(IllegalArgumentException::class.java) { store.put("", bytes(1)) }
+            assertThrows(IllegalArgumentException::class.java) { store.put(".hidden", bytes(1)) }
+            assertThrows(IllegalArgumentException::class.java) { store.put("a/b", bytes(1)) }
+            assertThrows(IllegalArgumentException::class.java) { store.put("a\tb", bytes(1)) }
+
+            val first = store.put("one", bytes(1, 2, 3))
+            val second = store.put("two", bytes(1, 2, 3))
+            val third = store.put("three", bytes(4, 5))
+            assertEquals(first, second)
+            assertNotEquals(first, third)
+            assertEquals(64, first.length)
+
+            val statistics = store.statistics
+            assertEquals(3, statistics.entryCount)
+            assertEquals(2, statistics.blobCount)
+            assertEquals(8, statistics.logicalBytes)
+            assertEquals(5, statistics.physicalBytes)
+            assertEquals(1.6, statistics.deduplicationRatio, 1e-9)
+
+            assertEquals(bytes(1, 2, 3), store.read("two").get())
+            assertTrue(store.read("missing").isEmpty)
+            assertEquals(store.getBlobPath("one"), store.getBlobPath("two"))
+        }
+
+        deleteRecursively(root)
+    }
+
+    /**
+     * Tests for removal and garbage collection surviving a reopen.
+     */
+    @Test
+    fun testRemoveAndCollectGarbage() {
+        val root = Files.createTempDirectory("cas_gc")
+        GravatarContentAddressedStore.open(root, GravatarStoreEntryMode.IndexRecord).use { store ->
+            store.put("one", bytes(1, 2, 3))
+            store.put("two", bytes(1, 2, 3))
+            store.put("three", bytes(4, 5))
+
+            assertTrue(store.remove("three"))
+            assertFalse(store.remove("three"))
+            assertTrue(store.remove("one"))
+            assertEquals(2, store.statistics.blobCount)
+
+            assertEquals(1, store.collectGarbage())
+            assertEquals(GravatarStoreStatistics(1, 1, 3, 3), store.statistics)
+        }
+
+        GravatarContentAddressedStore.open(root, GravatarStoreEntryMode.IndexRecord).use { store ->
+            assertFalse(store.contains("one"))
+            assertTrue(store.contains("two"))
+            assertFalse(store.contains("three"))
+            assertEquals(bytes(1, 2, 3), store.read("two").get())
+        }
+
+        deleteRecursively(root)
+    }
+
+    /**
+     * Tests for entries materialized as hard links.
+     */
+    @Test
+    fun testHardLinks() {
+        val root = Files.createTempDirectory("cas_links")
+        GravatarContentAddressedStore.open(root, GravatarStoreEntryMode.HardLink).use { store ->
+            store.put("one", bytes(7, 8, 9))
+            store.put("two", bytes(7, 8, 9))
+
+            val one = root.resolve("entries").resolve("one")
+            assertTrue(Files.isSameFile(one, store.getBlobPath("one").get()))
+            assertTrue(Files.isSameFile(one, root.resolve("entries").resolve("two")))
+
+            store.put("one", bytes(1))
+            assertArrayEquals(byteArrayOf(1), Files.readAllBytes(one))
+
+            store.remove("two")
+            assertFalse(Files.exists(root.resolve("entries").resolve("two")))
+        }
+
+        deleteRecursively(root)
+    }
+
+    /**
+     * Tests that blobs, entries, and the rewritten index get the default permissions of new files.
+     */
+    @Test
+    fun testFilePermissions() {
+        val root = Files.createTempDirectory("cas_permissions")
+        if (!root.fileSystem.supportedFileAttributeViews().contains("posix")) return
+
+        val expected = Files.getPosixFilePermissions(Files.createFile(root.resolve("reference")))
+        GravatarContentAddressedStore.open(root, GravatarStoreEntryMode.HardLink).use { store ->
+            store.put("one", bytes(1, 2, 3))
+            store.collectGarbage()
+
+            assertEquals(expected, Files.getPosixFilePermissions(store.getBlobPath("one").get()))
+            assertEquals(expected, Files.getPosixFilePermissions(root.resolve("entries").resolve("one")))
+            assertEquals(expected, Files.getPosixFilePermissions(root.resolve("index.log")))
+        }
+
+        deleteRecursively(root)
+    }
+
+    /**
+     * Tests for mutations after closing.
+     */
+    @Test
+    fun testClosed() {
+        val root = Files.createTempDirectory("cas_closed")
+        val store = GravatarContentAddressedStore.open(root, GravatarStoreEntryMode.IndexRecord)
+        store.close()
+        assertDoesNotThrow { store.close() }
+        assertThrows(GravatarJavaClientException::class.java) { store.put("one", bytes(1)) }
+        deleteRecursively(root)
+    }
+
+    companion object {
+        /**
+         * Returns a buffer containing the provided bytes.
+         */
+        private fun bytes(vararg values: Int): ByteBuffer = ByteBuffer.wrap(values.map { it.toByte() }.toByteArray())
+
+        /**
+         * Deletes the provided directory and its contents.
+         */
+        private fun deleteRecursively(root: Path) {
+            root.toFile().deleteRecursively()
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.natche.gravatarjavaclient.avatar.storage
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+
+/**
+ * Tests for [GravatarStoreStatistics].
+ */
+class GravatarStoreStatisticsTest {
+    /**
+     * Tests for construction and the accessor methods.
+     */
+    @Test
+    fun testConstructionAndAccessors() {
+        assertThrows(IllegalArgumentException::class.java) { GravatarStoreStatistics(-1, 0, 0, 0) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarStoreStatistics(0, -1, 0, 0) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarStoreStatistics(0, 0, -1, 0) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarStoreStatistics(0, 0, 0, -1) }
+
+        val statistics = GravatarStoreStatistics(4, 1, 400, 100)
+        assertEquals(4, statistics.entryCount)
+        assertEquals(1, statistics.blobCount)
+        assertEquals(400, statistics.logicalBytes)
+        assertEquals(100, statistics.physicalBytes)
+        assertEquals(4.0, statistics.deduplicationRatio)
+        assertEquals(1.0, GravatarStoreStatistics(0, 0, 0, 0).deduplicationRatio)
+    }
+
+    /**
+     * Tests for the equals, hashCode, and toString methods.
+     */
+    @Test
+    fun testEqualsHashCodeAndToString() {
+        val one = GravatarStoreStatistics(4, 1, 400, 100)
+        val equal = GravatarStoreStatistics(4, 1, 400, 100)
+        val different = GravatarStoreStatistics(4, 2, 400, 200)
+
+        assertEquals(one, one)
+        assertEquals(one, equal)
+        assertNotEquals(one, different)
+        assertNotEquals(one, Object())
+        assertEquals(one.hashCode(), equal.hashCode())
+        assertNotEquals(one.hashCode(), different.hashCode())
+        assertEquals(
+            "GravatarStoreStatistics{entryCount=4, blobCount=1, logicalBytes=400, physicalBytes=100}",
+            one.toString()
+        )
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Tests for avatar storage formats.
+ */
+package com.github.natche.gravatarjavaclient.avatar.storage;
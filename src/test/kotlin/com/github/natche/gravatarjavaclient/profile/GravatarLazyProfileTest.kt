@@ -0,0 +1,205 @@
+package com.github.natche.gravatarjavaclient.profile
+
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException
+import com.github.natche.gravatarjavaclient.profile.gson.GravatarProfileTypeAdapterTest
+import com.github.natche.gravatarjavaclient.profile.gson.GsonProvider
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfileUrl
+import com.google.gson.JsonParseException
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.io.ByteArrayInputStream
+import java.time.Instant
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+/**
+ * Tests for [GravatarLazyProfile]s.
+ */
+class GravatarLazyProfileTest {
+    /**
+     * Tests that every member decodes to what the eager adapter reads.
+     */
+    @Test
+    fun testMatchesEagerProfile() {
+        for (json in listOf(
+            GravatarProfileTypeAdapterTest.fullProfile,
+            GravatarProfileTypeAdapterTest.withoutOrganization,
+            GravatarProfileTypeAdapterTest.withOrganizationTrue,
+        )) {
+            val eager = GsonProvider.INSTANCE.get().fromJson(json, GravatarProfile::class.java)
+            val lazy = GravatarLazyProfile.fromJson(json)
+
+            assertEquals(eager.hash, lazy.hash)
+            assertEquals(eager.displayName, lazy.displayName)
+            assertEquals(eager.avatarUrl, lazy.avatarUrl)
+            assertEquals(eager.verifiedAccounts, lazy.verifiedAccounts)
+            assertEquals(eager.timezone, lazy.timezone)
+            assertEquals(eager.isOrganization, lazy.isOrganization)
+            assertEquals(eager.payments, lazy.payments)
+            assertEquals(eager.contactInfo, lazy.contactInfo)
+            assertEquals(eager.gallery, lazy.gallery)
+            assertEquals(eager.numberVerifiedAccounts, lazy.numberVerifiedAccounts)
+            assertEquals(eager.lastProfileEdit, lazy.lastProfileEdit)
+            assertEquals(eager.registrationDate, lazy.registrationDate)
+            assertEquals(eager, lazy.toProfile())
+            assertEquals(eager, GravatarLazyProfile.fromJson(json).toProfile())
+        }
+    }
+
+    /**
+     * Tests that members are decoded on first access and cached.
+     */
+    @Test
+    fun testDecodesOnFirstAccess() {
+        val lazy = GravatarLazyProfile.fromJson(GravatarProfileTypeAdapterTest.fullProfile)
+        assertEquals(0, lazy.decodedMemberCount)
+
+        val links = lazy.links
+        assertEquals(1, lazy.decodedMemberCount)
+        assertSame(links, lazy.links)
+
+        val edit = lazy.lastProfileEdit
+        assertEquals(Instant.parse("2024-11-02T17:41:15Z"), edit.get())
+        assertSame(edit, lazy.lastProfileEdit)
+        assertEquals(2, lazy.decodedMemberCount)
+
+        assertTrue(lazy.firstName.isPresent)
+        assertSame(lazy.firstName.get(), lazy.firstName.get())
+        assertEquals(3, lazy.decodedMemberCount)
+
+        lazy.toProfile()
+        lazy.registrationDate
+        assertEquals(25, lazy.decodedMemberCount)
+    }
+
+    /**
+     * Tests for absent and null members, escapes, unknown members, and duplicate members.
+     */
+    @Test
+    fun testEdgeCases() {
+        val json = """
+            {"unknown": {"hash": "nested", "list": ["]", "}", "\""]},
+             "hash": "first", "hash": "with \"quotes\" and é",
+             "profile_url" : "https://gravatar.com/user",
+             "display_name": "Zoë", "location": null, "company": true,
+             "links": [{"label": "Kept", "value": "https://example.com/kept"}, null, {"label": ""}],
+             "languages": null, "is_organization": null, "number_verified_accounts": 3
+            }
+        """.trimIndent()
+        val lazy = GravatarLazyProfile.fromJson(json.toByteArray())
+
+        assertEquals("with \"quotes\" and é", lazy.hash)
+        assertEquals("Zoë", lazy.displayName)
+        assertNull(lazy.location)
+        assertEquals("true", lazy.company)
+        assertNull(lazy.description)
+        assertTrue(lazy.timezone.isEmpty)
+        assertTrue(lazy.languages.isEmpty())
+        assertTrue(lazy.interests.isEmpty())
+        assertTrue(lazy.payments.isEmpty)
+        assertTrue(lazy.lastProfileEdit.isEmpty)
+        assertFalse(lazy.isOrganization)
+        assertEquals(3, lazy.numberVerifiedAccounts)
+        assertEquals(listOf(GravatarProfileUrl("Kept", "https://example.com/kept")), lazy.links)
+        assertEquals(GsonProvider.INSTANCE.get().fromJson(json, GravatarProfile::class.java), lazy.toProfile())
+        assertEquals(json.toByteArray().size, lazy.jsonLength)
+        assertEquals(json.toByteArray().size, lazy.json.remaining())
+    }
+
+    /**
+     * Tests that malformed profiles are rejected when indexed and malformed members when accessed.
+     */
+    @Test
+    fun testMalformedJson() {
+        assertThrows(NullPointerException::class.java) { GravatarLazyProfile.fromJson(null as ByteArray?) }
+        for (json in listOf(
+            "", "[]", "{", """{"hash": "h"}""", """{"profile_url": "u"}""", """{"hash": null, "profile_url": "u"}""",
+            """{"hash": "h", "profile_url": "u"} trailing""", """{"hash": "h", "profile_url": "u",}""",
+            """{"hash": "h" "profile_url": "u"}""", """{"hash": "h", "profile_url": "u", "links": [""",
+        )) {
+            assertThrows(JsonParseException::class.java) { GravatarLazyProfile.fromJson(json) }
+        }
+
+        val lazy = GravatarLazyProfile.fromJson(
+            """{"hash": "h", "profile_url": "u", "links": {"label": 1}, "registration_date": "yesterday"}"""
+        )
+        assertEquals("h", lazy.hash)
+        assertThrows(JsonParseException::class.java) { lazy.links }
+        assertThrows(JsonParseException::class.java) { lazy.registrationDate }
+        assertTrue(GravatarLazyProfile.fromJson("""{"hash":"h","profile_url":"u"}""").links.isEmpty())
+    }
+
+    /**
+     * Tests that threads racing on the first access of a member all return the same instance.
+     */
+    @Test
+    fun testConcurrentFirstAccess() {
+        val threads = 8
+        repeat(20) {
+            val lazy = GravatarLazyProfile.fromJson(GravatarProfileTypeAdapterTest.fullProfile)
+            val executor = Executors.newFixedThreadPool(threads)
+            val start = CountDownLatch(1)
+            val futures = (0 until threads).map {
+                executor.submit<Any> {
+                    start.await()
+                    listOf(lazy.verifiedAccounts, lazy.registrationDate, lazy.payments.get(), lazy.description)
+                }
+            }
+            start.countDown()
+            val results = futures.map { it.get(10, TimeUnit.SECONDS) as List<*> }
+            executor.shutdown()
+
+            for (result in results) {
+                for (i in result.indices) assertSame(results[0][i], result[i])
+            }
+        }
+    }
+
+    /**
+     * Tests for reading lazy profiles from responses.
+     */
+    @Test
+    fun testReadLazyProfile() {
+        val body = GravatarProfileTypeAdapterTest.fullProfile
+        val lazy = GravatarProfileRequestHandler.INSTANCE.readLazyProfile(200, stream(body))
+        assertEquals(GsonProvider.INSTANCE.get().fromJson(body, GravatarProfile::class.java), lazy.toProfile())
+
+        val exception = assertThrows(GravatarJavaClientException::class.java) {
+            GravatarProfileRequestHandler.INSTANCE.readLazyProfile(404, stream("""{"error": "Profile not found"}"""))
+        }
+        assertEquals("Gravatar API error: Profile not found", exception.message)
+        assertThrows(GravatarJavaClientException::class.java)
+        { GravatarProfileRequestHandler.INSTANCE.readLazyProfile(200, stream("")) }
+    }
+
+    /**
+     * Tests for the equals, hashCode, and toString methods.
+     */
+    @Test
+    fun testEqualsHashCodeAndToString() {
+        val json = """{"hash": "h", "profile_url": "u"}"""
+        val one = GravatarLazyProfile.fromJson(json)
+        val equal = GravatarLazyProfile.fromJson(json.toByteArray())
+        val different = GravatarLazyProfile.fromJson("""{"hash": "other", "profile_url": "u"}""")
+
+        assertEquals(one, one)
+        assertEquals(one, equal)
+        assertNotEquals(one, different)
+        assertNotEquals(one, Object())
+        assertEquals(one.hashCode(), equal.hashCode())
+        assertNotEquals(one.hashCode(), different.hashCode())
+        assertEquals(
+            "GravatarLazyProfile{hash=\"h\", profileUrl=\"u\", jsonLength=33, decodedMembers=2}",
+            one.toString()
+        )
+    }
+
+    companion object {
+        /**
+         * Returns a stream of the UTF-8 bytes of the provided string.
+         */
+        private fun stream(body: String) = ByteArrayInputStream(body.toByteArray())
+    }
+}
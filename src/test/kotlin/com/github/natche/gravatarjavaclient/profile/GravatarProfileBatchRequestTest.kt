@@ -0,0 +1,235 @@
+package com.github.natche.gravatarjavaclient.profile
+
+import com.github.natche.gravatarjavaclient.enums.GravatarBatchResultOrder
+import com.github.natche.gravatarjavaclient.enums.GravatarProfileBatchStatus
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException
+import com.github.natche.gravatarjavaclient.profile.ratelimit.GravatarTokenPool
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Tests for [GravatarProfileBatchRequest]s.
+ */
+class GravatarProfileBatchRequestTest {
+    /**
+     * Tests for construction and the setters.
+     */
+    @Test
+    fun testCreation() {
+        assertThrows(NullPointerException::class.java) { GravatarProfileBatchRequest.from(null) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarProfileBatchRequest.from(listOf()) }
+        assertThrows(NullPointerException::class.java) { GravatarProfileBatchRequest.from(listOf("a", null)) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarProfileBatchRequest.from(listOf("a", " ")) }
+        assertThrows(IllegalArgumentException::class.java)
+        { GravatarProfileBatchRequest.fromEmails(listOf("not an email")) }
+
+        val request = GravatarProfileBatchRequest.fromEmails(listOf("nathan.vincent.2.718@gmail.com"))
+        assertEquals(
+            listOf("c83512d02db256cc5afb78376147ea0f2ea02e6a4e3399b980dea3bef9fc6168"),
+            request.hashesOrIds
+        )
+        assertEquals(8, request.concurrency)
+        assertEquals(GravatarBatchResultOrder.InputOrder, request.resultOrder)
+        assertThrows(IllegalArgumentException::class.java) { request.setConcurrency(0) }
+        assertThrows(NullPointerException::class.java) { request.setResultOrder(null) }
+        assertThrows(IllegalArgumentException::class.java) { request.setToken("  ") }
+    }
+
+    /**
+     * Tests that input order results are delivered in the order of the request however they complete.
+     */
+    @Test
+    fun testInputOrder() {
+        val request = GravatarProfileBatchRequest.from(ids(50)).setConcurrency(5)
+        val results = collect(request, delayed(request))
+
+        assertEquals((0 until 50).toList(), results.map { it.index })
+        assertEquals(request.hashesOrIds, results.map { it.hashOrId })
+        assertTrue(results.all { it.isSuccess })
+    }
+
+    /**
+     * Tests that completion order results are delivered as they complete.
+     */
+    @Test
+    fun testCompletionOrder() {
+        val request = GravatarProfileBatchRequest.from(ids(3))
+            .setResultOrder(GravatarBatchResultOrder.CompletionOrder)
+        val futures = List(3) { CompletableFuture<GravatarProfileBatchResult>() }
+        val scheduler = Executors.newSingleThreadScheduledExecutor()
+        scheduler.schedule({ futures[2].complete(success(request, 2)) }, 10, TimeUnit.MILLISECONDS)
+        scheduler.schedule({ futures[0].complete(success(request, 0)) }, 60, TimeUnit.MILLISECONDS)
+        scheduler.schedule({ futures[1].complete(success(request, 1)) }, 110, TimeUnit.MILLISECONDS)
+
+        val results = collect(request) { futures[it] }
+        scheduler.shutdown()
+        assertEquals(listOf(2, 0, 1), results.map { it.index })
+    }
+
+    /**
+     * Tests that no more than the configured number of requests are in flight at once.
+     */
+    @Test
+    fun testConcurrencyLimit() {
+        for (order in GravatarBatchResultOrder.entries) {
+            val request = GravatarProfileBatchRequest.from(ids(200)).setConcurrency(7).setResultOrder(order)
+            val inFlight = AtomicInteger()
+            val maxInFlight = AtomicInteger()
+            val executor = Executors.newFixedThreadPool(16)
+
+            val results = collect(request) { index ->
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max)
+                CompletableFuture.supplyAsync({
+                    Thread.sleep((index * 7 % 5).toLong())
+                    inFlight.decrementAndGet()
+                    success(request, index)
+                }, executor)
+            }
+            executor.shutdown()
+
+            assertEquals(200, results.size)
+            assertEquals((0 until 200).toSet(), results.map { it.index }.toSet())
+            assertTrue(maxInFlight.get() <= 7, "order $order")
+        }
+    }
+
+    /**
+     * Tests that failures produce failed results without aborting the batch.
+     */
+    @Test
+    fun testFailuresDoNotAbort() {
+        val request = GravatarProfileBatchRequest.from(ids(4)).setConcurrency(2)
+        val results = collect(request) { index ->
+            when (index) {
+                0 -> throw IllegalArgumentException("Illegal character in path")
+                1 -> CompletableFuture.failedFuture(RuntimeException())
+                2 -> CompletableFuture.completedFuture(
+                    GravatarProfileBatchResult.failure(
+                        index, request.hashesOrIds[index], GravatarProfileBatchStatus.NotFound, 404,
+                        "Gravatar API error: Profile not found"
+                    )
+                )
+                else -> CompletableFuture.completedFuture(success(request, index))
+            }
+        }
+
+        assertEquals(
+            listOf(
+                GravatarProfileBatchStatus.Failed, GravatarProfileBatchStatus.Failed,
+                GravatarProfileBatchStatus.NotFound, GravatarProfileBatchStatus.Success
+            ),
+            results.map { it.status }
+        )
+        assertEquals("Illegal character in path", results[0].errorMessage.get())
+        assertEquals("RuntimeException", results[1].errorMessage.get())
+        assertEquals(0, results[1].statusCode)
+        assertTrue(results[3].profile.isPresent)
+    }
+
+    /**
+     * Tests that an exception thrown by the consumer cancels requests in flight.
+     */
+    @Test
+    fun testConsumerExceptionCancels() {
+        val request = GravatarProfileBatchRequest.from(ids(10)).setConcurrency(3)
+        val futures = List(10) { CompletableFuture<GravatarProfileBatchResult>() }
+        futures[0].complete(success(request, 0))
+
+        assertThrows(IllegalStateException::class.java) {
+            request.forEachResult({ futures[it] }, { throw IllegalStateException() })
+        }
+        assertTrue(futures[1].isCancelled)
+        assertTrue(futures[2].isCancelled)
+        assertFalse(futures[3].isDone)
+    }
+
+    /**
+     * Tests that interrupting the calling thread stops the batch.
+     */
+    @Test
+    fun testInterrupted() {
+        val request = GravatarProfileBatchRequest.from(ids(2))
+        val never = CompletableFuture<GravatarProfileBatchResult>()
+
+        Thread.currentThread().interrupt()
+        assertThrows(GravatarJavaClientException::class.java) { collect(request) { never } }
+        assertTrue(Thread.interrupted())
+        assertTrue(never.isCancelled)
+    }
+
+    /**
+     * Tests for the equals, hashCode, and toString methods.
+     */
+    @Test
+    fun testEqualsHashCodeAndToString() {
+        val one = GravatarProfileBatchRequest.from(listOf("a", "b")).setToken("myApiToken")
+        val equal = GravatarProfileBatchRequest.from(listOf("a", "b")).setToken("myApiToken")
+        val different = GravatarProfileBatchRequest.from(listOf("a", "b")).setConcurrency(2)
+
+        assertEquals(one, equal)
+        assertEquals(one.hashCode(), equal.hashCode())
+        assertNotEquals(one, different)
+        assertNotEquals(one, Object())
+
+        val pool = GravatarTokenPool.of("alpha", "bravo")
+        val pooled = GravatarProfileBatchRequest.from(listOf("a", "b")).setToken("myApiToken").setTokenPool(pool)
+        assertEquals(GravatarProfileBatchRequest.from(listOf("a", "b")).setTokenPool(pool), pooled)
+        assertNotEquals(one, pooled)
+        assertEquals(one, pooled.setToken("myApiToken"))
+        assertEquals(
+            "GravatarProfileBatchRequest{requestCount=2, token=myApi..., concurrency=8, resultOrder=InputOrder}",
+            one.toString()
+        )
+    }
+
+    companion object {
+        /**
+         * The profile returned by fake requests.
+         */
+        private val profile = GravatarProfile(
+            "hash", null, "url", null, null, null, null, null, null, null, null, null, null, null,
+            null, null, false, null, null, null, null, null, 0, null, null
+        )
+
+        /**
+         * Returns the provided number of distinct IDs.
+         */
+        private fun ids(count: Int) = List(count) { "id$it" }
+
+        /**
+         * Returns a successful result for the provided index of the provided request.
+         */
+        private fun success(request: GravatarProfileBatchRequest, index: Int) =
+            GravatarProfileBatchResult.success(index, request.hashesOrIds[index], 200, profile)
+
+        /**
+         * Returns a fetcher completing each index successfully after a delay which decreases with the index.
+         */
+        private fun delayed(request: GravatarProfileBatchRequest): (Int) -> CompletableFuture<GravatarProfileBatchResult> {
+            val executor = CompletableFuture.delayedExecutor(0, TimeUnit.MILLISECONDS)
+            return { index ->
+                CompletableFuture.supplyAsync({
+                    Thread.sleep(((50 - index) % 6).toLong())
+                    success(request, index)
+                }, executor)
+            }
+        }
+
+        /**
+         * Runs the provided request with the provided fetcher and returns the delivered results.
+         */
+        private fun collect(
+            request: GravatarProfileBatchRequest,
+            fetcher: (Int) -> CompletableFuture<GravatarProfileBatchResult>
+        ): List<GravatarProfileBatchResult> {
+            val results = mutableListOf<GravatarProfileBatchResult>()
+            request.forEachResult({ fetcher(it) }, { results.add(it) })
+            return results
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.natche.gravatarjavaclient.profile
+
+import com.github.natche.gravatarjavaclient.enums.GravatarProfileBatchStatus
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+
+/**
+ * Tests for [GravatarProfileBatchResult]s.
+ */
+class GravatarProfileBatchResultTest {
+    /**
+     * Tests for construction and the accessor methods.
+     */
+    @Test
+    fun testConstructionAndAccessors() {
+        assertThrows(NullPointerException::class.java) { GravatarProfileBatchResult.success(0, "id", 200, null) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarProfileBatchResult.success(-1, "id", 200, profile) }
+        assertThrows(IllegalArgumentException::class.java) {
+            GravatarProfileBatchResult.failure(0, "id", GravatarProfileBatchStatus.Success, 200, "message")
+        }
+        assertThrows(NullPointerException::class.java) {
+            GravatarProfileBatchResult.failure(0, "id", GravatarProfileBatchStatus.Failed, 0, null)
+        }
+
+        val success = GravatarProfileBatchResult.success(3, "id", 200, profile)
+        assertEquals(3, success.index)
+        assertEquals("id", success.hashOrId)
+        assertTrue(success.isSuccess)
+        assertEquals(profile, success.profile.get())
+        assertFalse(success.errorMessage.isPresent)
+
+        val failure = GravatarProfileBatchResult.failure(1, "id", GravatarProfileBatchStatus.RateLimited, 429, "slow")
+        assertFalse(failure.isSuccess)
+        assertEquals(GravatarProfileBatchStatus.RateLimited, failure.status)
+        assertEquals(429, failure.statusCode)
+        assertFalse(failure.profile.isPresent)
+        assertEquals("slow", failure.errorMessage.get())
+    }
+
+    /**
+     * Tests for the equals, hashCode, and toString methods.
+     */
+    @Test
+    fun testEqualsHashCodeAndToString() {
+        val one = GravatarProfileBatchResult.failure(1, "id", GravatarProfileBatchStatus.NotFound, 404, "missing")
+        val equal = GravatarProfileBatchResult.failure(1, "id", GravatarProfileBatchStatus.NotFound, 404, "missing")
+        val different = GravatarProfileBatchResult.failure(2, "id", GravatarProfileBatchStatus.NotFound, 404, "missing")
+
+        assertEquals(one, equal)
+        assertEquals(one.hashCode(), equal.hashCode())
+        assertNotEquals(one, different)
+        assertNotEquals(one, GravatarProfileBatchResult.success(1, "id", 200, profile))
+        assertEquals(
+            "GravatarProfileBatchResult{index=1, hashOrId=\"id\", status=NotFound, statusCode=404, errorMessage=\"missing\"}",
+            one.toString()
+        )
+        assertEquals(
+            "GravatarProfileBatchResult{index=1, hashOrId=\"id\", status=Success, statusCode=200}",
+            GravatarProfileBatchResult.success(1, "id", 200, profile).toString()
+        )
+    }
+
+    companion object {
+        /**
+         * A minimal profile.
+         */
+        private val profile = GravatarProfile(
+            "hash", null, "url", null, null, null, null, null, null, null, null, null, null, null,
+            null, null, false, null, null, null, null, null, 0, null, null
+        )
+    }
+}
@@ -0,0 +1,397 @@
+package com.github.natche.gravatarjavaclient.profile
+
+import com.github.natche.gravatarjavaclient.enums.GravatarProfileBatchStatus
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentLinkedDeque
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Tests for [GravatarProfileCache]s.
+ */
+class GravatarProfileCacheTest {
+    /**
+     * Tests for construction.
+     */
+    @Test
+    fun testCreation() {
+        assertThrows(NullPointerException::class.java)
+        { GravatarProfileCache.create(null, Duration.ZERO, Duration.ZERO, 1) }
+        assertThrows(IllegalArgumentException::class.java)
+        { GravatarProfileCache.create(Duration.ZERO, Duration.ZERO, Duration.ZERO, 1) }
+        assertThrows(IllegalArgumentException::class.java)
+        { GravatarProfileCache.create(Duration.ofSeconds(1), Duration.ofSeconds(-1), Duration.ZERO, 1) }
+        assertThrows(IllegalArgumentException::class.java)
+        { GravatarProfileCache.create(Duration.ofSeconds(1), Duration.ZERO, Duration.ZERO, 0) }
+        assertThrows(NullPointerException::class.java) { GravatarProfileCache.create().getProfile(null) }
+
+        assertEquals(
+            "GravatarProfileCache{timeToLive=PT5M, staleWhileRevalidate=PT5M, negativeTimeToLive=PT1M, maxEntries=10000}",
+            GravatarProfileCache.create().toString()
+        )
+    }
+
+    /**
+     * Tests that fresh entries are served without fetching, keyed by hash and token.
+     */
+    @Test
+    fun testHitsAndScopes() {
+        val fake = FakeApi()
+        val cache = fake.cache()
+
+        val first = cache.getProfile(GravatarProfileRequest.from("one"))
+        assertSame(first, cache.getProfile(GravatarProfileRequest.from("one")))
+        assertEquals(1, fake.requests.size)
+
+        cache.getProfile(GravatarProfileRequest.from("one").setToken("tokenA"))
+        cache.getProfile(GravatarProfileRequest.from("one").setToken("tokenB"))
+        cache.getProfile(GravatarProfileRequest.from("one").setToken("tokenA"))
+        assertEquals(listOf(null to "one", "tokenA" to "one", "tokenB" to "one"), fake.requests)
+
+        assertTrue(cache.invalidate(GravatarProfileRequest.from("one")))
+        assertFalse(cache.invalidate(GravatarProfileRequest.from("one")))
+        cache.getProfile(GravatarProfileRequest.from("one"))
+        assertEquals(4, fake.requests.size)
+
+        assertEquals(GravatarProfileCacheStatistics(3, 2, 0, 4, 0, 0, 0), cache.statistics)
+        cache.clear()
+        assertEquals(0, cache.statistics.entryCount)
+    }
+
+    /**
+     * Tests that expired entries are served while one background request revalidates them.
+     */
+    @Test
+    fun testStaleWhileRevalidate() {
+        val fake = FakeApi(manual = true)
+        val cache = fake.cache()
+        fake.complete("one", fake.getAsync(cache, "one"))
+        val original = cache.getProfile(GravatarProfileRequest.from("one"))
+
+        fake.ticks.addAndGet(ttl.toNanos() + 1)
+        assertSame(original, cache.getProfile(GravatarProfileRequest.from("one")))
+        assertSame(original, cache.getProfile(GravatarProfileRequest.from("one")))
+        assertEquals(2, fake.requests.size)
+
+        fake.pending.removeFirst().complete(success("one", "https://gravatar.com/updated"))
+        val updated = cache.getProfile(GravatarProfileRequest.from("one"))
+        assertEquals("https://gravatar.com/updated", updated.profileUrl)
+
+        // Beyond the stale window a lookup waits for the API
+        fake.ticks.addAndGet(ttl.toNanos() + stale.toNanos())
+        val waiting = fake.getAsync(cache, "one")
+        assertFalse(waiting.isDone)
+        fake.pending.removeFirst().complete(success("one", "https://gravatar.com/latest"))
+        assertEquals("https://gravatar.com/latest", waiting.get(1, TimeUnit.SECONDS).profileUrl)
+
+        val statistics = cache.statistics
+        assertEquals(2, statistics.staleHitCount)
+        assertEquals(1, statistics.refreshCount)
+        assertEquals(2, statistics.missCount)
+    }
+
+    /**
+     * Tests that a failed revalidation keeps serving the stale entry and may be retried.
+     */
+    @Test
+    fun testFailedRevalidation() {
+        val fake = FakeApi()
+        val cache = fake.cache()
+        val original = cache.getProfile(GravatarProfileRequest.from("one"))
+
+        fake.ticks.addAndGet(ttl.toNanos() + 1)
+        fake.failWith = GravatarProfileBatchStatus.RateLimited
+        assertSame(original, cache.getProfile(GravatarProfileRequest.from("one")))
+        assertSame(original, cache.getProfile(GravatarProfileRequest.from("one")))
+        assertEquals(3, fake.requests.size)
+        assertEquals(2, cache.statistics.refreshCount)
+    }
+
+    /**
+     * Tests that an expired profile is served past the stale-while-revalidate window while the circuit
+     * breaker is open, and that other failures are still thrown.
+     */
+    @Test
+    fun testServesExpiredWhileCircuitOpen() {
+        val fake = FakeApi()
+        val cache = fake.cache()
+        val original = cache.getProfile(GravatarProfileRequest.from("one"))
+
+        fake.ticks.addAndGet(ttl.toNanos() + stale.toNanos() + 1)
+        fake.failWith = GravatarProfileBatchStatus.CircuitOpen
+        assertSame(original, cache.getProfile(GravatarProfileRequest.from("one")))
+        assertEquals(1, cache.statistics.staleHitCount)
+        assertThrows(GravatarJavaClientException::class.java) { cache.getProfile(GravatarProfileRequest.from("two")) }
+
+        fake.failWith = GravatarProfileBatchStatus.Failed
+        assertThrows(GravatarJavaClientException::class.java) { cache.getProfile(GravatarProfileRequest.from("one")) }
+    }
+
+    /**
+     * Tests that profiles which do not exist are remembered for the negative time to live, and other
+     * failures are not cached.
+     */
+    @Test
+    fun testNegativeCaching() {
+        val fake = FakeApi()
+        val cache = fake.cache()
+        fake.failWith = GravatarProfileBatchStatus.NotFound
+
+        repeat(3) {
+            val exception = assertThrows(GravatarJavaClientException::class.java)
+            { cache.getProfile(GravatarProfileRequest.from("missing")) }
+            assertEquals("Gravatar API error: Profile not found", exception.message)
+        }
+        assertEquals(1, fake.requests.size)
+
+        fake.ticks.addAndGet(negativeTtl.toNanos())
+        fake.failWith = null
+        assertEquals("https://gravatar.com/missing", cache.getProfile(GravatarProfileRequest.from("missing")).profileUrl)
+
+        fake.failWith = GravatarProfileBatchStatus.Failed
+        repeat(2) {
+            assertThrows(GravatarJavaClientException::class.java) { cache.getProfile(GravatarProfileRequest.from("two")) }
+        }
+        assertEquals(4, fake.requests.size)
+    }
+
+    /**
+     * Tests that entries nearing expiry are revalidated early when their fetch was slow.
+     */
+    @Test
+    fun testEarlyRefresh() {
+        val fake = FakeApi(fetchNanos = Duration.ofSeconds(1).toNanos())
+        val never = fake.cache(beta = 0.0)
+        never.getProfile(GravatarProfileRequest.from("one"))
+        fake.ticks.addAndGet(ttl.toNanos() - 1)
+        never.getProfile(GravatarProfileRequest.from("one"))
+        assertEquals(0, never.statistics.earlyRefreshCount)
+
+        val fake2 = FakeApi(fetchNanos = Duration.ofSeconds(1).toNanos())
+        val cache = fake2.cache(beta = 1.0)
+        cache.getProfile(GravatarProfileRequest.from("one"))
+        // Far from expiry an early refresh is practically impossible
+        repeat(1000) { cache.getProfile(GravatarProfileRequest.from("one")) }
+        assertEquals(0, cache.statistics.earlyRefreshCount)
+
+        // Within a fraction of the fetch time of expiry one is nearly certain
+        fake2.ticks.addAndGet(ttl.toNanos() - Duration.ofSeconds(2).toNanos())
+        repeat(1000) { cache.getProfile(GravatarProfileRequest.from("one")) }
+        fake2.ticks.addAndGet(Duration.ofMillis(1999).toNanos())
+        repeat(1000) { cache.getProfile(GravatarProfileRequest.from("one")) }
+        assertTrue(cache.statistics.earlyRefreshCount >= 1)
+        assertEquals(0, cache.statistics.staleHitCount)
+        assertTrue(fake2.requests.size >= 2)
+    }
+
+    /**
+     * Tests that concurrent lookups of a missing entry share one request.
+     */
+    @Test
+    fun testConcurrentMissesShareRequest() {
+        val fake = FakeApi(manual = true)
+        val cache = fake.cache()
+        val executor = Executors.newFixedThreadPool(8)
+        val started = CountDownLatch(8)
+        val futures = (0 until 8).map {
+            executor.submit<GravatarProfile> {
+                started.countDown()
+                cache.getProfile(GravatarProfileRequest.from("one"))
+            }
+        }
+        started.await()
+        while (fake.pending.isEmpty()) Thread.onSpinWait()
+        Thread.sleep(50)
+        fake.pending.removeFirst().complete(success("one", "https://gravatar.com/one"))
+
+        val profiles = futures.map { it.get(5, TimeUnit.SECONDS) }
+        executor.shutdown()
+        assertEquals(1, fake.requests.size)
+        assertTrue(profiles.all { it === profiles[0] })
+    }
+
+    /**
+     * Tests that the least recently used entries are evicted beyond the maximum.
+     */
+    @Test
+    fun testEviction() {
+        val fake = FakeApi()
+        val cache = fake.cache(maxEntries = 2)
+        cache.getProfile(GravatarProfileRequest.from("one"))
+        cache.getProfile(GravatarProfileRequest.from("two"))
+        cache.getProfile(GravatarProfileRequest.from("one"))
+        cache.getProfile(GravatarProfileRequest.from("three"))
+
+        assertEquals(1, cache.statistics.evictionCount)
+        cache.getProfile(GravatarProfileRequest.from("one"))
+        assertEquals(3, fake.requests.size)
+        cache.getProfile(GravatarProfileRequest.from("two"))
+        assertEquals(4, fake.requests.size)
+    }
+
+    /**
+     * Tests that listeners follow the profiles stored, evicted, invalidated, and cleared.
+     */
+    @Test
+    fun testListeners() {
+        val fake = FakeApi()
+        val cache = fake.cache(maxEntries = 2)
+        val events = mutableListOf<String>()
+        val listener = object : GravatarProfileCacheListener {
+            override fun onStore(key: String, profile: GravatarProfile) {
+                events.add("store $key ${profile.hash}")
+            }
+
+            override fun onRemove(key: String) {
+                events.add("remove $key")
+            }
+        }
+        assertThrows(NullPointerException::class.java) { cache.addListener(null) }
+        assertThrows(NullPointerException::class.java) { cache.removeListener(null) }
+
+        cache.getProfile(GravatarProfileRequest.from("one"))
+        cache.addListener(listener)
+        assertEquals(listOf("store -/one one"), events)
+
+        cache.getProfile(GravatarProfileRequest.from("two"))
+        cache.getProfile(GravatarProfileRequest.from("three"))
+        cache.invalidate(GravatarProfileRequest.from("two"))
+        cache.invalidate(GravatarProfileRequest.from("two"))
+        assertEquals(listOf("store -/one one", "store -/two two", "store -/three three", "remove -/one",
+            "remove -/two"), events)
+
+        events.clear()
+        fake.ticks.addAndGet(ttl.plus(stale).toNanos())
+        fake.failWith = GravatarProfileBatchStatus.NotFound
+        assertThrows(GravatarJavaClientException::class.java) { cache.getProfile(GravatarProfileRequest.from("three")) }
+        assertThrows(GravatarJavaClientException::class.java) { cache.getProfile(GravatarProfileRequest.from("four")) }
+        assertEquals(listOf("remove -/three"), events)
+
+        events.clear()
+        assertTrue(cache.removeListener(listener))
+        assertFalse(cache.removeListener(listener))
+        cache.clear()
+        assertTrue(events.isEmpty())
+    }
+
+    /**
+     * Tests that clearing a cache notifies listeners of every entry.
+     */
+    @Test
+    fun testListenersOnClear() {
+        val fake = FakeApi()
+        val cache = fake.cache()
+        val removed = mutableListOf<String>()
+        cache.addListener(object : GravatarProfileCacheListener {
+            override fun onStore(key: String, profile: GravatarProfile) {}
+
+            override fun onRemove(key: String) {
+                removed.add(key)
+            }
+        })
+
+        cache.getProfile(GravatarProfileRequest.from("one"))
+        cache.getProfile(GravatarProfileRequest.from("one").setToken("token"))
+        cache.clear()
+        assertEquals(
+            setOf(GravatarProfileRequest.keyOf(null, "one"), GravatarProfileRequest.keyOf("token", "one")),
+            removed.toSet()
+        )
+    }
+
+    /**
+     * Tests for the statistics of a cache.
+     */
+    @Test
+    fun testStatistics() {
+        assertThrows(IllegalArgumentException::class.java) { GravatarProfileCacheStatistics(0, 0, 0, 0, 0, 1, 0) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarProfileCacheStatistics(-1, 0, 0, 0, 0, 0, 0) }
+
+        val statistics = GravatarProfileCacheStatistics(3, 6, 2, 2, 1, 1, 0)
+        assertEquals(0.8, statistics.hitRate, 1e-9)
+        assertEquals(0.0, GravatarProfileCacheStatistics(0, 0, 0, 0, 0, 0, 0).hitRate)
+        assertEquals(statistics, GravatarProfileCacheStatistics(3, 6, 2, 2, 1, 1, 0))
+        assertEquals(statistics.hashCode(), GravatarProfileCacheStatistics(3, 6, 2, 2, 1, 1, 0).hashCode())
+        assertNotEquals(statistics, GravatarProfileCacheStatistics(3, 6, 2, 2, 1, 1, 1))
+        assertEquals(
+            "GravatarProfileCacheStatistics{entryCount=3, hitCount=6, staleHitCount=2, missCount=2, "
+                    + "refreshCount=1, earlyRefreshCount=1, evictionCount=0}",
+            statistics.toString()
+        )
+    }
+
+    /**
+     * A fake profile API driven by a fake ticker.
+     */
+    private class FakeApi(val manual: Boolean = false, val fetchNanos: Long = 0) {
+        val ticks = AtomicLong()
+        val requests = mutableListOf<Pair<String?, String>>()
+        val pending = ConcurrentLinkedDeque<CompletableFuture<GravatarProfileBatchResult>>()
+        var failWith: GravatarProfileBatchStatus? = null
+
+        fun cache(maxEntries: Int = 100, beta: Double = 0.0) = GravatarProfileCache(
+            ttl, stale, negativeTtl, maxEntries, beta, { ticks.get() }
+        ) { token, hashOrId ->
+            synchronized(requests) { requests.add(token to hashOrId) }
+            ticks.addAndGet(fetchNanos)
+            val status = failWith
+            when {
+                manual -> CompletableFuture<GravatarProfileBatchResult>().also { pending.add(it) }
+                status == null -> CompletableFuture.completedFuture(success(hashOrId, "https://gravatar.com/$hashOrId"))
+                else -> CompletableFuture.completedFuture(
+                    GravatarProfileBatchResult.failure(
+                        0, hashOrId, status, 0,
+                        if (status == GravatarProfileBatchStatus.NotFound) "Gravatar API error: Profile not found"
+                        else "Gravatar API error: HTTP 500"
+                    )
+                )
+            }
+        }
+
+        fun getAsync(cache: GravatarProfileCache, hashOrId: String): CompletableFuture<GravatarProfile> {
+            val before = pending.size
+            val future = CompletableFuture.supplyAsync { cache.getProfile(GravatarProfileRequest.from(hashOrId)) }
+            while (pending.size == before && !future.isDone) Thread.onSpinWait()
+            return future
+        }
+
+        fun complete(hashOrId: String, future: CompletableFuture<GravatarProfile>) {
+            pending.removeFirst().complete(success(hashOrId, "https://gravatar.com/$hashOrId"))
+            future.get(1, TimeUnit.SECONDS)
+        }
+    }
+
+    companion object {
+        /**
+         * The time to live of caches under test.
+         */
+        private val ttl = Duration.ofMinutes(5)
+
+        /**
+         * The stale-while-revalidate window of caches under test.
+         */
+        private val stale = Duration.ofMinutes(1)
+
+        /**
+         * The negative time to live of caches under test.
+         */
+        private val negativeTtl = Duration.ofSeconds(30)
+
+        /**
+         * Returns a successful result for a profile with the provided hash and URL.
+         */
+        private fun success(hash: String, url: String) = GravatarProfileBatchResult.success(
+            0, hash, 200, GravatarProfile(
+                hash, null, url, null, null, null, null, null, null, null, null, null, null, null,
+                null, null, false, null, null, null, null, null, 0, null, null
+            )
+        )
+    }
+}
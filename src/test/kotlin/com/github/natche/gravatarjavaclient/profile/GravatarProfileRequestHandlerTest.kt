@@ -1,9 +1,22 @@
 package com.github.natche.gravatarjavaclient.profile
 
+import com.github.natche.gravatarjavaclient.enums.GravatarProfileBatchStatus
 import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException
+import com.github.natche.gravatarjavaclient.profile.ratelimit.GravatarTokenPool
+import com.google.gson.JsonParseException
 import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNotEquals
 import org.junit.jupiter.api.Assertions.assertThrows
 import org.junit.jupiter.api.Test
+import java.io.ByteArrayInputStream
+import java.io.InputStream
+import java.net.URI
+import java.net.http.HttpClient
+import java.net.http.HttpHeaders
+import java.net.http.HttpRequest
+import java.net.http.HttpResponse
+import java.util.Optional
+import javax.net.ssl.SSLSession
 
 /**
  * Tests for the [GravatarProfileRequestHandler].
@@ -33,4 +46,131 @@ class GravatarProfileRequestHandlerTest {
         assertThrows(IllegalArgumentException::class.java)
         { GravatarProfileRequestHandler.INSTANCE.getProfile("", "  ") }
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests for reading successful responses, including descriptions which mention errors.
+     */
+    @Test
+    fun testReadProfile() {
+        val body = """
+            {
+                "hash": "c83512d02db256cc5afb78376147ea0f2ea02e6a4e3399b980dea3bef9fc6168",
+                "profile_url": "https://gravatar.com/nathanvcheshire",
+                "description": "I fix error messages; {\"error\": \"not really\"}",
+                "gallery": [{"url": "https://gravatar.com/one.png", "alt_text": "error"}]
+            }
+        """.trimIndent()
+
+        val profile = GravatarProfileRequestHandler.INSTANCE.readProfile(200, stream(body))
+        assertEquals("I fix error messages; {\"error\": \"not really\"}", profile.description)
+        assertEquals(1, profile.gallery.size)
+    }
+
+    /**
+     * Tests for reading responses which are not successful or not profiles.
+     */
+    @Test
+    fun testReadProfileErrors() {
+        fun messageOf(statusCode: Int, body: String) = assertThrows(GravatarJavaClientException::class.java) {
+            GravatarProfileRequestHandler.INSTANCE.readProfile(statusCode, stream(body))
+        }.message
+
+        assertEquals(
+            "Gravatar API error: Profile not found",
+            messageOf(404, """{"code": "not_found", "error": "Profile not found"}""")
+        )
+        assertEquals("Gravatar API error: HTTP 429", messageOf(429, """{"error": {"nested": true}}"""))
+        assertEquals("Gravatar API error: HTTP 502", messageOf(502, "<html>Bad Gateway</html>"))
+        assertEquals("Gravatar API error: HTTP 500", messageOf(500, ""))
+        assertEquals("Empty profile response", messageOf(200, ""))
+        assertThrows(JsonParseException::class.java)
+        { GravatarProfileRequestHandler.INSTANCE.readProfile(200, stream("""{"hash": """)) }
+    }
+
+    /**
+     * Tests that a rate limited request is re-reserved and resent after the pause it asked for,
+     * a bounded number of times, rather than thrown.
+     */
+    @Test
+    fun testRateLimitedRequestsAreResent() {
+        val body = """{"hash": "hash", "profile_url": "https://gravatar.com/hash"}"""
+        val pool = GravatarTokenPool.of("alpha", "bravo")
+        val statusCodes = ArrayDeque(listOf(429, 200))
+        val tokens = mutableListOf<String>()
+        val profile = GravatarProfileRequestHandler.INSTANCE.fetch({
+            val token = pool.acquire()
+            tokens.add(token)
+            val response = response(statusCodes.removeFirst(), body, "retry-after" to "30")
+            pool.update(token, response.statusCode(), response.headers())
+            response
+        }, GravatarProfileRequestHandler.INSTANCE::readProfile)
+
+        assertEquals("hash", profile.hash)
+        // The first token is quarantined for the 30 seconds the server asked for, so the resend uses the other
+        assertEquals(2, tokens.size)
+        assertNotEquals(tokens[0], tokens[1])
+
+        var sent = 0
+        val exception = assertThrows(GravatarJavaClientException::class.java) {
+            GravatarProfileRequestHandler.INSTANCE.fetch({
+                sent++
+                response(429, "", "retry-after" to "0")
+            }, GravatarProfileRequestHandler.INSTANCE::readProfile)
+        }
+        assertEquals("Gravatar API error: HTTP 429", exception.message)
+        assertEquals(4, sent)
+    }
+
+    /**
+     * Tests for reading the results of batch items.
+     */
+    @Test
+    fun testReadBatchResult() {
+        fun resultOf(statusCode: Int, body: String) =
+            GravatarProfileRequestHandler.INSTANCE.readBatchResult(4, "hash", statusCode, body.toByteArray())
+
+        val success = resultOf(200, """{"hash": "hash", "profile_url": "https://gravatar.com/hash"}""")
+        assertEquals(GravatarProfileBatchStatus.Success, success.status)
+        assertEquals(4, success.index)
+        assertEquals("https://gravatar.com/hash", success.profile.get().profileUrl)
+
+        val notFound = resultOf(404, """{"error": "Profile not found"}""")
+        assertEquals(GravatarProfileBatchStatus.NotFound, notFound.status)
+        assertEquals("Gravatar API error: Profile not found", notFound.errorMessage.get())
+        assertEquals(GravatarProfileBatchStatus.Unauthorized, resultOf(401, "").status)
+        assertEquals(GravatarProfileBatchStatus.Unauthorized, resultOf(403, "").status)
+        assertEquals(GravatarProfileBatchStatus.RateLimited, resultOf(429, "").status)
+        assertEquals(GravatarProfileBatchStatus.Failed, resultOf(502, "").status)
+        assertEquals("Gravatar API error: HTTP 502", resultOf(502, "").errorMessage.get())
+        assertEquals(GravatarProfileBatchStatus.Failed, resultOf(200, """{"hash": """).status)
+        assertEquals("Empty profile response", resultOf(200, "").errorMessage.get())
+    }
+
+    companion object {
+        /**
+         * Returns a stream of the UTF-8 bytes of the provided string.
+         */
+        private fun stream(body: String) = ByteArrayInputStream(body.toByteArray())
+
+        /**
+         * Returns a response with the provided status code, body, and headers.
+         */
+        private fun response(statusCode: Int, body: String, vararg headers: Pair<String, String>) =
+            object : HttpResponse<InputStream> {
+                override fun statusCode() = statusCode
+                override fun request(): HttpRequest = HttpRequest.newBuilder(URI.create(URL)).build()
+                override fun previousResponse() = Optional.empty<HttpResponse<InputStream>>()
+                override fun headers(): HttpHeaders =
+                    HttpHeaders.of(headers.associate { it.first to listOf(it.second) }) { _, _ -> true }
+                override fun body(): InputStream = stream(body)
+                override fun sslSession() = Optional.empty<SSLSession>()
+                override fun uri(): URI = URI.create(URL)
+                override fun version() = HttpClient.Version.HTTP_1_1
+            }
+
+        /**
+         * The URL of fake responses.
+         */
+        private const val URL = "https://api.gravatar.com/v3/profiles/hash"
+    }
+}
@@ -1,6 +1,8 @@
 package com.github.natche.gravatarjavaclient.profile
 
 import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile
+import com.github.natche.gravatarjavaclient.profile.store.GravatarProfileStore
 import com.google.gson.Gson
 import org.junit.jupiter.api.Assertions.*
 import org.junit.jupiter.api.Test
@@ -57,6 +59,30 @@ internal constructor() {
         { GravatarProfileRequest.from("hash").setToken("") }
     }
 
+    /**
+     * Tests for consulting a store before the Gravatar Profile API.
+     */
+    @Test
+    fun testSetStore() {
+        assertThrows(NullPointerException::class.java) { GravatarProfileRequest.from("hash").setStore(null) }
+
+        val root = Files.createTempDirectory("profile_request_store")
+        GravatarProfileStore.open(root).use { store ->
+            val stored = GravatarProfile(
+                "stored-hash", null, "https://gravatar.com/stored", null, null, null, null, null, null, null,
+                null, null, null, null, null, null, false, null, null, null, null, null, 0, null, null
+            )
+            store.put(GravatarProfileRequest.keyOf(null, "stored-hash"), stored)
+
+            assertEquals(stored, GravatarProfileRequest.from("stored-hash").setStore(store).profile)
+            assertTrue(GravatarProfileRequest.keyOf(null, "hash").startsWith("-/"))
+            val authenticatedKey = GravatarProfileRequest.keyOf("token", "hash")
+            assertFalse(authenticatedKey.contains("token"))
+            assertTrue(authenticatedKey.endsWith("/hash"))
+        }
+        root.toFile().deleteRecursively()
+    }
+
     /**
      * Tests for the get hash or ID method.
      */
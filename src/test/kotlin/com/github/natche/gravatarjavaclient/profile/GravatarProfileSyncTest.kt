@@ -0,0 +1,291 @@
+package com.github.natche.gravatarjavaclient.profile
+
+import com.github.natche.gravatarjavaclient.enums.GravatarProfileBatchStatus
+import com.github.natche.gravatarjavaclient.enums.GravatarProfileChangeType
+import com.github.natche.gravatarjavaclient.enums.GravatarProfileField
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile
+import com.github.natche.gravatarjavaclient.profile.sync.GravatarProfileChange
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+import java.time.ZoneId
+import java.time.ZoneOffset
+import java.util.concurrent.CompletableFuture
+
+/**
+ * Tests for the [GravatarProfileSync].
+ */
+class GravatarProfileSyncTest {
+    /**
+     * Tests for configuring a sync.
+     */
+    @Test
+    fun testConfiguration() {
+        val sync = GravatarProfileSync.create()
+        assertThrows(NullPointerException::class.java) { sync.setToken(null) }
+        assertThrows(IllegalArgumentException::class.java) { sync.setToken(" ") }
+        assertThrows(IllegalArgumentException::class.java) { sync.setConcurrency(0) }
+        assertThrows(NullPointerException::class.java) { sync.setRefreshIntervals(null, Duration.ofDays(1)) }
+        assertThrows(NullPointerException::class.java) { sync.setRefreshIntervals(Duration.ofDays(1), null) }
+        assertThrows(IllegalArgumentException::class.java) { sync.setRefreshIntervals(Duration.ZERO, Duration.ofDays(1)) }
+        assertThrows(IllegalArgumentException::class.java) {
+            sync.setRefreshIntervals(Duration.ofDays(2), Duration.ofDays(1))
+        }
+        assertThrows(IllegalArgumentException::class.java) { sync.setMaxRefreshesPerSync(0) }
+        assertThrows(NullPointerException::class.java) { sync.syncDue(null) }
+
+        assertEquals(
+            "GravatarProfileSync{size=0, concurrency=4, minRefreshInterval=PT1H, maxRefreshInterval=PT720H,"
+                    + " maxRefreshesPerSync=100}",
+            sync.setConcurrency(4)
+                .setRefreshIntervals(Duration.ofHours(1), Duration.ofDays(30))
+                .setMaxRefreshesPerSync(100)
+                .toString()
+        )
+    }
+
+    /**
+     * Tests for tracking and untracking profiles.
+     */
+    @Test
+    fun testTrack() {
+        val api = FakeApi()
+        val sync = api.sync()
+        assertThrows(NullPointerException::class.java) { sync.track(null) }
+        assertThrows(IllegalArgumentException::class.java) { sync.track(" ") }
+        assertThrows(NullPointerException::class.java) { sync.track("one", null) }
+        assertThrows(NullPointerException::class.java) { sync.untrack(null) }
+
+        assertTrue(sync.track("one"))
+        assertFalse(sync.track("one"))
+        assertTrue(sync.track("two", profile("two")))
+        assertFalse(sync.track("two", profile("two")))
+        assertEquals(2, sync.size())
+        assertEquals(1, sync.dueCount)
+        assertEquals(api.clock.instant, sync.getNextRefresh("one").get())
+        assertEquals(profile("two"), sync.getProfile("two").get())
+        assertTrue(sync.getProfile("one").isEmpty)
+        assertTrue(sync.getNextRefresh("three").isEmpty)
+        assertFalse(sync.recordAccess("three"))
+
+        assertTrue(sync.untrack("one"))
+        assertFalse(sync.untrack("one"))
+        assertEquals(1, sync.size())
+        assertEquals(0, sync.dueCount)
+    }
+
+    /**
+     * Tests for the change feed.
+     */
+    @Test
+    fun testChangeFeed() {
+        val api = FakeApi()
+        val sync = api.sync()
+        val changes = mutableListOf<GravatarProfileChange>()
+        api.profiles["one"] = profile("one", displayName = "One")
+        sync.track("one")
+
+        assertEquals(1, sync.syncDue { changes.add(it) })
+        assertEquals(GravatarProfileChangeType.Added, changes.single().type)
+        assertTrue(changes.single().previous.isEmpty)
+        assertEquals(profile("one", displayName = "One"), changes.single().current.get())
+        assertEquals(
+            listOf(GravatarProfileField.Hash, GravatarProfileField.DisplayName, GravatarProfileField.ProfileUrl,
+                GravatarProfileField.Organization, GravatarProfileField.NumberVerifiedAccounts),
+            changes.single().fieldChanges.map { it.field }
+        )
+        assertEquals(0, sync.syncDue { changes.add(it) })
+
+        changes.clear()
+        api.clock.advance(Duration.ofHours(1))
+        assertEquals(1, sync.syncDue { changes.add(it) })
+        assertTrue(changes.isEmpty())
+
+        api.clock.advance(Duration.ofDays(1))
+        api.profiles["one"] = profile("one", displayName = "Uno")
+        sync.syncDue { changes.add(it) }
+        val updated = changes.single()
+        assertEquals(GravatarProfileChangeType.Updated, updated.type)
+        assertEquals(GravatarProfileField.DisplayName, updated.fieldChanges.single().field)
+        assertEquals("One", updated.fieldChanges.single().previousValue.get())
+        assertEquals("Uno", updated.fieldChanges.single().currentValue.get())
+        assertEquals(api.clock.instant, updated.detectedAt)
+        assertEquals(profile("one", displayName = "Uno"), sync.getProfile("one").get())
+
+        changes.clear()
+        api.clock.advance(Duration.ofDays(1))
+        api.profiles.remove("one")
+        sync.syncDue { changes.add(it) }
+        assertEquals(GravatarProfileChangeType.Removed, changes.single().type)
+        assertTrue(changes.single().current.isEmpty)
+        assertTrue(sync.getProfile("one").isEmpty)
+
+        changes.clear()
+        api.clock.advance(Duration.ofDays(1))
+        sync.syncDue { changes.add(it) }
+        assertTrue(changes.isEmpty())
+        assertEquals(5, api.requests.size)
+    }
+
+    /**
+     * Tests for scheduling refreshes from the time since a profile last changed.
+     */
+    @Test
+    fun testAdaptiveSchedule() {
+        val api = FakeApi()
+        val sync = api.sync()
+        val now = api.clock.instant
+
+        sync.track("dormant", profile("dormant", lastProfileEdit = now.minus(Duration.ofDays(365))))
+        sync.track("active", profile("active", lastProfileEdit = now.minus(Duration.ofHours(4))))
+        sync.track("fresh", profile("fresh", lastProfileEdit = now))
+        assertEquals(now.plus(GravatarProfileSync.DEFAULT_MAX_REFRESH_INTERVAL), sync.getNextRefresh("dormant").get())
+        assertEquals(now.plus(Duration.ofHours(2)), sync.getNextRefresh("active").get())
+        assertEquals(now.plus(GravatarProfileSync.DEFAULT_MIN_REFRESH_INTERVAL), sync.getNextRefresh("fresh").get())
+
+        // An unchanged profile is refreshed at geometrically growing intervals
+        api.profiles["fresh"] = profile("fresh", lastProfileEdit = now)
+        val intervals = mutableListOf<Duration>()
+        for (i in 0 until 4) {
+            val due = sync.getNextRefresh("fresh").get()
+            api.clock.instant = due
+            sync.syncDue {}
+            intervals.add(Duration.between(due, sync.getNextRefresh("fresh").get()))
+        }
+        assertEquals(
+            listOf(Duration.ofMinutes(15), Duration.ofMinutes(15), Duration.ofSeconds(1350), Duration.ofSeconds(2025)),
+            intervals
+        )
+    }
+
+    /**
+     * Tests that a profile tracked only by its hash is scheduled from its last edit once first fetched.
+     */
+    @Test
+    fun testFirstFetchSchedule() {
+        val api = FakeApi()
+        val sync = api.sync()
+        val now = api.clock.instant
+        api.profiles["dormant"] = profile("dormant", lastProfileEdit = now.minus(Duration.ofDays(365)))
+        api.profiles["active"] = profile("active", lastProfileEdit = now.minus(Duration.ofHours(4)))
+        api.profiles["unedited"] = profile("unedited")
+        listOf("dormant", "active", "unedited", "missing").forEach { sync.track(it) }
+
+        assertEquals(4, sync.syncDue {})
+        assertEquals(now.plus(GravatarProfileSync.DEFAULT_MAX_REFRESH_INTERVAL), sync.getNextRefresh("dormant").get())
+        assertEquals(now.plus(Duration.ofHours(2)), sync.getNextRefresh("active").get())
+        assertEquals(now.plus(GravatarProfileSync.DEFAULT_MIN_REFRESH_INTERVAL), sync.getNextRefresh("unedited").get())
+        assertEquals(now.plus(GravatarProfileSync.DEFAULT_MIN_REFRESH_INTERVAL), sync.getNextRefresh("missing").get())
+    }
+
+    /**
+     * Tests for refreshing frequently read profiles sooner.
+     */
+    @Test
+    fun testAccessWeighting() {
+        val api = FakeApi()
+        val sync = api.sync()
+        val edited = api.clock.instant.minus(Duration.ofDays(2))
+        api.profiles["hot"] = profile("hot", lastProfileEdit = edited)
+        api.profiles["cold"] = profile("cold", lastProfileEdit = edited)
+        sync.track("hot", api.profiles["hot"]!!)
+        sync.track("cold", api.profiles["cold"]!!)
+        assertEquals(sync.getNextRefresh("hot"), sync.getNextRefresh("cold"))
+
+        for (i in 0 until 3) sync.getProfile("hot")
+        api.clock.advance(Duration.ofDays(1))
+        assertEquals(2, sync.syncDue {})
+
+        val now = api.clock.instant
+        assertEquals(now.plus(Duration.ofHours(36)), sync.getNextRefresh("cold").get())
+        // Three reads a day ago weigh 1.5, so the interval is divided by 2.5
+        assertEquals(now.plus(Duration.ofMinutes(864)), sync.getNextRefresh("hot").get())
+    }
+
+    /**
+     * Tests for backing off failed refreshes and limiting refreshes per sync.
+     */
+    @Test
+    fun testFailuresAndLimits() {
+        val api = FakeApi()
+        val sync = api.sync().setMaxRefreshesPerSync(2)
+        for (i in 0 until 5) sync.track("profile-$i")
+        api.failWith = GravatarProfileBatchStatus.RateLimited
+
+        assertEquals(2, sync.syncDue {})
+        assertEquals(3, sync.dueCount)
+        assertEquals(2, sync.syncDue {})
+        assertEquals(1, sync.syncDue {})
+        assertEquals(0, sync.dueCount)
+
+        sync.setMaxRefreshesPerSync(GravatarProfileSync.DEFAULT_MAX_REFRESHES_PER_SYNC)
+        val start = api.clock.instant
+        assertEquals(start.plus(Duration.ofMinutes(15)), sync.getNextRefresh("profile-0").get())
+        api.clock.instant = sync.getNextRefresh("profile-0").get()
+        sync.syncDue {}
+        assertEquals(api.clock.instant.plus(Duration.ofMinutes(30)), sync.getNextRefresh("profile-0").get())
+        api.clock.instant = sync.getNextRefresh("profile-0").get()
+        sync.syncDue {}
+        assertEquals(api.clock.instant.plus(Duration.ofMinutes(60)), sync.getNextRefresh("profile-0").get())
+
+        api.failWith = null
+        api.profiles["profile-0"] = profile("profile-0")
+        api.clock.instant = sync.getNextRefresh("profile-0").get()
+        val changes = mutableListOf<GravatarProfileChange>()
+        sync.syncDue { changes.add(it) }
+        assertEquals(listOf(GravatarProfileChangeType.Added), changes.map { it.type })
+        assertEquals(api.clock.instant.plus(Duration.ofMinutes(15)), sync.getNextRefresh("profile-0").get())
+    }
+
+    /**
+     * A clock whose instant is set by the test.
+     */
+    private class MutableClock(var instant: Instant) : Clock() {
+        override fun getZone(): ZoneId = ZoneOffset.UTC
+
+        override fun withZone(zone: ZoneId?): Clock = this
+
+        override fun instant(): Instant = instant
+
+        fun advance(duration: Duration) {
+            instant = instant.plus(duration)
+        }
+    }
+
+    /**
+     * A fake Gravatar Profile API serving the profiles in a map.
+     */
+    private class FakeApi {
+        val clock = MutableClock(Instant.parse("2030-01-01T00:00:00Z"))
+        val profiles = mutableMapOf<String, GravatarProfile>()
+        val requests = mutableListOf<String>()
+        var failWith: GravatarProfileBatchStatus? = null
+
+        fun sync() = GravatarProfileSync(clock) { _, hashOrId ->
+            synchronized(requests) { requests.add(hashOrId) }
+            val profile = profiles[hashOrId]
+            val status = failWith
+            CompletableFuture.completedFuture(
+                when {
+                    status != null -> GravatarProfileBatchResult.failure(0, hashOrId, status, 429, "Rate limited")
+                    profile != null -> GravatarProfileBatchResult.success(0, hashOrId, 200, profile)
+                    else -> GravatarProfileBatchResult.failure(
+                        0, hashOrId, GravatarProfileBatchStatus.NotFound, 404, "Gravatar API error: Profile not found"
+                    )
+                }
+            )
+        }
+    }
+
+    companion object {
+        /**
+         * Returns a minimal profile with the provided hash, display name, and last edit.
+         */
+        fun profile(hash: String, displayName: String? = null, lastProfileEdit: Instant? = null) = GravatarProfile(
+            hash, displayName, "https://gravatar.com/$hash", null, null, null, null, null, null, null, null, null,
+            null, null, null, null, false, null, null, null, null, null, 0, lastProfileEdit?.toString(), null
+        )
+    }
+}
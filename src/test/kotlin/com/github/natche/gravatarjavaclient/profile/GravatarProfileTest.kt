@@ -212,6 +212,42 @@ class GravatarProfileTest {
                 + " registrationDate=\"2023-09-11T19:46:13Z\"}", profileEmptyLists.toString())
     }
 
+    /**
+     * Tests for holding timestamps as epoch seconds.
+     */
+    @Test
+    fun testWithEpochTimestamps() {
+        val profile = GravatarProfile(
+            "hash123", "Test User", "https://gravatar.com/testuser",
+            "https://gravatar.com/avatar/hash123", "Test User's avatar", "New York",
+            "A test user", "Software Developer", "Test Company", emptyList(),
+            "test yoo-zer", "they/them", "America/New_York", emptyList(),
+            "Test", "User", false, emptyList(), emptyList(),
+            null, null, emptyList(), 0,
+            "2024-09-11T19:46:13Z", "2023-09-11T19:46:13.250Z"
+        )
+        val compact = profile.withEpochTimestamps()
+
+        assertNotSame(profile, compact)
+        assertEquals(profile, compact)
+        assertEquals(profile.hashCode(), compact.hashCode())
+        assertEquals(profile.toString(), compact.toString())
+        assertEquals(Instant.parse("2024-09-11T19:46:13Z"), compact.lastProfileEdit.get())
+        assertEquals("2024-09-11T19:46:13Z", profile.lastProfileEditText.get())
+        assertFalse(compact.lastProfileEditText.isPresent)
+        // Fractional seconds are kept as text
+        assertEquals("2023-09-11T19:46:13.250Z", compact.registrationDateText.get())
+        assertEquals(Instant.parse("2023-09-11T19:46:13.250Z"), compact.registrationDate.get())
+        assertSame(compact, compact.withEpochTimestamps())
+
+        val undated = GravatarProfile(
+            "hash", null, "url", null, null, null, null, null, null, null, null, null, null, null,
+            null, null, false, null, null, null, null, null, 0, "2024-09-11T19:46:13+00:00", null
+        )
+        assertSame(undated, undated.withEpochTimestamps())
+        assertFalse(undated.registrationDateText.isPresent)
+    }
+
     /**
      * Tests for the equals method.
      */
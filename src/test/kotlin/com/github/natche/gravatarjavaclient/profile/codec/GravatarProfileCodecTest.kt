@@ -0,0 +1,169 @@
+package com.github.natche.gravatarjavaclient.profile.codec
+
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException
+import com.github.natche.gravatarjavaclient.profile.gson.GravatarProfileTypeAdapterTest
+import com.github.natche.gravatarjavaclient.profile.gson.GsonProvider
+import com.github.natche.gravatarjavaclient.profile.serialization.*
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.nio.BufferOverflowException
+import java.nio.ByteBuffer
+import java.time.format.DateTimeParseException
+
+/**
+ * Tests for the [GravatarProfileCodec].
+ */
+class GravatarProfileCodecTest {
+    /**
+     * Tests that decoded profiles equal the encoded ones and serialize to the same JSON.
+     */
+    @Test
+    fun testRoundTripMatchesGson() {
+        val gson = GsonProvider.INSTANCE.get()
+        for (json in listOf(
+            GravatarProfileTypeAdapterTest.fullProfile,
+            GravatarProfileTypeAdapterTest.withoutOrganization,
+            GravatarProfileTypeAdapterTest.withOrganizationTrue,
+        )) {
+            val profile = gson.fromJson(json, GravatarProfile::class.java)
+            val decoded = GravatarProfileCodec.INSTANCE.decode(GravatarProfileCodec.INSTANCE.encode(profile))
+
+            assertEquals(profile, decoded)
+            assertEquals(gson.toJson(profile), gson.toJson(decoded))
+        }
+
+        val minimal = GravatarProfile(
+            "hash", null, "url", null, null, null, null, null, null, listOf(), null, null, null, listOf(),
+            null, null, true, listOf(), listOf(), GravatarProfilePayments(listOf(), listOf()), null, listOf(),
+            -3, "1969-12-31T23:59:59.123456789Z", "2024-01-01T00:00:00Z"
+        )
+        val decoded = GravatarProfileCodec.INSTANCE.decode(GravatarProfileCodec.INSTANCE.encode(minimal))
+        assertEquals(minimal, decoded)
+        assertEquals(gson.toJson(minimal), gson.toJson(decoded))
+        assertTrue(decoded.isOrganization)
+        assertTrue(decoded.payments.isPresent)
+        assertTrue(decoded.contactInfo.isEmpty)
+    }
+
+    /**
+     * Tests that timestamps are normalized as they are when written as JSON.
+     */
+    @Test
+    fun testTimestampsAreNormalized() {
+        val profile = profile("2024-11-02T17:41:15.000Z")
+        val decoded = GravatarProfileCodec.INSTANCE.decode(GravatarProfileCodec.INSTANCE.encode(profile))
+        assertEquals(profile.lastProfileEdit, decoded.lastProfileEdit)
+        assertEquals(
+            GsonProvider.INSTANCE.get().toJson(profile),
+            GsonProvider.INSTANCE.get().toJson(decoded)
+        )
+    }
+
+    /**
+     * Tests that the encoding is smaller than JSON and that repeated strings are stored once.
+     */
+    @Test
+    fun testCompactness() {
+        val gson = GsonProvider.INSTANCE.get()
+        val profile = gson.fromJson(GravatarProfileTypeAdapterTest.fullProfile, GravatarProfile::class.java)
+        val encoded = GravatarProfileCodec.INSTANCE.encode(profile)
+        assertTrue(encoded.remaining() < gson.toJson(profile).toByteArray().size)
+
+        val one = GravatarProfileCodec.INSTANCE.encodeAll(listOf(profile)).remaining()
+        val ten = GravatarProfileCodec.INSTANCE.encodeAll(List(10) { profile })
+        assertTrue(ten.remaining() < 2 * one)
+
+        val decoded = GravatarProfileCodec.INSTANCE.decodeAll(ten)
+        assertEquals(10, decoded.size)
+        assertTrue(decoded.all { it == profile })
+        assertSame(decoded[0].verifiedAccounts[0].serviceIcon, decoded[9].verifiedAccounts[0].serviceIcon)
+        assertFalse(ten.hasRemaining())
+        assertTrue(GravatarProfileCodec.INSTANCE.decodeAll(GravatarProfileCodec.INSTANCE.encodeAll(listOf())).isEmpty())
+    }
+
+    /**
+     * Tests encoding into and decoding from positioned buffers.
+     */
+    @Test
+    fun testBufferPositions() {
+        val profile = profile(null)
+        val size = GravatarProfileCodec.INSTANCE.encode(profile).remaining()
+
+        val target = ByteBuffer.allocateDirect(size + 10)
+        target.position(3)
+        assertEquals(size, GravatarProfileCodec.INSTANCE.encode(profile, target))
+        assertEquals(size + 3, target.position())
+        target.put(7)
+
+        target.flip().position(3)
+        assertEquals(profile, GravatarProfileCodec.INSTANCE.decode(target))
+        assertEquals(size + 3, target.position())
+        assertEquals(7, target.get().toInt())
+
+        val small = ByteBuffer.allocate(size - 1)
+        assertThrows(BufferOverflowException::class.java) { GravatarProfileCodec.INSTANCE.encode(profile, small) }
+        assertEquals(0, small.position())
+    }
+
+    /**
+     * Tests for invalid arguments and malformed encodings.
+     */
+    @Test
+    fun testMalformedEncodings() {
+        assertThrows(NullPointerException::class.java) { GravatarProfileCodec.INSTANCE.encode(null) }
+        assertThrows(NullPointerException::class.java) { GravatarProfileCodec.INSTANCE.encodeAll(listOf(null)) }
+        assertThrows(NullPointerException::class.java) { GravatarProfileCodec.INSTANCE.decode(null) }
+        assertThrows(DateTimeParseException::class.java)
+        { GravatarProfileCodec.INSTANCE.encode(profile("yesterday")) }
+
+        val bytes = GravatarProfileCodec.INSTANCE.encode(profile("2024-01-01T00:00:00Z")).array()
+        for (length in bytes.indices) {
+            assertThrows(GravatarJavaClientException::class.java)
+            { GravatarProfileCodec.INSTANCE.decode(ByteBuffer.wrap(bytes, 0, length)) }
+        }
+
+        val wrongMagic = bytes.copyOf().also { it[0] = 'X'.code.toByte() }
+        assertEquals(
+            "Malformed profile encoding: missing magic",
+            assertThrows(GravatarJavaClientException::class.java)
+            { GravatarProfileCodec.INSTANCE.decode(ByteBuffer.wrap(wrongMagic)) }.message
+        )
+
+        val wrongVersion = bytes.copyOf().also { it[3] = 2 }
+        assertEquals(
+            "Unsupported profile encoding version: 2",
+            assertThrows(GravatarJavaClientException::class.java)
+            { GravatarProfileCodec.INSTANCE.decode(ByteBuffer.wrap(wrongVersion)) }.message
+        )
+
+        val hugeCount = byteArrayOf('G'.code.toByte(), 'P'.code.toByte(), 'C'.code.toByte(), 1, -1, -1, -1, -1, 7)
+        assertThrows(GravatarJavaClientException::class.java)
+        { GravatarProfileCodec.INSTANCE.decode(ByteBuffer.wrap(hugeCount)) }
+
+        // The registration date is the last field, so its absent tag is replaced by seconds beyond any instant
+        val withoutDates = GravatarProfileCodec.INSTANCE.encode(profile(null)).array()
+        val hugeSeconds = byteArrayOf(1, -2, -1, -1, -1, -1, -1, -1, -1, -1, 1)
+        val corruptTimestamp = withoutDates.copyOf(withoutDates.size - 1) + hugeSeconds
+        assertEquals(
+            "Malformed profile encoding: timestamp out of range",
+            assertThrows(GravatarJavaClientException::class.java)
+            { GravatarProfileCodec.INSTANCE.decode(ByteBuffer.wrap(corruptTimestamp)) }.message
+        )
+
+        val two = GravatarProfileCodec.INSTANCE.encodeAll(listOf(profile(null), profile(null)))
+        assertThrows(GravatarJavaClientException::class.java) { GravatarProfileCodec.INSTANCE.decode(two) }
+    }
+
+    companion object {
+        /**
+         * Returns a profile with a verified account and the provided last profile edit.
+         */
+        private fun profile(lastProfileEdit: String?) = GravatarProfile(
+            "hash", "name", "url", null, null, null, null, null, null,
+            listOf(GravatarProfileVerifiedAccount("github", "GitHub", "icon", "https://github.com/user")),
+            null, null, null, listOf(), null, null, false, listOf(), listOf(), null,
+            GravatarProfileContactInfo("", "", "", "someone@example.com", "", ""), listOf(),
+            1, lastProfileEdit, null
+        )
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Tests for the binary encoding of Gravatar profiles.
+ */
+package com.github.natche.gravatarjavaclient.profile.codec;
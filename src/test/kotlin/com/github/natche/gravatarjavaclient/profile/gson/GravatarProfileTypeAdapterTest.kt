@@ -0,0 +1,253 @@
+package com.github.natche.gravatarjavaclient.profile.gson
+
+import com.github.natche.gravatarjavaclient.profile.serialization.*
+import com.google.gson.Gson
+import com.google.gson.GsonBuilder
+import com.google.gson.JsonParseException
+import com.google.gson.JsonParser
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.time.Instant
+
+/**
+ * Tests for the [GravatarProfileTypeAdapter].
+ */
+class GravatarProfileTypeAdapterTest {
+    /**
+     * Tests for deserialization of the is_organization field being
+     * not present, present but false, and present but true.
+     */
+    @Test
+    fun testDeserializationOfIsOrganization() {
+        assertDoesNotThrow { GsonProvider.INSTANCE.get().fromJson(withoutOrganization, GravatarProfile::class.java) }
+        assertDoesNotThrow { GsonProvider.INSTANCE.get().fromJson(withOrganizationFalse, GravatarProfile::class.java) }
+        assertDoesNotThrow { GsonProvider.INSTANCE.get().fromJson(withOrganizationTrue, GravatarProfile::class.java) }
+
+        assertFalse(GsonProvider.INSTANCE.get().fromJson(withoutOrganization, GravatarProfile::class.java).isOrganization)
+        assertFalse(GsonProvider.INSTANCE.get().fromJson(withOrganizationFalse, GravatarProfile::class.java).isOrganization)
+        assertTrue(GsonProvider.INSTANCE.get().fromJson(withOrganizationTrue, GravatarProfile::class.java).isOrganization)
+    }
+
+    /**
+     * Tests for reading every member of a profile.
+     */
+    @Test
+    fun testRead() {
+        val profile = GsonProvider.INSTANCE.get().fromJson(fullProfile, GravatarProfile::class.java)
+
+        assertEquals("c83512d02db256cc5afb78376147ea0f2ea02e6a4e3399b980dea3bef9fc6168", profile.hash)
+        assertEquals("Nathan Cheshire", profile.displayName)
+        assertEquals("https://gravatar.com/nathanvcheshire", profile.profileUrl)
+        assertEquals("America/Chicago", profile.timezone.get())
+        assertEquals("Nathan", profile.firstName.get())
+        assertEquals("Cheshire", profile.lastName.get())
+        assertEquals(2, profile.numberVerifiedAccounts)
+        assertEquals(Instant.parse("2024-11-02T17:41:15Z"), profile.lastProfileEdit.get())
+        assertEquals(Instant.parse("2017-06-13T00:03:44Z"), profile.registrationDate.get())
+        assertEquals(
+            listOf(GravatarProfileVerifiedAccount("github", "GitHub", "https://gravatar.com/icons/github.svg",
+                "https://github.com/NathanCheshire")),
+            profile.verifiedAccounts
+        )
+        assertEquals(listOf(GravatarProfileLanguage("en", "English", true, 1)), profile.languages)
+        assertEquals(listOf(GravatarProfileUrl("Blog", "https://example.com/blog")), profile.links)
+        assertEquals(listOf(GravatarProfileInterest(7, "kotlin")), profile.interests)
+        assertEquals(listOf(GravatarProfileGalleryImage("https://example.com/one.png", "")), profile.gallery)
+        assertEquals(
+            GravatarProfilePayments(
+                listOf(GravatarProfileUrl("Tips", "https://example.com/tip")),
+                listOf(GravatarCryptoWalletAddress("BTC", "bc1qxy2kgdygjrsqtzq2n0yrf"))
+            ),
+            profile.payments.get()
+        )
+        assertEquals(GravatarProfileContactInfo("", "", "", "someone@example.com", "", ""), profile.contactInfo.get())
+    }
+
+    /**
+     * Tests that unknown members, JSON nulls, and invalid list entries are skipped.
+     */
+    @Test
+    fun testReadSkipsUnknownNullAndInvalidMembers() {
+        val json = """
+            {
+                "unknown_object": {"nested": [1, 2, {"hash": "not this one"}]},
+                "hash": "hash",
+                "display_name": null,
+                "profile_url": "https://gravatar.com/user",
+                "payments": null,
+                "links": [
+                    {"label": "", "value": "https://example.com/empty-label"},
+                    null,
+                    {"label": "Kept", "value": "https://example.com/kept", "extra": true},
+                    {"value": "https://example.com/missing-label"}
+                ],
+                "languages": null,
+                "interests": [{"id": 1, "name": " "}, {"id": 2, "name": "kept"}],
+                "unknown_array": [[], {}]
+            }
+        """.trimIndent()
+
+        val profile = GsonProvider.INSTANCE.get().fromJson(json, GravatarProfile::class.java)
+        assertEquals("hash", profile.hash)
+        assertNull(profile.displayName)
+        assertTrue(profile.payments.isEmpty)
+        assertTrue(profile.languages.isEmpty())
+        assertEquals(listOf(GravatarProfileUrl("Kept", "https://example.com/kept")), profile.links)
+        assertEquals(listOf(GravatarProfileInterest(2, "kept")), profile.interests)
+
+        assertThrows(JsonParseException::class.java)
+        { GsonProvider.INSTANCE.get().fromJson("""{"profile_url": "url"}""", GravatarProfile::class.java) }
+        assertThrows(JsonParseException::class.java)
+        { GsonProvider.INSTANCE.get().fromJson("""{"hash": "hash"}""", GravatarProfile::class.java) }
+        assertThrows(JsonParseException::class.java)
+        { GsonProvider.INSTANCE.get().fromJson("""{"label": ""}""", GravatarProfileUrl::class.java) }
+        assertNull(GsonProvider.INSTANCE.get().fromJson("null", GravatarProfile::class.java))
+    }
+
+    /**
+     * Tests that written profiles read back equal and match the output of reflective serialization.
+     */
+    @Test
+    fun testWrite() {
+        val gson = GsonProvider.INSTANCE.get()
+        val profile = gson.fromJson(fullProfile, GravatarProfile::class.java)
+        val written = gson.toJson(profile)
+
+        assertEquals(profile, gson.fromJson(written, GravatarProfile::class.java))
+        assertEquals(JsonParser.parseString(Gson().toJson(profile)), JsonParser.parseString(written))
+        assertEquals(Gson().toJson(profile), written)
+
+        val minimal = gson.fromJson(withoutOrganization, GravatarProfile::class.java)
+        assertEquals(Gson().toJson(minimal), gson.toJson(minimal))
+        assertEquals(minimal, gson.fromJson(gson.toJson(minimal), GravatarProfile::class.java))
+
+        val withNulls = GsonBuilder().serializeNulls().create()
+        assertEquals(
+            JsonParser.parseString(withNulls.toJson(minimal)),
+            JsonParser.parseString(
+                GsonProvider.INSTANCE.get().newBuilder().serializeNulls().create().toJson(minimal)
+            )
+        )
+        assertEquals("null", gson.toJson(null as GravatarProfile?, GravatarProfile::class.java))
+    }
+
+    companion object {
+        val fullProfile =
+            """
+                {
+                    "hash": "c83512d02db256cc5afb78376147ea0f2ea02e6a4e3399b980dea3bef9fc6168",
+                    "display_name": "Nathan Cheshire",
+                    "profile_url": "https://gravatar.com/nathanvcheshire",
+                    "avatar_url": "https://0.gravatar.com/avatar/2bf1b7a19bcad06a8e894d7373a4cfc7",
+                    "avatar_alt_text": "West of Loathing character",
+                    "location": "New Orleans",
+                    "description": "I make the computer go beep boop and then people ask me to fix their printer.",
+                    "job_title": "Lead software engineer",
+                    "company": "Natche Group",
+                    "verified_accounts": [
+                        {
+                            "service_type": "github",
+                            "service_label": "GitHub",
+                            "service_icon": "https://gravatar.com/icons/github.svg",
+                            "url": "https://github.com/NathanCheshire"
+                        }
+                    ],
+                    "pronunciation": "Guess",
+                    "pronouns": "Guess",
+                    "timezone": "America/Chicago",
+                    "languages": [{"code": "en", "name": "English", "is_primary": true, "order": 1}],
+                    "first_name": "Nathan",
+                    "last_name": "Cheshire",
+                    "is_organization": false,
+                    "links": [{"label": "Blog", "value": "https://example.com/blog"}],
+                    "interests": [{"id": 7, "name": "kotlin"}],
+                    "payments": {
+                        "links": [{"label": "Tips", "value": "https://example.com/tip"}],
+                        "crypto_wallets": [{"label": "BTC", "address": "bc1qxy2kgdygjrsqtzq2n0yrf"}]
+                    },
+                    "contact_info": {"email": "someone@example.com"},
+                    "gallery": [{"url": "https://example.com/one.png"}],
+                    "number_verified_accounts": 2,
+                    "last_profile_edit": "2024-11-02T17:41:15Z",
+                    "registration_date": "2017-06-13T00:03:44Z"
+                }
+            """.trimIndent()
+
+        val withoutOrganization =
+            """
+                {
+                    "hash": "c83512d02db256cc5afb78376147ea0f2ea02e6a4e3399b980dea3bef9fc6168",
+                    "display_name": "Nathan Cheshire",
+                    "profile_url": "https://gravatar.com/nathanvcheshire",
+                    "avatar_url": "https://0.gravatar.com/avatar/2bf1b7a19bcad06a8e894d7373a4cfc7",
+                    "avatar_alt_text": "West of Loathing character",
+                    "location": "New Orleans",
+                    "description": "I make the computer go beep boop and then people ask me to fix their printer.",
+                    "job_title": "Lead software engineer",
+                    "company": "Natche Group",
+                    "verified_accounts": [
+                        {
+                            "service_type": "github",
+                            "service_label": "GitHub",
+                            "service_icon": "https://gravatar.com/icons/github.svg",
+                            "url": "https://github.com/NathanCheshire"
+                        }
+                    ],
+                    "pronunciation": "Guess",
+                    "pronouns": "Guess"
+                }
+            """.trimIndent()
+
+        val withOrganizationFalse =
+            """
+                {
+                    "hash": "c83512d02db256cc5afb78376147ea0f2ea02e6a4e3399b980dea3bef9fc6168",
+                    "display_name": "Nathan Cheshire",
+                    "profile_url": "https://gravatar.com/nathanvcheshire",
+                    "avatar_url": "https://0.gravatar.com/avatar/2bf1b7a19bcad06a8e894d7373a4cfc7",
+                    "avatar_alt_text": "West of Loathing character",
+                    "location": "New Orleans",
+                    "description": "I make the computer go beep boop and then people ask me to fix their printer.",
+                    "job_title": "Lead software engineer",
+                    "company": "Natche Group",
+                    "verified_accounts": [
+                        {
+                            "service_type": "github",
+                            "service_label": "GitHub",
+                            "service_icon": "https://gravatar.com/icons/github.svg",
+                            "url": "https://github.com/NathanCheshire"
+                        }
+                    ],
+                    "pronunciation": "Guess",
+                    "pronouns": "Guess",
+                    "is_organization": false
+                }
+            """.trimIndent()
+
+        val withOrganizationTrue =
+            """
+                {
+                    "hash": "c83512d02db256cc5afb78376147ea0f2ea02e6a4e3399b980dea3bef9fc6168",
+                    "display_name": "Nathan Cheshire",
+                    "profile_url": "https://gravatar.com/nathanvcheshire",
+                    "avatar_url": "https://0.gravatar.com/avatar/2bf1b7a19bcad06a8e894d7373a4cfc7",
+                    "avatar_alt_text": "West of Loathing character",
+                    "location": "New Orleans",
+                    "description": "I make the computer go beep boop and then people ask me to fix their printer.",
+                    "job_title": "Lead software engineer",
+                    "company": "Natche Group",
+                    "verified_accounts": [
+                        {
+                            "service_type": "github",
+                            "service_label": "GitHub",
+                            "service_icon": "https://gravatar.com/icons/github.svg",
+                            "url": "https://github.com/NathanCheshire"
+                        }
+                    ],
+                    "pronunciation": "Guess",
+                    "pronouns": "Guess",
+                    "is_organization": true
+                }
+            """.trimIndent()
+    }
+}
\ No newline at end of file
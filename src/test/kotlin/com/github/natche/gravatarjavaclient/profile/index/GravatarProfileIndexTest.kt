@@ -0,0 +1,152 @@
+package com.github.natche.gravatarjavaclient.profile.index
+
+import com.github.natche.gravatarjavaclient.enums.GravatarProfileIndexField
+import com.github.natche.gravatarjavaclient.profile.GravatarProfileCache
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfileInterest
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfileLanguage
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfileVerifiedAccount
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+
+/**
+ * Tests for [GravatarProfileIndex]es.
+ */
+class GravatarProfileIndexTest {
+    /**
+     * Tests for indexing and querying profiles.
+     */
+    @Test
+    fun testFindAndCount() {
+        val index = GravatarProfileIndex.create()
+        assertThrows(NullPointerException::class.java) { GravatarProfileIndex.attach(null) }
+        assertThrows(NullPointerException::class.java) { index.onStore(null, profile("one")) }
+        assertThrows(NullPointerException::class.java) { index.onStore("one", null) }
+        assertThrows(NullPointerException::class.java) { index.onRemove(null) }
+        assertThrows(NullPointerException::class.java) { index.find(null) }
+        assertThrows(NullPointerException::class.java) { index.count(null) }
+        assertThrows(NullPointerException::class.java) { index.getValueCount(null) }
+
+        val alice = profile("alice", "Acme", "Paris", listOf("github", "mastodon"), listOf("en", "fr"), listOf("Chess"))
+        val bob = profile("bob", "acme ", "Berlin", listOf("github"), listOf("de", "en"), listOf())
+        val carol = profile("carol", null, "paris", listOf("twitter"), listOf("fr"), listOf("chess", "hiking"))
+        index.onStore("alice", alice)
+        index.onStore("bob", bob)
+        index.onStore("carol", carol)
+        assertEquals(3, index.size())
+
+        assertEquals(listOf(alice, bob), index.find(GravatarProfileQuery.company("ACME")))
+        assertEquals(listOf(alice, carol), index.find(GravatarProfileQuery.location("Paris")))
+        assertEquals(listOf(alice, bob), index.find(GravatarProfileQuery.hasVerifiedAccount("github")))
+        assertEquals(listOf(alice, carol), index.find(GravatarProfileQuery.interest("chess")))
+        assertEquals(
+            listOf(alice),
+            index.find(GravatarProfileQuery.language("fr").and(GravatarProfileQuery.hasVerifiedAccount("github")))
+        )
+        assertEquals(
+            listOf(bob, carol),
+            index.find(GravatarProfileQuery.location("berlin").or(GravatarProfileQuery.interest("hiking")))
+        )
+        assertEquals(
+            2,
+            index.count(
+                GravatarProfileQuery.language("en")
+                    .and(GravatarProfileQuery.location("paris").or(GravatarProfileQuery.location("berlin")))
+            )
+        )
+        assertEquals(0, index.count(GravatarProfileQuery.company("Initech")))
+        assertEquals(0, index.count(GravatarProfileQuery.company("Initech").and(GravatarProfileQuery.company("acme"))))
+        assertEquals(3, index.getValueCount(GravatarProfileIndexField.VerifiedAccountService))
+        assertEquals(1, index.getValueCount(GravatarProfileIndexField.Company))
+        assertEquals("GravatarProfileIndex{size=3}", index.toString())
+    }
+
+    /**
+     * Tests that replaced and removed profiles leave no stale values behind.
+     */
+    @Test
+    fun testReplaceAndRemove() {
+        val index = GravatarProfileIndex.create()
+        index.onStore("alice", profile("alice", "Acme", "Paris", listOf("github"), listOf("en"), listOf()))
+        index.onStore("bob", profile("bob", "Acme", "Berlin", listOf(), listOf(), listOf()))
+
+        val moved = profile("alice", "Initech", "Paris", listOf("github"), listOf("en"), listOf())
+        index.onStore("alice", moved)
+        assertEquals(listOf(moved), index.find(GravatarProfileQuery.company("initech")))
+        assertEquals(1, index.count(GravatarProfileQuery.company("acme")))
+        assertEquals(2, index.getValueCount(GravatarProfileIndexField.Company))
+
+        index.onRemove("bob")
+        index.onRemove("bob")
+        assertEquals(0, index.count(GravatarProfileQuery.company("acme")))
+        assertEquals(0, index.count(GravatarProfileQuery.location("berlin")))
+        assertEquals(1, index.getValueCount(GravatarProfileIndexField.Company))
+        assertEquals(1, index.size())
+
+        // The freed ID is reused by the next profile
+        val dave = profile("dave", "Acme", null, null, null, null)
+        index.onStore("dave", dave)
+        assertEquals(listOf(moved, dave), index.find(GravatarProfileQuery.company("initech").or(GravatarProfileQuery.company("acme"))))
+
+        index.onRemove("alice")
+        index.onRemove("dave")
+        assertEquals(0, index.size())
+        for (field in GravatarProfileIndexField.values()) assertEquals(0, index.getValueCount(field))
+    }
+
+    /**
+     * Tests that many profiles are indexed and queried correctly.
+     */
+    @Test
+    fun testManyProfiles() {
+        val index = GravatarProfileIndex.create()
+        for (i in 0 until 20_000) {
+            index.onStore(
+                "profile-$i", profile(
+                    "profile-$i", "company-${i % 10}", null,
+                    if (i % 3 == 0) listOf("github") else listOf(), listOf(if (i % 2 == 0) "en" else "fr"), listOf()
+                )
+            )
+        }
+
+        assertEquals(2000, index.count(GravatarProfileQuery.company("company-4")))
+        assertEquals(6667, index.count(GravatarProfileQuery.hasVerifiedAccount("github")))
+        assertEquals(3334, index.count(GravatarProfileQuery.hasVerifiedAccount("github").and(GravatarProfileQuery.language("en"))))
+        assertEquals(13_333, index.count(GravatarProfileQuery.hasVerifiedAccount("github").or(GravatarProfileQuery.language("en"))))
+        assertEquals(
+            (0 until 20_000).filter { it % 10 == 4 && it % 3 == 0 }.map { "profile-$it" },
+            index.find(GravatarProfileQuery.company("company-4").and(GravatarProfileQuery.hasVerifiedAccount("github")))
+                .map { it.hash }
+        )
+    }
+
+    /**
+     * Tests that an attached index follows the profiles held by a cache.
+     */
+    @Test
+    fun testAttach() {
+        val cache = GravatarProfileCache.create()
+        val index = GravatarProfileIndex.attach(cache)
+        assertEquals(0, index.size())
+        cache.clear()
+        assertEquals(0, index.size())
+    }
+
+    companion object {
+        /**
+         * Returns a profile with the provided hash and indexed fields.
+         */
+        fun profile(
+            hash: String, company: String? = null, location: String? = null, services: List<String>? = null,
+            languages: List<String>? = null, interests: List<String>? = null
+        ) = GravatarProfile(
+            hash, null, "https://gravatar.com/$hash", null, null, location, null, null, company,
+            services?.map { GravatarProfileVerifiedAccount(it, it, "https://gravatar.com/icons/$it.svg", "https://$it.com/$hash") },
+            null, null, null,
+            languages?.mapIndexed { order, code -> GravatarProfileLanguage(code, code, order == 0, order) },
+            null, null, false, null,
+            interests?.mapIndexed { id, name -> GravatarProfileInterest(id, name) },
+            null, null, null, 0, null, null
+        )
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.natche.gravatarjavaclient.profile.index
+
+import com.github.natche.gravatarjavaclient.enums.GravatarProfileIndexField
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+
+/**
+ * Tests for [GravatarProfileQuery]s.
+ */
+class GravatarProfileQueryTest {
+    /**
+     * Tests for constructing terms.
+     */
+    @Test
+    fun testTerms() {
+        assertThrows(NullPointerException::class.java) { GravatarProfileQuery.where(null, "github") }
+        assertThrows(NullPointerException::class.java) { GravatarProfileQuery.company(null) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarProfileQuery.location(" ") }
+        assertThrows(NullPointerException::class.java) { GravatarProfileQuery.language("en").and(null) }
+        assertThrows(NullPointerException::class.java) { GravatarProfileQuery.language("en").or(null) }
+
+        assertEquals(
+            GravatarProfileQuery.where(GravatarProfileIndexField.VerifiedAccountService, "github"),
+            GravatarProfileQuery.hasVerifiedAccount(" GitHub ")
+        )
+        assertEquals(
+            GravatarProfileQuery.where(GravatarProfileIndexField.Interest, "hiking").hashCode(),
+            GravatarProfileQuery.interest("Hiking").hashCode()
+        )
+        assertNotEquals(GravatarProfileQuery.company("acme"), GravatarProfileQuery.location("acme"))
+        assertEquals("GravatarProfileQuery{expression=Company=\"acme\"}", GravatarProfileQuery.company("ACME").toString())
+    }
+
+    /**
+     * Tests for combining queries.
+     */
+    @Test
+    fun testCombine() {
+        val github = GravatarProfileQuery.hasVerifiedAccount("github")
+        val english = GravatarProfileQuery.language("en")
+        val french = GravatarProfileQuery.language("fr")
+
+        val query = github.and(english.or(french)).and(GravatarProfileQuery.company("Acme"))
+        assertEquals(
+            "GravatarProfileQuery{expression=(VerifiedAccountService=\"github\" AND (LanguageCode=\"en\""
+                    + " OR LanguageCode=\"fr\") AND Company=\"acme\")}",
+            query.toString()
+        )
+        assertEquals(3, query.operands.size)
+        assertTrue(query.isConjunction)
+        assertFalse(english.or(french).isConjunction)
+        assertEquals(english.or(french), GravatarProfileQuery.language("EN").or(GravatarProfileQuery.language("FR")))
+        assertNotEquals(english.or(french), english.and(french))
+        assertNotEquals(english.or(french), french.or(english))
+    }
+}
@@ -0,0 +1,101 @@
+package com.github.natche.gravatarjavaclient.profile.index
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.util.TreeSet
+import kotlin.random.Random
+
+/**
+ * Tests for [PostingList]s.
+ */
+class PostingListTest {
+    /**
+     * Tests for adding, removing, and iterating IDs.
+     */
+    @Test
+    fun testAddAndRemove() {
+        val list = PostingList()
+        assertThrows(IllegalArgumentException::class.java) { list.add(-1) }
+        assertTrue(list.isEmpty)
+        assertFalse(list.contains(-1))
+        assertFalse(list.remove(-1))
+
+        assertTrue(list.add(70_000))
+        assertTrue(list.add(3))
+        assertTrue(list.add(Int.MAX_VALUE))
+        assertFalse(list.add(3))
+        assertEquals(3, list.cardinality())
+        assertTrue(list.contains(70_000))
+        assertFalse(list.contains(70_001))
+        assertEquals(listOf(3, 70_000, Int.MAX_VALUE), ids(list))
+
+        assertTrue(list.remove(70_000))
+        assertFalse(list.remove(70_000))
+        assertTrue(list.remove(3))
+        assertTrue(list.remove(Int.MAX_VALUE))
+        assertTrue(list.isEmpty)
+        assertEquals("PostingList{cardinality=0, chunkCount=0}", list.toString())
+    }
+
+    /**
+     * Tests that dense chunks are stored as bitmaps and shrink back to arrays.
+     */
+    @Test
+    fun testDenseChunks() {
+        val list = PostingList()
+        for (id in 0 until PostingList.ARRAY_MAX_CARDINALITY) list.add(id * 2)
+        assertEquals(PostingList.ARRAY_MAX_CARDINALITY * 2L + 2, list.sizeInBytes())
+
+        list.add(1)
+        assertEquals(8192 + 2L, list.sizeInBytes())
+        assertEquals(PostingList.ARRAY_MAX_CARDINALITY + 1, list.cardinality())
+        assertTrue(list.contains(1))
+        assertTrue(list.contains(8190))
+        assertFalse(list.contains(8191))
+
+        list.remove(1)
+        assertTrue(list.sizeInBytes() <= PostingList.ARRAY_MAX_CARDINALITY * 2L + 2)
+        assertEquals((0 until PostingList.ARRAY_MAX_CARDINALITY).map { it * 2 }, ids(list))
+    }
+
+    /**
+     * Tests intersections and unions against sets, across sparse and dense chunks.
+     */
+    @Test
+    fun testAndOr() {
+        val random = Random(42)
+        for (density in listOf(0.001, 0.05, 0.5)) {
+            val first = PostingList()
+            val second = PostingList()
+            val firstIds = TreeSet<Int>()
+            val secondIds = TreeSet<Int>()
+            for (id in 0 until 200_000) {
+                if (random.nextDouble() < density) first.add(id).also { firstIds.add(id) }
+                if (random.nextDouble() < density * 2) second.add(id).also { secondIds.add(id) }
+            }
+
+            assertEquals(firstIds.intersect(secondIds).toList(), ids(PostingList.and(first, second)))
+            assertEquals(firstIds.intersect(secondIds).toList(), ids(PostingList.and(second, first)))
+            assertEquals(firstIds.union(secondIds).sorted(), ids(PostingList.or(first, second)))
+            assertEquals(firstIds.union(secondIds).size, PostingList.or(second, first).cardinality())
+        }
+
+        val list = PostingList()
+        list.add(5)
+        assertTrue(PostingList.and(list, PostingList()).isEmpty)
+        val union = PostingList.or(list, PostingList())
+        union.add(6)
+        assertEquals(listOf(5), ids(list))
+    }
+
+    companion object {
+        /**
+         * Returns the IDs of the provided list in order.
+         */
+        private fun ids(list: PostingList): List<Int> {
+            val ids = mutableListOf<Int>()
+            list.forEach { ids.add(it) }
+            return ids
+        }
+    }
+}
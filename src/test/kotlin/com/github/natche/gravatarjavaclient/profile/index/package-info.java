@@ -0,0 +1,4 @@
+/**
+ * Tests for the inverted index of profiles.
+ */
+package com.github.natche.gravatarjavaclient.profile.index;
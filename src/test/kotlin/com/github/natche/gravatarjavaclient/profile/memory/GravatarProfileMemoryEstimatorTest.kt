@@ -0,0 +1,116 @@
+package com.github.natche.gravatarjavaclient.profile.memory
+
+import com.github.natche.gravatarjavaclient.profile.gson.GravatarProfileTypeAdapterTest
+import com.github.natche.gravatarjavaclient.profile.gson.GsonProvider
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile
+import com.google.common.collect.ImmutableList
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+
+/**
+ * Tests for the [GravatarProfileMemoryEstimator].
+ */
+class GravatarProfileMemoryEstimatorTest {
+    /**
+     * Tests the estimate of a minimal profile against its modeled layout.
+     */
+    @Test
+    fun testEstimateBytes() {
+        assertThrows(NullPointerException::class.java) { GravatarProfileMemoryEstimator.INSTANCE.estimateBytes(null) }
+
+        val profile = GravatarProfile(
+            "hash", null, "url", null, null, null, null, null, null, null, null, null, null, null,
+            null, null, false, null, null, null, null, null, 0, null, null
+        )
+        // The profile, two strings each with a 24 byte array, and the empty list shared by every list field
+        assertEquals(128L + 2 * (24 + 24) + 32, GravatarProfileMemoryEstimator.INSTANCE.estimateBytes(profile))
+
+        val nonLatin = GravatarProfile(
+            "hash", "你好", "url", null, null, null, null, null, null, null, null, null, null, null,
+            null, null, false, null, null, null, null, null, 0, null, null
+        )
+        assertEquals(128L + 3 * (24 + 24) + 32, GravatarProfileMemoryEstimator.INSTANCE.estimateBytes(nonLatin))
+
+        // Timestamps held as text are counted as a 24 byte string with a 40 byte array
+        val dated = GravatarProfile(
+            "hash", null, "url", null, null, null, null, null, null, null, null, null, null, null,
+            null, null, false, null, null, null, null, null, 0, "2024-09-11T19:46:13Z", "2023-09-11T19:46:13Z"
+        )
+        assertEquals(
+            128L + 2 * (24 + 24) + 32 + 2 * (24 + 40),
+            GravatarProfileMemoryEstimator.INSTANCE.estimateBytes(dated)
+        )
+        // Timestamps held as epoch seconds are part of the profile itself
+        val compact = dated.withEpochTimestamps()
+        assertEquals(dated, compact)
+        assertEquals(128L + 2 * (24 + 24) + 32, GravatarProfileMemoryEstimator.INSTANCE.estimateBytes(compact))
+
+        // Timestamps which are not ISO-8601 instants are still measured as held
+        val invalid = GravatarProfile(
+            "hash", null, "url", null, null, null, null, null, null, null, null, null, null, null,
+            null, null, false, null, null, null, null, null, 0, "yesterday", null
+        )
+        assertSame(invalid, invalid.withEpochTimestamps())
+        assertEquals(
+            128L + 2 * (24 + 24) + 32 + (24 + 32),
+            GravatarProfileMemoryEstimator.INSTANCE.estimateBytes(invalid)
+        )
+    }
+
+    /**
+     * Tests that interning reduces the bytes retained by each profile and that empty lists are shared.
+     */
+    @Test
+    fun testInterningReducesRetainedBytes() {
+        val json = GravatarProfileTypeAdapterTest.fullProfile
+        val plain = List(100) { GsonProvider.INSTANCE.get().fromJson(json, GravatarProfile::class.java) }
+        val interner = GravatarStringInterner.create()
+        val interningGson = GsonProvider.INSTANCE.create(interner)
+        val interned = List(100) { interningGson.fromJson(json, GravatarProfile::class.java) }
+
+        assertEquals(plain, interned)
+        assertEquals(plain[0].hashCode(), interned[0].hashCode())
+        assertEquals(plain[0].lastProfileEdit, interned[0].lastProfileEdit)
+        assertEquals(plain[0].registrationDate, interned[0].registrationDate)
+        assertTrue(plain[0].lastProfileEditText.isPresent)
+        assertFalse(interned[0].lastProfileEditText.isPresent)
+        assertFalse(interned[0].registrationDateText.isPresent)
+        assertEquals(GsonProvider.INSTANCE.get().toJson(plain[0]), interningGson.toJson(interned[0]))
+        assertSame(interned[0].verifiedAccounts[0].serviceIcon, interned[99].verifiedAccounts[0].serviceIcon)
+        assertSame(interned[0].languages[0].code, interned[99].languages[0].code)
+        assertSame(interned[0].interests[0].name, interned[99].interests[0].name)
+        assertSame(interned[0].links[0].label, interned[99].links[0].label)
+        assertSame(interned[0].timezone.get(), interned[99].timezone.get())
+        assertNotSame(interned[0].description, interned[99].description)
+        assertNotSame(plain[0].verifiedAccounts[0].serviceIcon, plain[99].verifiedAccounts[0].serviceIcon)
+        assertTrue(interner.hitCount > 0)
+
+        val plainReport = GravatarProfileMemoryEstimator.INSTANCE.estimate(plain)
+        val internedReport = GravatarProfileMemoryEstimator.INSTANCE.estimate(interned)
+        assertEquals(100, internedReport.profileCount)
+        assertTrue(internedReport.getRetainedBytes(0) < plainReport.getRetainedBytes(0))
+        assertTrue(internedReport.totalBytes < plainReport.totalBytes)
+        assertTrue(internedReport.sharedBytes > plainReport.sharedBytes)
+        assertTrue(plainReport.getRetainedBytes(0) <= GravatarProfileMemoryEstimator.INSTANCE.estimateBytes(plain[0]))
+
+        val minimal = GsonProvider.INSTANCE.get()
+            .fromJson("""{"hash": "h", "profile_url": "u"}""", GravatarProfile::class.java)
+        assertSame(ImmutableList.of<Any>(), minimal.links)
+        assertSame(ImmutableList.of<Any>(), minimal.gallery)
+    }
+
+    /**
+     * Tests that a profile provided twice is counted as shared.
+     */
+    @Test
+    fun testSharedProfile() {
+        val profile = GsonProvider.INSTANCE.get()
+            .fromJson(GravatarProfileTypeAdapterTest.fullProfile, GravatarProfile::class.java)
+        val report = GravatarProfileMemoryEstimator.INSTANCE.estimate(listOf(profile, profile))
+
+        assertEquals(0, report.getRetainedBytes(0))
+        assertEquals(0, report.getRetainedBytes(1))
+        assertEquals(GravatarProfileMemoryEstimator.INSTANCE.estimateBytes(profile), report.sharedBytes)
+        assertEquals(0, GravatarProfileMemoryEstimator.INSTANCE.estimate(listOf()).totalBytes)
+    }
+}
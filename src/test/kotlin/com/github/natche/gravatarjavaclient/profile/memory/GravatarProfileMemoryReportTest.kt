@@ -0,0 +1,50 @@
+package com.github.natche.gravatarjavaclient.profile.memory
+
+import com.google.common.primitives.ImmutableLongArray
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+
+/**
+ * Tests for [GravatarProfileMemoryReport]s.
+ */
+class GravatarProfileMemoryReportTest {
+    /**
+     * Tests for construction and the accessor methods.
+     */
+    @Test
+    fun testConstructionAndAccessors() {
+        assertThrows(NullPointerException::class.java) { GravatarProfileMemoryReport(null, 0) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarProfileMemoryReport(ImmutableLongArray.of(-1), 0) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarProfileMemoryReport(ImmutableLongArray.of(), -1) }
+
+        val report = GravatarProfileMemoryReport(ImmutableLongArray.of(100, 200), 50)
+        assertEquals(2, report.profileCount)
+        assertEquals(200, report.getRetainedBytes(1))
+        assertEquals(300, report.totalRetainedBytes)
+        assertEquals(150.0, report.averageRetainedBytes)
+        assertEquals(50, report.sharedBytes)
+        assertEquals(350, report.totalBytes)
+        assertEquals(0.0, GravatarProfileMemoryReport(ImmutableLongArray.of(), 0).averageRetainedBytes)
+    }
+
+    /**
+     * Tests for the equals, hashCode, and toString methods.
+     */
+    @Test
+    fun testEqualsHashCodeAndToString() {
+        val one = GravatarProfileMemoryReport(ImmutableLongArray.of(100, 200), 50)
+        val equal = GravatarProfileMemoryReport(ImmutableLongArray.of(100, 200), 50)
+        val different = GravatarProfileMemoryReport(ImmutableLongArray.of(100, 201), 50)
+
+        assertEquals(one, one)
+        assertEquals(one, equal)
+        assertNotEquals(one, different)
+        assertNotEquals(one, Object())
+        assertEquals(one.hashCode(), equal.hashCode())
+        assertNotEquals(one.hashCode(), different.hashCode())
+        assertEquals(
+            "GravatarProfileMemoryReport{profileCount=2, averageRetainedBytes=150.0, sharedBytes=50, totalBytes=350}",
+            one.toString()
+        )
+    }
+}
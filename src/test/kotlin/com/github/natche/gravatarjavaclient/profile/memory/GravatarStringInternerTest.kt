@@ -0,0 +1,89 @@
+package com.github.natche.gravatarjavaclient.profile.memory
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+/**
+ * Tests for [GravatarStringInterner]s.
+ */
+class GravatarStringInternerTest {
+    /**
+     * Tests for construction.
+     */
+    @Test
+    fun testCreation() {
+        assertThrows(IllegalArgumentException::class.java) { GravatarStringInterner.create(-1, 10) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarStringInterner.create(10, -1) }
+
+        val interner = GravatarStringInterner.create()
+        assertEquals(GravatarStringInterner.DEFAULT_CAPACITY, interner.capacity)
+        assertEquals(GravatarStringInterner.DEFAULT_MAX_LENGTH, interner.maxLength)
+        assertSame(GravatarStringInterner.none(), GravatarStringInterner.none())
+    }
+
+    /**
+     * Tests that equal strings are returned as one instance.
+     */
+    @Test
+    fun testIntern() {
+        val interner = GravatarStringInterner.create(10, 8)
+        val first = String("github".toCharArray())
+        val second = String("github".toCharArray())
+        assertNotSame(first, second)
+
+        assertSame(first, interner.intern(first))
+        assertSame(first, interner.intern(second))
+        assertNull(interner.intern(null))
+        assertEquals(1, interner.size)
+        assertEquals(1, interner.hitCount)
+
+        val long = "a".repeat(9)
+        assertSame(long, interner.intern(long))
+        assertNotSame(long, interner.intern(String(long.toCharArray())))
+        assertEquals(1, interner.size)
+
+        val none = GravatarStringInterner.none()
+        assertSame(second, none.intern(second))
+        assertEquals(0, none.size)
+        assertEquals(0, none.rejectionCount)
+    }
+
+    /**
+     * Tests that a full interner keeps its pooled strings and returns unseen ones as they are.
+     */
+    @Test
+    fun testBounded() {
+        val interner = GravatarStringInterner.create(2, 16)
+        interner.intern("one")
+        interner.intern("two")
+
+        val three = String("three".toCharArray())
+        assertSame(three, interner.intern(three))
+        assertNotSame(three, interner.intern(String("three".toCharArray())))
+        assertEquals(2, interner.rejectionCount)
+        assertEquals(2, interner.size)
+        assertSame(interner.intern("one"), interner.intern(String("one".toCharArray())))
+        assertEquals("GravatarStringInterner{size=2, capacity=2, maxLength=16, hits=2, rejections=2}", interner.toString())
+    }
+
+    /**
+     * Tests that threads interning equal strings concurrently all receive the same instance.
+     */
+    @Test
+    fun testConcurrentIntern() {
+        val interner = GravatarStringInterner.create()
+        val executor = Executors.newFixedThreadPool(8)
+        val futures = (0 until 8).map {
+            executor.submit<List<String>> { (0 until 1000).map { interner.intern(String("value${it % 50}".toCharArray())) } }
+        }
+        val results = futures.map { it.get(10, TimeUnit.SECONDS) }
+        executor.shutdown()
+
+        assertEquals(50, interner.size)
+        for (result in results) {
+            for (i in result.indices) assertSame(results[0][i], result[i])
+        }
+    }
+}
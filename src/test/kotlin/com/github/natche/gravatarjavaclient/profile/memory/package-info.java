@@ -0,0 +1,4 @@
+/**
+ * Tests for interning and measuring the memory of Gravatar profiles.
+ */
+package com.github.natche.gravatarjavaclient.profile.memory;
@@ -0,0 +1,154 @@
+package com.github.natche.gravatarjavaclient.profile.ndjson
+
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException
+import com.github.natche.gravatarjavaclient.profile.gson.GsonProvider
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ * Tests for [GravatarProfileNdjsonWriter]s and [GravatarProfileNdjsonReader]s.
+ */
+class GravatarProfileNdjsonTest {
+    /**
+     * Tests for writing profiles and reading them back.
+     */
+    @Test
+    fun testRoundTrip() {
+        val file = tempFile()
+        val profiles = (0 until 5).map { profile(it) }
+
+        GravatarProfileNdjsonWriter.open(file).use { writer ->
+            assertThrows(NullPointerException::class.java) { writer.write(null) }
+            assertThrows(NullPointerException::class.java) { writer.writeAll(null) }
+            writer.write(profiles[0]).writeAll(profiles.drop(1))
+            assertEquals(5, writer.count)
+            assertEquals(file, writer.path)
+            assertEquals("GravatarProfileNdjsonWriter{path=\"$file\", count=5, closed=false}", writer.toString())
+        }
+
+        assertEquals(5, Files.readAllLines(file).size)
+        val reader = GravatarProfileNdjsonReader.create()
+        assertEquals(profiles, reader.readAll(file))
+        assertEquals(profiles, reader.readAll(file, 1))
+
+        val consumed = mutableListOf<GravatarProfile>()
+        assertEquals(5, reader.forEach(file) { consumed.add(it) })
+        assertEquals(profiles, consumed)
+
+        GravatarProfileNdjsonWriter.open(file).close()
+        assertEquals(0, Files.size(file))
+        assertTrue(reader.readAll(file).isEmpty())
+    }
+
+    /**
+     * Tests for reading a file in many chunks.
+     */
+    @Test
+    fun testParallelRead() {
+        val file = tempFile()
+        val profiles = (0 until 2_000).map { profile(it) }
+        GravatarProfileNdjsonWriter.open(file).use { it.writeAll(profiles) }
+
+        for (chunkSize in listOf(1, 100, 4_096, Int.MAX_VALUE)) {
+            val reader = GravatarProfileNdjsonReader(GsonProvider.INSTANCE.get(), chunkSize)
+            assertEquals(profiles, reader.readAll(file, 4))
+            assertEquals(profiles, reader.readAll(file, 64))
+        }
+
+        assertEquals(profiles, GravatarProfileNdjsonReader.create(GsonProvider.INSTANCE.interning).readAll(file))
+    }
+
+    /**
+     * Tests for writing with a Gson object which pretty prints.
+     */
+    @Test
+    fun testPrettyPrintingGson() {
+        val file = tempFile()
+        val pretty = GsonProvider.INSTANCE.get().newBuilder().setPrettyPrinting().create()
+        GravatarProfileNdjsonWriter.open(file, pretty).use { it.writeAll((0 until 3).map { i -> profile(i) }) }
+
+        assertEquals(3, Files.readAllLines(file).size)
+        assertEquals((0 until 3).map { profile(it) }, GravatarProfileNdjsonReader.create(pretty).readAll(file))
+    }
+
+    /**
+     * Tests for blank lines and carriage returns.
+     */
+    @Test
+    fun testLineSeparators() {
+        val file = tempFile()
+        val gson = GsonProvider.INSTANCE.get()
+        Files.writeString(file, "\n" + gson.toJson(profile(0)) + "\r\n  \r\n" + gson.toJson(profile(1)))
+
+        val reader = GravatarProfileNdjsonReader(gson, 8)
+        assertEquals(listOf(profile(0), profile(1)), reader.readAll(file, 4))
+        assertEquals(listOf(profile(0), profile(1)), GravatarProfileNdjsonReader.create().readAll(file))
+    }
+
+    /**
+     * Tests for reading lines which are not profiles.
+     */
+    @Test
+    fun testInvalidLines() {
+        val file = tempFile()
+        val lines = (0 until 100).map { GsonProvider.INSTANCE.get().toJson(profile(it)) }.toMutableList()
+        lines[73] = "{\"hash\": "
+        Files.write(file, lines)
+
+        for (parallelism in listOf(1, 4)) {
+            val reader = GravatarProfileNdjsonReader(GsonProvider.INSTANCE.get(), 256)
+            val e = assertThrows(GravatarJavaClientException::class.java) { reader.readAll(file, parallelism) }
+            assertTrue(e.message!!.startsWith("Invalid profile on line 74: "), e.message)
+        }
+
+        Files.writeString(file, "null\n")
+        assertThrows(GravatarJavaClientException::class.java) { GravatarProfileNdjsonReader.create().readAll(file) }
+        Files.writeString(file, "{}{}\n")
+        assertThrows(GravatarJavaClientException::class.java) { GravatarProfileNdjsonReader.create().readAll(file) }
+    }
+
+    /**
+     * Tests for closed writers and invalid arguments.
+     */
+    @Test
+    fun testPreconditions() {
+        val file = tempFile()
+        assertThrows(NullPointerException::class.java) { GravatarProfileNdjsonWriter.open(null) }
+        assertThrows(NullPointerException::class.java) { GravatarProfileNdjsonWriter.open(file, null) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarProfileNdjsonWriter.open(file.parent) }
+
+        val writer = GravatarProfileNdjsonWriter.open(file)
+        writer.close()
+        assertDoesNotThrow { writer.close() }
+        assertThrows(GravatarJavaClientException::class.java) { writer.write(profile(0)) }
+        assertThrows(GravatarJavaClientException::class.java) { writer.flush() }
+
+        val reader = GravatarProfileNdjsonReader.create()
+        assertThrows(NullPointerException::class.java) { GravatarProfileNdjsonReader.create(null) }
+        assertThrows(NullPointerException::class.java) { reader.readAll(null) }
+        assertThrows(NullPointerException::class.java) { reader.forEach(file, null) }
+        assertThrows(IllegalArgumentException::class.java) { reader.readAll(file.parent) }
+        assertThrows(IllegalArgumentException::class.java) { reader.readAll(file.resolveSibling("missing")) }
+        assertThrows(IllegalArgumentException::class.java) { reader.readAll(file, 0) }
+        assertEquals("GravatarProfileNdjsonReader{chunkSize=4194304}", reader.toString())
+    }
+
+    private companion object {
+        /**
+         * Returns a new file in a new temporary directory.
+         */
+        fun tempFile(): Path = Files.createTempDirectory("ndjson").resolve("profiles.ndjson")
+
+        /**
+         * Returns a profile with the provided number in its hash.
+         */
+        fun profile(number: Int) = GravatarProfile(
+            "hash$number", "Name $number", "https://gravatar.com/hash$number", null, null, "Paris", null, null,
+            "Acme", null, null, null, null, null, null, null, number % 2 == 0, null, null, null, null, null,
+            number % 7, "2030-01-02T00:00:00Z", null
+        )
+    }
+}
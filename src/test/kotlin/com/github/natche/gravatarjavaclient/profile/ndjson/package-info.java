@@ -0,0 +1,4 @@
+/**
+ * Tests for exporting and importing profiles as newline-delimited JSON.
+ */
+package com.github.natche.gravatarjavaclient.profile.ndjson;
@@ -0,0 +1,190 @@
+package com.github.natche.gravatarjavaclient.profile.ratelimit
+
+import com.github.natche.gravatarjavaclient.enums.GravatarRequestAuthentication
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import java.net.http.HttpHeaders
+import java.time.Duration
+import java.time.Instant
+
+/**
+ * Tests for the [GravatarRateLimitGovernor].
+ */
+class GravatarRateLimitGovernorTest {
+    /**
+     * Forgets the budgets left by other tests.
+     */
+    @BeforeEach
+    @AfterEach
+    fun clear() {
+        GravatarRateLimitGovernor.INSTANCE.clear()
+    }
+
+    /**
+     * Tests that requests are not delayed while the budget is unknown.
+     */
+    @Test
+    fun testUnknownBudget() {
+        repeat(100) { assertEquals(Duration.ZERO, governor.reserve(auth, start)) }
+        assertEquals(
+            GravatarRateLimitBudget(auth, -1, -1, null, null),
+            governor.getBudget(auth, start)
+        )
+        assertThrows(NullPointerException::class.java) { governor.reserve(null) }
+    }
+
+    /**
+     * Tests that requests are released in a burst and then spaced across the rest of the window.
+     */
+    @Test
+    fun testSpreadsAcrossWindow() {
+        governor.update(auth, 200, headers(100, 100, start.plusSeconds(100)), start)
+
+        val delays = List(100) { governor.reserve(auth, start) }
+        assertTrue(delays.take(RateLimitWindow.BURST).all { it.isZero })
+        assertTrue(delays[RateLimitWindow.BURST] > Duration.ZERO)
+        for (i in RateLimitWindow.BURST + 1 until 100) assertTrue(delays[i] > delays[i - 1], "request $i")
+        assertTrue(delays.last() <= Duration.ofSeconds(100))
+        assertEquals(0, governor.getBudget(auth, start).remaining.asInt)
+
+        // The exhausted budget waits for the reset, then continues in an assumed hourly window
+        assertEquals(Duration.ofSeconds(100), governor.reserve(auth, start))
+        val budget = governor.getBudget(auth, start)
+        assertEquals(99, budget.remaining.asInt)
+        assertEquals(start.plusSeconds(100).plus(RateLimitWindow.ASSUMED_WINDOW), budget.resetAt.get())
+    }
+
+    /**
+     * Tests that a plentiful budget releases requests at once and that each response corrects the remaining count.
+     */
+    @Test
+    fun testRemainingCorrectedByResponses() {
+        val reset = start.plusSeconds(3600)
+        governor.update(auth, 200, headers(1000, 1000, reset), start)
+        repeat(5) { assertEquals(Duration.ZERO, governor.reserve(auth, start)) }
+        assertEquals(995, governor.getBudget(auth, start).remaining.asInt)
+
+        governor.update(auth, 200, headers(1000, 990, reset), start)
+        assertEquals(990, governor.getBudget(auth, start).remaining.asInt)
+        governor.update(auth, 200, headers(1000, 998, reset), start)
+        assertEquals(990, governor.getBudget(auth, start).remaining.asInt)
+
+        // A new window takes the reported count as it is
+        governor.update(auth, 200, headers(1000, 998, reset.plusSeconds(3600)), start.plusSeconds(3601))
+        assertEquals(998, governor.getBudget(auth, start.plusSeconds(3601)).remaining.asInt)
+
+        // Once the window resets the full limit is available
+        assertEquals(1000, governor.getBudget(auth, reset.plusSeconds(3600)).remaining.asInt)
+    }
+
+    /**
+     * Tests that authenticated and unauthenticated requests draw from separate budgets.
+     */
+    @Test
+    fun testSeparateBudgets() {
+        governor.update(GravatarRequestAuthentication.Authenticated, 200, headers(10, 0, start.plusSeconds(60)), start)
+
+        assertEquals(Duration.ofSeconds(60), governor.reserve(GravatarRequestAuthentication.Authenticated, start))
+        assertEquals(Duration.ZERO, governor.reserve(GravatarRequestAuthentication.Unauthenticated, start))
+        assertFalse(governor.getBudget(GravatarRequestAuthentication.Unauthenticated, start).limit.isPresent)
+        assertEquals(10, governor.getBudget(GravatarRequestAuthentication.Authenticated, start).limit.asInt)
+    }
+
+    /**
+     * Tests that Retry-After headers and 429 responses pause requests.
+     */
+    @Test
+    fun testRetryAfter() {
+        governor.update(auth, 429, headers("retry-after" to "30"), start)
+        assertEquals(start.plusSeconds(30), governor.getBudget(auth, start).pausedUntil.get())
+        assertEquals(Duration.ofSeconds(30), governor.reserve(auth, start))
+        assertEquals(Duration.ofSeconds(20), governor.reserve(auth, start.plusSeconds(10)))
+        assertEquals(Duration.ZERO, governor.reserve(auth, start.plusSeconds(30)))
+        assertFalse(governor.getBudget(auth, start.plusSeconds(30)).pausedUntil.isPresent)
+
+        governor.update(auth, 503, headers("retry-after" to "Tue, 01 Jan 2030 00:02:00 GMT"), start)
+        assertEquals(Duration.ofMinutes(2), governor.reserve(auth, start))
+
+        governor.clear()
+        governor.update(auth, 429, headers("x-ratelimit-reset" to "90"), start)
+        assertEquals(Duration.ofSeconds(90), governor.reserve(auth, start))
+
+        governor.clear()
+        governor.update(auth, 429, headers(), start)
+        assertEquals(RateLimitWindow.DEFAULT_PAUSE, governor.reserve(auth, start))
+
+        // A shorter retry time never shortens an existing pause
+        governor.update(auth, 429, headers("retry-after" to "5"), start)
+        assertEquals(RateLimitWindow.DEFAULT_PAUSE, governor.reserve(auth, start))
+    }
+
+    /**
+     * Tests that malformed headers are ignored.
+     */
+    @Test
+    fun testMalformedHeaders() {
+        governor.update(
+            auth, 200, headers(
+                "x-ratelimit-limit" to "many",
+                "x-ratelimit-remaining" to "-4",
+                "x-ratelimit-reset" to "",
+                "retry-after" to "soon",
+            ), start
+        )
+        assertEquals(GravatarRateLimitBudget(auth, -1, -1, null, null), governor.getBudget(auth, start))
+        assertEquals(Duration.ZERO, governor.reserve(auth, start))
+    }
+
+    /**
+     * Tests for the equals, hashCode, and toString methods of budgets.
+     */
+    @Test
+    fun testBudget() {
+        val budget = GravatarRateLimitBudget(auth, 100, 50, start, null)
+        assertEquals(budget, GravatarRateLimitBudget(auth, 100, 50, start, null))
+        assertEquals(budget.hashCode(), GravatarRateLimitBudget(auth, 100, 50, start, null).hashCode())
+        assertNotEquals(budget, GravatarRateLimitBudget(auth, 100, 49, start, null))
+        assertNotEquals(budget, GravatarRateLimitBudget(GravatarRequestAuthentication.Authenticated, 100, 50, start, null))
+        assertEquals(
+            "GravatarRateLimitBudget{authentication=Unauthenticated, limit=100, remaining=50, "
+                    + "resetAt=2030-01-01T00:00:00Z, pausedUntil=null}",
+            budget.toString()
+        )
+        assertEquals(GravatarRequestAuthentication.Authenticated, GravatarRequestAuthentication.of("token"))
+        assertEquals(GravatarRequestAuthentication.Unauthenticated, GravatarRequestAuthentication.of(null))
+    }
+
+    companion object {
+        /**
+         * The governor under test.
+         */
+        private val governor = GravatarRateLimitGovernor.INSTANCE
+
+        /**
+         * The budget most tests draw from.
+         */
+        private val auth = GravatarRequestAuthentication.Unauthenticated
+
+        /**
+         * The instant tests start at.
+         */
+        private val start = Instant.parse("2030-01-01T00:00:00Z")
+
+        /**
+         * Returns rate limit headers with the provided values.
+         */
+        private fun headers(limit: Int, remaining: Int, reset: Instant) = headers(
+            "x-ratelimit-limit" to limit.toString(),
+            "x-ratelimit-remaining" to remaining.toString(),
+            "x-ratelimit-reset" to reset.epochSecond.toString(),
+        )
+
+        /**
+         * Returns headers with the provided names and values.
+         */
+        private fun headers(vararg values: Pair<String, String>) =
+            HttpHeaders.of(values.associate { it.first to listOf(it.second) }) { _, _ -> true }
+    }
+}
@@ -0,0 +1,188 @@
+package com.github.natche.gravatarjavaclient.profile.ratelimit
+
+import com.github.natche.gravatarjavaclient.enums.GravatarRequestAuthentication
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.net.http.HttpHeaders
+import java.time.Duration
+import java.time.Instant
+import java.util.concurrent.TimeUnit
+
+/**
+ * Tests for [GravatarTokenPool]s.
+ */
+class GravatarTokenPoolTest {
+    /**
+     * Tests that tokens with unknown budgets are rotated evenly and interleaved.
+     */
+    @Test
+    fun testEvenRotation() {
+        val pool = GravatarTokenPool.of("alpha", "bravo", "charlie")
+        val tokens = List(300) { pool.reserve(start).token }
+
+        assertEquals(mapOf("alpha" to 100, "bravo" to 100, "charlie" to 100), tokens.groupingBy { it }.eachCount())
+        for (i in 1 until tokens.size) assertTrue(tokens[i - 1] != tokens[i], "request $i")
+        assertEquals(listOf(100L, 100L, 100L), pool.getStatistics(start).map { it.requestCount })
+    }
+
+    /**
+     * Tests that tokens are weighted by their remaining budgets.
+     */
+    @Test
+    fun testWeightedByRemaining() {
+        val pool = GravatarTokenPool.of("alpha", "bravo", "charlie")
+        val reset = start.plusSeconds(3600)
+        pool.update("alpha", 200, headers(5000, 3000, reset), start)
+        pool.update("bravo", 200, headers(5000, 1000, reset), start)
+
+        // Charlie's budget is unknown, so it is weighted as the average of the others
+        val counts = List(600) { pool.reserve(start).token }.groupingBy { it }.eachCount()
+        assertTrue(counts["alpha"]!! in 280..320, counts.toString())
+        assertTrue(counts["bravo"]!! in 90..110, counts.toString())
+        assertTrue(counts["charlie"]!! in 180..220, counts.toString())
+
+        val alpha = pool.getStatistics(start)[0]
+        assertEquals(3000 - counts["alpha"]!!, alpha.budget.remaining.asInt)
+        assertEquals(GravatarRequestAuthentication.Authenticated, alpha.budget.authentication)
+    }
+
+    /**
+     * Tests that a token receiving a 429 response is quarantined until the server's retry time.
+     */
+    @Test
+    fun testQuarantineOnRateLimit() {
+        val pool = GravatarTokenPool.of("alpha", "bravo")
+        pool.update("alpha", 429, headers("retry-after" to "30"), start)
+
+        repeat(10) { assertEquals("bravo", pool.reserve(start.plusSeconds(29)).token) }
+        val alpha = pool.getStatistics(start)[0]
+        assertEquals(start.plusSeconds(30), alpha.quarantinedUntil.get())
+        assertEquals(1, alpha.rateLimitedCount)
+        assertEquals(1, alpha.errorCount)
+
+        val released = List(10) { pool.reserve(start.plusSeconds(30)).token }
+        assertEquals(5, released.count { it == "alpha" })
+        assertTrue(pool.getStatistics(start.plusSeconds(30))[0].quarantinedUntil.isEmpty)
+    }
+
+    /**
+     * Tests that a token with an exhausted budget is quarantined until its window resets.
+     */
+    @Test
+    fun testQuarantineOnExhaustedBudget() {
+        val pool = GravatarTokenPool.of("alpha", "bravo")
+        val reset = start.plusSeconds(60)
+        pool.update("alpha", 200, headers(100, 2, reset), start)
+
+        val tokens = List(10) { pool.reserve(start).token }
+        assertEquals(2, tokens.count { it == "alpha" })
+        assertEquals(reset, pool.getStatistics(start)[0].quarantinedUntil.get())
+        assertTrue(pool.getStatistics(reset)[0].quarantinedUntil.isEmpty)
+        assertTrue("alpha" in List(4) { pool.reserve(reset).token })
+
+        // A budget reported exhausted with no reset is quarantined for the default pause
+        pool.update("bravo", 200, headers("x-ratelimit-remaining" to "0"), start)
+        assertEquals(start.plus(RateLimitWindow.DEFAULT_PAUSE), pool.getStatistics(start)[1].quarantinedUntil.get())
+        assertTrue(pool.getStatistics(start)[1].budget.remaining.isEmpty)
+    }
+
+    /**
+     * Tests that a reservation waits for the first token to be released when every token is quarantined.
+     */
+    @Test
+    fun testEveryTokenQuarantined() {
+        val pool = GravatarTokenPool.of("alpha", "bravo")
+        pool.update("alpha", 429, headers("retry-after" to "30"), start)
+        pool.update("bravo", 429, headers("retry-after" to "10"), start)
+
+        val reservation = pool.reserve(start)
+        assertNull(reservation.token)
+        assertEquals(Duration.ofSeconds(10), reservation.delay)
+        assertEquals("bravo", pool.reserve(start.plusSeconds(10)).token)
+    }
+
+    /**
+     * Tests for error counting and the quarantine of unauthorized tokens.
+     */
+    @Test
+    fun testErrors() {
+        val pool = GravatarTokenPool.of("alpha", "bravo")
+        repeat(4) { pool.reserve(start) }
+        pool.update("alpha", 404, headers(), start)
+        assertEquals(0, pool.getStatistics(start)[0].errorCount)
+        assertEquals(0.0, pool.getStatistics(start)[1].errorRate)
+
+        pool.update("alpha", 503, headers(), start)
+        pool.recordFailure("alpha")
+        var alpha = pool.getStatistics(start)[0]
+        assertEquals(2, alpha.errorCount)
+        assertEquals(1.0, alpha.errorRate)
+        assertTrue(alpha.quarantinedUntil.isEmpty)
+
+        pool.update("alpha", 401, headers(), start)
+        alpha = pool.getStatistics(start)[0]
+        assertEquals(3, alpha.errorCount)
+        assertEquals(start.plus(GravatarTokenPool.UNAUTHORIZED_QUARANTINE), alpha.quarantinedUntil.get())
+        repeat(5) { assertEquals("bravo", pool.reserve(start).token) }
+    }
+
+    /**
+     * Tests for acquiring tokens through the public methods.
+     */
+    @Test
+    fun testAcquire() {
+        val pool = GravatarTokenPool.of(listOf("alphaToken", "bravoToken"))
+        assertEquals(setOf("alphaToken", "bravoToken"), setOf(pool.acquire(), pool.acquire()))
+        assertNotNull(pool.acquireAsync().get(1, TimeUnit.SECONDS))
+        assertEquals(2, pool.size())
+        assertEquals("alphaToken", pool.primaryToken)
+        assertEquals("GravatarTokenPool{size=2, available=2}", pool.toString())
+
+        val statistics = pool.statistics[0]
+        assertEquals("alpha...", statistics.tokenPrefix)
+        assertEquals(0, statistics.index)
+        assertEquals(statistics, pool.statistics[0])
+        assertEquals(statistics.hashCode(), pool.statistics[0].hashCode())
+        assertTrue(statistics.toString().startsWith("GravatarTokenStatistics{index=0, tokenPrefix=\"alpha...\""))
+    }
+
+    /**
+     * Tests for invalid arguments.
+     */
+    @Test
+    fun testPreconditions() {
+        assertThrows(NullPointerException::class.java) { GravatarTokenPool.of(null as Iterable<String>?) }
+        assertThrows(NullPointerException::class.java) { GravatarTokenPool.of(listOf("alpha", null)) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarTokenPool.of(listOf()) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarTokenPool.of("alpha", " ") }
+        assertThrows(IllegalArgumentException::class.java) { GravatarTokenPool.of("alpha", "alpha") }
+
+        val pool = GravatarTokenPool.of("alpha")
+        assertThrows(NullPointerException::class.java) { pool.update(null, 200, headers()) }
+        assertThrows(NullPointerException::class.java) { pool.update("alpha", 200, null) }
+        assertThrows(IllegalArgumentException::class.java) { pool.update("bravo", 200, headers()) }
+        assertThrows(IllegalArgumentException::class.java) { pool.recordFailure("bravo") }
+    }
+
+    private companion object {
+        /**
+         * The instant tests start at.
+         */
+        private val start = Instant.parse("2030-01-01T00:00:00Z")
+
+        /**
+         * Returns rate limit headers with the provided values.
+         */
+        private fun headers(limit: Int, remaining: Int, reset: Instant) = headers(
+            "x-ratelimit-limit" to limit.toString(),
+            "x-ratelimit-remaining" to remaining.toString(),
+            "x-ratelimit-reset" to reset.epochSecond.toString(),
+        )
+
+        /**
+         * Returns headers with the provided names and values.
+         */
+        private fun headers(vararg values: Pair<String, String>) =
+            HttpHeaders.of(values.associate { it.first to listOf(it.second) }) { _, _ -> true }
+    }
+}
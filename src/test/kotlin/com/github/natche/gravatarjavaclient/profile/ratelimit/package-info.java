@@ -0,0 +1,4 @@
+/**
+ * Tests for pacing requests to the Gravatar Profile API.
+ */
+package com.github.natche.gravatarjavaclient.profile.ratelimit;
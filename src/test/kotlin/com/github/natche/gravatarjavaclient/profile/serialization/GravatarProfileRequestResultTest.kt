@@ -3,6 +3,7 @@ package com.github.natche.gravatarjavaclient.profile.serialization
 import org.junit.jupiter.api.Assertions.*
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.assertDoesNotThrow
+import java.time.Duration
 import java.time.Instant
 
 /**
@@ -18,6 +19,9 @@ class GravatarProfileRequestResultTest {
         { GravatarProfileRequestResult(null, false) }
         assertDoesNotThrow { GravatarProfileRequestResult(Instant.now(), false) }
         assertDoesNotThrow { GravatarProfileRequestResult(Instant.now(), true) }
+        assertThrows(NullPointerException::class.java) { GravatarProfileRequestResult(Instant.now(), true, null) }
+        assertThrows(IllegalArgumentException::class.java)
+        { GravatarProfileRequestResult(Instant.now(), true, Duration.ofMillis(-1)) }
     }
 
     /**
@@ -35,6 +39,12 @@ class GravatarProfileRequestResultTest {
         assertFalse(resultOne.failed())
         assertFalse(resultTwo.succeeded())
         assertTrue(resultTwo.failed())
+        assertEquals(Duration.ZERO, resultOne.latency)
+
+        val timed = GravatarProfileRequestResult(firstInstant, true, Duration.ofMillis(250))
+        assertEquals(Duration.ofMillis(250), timed.latency)
+        assertEquals(firstInstant.plusMillis(250), timed.completionInstant)
+        assertNotEquals(resultOne, timed)
     }
 
     /**
@@ -73,11 +83,11 @@ class GravatarProfileRequestResultTest {
 
         assertEquals(
             "GravatarProfileRequestResult{requestInstant=$firstInstant,"
-                    + " succeeded=true}", resultOne.toString()
+                    + " succeeded=true, latency=PT0S}", resultOne.toString()
         )
         assertEquals(
             "GravatarProfileRequestResult{requestInstant=$firstInstant,"
-                    + " succeeded=false}", resultTwo.toString()
+                    + " succeeded=false, latency=PT0S}", resultTwo.toString()
         )
     }
 
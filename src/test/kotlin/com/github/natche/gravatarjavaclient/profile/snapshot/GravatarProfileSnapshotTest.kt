@@ -0,0 +1,227 @@
+package com.github.natche.gravatarjavaclient.profile.snapshot
+
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.nio.file.Files
+import java.time.Instant
+import java.util.BitSet
+
+/**
+ * Tests for [GravatarProfileSnapshot]s.
+ */
+class GravatarProfileSnapshotTest {
+    /**
+     * Tests for building snapshots and reading rows.
+     */
+    @Test
+    fun testBuildAndRead() {
+        val builder = GravatarProfileSnapshotBuilder.create()
+        assertThrows(NullPointerException::class.java) { builder.add(null) }
+        assertThrows(NullPointerException::class.java) { builder.addAll(null) }
+        assertThrows(NullPointerException::class.java) { GravatarProfileSnapshot.of(null) }
+
+        val snapshot = builder.addAll(profiles()).build()
+        assertEquals(4, builder.size())
+        assertEquals(4, snapshot.size())
+        assertEquals(listOf("Acme", "Initech"), snapshot.companies)
+        assertEquals(listOf("Paris", "Berlin"), snapshot.locations)
+
+        assertEquals("alice", snapshot.getHash(0))
+        assertFalse(snapshot.isOrganization(0))
+        assertTrue(snapshot.isOrganization(1))
+        assertEquals(3, snapshot.getNumberVerifiedAccounts(0))
+        assertEquals(Instant.parse("2030-01-02T00:00:00Z"), snapshot.getLastProfileEdit(0).get())
+        assertEquals(Instant.parse("2020-01-01T00:00:00Z"), snapshot.getRegistrationDate(0).get())
+        assertTrue(snapshot.getLastProfileEdit(3).isEmpty)
+        assertEquals("Acme", snapshot.getCompany(1).get())
+        assertTrue(snapshot.getCompany(3).isEmpty)
+        assertEquals("Berlin", snapshot.getLocation(2).get())
+        assertThrows(IndexOutOfBoundsException::class.java) { snapshot.getHash(4) }
+        assertThrows(IndexOutOfBoundsException::class.java) { snapshot.isOrganization(-1) }
+        assertEquals("GravatarProfileSnapshot{rowCount=4, companyCount=2, locationCount=2}", snapshot.toString())
+
+        builder.add(profile("erin", company = "Umbrella"))
+        assertEquals(4, snapshot.size())
+        assertEquals(5, builder.build().size())
+    }
+
+    /**
+     * Tests for filtering rows.
+     */
+    @Test
+    fun testFilters() {
+        val snapshot = GravatarProfileSnapshot.of(profiles())
+        assertThrows(NullPointerException::class.java) { snapshot.whereCompany(null) }
+        assertThrows(NullPointerException::class.java) { snapshot.whereLocation(null) }
+        assertThrows(NullPointerException::class.java) { snapshot.whereRegisteredBetween(null, Instant.MAX) }
+
+        assertEquals(rows(0, 1, 2, 3), snapshot.all())
+        assertEquals(rows(1), snapshot.whereOrganization())
+        assertEquals(rows(0, 1), snapshot.whereCompany("Acme"))
+        assertEquals(rows(), snapshot.whereCompany("acme"))
+        assertEquals(rows(0, 3), snapshot.whereLocation("Paris"))
+        assertEquals(rows(0, 2), snapshot.whereVerifiedAccountsAtLeast(2))
+        assertEquals(rows(0, 1, 2, 3), snapshot.whereVerifiedAccountsAtLeast(0))
+        assertEquals(
+            rows(0, 1),
+            snapshot.whereLastProfileEditBetween(Instant.parse("2030-01-01T00:00:00Z"), Instant.parse("2030-01-03T00:00:00Z"))
+        )
+        assertEquals(
+            rows(1),
+            snapshot.whereLastProfileEditBetween(Instant.parse("2030-01-01T00:00:00Z"), Instant.parse("2030-01-02T00:00:00Z"))
+        )
+        assertEquals(
+            rows(0),
+            snapshot.whereLastProfileEditBetween(Instant.parse("2030-01-01T00:00:00.5Z"), Instant.parse("2030-01-02T00:00:00.5Z"))
+        )
+        assertEquals(rows(0, 1, 2), snapshot.whereRegisteredBetween(Instant.MIN, Instant.MAX))
+
+        val acmeInParis = snapshot.whereCompany("Acme").apply { and(snapshot.whereLocation("Paris")) }
+        assertEquals(rows(0), acmeInParis)
+    }
+
+    /**
+     * Tests for aggregating rows.
+     */
+    @Test
+    fun testAggregates() {
+        val snapshot = GravatarProfileSnapshot.of(profiles())
+        assertThrows(NullPointerException::class.java) { snapshot.sumVerifiedAccounts(null) }
+        assertThrows(IllegalArgumentException::class.java) { snapshot.sumVerifiedAccounts(rows(4)) }
+
+        assertEquals(6, snapshot.sumVerifiedAccounts(snapshot.all()))
+        assertEquals(4, snapshot.sumVerifiedAccounts(snapshot.whereCompany("Acme")))
+        assertEquals(0, snapshot.sumVerifiedAccounts(rows()))
+        assertEquals(mapOf("Acme" to 2, "Initech" to 1), snapshot.countByCompany(snapshot.all()))
+        assertEquals(mapOf("Paris" to 1), snapshot.countByLocation(snapshot.whereCompany("Acme").apply { clear(1) }))
+        assertEquals(Instant.parse("2030-01-02T00:00:00Z"), snapshot.getLatestProfileEdit(snapshot.all()).get())
+        assertEquals(Instant.parse("2030-01-01T00:00:00Z"), snapshot.getLatestProfileEdit(rows(1, 3)).get())
+        assertTrue(snapshot.getLatestProfileEdit(rows(3)).isEmpty)
+    }
+
+    /**
+     * Tests that scans agree with the profiles across many rows.
+     */
+    @Test
+    fun testManyRows() {
+        val profiles = (0 until 10_000).map {
+            profile("profile-$it", company = "company-${it % 7}", organization = it % 5 == 0, verifiedAccounts = it % 4)
+        }
+        val snapshot = GravatarProfileSnapshot.of(profiles)
+
+        assertEquals(2000, snapshot.whereOrganization().cardinality())
+        assertEquals(profiles.count { it.company == "company-3" }, snapshot.whereCompany("company-3").cardinality())
+        assertEquals(profiles.sumOf { it.numberVerifiedAccounts.toLong() }, snapshot.sumVerifiedAccounts(snapshot.all()))
+        val organizations = snapshot.whereOrganization()
+        assertEquals(
+            profiles.filter { it.isOrganization }.groupingBy { it.company }.eachCount(),
+            snapshot.countByCompany(organizations)
+        )
+    }
+
+    /**
+     * Tests for writing and opening snapshot files.
+     */
+    @Test
+    fun testWriteAndOpen() {
+        val directory = Files.createTempDirectory("profile_snapshot")
+        val path = directory.resolve("profiles.snapshot")
+        val snapshot = GravatarProfileSnapshot.of(profiles() + profile("émile", company = "Société Générale"))
+        assertThrows(NullPointerException::class.java) { snapshot.writeTo(null) }
+        assertThrows(IllegalArgumentException::class.java) { snapshot.writeTo(directory) }
+        assertThrows(NullPointerException::class.java) { GravatarProfileSnapshot.open(null) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarProfileSnapshot.open(directory) }
+
+        snapshot.writeTo(path)
+        snapshot.writeTo(path)
+        assertEquals(1, Files.list(directory).use { it.count() })
+        assertEquals(0, Files.size(path) % 8)
+
+        val header = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN)
+        assertEquals(0x47505353, header.getInt(0))
+        assertEquals(5, header.getInt(8))
+
+        val opened = GravatarProfileSnapshot.open(path)
+        assertEquals(snapshot.toString(), opened.toString())
+        assertEquals(snapshot.companies, opened.companies)
+        assertEquals(snapshot.locations, opened.locations)
+        for (row in 0 until snapshot.size()) {
+            assertEquals(snapshot.getHash(row), opened.getHash(row))
+            assertEquals(snapshot.isOrganization(row), opened.isOrganization(row))
+            assertEquals(snapshot.getNumberVerifiedAccounts(row), opened.getNumberVerifiedAccounts(row))
+            assertEquals(snapshot.getLastProfileEdit(row), opened.getLastProfileEdit(row))
+            assertEquals(snapshot.getRegistrationDate(row), opened.getRegistrationDate(row))
+            assertEquals(snapshot.getCompany(row), opened.getCompany(row))
+            assertEquals(snapshot.getLocation(row), opened.getLocation(row))
+        }
+        assertEquals(rows(4), opened.whereCompany("Société Générale"))
+
+        val empty = directory.resolve("empty.snapshot")
+        GravatarProfileSnapshot.of(listOf()).writeTo(empty)
+        assertEquals(0, GravatarProfileSnapshot.open(empty).size())
+
+        directory.toFile().deleteRecursively()
+    }
+
+    /**
+     * Tests for rejecting files which are not valid snapshots.
+     */
+    @Test
+    fun testOpenInvalid() {
+        val directory = Files.createTempDirectory("profile_snapshot_invalid")
+        val path = directory.resolve("profiles.snapshot")
+        GravatarProfileSnapshot.of(profiles()).writeTo(path)
+        val bytes = Files.readAllBytes(path)
+
+        val garbage = Files.write(directory.resolve("garbage"), ByteArray(64) { it.toByte() })
+        assertThrows(GravatarJavaClientException::class.java) { GravatarProfileSnapshot.open(garbage) }
+
+        val truncated = Files.write(directory.resolve("truncated"), bytes.copyOf(bytes.size - 16))
+        assertThrows(GravatarJavaClientException::class.java) { GravatarProfileSnapshot.open(truncated) }
+
+        val badId = bytes.copyOf()
+        ByteBuffer.wrap(badId).order(ByteOrder.LITTLE_ENDIAN).putInt(24 + 8 + 32 + 32 + 16, 9)
+        Files.write(path, badId)
+        assertThrows(GravatarJavaClientException::class.java) { GravatarProfileSnapshot.open(path) }
+
+        val badRowCount = bytes.copyOf()
+        ByteBuffer.wrap(badRowCount).order(ByteOrder.LITTLE_ENDIAN).putInt(8, Int.MAX_VALUE)
+        Files.write(path, badRowCount)
+        assertThrows(GravatarJavaClientException::class.java) { GravatarProfileSnapshot.open(path) }
+
+        directory.toFile().deleteRecursively()
+    }
+
+    companion object {
+        /**
+         * Returns the rows with the provided indices.
+         */
+        fun rows(vararg indices: Int) = BitSet().apply { indices.forEach { set(it) } }
+
+        /**
+         * Returns four profiles covering set and unset values of every column.
+         */
+        fun profiles() = listOf(
+            profile("alice", "Acme", "Paris", false, 3, "2030-01-02T00:00:00Z", "2020-01-01T00:00:00Z"),
+            profile("bob", "Acme", " ", true, 1, "2030-01-01T00:00:00Z", "2021-06-01T12:00:00Z"),
+            profile("carol", "Initech", "Berlin", false, 2, "2029-12-31T23:59:59Z", "2019-01-01T00:00:00Z"),
+            profile("dave", null, "Paris", false, 0, null, null)
+        )
+
+        /**
+         * Returns a profile with the provided hash and columns.
+         */
+        fun profile(
+            hash: String, company: String? = null, location: String? = null, organization: Boolean = false,
+            verifiedAccounts: Int = 0, lastProfileEdit: String? = null, registrationDate: String? = null
+        ) = GravatarProfile(
+            hash, null, "https://gravatar.com/$hash", null, null, location, null, null, company, null, null, null,
+            null, null, null, null, organization, null, null, null, null, null, verifiedAccounts, lastProfileEdit,
+            registrationDate
+        )
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Tests for columnar snapshots of profiles.
+ */
+package com.github.natche.gravatarjavaclient.profile.snapshot;
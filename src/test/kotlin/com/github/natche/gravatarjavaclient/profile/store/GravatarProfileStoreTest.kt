@@ -0,0 +1,332 @@
+package com.github.natche.gravatarjavaclient.profile.store
+
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+import java.time.ZoneId
+import java.time.ZoneOffset
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Tests for the [GravatarProfileStore].
+ */
+class GravatarProfileStoreTest {
+    /**
+     * Tests for opening stores.
+     */
+    @Test
+    fun testOpen() {
+        val root = Files.createTempDirectory("profile_store_open")
+        assertThrows(NullPointerException::class.java) { GravatarProfileStore.open(null) }
+        assertThrows(NullPointerException::class.java) { GravatarProfileStore.open(root, null) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarProfileStore.open(root, Duration.ZERO) }
+
+        val file = Files.write(root.resolve("file"), ByteArray(1))
+        assertThrows(IllegalArgumentException::class.java) { GravatarProfileStore.open(file) }
+
+        val garbage = Files.createDirectories(root.resolve("garbage"))
+        Files.write(garbage.resolve("0000000000000001.segment"), ByteArray(64) { it.toByte() })
+        assertThrows(GravatarJavaClientException::class.java) { GravatarProfileStore.open(garbage) }
+
+        val directory = root.resolve("store")
+        GravatarProfileStore.open(directory).use {
+            assertEquals(directory, it.directory)
+            assertTrue(it.maxAge.isEmpty)
+            assertEquals(0, it.size())
+            assertEquals(1, it.segmentCount)
+            assertTrue(it.get("missing").isEmpty)
+        }
+        assertEquals(0, Files.list(directory).count())
+        GravatarProfileStore.open(directory, Duration.ofHours(1)).use {
+            assertEquals(Duration.ofHours(1), it.maxAge.get())
+        }
+
+        root.toFile().deleteRecursively()
+    }
+
+    /**
+     * Tests for putting, getting, and removing profiles.
+     */
+    @Test
+    fun testPutGetAndRemove() {
+        val root = Files.createTempDirectory("profile_store_put")
+        GravatarProfileStore.open(root).use { store ->
+            assertThrows(NullPointerException::class.java) { store.put(null, profile("one")) }
+            assertThrows(NullPointerException::class.java) { store.put("one", null) }
+            assertThrows(IllegalArgumentException::class.java) { store.put("", profile("one")) }
+            assertThrows(IllegalArgumentException::class.java) { store.put("k".repeat(1025), profile("one")) }
+            assertThrows(NullPointerException::class.java) { store.get(null) }
+
+            store.put("one", profile("one")).put("two", profile("two"))
+            assertEquals(profile("one"), store.get("one").get())
+            assertEquals(profile("two"), store.get("two").get())
+            assertTrue(store.contains("one"))
+            assertEquals(2, store.size())
+
+            store.put("one", profile("one", "https://gravatar.com/updated"))
+            assertEquals(profile("one", "https://gravatar.com/updated"), store.get("one").get())
+            assertEquals(2, store.size())
+            assertTrue(store.supersededBytes > 0)
+
+            assertTrue(store.remove("one"))
+            assertFalse(store.remove("one"))
+            assertFalse(store.contains("one"))
+            assertTrue(store.get("one").isEmpty)
+            assertEquals(1, store.size())
+        }
+
+        val closed = GravatarProfileStore.open(root)
+        closed.close()
+        closed.close()
+        assertThrows(GravatarJavaClientException::class.java) { closed.get("two") }
+        assertThrows(GravatarJavaClientException::class.java) { closed.put("two", profile("two")) }
+
+        root.toFile().deleteRecursively()
+    }
+
+    /**
+     * Tests for rebuilding the index when a store is reopened.
+     */
+    @Test
+    fun testReopen() {
+        val root = Files.createTempDirectory("profile_store_reopen")
+        GravatarProfileStore.open(root, null, 512, Clock.systemUTC()).use { store ->
+            for (i in 0 until 50) store.put("profile-$i", profile("profile-$i"))
+            store.put("profile-0", profile("profile-0", "https://gravatar.com/latest"))
+            store.remove("profile-1")
+            assertTrue(store.segmentCount > 1)
+        }
+
+        GravatarProfileStore.open(root, null, 512, Clock.systemUTC()).use { store ->
+            assertEquals(49, store.size())
+            assertEquals(profile("profile-0", "https://gravatar.com/latest"), store.get("profile-0").get())
+            assertTrue(store.get("profile-1").isEmpty)
+            for (i in 2 until 50) assertEquals(profile("profile-$i"), store.get("profile-$i").get())
+
+            store.put("profile-1", profile("profile-1"))
+        }
+
+        GravatarProfileStore.open(root, null, 512, Clock.systemUTC()).use { store ->
+            assertEquals(50, store.size())
+            assertEquals(profile("profile-1"), store.get("profile-1").get())
+        }
+
+        root.toFile().deleteRecursively()
+    }
+
+    /**
+     * Tests for recovering a segment left unsealed by a crash.
+     */
+    @Test
+    fun testRecoverUnsealedSegment() {
+        val root = Files.createTempDirectory("profile_store_recover")
+        val crashed = Files.createDirectories(root.resolve("crashed"))
+        val store = GravatarProfileStore.open(root.resolve("live"))
+        store.put("one", profile("one")).put("two", profile("two"))
+
+        val segment = Files.list(root.resolve("live")).use { it.findFirst().get() }
+        val copy = Files.copy(segment, crashed.resolve(segment.fileName))
+        Files.write(copy, ByteArray(40) { 7 }, StandardOpenOption.APPEND)
+        store.close()
+
+        GravatarProfileStore.open(crashed).use {
+            assertEquals(2, it.size())
+            assertEquals(profile("one"), it.get("one").get())
+            assertEquals(profile("two"), it.get("two").get())
+            it.put("three", profile("three"))
+        }
+        GravatarProfileStore.open(crashed).use {
+            assertEquals(3, it.size())
+            assertEquals(profile("three"), it.get("three").get())
+        }
+
+        root.toFile().deleteRecursively()
+    }
+
+    /**
+     * Tests for detecting corrupt records.
+     */
+    @Test
+    fun testCorruptRecord() {
+        val root = Files.createTempDirectory("profile_store_corrupt")
+        GravatarProfileStore.open(root).use { it.put("one", profile("one")) }
+
+        val segment = Files.list(root).use { it.findFirst().get() }
+        val bytes = Files.readAllBytes(segment)
+        bytes[60] = (bytes[60] + 1).toByte()
+        Files.write(segment, bytes)
+
+        GravatarProfileStore.open(root).use {
+            assertTrue(it.contains("one"))
+            assertThrows(GravatarJavaClientException::class.java) { it.get("one") }
+        }
+
+        root.toFile().deleteRecursively()
+    }
+
+    /**
+     * Tests for compacting superseded records.
+     */
+    @Test
+    fun testCompaction() {
+        val root = Files.createTempDirectory("profile_store_compact")
+        GravatarProfileStore.open(root, null, 1024, Clock.systemUTC()).use { store ->
+            for (i in 0 until 20) store.put("profile-$i", profile("profile-$i"))
+            for (round in 0 until 5) {
+                for (i in 0 until 10) store.put("profile-$i", profile("profile-$i", "https://gravatar.com/$round"))
+            }
+            store.remove("profile-19")
+
+            assertTrue(store.compact() > 0)
+            // The removal of profile-19 is copied since the record it removed was among the compacted segments
+            assertTrue(store.supersededBytes > 0)
+            assertEquals(19, store.size())
+            for (i in 0 until 10) assertEquals(profile("profile-$i", "https://gravatar.com/4"), store.get("profile-$i").get())
+            for (i in 10 until 19) assertEquals(profile("profile-$i"), store.get("profile-$i").get())
+            assertTrue(store.compact() > 0)
+            assertEquals(0, store.supersededBytes)
+            assertEquals(0, store.compact())
+        }
+
+        GravatarProfileStore.open(root, null, 1024, Clock.systemUTC()).use { store ->
+            assertEquals(19, store.size())
+            assertTrue(store.get("profile-19").isEmpty)
+            assertEquals(profile("profile-0", "https://gravatar.com/4"), store.get("profile-0").get())
+        }
+
+        root.toFile().deleteRecursively()
+    }
+
+    /**
+     * Tests that a removal survives compaction when a segment holding the record it removed is not deleted.
+     */
+    @Test
+    fun testCompactionKeepsRemovals() {
+        val root = Files.createTempDirectory("profile_store_removals")
+        GravatarProfileStore.open(root).use { store ->
+            store.put("kept", profile("kept"))
+            store.put("gone", profile("gone"))
+            store.compact()
+        }
+        val segment = Files.list(root).use { it.toList() }.single()
+        val bytes = Files.readAllBytes(segment)
+
+        GravatarProfileStore.open(root).use { store ->
+            assertTrue(store.remove("gone"))
+            assertTrue(store.compact() > 0)
+        }
+        // As if deleting the compacted segment had failed
+        assertFalse(Files.exists(segment))
+        Files.write(segment, bytes)
+
+        GravatarProfileStore.open(root).use { store ->
+            assertTrue(store.get("gone").isEmpty)
+            assertEquals(profile("kept"), store.get("kept").get())
+
+            store.compact()
+            assertTrue(store.get("gone").isEmpty)
+            store.compact()
+            assertEquals(0, store.supersededBytes)
+        }
+
+        GravatarProfileStore.open(root).use { store ->
+            assertEquals(1, store.size())
+            assertTrue(store.get("gone").isEmpty)
+        }
+
+        root.toFile().deleteRecursively()
+    }
+
+    /**
+     * Tests for compacting in the background once enough records have been superseded.
+     */
+    @Test
+    fun testBackgroundCompaction() {
+        val root = Files.createTempDirectory("profile_store_background")
+        GravatarProfileStore.open(root, null, 1024, Clock.systemUTC()).use { store ->
+            for (round in 0 until 50) {
+                for (i in 0 until 5) store.put("profile-$i", profile("profile-$i", "https://gravatar.com/$round"))
+            }
+
+            val deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos()
+            while (Files.list(root).use { it.count() } > 10 && System.nanoTime() < deadline) Thread.sleep(10)
+            assertTrue(Files.list(root).use { it.count() } <= 10)
+            for (i in 0 until 5) assertEquals(profile("profile-$i", "https://gravatar.com/49"), store.get("profile-$i").get())
+        }
+
+        root.toFile().deleteRecursively()
+    }
+
+    /**
+     * Tests for expiring profiles and fetching absent profiles.
+     */
+    @Test
+    fun testMaxAgeAndComputeIfAbsent() {
+        val root = Files.createTempDirectory("profile_store_age")
+        val clock = MutableClock(Instant.parse("2030-01-01T00:00:00Z"))
+        val fetches = AtomicInteger()
+        GravatarProfileStore.open(root, Duration.ofHours(1), 1024, clock).use { store ->
+            assertThrows(NullPointerException::class.java) { store.computeIfAbsent("one", null) }
+            assertThrows(NullPointerException::class.java) { store.computeIfAbsent("one") { null } }
+
+            val fetcher = { fetches.incrementAndGet(); profile("one") }
+            assertEquals(profile("one"), store.computeIfAbsent("one", fetcher))
+            assertEquals(profile("one"), store.computeIfAbsent("one", fetcher))
+            assertEquals(1, fetches.get())
+
+            clock.instant = clock.instant.plus(Duration.ofMinutes(59))
+            assertTrue(store.contains("one"))
+            clock.instant = clock.instant.plus(Duration.ofMinutes(1))
+            assertFalse(store.contains("one"))
+            assertTrue(store.get("one").isEmpty)
+
+            assertEquals(profile("one"), store.computeIfAbsent("one", fetcher))
+            assertEquals(2, fetches.get())
+        }
+
+        root.toFile().deleteRecursively()
+    }
+
+    /**
+     * Tests for the toString method.
+     */
+    @Test
+    fun testToString() {
+        val root = Files.createTempDirectory("profile_store_string")
+        GravatarProfileStore.open(root).use {
+            it.put("one", profile("one"))
+            assertEquals("GravatarProfileStore{directory=\"$root\", size=1, segmentCount=1, maxAge=null,"
+                    + " closed=false}", it.toString())
+        }
+
+        root.toFile().deleteRecursively()
+    }
+
+    /**
+     * A clock whose instant is set by the test.
+     */
+    private class MutableClock(var instant: Instant) : Clock() {
+        override fun getZone(): ZoneId = ZoneOffset.UTC
+
+        override fun withZone(zone: ZoneId?): Clock = this
+
+        override fun instant(): Instant = instant
+    }
+
+    companion object {
+        /**
+         * Returns a minimal profile with the provided hash and profile URL.
+         */
+        fun profile(hash: String, url: String = "https://gravatar.com/$hash") = GravatarProfile(
+            hash, null, url, null, null, null, null, null, null, null, null, null, null, null,
+            null, null, false, null, null, null, null, null, 0, null, null
+        )
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Tests for the persistent profile store.
+ */
+package com.github.natche.gravatarjavaclient.profile.store;
@@ -0,0 +1,105 @@
+package com.github.natche.gravatarjavaclient.profile.sync
+
+import com.github.natche.gravatarjavaclient.enums.GravatarProfileChangeType
+import com.github.natche.gravatarjavaclient.enums.GravatarProfileField
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.time.Instant
+
+/**
+ * Tests for the [GravatarProfileChange] and [GravatarProfileFieldChange].
+ */
+class GravatarProfileChangeTest {
+    /**
+     * The instant changes are detected at.
+     */
+    private val detectedAt = Instant.parse("2030-01-01T00:00:00Z")
+
+    /**
+     * A change to the location field.
+     */
+    private val locationChange = GravatarProfileFieldChange(GravatarProfileField.Location, "Earth", "Mars")
+
+    /**
+     * Tests for constructing field changes.
+     */
+    @Test
+    fun testFieldChange() {
+        assertThrows(NullPointerException::class.java) { GravatarProfileFieldChange(null, "a", "b") }
+        assertThrows(IllegalArgumentException::class.java) {
+            GravatarProfileFieldChange(GravatarProfileField.Location, "a", "a")
+        }
+        assertThrows(IllegalArgumentException::class.java) {
+            GravatarProfileFieldChange(GravatarProfileField.Location, null, null)
+        }
+
+        assertEquals(GravatarProfileField.Location, locationChange.field)
+        assertEquals("Earth", locationChange.previousValue.get())
+        assertEquals("Mars", locationChange.currentValue.get())
+        assertTrue(GravatarProfileFieldChange(GravatarProfileField.Location, null, "Mars").previousValue.isEmpty)
+
+        val other = GravatarProfileFieldChange(GravatarProfileField.Location, "Earth", "Venus")
+        assertEquals(locationChange, GravatarProfileFieldChange(GravatarProfileField.Location, "Earth", "Mars"))
+        assertEquals(locationChange.hashCode(),
+            GravatarProfileFieldChange(GravatarProfileField.Location, "Earth", "Mars").hashCode())
+        assertNotEquals(locationChange, other)
+        assertNotEquals(locationChange, Any())
+        assertEquals("GravatarProfileFieldChange{field=Location, previousValue=Earth, currentValue=Mars}",
+            locationChange.toString())
+    }
+
+    /**
+     * Tests for constructing profile changes.
+     */
+    @Test
+    fun testChange() {
+        val previous = GravatarProfileDifferTest.profile("one", location = "Earth")
+        val current = GravatarProfileDifferTest.profile("one", location = "Mars")
+        val changes = listOf(locationChange)
+        val updated = GravatarProfileChangeType.Updated
+
+        assertThrows(NullPointerException::class.java) {
+            GravatarProfileChange(null, updated, previous, current, changes, detectedAt)
+        }
+        assertThrows(NullPointerException::class.java) {
+            GravatarProfileChange("one", null, previous, current, changes, detectedAt)
+        }
+        assertThrows(NullPointerException::class.java) {
+            GravatarProfileChange("one", updated, previous, current, null, detectedAt)
+        }
+        assertThrows(NullPointerException::class.java) {
+            GravatarProfileChange("one", updated, previous, current, changes, null)
+        }
+        assertThrows(IllegalArgumentException::class.java) {
+            GravatarProfileChange("one", updated, previous, current, listOf(), detectedAt)
+        }
+        assertThrows(IllegalArgumentException::class.java) {
+            GravatarProfileChange("one", updated, null, current, changes, detectedAt)
+        }
+        assertThrows(IllegalArgumentException::class.java) {
+            GravatarProfileChange("one", GravatarProfileChangeType.Added, previous, current, changes, detectedAt)
+        }
+        assertThrows(IllegalArgumentException::class.java) {
+            GravatarProfileChange("one", GravatarProfileChangeType.Removed, previous, current, changes, detectedAt)
+        }
+
+        val change = GravatarProfileChange("one", updated, previous, current, changes, detectedAt)
+        assertEquals("one", change.hashOrId)
+        assertEquals(updated, change.type)
+        assertEquals(previous, change.previous.get())
+        assertEquals(current, change.current.get())
+        assertEquals(changes, change.fieldChanges)
+        assertEquals(detectedAt, change.detectedAt)
+
+        val removed = GravatarProfileChange("one", GravatarProfileChangeType.Removed, previous, null, changes, detectedAt)
+        assertTrue(removed.current.isEmpty)
+
+        assertEquals(change, GravatarProfileChange("one", updated, previous, current, changes, detectedAt))
+        assertEquals(change.hashCode(),
+            GravatarProfileChange("one", updated, previous, current, changes, detectedAt).hashCode())
+        assertNotEquals(change, removed)
+        assertNotEquals(change, Any())
+        assertEquals("GravatarProfileChange{hashOrId=\"one\", type=Updated, fields=[Location],"
+                + " detectedAt=2030-01-01T00:00:00Z}", change.toString())
+    }
+}
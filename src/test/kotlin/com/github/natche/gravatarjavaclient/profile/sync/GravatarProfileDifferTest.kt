@@ -0,0 +1,86 @@
+package com.github.natche.gravatarjavaclient.profile.sync
+
+import com.github.natche.gravatarjavaclient.enums.GravatarProfileField
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfile
+import com.google.common.collect.ImmutableList
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.time.Instant
+
+/**
+ * Tests for the [GravatarProfileDiffer].
+ */
+class GravatarProfileDifferTest {
+    /**
+     * Tests for diffing equal and absent profiles.
+     */
+    @Test
+    fun testDiffEqualAndAbsent() {
+        assertEquals(ImmutableList.of<GravatarProfileFieldChange>(), GravatarProfileDiffer.INSTANCE.diff(null, null))
+        assertEquals(ImmutableList.of<GravatarProfileFieldChange>(),
+            GravatarProfileDiffer.INSTANCE.diff(profile("one"), profile("one")))
+
+        val added = GravatarProfileDiffer.INSTANCE.diff(null, profile("one", location = "Earth"))
+        assertEquals(
+            listOf(GravatarProfileField.Hash, GravatarProfileField.ProfileUrl, GravatarProfileField.Location,
+                GravatarProfileField.Organization, GravatarProfileField.NumberVerifiedAccounts),
+            added.map { it.field }
+        )
+        assertTrue(added.all { it.previousValue.isEmpty })
+
+        val removed = GravatarProfileDiffer.INSTANCE.diff(profile("one"), null)
+        assertEquals(4, removed.size)
+        assertTrue(removed.all { it.currentValue.isEmpty })
+    }
+
+    /**
+     * Tests for diffing changed fields.
+     */
+    @Test
+    fun testDiffChangedFields() {
+        val edited = Instant.parse("2030-01-01T00:00:00Z")
+        val previous = profile("one", location = "Earth", timezone = "UTC")
+        val current = profile("one", location = "Mars", lastProfileEdit = edited)
+
+        assertEquals(
+            listOf(
+                GravatarProfileFieldChange(GravatarProfileField.Location, "Earth", "Mars"),
+                GravatarProfileFieldChange(GravatarProfileField.Timezone, "UTC", null),
+                GravatarProfileFieldChange(GravatarProfileField.LastProfileEdit, null, edited)
+            ),
+            GravatarProfileDiffer.INSTANCE.diff(previous, current)
+        )
+    }
+
+    /**
+     * Tests for reading the values of fields.
+     */
+    @Test
+    fun testValueOf() {
+        val profile = profile("one", timezone = "UTC")
+        assertNull(GravatarProfileDiffer.INSTANCE.valueOf(null, GravatarProfileField.Hash))
+        assertEquals("one", GravatarProfileDiffer.INSTANCE.valueOf(profile, GravatarProfileField.Hash))
+        assertEquals("UTC", GravatarProfileDiffer.INSTANCE.valueOf(profile, GravatarProfileField.Timezone))
+        assertEquals(false, GravatarProfileDiffer.INSTANCE.valueOf(profile, GravatarProfileField.Organization))
+        assertNull(GravatarProfileDiffer.INSTANCE.valueOf(profile, GravatarProfileField.FirstName))
+        assertNull(GravatarProfileDiffer.INSTANCE.valueOf(profile, GravatarProfileField.Links))
+        for (field in GravatarProfileField.values()) {
+            assertDoesNotThrow { GravatarProfileDiffer.INSTANCE.valueOf(profile, field) }
+        }
+    }
+
+    companion object {
+        /**
+         * Returns a minimal profile with the provided values.
+         */
+        fun profile(
+            hash: String,
+            location: String? = null,
+            timezone: String? = null,
+            lastProfileEdit: Instant? = null
+        ) = GravatarProfile(
+            hash, null, "https://gravatar.com/$hash", null, null, location, null, null, null, null, null, null,
+            timezone, null, null, null, false, null, null, null, null, null, 0, lastProfileEdit?.toString(), null
+        )
+    }
+}
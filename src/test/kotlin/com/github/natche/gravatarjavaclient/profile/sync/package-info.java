@@ -0,0 +1,4 @@
+/**
+ * Tests for field-level differences between versions of a profile.
+ */
+package com.github.natche.gravatarjavaclient.profile.sync;
@@ -0,0 +1,169 @@
+package com.github.natche.gravatarjavaclient.resilience
+
+import com.github.natche.gravatarjavaclient.enums.GravatarCircuitState
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfileRequestResult
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.io.IOException
+import java.time.Duration
+import java.time.Instant
+
+/**
+ * Tests for [GravatarCircuitBreaker]s.
+ */
+class GravatarCircuitBreakerTest {
+    /**
+     * Tests that the breaker opens once the failure rate reaches its threshold, and not before the minimum
+     * number of calls.
+     */
+    @Test
+    fun testOpensOnFailureRate() {
+        val breaker = breaker()
+        repeat(4) { breaker.onResult(result(0, false)) }
+        assertEquals(GravatarCircuitState.Closed, breaker.getState(start))
+
+        breaker.onResult(result(0, true))
+        breaker.onResult(result(0, true))
+        breaker.onResult(result(0, true))
+        assertEquals(GravatarCircuitState.Closed, breaker.getState(start))
+
+        breaker.onResult(result(1, false))
+        assertEquals(GravatarCircuitState.Open, breaker.getState(start.plusSeconds(1)))
+        assertFalse(breaker.tryAcquirePermission(start.plusSeconds(5)))
+        assertEquals(1, breaker.rejectedCount)
+    }
+
+    /**
+     * Tests that the breaker opens once the fraction of slow calls reaches its threshold.
+     */
+    @Test
+    fun testOpensOnSlowCalls() {
+        val breaker = breaker().setMinimumCalls(6).setSlowCallThreshold(Duration.ofSeconds(2), 0.5)
+        repeat(3) { breaker.onResult(result(0, true, Duration.ofSeconds(1))) }
+        repeat(2) { breaker.onResult(result(0, true, Duration.ofSeconds(2))) }
+        assertEquals(GravatarCircuitState.Closed, breaker.getState(start))
+
+        breaker.onResult(result(0, true, Duration.ofSeconds(3)))
+        assertEquals(GravatarCircuitState.Open, breaker.getState(start))
+    }
+
+    /**
+     * Tests that the breaker permits probes once the open duration has elapsed and closes once they succeed.
+     */
+    @Test
+    fun testHalfOpenProbesClose() {
+        val breaker = openBreaker()
+        val halfOpen = start.plus(openDuration)
+        assertFalse(breaker.tryAcquirePermission(halfOpen.minusMillis(1)))
+        assertEquals(GravatarCircuitState.HalfOpen, breaker.getState(halfOpen))
+
+        assertTrue(breaker.tryAcquirePermission(halfOpen))
+        assertTrue(breaker.tryAcquirePermission(halfOpen))
+        assertFalse(breaker.tryAcquirePermission(halfOpen))
+        breaker.releasePermission()
+        assertTrue(breaker.tryAcquirePermission(halfOpen))
+
+        breaker.onResult(result(10, true))
+        assertEquals(GravatarCircuitState.HalfOpen, breaker.getState(halfOpen))
+        breaker.onResult(result(10, true))
+        assertEquals(GravatarCircuitState.Closed, breaker.getState(halfOpen))
+        assertEquals(0, breaker.history.getResults(halfOpen).size)
+        assertTrue(breaker.tryAcquirePermission(halfOpen))
+    }
+
+    /**
+     * Tests that a failed or slow probe opens the breaker again.
+     */
+    @Test
+    fun testHalfOpenProbeReopens() {
+        val breaker = openBreaker()
+        val halfOpen = start.plus(openDuration)
+        assertTrue(breaker.tryAcquirePermission(halfOpen))
+        breaker.onResult(GravatarProfileRequestResult(halfOpen, false, Duration.ZERO))
+        assertEquals(GravatarCircuitState.Open, breaker.getState(halfOpen))
+
+        val reopened = halfOpen.plus(openDuration)
+        assertTrue(breaker.tryAcquirePermission(reopened))
+        val slow = GravatarCircuitBreaker.DEFAULT_SLOW_CALL_THRESHOLD
+        breaker.onResult(GravatarProfileRequestResult(reopened, true, slow))
+        assertEquals(GravatarCircuitState.Open, breaker.getState(reopened))
+    }
+
+    /**
+     * Tests for executing requests through the breaker.
+     */
+    @Test
+    fun testExecute() {
+        val breaker = GravatarCircuitBreaker.create().setMinimumCalls(2).setFailureRateThreshold(0.75)
+        assertEquals("value", breaker.execute { "value" })
+        assertThrows(IllegalStateException::class.java) { breaker.execute<String> { throw IllegalStateException() } }
+        assertEquals(GravatarCircuitState.Closed, breaker.state)
+        assertEquals("fallback", breaker.execute({ throw IOException() }, { "fallback" }))
+        assertEquals(2, breaker.statistics.failureCount)
+        assertEquals(3, breaker.statistics.count)
+
+        assertThrows(GravatarJavaClientException::class.java) { breaker.execute<String> { throw IOException() } }
+        assertEquals(GravatarCircuitState.Open, breaker.state)
+        assertThrows(GravatarJavaClientException::class.java) { breaker.execute { "value" } }
+        assertEquals("fallback", breaker.execute({ "value" }, { "fallback" }))
+        assertEquals(2, breaker.rejectedCount)
+        assertTrue(breaker.toString().startsWith("GravatarCircuitBreaker{state=Open, rejectedCount=2, history="))
+    }
+
+    /**
+     * Tests for invalid arguments.
+     */
+    @Test
+    fun testPreconditions() {
+        val breaker = GravatarCircuitBreaker.create()
+        assertThrows(NullPointerException::class.java) { GravatarCircuitBreaker.create(null) }
+        assertThrows(IllegalArgumentException::class.java) { breaker.setFailureRateThreshold(0.0) }
+        assertThrows(IllegalArgumentException::class.java) { breaker.setFailureRateThreshold(1.5) }
+        assertThrows(NullPointerException::class.java) { breaker.setSlowCallThreshold(null, 0.5) }
+        assertThrows(IllegalArgumentException::class.java) { breaker.setSlowCallThreshold(Duration.ZERO, 0.5) }
+        assertThrows(IllegalArgumentException::class.java) { breaker.setSlowCallThreshold(Duration.ofSeconds(1), 0.0) }
+        assertThrows(IllegalArgumentException::class.java) { breaker.setMinimumCalls(0) }
+        assertThrows(NullPointerException::class.java) { breaker.setOpenDuration(null) }
+        assertThrows(IllegalArgumentException::class.java) { breaker.setOpenDuration(Duration.ofSeconds(-1)) }
+        assertThrows(IllegalArgumentException::class.java) { breaker.setHalfOpenProbes(0) }
+        assertThrows(NullPointerException::class.java) { breaker.onResult(null) }
+        assertThrows(NullPointerException::class.java) { breaker.execute<String>(null) }
+        assertThrows(NullPointerException::class.java) { breaker.execute({ "value" }, null) }
+    }
+
+    private companion object {
+        /**
+         * The instant tests start at.
+         */
+        private val start = Instant.parse("2030-01-01T00:00:00Z")
+
+        /**
+         * The open duration of breakers under test.
+         */
+        private val openDuration = Duration.ofSeconds(10)
+
+        /**
+         * Returns a breaker which may open after eight calls.
+         */
+        private fun breaker() = GravatarCircuitBreaker
+            .create(GravatarRequestOutcomeHistory.create(10, Duration.ofMinutes(1)))
+            .setMinimumCalls(8)
+            .setOpenDuration(openDuration)
+            .setHalfOpenProbes(2)
+
+        /**
+         * Returns a breaker which opened at the start.
+         */
+        private fun openBreaker() = breaker().also { breaker ->
+            repeat(8) { breaker.onResult(result(0, false)) }
+            assertEquals(GravatarCircuitState.Open, breaker.getState(start))
+        }
+
+        /**
+         * Returns an outcome of a request sent the provided seconds after the start.
+         */
+        private fun result(seconds: Long, succeeded: Boolean, latency: Duration = Duration.ZERO) =
+            GravatarProfileRequestResult(start.plusSeconds(seconds), succeeded, latency)
+    }
+}
@@ -0,0 +1,221 @@
+package com.github.natche.gravatarjavaclient.resilience
+
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.io.IOException
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+
+/**
+ * Tests for [GravatarConcurrencyLimiter]s.
+ */
+class GravatarConcurrencyLimiterTest {
+    /**
+     * Tests for construction.
+     */
+    @Test
+    fun testCreation() {
+        val limiter = GravatarConcurrencyLimiter.create()
+        assertEquals(GravatarConcurrencyLimiter.DEFAULT_INITIAL_LIMIT, limiter.limit)
+        assertEquals(0, limiter.inFlight)
+        assertTrue(limiter.baselineLatency.isEmpty)
+        assertEquals(
+            "GravatarConcurrencyLimiter{limit=20, inFlight=0, queueLength=0, minLimit=1, maxLimit=200}",
+            limiter.toString()
+        )
+        assertEquals(5, GravatarConcurrencyLimiter.create(10).setLimits(2, 5).limit)
+        assertEquals(4, GravatarConcurrencyLimiter.create(2).setLimits(4, 8).limit)
+    }
+
+    /**
+     * Tests that requests beyond the limit are rejected or wait in arrival order.
+     */
+    @Test
+    fun testAcquisition() {
+        val limiter = GravatarConcurrencyLimiter.create(2)
+        assertTrue(limiter.tryAcquire())
+        limiter.acquire()
+        assertFalse(limiter.tryAcquire())
+        assertEquals(1, limiter.rejectedCount)
+
+        val first = limiter.acquireAsync()
+        val second = limiter.acquireAsync()
+        assertEquals(2, limiter.queueLength)
+        assertFalse(first.isDone)
+
+        limiter.release()
+        assertTrue(first.isDone)
+        assertFalse(second.isDone)
+        second.cancel(false)
+        assertEquals(0, limiter.queueLength)
+
+        limiter.release()
+        limiter.release()
+        assertEquals(0, limiter.inFlight)
+    }
+
+    /**
+     * Tests that a thread waiting for the limit proceeds once a request is released, and gives up if interrupted.
+     */
+    @Test
+    fun testBlockingAcquisition() {
+        val limiter = GravatarConcurrencyLimiter.create(1)
+        limiter.acquire()
+
+        val acquired = CountDownLatch(1)
+        val waiter = Thread {
+            limiter.acquire()
+            acquired.countDown()
+        }
+        waiter.start()
+        assertFalse(acquired.await(50, TimeUnit.MILLISECONDS))
+        limiter.release()
+        assertTrue(acquired.await(5, TimeUnit.SECONDS))
+        waiter.join()
+
+        var exception: Exception? = null
+        val interrupted = Thread {
+            try {
+                limiter.acquire()
+            } catch (e: GravatarJavaClientException) {
+                exception = e
+            }
+        }
+        interrupted.start()
+        Thread.sleep(50)
+        interrupted.interrupt()
+        interrupted.join()
+        assertNotNull(exception)
+        assertEquals(0, limiter.queueLength)
+        assertEquals(1, limiter.inFlight)
+    }
+
+    /**
+     * Tests that the limit grows while it is used and latency stays near the baseline.
+     */
+    @Test
+    fun testIncrease() {
+        val limiter = GravatarConcurrencyLimiter.create(4).setLimits(1, 6)
+        repeat(4) { limiter.acquire() }
+        limiter.release(Duration.ofMillis(100), false)
+        assertEquals(5, limiter.limit)
+        assertEquals(Duration.ofMillis(100), limiter.baselineLatency.get())
+
+        // A limit less than half used does not grow
+        repeat(3) { limiter.release(Duration.ofMillis(100), false) }
+        assertEquals(6, limiter.limit)
+        limiter.acquire()
+        limiter.release(Duration.ofMillis(150), false)
+        assertEquals(6, limiter.limit)
+    }
+
+    /**
+     * Tests that the limit shrinks when latency inflates or the server drops requests.
+     */
+    @Test
+    fun testDecrease() {
+        val limiter = GravatarConcurrencyLimiter.create(10).setBackoffRatio(0.5).setLatencyTolerance(2.0)
+        repeat(10) { limiter.acquire() }
+        limiter.release(Duration.ofMillis(100), false)
+        assertEquals(11, limiter.limit)
+
+        limiter.release(Duration.ofMillis(200), false)
+        assertEquals(12, limiter.limit)
+        limiter.release(Duration.ofMillis(250), false)
+        assertEquals(6, limiter.limit)
+        limiter.release(Duration.ofMillis(50), true)
+        assertEquals(3, limiter.limit)
+        assertEquals(1, limiter.droppedCount)
+        assertEquals(Duration.ofMillis(100), limiter.baselineLatency.get())
+
+        repeat(5) { limiter.release(Duration.ofMillis(50), true) }
+        assertEquals(1, limiter.limit)
+    }
+
+    /**
+     * Tests that the baseline latency follows a lasting change in latency.
+     */
+    @Test
+    fun testBaselineWindow() {
+        val limiter = GravatarConcurrencyLimiter.create().setBaselineWindow(2).setLatencyTolerance(100.0)
+        limiter.release(Duration.ofMillis(10), false)
+        limiter.release(Duration.ofMillis(20), false)
+        limiter.release(Duration.ofMillis(30), false)
+        assertEquals(Duration.ofMillis(10), limiter.baselineLatency.get())
+        limiter.release(Duration.ofMillis(40), false)
+        limiter.release(Duration.ofMillis(50), false)
+        assertEquals(Duration.ofMillis(30), limiter.baselineLatency.get())
+    }
+
+    /**
+     * Tests that executed requests wait for the limit and report their latency when they complete.
+     */
+    @Test
+    fun testExecute() {
+        val limiter = GravatarConcurrencyLimiter.create(1)
+        val first = CompletableFuture<Int>()
+        val second = CompletableFuture<Int>()
+        val firstResult = limiter.execute({ first }) { it == 429 }
+        var secondCalled = false
+        val secondResult = limiter.execute({
+            secondCalled = true
+            second
+        }) { it == 429 }
+        assertFalse(secondCalled)
+
+        first.complete(429)
+        assertEquals(429, firstResult.get())
+        assertEquals(1, limiter.droppedCount)
+        assertTrue(secondCalled)
+
+        second.completeExceptionally(IOException("Connection reset"))
+        val exception = assertThrows(ExecutionException::class.java) { secondResult.get() }
+        assertTrue(exception.cause is IOException)
+        assertEquals(2, limiter.droppedCount)
+        assertEquals(0, limiter.inFlight)
+    }
+
+    /**
+     * Tests that cancelling an executed request gives up waiting or cancels it, without adapting the limit.
+     */
+    @Test
+    fun testExecuteCancellation() {
+        val limiter = GravatarConcurrencyLimiter.create(1)
+        val sent = CompletableFuture<Int>()
+        val running = limiter.execute({ sent }) { false }
+        val waiting = limiter.execute({ CompletableFuture<Int>() }) { false }
+        assertEquals(1, limiter.queueLength)
+
+        waiting.cancel(true)
+        assertEquals(0, limiter.queueLength)
+        running.cancel(true)
+        assertTrue(sent.isCancelled)
+        assertEquals(0, limiter.inFlight)
+        assertEquals(1, limiter.limit)
+        assertEquals(0, limiter.droppedCount)
+    }
+
+    /**
+     * Tests for invalid arguments.
+     */
+    @Test
+    fun testPreconditions() {
+        val limiter = GravatarConcurrencyLimiter.create()
+        assertThrows(IllegalArgumentException::class.java) { GravatarConcurrencyLimiter.create(0) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarConcurrencyLimiter.create(201) }
+        assertThrows(IllegalArgumentException::class.java) { limiter.setLimits(0, 1) }
+        assertThrows(IllegalArgumentException::class.java) { limiter.setLimits(2, 1) }
+        assertThrows(IllegalArgumentException::class.java) { limiter.setBackoffRatio(1.0) }
+        assertThrows(IllegalArgumentException::class.java) { limiter.setBackoffRatio(0.0) }
+        assertThrows(IllegalArgumentException::class.java) { limiter.setLatencyTolerance(1.0) }
+        assertThrows(IllegalArgumentException::class.java) { limiter.setBaselineWindow(0) }
+        assertThrows(NullPointerException::class.java) { limiter.release(null, false) }
+        assertThrows(IllegalArgumentException::class.java) { limiter.release(Duration.ofMillis(-1), false) }
+        assertThrows(NullPointerException::class.java) { limiter.execute<Int>(null) { false } }
+        assertThrows(NullPointerException::class.java) { limiter.execute({ CompletableFuture<Int>() }, null) }
+    }
+}
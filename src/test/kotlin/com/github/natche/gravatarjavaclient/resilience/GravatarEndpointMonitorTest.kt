@@ -0,0 +1,192 @@
+package com.github.natche.gravatarjavaclient.resilience
+
+import com.github.natche.gravatarjavaclient.enums.GravatarCircuitState
+import com.github.natche.gravatarjavaclient.enums.GravatarEndpoint
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfileRequestResult
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import java.io.IOException
+import java.net.http.HttpResponse
+import java.time.Duration
+import java.time.Instant
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Tests for the [GravatarEndpointMonitor].
+ */
+class GravatarEndpointMonitorTest {
+    /**
+     * Clears the monitor of outcomes recorded by other tests before each test.
+     */
+    @BeforeEach
+    fun setUp() {
+        GravatarEndpointMonitor.INSTANCE.clear()
+    }
+
+    /**
+     * Clears the monitor after each test.
+     */
+    @AfterEach
+    fun tearDown() {
+        GravatarEndpointMonitor.INSTANCE.clear()
+    }
+
+    /**
+     * Tests that outcomes are recorded per endpoint without a circuit breaker.
+     */
+    @Test
+    fun testHistories() {
+        val monitor = GravatarEndpointMonitor.INSTANCE
+        assertEquals("value", monitor.call(GravatarEndpoint.Avatar) { "value" })
+        assertThrows(GravatarJavaClientException::class.java) {
+            monitor.call<String>(GravatarEndpoint.Avatar) { throw IOException() }
+        }
+        monitor.record(GravatarEndpoint.QrCode, GravatarProfileRequestResult(Instant.now(), true, Duration.ZERO))
+
+        assertEquals(2, monitor.getHistory(GravatarEndpoint.Avatar).getStatistics(Duration.ofSeconds(1)).count)
+        assertEquals(1, monitor.getHistory(GravatarEndpoint.Avatar).getStatistics(Duration.ofSeconds(1)).failureCount)
+        assertEquals(1, monitor.getHistory(GravatarEndpoint.QrCode).results.size)
+        assertTrue(monitor.getHistory(GravatarEndpoint.Profile).results.isEmpty())
+        assertTrue(monitor.tryAcquirePermission(GravatarEndpoint.Profile))
+        assertTrue(monitor.getCircuitBreaker(GravatarEndpoint.Profile).isEmpty)
+    }
+
+    /**
+     * Tests that requests are rejected while the circuit breaker of an endpoint is open.
+     */
+    @Test
+    fun testCircuitBreaker() {
+        val monitor = GravatarEndpointMonitor.INSTANCE
+        val breaker = GravatarCircuitBreaker.create(monitor.getHistory(GravatarEndpoint.QrCode)).setMinimumCalls(2)
+        monitor.setCircuitBreaker(GravatarEndpoint.QrCode, breaker)
+        assertSame(breaker, monitor.getCircuitBreaker(GravatarEndpoint.QrCode).get())
+
+        repeat(2) {
+            assertThrows(IllegalStateException::class.java) {
+                monitor.call<String>(GravatarEndpoint.QrCode) { throw IllegalStateException() }
+            }
+        }
+        // The breaker shares the endpoint's history, so each outcome is recorded once
+        assertEquals(2, monitor.getHistory(GravatarEndpoint.QrCode).results.size)
+        assertEquals(GravatarCircuitState.Open, breaker.state)
+
+        assertFalse(monitor.tryAcquirePermission(GravatarEndpoint.QrCode))
+        val exception = assertThrows(GravatarJavaClientException::class.java) {
+            monitor.call(GravatarEndpoint.QrCode) { "value" }
+        }
+        assertEquals("The circuit breaker of the QrCode endpoint is open", exception.message)
+        assertTrue(monitor.tryAcquirePermission(GravatarEndpoint.Avatar))
+
+        assertTrue(monitor.removeCircuitBreaker(GravatarEndpoint.QrCode))
+        assertFalse(monitor.removeCircuitBreaker(GravatarEndpoint.QrCode))
+        assertEquals("value", monitor.call(GravatarEndpoint.QrCode) { "value" })
+    }
+
+    /**
+     * Tests that requests are retried as the retry policy of an endpoint permits, recording each attempt.
+     */
+    @Test
+    fun testRetryPolicy() {
+        val monitor = GravatarEndpointMonitor.INSTANCE
+        val policy = GravatarRetryPolicy.create().setBackoff(Duration.ZERO, Duration.ZERO)
+        monitor.setRetryPolicy(GravatarEndpoint.Avatar, policy)
+        assertSame(policy, monitor.getRetryPolicy(GravatarEndpoint.Avatar).get())
+        assertTrue(monitor.getRetryPolicy(GravatarEndpoint.QrCode).isEmpty)
+
+        var calls = 0
+        assertEquals("value", monitor.call(GravatarEndpoint.Avatar) {
+            if (++calls == 1) throw IOException("Connection reset")
+            "value"
+        })
+        assertEquals(2, calls)
+        assertEquals(1, policy.retryCount)
+        val statistics = monitor.getHistory(GravatarEndpoint.Avatar).getStatistics(Duration.ofSeconds(1))
+        assertEquals(2, statistics.count)
+        assertEquals(1, statistics.failureCount)
+
+        // Each attempt asks the circuit breaker, so an open breaker is not retried against
+        monitor.setCircuitBreaker(GravatarEndpoint.Avatar, GravatarCircuitBreaker.create().setMinimumCalls(1))
+        assertThrows(GravatarJavaClientException::class.java) {
+            monitor.call<String>(GravatarEndpoint.Avatar) { throw IOException("Connection reset") }
+        }
+        assertEquals(2, policy.retryCount)
+        assertEquals(GravatarCircuitState.Open, monitor.getCircuitBreaker(GravatarEndpoint.Avatar).get().state)
+
+        assertTrue(monitor.removeRetryPolicy(GravatarEndpoint.Avatar))
+        assertFalse(monitor.removeRetryPolicy(GravatarEndpoint.Avatar))
+    }
+
+    /**
+     * Tests that slow requests are hedged as the hedging policy of an endpoint permits, and failures rethrown.
+     */
+    @Test
+    fun testHedgingPolicy() {
+        val monitor = GravatarEndpointMonitor.INSTANCE
+        val calls = AtomicInteger()
+        assertEquals("value", monitor.callHedged(GravatarEndpoint.Profile, {
+            calls.incrementAndGet()
+            CompletableFuture.completedFuture("value")
+        }) {})
+        assertEquals(1, calls.get())
+        assertTrue(monitor.getHedgingPolicy(GravatarEndpoint.Profile).isEmpty)
+
+        val policy = GravatarHedgingPolicy.create().setDelays(Duration.ofMillis(20), Duration.ZERO)
+        monitor.setHedgingPolicy(GravatarEndpoint.Profile, policy)
+        assertSame(policy, monitor.getHedgingPolicy(GravatarEndpoint.Profile).get())
+        calls.set(0)
+        assertEquals("hedge", monitor.callHedged(GravatarEndpoint.Profile, {
+            if (calls.incrementAndGet() == 1) CompletableFuture() else CompletableFuture.completedFuture("hedge")
+        }) {})
+        assertEquals(2, calls.get())
+        assertEquals(1, policy.hedgeWinCount)
+
+        val exception = assertThrows(IOException::class.java) {
+            monitor.callHedged<String>(GravatarEndpoint.Avatar, {
+                CompletableFuture.failedFuture<String>(IOException("Connection reset"))
+            }) {}
+        }
+        assertEquals("Connection reset", exception.message)
+
+        assertTrue(monitor.removeHedgingPolicy(GravatarEndpoint.Profile))
+        assertFalse(monitor.removeHedgingPolicy(GravatarEndpoint.Profile))
+    }
+
+    /**
+     * Tests for setting the concurrency limiter in front of the HTTP client.
+     */
+    @Test
+    fun testConcurrencyLimiter() {
+        val monitor = GravatarEndpointMonitor.INSTANCE
+        assertTrue(monitor.concurrencyLimiter.isEmpty)
+        assertFalse(monitor.removeConcurrencyLimiter())
+
+        val limiter = GravatarConcurrencyLimiter.create()
+        monitor.setConcurrencyLimiter(limiter)
+        assertSame(limiter, monitor.concurrencyLimiter.get())
+        assertTrue(monitor.removeConcurrencyLimiter())
+        assertTrue(monitor.concurrencyLimiter.isEmpty)
+    }
+
+    /**
+     * Tests for invalid arguments.
+     */
+    @Test
+    fun testPreconditions() {
+        val monitor = GravatarEndpointMonitor.INSTANCE
+        assertThrows(NullPointerException::class.java) { monitor.getHistory(null) }
+        assertThrows(NullPointerException::class.java) { monitor.setCircuitBreaker(GravatarEndpoint.Avatar, null) }
+        assertThrows(NullPointerException::class.java) { monitor.record(GravatarEndpoint.Avatar, null) }
+        assertThrows(NullPointerException::class.java) { monitor.call<String>(GravatarEndpoint.Avatar, null) }
+        assertThrows(NullPointerException::class.java) { monitor.call(null) { "value" } }
+        assertThrows(NullPointerException::class.java) { monitor.setHedgingPolicy(GravatarEndpoint.Avatar, null) }
+        assertThrows(NullPointerException::class.java) { monitor.setConcurrencyLimiter(null) }
+        assertThrows(NullPointerException::class.java) {
+            monitor.sendAsync(null, HttpResponse.BodyHandlers.discarding())
+        }
+        assertThrows(NullPointerException::class.java) { monitor.callHedged<String>(GravatarEndpoint.Avatar, null) {} }
+    }
+}
@@ -0,0 +1,220 @@
+package com.github.natche.gravatarjavaclient.resilience
+
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfileRequestResult
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.io.IOException
+import java.time.Duration
+import java.time.Instant
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+
+/**
+ * Tests for [GravatarHedgingPolicy]s.
+ */
+class GravatarHedgingPolicyTest {
+    /**
+     * Tests that the hedge delay is a percentile of the history's latencies once there are enough of them.
+     */
+    @Test
+    fun testHedgeDelay() {
+        val history = GravatarRequestOutcomeHistory.create()
+        val policy = GravatarHedgingPolicy.create()
+            .setPercentile(0.9, 10)
+            .setDelays(Duration.ofMillis(500), Duration.ofMillis(25))
+        assertEquals(Duration.ofMillis(500), policy.getHedgeDelay(history))
+
+        (1L..10L).forEach {
+            history.record(GravatarProfileRequestResult(Instant.now(), true, Duration.ofMillis(it * 10)))
+        }
+        assertEquals(Duration.ofMillis(90), policy.getHedgeDelay(history))
+        assertEquals(Duration.ofMillis(25), policy.setPercentile(0.1, 10).getHedgeDelay(history))
+    }
+
+    /**
+     * Tests that a slow request is hedged, the hedge's response is taken, and the original attempt is cancelled.
+     */
+    @Test
+    fun testHedgeWins() {
+        val policy = quickPolicy()
+        val attempts = CopyOnWriteArrayList<CompletableFuture<String>>()
+        val result = policy.execute(GravatarRequestOutcomeHistory.create()) {
+            CompletableFuture<String>().also(attempts::add)
+        }
+
+        awaitAttempts(attempts, 2)
+        assertFalse(result.isDone)
+        attempts[1].complete("hedge")
+        assertEquals("hedge", result.get(1, TimeUnit.SECONDS))
+        assertTrue(attempts[0].isCancelled)
+        assertEquals(1, policy.hedgeCount)
+        assertEquals(1, policy.hedgeWinCount)
+        assertEquals(0, policy.hedgeLossCount)
+    }
+
+    /**
+     * Tests that the original attempt's response is taken if it arrives first, and a late response is discarded.
+     */
+    @Test
+    fun testHedgeLoses() {
+        val policy = quickPolicy()
+        val attempts = CopyOnWriteArrayList<CompletableFuture<String>>()
+        val discarded = CopyOnWriteArrayList<String>()
+        val result = policy.execute(GravatarRequestOutcomeHistory.create(), {
+            CompletableFuture<String>().also(attempts::add)
+        }, discarded::add)
+
+        awaitAttempts(attempts, 2)
+        attempts[0].complete("primary")
+        assertEquals("primary", result.get(1, TimeUnit.SECONDS))
+        assertTrue(attempts[1].isCancelled)
+        assertEquals(0, policy.hedgeWinCount)
+        assertEquals(1, policy.hedgeLossCount)
+
+        // A response which completes before it is cancelled is discarded
+        val late = policy.execute(GravatarRequestOutcomeHistory.create(), {
+            CompletableFuture.completedFuture("late")
+        }, discarded::add)
+        assertEquals("late", late.get())
+        assertTrue(discarded.isEmpty())
+    }
+
+    /**
+     * Tests that a fast request is not hedged.
+     */
+    @Test
+    fun testFastRequestNotHedged() {
+        val policy = quickPolicy()
+        var calls = 0
+        val result = policy.execute(GravatarRequestOutcomeHistory.create()) {
+            calls++
+            CompletableFuture.completedFuture("value")
+        }
+
+        assertEquals("value", result.get())
+        Thread.sleep(100)
+        assertEquals(1, calls)
+        assertEquals(0, policy.hedgeCount)
+    }
+
+    /**
+     * Tests that a failed attempt waits for the other, and the request fails only once both have.
+     */
+    @Test
+    fun testFailures() {
+        val policy = quickPolicy()
+        val attempts = CopyOnWriteArrayList<CompletableFuture<String>>()
+        val result = policy.execute(GravatarRequestOutcomeHistory.create()) {
+            CompletableFuture<String>().also(attempts::add)
+        }
+
+        awaitAttempts(attempts, 2)
+        attempts[0].completeExceptionally(IOException("Connection reset"))
+        assertFalse(result.isDone)
+        attempts[1].complete("hedge")
+        assertEquals("hedge", result.get(1, TimeUnit.SECONDS))
+
+        attempts.clear()
+        val failed = policy.execute(GravatarRequestOutcomeHistory.create()) {
+            CompletableFuture<String>().also(attempts::add)
+        }
+        awaitAttempts(attempts, 2)
+        attempts[1].completeExceptionally(IOException("first"))
+        attempts[0].completeExceptionally(IOException("second"))
+        val exception = assertThrows(ExecutionException::class.java) { failed.get(1, TimeUnit.SECONDS) }
+        assertEquals("second", exception.cause?.message)
+
+        val immediate = policy.execute(GravatarRequestOutcomeHistory.create()) {
+            CompletableFuture.failedFuture<String>(IOException("refused"))
+        }
+        assertTrue(immediate.isCompletedExceptionally)
+    }
+
+    /**
+     * Tests that hedges are capped by the hedge budget, which requests refill.
+     */
+    @Test
+    fun testHedgeBudget() {
+        val policy = quickPolicy().setHedgeBudget(0.5, 1)
+        val history = GravatarRequestOutcomeHistory.create()
+        val attempts = CopyOnWriteArrayList<CompletableFuture<String>>()
+
+        policy.execute(history) { CompletableFuture<String>().also(attempts::add) }
+        awaitAttempts(attempts, 2)
+        policy.execute(history) { CompletableFuture<String>().also(attempts::add) }
+        awaitCondition { policy.exhaustedCount == 1L }
+        assertEquals(3, attempts.size)
+
+        policy.execute(history) { CompletableFuture<String>().also(attempts::add) }
+        awaitAttempts(attempts, 5)
+        assertEquals(2, policy.hedgeCount)
+        assertEquals(
+            "GravatarHedgingPolicy{percentile=0.95, hedgeCount=2, hedgeWinCount=0, hedgeLossCount=0, exhaustedCount=1}",
+            policy.toString()
+        )
+    }
+
+    /**
+     * Tests that cancelling a request cancels every attempt.
+     */
+    @Test
+    fun testCancellation() {
+        val policy = quickPolicy()
+        val attempts = CopyOnWriteArrayList<CompletableFuture<String>>()
+        val result = policy.execute(GravatarRequestOutcomeHistory.create()) {
+            CompletableFuture<String>().also(attempts::add)
+        }
+
+        awaitAttempts(attempts, 2)
+        result.cancel(true)
+        assertTrue(attempts.all { it.isCancelled })
+    }
+
+    /**
+     * Tests for invalid arguments.
+     */
+    @Test
+    fun testPreconditions() {
+        val policy = GravatarHedgingPolicy.create()
+        val history = GravatarRequestOutcomeHistory.create()
+        assertThrows(IllegalArgumentException::class.java) { policy.setPercentile(0.0, 1) }
+        assertThrows(IllegalArgumentException::class.java) { policy.setPercentile(1.5, 1) }
+        assertThrows(IllegalArgumentException::class.java) { policy.setPercentile(0.5, 0) }
+        assertThrows(NullPointerException::class.java) { policy.setDelays(null, Duration.ZERO) }
+        assertThrows(NullPointerException::class.java) { policy.setDelays(Duration.ZERO, null) }
+        assertThrows(IllegalArgumentException::class.java) { policy.setDelays(Duration.ofMillis(-1), Duration.ZERO) }
+        assertThrows(IllegalArgumentException::class.java) { policy.setHedgeBudget(-0.1, 1) }
+        assertThrows(IllegalArgumentException::class.java) { policy.setHedgeBudget(0.1, -1) }
+        assertThrows(NullPointerException::class.java) { policy.getHedgeDelay(null) }
+        assertThrows(NullPointerException::class.java) { policy.execute<String>(null) { CompletableFuture() } }
+        assertThrows(NullPointerException::class.java) { policy.execute<String>(history, null) }
+        assertThrows(NullPointerException::class.java) {
+            policy.execute(history, { CompletableFuture<String>() }, null)
+        }
+    }
+
+    private companion object {
+        /**
+         * Returns a policy which hedges requests outstanding for twenty milliseconds.
+         */
+        private fun quickPolicy() = GravatarHedgingPolicy.create().setDelays(Duration.ofMillis(20), Duration.ZERO)
+
+        /**
+         * Waits until the provided number of attempts have been sent.
+         */
+        private fun awaitAttempts(attempts: List<*>, count: Int) = awaitCondition { attempts.size >= count }
+
+        /**
+         * Waits up to five seconds for the provided condition to hold.
+         */
+        private fun awaitCondition(condition: () -> Boolean) {
+            val deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5)
+            while (!condition()) {
+                assertTrue(System.nanoTime() < deadline, "Timed out waiting for the condition")
+                Thread.sleep(5)
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.github.natche.gravatarjavaclient.resilience
+
+import com.github.natche.gravatarjavaclient.profile.serialization.GravatarProfileRequestResult
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.time.Duration
+import java.time.Instant
+
+/**
+ * Tests for [GravatarRequestOutcomeHistory]s.
+ */
+class GravatarRequestOutcomeHistoryTest {
+    /**
+     * Tests for construction.
+     */
+    @Test
+    fun testCreation() {
+        val history = GravatarRequestOutcomeHistory.create()
+        assertEquals(GravatarRequestOutcomeHistory.DEFAULT_CAPACITY, history.capacity)
+        assertEquals(GravatarRequestOutcomeHistory.DEFAULT_MAX_AGE, history.maxAge)
+        assertEquals("GravatarRequestOutcomeHistory{size=0, capacity=100, maxAge=PT1M}", history.toString())
+
+        assertThrows(IllegalArgumentException::class.java) { GravatarRequestOutcomeHistory.create(0, maxAge) }
+        assertThrows(NullPointerException::class.java) { GravatarRequestOutcomeHistory.create(1, null) }
+        assertThrows(IllegalArgumentException::class.java) { GravatarRequestOutcomeHistory.create(1, Duration.ZERO) }
+        assertThrows(NullPointerException::class.java) { history.record(null) }
+        assertThrows(NullPointerException::class.java) { history.getStatistics(null) }
+    }
+
+    /**
+     * Tests that the oldest outcomes are overwritten once the history is full.
+     */
+    @Test
+    fun testCapacity() {
+        val history = GravatarRequestOutcomeHistory.create(3, maxAge)
+        val results = List(5) { result(it.toLong(), it % 2 == 0, 10) }
+        results.forEach(history::record)
+
+        assertEquals(results.subList(2, 5), history.getResults(start.plusSeconds(5)))
+        assertEquals("GravatarRequestOutcomeHistory{size=3, capacity=3, maxAge=PT1M}", history.toString())
+
+        history.clear()
+        assertTrue(history.getResults(start).isEmpty())
+        history.record(results[0])
+        assertEquals(listOf(results[0]), history.getResults(start))
+    }
+
+    /**
+     * Tests that outcomes older than the maximum age are skipped.
+     */
+    @Test
+    fun testMaxAge() {
+        val history = GravatarRequestOutcomeHistory.create(10, maxAge)
+        history.record(result(0, false, 10))
+        history.record(result(30, true, 10))
+
+        assertEquals(2, history.getResults(start.plusSeconds(60)).size)
+        assertEquals(1, history.getResults(start.plusSeconds(61)).size)
+        assertEquals(0, history.getStatistics(Duration.ofSeconds(1), start.plusSeconds(91)).count)
+    }
+
+    /**
+     * Tests for the statistics of the outcomes.
+     */
+    @Test
+    fun testStatistics() {
+        val history = GravatarRequestOutcomeHistory.create(10, maxAge)
+        assertEquals(0.0, history.getStatistics(Duration.ofMillis(100), start).failureRate)
+
+        history.record(result(0, true, 50))
+        history.record(result(1, false, 100))
+        history.record(result(2, true, 300))
+        history.record(result(3, true, 350))
+
+        val statistics = history.getStatistics(Duration.ofMillis(100), start.plusSeconds(4))
+        assertEquals(4, statistics.count)
+        assertEquals(1, statistics.failureCount)
+        assertEquals(3, statistics.slowCount)
+        assertEquals(0.25, statistics.failureRate)
+        assertEquals(0.75, statistics.slowCallRate)
+        assertEquals(Duration.ofMillis(200), statistics.averageLatency)
+        assertEquals(statistics, history.getStatistics(Duration.ofMillis(100), start.plusSeconds(4)))
+        assertEquals(statistics.hashCode(), history.getStatistics(Duration.ofMillis(100), start.plusSeconds(4)).hashCode())
+        assertEquals(
+            "GravatarOutcomeStatistics{count=4, failureCount=1, slowCount=3, averageLatency=PT0.2S}",
+            statistics.toString()
+        )
+    }
+
+    /**
+     * Tests for the percentiles of the latencies of successful outcomes.
+     */
+    @Test
+    fun testLatencyPercentile() {
+        val history = GravatarRequestOutcomeHistory.create(10, maxAge)
+        (1L..9L).forEach { history.record(result(it, true, it * 10)) }
+        history.record(result(10, false, 1000))
+
+        val now = start.plusSeconds(10)
+        assertEquals(Duration.ofMillis(90), history.getLatencyPercentile(0.95, 9, now).get())
+        assertEquals(Duration.ofMillis(50), history.getLatencyPercentile(0.5, 9, now).get())
+        assertEquals(Duration.ofMillis(10), history.getLatencyPercentile(0.01, 1, now).get())
+        assertTrue(history.getLatencyPercentile(0.5, 10, now).isEmpty)
+        assertTrue(history.getLatencyPercentile(0.5, 1, start.plusSeconds(80)).isEmpty)
+
+        assertThrows(IllegalArgumentException::class.java) { history.getLatencyPercentile(0.0, 1) }
+        assertThrows(IllegalArgumentException::class.java) { history.getLatencyPercentile(1.1, 1) }
+        assertThrows(IllegalArgumentException::class.java) { history.getLatencyPercentile(0.5, 0) }
+    }
+
+    private companion object {
+        /**
+         * The instant tests start at.
+         */
+        private val start = Instant.parse("2030-01-01T00:00:00Z")
+
+        /**
+         * The maximum age of histories under test.
+         */
+        private val maxAge = Duration.ofMinutes(1)
+
+        /**
+         * Returns an outcome of a request sent the provided seconds after the start.
+         */
+        private fun result(seconds: Long, succeeded: Boolean, latencyMillis: Long) =
+            GravatarProfileRequestResult(start.plusSeconds(seconds), succeeded, Duration.ofMillis(latencyMillis))
+    }
+}
@@ -0,0 +1,155 @@
+package com.github.natche.gravatarjavaclient.resilience
+
+import com.github.natche.gravatarjavaclient.exceptions.GravatarJavaClientException
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.io.FileNotFoundException
+import java.io.IOException
+import java.net.ConnectException
+import java.net.UnknownHostException
+import java.net.http.HttpTimeoutException
+import java.time.Duration
+import java.util.concurrent.CompletionException
+
+/**
+ * Tests for [GravatarRetryPolicy]s.
+ */
+class GravatarRetryPolicyTest {
+    /**
+     * Tests for the classification of status codes and errors.
+     */
+    @Test
+    fun testClassification() {
+        val policy = GravatarRetryPolicy.create()
+        assertTrue(policy.isRetryable(503))
+        assertTrue(policy.isRetryable(408))
+        assertFalse(policy.isRetryable(404))
+        assertFalse(policy.isRetryable(429))
+
+        assertTrue(policy.isRetryable(ConnectException("Connection refused")))
+        assertTrue(policy.isRetryable(HttpTimeoutException("request timed out")))
+        assertTrue(policy.isRetryable(CompletionException(IOException("Connection reset"))))
+        assertFalse(policy.isRetryable(IOException(FileNotFoundException("https://gravatar.com/avatar/missing"))))
+        assertFalse(policy.isRetryable(UnknownHostException("gravatar.invalid")))
+        assertFalse(policy.isRetryable(GravatarJavaClientException("The circuit breaker of the Avatar endpoint is open")))
+        assertFalse(policy.isRetryable(IllegalStateException()))
+
+        policy.setRetryableStatusCodes(429)
+        assertEquals(setOf(429), policy.retryableStatusCodes)
+        assertTrue(policy.isRetryable(429))
+        assertFalse(policy.isRetryable(503))
+    }
+
+    /**
+     * Tests that the backoff is drawn between zero and a ceiling doubling from the base delay up to the maximum.
+     */
+    @Test
+    fun testBackoff() {
+        val policy = GravatarRetryPolicy.create().setBackoff(Duration.ofMillis(100), Duration.ofMillis(500))
+        val first = List(1000) { policy.getBackoff(1) }
+        val third = List(1000) { policy.getBackoff(3) }
+        val tenth = List(1000) { policy.getBackoff(10) }
+
+        assertTrue(first.all { it >= Duration.ZERO && it <= Duration.ofMillis(100) })
+        assertTrue(third.all { it <= Duration.ofMillis(400) })
+        assertTrue(third.any { it > Duration.ofMillis(200) })
+        assertTrue(tenth.all { it <= Duration.ofMillis(500) })
+        assertTrue(tenth.any { it > Duration.ofMillis(400) })
+        assertEquals(Duration.ZERO, GravatarRetryPolicy.create().setBackoff(Duration.ZERO, Duration.ZERO).getBackoff(5))
+    }
+
+    /**
+     * Tests that retries stop at the maximum number of attempts.
+     */
+    @Test
+    fun testMaxAttempts() {
+        val policy = GravatarRetryPolicy.create().setMaxAttempts(3)
+        assertTrue(policy.getRetryDelay(1, 503).isPresent)
+        assertTrue(policy.getRetryDelay(2, IOException()).isPresent)
+        assertTrue(policy.getRetryDelay(3, 503).isEmpty)
+        assertTrue(policy.getRetryDelay(1, 404).isEmpty)
+        assertEquals(2, policy.retryCount)
+        assertEquals(0, policy.exhaustedCount)
+    }
+
+    /**
+     * Tests that retries are capped by the retry budget, which requests refill.
+     */
+    @Test
+    fun testRetryBudget() {
+        val policy = GravatarRetryPolicy.create().setRetryBudget(0.5, 2)
+        assertEquals(2.0, policy.availableRetries)
+        assertTrue(policy.getRetryDelay(1, 503).isPresent)
+        assertTrue(policy.getRetryDelay(1, 503).isPresent)
+        assertTrue(policy.getRetryDelay(1, 503).isEmpty)
+        assertEquals(1, policy.exhaustedCount)
+
+        policy.recordRequest()
+        assertEquals(0.5, policy.availableRetries)
+        assertTrue(policy.getRetryDelay(1, 503).isEmpty)
+        policy.recordRequest()
+        assertTrue(policy.getRetryDelay(1, 503).isPresent)
+
+        repeat(10) { policy.recordRequest() }
+        assertEquals(2.0, policy.availableRetries)
+        assertEquals(3, policy.retryCount)
+    }
+
+    /**
+     * Tests for executing requests with retries.
+     */
+    @Test
+    fun testExecute() {
+        val policy = GravatarRetryPolicy.create().setBackoff(Duration.ZERO, Duration.ZERO).setMaxAttempts(3)
+        var calls = 0
+        assertEquals("value", policy.execute {
+            calls++
+            if (calls < 3) throw IOException("Connection reset")
+            "value"
+        })
+        assertEquals(3, calls)
+
+        calls = 0
+        assertThrows(GravatarJavaClientException::class.java) {
+            policy.execute<String> {
+                calls++
+                throw IOException("Connection reset")
+            }
+        }
+        assertEquals(3, calls)
+
+        calls = 0
+        assertThrows(IllegalStateException::class.java) {
+            policy.execute<String> {
+                calls++
+                throw IllegalStateException()
+            }
+        }
+        assertEquals(1, calls)
+        assertEquals(4, policy.retryCount)
+        assertEquals(
+            "GravatarRetryPolicy{maxAttempts=3, baseDelay=PT0S, maxDelay=PT0S, retryRatio=0.1, maxRetryTokens=10, "
+                    + "retryableStatusCodes=[408, 500, 502, 503, 504]}",
+            policy.toString()
+        )
+    }
+
+    /**
+     * Tests for invalid arguments.
+     */
+    @Test
+    fun testPreconditions() {
+        val policy = GravatarRetryPolicy.create()
+        assertThrows(IllegalArgumentException::class.java) { policy.setMaxAttempts(0) }
+        assertThrows(NullPointerException::class.java) { policy.setBackoff(null, Duration.ZERO) }
+        assertThrows(NullPointerException::class.java) { policy.setBackoff(Duration.ZERO, null) }
+        assertThrows(IllegalArgumentException::class.java) { policy.setBackoff(Duration.ofMillis(-1), Duration.ZERO) }
+        assertThrows(IllegalArgumentException::class.java) { policy.setBackoff(Duration.ofSeconds(2), Duration.ofSeconds(1)) }
+        assertThrows(IllegalArgumentException::class.java) { policy.setRetryBudget(-0.1, 1) }
+        assertThrows(IllegalArgumentException::class.java) { policy.setRetryBudget(0.1, -1) }
+        assertThrows(IllegalArgumentException::class.java) { policy.getBackoff(0) }
+        assertThrows(IllegalArgumentException::class.java) { policy.getRetryDelay(0, 503) }
+        assertThrows(NullPointerException::class.java) { policy.getRetryDelay(1, null as Throwable?) }
+        assertThrows(NullPointerException::class.java) { policy.execute<String>(null) }
+    }
+}
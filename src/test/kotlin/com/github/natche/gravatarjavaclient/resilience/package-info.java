@@ -0,0 +1,4 @@
+/**
+ * Tests for recording request outcomes and failing fast while the Gravatar APIs are degraded.
+ */
+package com.github.natche.gravatarjavaclient.resilience;